@@ -28,6 +28,8 @@ import com.badlogic.gdx.LifecycleListener;
 import com.badlogic.gdx.Net;
 import com.badlogic.gdx.Preferences;
 import com.badlogic.gdx.backends.headless.mock.audio.MockAudio;
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGL20;
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGL30;
 import com.badlogic.gdx.backends.headless.mock.graphics.MockGraphics;
 import com.badlogic.gdx.backends.headless.mock.input.MockInput;
 import com.badlogic.gdx.utils.Array;
@@ -73,6 +75,14 @@ public class HeadlessApplication implements Application {
 		this.graphics = new MockGraphics();
 		this.audio = new MockAudio();
 		this.input = new MockInput();
+		if (config.useMockGL) {
+			MockGL20 gl = config.useGL30 ? new MockGL30() : new MockGL20();
+			gl.setStrict(config.strictMockGL);
+			if (gl instanceof MockGL30)
+				graphics.setGL30((MockGL30)gl);
+			else
+				graphics.setGL20(gl);
+		}
 
 		this.preferencesdir = config.preferencesDirectory;
 
@@ -16,6 +16,10 @@
 
 package com.badlogic.gdx.backends.headless;
 
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGL20;
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGL30;
+
 public class HeadlessApplicationConfiguration {
 	/** The minimum time (in seconds) between each call to the render method or negative to not call the render method at all. */
 	public float renderInterval = 1f / 60f;
@@ -24,4 +28,12 @@ public class HeadlessApplicationConfiguration {
 
 	/** The maximum number of threads to use for network requests. Default is {@link Integer#MAX_VALUE}. */
 	public int maxNetThreads = Integer.MAX_VALUE;
+
+	/** Whether to install a {@link MockGL20} as {@link Gdx#gl}, so that renderers can be created and used without a GPU. Default
+	 * is false, leaving {@link Gdx#gl} null. */
+	public boolean useMockGL = false;
+	/** Whether the mock GL should be a {@link MockGL30}, only used if {@link #useMockGL} is true. Default is false. */
+	public boolean useGL30 = false;
+	/** Whether the mock GL should throw on invalid usage instead of reporting it through glGetError. Default is false. */
+	public boolean strictMockGL = false;
 }
@@ -0,0 +1,2342 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.backends.headless.mock.graphics;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+import com.badlogic.gdx.backends.headless.mock.graphics.MockShaderParser.Variable;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.profiling.GLInterceptor;
+import com.badlogic.gdx.math.FloatCounter;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntIntMap;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.IntSet;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/** A {@link GL20} implementation for the headless backend that doesn't rasterize anything, but keeps track of object names,
+ * buffer contents and bound state like a driver would. This allows the CPU side of the renderers ({@code SpriteBatch},
+ * {@code ShapeRenderer}, {@code ModelBatch}, {@code Stage}, ...) to be run, tested and benchmarked on machines without a GPU.
+ * <p>
+ * Invalid usage, like drawing without a linked program, reading past the end of a vertex buffer or binding a deleted texture,
+ * is reported through {@link #glGetError()} the way a driver would, or thrown as a {@link GdxRuntimeException} right away when
+ * {@link #setStrict(boolean) strict}. The more expensive checks, like scanning index buffers for out of range indices, can be
+ * turned off with {@link #setValidation(boolean)} when benchmarking.
+ * <p>
+ * Calls, draw calls, texture bindings, shader switches and vertices are counted the same way {@link GLInterceptor} does.
+ * Shaders are not compiled, their uniform and attribute declarations are parsed so that
+ * {@link com.badlogic.gdx.graphics.glutils.ShaderProgram} can look them up. */
+public class MockGL20 implements GL20 {
+	public static final int MAX_TEXTURE_SIZE = 8192;
+	public static final int MAX_TEXTURE_UNITS = 16;
+	public static final int MAX_VERTEX_ATTRIBS = 16;
+	public static final int MAX_UNIFORM_VECTORS = 1024;
+	public static final int MAX_VARYING_VECTORS = 16;
+
+	protected int calls;
+	protected int textureBindings;
+	protected int drawCalls;
+	protected int shaderSwitches;
+	protected final FloatCounter vertexCount = new FloatCounter(0);
+
+	protected boolean strict;
+	protected boolean validation = true;
+	protected int error = GL_NO_ERROR;
+	protected String errorMessage;
+
+	protected int nextName = 1;
+	protected final IntMap<BufferObject> buffers = new IntMap<BufferObject>();
+	protected final IntMap<TextureObject> textures = new IntMap<TextureObject>();
+	protected final IntMap<FramebufferObject> framebuffers = new IntMap<FramebufferObject>();
+	protected final IntMap<RenderbufferObject> renderbuffers = new IntMap<RenderbufferObject>();
+	protected final IntMap<ShaderObject> shaders = new IntMap<ShaderObject>();
+	protected final IntMap<ProgramObject> programs = new IntMap<ProgramObject>();
+
+	protected final VertexArrayState defaultVertexArray = new VertexArrayState();
+	protected VertexArrayState vertexArray = defaultVertexArray;
+	protected int arrayBuffer;
+	protected int currentProgram;
+	protected int framebuffer;
+	protected int renderbuffer;
+	protected int activeTexture;
+	/** Texture bindings per texture unit, indexed by {@link #textureTargetIndex(int)}. */
+	protected final int[][] boundTextures = new int[MAX_TEXTURE_UNITS][4];
+
+	protected final IntSet enabled = new IntSet();
+	protected final int[] viewport = new int[4];
+	protected final int[] scissor = new int[4];
+
+	/** @return the number of GL calls since the last {@link #reset()}. */
+	public int getCalls () {
+		return calls;
+	}
+
+	/** @return the number of texture bindings since the last {@link #reset()}. */
+	public int getTextureBindings () {
+		return textureBindings;
+	}
+
+	/** @return the number of draw calls since the last {@link #reset()}. */
+	public int getDrawCalls () {
+		return drawCalls;
+	}
+
+	/** @return the number of shader switches since the last {@link #reset()}. */
+	public int getShaderSwitches () {
+		return shaderSwitches;
+	}
+
+	/** @return the counter for the vertices (or indices) submitted per draw call since the last {@link #reset()}. */
+	public FloatCounter getVertexCount () {
+		return vertexCount;
+	}
+
+	/** Resets the call counters, GL state and objects are kept. */
+	public void reset () {
+		calls = 0;
+		textureBindings = 0;
+		drawCalls = 0;
+		shaderSwitches = 0;
+		vertexCount.reset();
+	}
+
+	/** @param strict whether invalid usage throws a {@link GdxRuntimeException} instead of being reported by {@link #glGetError()}. */
+	public void setStrict (boolean strict) {
+		this.strict = strict;
+	}
+
+	public boolean isStrict () {
+		return strict;
+	}
+
+	/** @param validation whether to run the checks that are linear in the size of a draw call: vertex buffer ranges and index
+	 *           contents. Object and state validation is always done. Default is true. */
+	public void setValidation (boolean validation) {
+		this.validation = validation;
+	}
+
+	public boolean isValidation () {
+		return validation;
+	}
+
+	/** @return the description of the first error since the last {@link #glGetError()}, or null. */
+	public String getErrorMessage () {
+		return errorMessage;
+	}
+
+	/** @return the contents of the given buffer object as a read-only view, or null if it doesn't exist or has no data store. */
+	public ByteBuffer getBufferData (int buffer) {
+		BufferObject object = buffers.get(buffer);
+		if (object == null || object.data == null) return null;
+		return object.data.asReadOnlyBuffer().order(ByteOrder.nativeOrder());
+	}
+
+	/** @return the width and height of level zero of the given texture, or null if it doesn't exist or has no image. */
+	public int[] getTextureSize (int texture) {
+		TextureObject object = textures.get(texture);
+		if (object == null || object.width < 0) return null;
+		return new int[] {object.width, object.height};
+	}
+
+	/** Reports invalid usage. Only the first error is kept until {@link #glGetError()} is called, like a driver does. */
+	protected void error (int code, String message) {
+		if (strict) throw new GdxRuntimeException(message + " (" + GLInterceptor.resolveErrorNumber(code) + ")");
+		if (error == GL_NO_ERROR) {
+			error = code;
+			errorMessage = message;
+		}
+	}
+
+	// objects
+
+	protected static class BufferObject {
+		public ByteBuffer data;
+		public int usage = GL_STATIC_DRAW;
+
+		public int size () {
+			return data == null ? 0 : data.capacity();
+		}
+	}
+
+	protected static class TextureObject {
+		public int target;
+		public int width = -1, height = -1, depth = 1;
+		public int internalFormat;
+		public boolean mipmaps;
+	}
+
+	protected static class RenderbufferObject {
+		public int width = -1, height = -1;
+		public int internalFormat;
+	}
+
+	protected static class FramebufferObject {
+		/** Attachment point to texture name. */
+		public final IntIntMap textures = new IntIntMap();
+		/** Attachment point to renderbuffer name. */
+		public final IntIntMap renderbuffers = new IntIntMap();
+	}
+
+	protected static class ShaderObject {
+		public final int type;
+		public String source;
+		public boolean compiled;
+		public String infoLog = "";
+		public MockShaderParser parser;
+		public boolean deleted;
+		public int attachments;
+
+		public ShaderObject (int type) {
+			this.type = type;
+		}
+	}
+
+	protected static class ProgramObject {
+		public final IntSet shaders = new IntSet();
+		public final ObjectIntMap<String> boundAttributes = new ObjectIntMap<String>();
+		public boolean linked;
+		public boolean deleted;
+		public String infoLog = "";
+		public final Array<Variable> attributes = new Array<Variable>();
+		public final ObjectIntMap<String> attributeLocations = new ObjectIntMap<String>();
+		public final Array<Variable> uniforms = new Array<Variable>();
+		public final ObjectIntMap<String> uniformLocations = new ObjectIntMap<String>();
+		/** Per uniform location: the type of the uniform and the number of array elements starting at that location. */
+		public int[] locationTypes = new int[0], locationSizes = new int[0];
+		public boolean[] locationArrays = new boolean[0];
+	}
+
+	protected static class VertexAttrib {
+		public boolean enabled;
+		public int size = 4, type = GL_FLOAT, stride;
+		public boolean normalized;
+		public int buffer;
+		public int offset;
+		public Buffer pointer;
+		public int divisor;
+	}
+
+	/** The vertex attribute and element array state, which is owned by a vertex array object in GL ES 3.0. */
+	protected static class VertexArrayState {
+		public final VertexAttrib[] attribs = new VertexAttrib[MAX_VERTEX_ATTRIBS];
+		public int elementArrayBuffer;
+
+		public VertexArrayState () {
+			for (int i = 0; i < attribs.length; i++)
+				attribs[i] = new VertexAttrib();
+		}
+	}
+
+	protected int genName () {
+		return nextName++;
+	}
+
+	/** @return the size in bytes of the given data type or 0 if it is not a valid type. */
+	protected static int typeSize (int type) {
+		switch (type) {
+		case GL_BYTE:
+		case GL_UNSIGNED_BYTE:
+			return 1;
+		case GL_SHORT:
+		case GL_UNSIGNED_SHORT:
+		case 0x140B: // GL_HALF_FLOAT
+			return 2;
+		case GL_INT:
+		case GL_UNSIGNED_INT:
+		case GL_FLOAT:
+		case GL_FIXED:
+			return 4;
+		}
+		return 0;
+	}
+
+	protected static int elementSize (Buffer buffer) {
+		if (buffer instanceof ByteBuffer) return 1;
+		if (buffer instanceof ShortBuffer) return 2;
+		if (buffer instanceof IntBuffer || buffer instanceof FloatBuffer) return 4;
+		return 8;
+	}
+
+	/** Copies up to the given number of bytes from the remaining elements of src into dst. */
+	protected static void copy (Buffer src, ByteBuffer dst, int dstOffset, int bytes) {
+		ByteBuffer target = dst.duplicate().order(ByteOrder.nativeOrder());
+		target.position(dstOffset);
+		if (src instanceof ByteBuffer) {
+			ByteBuffer source = ((ByteBuffer)src).duplicate();
+			source.limit(Math.min(source.limit(), source.position() + bytes));
+			target.put(source);
+		} else if (src instanceof FloatBuffer) {
+			FloatBuffer source = ((FloatBuffer)src).duplicate();
+			source.limit(Math.min(source.limit(), source.position() + bytes / 4));
+			target.asFloatBuffer().put(source);
+		} else if (src instanceof ShortBuffer) {
+			ShortBuffer source = ((ShortBuffer)src).duplicate();
+			source.limit(Math.min(source.limit(), source.position() + bytes / 2));
+			target.asShortBuffer().put(source);
+		} else if (src instanceof IntBuffer) {
+			IntBuffer source = ((IntBuffer)src).duplicate();
+			source.limit(Math.min(source.limit(), source.position() + bytes / 4));
+			target.asIntBuffer().put(source);
+		}
+	}
+
+	protected static void put (IntBuffer params, int value) {
+		params.put(params.position(), value);
+	}
+
+	// state
+
+	@Override
+	public void glActiveTexture (int texture) {
+		calls++;
+		int unit = texture - GL_TEXTURE0;
+		if (unit < 0 || unit >= MAX_TEXTURE_UNITS) {
+			error(GL_INVALID_ENUM, "glActiveTexture: texture unit out of range: " + texture);
+			return;
+		}
+		activeTexture = unit;
+	}
+
+	/** @return the index of the texture target in {@link #boundTextures} or -1 if it is not a valid target. */
+	protected int textureTargetIndex (int target) {
+		if (target == GL_TEXTURE_2D) return 0;
+		if (target == GL_TEXTURE_CUBE_MAP) return 1;
+		return -1;
+	}
+
+	/** @return the texture bound to the given target on the active unit, where all cube map faces map to the cube map. */
+	protected int boundTexture (int target) {
+		if (target >= GL_TEXTURE_CUBE_MAP_POSITIVE_X && target <= GL_TEXTURE_CUBE_MAP_NEGATIVE_Z) target = GL_TEXTURE_CUBE_MAP;
+		int index = textureTargetIndex(target);
+		return index == -1 ? -1 : boundTextures[activeTexture][index];
+	}
+
+	@Override
+	public void glBindTexture (int target, int texture) {
+		textureBindings++;
+		calls++;
+		int index = textureTargetIndex(target);
+		if (index == -1) {
+			error(GL_INVALID_ENUM, "glBindTexture: invalid target: " + target);
+			return;
+		}
+		if (texture != 0) {
+			TextureObject object = textures.get(texture);
+			if (object == null) {
+				error(GL_INVALID_OPERATION, "glBindTexture: texture " + texture + " was not generated or has been deleted");
+				return;
+			}
+			if (object.target != 0 && object.target != target) {
+				error(GL_INVALID_OPERATION, "glBindTexture: texture " + texture + " was previously bound to another target");
+				return;
+			}
+			object.target = target;
+		}
+		boundTextures[activeTexture][index] = texture;
+	}
+
+	@Override
+	public void glBlendFunc (int sfactor, int dfactor) {
+		calls++;
+	}
+
+	@Override
+	public void glClear (int mask) {
+		calls++;
+		if ((mask & ~(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT | GL_STENCIL_BUFFER_BIT)) != 0)
+			error(GL_INVALID_VALUE, "glClear: invalid mask: " + mask);
+		else
+			checkFramebuffer("glClear");
+	}
+
+	@Override
+	public void glClearColor (float red, float green, float blue, float alpha) {
+		calls++;
+	}
+
+	@Override
+	public void glClearDepthf (float depth) {
+		calls++;
+	}
+
+	@Override
+	public void glClearStencil (int s) {
+		calls++;
+	}
+
+	@Override
+	public void glColorMask (boolean red, boolean green, boolean blue, boolean alpha) {
+		calls++;
+	}
+
+	@Override
+	public void glCompressedTexImage2D (int target, int level, int internalformat, int width, int height, int border,
+		int imageSize, Buffer data) {
+		calls++;
+		texImage("glCompressedTexImage2D", target, level, internalformat, width, height, 1, border);
+	}
+
+	@Override
+	public void glCompressedTexSubImage2D (int target, int level, int xoffset, int yoffset, int width, int height, int format,
+		int imageSize, Buffer data) {
+		calls++;
+		texSubImage("glCompressedTexSubImage2D", target, level, xoffset, yoffset, 0, width, height, 1);
+	}
+
+	@Override
+	public void glCopyTexImage2D (int target, int level, int internalformat, int x, int y, int width, int height, int border) {
+		calls++;
+		if (checkFramebuffer("glCopyTexImage2D"))
+			texImage("glCopyTexImage2D", target, level, internalformat, width, height, 1, border);
+	}
+
+	@Override
+	public void glCopyTexSubImage2D (int target, int level, int xoffset, int yoffset, int x, int y, int width, int height) {
+		calls++;
+		if (checkFramebuffer("glCopyTexSubImage2D"))
+			texSubImage("glCopyTexSubImage2D", target, level, xoffset, yoffset, 0, width, height, 1);
+	}
+
+	@Override
+	public void glCullFace (int mode) {
+		calls++;
+		if (mode != GL_FRONT && mode != GL_BACK && mode != GL_FRONT_AND_BACK)
+			error(GL_INVALID_ENUM, "glCullFace: invalid mode: " + mode);
+	}
+
+	@Override
+	public void glDeleteTextures (int n, IntBuffer textures) {
+		calls++;
+		for (int i = 0, p = textures.position(); i < n; i++)
+			deleteTexture(textures.get(p + i));
+	}
+
+	@Override
+	public void glDeleteTexture (int texture) {
+		calls++;
+		deleteTexture(texture);
+	}
+
+	protected void deleteTexture (int texture) {
+		if (textures.remove(texture) == null) return;
+		for (int[] unit : boundTextures)
+			for (int i = 0; i < unit.length; i++)
+				if (unit[i] == texture) unit[i] = 0;
+		FramebufferObject object = framebuffers.get(framebuffer);
+		if (object != null) {
+			for (IntIntMap.Entries iter = object.textures.entries(); iter.hasNext;)
+				if (iter.next().value == texture) iter.remove();
+		}
+	}
+
+	@Override
+	public void glDepthFunc (int func) {
+		calls++;
+	}
+
+	@Override
+	public void glDepthMask (boolean flag) {
+		calls++;
+	}
+
+	@Override
+	public void glDepthRangef (float zNear, float zFar) {
+		calls++;
+	}
+
+	/** @return whether the capability is accepted by glEnable, glDisable and glIsEnabled. */
+	protected boolean isCapability (int cap) {
+		switch (cap) {
+		case GL_BLEND:
+		case GL_CULL_FACE:
+		case GL_DEPTH_TEST:
+		case GL_DITHER:
+		case GL_POLYGON_OFFSET_FILL:
+		case GL_SAMPLE_ALPHA_TO_COVERAGE:
+		case GL_SAMPLE_COVERAGE:
+		case GL_SCISSOR_TEST:
+		case GL_STENCIL_TEST:
+			return true;
+		// not part of GL ES, but accepted by desktop GL and issued by some of the renderers
+		case GL_TEXTURE_2D:
+		case GL_VERTEX_PROGRAM_POINT_SIZE:
+		case 0x8861: // GL_POINT_SPRITE
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public void glDisable (int cap) {
+		calls++;
+		if (!isCapability(cap))
+			error(GL_INVALID_ENUM, "glDisable: invalid capability: " + cap);
+		else
+			enabled.remove(cap);
+	}
+
+	@Override
+	public void glEnable (int cap) {
+		calls++;
+		if (!isCapability(cap))
+			error(GL_INVALID_ENUM, "glEnable: invalid capability: " + cap);
+		else
+			enabled.add(cap);
+	}
+
+	@Override
+	public boolean glIsEnabled (int cap) {
+		calls++;
+		if (!isCapability(cap)) {
+			error(GL_INVALID_ENUM, "glIsEnabled: invalid capability: " + cap);
+			return false;
+		}
+		return enabled.contains(cap);
+	}
+
+	@Override
+	public void glFinish () {
+		calls++;
+	}
+
+	@Override
+	public void glFlush () {
+		calls++;
+	}
+
+	@Override
+	public void glFrontFace (int mode) {
+		calls++;
+		if (mode != GL_CW && mode != GL_CCW) error(GL_INVALID_ENUM, "glFrontFace: invalid mode: " + mode);
+	}
+
+	@Override
+	public void glGenTextures (int n, IntBuffer textures) {
+		calls++;
+		for (int i = 0, p = textures.position(); i < n; i++)
+			textures.put(p + i, genTexture());
+	}
+
+	@Override
+	public int glGenTexture () {
+		calls++;
+		return genTexture();
+	}
+
+	protected int genTexture () {
+		int name = genName();
+		textures.put(name, new TextureObject());
+		return name;
+	}
+
+	@Override
+	public int glGetError () {
+		calls++;
+		int result = error;
+		error = GL_NO_ERROR;
+		errorMessage = null;
+		return result;
+	}
+
+	@Override
+	public void glGetIntegerv (int pname, IntBuffer params) {
+		calls++;
+		if (!getInteger(pname, params)) error(GL_INVALID_ENUM, "glGetIntegerv: invalid parameter: " + pname);
+	}
+
+	/** Writes the value(s) of the given state variable at the position of params.
+	 * @return false if the state variable is not known. */
+	protected boolean getInteger (int pname, IntBuffer params) {
+		int p = params.position();
+		switch (pname) {
+		case GL_MAX_TEXTURE_SIZE:
+		case GL_MAX_CUBE_MAP_TEXTURE_SIZE:
+		case GL_MAX_RENDERBUFFER_SIZE:
+			params.put(p, MAX_TEXTURE_SIZE);
+			return true;
+		case GL_MAX_VIEWPORT_DIMS:
+			params.put(p, MAX_TEXTURE_SIZE);
+			params.put(p + 1, MAX_TEXTURE_SIZE);
+			return true;
+		case GL_MAX_TEXTURE_IMAGE_UNITS:
+		case GL_MAX_COMBINED_TEXTURE_IMAGE_UNITS:
+		case GL_MAX_VERTEX_TEXTURE_IMAGE_UNITS:
+			params.put(p, MAX_TEXTURE_UNITS);
+			return true;
+		case GL_MAX_VERTEX_ATTRIBS:
+			params.put(p, MAX_VERTEX_ATTRIBS);
+			return true;
+		case GL_MAX_VERTEX_UNIFORM_VECTORS:
+		case GL_MAX_FRAGMENT_UNIFORM_VECTORS:
+			params.put(p, MAX_UNIFORM_VECTORS);
+			return true;
+		case GL_MAX_VARYING_VECTORS:
+			params.put(p, MAX_VARYING_VECTORS);
+			return true;
+		case GL_NUM_COMPRESSED_TEXTURE_FORMATS:
+		case GL_NUM_SHADER_BINARY_FORMATS:
+			params.put(p, 0);
+			return true;
+		case GL_RED_BITS:
+		case GL_GREEN_BITS:
+		case GL_BLUE_BITS:
+		case GL_ALPHA_BITS:
+		case GL_STENCIL_BITS:
+			params.put(p, 8);
+			return true;
+		case GL_DEPTH_BITS:
+			params.put(p, 24);
+			return true;
+		case GL_VIEWPORT:
+			for (int i = 0; i < 4; i++)
+				params.put(p + i, viewport[i]);
+			return true;
+		case GL_SCISSOR_BOX:
+			for (int i = 0; i < 4; i++)
+				params.put(p + i, scissor[i]);
+			return true;
+		case GL_CURRENT_PROGRAM:
+			params.put(p, currentProgram);
+			return true;
+		case GL_ARRAY_BUFFER_BINDING:
+			params.put(p, arrayBuffer);
+			return true;
+		case GL_ELEMENT_ARRAY_BUFFER_BINDING:
+			params.put(p, vertexArray.elementArrayBuffer);
+			return true;
+		case GL_FRAMEBUFFER_BINDING:
+			params.put(p, framebuffer);
+			return true;
+		case GL_RENDERBUFFER_BINDING:
+			params.put(p, renderbuffer);
+			return true;
+		case GL_TEXTURE_BINDING_2D:
+			params.put(p, boundTextures[activeTexture][0]);
+			return true;
+		case GL_TEXTURE_BINDING_CUBE_MAP:
+			params.put(p, boundTextures[activeTexture][1]);
+			return true;
+		case GL_ACTIVE_TEXTURE:
+			params.put(p, GL_TEXTURE0 + activeTexture);
+			return true;
+		case GL_IMPLEMENTATION_COLOR_READ_FORMAT:
+			params.put(p, GL_RGBA);
+			return true;
+		case GL_IMPLEMENTATION_COLOR_READ_TYPE:
+			params.put(p, GL_UNSIGNED_BYTE);
+			return true;
+		}
+		if (isCapability(pname)) {
+			params.put(p, enabled.contains(pname) ? 1 : 0);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public String glGetString (int name) {
+		calls++;
+		switch (name) {
+		case GL_VENDOR:
+			return "libGDX";
+		case GL_RENDERER:
+			return "Headless Mock";
+		case GL_VERSION:
+			return getVersionString();
+		case GL_SHADING_LANGUAGE_VERSION:
+			return getShadingLanguageVersionString();
+		case GL_EXTENSIONS:
+			return "";
+		}
+		error(GL_INVALID_ENUM, "glGetString: invalid name: " + name);
+		return null;
+	}
+
+	protected String getVersionString () {
+		return "OpenGL ES 2.0 Mock";
+	}
+
+	protected String getShadingLanguageVersionString () {
+		return "OpenGL ES GLSL ES 1.00";
+	}
+
+	@Override
+	public void glHint (int target, int mode) {
+		calls++;
+	}
+
+	@Override
+	public void glLineWidth (float width) {
+		calls++;
+		if (width <= 0) error(GL_INVALID_VALUE, "glLineWidth: width must be positive: " + width);
+	}
+
+	@Override
+	public void glPixelStorei (int pname, int param) {
+		calls++;
+		if (param != 1 && param != 2 && param != 4 && param != 8 && (pname == GL_PACK_ALIGNMENT || pname == GL_UNPACK_ALIGNMENT))
+			error(GL_INVALID_VALUE, "glPixelStorei: invalid alignment: " + param);
+	}
+
+	@Override
+	public void glPolygonOffset (float factor, float units) {
+		calls++;
+	}
+
+	@Override
+	public void glReadPixels (int x, int y, int width, int height, int format, int type, Buffer pixels) {
+		calls++;
+		if (width < 0 || height < 0)
+			error(GL_INVALID_VALUE, "glReadPixels: negative size");
+		else
+			checkFramebuffer("glReadPixels");
+	}
+
+	@Override
+	public void glScissor (int x, int y, int width, int height) {
+		calls++;
+		if (width < 0 || height < 0) {
+			error(GL_INVALID_VALUE, "glScissor: negative size");
+			return;
+		}
+		scissor[0] = x;
+		scissor[1] = y;
+		scissor[2] = width;
+		scissor[3] = height;
+	}
+
+	@Override
+	public void glStencilFunc (int func, int ref, int mask) {
+		calls++;
+	}
+
+	@Override
+	public void glStencilMask (int mask) {
+		calls++;
+	}
+
+	@Override
+	public void glStencilOp (int fail, int zfail, int zpass) {
+		calls++;
+	}
+
+	@Override
+	public void glTexImage2D (int target, int level, int internalformat, int width, int height, int border, int format, int type,
+		Buffer pixels) {
+		calls++;
+		texImage("glTexImage2D", target, level, internalformat, width, height, 1, border);
+	}
+
+	/** Defines the image of a level of the texture bound to the target, the size of level zero is recorded. */
+	protected void texImage (String function, int target, int level, int internalformat, int width, int height, int depth,
+		int border) {
+		int texture = boundTexture(target);
+		if (texture == -1 || target == GL_TEXTURE_CUBE_MAP) {
+			error(GL_INVALID_ENUM, function + ": invalid target: " + target);
+			return;
+		}
+		if (level < 0 || width < 0 || height < 0 || depth < 0 || width > MAX_TEXTURE_SIZE || height > MAX_TEXTURE_SIZE
+			|| border != 0) {
+			error(GL_INVALID_VALUE, function + ": invalid level, size or border: " + level + ", " + width + "x" + height + ", "
+				+ border);
+			return;
+		}
+		TextureObject object = textures.get(texture);
+		if (object == null) return; // default texture
+		if (level == 0) {
+			object.width = width;
+			object.height = height;
+			object.depth = depth;
+			object.internalFormat = internalformat;
+		} else
+			object.mipmaps = true;
+	}
+
+	/** Checks that the updated region lies within the image of the texture bound to the target. */
+	protected void texSubImage (String function, int target, int level, int xoffset, int yoffset, int zoffset, int width,
+		int height, int depth) {
+		int texture = boundTexture(target);
+		if (texture == -1 || target == GL_TEXTURE_CUBE_MAP) {
+			error(GL_INVALID_ENUM, function + ": invalid target: " + target);
+			return;
+		}
+		if (xoffset < 0 || yoffset < 0 || zoffset < 0 || width < 0 || height < 0 || depth < 0) {
+			error(GL_INVALID_VALUE, function + ": negative offset or size");
+			return;
+		}
+		TextureObject object = textures.get(texture);
+		if (object == null) return;
+		if (object.width < 0) {
+			error(GL_INVALID_OPERATION, function + ": texture " + texture + " has no image");
+			return;
+		}
+		int w = Math.max(1, object.width >> level), h = Math.max(1, object.height >> level);
+		if (xoffset + width > w || yoffset + height > h || zoffset + depth > object.depth)
+			error(GL_INVALID_VALUE, function + ": region exceeds the " + w + "x" + h + " image of texture " + texture);
+	}
+
+	@Override
+	public void glTexParameterf (int target, int pname, float param) {
+		calls++;
+		texParameter("glTexParameterf", target);
+	}
+
+	protected void texParameter (String function, int target) {
+		if (textureTargetIndex(target) == -1) error(GL_INVALID_ENUM, function + ": invalid target: " + target);
+	}
+
+	@Override
+	public void glTexSubImage2D (int target, int level, int xoffset, int yoffset, int width, int height, int format, int type,
+		Buffer pixels) {
+		calls++;
+		texSubImage("glTexSubImage2D", target, level, xoffset, yoffset, 0, width, height, 1);
+	}
+
+	@Override
+	public void glViewport (int x, int y, int width, int height) {
+		calls++;
+		if (width < 0 || height < 0) {
+			error(GL_INVALID_VALUE, "glViewport: negative size");
+			return;
+		}
+		viewport[0] = x;
+		viewport[1] = y;
+		viewport[2] = width;
+		viewport[3] = height;
+	}
+
+	@Override
+	public void glBlendColor (float red, float green, float blue, float alpha) {
+		calls++;
+	}
+
+	@Override
+	public void glBlendEquation (int mode) {
+		calls++;
+	}
+
+	@Override
+	public void glBlendEquationSeparate (int modeRGB, int modeAlpha) {
+		calls++;
+	}
+
+	@Override
+	public void glBlendFuncSeparate (int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
+		calls++;
+	}
+
+	@Override
+	public void glGetBooleanv (int pname, Buffer params) {
+		calls++;
+		IntBuffer values = IntBuffer.allocate(16);
+		if (!getInteger(pname, values)) {
+			error(GL_INVALID_ENUM, "glGetBooleanv: invalid parameter: " + pname);
+			return;
+		}
+		if (params instanceof ByteBuffer)
+			((ByteBuffer)params).put(params.position(), (byte)(values.get(0) != 0 ? 1 : 0));
+		else if (params instanceof IntBuffer) ((IntBuffer)params).put(params.position(), values.get(0) != 0 ? 1 : 0);
+	}
+
+	@Override
+	public void glGetFloatv (int pname, FloatBuffer params) {
+		calls++;
+		int p = params.position();
+		if (pname == GL_ALIASED_LINE_WIDTH_RANGE || pname == GL_ALIASED_POINT_SIZE_RANGE) {
+			params.put(p, 1);
+			params.put(p + 1, 64);
+			return;
+		}
+		IntBuffer values = IntBuffer.allocate(16);
+		if (!getInteger(pname, values)) {
+			error(GL_INVALID_ENUM, "glGetFloatv: invalid parameter: " + pname);
+			return;
+		}
+		params.put(p, values.get(0));
+	}
+
+	@Override
+	public void glSampleCoverage (float value, boolean invert) {
+		calls++;
+	}
+
+	@Override
+	public void glStencilFuncSeparate (int face, int func, int ref, int mask) {
+		calls++;
+	}
+
+	@Override
+	public void glStencilMaskSeparate (int face, int mask) {
+		calls++;
+	}
+
+	@Override
+	public void glStencilOpSeparate (int face, int fail, int zfail, int zpass) {
+		calls++;
+	}
+
+	@Override
+	public void glTexParameterfv (int target, int pname, FloatBuffer params) {
+		calls++;
+		texParameter("glTexParameterfv", target);
+	}
+
+	@Override
+	public void glTexParameteri (int target, int pname, int param) {
+		calls++;
+		texParameter("glTexParameteri", target);
+	}
+
+	@Override
+	public void glTexParameteriv (int target, int pname, IntBuffer params) {
+		calls++;
+		texParameter("glTexParameteriv", target);
+	}
+
+	@Override
+	public void glGetTexParameterfv (int target, int pname, FloatBuffer params) {
+		calls++;
+		texParameter("glGetTexParameterfv", target);
+	}
+
+	@Override
+	public void glGetTexParameteriv (int target, int pname, IntBuffer params) {
+		calls++;
+		texParameter("glGetTexParameteriv", target);
+	}
+
+	@Override
+	public void glGenerateMipmap (int target) {
+		calls++;
+		int texture = boundTexture(target);
+		if (textureTargetIndex(target) == -1) {
+			error(GL_INVALID_ENUM, "glGenerateMipmap: invalid target: " + target);
+			return;
+		}
+		TextureObject object = textures.get(texture);
+		if (object == null) return;
+		if (object.width < 0)
+			error(GL_INVALID_OPERATION, "glGenerateMipmap: texture " + texture + " has no image");
+		else
+			object.mipmaps = true;
+	}
+
+	@Override
+	public boolean glIsTexture (int texture) {
+		calls++;
+		TextureObject object = textures.get(texture);
+		return object != null && object.target != 0;
+	}
+
+	// buffers
+
+	/** @return the buffer bound to the given target, or -1 if it is not a valid target. */
+	protected int boundBuffer (int target) {
+		if (target == GL_ARRAY_BUFFER) return arrayBuffer;
+		if (target == GL_ELEMENT_ARRAY_BUFFER) return vertexArray.elementArrayBuffer;
+		return -1;
+	}
+
+	/** Binds the buffer to the target, the target has been validated. */
+	protected void setBoundBuffer (int target, int buffer) {
+		if (target == GL_ARRAY_BUFFER)
+			arrayBuffer = buffer;
+		else
+			vertexArray.elementArrayBuffer = buffer;
+	}
+
+	@Override
+	public void glBindBuffer (int target, int buffer) {
+		calls++;
+		if (boundBuffer(target) == -1) {
+			error(GL_INVALID_ENUM, "glBindBuffer: invalid target: " + target);
+			return;
+		}
+		if (buffer != 0 && !buffers.containsKey(buffer)) {
+			error(GL_INVALID_OPERATION, "glBindBuffer: buffer " + buffer + " was not generated or has been deleted");
+			return;
+		}
+		setBoundBuffer(target, buffer);
+	}
+
+	@Override
+	public void glBufferData (int target, int size, Buffer data, int usage) {
+		calls++;
+		BufferObject object = targetBuffer("glBufferData", target);
+		if (object == null) return;
+		if (size < 0) {
+			error(GL_INVALID_VALUE, "glBufferData: negative size: " + size);
+			return;
+		}
+		object.data = ByteBuffer.allocate(size).order(ByteOrder.nativeOrder());
+		object.usage = usage;
+		if (data != null) copy(data, object.data, 0, size);
+	}
+
+	@Override
+	public void glBufferSubData (int target, int offset, int size, Buffer data) {
+		calls++;
+		BufferObject object = targetBuffer("glBufferSubData", target);
+		if (object == null) return;
+		if (offset < 0 || size < 0 || offset + size > object.size()) {
+			error(GL_INVALID_VALUE, "glBufferSubData: range " + offset + "+" + size + " exceeds buffer size " + object.size());
+			return;
+		}
+		if (data != null) copy(data, object.data, offset, size);
+	}
+
+	/** @return the buffer object bound to the target or null if the target is invalid or no buffer is bound. */
+	protected BufferObject targetBuffer (String function, int target) {
+		int buffer = boundBuffer(target);
+		if (buffer == -1) {
+			error(GL_INVALID_ENUM, function + ": invalid target: " + target);
+			return null;
+		}
+		if (buffer == 0) {
+			error(GL_INVALID_OPERATION, function + ": no buffer bound to target " + target);
+			return null;
+		}
+		return buffers.get(buffer);
+	}
+
+	@Override
+	public void glDeleteBuffer (int buffer) {
+		calls++;
+		deleteBuffer(buffer);
+	}
+
+	@Override
+	public void glDeleteBuffers (int n, IntBuffer buffers) {
+		calls++;
+		for (int i = 0, p = buffers.position(); i < n; i++)
+			deleteBuffer(buffers.get(p + i));
+	}
+
+	protected void deleteBuffer (int buffer) {
+		if (buffers.remove(buffer) == null) return;
+		if (arrayBuffer == buffer) arrayBuffer = 0;
+		if (vertexArray.elementArrayBuffer == buffer) vertexArray.elementArrayBuffer = 0;
+		for (VertexAttrib attrib : vertexArray.attribs)
+			if (attrib.buffer == buffer) attrib.buffer = 0;
+	}
+
+	@Override
+	public int glGenBuffer () {
+		calls++;
+		return genBuffer();
+	}
+
+	@Override
+	public void glGenBuffers (int n, IntBuffer buffers) {
+		calls++;
+		for (int i = 0, p = buffers.position(); i < n; i++)
+			buffers.put(p + i, genBuffer());
+	}
+
+	protected int genBuffer () {
+		int name = genName();
+		buffers.put(name, new BufferObject());
+		return name;
+	}
+
+	@Override
+	public void glGetBufferParameteriv (int target, int pname, IntBuffer params) {
+		calls++;
+		BufferObject object = targetBuffer("glGetBufferParameteriv", target);
+		if (object == null) return;
+		if (pname == GL_BUFFER_SIZE)
+			put(params, object.size());
+		else if (pname == GL_BUFFER_USAGE)
+			put(params, object.usage);
+		else
+			error(GL_INVALID_ENUM, "glGetBufferParameteriv: invalid parameter: " + pname);
+	}
+
+	@Override
+	public boolean glIsBuffer (int buffer) {
+		calls++;
+		return buffers.containsKey(buffer);
+	}
+
+	// framebuffers
+
+	@Override
+	public void glBindFramebuffer (int target, int framebuffer) {
+		calls++;
+		if (!isFramebufferTarget(target)) {
+			error(GL_INVALID_ENUM, "glBindFramebuffer: invalid target: " + target);
+			return;
+		}
+		if (framebuffer != 0 && !framebuffers.containsKey(framebuffer)) {
+			error(GL_INVALID_OPERATION, "glBindFramebuffer: framebuffer " + framebuffer + " was not generated or has been deleted");
+			return;
+		}
+		this.framebuffer = framebuffer;
+	}
+
+	protected boolean isFramebufferTarget (int target) {
+		return target == GL_FRAMEBUFFER;
+	}
+
+	@Override
+	public void glBindRenderbuffer (int target, int renderbuffer) {
+		calls++;
+		if (target != GL_RENDERBUFFER) {
+			error(GL_INVALID_ENUM, "glBindRenderbuffer: invalid target: " + target);
+			return;
+		}
+		if (renderbuffer != 0 && !renderbuffers.containsKey(renderbuffer)) {
+			error(GL_INVALID_OPERATION,
+				"glBindRenderbuffer: renderbuffer " + renderbuffer + " was not generated or has been deleted");
+			return;
+		}
+		this.renderbuffer = renderbuffer;
+	}
+
+	@Override
+	public int glCheckFramebufferStatus (int target) {
+		calls++;
+		if (!isFramebufferTarget(target)) {
+			error(GL_INVALID_ENUM, "glCheckFramebufferStatus: invalid target: " + target);
+			return 0;
+		}
+		return framebufferStatus();
+	}
+
+	protected int framebufferStatus () {
+		FramebufferObject object = framebuffers.get(framebuffer);
+		if (object == null) return GL_FRAMEBUFFER_COMPLETE;
+		if (object.textures.size == 0 && object.renderbuffers.size == 0) return GL_FRAMEBUFFER_INCOMPLETE_MISSING_ATTACHMENT;
+		int width = -1, height = -1;
+		for (IntIntMap.Entry entry : object.textures.entries()) {
+			TextureObject texture = textures.get(entry.value);
+			if (texture == null || texture.width <= 0 || texture.height <= 0) return GL_FRAMEBUFFER_INCOMPLETE_ATTACHMENT;
+			if (width != -1 && (width != texture.width || height != texture.height))
+				return GL_FRAMEBUFFER_INCOMPLETE_DIMENSIONS;
+			width = texture.width;
+			height = texture.height;
+		}
+		for (IntIntMap.Entry entry : object.renderbuffers.entries()) {
+			RenderbufferObject buffer = renderbuffers.get(entry.value);
+			if (buffer == null || buffer.width <= 0 || buffer.height <= 0) return GL_FRAMEBUFFER_INCOMPLETE_ATTACHMENT;
+			if (width != -1 && (width != buffer.width || height != buffer.height)) return GL_FRAMEBUFFER_INCOMPLETE_DIMENSIONS;
+			width = buffer.width;
+			height = buffer.height;
+		}
+		return GL_FRAMEBUFFER_COMPLETE;
+	}
+
+	/** Reports an error if the bound framebuffer is incomplete.
+	 * @return whether the framebuffer is complete */
+	protected boolean checkFramebuffer (String function) {
+		if (framebuffer == 0) return true;
+		int status = framebufferStatus();
+		if (status == GL_FRAMEBUFFER_COMPLETE) return true;
+		error(GL_INVALID_FRAMEBUFFER_OPERATION, function + ": framebuffer " + framebuffer + " is incomplete: " + status);
+		return false;
+	}
+
+	@Override
+	public void glDeleteFramebuffer (int framebuffer) {
+		calls++;
+		deleteFramebuffer(framebuffer);
+	}
+
+	@Override
+	public void glDeleteFramebuffers (int n, IntBuffer framebuffers) {
+		calls++;
+		for (int i = 0, p = framebuffers.position(); i < n; i++)
+			deleteFramebuffer(framebuffers.get(p + i));
+	}
+
+	protected void deleteFramebuffer (int framebuffer) {
+		if (framebuffers.remove(framebuffer) != null && this.framebuffer == framebuffer) this.framebuffer = 0;
+	}
+
+	@Override
+	public void glDeleteRenderbuffer (int renderbuffer) {
+		calls++;
+		deleteRenderbuffer(renderbuffer);
+	}
+
+	@Override
+	public void glDeleteRenderbuffers (int n, IntBuffer renderbuffers) {
+		calls++;
+		for (int i = 0, p = renderbuffers.position(); i < n; i++)
+			deleteRenderbuffer(renderbuffers.get(p + i));
+	}
+
+	protected void deleteRenderbuffer (int renderbuffer) {
+		if (renderbuffers.remove(renderbuffer) == null) return;
+		if (this.renderbuffer == renderbuffer) this.renderbuffer = 0;
+		FramebufferObject object = framebuffers.get(framebuffer);
+		if (object != null) {
+			for (IntIntMap.Entries iter = object.renderbuffers.entries(); iter.hasNext;)
+				if (iter.next().value == renderbuffer) iter.remove();
+		}
+	}
+
+	@Override
+	public void glFramebufferRenderbuffer (int target, int attachment, int renderbuffertarget, int renderbuffer) {
+		calls++;
+		FramebufferObject object = targetFramebuffer("glFramebufferRenderbuffer", target);
+		if (object == null) return;
+		if (renderbuffertarget != GL_RENDERBUFFER) {
+			error(GL_INVALID_ENUM, "glFramebufferRenderbuffer: invalid renderbuffer target: " + renderbuffertarget);
+			return;
+		}
+		if (renderbuffer != 0 && !renderbuffers.containsKey(renderbuffer)) {
+			error(GL_INVALID_OPERATION, "glFramebufferRenderbuffer: renderbuffer " + renderbuffer + " does not exist");
+			return;
+		}
+		object.textures.remove(attachment, 0);
+		if (renderbuffer == 0)
+			object.renderbuffers.remove(attachment, 0);
+		else
+			object.renderbuffers.put(attachment, renderbuffer);
+	}
+
+	@Override
+	public void glFramebufferTexture2D (int target, int attachment, int textarget, int texture, int level) {
+		calls++;
+		FramebufferObject object = targetFramebuffer("glFramebufferTexture2D", target);
+		if (object == null) return;
+		attachTexture("glFramebufferTexture2D", object, attachment, texture);
+	}
+
+	protected void attachTexture (String function, FramebufferObject object, int attachment, int texture) {
+		if (texture != 0 && !textures.containsKey(texture)) {
+			error(GL_INVALID_OPERATION, function + ": texture " + texture + " does not exist");
+			return;
+		}
+		object.renderbuffers.remove(attachment, 0);
+		if (texture == 0)
+			object.textures.remove(attachment, 0);
+		else
+			object.textures.put(attachment, texture);
+	}
+
+	/** @return the framebuffer object bound to the target, or null and reports an error if it is the default framebuffer. */
+	protected FramebufferObject targetFramebuffer (String function, int target) {
+		if (!isFramebufferTarget(target)) {
+			error(GL_INVALID_ENUM, function + ": invalid target: " + target);
+			return null;
+		}
+		FramebufferObject object = framebuffers.get(framebuffer);
+		if (object == null) error(GL_INVALID_OPERATION, function + ": the default framebuffer is bound");
+		return object;
+	}
+
+	@Override
+	public int glGenFramebuffer () {
+		calls++;
+		return genFramebuffer();
+	}
+
+	@Override
+	public void glGenFramebuffers (int n, IntBuffer framebuffers) {
+		calls++;
+		for (int i = 0, p = framebuffers.position(); i < n; i++)
+			framebuffers.put(p + i, genFramebuffer());
+	}
+
+	protected int genFramebuffer () {
+		int name = genName();
+		framebuffers.put(name, new FramebufferObject());
+		return name;
+	}
+
+	@Override
+	public int glGenRenderbuffer () {
+		calls++;
+		return genRenderbuffer();
+	}
+
+	@Override
+	public void glGenRenderbuffers (int n, IntBuffer renderbuffers) {
+		calls++;
+		for (int i = 0, p = renderbuffers.position(); i < n; i++)
+			renderbuffers.put(p + i, genRenderbuffer());
+	}
+
+	protected int genRenderbuffer () {
+		int name = genName();
+		renderbuffers.put(name, new RenderbufferObject());
+		return name;
+	}
+
+	@Override
+	public void glGetFramebufferAttachmentParameteriv (int target, int attachment, int pname, IntBuffer params) {
+		calls++;
+		FramebufferObject object = targetFramebuffer("glGetFramebufferAttachmentParameteriv", target);
+		if (object == null) return;
+		if (pname == GL_FRAMEBUFFER_ATTACHMENT_OBJECT_TYPE)
+			put(params, object.textures.containsKey(attachment) ? GL_TEXTURE
+				: object.renderbuffers.containsKey(attachment) ? GL_RENDERBUFFER : GL_NONE);
+		else if (pname == GL_FRAMEBUFFER_ATTACHMENT_OBJECT_NAME)
+			put(params, object.textures.get(attachment, object.renderbuffers.get(attachment, 0)));
+		else
+			put(params, 0);
+	}
+
+	@Override
+	public void glGetRenderbufferParameteriv (int target, int pname, IntBuffer params) {
+		calls++;
+		RenderbufferObject object = renderbuffers.get(renderbuffer);
+		if (target != GL_RENDERBUFFER || object == null) {
+			error(GL_INVALID_OPERATION, "glGetRenderbufferParameteriv: no renderbuffer bound");
+			return;
+		}
+		if (pname == GL_RENDERBUFFER_WIDTH)
+			put(params, object.width);
+		else if (pname == GL_RENDERBUFFER_HEIGHT)
+			put(params, object.height);
+		else if (pname == GL_RENDERBUFFER_INTERNAL_FORMAT)
+			put(params, object.internalFormat);
+		else
+			put(params, 0);
+	}
+
+	@Override
+	public boolean glIsFramebuffer (int framebuffer) {
+		calls++;
+		return framebuffers.containsKey(framebuffer);
+	}
+
+	@Override
+	public boolean glIsRenderbuffer (int renderbuffer) {
+		calls++;
+		return renderbuffers.containsKey(renderbuffer);
+	}
+
+	@Override
+	public void glRenderbufferStorage (int target, int internalformat, int width, int height) {
+		calls++;
+		renderbufferStorage("glRenderbufferStorage", target, internalformat, width, height);
+	}
+
+	protected void renderbufferStorage (String function, int target, int internalformat, int width, int height) {
+		RenderbufferObject object = renderbuffers.get(renderbuffer);
+		if (target != GL_RENDERBUFFER || object == null) {
+			error(GL_INVALID_OPERATION, function + ": no renderbuffer bound");
+			return;
+		}
+		if (width < 0 || height < 0 || width > MAX_TEXTURE_SIZE || height > MAX_TEXTURE_SIZE) {
+			error(GL_INVALID_VALUE, function + ": invalid size: " + width + "x" + height);
+			return;
+		}
+		object.width = width;
+		object.height = height;
+		object.internalFormat = internalformat;
+	}
+
+	// shaders and programs
+
+	@Override
+	public void glAttachShader (int program, int shader) {
+		calls++;
+		ProgramObject programObject = program("glAttachShader", program);
+		ShaderObject shaderObject = shaders.get(shader);
+		if (programObject == null) return;
+		if (shaderObject == null) {
+			error(GL_INVALID_VALUE, "glAttachShader: shader " + shader + " does not exist");
+			return;
+		}
+		if (!programObject.shaders.add(shader)) {
+			error(GL_INVALID_OPERATION, "glAttachShader: shader " + shader + " is already attached");
+			return;
+		}
+		shaderObject.attachments++;
+	}
+
+	@Override
+	public void glBindAttribLocation (int program, int index, String name) {
+		calls++;
+		ProgramObject object = program("glBindAttribLocation", program);
+		if (object == null) return;
+		if (index < 0 || index >= MAX_VERTEX_ATTRIBS) {
+			error(GL_INVALID_VALUE, "glBindAttribLocation: index out of range: " + index);
+			return;
+		}
+		if (name.startsWith("gl_")) {
+			error(GL_INVALID_OPERATION, "glBindAttribLocation: reserved name: " + name);
+			return;
+		}
+		object.boundAttributes.put(name, index);
+	}
+
+	@Override
+	public void glCompileShader (int shader) {
+		calls++;
+		ShaderObject object = shaders.get(shader);
+		if (object == null) {
+			error(GL_INVALID_VALUE, "glCompileShader: shader " + shader + " does not exist");
+			return;
+		}
+		if (object.source == null) {
+			object.compiled = false;
+			object.infoLog = "ERROR: no shader source";
+			return;
+		}
+		try {
+			object.parser = new MockShaderParser(object.source, object.type == GL_VERTEX_SHADER);
+			object.compiled = true;
+			object.infoLog = "";
+		} catch (RuntimeException ex) {
+			object.parser = null;
+			object.compiled = false;
+			object.infoLog = "ERROR: " + ex.getMessage();
+		}
+	}
+
+	@Override
+	public int glCreateProgram () {
+		calls++;
+		int name = genName();
+		programs.put(name, new ProgramObject());
+		return name;
+	}
+
+	@Override
+	public int glCreateShader (int type) {
+		calls++;
+		if (type != GL_VERTEX_SHADER && type != GL_FRAGMENT_SHADER) {
+			error(GL_INVALID_ENUM, "glCreateShader: invalid type: " + type);
+			return 0;
+		}
+		int name = genName();
+		shaders.put(name, new ShaderObject(type));
+		return name;
+	}
+
+	@Override
+	public void glDeleteProgram (int program) {
+		calls++;
+		if (program == 0) return;
+		ProgramObject object = program("glDeleteProgram", program);
+		if (object == null) return;
+		object.deleted = true;
+		if (currentProgram != program) removeProgram(program);
+	}
+
+	protected void removeProgram (int program) {
+		ProgramObject object = programs.remove(program);
+		for (IntSet.IntSetIterator iter = object.shaders.iterator(); iter.hasNext;)
+			detach(iter.next());
+	}
+
+	@Override
+	public void glDeleteShader (int shader) {
+		calls++;
+		if (shader == 0) return;
+		ShaderObject object = shaders.get(shader);
+		if (object == null) {
+			error(GL_INVALID_VALUE, "glDeleteShader: shader " + shader + " does not exist");
+			return;
+		}
+		object.deleted = true;
+		if (object.attachments == 0) shaders.remove(shader);
+	}
+
+	@Override
+	public void glDetachShader (int program, int shader) {
+		calls++;
+		ProgramObject object = program("glDetachShader", program);
+		if (object == null) return;
+		if (!object.shaders.remove(shader)) {
+			error(GL_INVALID_OPERATION, "glDetachShader: shader " + shader + " is not attached");
+			return;
+		}
+		detach(shader);
+	}
+
+	protected void detach (int shader) {
+		ShaderObject object = shaders.get(shader);
+		if (object == null) return;
+		object.attachments--;
+		if (object.deleted && object.attachments == 0) shaders.remove(shader);
+	}
+
+	/** @return the program object or null and reports an error if it doesn't exist. */
+	protected ProgramObject program (String function, int program) {
+		ProgramObject object = programs.get(program);
+		if (object == null) {
+			error(shaders.containsKey(program) ? GL_INVALID_OPERATION : GL_INVALID_VALUE,
+				function + ": program " + program + " does not exist");
+		}
+		return object;
+	}
+
+	/** @return the linked program object or null and reports an error if it doesn't exist or is not linked. */
+	protected ProgramObject linkedProgram (String function, int program) {
+		ProgramObject object = program(function, program);
+		if (object != null && !object.linked) {
+			error(GL_INVALID_OPERATION, function + ": program " + program + " is not linked");
+			return null;
+		}
+		return object;
+	}
+
+	@Override
+	public String glGetActiveAttrib (int program, int index, IntBuffer size, IntBuffer type) {
+		calls++;
+		ProgramObject object = program("glGetActiveAttrib", program);
+		if (object == null) return "";
+		if (index < 0 || index >= object.attributes.size) {
+			error(GL_INVALID_VALUE, "glGetActiveAttrib: index out of range: " + index);
+			return "";
+		}
+		Variable variable = object.attributes.get(index);
+		size.put(variable.size);
+		type.put(variable.type);
+		return variable.name;
+	}
+
+	@Override
+	public String glGetActiveUniform (int program, int index, IntBuffer size, IntBuffer type) {
+		calls++;
+		ProgramObject object = program("glGetActiveUniform", program);
+		if (object == null) return "";
+		if (index < 0 || index >= object.uniforms.size) {
+			error(GL_INVALID_VALUE, "glGetActiveUniform: index out of range: " + index);
+			return "";
+		}
+		Variable variable = object.uniforms.get(index);
+		size.put(variable.size);
+		type.put(variable.type);
+		return variable.size > 1 ? variable.name + "[0]" : variable.name;
+	}
+
+	@Override
+	public void glGetAttachedShaders (int program, int maxcount, Buffer count, IntBuffer shaders) {
+		calls++;
+		ProgramObject object = program("glGetAttachedShaders", program);
+		if (object == null) return;
+		int n = 0;
+		for (IntSet.IntSetIterator iter = object.shaders.iterator(); iter.hasNext && n < maxcount; n++)
+			shaders.put(shaders.position() + n, iter.next());
+		if (count instanceof IntBuffer) ((IntBuffer)count).put(count.position(), n);
+	}
+
+	@Override
+	public int glGetAttribLocation (int program, String name) {
+		calls++;
+		ProgramObject object = linkedProgram("glGetAttribLocation", program);
+		if (object == null) return -1;
+		return object.attributeLocations.get(name, -1);
+	}
+
+	@Override
+	public void glGetProgramiv (int program, int pname, IntBuffer params) {
+		calls++;
+		ProgramObject object = program("glGetProgramiv", program);
+		if (object == null) return;
+		switch (pname) {
+		case GL_DELETE_STATUS:
+			put(params, object.deleted ? GL_TRUE : GL_FALSE);
+			break;
+		case GL_LINK_STATUS:
+			put(params, object.linked ? GL_TRUE : GL_FALSE);
+			break;
+		case GL_VALIDATE_STATUS:
+			put(params, object.linked ? GL_TRUE : GL_FALSE);
+			break;
+		case GL_INFO_LOG_LENGTH:
+			put(params, object.infoLog.length() + 1);
+			break;
+		case GL_ATTACHED_SHADERS:
+			put(params, object.shaders.size);
+			break;
+		case GL_ACTIVE_ATTRIBUTES:
+			put(params, object.attributes.size);
+			break;
+		case GL_ACTIVE_UNIFORMS:
+			put(params, object.uniforms.size);
+			break;
+		case GL_ACTIVE_ATTRIBUTE_MAX_LENGTH:
+		case GL_ACTIVE_UNIFORM_MAX_LENGTH:
+			int length = 0;
+			for (Variable variable : pname == GL_ACTIVE_UNIFORM_MAX_LENGTH ? object.uniforms : object.attributes)
+				length = Math.max(length, variable.name.length() + 4);
+			put(params, length);
+			break;
+		default:
+			error(GL_INVALID_ENUM, "glGetProgramiv: invalid parameter: " + pname);
+		}
+	}
+
+	@Override
+	public String glGetProgramInfoLog (int program) {
+		calls++;
+		ProgramObject object = program("glGetProgramInfoLog", program);
+		return object == null ? "" : object.infoLog;
+	}
+
+	@Override
+	public void glGetShaderiv (int shader, int pname, IntBuffer params) {
+		calls++;
+		ShaderObject object = shaders.get(shader);
+		if (object == null) {
+			error(GL_INVALID_VALUE, "glGetShaderiv: shader " + shader + " does not exist");
+			return;
+		}
+		switch (pname) {
+		case GL_SHADER_TYPE:
+			put(params, object.type);
+			break;
+		case GL_DELETE_STATUS:
+			put(params, object.deleted ? GL_TRUE : GL_FALSE);
+			break;
+		case GL_COMPILE_STATUS:
+			put(params, object.compiled ? GL_TRUE : GL_FALSE);
+			break;
+		case GL_INFO_LOG_LENGTH:
+			put(params, object.infoLog.length() + 1);
+			break;
+		case GL_SHADER_SOURCE_LENGTH:
+			put(params, object.source == null ? 0 : object.source.length() + 1);
+			break;
+		default:
+			error(GL_INVALID_ENUM, "glGetShaderiv: invalid parameter: " + pname);
+		}
+	}
+
+	@Override
+	public String glGetShaderInfoLog (int shader) {
+		calls++;
+		ShaderObject object = shaders.get(shader);
+		return object == null ? "" : object.infoLog;
+	}
+
+	@Override
+	public void glGetShaderPrecisionFormat (int shadertype, int precisiontype, IntBuffer range, IntBuffer precision) {
+		calls++;
+		boolean integer = precisiontype == GL_LOW_INT || precisiontype == GL_MEDIUM_INT || precisiontype == GL_HIGH_INT;
+		range.put(range.position(), integer ? 31 : 127);
+		range.put(range.position() + 1, integer ? 30 : 127);
+		put(precision, integer ? 0 : 23);
+	}
+
+	@Override
+	public void glGetUniformfv (int program, int location, FloatBuffer params) {
+		calls++;
+		linkedProgram("glGetUniformfv", program);
+	}
+
+	@Override
+	public void glGetUniformiv (int program, int location, IntBuffer params) {
+		calls++;
+		linkedProgram("glGetUniformiv", program);
+	}
+
+	@Override
+	public int glGetUniformLocation (int program, String name) {
+		calls++;
+		ProgramObject object = linkedProgram("glGetUniformLocation", program);
+		if (object == null) return -1;
+		int location = object.uniformLocations.get(name, -1);
+		if (location != -1 || !name.endsWith("]")) return location;
+		// "name[index]" for arrays of basic types
+		int bracket = name.lastIndexOf('[');
+		if (bracket == -1) return -1;
+		int base = object.uniformLocations.get(name.substring(0, bracket), -1);
+		if (base == -1) return -1;
+		try {
+			int index = Integer.parseInt(name.substring(bracket + 1, name.length() - 1));
+			return index >= 0 && index < object.locationSizes[base] ? base + index : -1;
+		} catch (NumberFormatException ex) {
+			return -1;
+		}
+	}
+
+	@Override
+	public boolean glIsProgram (int program) {
+		calls++;
+		return programs.containsKey(program);
+	}
+
+	@Override
+	public boolean glIsShader (int shader) {
+		calls++;
+		return shaders.containsKey(shader);
+	}
+
+	@Override
+	public void glLinkProgram (int program) {
+		calls++;
+		ProgramObject object = program("glLinkProgram", program);
+		if (object == null) return;
+		object.linked = false;
+		object.attributes.clear();
+		object.attributeLocations.clear();
+		object.uniforms.clear();
+		object.uniformLocations.clear();
+
+		ShaderObject vertex = null, fragment = null;
+		for (IntSet.IntSetIterator iter = object.shaders.iterator(); iter.hasNext;) {
+			ShaderObject shader = shaders.get(iter.next());
+			if (shader.type == GL_VERTEX_SHADER)
+				vertex = shader;
+			else
+				fragment = shader;
+		}
+		if (vertex == null || fragment == null || !vertex.compiled || !fragment.compiled) {
+			object.infoLog = "ERROR: a compiled vertex and fragment shader must be attached";
+			return;
+		}
+
+		// attributes: explicitly bound locations first, then the lowest free ones
+		boolean[] used = new boolean[MAX_VERTEX_ATTRIBS];
+		for (Variable attribute : vertex.parser.attributes) {
+			int location = object.boundAttributes.get(attribute.name, -1);
+			if (location != -1) used[location] = true;
+		}
+		int next = 0;
+		for (Variable attribute : vertex.parser.attributes) {
+			int location = object.boundAttributes.get(attribute.name, -1);
+			if (location == -1) {
+				while (next < MAX_VERTEX_ATTRIBS && used[next])
+					next++;
+				if (next == MAX_VERTEX_ATTRIBS) {
+					object.infoLog = "ERROR: too many attributes";
+					return;
+				}
+				location = next;
+				used[next] = true;
+			}
+			object.attributes.add(attribute);
+			object.attributeLocations.put(attribute.name, location);
+		}
+
+		// uniforms declared in both shaders are the same uniform
+		for (Variable uniform : vertex.parser.uniforms)
+			addUniform(object, uniform);
+		for (Variable uniform : fragment.parser.uniforms)
+			addUniform(object, uniform);
+		int locations = 0;
+		for (Variable uniform : object.uniforms)
+			locations += uniform.size;
+		object.locationTypes = new int[locations];
+		object.locationSizes = new int[locations];
+		object.locationArrays = new boolean[locations];
+		int location = 0;
+		for (Variable uniform : object.uniforms) {
+			object.uniformLocations.put(uniform.name, location);
+			for (int i = 0; i < uniform.size; i++, location++) {
+				object.locationTypes[location] = uniform.type;
+				object.locationSizes[location] = uniform.size - i;
+				object.locationArrays[location] = uniform.size > 1;
+			}
+		}
+		object.linked = true;
+		object.infoLog = "";
+	}
+
+	private void addUniform (ProgramObject object, Variable uniform) {
+		for (Variable other : object.uniforms)
+			if (other.name.equals(uniform.name)) return;
+		object.uniforms.add(uniform);
+	}
+
+	@Override
+	public void glReleaseShaderCompiler () {
+		calls++;
+	}
+
+	@Override
+	public void glShaderBinary (int n, IntBuffer shaders, int binaryformat, Buffer binary, int length) {
+		calls++;
+		error(GL_INVALID_ENUM, "glShaderBinary: no binary formats are supported");
+	}
+
+	@Override
+	public void glShaderSource (int shader, String string) {
+		calls++;
+		ShaderObject object = shaders.get(shader);
+		if (object == null) {
+			error(GL_INVALID_VALUE, "glShaderSource: shader " + shader + " does not exist");
+			return;
+		}
+		object.source = string;
+	}
+
+	@Override
+	public void glUseProgram (int program) {
+		shaderSwitches++;
+		calls++;
+		if (program != 0) {
+			ProgramObject object = program("glUseProgram", program);
+			if (object == null) return;
+			if (!object.linked) {
+				error(GL_INVALID_OPERATION, "glUseProgram: program " + program + " is not linked");
+				return;
+			}
+		}
+		int previous = currentProgram;
+		currentProgram = program;
+		ProgramObject object = programs.get(previous);
+		if (object != null && object.deleted && previous != program) removeProgram(previous);
+	}
+
+	@Override
+	public void glValidateProgram (int program) {
+		calls++;
+		program("glValidateProgram", program);
+	}
+
+	// uniforms
+
+	protected static final int FLOAT = 0, INT = 1, UINT = 2, MATRIX = 3;
+
+	/** Validates a glUniform* call against the uniform declared at the location of the current program.
+	 * @param kind one of {@link #FLOAT}, {@link #INT}, {@link #UINT} or {@link #MATRIX}
+	 * @param components the number of components of the function, or the GL type for matrices */
+	protected void uniform (String function, int location, int count, int kind, int components) {
+		if (currentProgram == 0) {
+			error(GL_INVALID_OPERATION, function + ": no program in use");
+			return;
+		}
+		if (location == -1) return;
+		if (count < 0) {
+			error(GL_INVALID_VALUE, function + ": negative count");
+			return;
+		}
+		ProgramObject object = programs.get(currentProgram);
+		if (location < 0 || location >= object.locationTypes.length) {
+			error(GL_INVALID_OPERATION, function + ": invalid location " + location + " for program " + currentProgram);
+			return;
+		}
+		if (count > 1 && !object.locationArrays[location]) {
+			error(GL_INVALID_OPERATION, function + ": count " + count + " for a uniform that is not an array");
+			return;
+		}
+		int type = object.locationTypes[location];
+		if (!uniformTypeMatches(type, kind, components))
+			error(GL_INVALID_OPERATION, function + ": does not match the type " + type + " of the uniform at location " + location);
+	}
+
+	protected boolean uniformTypeMatches (int type, int kind, int components) {
+		switch (type) {
+		case GL_FLOAT:
+			return kind == FLOAT && components == 1;
+		case GL_FLOAT_VEC2:
+			return kind == FLOAT && components == 2;
+		case GL_FLOAT_VEC3:
+			return kind == FLOAT && components == 3;
+		case GL_FLOAT_VEC4:
+			return kind == FLOAT && components == 4;
+		case GL_INT:
+			return kind == INT && components == 1;
+		case GL_INT_VEC2:
+			return kind == INT && components == 2;
+		case GL_INT_VEC3:
+			return kind == INT && components == 3;
+		case GL_INT_VEC4:
+			return kind == INT && components == 4;
+		case GL_UNSIGNED_INT:
+			return kind == UINT && components == 1;
+		case GL_BOOL:
+			return kind != MATRIX && components == 1;
+		case GL_BOOL_VEC2:
+			return kind != MATRIX && components == 2;
+		case GL_BOOL_VEC3:
+			return kind != MATRIX && components == 3;
+		case GL_BOOL_VEC4:
+			return kind != MATRIX && components == 4;
+		case GL_FLOAT_MAT2:
+		case GL_FLOAT_MAT3:
+		case GL_FLOAT_MAT4:
+			return kind == MATRIX && components == type;
+		}
+		if (kind == MATRIX) return components == type;
+		// samplers
+		return type >= GL_SAMPLER_2D && kind == INT && components == 1;
+	}
+
+	@Override
+	public void glUniform1f (int location, float x) {
+		calls++;
+		uniform("glUniform1f", location, 1, FLOAT, 1);
+	}
+
+	@Override
+	public void glUniform1fv (int location, int count, FloatBuffer v) {
+		calls++;
+		uniform("glUniform1fv", location, count, FLOAT, 1);
+	}
+
+	@Override
+	public void glUniform1fv (int location, int count, float[] v, int offset) {
+		calls++;
+		uniform("glUniform1fv", location, count, FLOAT, 1);
+	}
+
+	@Override
+	public void glUniform1i (int location, int x) {
+		calls++;
+		uniform("glUniform1i", location, 1, INT, 1);
+	}
+
+	@Override
+	public void glUniform1iv (int location, int count, IntBuffer v) {
+		calls++;
+		uniform("glUniform1iv", location, count, INT, 1);
+	}
+
+	@Override
+	public void glUniform1iv (int location, int count, int[] v, int offset) {
+		calls++;
+		uniform("glUniform1iv", location, count, INT, 1);
+	}
+
+	@Override
+	public void glUniform2f (int location, float x, float y) {
+		calls++;
+		uniform("glUniform2f", location, 1, FLOAT, 2);
+	}
+
+	@Override
+	public void glUniform2fv (int location, int count, FloatBuffer v) {
+		calls++;
+		uniform("glUniform2fv", location, count, FLOAT, 2);
+	}
+
+	@Override
+	public void glUniform2fv (int location, int count, float[] v, int offset) {
+		calls++;
+		uniform("glUniform2fv", location, count, FLOAT, 2);
+	}
+
+	@Override
+	public void glUniform2i (int location, int x, int y) {
+		calls++;
+		uniform("glUniform2i", location, 1, INT, 2);
+	}
+
+	@Override
+	public void glUniform2iv (int location, int count, IntBuffer v) {
+		calls++;
+		uniform("glUniform2iv", location, count, INT, 2);
+	}
+
+	@Override
+	public void glUniform2iv (int location, int count, int[] v, int offset) {
+		calls++;
+		uniform("glUniform2iv", location, count, INT, 2);
+	}
+
+	@Override
+	public void glUniform3f (int location, float x, float y, float z) {
+		calls++;
+		uniform("glUniform3f", location, 1, FLOAT, 3);
+	}
+
+	@Override
+	public void glUniform3fv (int location, int count, FloatBuffer v) {
+		calls++;
+		uniform("glUniform3fv", location, count, FLOAT, 3);
+	}
+
+	@Override
+	public void glUniform3fv (int location, int count, float[] v, int offset) {
+		calls++;
+		uniform("glUniform3fv", location, count, FLOAT, 3);
+	}
+
+	@Override
+	public void glUniform3i (int location, int x, int y, int z) {
+		calls++;
+		uniform("glUniform3i", location, 1, INT, 3);
+	}
+
+	@Override
+	public void glUniform3iv (int location, int count, IntBuffer v) {
+		calls++;
+		uniform("glUniform3iv", location, count, INT, 3);
+	}
+
+	@Override
+	public void glUniform3iv (int location, int count, int[] v, int offset) {
+		calls++;
+		uniform("glUniform3iv", location, count, INT, 3);
+	}
+
+	@Override
+	public void glUniform4f (int location, float x, float y, float z, float w) {
+		calls++;
+		uniform("glUniform4f", location, 1, FLOAT, 4);
+	}
+
+	@Override
+	public void glUniform4fv (int location, int count, FloatBuffer v) {
+		calls++;
+		uniform("glUniform4fv", location, count, FLOAT, 4);
+	}
+
+	@Override
+	public void glUniform4fv (int location, int count, float[] v, int offset) {
+		calls++;
+		uniform("glUniform4fv", location, count, FLOAT, 4);
+	}
+
+	@Override
+	public void glUniform4i (int location, int x, int y, int z, int w) {
+		calls++;
+		uniform("glUniform4i", location, 1, INT, 4);
+	}
+
+	@Override
+	public void glUniform4iv (int location, int count, IntBuffer v) {
+		calls++;
+		uniform("glUniform4iv", location, count, INT, 4);
+	}
+
+	@Override
+	public void glUniform4iv (int location, int count, int[] v, int offset) {
+		calls++;
+		uniform("glUniform4iv", location, count, INT, 4);
+	}
+
+	@Override
+	public void glUniformMatrix2fv (int location, int count, boolean transpose, FloatBuffer value) {
+		calls++;
+		uniform("glUniformMatrix2fv", location, count, MATRIX, GL_FLOAT_MAT2);
+	}
+
+	@Override
+	public void glUniformMatrix2fv (int location, int count, boolean transpose, float[] value, int offset) {
+		calls++;
+		uniform("glUniformMatrix2fv", location, count, MATRIX, GL_FLOAT_MAT2);
+	}
+
+	@Override
+	public void glUniformMatrix3fv (int location, int count, boolean transpose, FloatBuffer value) {
+		calls++;
+		uniform("glUniformMatrix3fv", location, count, MATRIX, GL_FLOAT_MAT3);
+	}
+
+	@Override
+	public void glUniformMatrix3fv (int location, int count, boolean transpose, float[] value, int offset) {
+		calls++;
+		uniform("glUniformMatrix3fv", location, count, MATRIX, GL_FLOAT_MAT3);
+	}
+
+	@Override
+	public void glUniformMatrix4fv (int location, int count, boolean transpose, FloatBuffer value) {
+		calls++;
+		uniform("glUniformMatrix4fv", location, count, MATRIX, GL_FLOAT_MAT4);
+	}
+
+	@Override
+	public void glUniformMatrix4fv (int location, int count, boolean transpose, float[] value, int offset) {
+		calls++;
+		uniform("glUniformMatrix4fv", location, count, MATRIX, GL_FLOAT_MAT4);
+	}
+
+	// vertex attributes
+
+	protected VertexAttrib attrib (String function, int index) {
+		if (index < 0 || index >= MAX_VERTEX_ATTRIBS) {
+			error(GL_INVALID_VALUE, function + ": index out of range: " + index);
+			return null;
+		}
+		return vertexArray.attribs[index];
+	}
+
+	@Override
+	public void glDisableVertexAttribArray (int index) {
+		calls++;
+		VertexAttrib attrib = attrib("glDisableVertexAttribArray", index);
+		if (attrib != null) attrib.enabled = false;
+	}
+
+	@Override
+	public void glEnableVertexAttribArray (int index) {
+		calls++;
+		VertexAttrib attrib = attrib("glEnableVertexAttribArray", index);
+		if (attrib != null) attrib.enabled = true;
+	}
+
+	@Override
+	public void glGetVertexAttribfv (int index, int pname, FloatBuffer params) {
+		calls++;
+		attrib("glGetVertexAttribfv", index);
+	}
+
+	@Override
+	public void glGetVertexAttribiv (int index, int pname, IntBuffer params) {
+		calls++;
+		VertexAttrib attrib = attrib("glGetVertexAttribiv", index);
+		if (attrib == null) return;
+		switch (pname) {
+		case GL_VERTEX_ATTRIB_ARRAY_ENABLED:
+			put(params, attrib.enabled ? GL_TRUE : GL_FALSE);
+			break;
+		case GL_VERTEX_ATTRIB_ARRAY_SIZE:
+			put(params, attrib.size);
+			break;
+		case GL_VERTEX_ATTRIB_ARRAY_STRIDE:
+			put(params, attrib.stride);
+			break;
+		case GL_VERTEX_ATTRIB_ARRAY_TYPE:
+			put(params, attrib.type);
+			break;
+		case GL_VERTEX_ATTRIB_ARRAY_NORMALIZED:
+			put(params, attrib.normalized ? GL_TRUE : GL_FALSE);
+			break;
+		case GL_VERTEX_ATTRIB_ARRAY_BUFFER_BINDING:
+			put(params, attrib.buffer);
+			break;
+		default:
+			put(params, 0);
+		}
+	}
+
+	@Override
+	public void glGetVertexAttribPointerv (int index, int pname, Buffer pointer) {
+		calls++;
+		attrib("glGetVertexAttribPointerv", index);
+	}
+
+	@Override
+	public void glVertexAttrib1f (int indx, float x) {
+		calls++;
+		attrib("glVertexAttrib1f", indx);
+	}
+
+	@Override
+	public void glVertexAttrib1fv (int indx, FloatBuffer values) {
+		calls++;
+		attrib("glVertexAttrib1fv", indx);
+	}
+
+	@Override
+	public void glVertexAttrib2f (int indx, float x, float y) {
+		calls++;
+		attrib("glVertexAttrib2f", indx);
+	}
+
+	@Override
+	public void glVertexAttrib2fv (int indx, FloatBuffer values) {
+		calls++;
+		attrib("glVertexAttrib2fv", indx);
+	}
+
+	@Override
+	public void glVertexAttrib3f (int indx, float x, float y, float z) {
+		calls++;
+		attrib("glVertexAttrib3f", indx);
+	}
+
+	@Override
+	public void glVertexAttrib3fv (int indx, FloatBuffer values) {
+		calls++;
+		attrib("glVertexAttrib3fv", indx);
+	}
+
+	@Override
+	public void glVertexAttrib4f (int indx, float x, float y, float z, float w) {
+		calls++;
+		attrib("glVertexAttrib4f", indx);
+	}
+
+	@Override
+	public void glVertexAttrib4fv (int indx, FloatBuffer values) {
+		calls++;
+		attrib("glVertexAttrib4fv", indx);
+	}
+
+	@Override
+	public void glVertexAttribPointer (int indx, int size, int type, boolean normalized, int stride, Buffer ptr) {
+		calls++;
+		VertexAttrib attrib = vertexAttribPointer("glVertexAttribPointer", indx, size, type, stride);
+		if (attrib == null) return;
+		attrib.normalized = normalized;
+		attrib.buffer = 0;
+		attrib.offset = 0;
+		attrib.pointer = ptr;
+	}
+
+	@Override
+	public void glVertexAttribPointer (int indx, int size, int type, boolean normalized, int stride, int ptr) {
+		calls++;
+		VertexAttrib attrib = vertexAttribPointer("glVertexAttribPointer", indx, size, type, stride);
+		if (attrib == null) return;
+		if (arrayBuffer == 0) {
+			error(GL_INVALID_OPERATION, "glVertexAttribPointer: offset " + ptr + " without a bound array buffer");
+			return;
+		}
+		attrib.normalized = normalized;
+		attrib.buffer = arrayBuffer;
+		attrib.offset = ptr;
+		attrib.pointer = null;
+	}
+
+	protected VertexAttrib vertexAttribPointer (String function, int index, int size, int type, int stride) {
+		VertexAttrib attrib = attrib(function, index);
+		if (attrib == null) return null;
+		if (size < 1 || size > 4 || stride < 0) {
+			error(GL_INVALID_VALUE, function + ": invalid size or stride: " + size + ", " + stride);
+			return null;
+		}
+		if (typeSize(type) == 0) {
+			error(GL_INVALID_ENUM, function + ": invalid type: " + type);
+			return null;
+		}
+		attrib.size = size;
+		attrib.type = type;
+		attrib.stride = stride;
+		return attrib;
+	}
+
+	// drawing
+
+	@Override
+	public void glDrawArrays (int mode, int first, int count) {
+		vertexCount.put(count);
+		drawCalls++;
+		calls++;
+		if (first < 0) {
+			error(GL_INVALID_VALUE, "glDrawArrays: negative first: " + first);
+			return;
+		}
+		if (validateDraw("glDrawArrays", mode, count) && validation && count > 0)
+			validateAttribs("glDrawArrays", first + count - 1, 1);
+	}
+
+	@Override
+	public void glDrawElements (int mode, int count, int type, Buffer indices) {
+		vertexCount.put(count);
+		drawCalls++;
+		calls++;
+		if (!validateDraw("glDrawElements", mode, count) || !validateIndexType("glDrawElements", type)) return;
+		if (vertexArray.elementArrayBuffer != 0) {
+			drawElements("glDrawElements", count, type, indices.position() * elementSize(indices), 1);
+			return;
+		}
+		if (!validation || count == 0) return;
+		int available = indices.remaining() * elementSize(indices) / typeSize(type);
+		if (count > available) {
+			error(GL_INVALID_OPERATION, "glDrawElements: count " + count + " exceeds the " + available + " indices");
+			return;
+		}
+		int max = 0;
+		for (int i = 0, p = indices.position(); i < count; i++)
+			max = Math.max(max, index(indices, type, p, i));
+		validateAttribs("glDrawElements", max, 1);
+	}
+
+	@Override
+	public void glDrawElements (int mode, int count, int type, int indices) {
+		vertexCount.put(count);
+		drawCalls++;
+		calls++;
+		if (!validateDraw("glDrawElements", mode, count) || !validateIndexType("glDrawElements", type)) return;
+		drawElements("glDrawElements", count, type, indices, 1);
+	}
+
+	/** Validates an indexed draw call that sources its indices from the bound element array buffer. */
+	protected void drawElements (String function, int count, int type, int offset, int instances) {
+		BufferObject object = buffers.get(vertexArray.elementArrayBuffer);
+		if (object == null) {
+			error(GL_INVALID_OPERATION, function + ": no element array buffer bound");
+			return;
+		}
+		int size = typeSize(type);
+		if (offset < 0 || offset % size != 0 || offset + count * size > object.size()) {
+			error(GL_INVALID_OPERATION, function + ": " + count + " indices at offset " + offset + " exceed the element buffer size "
+				+ object.size());
+			return;
+		}
+		if (!validation || count == 0) return;
+		int max = 0;
+		ByteBuffer data = object.data;
+		for (int i = 0; i < count; i++) {
+			int p = offset + i * size;
+			int index = size == 1 ? data.get(p) & 0xff : size == 2 ? data.getShort(p) & 0xffff : data.getInt(p);
+			max = Math.max(max, index);
+		}
+		validateAttribs(function, max, instances);
+	}
+
+	private static int index (Buffer indices, int type, int position, int i) {
+		if (indices instanceof ShortBuffer) return ((ShortBuffer)indices).get(position + i) & 0xffff;
+		if (indices instanceof IntBuffer) return ((IntBuffer)indices).get(position + i);
+		ByteBuffer bytes = (ByteBuffer)indices;
+		int size = typeSize(type);
+		int p = position + i * size;
+		return size == 1 ? bytes.get(p) & 0xff : size == 2 ? bytes.getShort(p) & 0xffff : bytes.getInt(p);
+	}
+
+	protected boolean validateIndexType (String function, int type) {
+		if (type == GL_UNSIGNED_BYTE || type == GL_UNSIGNED_SHORT || type == GL_UNSIGNED_INT) return true;
+		error(GL_INVALID_ENUM, function + ": invalid index type: " + type);
+		return false;
+	}
+
+	/** Validates the draw mode, count, program and framebuffer of a draw call. */
+	protected boolean validateDraw (String function, int mode, int count) {
+		if (mode < GL_POINTS || mode > GL_TRIANGLE_FAN) {
+			error(GL_INVALID_ENUM, function + ": invalid mode: " + mode);
+			return false;
+		}
+		if (count < 0) {
+			error(GL_INVALID_VALUE, function + ": negative count: " + count);
+			return false;
+		}
+		if (currentProgram == 0) {
+			error(GL_INVALID_OPERATION, function + ": no program in use");
+			return false;
+		}
+		return checkFramebuffer(function);
+	}
+
+	/** Checks that all enabled vertex attribute arrays contain the vertices up to the given index and instance count. */
+	protected void validateAttribs (String function, int maxVertex, int instances) {
+		VertexAttrib[] attribs = vertexArray.attribs;
+		for (int i = 0; i < attribs.length; i++) {
+			VertexAttrib attrib = attribs[i];
+			if (!attrib.enabled) continue;
+			int element = attrib.size * typeSize(attrib.type);
+			int stride = attrib.stride == 0 ? element : attrib.stride;
+			int last = attrib.divisor == 0 ? maxVertex : (instances - 1) / attrib.divisor;
+			long required = (long)last * stride + element;
+			long available;
+			if (attrib.pointer != null)
+				available = (long)attrib.pointer.remaining() * elementSize(attrib.pointer);
+			else {
+				BufferObject object = buffers.get(attrib.buffer);
+				if (object == null) {
+					error(GL_INVALID_OPERATION, function + ": vertex attribute " + i + " is enabled without a buffer");
+					return;
+				}
+				available = object.size() - attrib.offset;
+			}
+			if (required > available) {
+				error(GL_INVALID_OPERATION, function + ": vertex attribute " + i + " reads " + required + " bytes, only " + available
+					+ " available");
+				return;
+			}
+		}
+	}
+}
@@ -0,0 +1,884 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.backends.headless.mock.graphics;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+import com.badlogic.gdx.graphics.GL30;
+import com.badlogic.gdx.utils.IntIntMap;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.IntSet;
+
+/** The {@link GL30} variant of {@link MockGL20}. Vertex array objects, instanced draws, 3D and array textures, the additional
+ * buffer targets and queries, samplers and transform feedback names are tracked, everything else is accepted without effect. */
+public class MockGL30 extends MockGL20 implements GL30 {
+	public static final int MAX_SAMPLES = 4;
+	public static final int MAX_DRAW_BUFFERS = 8;
+	public static final int MAX_UNIFORM_BUFFER_BINDINGS = 36;
+
+	protected final IntMap<VertexArrayState> vertexArrays = new IntMap<VertexArrayState>();
+	protected final IntSet queries = new IntSet();
+	protected final IntSet samplers = new IntSet();
+	protected final IntSet transformFeedbacks = new IntSet();
+	/** Query target to active query. */
+	protected final IntIntMap activeQueries = new IntIntMap();
+	/** Buffer target to bound buffer, for the targets other than the array and element array buffer. */
+	protected final IntIntMap boundBuffers = new IntIntMap();
+
+	@Override
+	protected String getVersionString () {
+		return "OpenGL ES 3.0 Mock";
+	}
+
+	@Override
+	protected String getShadingLanguageVersionString () {
+		return "OpenGL ES GLSL ES 3.00";
+	}
+
+	@Override
+	protected int textureTargetIndex (int target) {
+		if (target == GL_TEXTURE_3D) return 2;
+		if (target == GL_TEXTURE_2D_ARRAY) return 3;
+		return super.textureTargetIndex(target);
+	}
+
+	@Override
+	protected boolean isCapability (int cap) {
+		return cap == GL_RASTERIZER_DISCARD || cap == GL_PRIMITIVE_RESTART_FIXED_INDEX || super.isCapability(cap);
+	}
+
+	@Override
+	protected boolean isFramebufferTarget (int target) {
+		return target == GL_READ_FRAMEBUFFER || target == GL_DRAW_FRAMEBUFFER || super.isFramebufferTarget(target);
+	}
+
+	private static boolean isIndexedBufferTarget (int target) {
+		return target == GL_UNIFORM_BUFFER || target == GL_TRANSFORM_FEEDBACK_BUFFER;
+	}
+
+	@Override
+	protected int boundBuffer (int target) {
+		switch (target) {
+		case GL_COPY_READ_BUFFER:
+		case GL_COPY_WRITE_BUFFER:
+		case GL_PIXEL_PACK_BUFFER:
+		case GL_PIXEL_UNPACK_BUFFER:
+		case GL_TRANSFORM_FEEDBACK_BUFFER:
+		case GL_UNIFORM_BUFFER:
+			return boundBuffers.get(target, 0);
+		}
+		return super.boundBuffer(target);
+	}
+
+	@Override
+	protected void setBoundBuffer (int target, int buffer) {
+		if (target == GL_ARRAY_BUFFER || target == GL_ELEMENT_ARRAY_BUFFER)
+			super.setBoundBuffer(target, buffer);
+		else
+			boundBuffers.put(target, buffer);
+	}
+
+	@Override
+	protected void deleteBuffer (int buffer) {
+		if (!buffers.containsKey(buffer)) return;
+		super.deleteBuffer(buffer);
+		for (IntIntMap.Entries iter = boundBuffers.entries(); iter.hasNext;)
+			if (iter.next().value == buffer) iter.remove();
+	}
+
+	protected void bindBufferBase (String function, int target, int index, int buffer) {
+		if (!isIndexedBufferTarget(target)) {
+			error(GL_INVALID_ENUM, function + ": invalid target: " + target);
+			return;
+		}
+		if (index < 0 || index >= MAX_UNIFORM_BUFFER_BINDINGS) {
+			error(GL_INVALID_VALUE, function + ": index out of range: " + index);
+			return;
+		}
+		if (buffer != 0 && !buffers.containsKey(buffer)) {
+			error(GL_INVALID_OPERATION, function + ": buffer " + buffer + " was not generated or has been deleted");
+			return;
+		}
+		// binding to an indexed target also binds the generic binding point
+		boundBuffers.put(target, buffer);
+	}
+
+	@Override
+	protected boolean getInteger (int pname, IntBuffer params) {
+		int p = params.position();
+		switch (pname) {
+		case GL_MAJOR_VERSION:
+			params.put(p, 3);
+			return true;
+		case GL_MINOR_VERSION:
+		case GL_NUM_EXTENSIONS:
+		case GL_NUM_PROGRAM_BINARY_FORMATS:
+			params.put(p, 0);
+			return true;
+		case GL_MAX_3D_TEXTURE_SIZE:
+			params.put(p, 2048);
+			return true;
+		case GL_MAX_ARRAY_TEXTURE_LAYERS:
+			params.put(p, 256);
+			return true;
+		case GL_MAX_DRAW_BUFFERS:
+		case GL_MAX_COLOR_ATTACHMENTS:
+			params.put(p, MAX_DRAW_BUFFERS);
+			return true;
+		case GL_MAX_SAMPLES:
+			params.put(p, MAX_SAMPLES);
+			return true;
+		case GL_MAX_UNIFORM_BUFFER_BINDINGS:
+			params.put(p, MAX_UNIFORM_BUFFER_BINDINGS);
+			return true;
+		case GL_MAX_ELEMENT_INDEX:
+			params.put(p, Integer.MAX_VALUE);
+			return true;
+		case GL_VERTEX_ARRAY_BINDING:
+			int array = 0;
+			for (IntMap.Entry<VertexArrayState> entry : vertexArrays.entries())
+				if (entry.value == vertexArray) array = entry.key;
+			params.put(p, array);
+			return true;
+		case GL_TEXTURE_BINDING_3D:
+			params.put(p, boundTextures[activeTexture][2]);
+			return true;
+		case GL_TEXTURE_BINDING_2D_ARRAY:
+			params.put(p, boundTextures[activeTexture][3]);
+			return true;
+		case GL_COPY_READ_BUFFER_BINDING:
+		case GL_COPY_WRITE_BUFFER_BINDING:
+		case GL_UNIFORM_BUFFER_BINDING:
+		case GL_TRANSFORM_FEEDBACK_BUFFER_BINDING:
+			params.put(p, boundBuffers.get(pname == GL_UNIFORM_BUFFER_BINDING ? GL_UNIFORM_BUFFER
+				: pname == GL_TRANSFORM_FEEDBACK_BUFFER_BINDING ? GL_TRANSFORM_FEEDBACK_BUFFER : pname, 0));
+			return true;
+		case GL_PIXEL_PACK_BUFFER_BINDING:
+			params.put(p, boundBuffers.get(GL_PIXEL_PACK_BUFFER, 0));
+			return true;
+		case GL_PIXEL_UNPACK_BUFFER_BINDING:
+			params.put(p, boundBuffers.get(GL_PIXEL_UNPACK_BUFFER, 0));
+			return true;
+		case GL_READ_FRAMEBUFFER_BINDING:
+			params.put(p, framebuffer);
+			return true;
+		}
+		return super.getInteger(pname, params);
+	}
+
+	protected int genVertexArray () {
+		int name = genName();
+		vertexArrays.put(name, new VertexArrayState());
+		return name;
+	}
+
+	protected void deleteVertexArray (int array) {
+		VertexArrayState state = vertexArrays.remove(array);
+		if (state != null && vertexArray == state) vertexArray = defaultVertexArray;
+	}
+
+	protected int genQuery () {
+		int name = genName();
+		queries.add(name);
+		return name;
+	}
+
+	protected void deleteQuery (int id) {
+		queries.remove(id);
+	}
+
+	protected int genSampler () {
+		int name = genName();
+		samplers.add(name);
+		return name;
+	}
+
+	protected void deleteSampler (int sampler) {
+		samplers.remove(sampler);
+	}
+
+	protected int genTransformFeedback () {
+		int name = genName();
+		transformFeedbacks.add(name);
+		return name;
+	}
+
+	protected void deleteTransformFeedback (int id) {
+		transformFeedbacks.remove(id);
+	}
+
+	@Override
+	public void glReadBuffer (int mode) {
+		calls++;
+		if (mode != GL_NONE && mode != GL_BACK && (mode < GL_COLOR_ATTACHMENT0 || mode > GL_COLOR_ATTACHMENT15))
+			error(GL_INVALID_ENUM, "glReadBuffer: invalid mode: " + mode);
+	}
+
+	@Override
+	public void glDrawRangeElements (int mode, int start, int end, int count, int type, Buffer indices) {
+		vertexCount.put(count);
+		drawCalls++;
+		calls++;
+		if (end < start) {
+			error(GL_INVALID_VALUE, "glDrawRangeElements: end < start");
+			return;
+		}
+		if (!validateDraw("glDrawRangeElements", mode, count) || !validateIndexType("glDrawRangeElements", type)) return;
+		if (validation && count > 0) validateAttribs("glDrawRangeElements", end, 1);
+	}
+
+	@Override
+	public void glDrawRangeElements (int mode, int start, int end, int count, int type, int offset) {
+		vertexCount.put(count);
+		drawCalls++;
+		calls++;
+		if (end < start) {
+			error(GL_INVALID_VALUE, "glDrawRangeElements: end < start");
+			return;
+		}
+		if (!validateDraw("glDrawRangeElements", mode, count) || !validateIndexType("glDrawRangeElements", type)) return;
+		drawElements("glDrawRangeElements", count, type, offset, 1);
+	}
+
+	@Override
+	public void glTexImage3D (int target, int level, int internalformat, int width, int height, int depth, int border, int format,
+		int type, Buffer pixels) {
+		calls++;
+		if (target != GL_TEXTURE_3D && target != GL_TEXTURE_2D_ARRAY)
+			error(GL_INVALID_ENUM, "glTexImage3D: invalid target: " + target);
+		else
+			texImage("glTexImage3D", target, level, internalformat, width, height, depth, border);
+	}
+
+	@Override
+	public void glTexImage3D (int target, int level, int internalformat, int width, int height, int depth, int border, int format,
+		int type, int offset) {
+		calls++;
+		if (target != GL_TEXTURE_3D && target != GL_TEXTURE_2D_ARRAY)
+			error(GL_INVALID_ENUM, "glTexImage3D: invalid target: " + target);
+		else
+			texImage("glTexImage3D", target, level, internalformat, width, height, depth, border);
+	}
+
+	@Override
+	public void glTexSubImage3D (int target, int level, int xoffset, int yoffset, int zoffset, int width, int height, int depth,
+		int format, int type, Buffer pixels) {
+		calls++;
+		if (target != GL_TEXTURE_3D && target != GL_TEXTURE_2D_ARRAY)
+			error(GL_INVALID_ENUM, "glTexSubImage3D: invalid target: " + target);
+		else
+			texSubImage("glTexSubImage3D", target, level, xoffset, yoffset, zoffset, width, height, depth);
+	}
+
+	@Override
+	public void glTexSubImage3D (int target, int level, int xoffset, int yoffset, int zoffset, int width, int height, int depth,
+		int format, int type, int offset) {
+		calls++;
+		if (target != GL_TEXTURE_3D && target != GL_TEXTURE_2D_ARRAY)
+			error(GL_INVALID_ENUM, "glTexSubImage3D: invalid target: " + target);
+		else
+			texSubImage("glTexSubImage3D", target, level, xoffset, yoffset, zoffset, width, height, depth);
+	}
+
+	@Override
+	public void glCopyTexSubImage3D (int target, int level, int xoffset, int yoffset, int zoffset, int x, int y, int width,
+		int height) {
+		calls++;
+		if (target != GL_TEXTURE_3D && target != GL_TEXTURE_2D_ARRAY)
+			error(GL_INVALID_ENUM, "glCopyTexSubImage3D: invalid target: " + target);
+		else if (checkFramebuffer("glCopyTexSubImage3D"))
+			texSubImage("glCopyTexSubImage3D", target, level, xoffset, yoffset, zoffset, width, height, 1);
+	}
+
+	@Override
+	public void glGenQueries (int n, int[] ids, int offset) {
+		calls++;
+		for (int i = 0; i < n; i++)
+			ids[offset + i] = genQuery();
+	}
+
+	@Override
+	public void glGenQueries (int n, IntBuffer ids) {
+		calls++;
+		for (int i = 0, p = ids.position(); i < n; i++)
+			ids.put(p + i, genQuery());
+	}
+
+	@Override
+	public void glDeleteQueries (int n, int[] ids, int offset) {
+		calls++;
+		for (int i = 0; i < n; i++)
+			deleteQuery(ids[offset + i]);
+	}
+
+	@Override
+	public void glDeleteQueries (int n, IntBuffer ids) {
+		calls++;
+		for (int i = 0, p = ids.position(); i < n; i++)
+			deleteQuery(ids.get(p + i));
+	}
+
+	@Override
+	public boolean glIsQuery (int id) {
+		calls++;
+		return queries.contains(id);
+	}
+
+	@Override
+	public void glBeginQuery (int target, int id) {
+		calls++;
+		if (!queries.contains(id)) {
+			error(GL_INVALID_OPERATION, "glBeginQuery: query " + id + " was not generated or has been deleted");
+			return;
+		}
+		if (activeQueries.containsKey(target)) {
+			error(GL_INVALID_OPERATION, "glBeginQuery: a query is already active for target " + target);
+			return;
+		}
+		activeQueries.put(target, id);
+	}
+
+	@Override
+	public void glEndQuery (int target) {
+		calls++;
+		if (activeQueries.remove(target, 0) == 0) error(GL_INVALID_OPERATION, "glEndQuery: no query active for target " + target);
+	}
+
+	@Override
+	public void glGetQueryiv (int target, int pname, IntBuffer params) {
+		calls++;
+		put(params, activeQueries.get(target, 0));
+	}
+
+	@Override
+	public void glGetQueryObjectuiv (int id, int pname, IntBuffer params) {
+		calls++;
+		if (pname == GL_QUERY_RESULT_AVAILABLE)
+			put(params, GL_TRUE);
+		else
+			put(params, 0);
+	}
+
+	@Override
+	public boolean glUnmapBuffer (int target) {
+		calls++;
+		return targetBuffer("glUnmapBuffer", target) != null;
+	}
+
+	@Override
+	public Buffer glGetBufferPointerv (int target, int pname) {
+		calls++;
+		BufferObject object = targetBuffer("glGetBufferPointerv", target);
+		return object == null ? null : object.data;
+	}
+
+	@Override
+	public void glDrawBuffers (int n, IntBuffer bufs) {
+		calls++;
+	}
+
+	@Override
+	public void glUniformMatrix2x3fv (int location, int count, boolean transpose, FloatBuffer value) {
+		calls++;
+		uniform("glUniformMatrix2x3fv", location, count, MATRIX, GL_FLOAT_MAT2x3);
+	}
+
+	@Override
+	public void glUniformMatrix3x2fv (int location, int count, boolean transpose, FloatBuffer value) {
+		calls++;
+		uniform("glUniformMatrix3x2fv", location, count, MATRIX, GL_FLOAT_MAT3x2);
+	}
+
+	@Override
+	public void glUniformMatrix2x4fv (int location, int count, boolean transpose, FloatBuffer value) {
+		calls++;
+		uniform("glUniformMatrix2x4fv", location, count, MATRIX, GL_FLOAT_MAT2x4);
+	}
+
+	@Override
+	public void glUniformMatrix4x2fv (int location, int count, boolean transpose, FloatBuffer value) {
+		calls++;
+		uniform("glUniformMatrix4x2fv", location, count, MATRIX, GL_FLOAT_MAT4x2);
+	}
+
+	@Override
+	public void glUniformMatrix3x4fv (int location, int count, boolean transpose, FloatBuffer value) {
+		calls++;
+		uniform("glUniformMatrix3x4fv", location, count, MATRIX, GL_FLOAT_MAT3x4);
+	}
+
+	@Override
+	public void glUniformMatrix4x3fv (int location, int count, boolean transpose, FloatBuffer value) {
+		calls++;
+		uniform("glUniformMatrix4x3fv", location, count, MATRIX, GL_FLOAT_MAT4x3);
+	}
+
+	@Override
+	public void glBlitFramebuffer (int srcX0, int srcY0, int srcX1, int srcY1, int dstX0, int dstY0, int dstX1, int dstY1,
+		int mask, int filter) {
+		calls++;
+		checkFramebuffer("glBlitFramebuffer");
+	}
+
+	@Override
+	public void glRenderbufferStorageMultisample (int target, int samples, int internalformat, int width, int height) {
+		calls++;
+		if (samples < 0 || samples > MAX_SAMPLES) {
+			error(GL_INVALID_VALUE, "glRenderbufferStorageMultisample: invalid samples: " + samples);
+			return;
+		}
+		renderbufferStorage("glRenderbufferStorageMultisample", target, internalformat, width, height);
+	}
+
+	@Override
+	public void glFramebufferTextureLayer (int target, int attachment, int texture, int level, int layer) {
+		calls++;
+		FramebufferObject object = targetFramebuffer("glFramebufferTextureLayer", target);
+		if (object != null) attachTexture("glFramebufferTextureLayer", object, attachment, texture);
+	}
+
+	@Override
+	public void glFlushMappedBufferRange (int target, int offset, int length) {
+		calls++;
+	}
+
+	@Override
+	public void glBindVertexArray (int array) {
+		calls++;
+		if (array == 0) {
+			vertexArray = defaultVertexArray;
+			return;
+		}
+		VertexArrayState state = vertexArrays.get(array);
+		if (state == null) {
+			error(GL_INVALID_OPERATION, "glBindVertexArray: vertex array " + array + " was not generated or has been deleted");
+			return;
+		}
+		vertexArray = state;
+	}
+
+	@Override
+	public void glDeleteVertexArrays (int n, int[] arrays, int offset) {
+		calls++;
+		for (int i = 0; i < n; i++)
+			deleteVertexArray(arrays[offset + i]);
+	}
+
+	@Override
+	public void glDeleteVertexArrays (int n, IntBuffer arrays) {
+		calls++;
+		for (int i = 0, p = arrays.position(); i < n; i++)
+			deleteVertexArray(arrays.get(p + i));
+	}
+
+	@Override
+	public void glGenVertexArrays (int n, int[] arrays, int offset) {
+		calls++;
+		for (int i = 0; i < n; i++)
+			arrays[offset + i] = genVertexArray();
+	}
+
+	@Override
+	public void glGenVertexArrays (int n, IntBuffer arrays) {
+		calls++;
+		for (int i = 0, p = arrays.position(); i < n; i++)
+			arrays.put(p + i, genVertexArray());
+	}
+
+	@Override
+	public boolean glIsVertexArray (int array) {
+		calls++;
+		return vertexArrays.containsKey(array);
+	}
+
+	@Override
+	public void glBeginTransformFeedback (int primitiveMode) {
+		calls++;
+	}
+
+	@Override
+	public void glEndTransformFeedback () {
+		calls++;
+	}
+
+	@Override
+	public void glBindBufferRange (int target, int index, int buffer, int offset, int size) {
+		calls++;
+		bindBufferBase("glBindBufferRange", target, index, buffer);
+	}
+
+	@Override
+	public void glBindBufferBase (int target, int index, int buffer) {
+		calls++;
+		bindBufferBase("glBindBufferBase", target, index, buffer);
+	}
+
+	@Override
+	public void glTransformFeedbackVaryings (int program, String[] varyings, int bufferMode) {
+		calls++;
+	}
+
+	@Override
+	public void glVertexAttribIPointer (int index, int size, int type, int stride, int offset) {
+		calls++;
+		VertexAttrib attrib = vertexAttribPointer("glVertexAttribIPointer", index, size, type, stride);
+		if (attrib == null) return;
+		if (arrayBuffer == 0) {
+			error(GL_INVALID_OPERATION, "glVertexAttribIPointer: offset " + offset + " without a bound array buffer");
+			return;
+		}
+		attrib.normalized = false;
+		attrib.buffer = arrayBuffer;
+		attrib.offset = offset;
+		attrib.pointer = null;
+	}
+
+	@Override
+	public void glGetVertexAttribIiv (int index, int pname, IntBuffer params) {
+		glGetVertexAttribiv(index, pname, params);
+	}
+
+	@Override
+	public void glGetVertexAttribIuiv (int index, int pname, IntBuffer params) {
+		glGetVertexAttribiv(index, pname, params);
+	}
+
+	@Override
+	public void glVertexAttribI4i (int index, int x, int y, int z, int w) {
+		calls++;
+		attrib("glVertexAttribI4i", index);
+	}
+
+	@Override
+	public void glVertexAttribI4ui (int index, int x, int y, int z, int w) {
+		calls++;
+		attrib("glVertexAttribI4ui", index);
+	}
+
+	@Override
+	public void glGetUniformuiv (int program, int location, IntBuffer params) {
+		calls++;
+		linkedProgram("glGetUniformuiv", program);
+	}
+
+	@Override
+	public int glGetFragDataLocation (int program, String name) {
+		calls++;
+		return linkedProgram("glGetFragDataLocation", program) == null ? -1 : 0;
+	}
+
+	@Override
+	public void glUniform1uiv (int location, int count, IntBuffer value) {
+		calls++;
+		uniform("glUniform1uiv", location, count, UINT, 1);
+	}
+
+	@Override
+	public void glUniform3uiv (int location, int count, IntBuffer value) {
+		calls++;
+		uniform("glUniform3uiv", location, count, UINT, 3);
+	}
+
+	@Override
+	public void glUniform4uiv (int location, int count, IntBuffer value) {
+		calls++;
+		uniform("glUniform4uiv", location, count, UINT, 4);
+	}
+
+	@Override
+	public void glClearBufferiv (int buffer, int drawbuffer, IntBuffer value) {
+		calls++;
+		checkFramebuffer("glClearBufferiv");
+	}
+
+	@Override
+	public void glClearBufferuiv (int buffer, int drawbuffer, IntBuffer value) {
+		calls++;
+		checkFramebuffer("glClearBufferuiv");
+	}
+
+	@Override
+	public void glClearBufferfv (int buffer, int drawbuffer, FloatBuffer value) {
+		calls++;
+		checkFramebuffer("glClearBufferfv");
+	}
+
+	@Override
+	public void glClearBufferfi (int buffer, int drawbuffer, float depth, int stencil) {
+		calls++;
+		checkFramebuffer("glClearBufferfi");
+	}
+
+	@Override
+	public String glGetStringi (int name, int index) {
+		calls++;
+		error(GL_INVALID_VALUE, "glGetStringi: index out of range: " + index);
+		return null;
+	}
+
+	@Override
+	public void glCopyBufferSubData (int readTarget, int writeTarget, int readOffset, int writeOffset, int size) {
+		calls++;
+		BufferObject read = targetBuffer("glCopyBufferSubData", readTarget);
+		BufferObject write = targetBuffer("glCopyBufferSubData", writeTarget);
+		if (read == null || write == null) return;
+		if (readOffset < 0 || writeOffset < 0 || size < 0 || readOffset + size > read.size()
+			|| writeOffset + size > write.size()) {
+			error(GL_INVALID_VALUE, "glCopyBufferSubData: range exceeds buffer size");
+			return;
+		}
+		ByteBuffer source = read.data.duplicate();
+		source.limit(readOffset + size).position(readOffset);
+		ByteBuffer target = write.data.duplicate();
+		target.position(writeOffset);
+		target.put(source);
+	}
+
+	@Override
+	public void glGetUniformIndices (int program, String[] uniformNames, IntBuffer uniformIndices) {
+		calls++;
+	}
+
+	@Override
+	public void glGetActiveUniformsiv (int program, int uniformCount, IntBuffer uniformIndices, int pname, IntBuffer params) {
+		calls++;
+	}
+
+	@Override
+	public int glGetUniformBlockIndex (int program, String uniformBlockName) {
+		calls++;
+		linkedProgram("glGetUniformBlockIndex", program);
+		return GL_INVALID_INDEX;
+	}
+
+	@Override
+	public void glGetActiveUniformBlockiv (int program, int uniformBlockIndex, int pname, IntBuffer params) {
+		calls++;
+	}
+
+	@Override
+	public void glGetActiveUniformBlockName (int program, int uniformBlockIndex, Buffer length, Buffer uniformBlockName) {
+		calls++;
+	}
+
+	@Override
+	public String glGetActiveUniformBlockName (int program, int uniformBlockIndex) {
+		calls++;
+		return null;
+	}
+
+	@Override
+	public void glUniformBlockBinding (int program, int uniformBlockIndex, int uniformBlockBinding) {
+		calls++;
+	}
+
+	@Override
+	public void glDrawArraysInstanced (int mode, int first, int count, int instanceCount) {
+		vertexCount.put(count);
+		drawCalls++;
+		calls++;
+		if (first < 0 || instanceCount < 0) {
+			error(GL_INVALID_VALUE, "glDrawArraysInstanced: negative first or instance count");
+			return;
+		}
+		if (validateDraw("glDrawArraysInstanced", mode, count) && validation && count > 0 && instanceCount > 0)
+			validateAttribs("glDrawArraysInstanced", first + count - 1, instanceCount);
+	}
+
+	@Override
+	public void glDrawElementsInstanced (int mode, int count, int type, int indicesOffset, int instanceCount) {
+		vertexCount.put(count);
+		drawCalls++;
+		calls++;
+		if (instanceCount < 0) {
+			error(GL_INVALID_VALUE, "glDrawElementsInstanced: negative instance count");
+			return;
+		}
+		if (!validateDraw("glDrawElementsInstanced", mode, count) || !validateIndexType("glDrawElementsInstanced", type)) return;
+		drawElements("glDrawElementsInstanced", count, type, indicesOffset, Math.max(1, instanceCount));
+	}
+
+	@Override
+	public void glGetInteger64v (int pname, LongBuffer params) {
+		calls++;
+		IntBuffer values = IntBuffer.allocate(16);
+		if (getInteger(pname, values))
+			params.put(params.position(), values.get(0));
+		else
+			error(GL_INVALID_ENUM, "glGetInteger64v: invalid parameter: " + pname);
+	}
+
+	@Override
+	public void glGetBufferParameteri64v (int target, int pname, LongBuffer params) {
+		calls++;
+		BufferObject object = targetBuffer("glGetBufferParameteri64v", target);
+		if (object != null) params.put(params.position(), pname == GL_BUFFER_SIZE ? object.size() : object.usage);
+	}
+
+	@Override
+	public void glGenSamplers (int count, int[] samplers, int offset) {
+		calls++;
+		for (int i = 0; i < count; i++)
+			samplers[offset + i] = genSampler();
+	}
+
+	@Override
+	public void glGenSamplers (int count, IntBuffer samplers) {
+		calls++;
+		for (int i = 0, p = samplers.position(); i < count; i++)
+			samplers.put(p + i, genSampler());
+	}
+
+	@Override
+	public void glDeleteSamplers (int count, int[] samplers, int offset) {
+		calls++;
+		for (int i = 0; i < count; i++)
+			deleteSampler(samplers[offset + i]);
+	}
+
+	@Override
+	public void glDeleteSamplers (int count, IntBuffer samplers) {
+		calls++;
+		for (int i = 0, p = samplers.position(); i < count; i++)
+			deleteSampler(samplers.get(p + i));
+	}
+
+	@Override
+	public boolean glIsSampler (int sampler) {
+		calls++;
+		return samplers.contains(sampler);
+	}
+
+	@Override
+	public void glBindSampler (int unit, int sampler) {
+		calls++;
+		if (unit < 0 || unit >= MAX_TEXTURE_UNITS)
+			error(GL_INVALID_VALUE, "glBindSampler: unit out of range: " + unit);
+		else if (sampler != 0 && !samplers.contains(sampler))
+			error(GL_INVALID_OPERATION, "glBindSampler: sampler " + sampler + " was not generated or has been deleted");
+	}
+
+	@Override
+	public void glSamplerParameteri (int sampler, int pname, int param) {
+		calls++;
+	}
+
+	@Override
+	public void glSamplerParameteriv (int sampler, int pname, IntBuffer param) {
+		calls++;
+	}
+
+	@Override
+	public void glSamplerParameterf (int sampler, int pname, float param) {
+		calls++;
+	}
+
+	@Override
+	public void glSamplerParameterfv (int sampler, int pname, FloatBuffer param) {
+		calls++;
+	}
+
+	@Override
+	public void glGetSamplerParameteriv (int sampler, int pname, IntBuffer params) {
+		calls++;
+	}
+
+	@Override
+	public void glGetSamplerParameterfv (int sampler, int pname, FloatBuffer params) {
+		calls++;
+	}
+
+	@Override
+	public void glVertexAttribDivisor (int index, int divisor) {
+		calls++;
+		VertexAttrib attrib = attrib("glVertexAttribDivisor", index);
+		if (attrib != null) attrib.divisor = divisor;
+	}
+
+	@Override
+	public void glBindTransformFeedback (int target, int id) {
+		calls++;
+		if (target != GL_TRANSFORM_FEEDBACK)
+			error(GL_INVALID_ENUM, "glBindTransformFeedback: invalid target: " + target);
+		else if (id != 0 && !transformFeedbacks.contains(id))
+			error(GL_INVALID_OPERATION, "glBindTransformFeedback: transform feedback " + id + " was not generated or has been deleted");
+	}
+
+	@Override
+	public void glDeleteTransformFeedbacks (int n, int[] ids, int offset) {
+		calls++;
+		for (int i = 0; i < n; i++)
+			deleteTransformFeedback(ids[offset + i]);
+	}
+
+	@Override
+	public void glDeleteTransformFeedbacks (int n, IntBuffer ids) {
+		calls++;
+		for (int i = 0, p = ids.position(); i < n; i++)
+			deleteTransformFeedback(ids.get(p + i));
+	}
+
+	@Override
+	public void glGenTransformFeedbacks (int n, int[] ids, int offset) {
+		calls++;
+		for (int i = 0; i < n; i++)
+			ids[offset + i] = genTransformFeedback();
+	}
+
+	@Override
+	public void glGenTransformFeedbacks (int n, IntBuffer ids) {
+		calls++;
+		for (int i = 0, p = ids.position(); i < n; i++)
+			ids.put(p + i, genTransformFeedback());
+	}
+
+	@Override
+	public boolean glIsTransformFeedback (int id) {
+		calls++;
+		return transformFeedbacks.contains(id);
+	}
+
+	@Override
+	public void glPauseTransformFeedback () {
+		calls++;
+	}
+
+	@Override
+	public void glResumeTransformFeedback () {
+		calls++;
+	}
+
+	@Override
+	public void glProgramParameteri (int program, int pname, int value) {
+		calls++;
+	}
+
+	@Override
+	public void glInvalidateFramebuffer (int target, int numAttachments, IntBuffer attachments) {
+		calls++;
+	}
+
+	@Override
+	public void glInvalidateSubFramebuffer (int target, int numAttachments, IntBuffer attachments, int x, int y, int width,
+		int height) {
+		calls++;
+	}
+}
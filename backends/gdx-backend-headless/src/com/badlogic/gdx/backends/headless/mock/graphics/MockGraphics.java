@@ -17,6 +17,7 @@
 package com.badlogic.gdx.backends.headless.mock.graphics;
 
 import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Graphics;
 import com.badlogic.gdx.graphics.Cursor;
 import com.badlogic.gdx.graphics.GL20;
@@ -36,29 +37,43 @@ public class MockGraphics implements Graphics {
 	int fps;
 	long lastTime = System.nanoTime();
 	GLVersion glVersion = new GLVersion(Application.ApplicationType.HeadlessDesktop, "", "", "");
+	GL20 gl20;
+	GL30 gl30;
+
 	@Override
 	public boolean isGL30Available() {
-		return false;
+		return gl30 != null;
 	}
 
 	@Override
 	public GL20 getGL20() {
-		return null;
+		return gl20;
 	}
 
 	@Override
 	public void setGL20 (GL20 gl20) {
-
+		this.gl20 = gl20;
+		if (gl30 == null) {
+			Gdx.gl = gl20;
+			Gdx.gl20 = gl20;
+		}
 	}
 
 	@Override
 	public GL30 getGL30() {
-		return null;
+		return gl30;
 	}
 
 	@Override
 	public void setGL30 (GL30 gl30) {
+		this.gl30 = gl30;
+		if (gl30 != null) {
+			this.gl20 = gl30;
 
+			Gdx.gl = gl20;
+			Gdx.gl20 = gl20;
+			Gdx.gl30 = gl30;
+		}
 	}
 
 	@Override
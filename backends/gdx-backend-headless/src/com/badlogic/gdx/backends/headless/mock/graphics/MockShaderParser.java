@@ -0,0 +1,448 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.backends.headless.mock.graphics;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.GL30;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/** Extracts the uniform and attribute declarations of a GLSL shader, so {@link MockGL20} can answer the reflection queries that
+ * {@link com.badlogic.gdx.graphics.glutils.ShaderProgram} issues after linking. Runs a small preprocessor (#define, #undef,
+ * #if, #ifdef, #ifndef, #elif, #else, #endif) first, so only the declarations of active blocks are reported. Struct uniforms
+ * are expanded into their fields, like a driver would. This is not a validating compiler: anything it doesn't understand is
+ * skipped. */
+class MockShaderParser {
+	static final ObjectIntMap<String> types = new ObjectIntMap<String>();
+	static {
+		types.put("float", GL20.GL_FLOAT);
+		types.put("vec2", GL20.GL_FLOAT_VEC2);
+		types.put("vec3", GL20.GL_FLOAT_VEC3);
+		types.put("vec4", GL20.GL_FLOAT_VEC4);
+		types.put("int", GL20.GL_INT);
+		types.put("ivec2", GL20.GL_INT_VEC2);
+		types.put("ivec3", GL20.GL_INT_VEC3);
+		types.put("ivec4", GL20.GL_INT_VEC4);
+		types.put("uint", GL20.GL_UNSIGNED_INT);
+		types.put("uvec2", GL30.GL_UNSIGNED_INT_VEC2);
+		types.put("uvec3", GL30.GL_UNSIGNED_INT_VEC3);
+		types.put("uvec4", GL30.GL_UNSIGNED_INT_VEC4);
+		types.put("bool", GL20.GL_BOOL);
+		types.put("bvec2", GL20.GL_BOOL_VEC2);
+		types.put("bvec3", GL20.GL_BOOL_VEC3);
+		types.put("bvec4", GL20.GL_BOOL_VEC4);
+		types.put("mat2", GL20.GL_FLOAT_MAT2);
+		types.put("mat3", GL20.GL_FLOAT_MAT3);
+		types.put("mat4", GL20.GL_FLOAT_MAT4);
+		types.put("mat2x3", GL30.GL_FLOAT_MAT2x3);
+		types.put("mat2x4", GL30.GL_FLOAT_MAT2x4);
+		types.put("mat3x2", GL30.GL_FLOAT_MAT3x2);
+		types.put("mat3x4", GL30.GL_FLOAT_MAT3x4);
+		types.put("mat4x2", GL30.GL_FLOAT_MAT4x2);
+		types.put("mat4x3", GL30.GL_FLOAT_MAT4x3);
+		types.put("sampler2D", GL20.GL_SAMPLER_2D);
+		types.put("samplerCube", GL20.GL_SAMPLER_CUBE);
+		types.put("sampler3D", GL30.GL_SAMPLER_3D);
+		types.put("sampler2DShadow", GL30.GL_SAMPLER_2D_SHADOW);
+		types.put("sampler2DArray", GL30.GL_SAMPLER_2D_ARRAY);
+		types.put("sampler2DArrayShadow", GL30.GL_SAMPLER_2D_ARRAY_SHADOW);
+		types.put("samplerCubeShadow", GL30.GL_SAMPLER_CUBE_SHADOW);
+		types.put("isampler2D", GL30.GL_INT_SAMPLER_2D);
+		types.put("isampler3D", GL30.GL_INT_SAMPLER_3D);
+		types.put("isamplerCube", GL30.GL_INT_SAMPLER_CUBE);
+		types.put("isampler2DArray", GL30.GL_INT_SAMPLER_2D_ARRAY);
+		types.put("usampler2D", GL30.GL_UNSIGNED_INT_SAMPLER_2D);
+		types.put("usampler3D", GL30.GL_UNSIGNED_INT_SAMPLER_3D);
+		types.put("usamplerCube", GL30.GL_UNSIGNED_INT_SAMPLER_CUBE);
+		types.put("usampler2DArray", GL30.GL_UNSIGNED_INT_SAMPLER_2D_ARRAY);
+	}
+
+	/** A single uniform or attribute declaration. Arrays are reported with a size larger than one. */
+	static class Variable {
+		final String name;
+		final int type;
+		final int size;
+
+		Variable (String name, int type, int size) {
+			this.name = name;
+			this.type = type;
+			this.size = size;
+		}
+	}
+
+	final Array<Variable> uniforms = new Array<Variable>();
+	final Array<Variable> attributes = new Array<Variable>();
+
+	private final ObjectMap<String, String> defines = new ObjectMap<String, String>();
+	private final ObjectMap<String, Array<String[]>> structs = new ObjectMap<String, Array<String[]>>();
+
+	/** @param vertex whether this is a vertex shader, only those have attributes (or global "in" variables) */
+	MockShaderParser (String source, boolean vertex) {
+		String code = preprocess(stripComments(source));
+		parseDeclarations(code, vertex);
+	}
+
+	// preprocessor
+
+	static String stripComments (String source) {
+		StringBuilder out = new StringBuilder(source.length());
+		int n = source.length();
+		for (int i = 0; i < n; i++) {
+			char c = source.charAt(i);
+			if (c == '/' && i + 1 < n && source.charAt(i + 1) == '/') {
+				while (i < n && source.charAt(i) != '\n')
+					i++;
+				if (i < n) out.append('\n');
+			} else if (c == '/' && i + 1 < n && source.charAt(i + 1) == '*') {
+				i += 2;
+				while (i + 1 < n && !(source.charAt(i) == '*' && source.charAt(i + 1) == '/')) {
+					if (source.charAt(i) == '\n') out.append('\n');
+					i++;
+				}
+				i++;
+				out.append(' ');
+			} else
+				out.append(c);
+		}
+		return out.toString();
+	}
+
+	private String preprocess (String source) {
+		StringBuilder out = new StringBuilder(source.length());
+		// per nesting level: bit 0 = this branch is active, bit 1 = some branch of this level was already taken
+		int[] stack = new int[32];
+		int depth = 0;
+		boolean active = true;
+		String[] lines = source.split("\r?\n");
+		for (String line : lines) {
+			String trimmed = line.trim();
+			if (!trimmed.startsWith("#")) {
+				if (active) out.append(line).append('\n');
+				continue;
+			}
+			String directive = trimmed.substring(1).trim();
+			String keyword = directive;
+			String rest = "";
+			for (int i = 0; i < directive.length(); i++) {
+				if (!Character.isLetter(directive.charAt(i))) {
+					keyword = directive.substring(0, i);
+					rest = directive.substring(i).trim();
+					break;
+				}
+			}
+			if (keyword.equals("ifdef") || keyword.equals("ifndef") || keyword.equals("if")) {
+				if (depth == stack.length) throw new GdxRuntimeException("Preprocessor conditionals nested too deep");
+				boolean condition = false;
+				if (active) {
+					if (keyword.equals("ifdef"))
+						condition = defines.containsKey(rest);
+					else if (keyword.equals("ifndef"))
+						condition = !defines.containsKey(rest);
+					else
+						condition = evaluate(rest) != 0;
+				}
+				stack[depth++] = (active ? 4 : 0) | (condition ? 3 : 0);
+				active = active && condition;
+			} else if (keyword.equals("elif") || keyword.equals("else")) {
+				if (depth == 0) continue;
+				int state = stack[depth - 1];
+				boolean parentActive = (state & 4) != 0;
+				boolean taken = (state & 2) != 0;
+				boolean condition = parentActive && !taken && (keyword.equals("else") || evaluate(rest) != 0);
+				stack[depth - 1] = (state & 4) | (taken || condition ? 2 : 0) | (condition ? 1 : 0);
+				active = condition;
+			} else if (keyword.equals("endif")) {
+				if (depth == 0) continue;
+				active = (stack[--depth] & 4) != 0;
+			} else if (!active) {
+				continue;
+			} else if (keyword.equals("define")) {
+				int end = 0;
+				while (end < rest.length() && isIdentifierPart(rest.charAt(end)))
+					end++;
+				String name = rest.substring(0, end);
+				// function-like macros are recorded as defined, but not expanded
+				String value = end < rest.length() && rest.charAt(end) == '(' ? "" : rest.substring(end).trim();
+				defines.put(name, value);
+			} else if (keyword.equals("undef")) {
+				defines.remove(rest);
+			}
+		}
+		return out.toString();
+	}
+
+	private static boolean isIdentifierPart (char c) {
+		return Character.isLetterOrDigit(c) || c == '_';
+	}
+
+	// expressions, used by #if/#elif and array sizes
+
+	private String expression;
+	private int position;
+
+	/** Evaluates a preprocessor integer expression. Undefined identifiers evaluate to zero. */
+	int evaluate (String expression) {
+		String oldExpression = this.expression;
+		int oldPosition = this.position;
+		this.expression = expression;
+		this.position = 0;
+		try {
+			return parseBinary(0);
+		} catch (RuntimeException ex) {
+			return 0;
+		} finally {
+			this.expression = oldExpression;
+			this.position = oldPosition;
+		}
+	}
+
+	private static final String[][] operators = {{"||"}, {"&&"}, {"==", "!="}, {"<=", ">=", "<", ">"}, {"+", "-"}, {"*", "/", "%"}};
+
+	private int parseBinary (int level) {
+		if (level == operators.length) return parseUnary();
+		int left = parseBinary(level + 1);
+		outer:
+		while (true) {
+			skipWhitespace();
+			for (String op : operators[level]) {
+				if (expression.startsWith(op, position)) {
+					position += op.length();
+					int right = parseBinary(level + 1);
+					left = apply(op, left, right);
+					continue outer;
+				}
+			}
+			return left;
+		}
+	}
+
+	private static int apply (String op, int left, int right) {
+		if (op.equals("||")) return left != 0 || right != 0 ? 1 : 0;
+		if (op.equals("&&")) return left != 0 && right != 0 ? 1 : 0;
+		if (op.equals("==")) return left == right ? 1 : 0;
+		if (op.equals("!=")) return left != right ? 1 : 0;
+		if (op.equals("<=")) return left <= right ? 1 : 0;
+		if (op.equals(">=")) return left >= right ? 1 : 0;
+		if (op.equals("<")) return left < right ? 1 : 0;
+		if (op.equals(">")) return left > right ? 1 : 0;
+		if (op.equals("+")) return left + right;
+		if (op.equals("-")) return left - right;
+		if (op.equals("*")) return left * right;
+		if (op.equals("/")) return right == 0 ? 0 : left / right;
+		return right == 0 ? 0 : left % right;
+	}
+
+	private int parseUnary () {
+		skipWhitespace();
+		char c = expression.charAt(position);
+		if (c == '!') {
+			position++;
+			return parseUnary() == 0 ? 1 : 0;
+		}
+		if (c == '-') {
+			position++;
+			return -parseUnary();
+		}
+		if (c == '(') {
+			position++;
+			int value = parseBinary(0);
+			skipWhitespace();
+			position++; // ')'
+			return value;
+		}
+		if (Character.isDigit(c)) {
+			int start = position;
+			while (position < expression.length() && isIdentifierPart(expression.charAt(position)))
+				position++;
+			String number = expression.substring(start, position).replaceAll("[uUlL]+$", "");
+			return number.startsWith("0x") || number.startsWith("0X") ? Integer.parseInt(number.substring(2), 16)
+				: Integer.parseInt(number);
+		}
+		String identifier = parseIdentifier();
+		if (identifier.equals("defined")) {
+			skipWhitespace();
+			boolean parens = expression.charAt(position) == '(';
+			if (parens) position++;
+			skipWhitespace();
+			String name = parseIdentifier();
+			if (parens) {
+				skipWhitespace();
+				position++;
+			}
+			return defines.containsKey(name) ? 1 : 0;
+		}
+		String value = defines.get(identifier);
+		if (value == null || value.length() == 0 || value.equals(identifier)) return 0;
+		return evaluate(value);
+	}
+
+	private String parseIdentifier () {
+		int start = position;
+		while (position < expression.length() && isIdentifierPart(expression.charAt(position)))
+			position++;
+		if (start == position) throw new GdxRuntimeException("Unexpected character in expression: " + expression);
+		return expression.substring(start, position);
+	}
+
+	private void skipWhitespace () {
+		while (position < expression.length() && Character.isWhitespace(expression.charAt(position)))
+			position++;
+	}
+
+	// declarations
+
+	private void parseDeclarations (String code, boolean vertex) {
+		int depth = 0;
+		int start = 0;
+		int n = code.length();
+		for (int i = 0; i < n; i++) {
+			char c = code.charAt(i);
+			if (c == '{') {
+				if (depth == 0) {
+					String head = code.substring(start, i).trim();
+					if (head.startsWith("struct")) {
+						int end = code.indexOf('}', i);
+						if (end == -1) return;
+						String name = head.substring("struct".length()).trim();
+						structs.put(name, parseFields(code.substring(i + 1, end)));
+						// a struct definition may directly declare variables, "struct S {...} s;"
+						i = end;
+						start = end + 1;
+						continue;
+					}
+				}
+				depth++;
+			} else if (c == '}') {
+				depth--;
+				if (depth == 0) start = i + 1;
+			} else if (c == ';' && depth == 0) {
+				parseStatement(code.substring(start, i).trim(), vertex);
+				start = i + 1;
+			}
+		}
+	}
+
+	private Array<String[]> parseFields (String body) {
+		Array<String[]> fields = new Array<String[]>();
+		for (String statement : body.split(";")) {
+			String[] tokens = tokenize(statement);
+			int index = skipQualifiers(tokens, 0);
+			if (index >= tokens.length) continue;
+			String type = tokens[index];
+			for (String declarator : splitDeclarators(join(tokens, index + 1)))
+				if (declarator.trim().length() > 0) fields.add(new String[] {type, declarator.trim()});
+		}
+		return fields;
+	}
+
+	private void parseStatement (String statement, boolean vertex) {
+		String[] tokens = tokenize(statement);
+		if (tokens.length < 3) return;
+		boolean uniform = false, attribute = false;
+		int index = 0;
+		while (index < tokens.length) {
+			String token = tokens[index];
+			if (token.equals("uniform"))
+				uniform = true;
+			else if (token.equals("attribute") || (token.equals("in") && vertex))
+				attribute = vertex;
+			else if (token.startsWith("layout")) {
+				// skip "layout(...)"
+				while (index < tokens.length && !tokens[index].endsWith(")"))
+					index++;
+			} else if (!isQualifier(token)) break;
+			index++;
+		}
+		if ((!uniform && !attribute) || index >= tokens.length) return;
+		String type = tokens[index];
+		for (String declarator : splitDeclarators(join(tokens, index + 1))) {
+			declarator = declarator.trim();
+			if (declarator.length() == 0) continue;
+			if (uniform)
+				addVariable(uniforms, type, declarator, "");
+			else
+				addVariable(attributes, type, declarator, "");
+		}
+	}
+
+	private void addVariable (Array<Variable> target, String type, String declarator, String prefix) {
+		String name = declarator;
+		int size = 1;
+		int bracket = declarator.indexOf('[');
+		if (bracket != -1) {
+			name = declarator.substring(0, bracket).trim();
+			int end = declarator.indexOf(']', bracket);
+			size = Math.max(1, evaluate(declarator.substring(bracket + 1, end == -1 ? declarator.length() : end)));
+		}
+		int eq = name.indexOf('=');
+		if (eq != -1) name = name.substring(0, eq).trim();
+		Array<String[]> fields = structs.get(type);
+		if (fields != null) {
+			for (int i = 0; i < size; i++) {
+				String element = prefix + name + (bracket != -1 ? "[" + i + "]" : "") + ".";
+				for (String[] field : fields)
+					addVariable(target, field[0], field[1], element);
+			}
+			return;
+		}
+		if (!types.containsKey(type)) return;
+		target.add(new Variable(prefix + name, types.get(type, 0), bracket != -1 ? size : 1));
+	}
+
+	private static boolean isQualifier (String token) {
+		return token.equals("lowp") || token.equals("mediump") || token.equals("highp") || token.equals("const")
+			|| token.equals("flat") || token.equals("smooth") || token.equals("centroid") || token.equals("invariant");
+	}
+
+	private static int skipQualifiers (String[] tokens, int index) {
+		while (index < tokens.length && isQualifier(tokens[index]))
+			index++;
+		return index;
+	}
+
+	private static String[] tokenize (String statement) {
+		return statement.trim().replaceAll("\\s*([\\[\\],=])\\s*", "$1").split("\\s+");
+	}
+
+	/** Splits "a, b[2], c = f(1, 2)" at the commas that are not part of an initializer. */
+	private static Array<String> splitDeclarators (String declarators) {
+		Array<String> result = new Array<String>();
+		int depth = 0, start = 0;
+		for (int i = 0, n = declarators.length(); i < n; i++) {
+			char c = declarators.charAt(i);
+			if (c == '(')
+				depth++;
+			else if (c == ')')
+				depth--;
+			else if (c == ',' && depth == 0) {
+				result.add(declarators.substring(start, i));
+				start = i + 1;
+			}
+		}
+		result.add(declarators.substring(start));
+		return result;
+	}
+
+	private static String join (String[] tokens, int start) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = start; i < tokens.length; i++)
+			builder.append(tokens[i]);
+		return builder.toString();
+	}
+}
@@ -0,0 +1,351 @@
+
+package com.badlogic.gdx.backends.headless.mock.graphics;
+
+import static com.badlogic.gdx.graphics.GL20.*;
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+public class MockGL20Test {
+	static final String VERTEX = "attribute vec4 a_position;\n" //
+		+ "attribute vec4 a_color;\n" //
+		+ "uniform mat4 u_projTrans;\n" //
+		+ "void main () {\n" //
+		+ "	gl_Position = u_projTrans * a_position;\n" //
+		+ "}\n";
+	static final String FRAGMENT = "#ifdef GL_ES\n" //
+		+ "precision mediump float;\n" //
+		+ "#endif\n" //
+		+ "uniform sampler2D u_texture;\n" //
+		+ "uniform vec4 u_colors[4];\n" //
+		+ "void main () {\n" //
+		+ "	gl_FragColor = texture2D(u_texture, vec2(0.0)) * u_colors[0];\n" //
+		+ "}\n";
+
+	MockGL20 gl;
+
+	@Before
+	public void setUp () {
+		gl = new MockGL20();
+	}
+
+	@Test
+	public void testCounting () {
+		int texture = gl.glGenTexture();
+		int program = program(VERTEX, FRAGMENT);
+		assertTrue(gl.getCalls() > 0);
+		gl.reset();
+		assertEquals(0, gl.getCalls());
+
+		gl.glUseProgram(program);
+		gl.glBindTexture(GL_TEXTURE_2D, texture);
+		gl.glBindTexture(GL_TEXTURE_2D, texture);
+		gl.glDrawArrays(GL_TRIANGLES, 0, 6);
+		gl.glDrawElements(GL_TRIANGLES, 3, GL_UNSIGNED_SHORT, ShortBuffer.wrap(new short[] {0, 1, 2}));
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+		assertEquals(6, gl.getCalls());
+		assertEquals(2, gl.getTextureBindings());
+		assertEquals(1, gl.getShaderSwitches());
+		assertEquals(2, gl.getDrawCalls());
+		assertEquals(2, gl.getVertexCount().count);
+		assertEquals(9, gl.getVertexCount().total, 0);
+
+		// Only the counters are reset.
+		gl.reset();
+		assertEquals(0, gl.getCalls());
+		assertEquals(0, gl.getTextureBindings());
+		assertEquals(0, gl.getShaderSwitches());
+		assertEquals(0, gl.getDrawCalls());
+		assertEquals(0, gl.getVertexCount().count);
+		assertTrue(gl.glIsTexture(texture));
+		gl.glDrawArrays(GL_TRIANGLES, 0, 3);
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+	}
+
+	@Test
+	public void testErrors () {
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+		assertNull(gl.getErrorMessage());
+
+		// Only the first error is kept until it is queried.
+		gl.glBindTexture(GL_TEXTURE_2D, 42);
+		gl.glActiveTexture(GL_TEXTURE0 + MockGL20.MAX_TEXTURE_UNITS);
+		assertTrue(gl.getErrorMessage().startsWith("glBindTexture"));
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+		assertNull(gl.getErrorMessage());
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+
+		gl.glActiveTexture(GL_TEXTURE0 + MockGL20.MAX_TEXTURE_UNITS);
+		assertEquals(GL_INVALID_ENUM, gl.glGetError());
+		gl.glBindTexture(GL_TEXTURE_2D + 1, 0);
+		assertEquals(GL_INVALID_ENUM, gl.glGetError());
+
+		int texture = gl.glGenTexture();
+		gl.glBindTexture(GL_TEXTURE_2D, texture);
+		gl.glBindTexture(GL_TEXTURE_CUBE_MAP, texture);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+		gl.glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA, 64, 32, 0, GL_RGBA, GL_UNSIGNED_BYTE, null);
+		assertArrayEquals(new int[] {64, 32}, gl.getTextureSize(texture));
+		gl.glTexSubImage2D(GL_TEXTURE_2D, 0, 32, 0, 64, 32, GL_RGBA, GL_UNSIGNED_BYTE, null);
+		assertEquals(GL_INVALID_VALUE, gl.glGetError());
+		gl.glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA, MockGL20.MAX_TEXTURE_SIZE + 1, 1, 0, GL_RGBA, GL_UNSIGNED_BYTE, null);
+		assertEquals(GL_INVALID_VALUE, gl.glGetError());
+		gl.glDeleteTexture(texture);
+		assertNull(gl.getTextureSize(texture));
+		gl.glBindTexture(GL_TEXTURE_2D, texture);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+
+		gl.glDrawArrays(GL_TRIANGLES, 0, 3);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+		int program = program(VERTEX, FRAGMENT);
+		gl.glUseProgram(program);
+		gl.glDrawArrays(GL_TRIANGLES, -1, 3);
+		assertEquals(GL_INVALID_VALUE, gl.glGetError());
+		gl.glDrawArrays(GL_TRIANGLE_FAN + 1, 0, 3);
+		assertEquals(GL_INVALID_ENUM, gl.glGetError());
+
+		// An incomplete framebuffer can't be drawn to.
+		int framebuffer = gl.glGenFramebuffer();
+		gl.glBindFramebuffer(GL_FRAMEBUFFER, framebuffer);
+		assertEquals(GL_FRAMEBUFFER_INCOMPLETE_MISSING_ATTACHMENT, gl.glCheckFramebufferStatus(GL_FRAMEBUFFER));
+		gl.glDrawArrays(GL_TRIANGLES, 0, 3);
+		assertEquals(GL_INVALID_FRAMEBUFFER_OPERATION, gl.glGetError());
+		int renderbuffer = gl.glGenRenderbuffer();
+		gl.glBindRenderbuffer(GL_RENDERBUFFER, renderbuffer);
+		gl.glRenderbufferStorage(GL_RENDERBUFFER, GL_RGBA4, 16, 16);
+		gl.glFramebufferRenderbuffer(GL_FRAMEBUFFER, GL_COLOR_ATTACHMENT0, GL_RENDERBUFFER, renderbuffer);
+		assertEquals(GL_FRAMEBUFFER_COMPLETE, gl.glCheckFramebufferStatus(GL_FRAMEBUFFER));
+		gl.glDrawArrays(GL_TRIANGLES, 0, 3);
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+	}
+
+	@Test
+	public void testStrict () {
+		gl.setStrict(true);
+		assertTrue(gl.isStrict());
+		try {
+			gl.glBindBuffer(GL_ARRAY_BUFFER, 42);
+			fail();
+		} catch (GdxRuntimeException expected) {
+			assertTrue(expected.getMessage().endsWith("(GL_INVALID_OPERATION)"));
+		}
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+	}
+
+	@Test
+	public void testBuffers () {
+		int buffer = gl.glGenBuffer();
+		assertNull(gl.getBufferData(buffer));
+		gl.glBufferData(GL_ARRAY_BUFFER, 16, null, GL_STATIC_DRAW);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+
+		gl.glBindBuffer(GL_ARRAY_BUFFER, buffer);
+		gl.glBufferData(GL_ARRAY_BUFFER, 16, FloatBuffer.wrap(new float[] {1, 2, 3, 4}), GL_STATIC_DRAW);
+		gl.glBufferSubData(GL_ARRAY_BUFFER, 8, 4, FloatBuffer.wrap(new float[] {5}));
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+		FloatBuffer data = gl.getBufferData(buffer).asFloatBuffer();
+		assertEquals(4, data.remaining());
+		assertEquals(1, data.get(0), 0);
+		assertEquals(2, data.get(1), 0);
+		assertEquals(5, data.get(2), 0);
+		assertEquals(4, data.get(3), 0);
+		gl.glBufferSubData(GL_ARRAY_BUFFER, 12, 8, FloatBuffer.wrap(new float[] {6, 7}));
+		assertEquals(GL_INVALID_VALUE, gl.glGetError());
+		assertEquals(4, gl.getBufferData(buffer).asFloatBuffer().get(3), 0);
+
+		IntBuffer size = IntBuffer.allocate(1);
+		gl.glGetBufferParameteriv(GL_ARRAY_BUFFER, GL_BUFFER_SIZE, size);
+		assertEquals(16, size.get(0));
+
+		gl.glDeleteBuffer(buffer);
+		assertFalse(gl.glIsBuffer(buffer));
+		assertNull(gl.getBufferData(buffer));
+		gl.glBufferData(GL_ARRAY_BUFFER, 16, null, GL_STATIC_DRAW);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+	}
+
+	@Test
+	public void testDrawValidation () {
+		int program = program(VERTEX, FRAGMENT);
+		gl.glUseProgram(program);
+		int position = gl.glGetAttribLocation(program, "a_position");
+		int buffer = gl.glGenBuffer();
+		gl.glBindBuffer(GL_ARRAY_BUFFER, buffer);
+		gl.glBufferData(GL_ARRAY_BUFFER, 3 * 16, null, GL_STATIC_DRAW);
+		gl.glEnableVertexAttribArray(position);
+		gl.glVertexAttribPointer(position, 4, GL_FLOAT, false, 16, 0);
+		gl.glDrawArrays(GL_TRIANGLES, 0, 3);
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+		gl.glDrawArrays(GL_TRIANGLES, 1, 3);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+
+		int indices = gl.glGenBuffer();
+		gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, indices);
+		gl.glBufferData(GL_ELEMENT_ARRAY_BUFFER, 8, ShortBuffer.wrap(new short[] {0, 1, 2, 3}), GL_STATIC_DRAW);
+		gl.glDrawElements(GL_TRIANGLES, 3, GL_UNSIGNED_SHORT, 0);
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+		// Index 3 is past the end of the vertex buffer.
+		gl.glDrawElements(GL_TRIANGLES, 3, GL_UNSIGNED_SHORT, 2);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+		// Past the end of the index buffer.
+		gl.glDrawElements(GL_TRIANGLES, 4, GL_UNSIGNED_SHORT, 2);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+		gl.glDrawElements(GL_TRIANGLES, 3, GL_FLOAT, 0);
+		assertEquals(GL_INVALID_ENUM, gl.glGetError());
+
+		// Without validation the indices and vertex buffer ranges are not checked, the index buffer range still is.
+		gl.setValidation(false);
+		gl.glDrawElements(GL_TRIANGLES, 3, GL_UNSIGNED_SHORT, 2);
+		gl.glDrawArrays(GL_TRIANGLES, 1, 3);
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+		gl.glDrawElements(GL_TRIANGLES, 4, GL_UNSIGNED_SHORT, 2);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+		gl.setValidation(true);
+
+		// Client side vertices and indices.
+		gl.glBindBuffer(GL_ARRAY_BUFFER, 0);
+		gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+		ByteBuffer vertices = ByteBuffer.allocateDirect(4 * 16).order(ByteOrder.nativeOrder());
+		gl.glVertexAttribPointer(position, 4, GL_FLOAT, false, 16, vertices);
+		gl.glDrawElements(GL_TRIANGLES, 3, GL_UNSIGNED_SHORT, ShortBuffer.wrap(new short[] {1, 2, 3}));
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+		gl.glDrawElements(GL_TRIANGLES, 3, GL_UNSIGNED_SHORT, ShortBuffer.wrap(new short[] {2, 3, 4}));
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+		gl.glDrawElements(GL_TRIANGLES, 4, GL_UNSIGNED_SHORT, ShortBuffer.wrap(new short[] {0, 1, 2}));
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+
+		// Deleting a buffer detaches it from the vertex attribute.
+		gl.glBindBuffer(GL_ARRAY_BUFFER, buffer);
+		gl.glVertexAttribPointer(position, 4, GL_FLOAT, false, 16, 0);
+		gl.glDeleteBuffer(buffer);
+		gl.glDrawArrays(GL_TRIANGLES, 0, 3);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+		gl.glDisableVertexAttribArray(position);
+		gl.glDrawArrays(GL_TRIANGLES, 0, 3);
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+	}
+
+	@Test
+	public void testUniforms () {
+		int program = program(VERTEX, FRAGMENT);
+		int projTrans = gl.glGetUniformLocation(program, "u_projTrans");
+		int texture = gl.glGetUniformLocation(program, "u_texture");
+		int colors = gl.glGetUniformLocation(program, "u_colors");
+		assertEquals(colors, gl.glGetUniformLocation(program, "u_colors[0]"));
+		assertEquals(colors + 3, gl.glGetUniformLocation(program, "u_colors[3]"));
+		assertEquals(-1, gl.glGetUniformLocation(program, "u_colors[4]"));
+		assertEquals(-1, gl.glGetUniformLocation(program, "u_missing"));
+
+		gl.glUniform1i(texture, 0);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+		gl.glUseProgram(program);
+		gl.glUniform1i(texture, 0);
+		gl.glUniformMatrix4fv(projTrans, 1, false, new float[16], 0);
+		gl.glUniform4fv(colors, 4, new float[16], 0);
+		gl.glUniform4fv(colors + 2, 2, new float[8], 0);
+		gl.glUniform1f(-1, 0);
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+
+		gl.glUniform4f(projTrans, 0, 0, 0, 0);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+		gl.glUniform1f(texture, 0);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+		gl.glUniform3fv(colors, 1, new float[3], 0);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+		gl.glUniformMatrix4fv(projTrans, 2, false, new float[32], 0);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+		gl.glUniform1i(colors + 4 + 10, 0);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+		gl.glUniform4fv(colors, -1, new float[0], 0);
+		assertEquals(GL_INVALID_VALUE, gl.glGetError());
+	}
+
+	@Test
+	public void testShaders () {
+		int vertex = shader(GL_VERTEX_SHADER, VERTEX), fragment = shader(GL_FRAGMENT_SHADER, FRAGMENT);
+		IntBuffer params = IntBuffer.allocate(1);
+		gl.glGetShaderiv(vertex, GL_COMPILE_STATUS, params);
+		assertEquals(GL_TRUE, params.get(0));
+
+		int program = gl.glCreateProgram();
+		gl.glAttachShader(program, vertex);
+		gl.glAttachShader(program, vertex);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+		gl.glBindAttribLocation(program, 5, "a_color");
+		// Without a fragment shader the program doesn't link.
+		gl.glLinkProgram(program);
+		gl.glGetProgramiv(program, GL_LINK_STATUS, params);
+		assertEquals(GL_FALSE, params.get(0));
+		assertTrue(gl.glGetProgramInfoLog(program).length() > 0);
+		gl.glUseProgram(program);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+
+		gl.glAttachShader(program, fragment);
+		gl.glLinkProgram(program);
+		gl.glGetProgramiv(program, GL_LINK_STATUS, params);
+		assertEquals(GL_TRUE, params.get(0));
+		assertEquals(0, gl.glGetAttribLocation(program, "a_position"));
+		assertEquals(5, gl.glGetAttribLocation(program, "a_color"));
+		gl.glGetProgramiv(program, GL_ACTIVE_ATTRIBUTES, params);
+		assertEquals(2, params.get(0));
+		gl.glGetProgramiv(program, GL_ACTIVE_UNIFORMS, params);
+		assertEquals(3, params.get(0));
+
+		IntBuffer size = IntBuffer.allocate(1), type = IntBuffer.allocate(1);
+		assertEquals("u_projTrans", gl.glGetActiveUniform(program, 0, size, type));
+		assertEquals(1, size.get(0));
+		assertEquals(GL_FLOAT_MAT4, type.get(0));
+		assertEquals("u_texture", gl.glGetActiveUniform(program, 1, size.clear(), type.clear()));
+		assertEquals(GL_SAMPLER_2D, type.get(0));
+		assertEquals("u_colors[0]", gl.glGetActiveUniform(program, 2, size.clear(), type.clear()));
+		assertEquals(4, size.get(0));
+		assertEquals(GL_FLOAT_VEC4, type.get(0));
+		assertEquals("", gl.glGetActiveUniform(program, 3, size.clear(), type.clear()));
+		assertEquals(GL_INVALID_VALUE, gl.glGetError());
+
+		// A shader without source doesn't compile.
+		int empty = gl.glCreateShader(GL_FRAGMENT_SHADER);
+		gl.glCompileShader(empty);
+		gl.glGetShaderiv(empty, GL_COMPILE_STATUS, params);
+		assertEquals(GL_FALSE, params.get(0));
+		assertTrue(gl.glGetShaderInfoLog(empty).length() > 0);
+		assertEquals(0, gl.glCreateShader(GL_TEXTURE_2D));
+		assertEquals(GL_INVALID_ENUM, gl.glGetError());
+
+		// A deleted program stays alive while it is in use.
+		gl.glUseProgram(program);
+		gl.glDeleteProgram(program);
+		assertTrue(gl.glIsProgram(program));
+		gl.glDrawArrays(GL_TRIANGLES, 0, 3);
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+		gl.glUseProgram(0);
+		assertFalse(gl.glIsProgram(program));
+		gl.glGetProgramiv(program, GL_LINK_STATUS, params);
+		assertEquals(GL_INVALID_VALUE, gl.glGetError());
+	}
+
+	int shader (int type, String source) {
+		int shader = gl.glCreateShader(type);
+		gl.glShaderSource(shader, source);
+		gl.glCompileShader(shader);
+		return shader;
+	}
+
+	int program (String vertex, String fragment) {
+		int program = gl.glCreateProgram();
+		gl.glAttachShader(program, shader(GL_VERTEX_SHADER, vertex));
+		gl.glAttachShader(program, shader(GL_FRAGMENT_SHADER, fragment));
+		gl.glLinkProgram(program);
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+		return program;
+	}
+}
@@ -0,0 +1,168 @@
+
+package com.badlogic.gdx.backends.headless.mock.graphics;
+
+import static com.badlogic.gdx.graphics.GL30.*;
+import static org.junit.Assert.*;
+
+import java.nio.FloatBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MockGL30Test {
+	static final String VERTEX = "#version 300 es\n" //
+		+ "layout(location = 0) in vec4 a_position;\n" //
+		+ "in mat4 i_worldTrans;\n" //
+		+ "uniform mat4 u_projViewTrans;\n" //
+		+ "void main () {\n" //
+		+ "	gl_Position = u_projViewTrans * i_worldTrans * a_position;\n" //
+		+ "}\n";
+	static final String FRAGMENT = "#version 300 es\n" //
+		+ "precision mediump float;\n" //
+		+ "uniform sampler2DArray u_textures;\n" //
+		+ "out vec4 fragColor;\n" //
+		+ "void main () {\n" //
+		+ "	fragColor = vec4(1.0);\n" //
+		+ "}\n";
+
+	MockGL30 gl;
+	int program;
+
+	@Before
+	public void setUp () {
+		gl = new MockGL30();
+		program = gl.glCreateProgram();
+		gl.glAttachShader(program, shader(GL_VERTEX_SHADER, VERTEX));
+		gl.glAttachShader(program, shader(GL_FRAGMENT_SHADER, FRAGMENT));
+		gl.glLinkProgram(program);
+		gl.glUseProgram(program);
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+	}
+
+	@Test
+	public void testVertexArrays () {
+		int[] arrays = new int[2];
+		gl.glGenVertexArrays(2, arrays, 0);
+		int buffer = gl.glGenBuffer();
+		gl.glBindBuffer(GL_ARRAY_BUFFER, buffer);
+		gl.glBufferData(GL_ARRAY_BUFFER, 3 * 16, null, GL_STATIC_DRAW);
+
+		// The enabled attributes and the element buffer are state of the vertex array.
+		gl.glBindVertexArray(arrays[0]);
+		gl.glEnableVertexAttribArray(0);
+		gl.glVertexAttribPointer(0, 4, GL_FLOAT, false, 0, 0);
+		int indices = gl.glGenBuffer();
+		gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, indices);
+		gl.glBufferData(GL_ELEMENT_ARRAY_BUFFER, 6, null, GL_STATIC_DRAW);
+		gl.glDrawElements(GL_TRIANGLES, 3, GL_UNSIGNED_SHORT, 0);
+		gl.glDrawArrays(GL_TRIANGLES, 0, 3);
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+		gl.glDrawArrays(GL_TRIANGLES, 0, 4);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+
+		gl.glBindVertexArray(arrays[1]);
+		gl.glDrawArrays(GL_TRIANGLES, 0, 4);
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+		gl.glDrawElements(GL_TRIANGLES, 3, GL_UNSIGNED_SHORT, 0);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+
+		gl.glBindVertexArray(arrays[0]);
+		gl.glDrawElements(GL_TRIANGLES, 3, GL_UNSIGNED_SHORT, 0);
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+
+		gl.glDeleteVertexArrays(1, arrays, 0);
+		assertFalse(gl.glIsVertexArray(arrays[0]));
+		assertTrue(gl.glIsVertexArray(arrays[1]));
+		// The default vertex array is bound after deleting the bound one.
+		gl.glDrawArrays(GL_TRIANGLES, 0, 4);
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+		gl.glBindVertexArray(arrays[0]);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+	}
+
+	@Test
+	public void testInstancing () {
+		int location = gl.glGetAttribLocation(program, "i_worldTrans");
+		assertEquals(1, location);
+		int buffer = gl.glGenBuffer();
+		gl.glBindBuffer(GL_ARRAY_BUFFER, buffer);
+		gl.glBufferData(GL_ARRAY_BUFFER, 2 * 64, null, GL_STATIC_DRAW);
+		gl.glEnableVertexAttribArray(location);
+		gl.glVertexAttribPointer(location, 4, GL_FLOAT, false, 64, 0);
+		gl.glVertexAttribDivisor(location, 1);
+
+		// One matrix column per instance, 2 instances fit in the buffer, the vertex count doesn't matter.
+		gl.glDrawArraysInstanced(GL_TRIANGLES, 0, 300, 2);
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+		gl.glDrawArraysInstanced(GL_TRIANGLES, 0, 3, 3);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+		gl.glVertexAttribDivisor(location, 2);
+		gl.glDrawArraysInstanced(GL_TRIANGLES, 0, 3, 4);
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+		gl.glDrawArraysInstanced(GL_TRIANGLES, 0, 3, -1);
+		assertEquals(GL_INVALID_VALUE, gl.glGetError());
+
+		assertEquals(4, gl.getDrawCalls());
+		assertEquals(303 + 3 + 3, gl.getVertexCount().total, 0);
+	}
+
+	@Test
+	public void testBuffers () {
+		int[] buffers = {gl.glGenBuffer(), gl.glGenBuffer()};
+		gl.glBindBuffer(GL_COPY_READ_BUFFER, buffers[0]);
+		gl.glBufferData(GL_COPY_READ_BUFFER, 16, FloatBuffer.wrap(new float[] {1, 2, 3, 4}), GL_STATIC_DRAW);
+		gl.glBindBuffer(GL_COPY_WRITE_BUFFER, buffers[1]);
+		gl.glBufferData(GL_COPY_WRITE_BUFFER, 8, null, GL_STATIC_DRAW);
+		gl.glCopyBufferSubData(GL_COPY_READ_BUFFER, GL_COPY_WRITE_BUFFER, 8, 0, 8);
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+		FloatBuffer data = gl.getBufferData(buffers[1]).asFloatBuffer();
+		assertEquals(3, data.get(0), 0);
+		assertEquals(4, data.get(1), 0);
+		gl.glCopyBufferSubData(GL_COPY_READ_BUFFER, GL_COPY_WRITE_BUFFER, 0, 4, 8);
+		assertEquals(GL_INVALID_VALUE, gl.glGetError());
+
+		gl.glBindBufferBase(GL_UNIFORM_BUFFER, 0, buffers[0]);
+		gl.glBindBufferBase(GL_UNIFORM_BUFFER, MockGL30.MAX_UNIFORM_BUFFER_BINDINGS, buffers[0]);
+		assertEquals(GL_INVALID_VALUE, gl.glGetError());
+		gl.glBindBufferBase(GL_ARRAY_BUFFER, 0, buffers[0]);
+		assertEquals(GL_INVALID_ENUM, gl.glGetError());
+
+		// Deleting a buffer unbinds it from the additional targets.
+		gl.glDeleteBuffer(buffers[1]);
+		gl.glBufferData(GL_COPY_WRITE_BUFFER, 8, null, GL_STATIC_DRAW);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+	}
+
+	@Test
+	public void testQueriesAndTextures () {
+		int[] queries = new int[1];
+		gl.glGenQueries(1, queries, 0);
+		gl.glBeginQuery(GL_ANY_SAMPLES_PASSED, queries[0]);
+		gl.glBeginQuery(GL_ANY_SAMPLES_PASSED, queries[0]);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+		gl.glEndQuery(GL_ANY_SAMPLES_PASSED);
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+		gl.glEndQuery(GL_ANY_SAMPLES_PASSED);
+		assertEquals(GL_INVALID_OPERATION, gl.glGetError());
+
+		int texture = gl.glGenTexture();
+		gl.glBindTexture(GL_TEXTURE_2D_ARRAY, texture);
+		gl.glTexImage3D(GL_TEXTURE_2D_ARRAY, 0, GL_RGBA8, 32, 32, 4, 0, GL_RGBA, GL_UNSIGNED_BYTE, null);
+		gl.glTexSubImage3D(GL_TEXTURE_2D_ARRAY, 0, 0, 0, 3, 32, 32, 1, GL_RGBA, GL_UNSIGNED_BYTE, null);
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+		assertArrayEquals(new int[] {32, 32}, gl.getTextureSize(texture));
+		gl.glTexSubImage3D(GL_TEXTURE_2D_ARRAY, 0, 0, 0, 4, 32, 32, 1, GL_RGBA, GL_UNSIGNED_BYTE, null);
+		assertEquals(GL_INVALID_VALUE, gl.glGetError());
+		gl.glTexImage3D(GL_TEXTURE_2D, 0, GL_RGBA8, 32, 32, 4, 0, GL_RGBA, GL_UNSIGNED_BYTE, null);
+		assertEquals(GL_INVALID_ENUM, gl.glGetError());
+		gl.glUniform1i(gl.glGetUniformLocation(program, "u_textures"), 0);
+		assertEquals(GL_NO_ERROR, gl.glGetError());
+	}
+
+	int shader (int type, String source) {
+		int shader = gl.glCreateShader(type);
+		gl.glShaderSource(shader, source);
+		gl.glCompileShader(shader);
+		return shader;
+	}
+}
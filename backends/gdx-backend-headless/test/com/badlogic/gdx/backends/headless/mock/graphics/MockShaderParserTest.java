@@ -0,0 +1,140 @@
+
+package com.badlogic.gdx.backends.headless.mock.graphics;
+
+import static com.badlogic.gdx.graphics.GL20.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.backends.headless.mock.graphics.MockShaderParser.Variable;
+import com.badlogic.gdx.graphics.GL30;
+import com.badlogic.gdx.utils.Array;
+
+public class MockShaderParserTest {
+	@Test
+	public void testDeclarations () {
+		MockShaderParser parser = new MockShaderParser("attribute vec3 a_position;\n" //
+			+ "attribute  lowp vec4 a_color ;\n" //
+			+ "uniform highp mat4 u_projTrans;\n" //
+			+ "uniform float u_a, u_b[2];\n" //
+			+ "uniform vec2 u_default = vec2(1.0, 2.0);\n" //
+			+ "uniform unknownType u_unknown;\n" //
+			+ "varying vec2 v_texCoords;\n" //
+			+ "float function (float x) {\n" //
+			+ "	float y = x;\n" //
+			+ "	return y;\n" //
+			+ "}\n", true);
+		assertVariables(parser.attributes, "a_position", GL_FLOAT_VEC3, 1, "a_color", GL_FLOAT_VEC4, 1);
+		assertVariables(parser.uniforms, "u_projTrans", GL_FLOAT_MAT4, 1, "u_a", GL_FLOAT, 1, "u_b", GL_FLOAT, 2, "u_default",
+			GL_FLOAT_VEC2, 1);
+	}
+
+	@Test
+	public void testGLSL3 () {
+		String source = "#version 300 es\n" //
+			+ "layout(location = 0) in vec3 a_position;\n" //
+			+ "in vec2 a_texCoord0;\n" //
+			+ "flat in ivec4 a_bones;\n" //
+			+ "out vec2 v_texCoord0;\n" //
+			+ "uniform sampler2DArray u_textures;\n" //
+			+ "uniform uvec2 u_flags;\n";
+		MockShaderParser vertex = new MockShaderParser(source, true);
+		assertVariables(vertex.attributes, "a_position", GL_FLOAT_VEC3, 1, "a_texCoord0", GL_FLOAT_VEC2, 1, "a_bones",
+			GL_INT_VEC4, 1);
+		assertVariables(vertex.uniforms, "u_textures", GL30.GL_SAMPLER_2D_ARRAY, 1, "u_flags", GL30.GL_UNSIGNED_INT_VEC2, 1);
+		// Inputs of fragment shaders are varyings.
+		MockShaderParser fragment = new MockShaderParser(source, false);
+		assertEquals(0, fragment.attributes.size);
+		assertEquals(2, fragment.uniforms.size);
+	}
+
+	@Test
+	public void testComments () {
+		MockShaderParser parser = new MockShaderParser("// uniform vec4 u_line;\n" //
+			+ "uniform vec4 u_a; // uniform vec4 u_trailing;\n" //
+			+ "/* uniform vec4 u_block;\n" //
+			+ "uniform vec4 u_block2; */ uniform vec4 u_b;\n" //
+			+ "uniform /* comment */ vec4 u_c;\n", false);
+		assertVariables(parser.uniforms, "u_a", GL_FLOAT_VEC4, 1, "u_b", GL_FLOAT_VEC4, 1, "u_c", GL_FLOAT_VEC4, 1);
+	}
+
+	@Test
+	public void testPreprocessor () {
+		MockShaderParser parser = new MockShaderParser("#define numBones 4\n" //
+			+ "#define skinningFlag\n" //
+			+ "#define max(a, b) ((a) > (b) ? (a) : (b))\n" //
+			+ "#ifdef skinningFlag\n" //
+			+ "uniform mat4 u_bones[numBones];\n" //
+			+ "#else\n" //
+			+ "uniform mat4 u_noBones;\n" //
+			+ "#endif\n" //
+			+ "#ifndef skinningFlag\n" //
+			+ "uniform float u_notDefined;\n" //
+			+ "#elif numBones > 2 && defined(max)\n" //
+			+ "uniform float u_elif;\n" //
+			+ "#else\n" //
+			+ "uniform float u_else;\n" //
+			+ "#endif\n" //
+			+ "#if defined skinningFlag && (numBones * 2 == 8 || undefinedName)\n" //
+			+ "  #if 0\n" //
+			+ "uniform float u_nestedInactive;\n" //
+			+ "    #define insideInactive\n" //
+			+ "  #elif 0x10 >= 16\n" //
+			+ "uniform float u_nested;\n" //
+			+ "  #endif\n" //
+			+ "#endif\n" //
+			+ "#ifdef insideInactive\n" //
+			+ "uniform float u_insideInactive;\n" //
+			+ "#endif\n" //
+			+ "#undef skinningFlag\n" //
+			+ "#if defined(skinningFlag) || !numBones\n" //
+			+ "uniform float u_undefined;\n" //
+			+ "#endif\n", true);
+		assertVariables(parser.uniforms, "u_bones", GL_FLOAT_MAT4, 4, "u_elif", GL_FLOAT, 1, "u_nested", GL_FLOAT, 1);
+		assertEquals(-3, parser.evaluate("-(1 + 2) * 3 / 3"));
+		assertEquals(1, parser.evaluate("7 % 3 == 1"));
+		assertEquals(0, parser.evaluate("undefinedName"));
+		assertEquals(0, parser.evaluate("1 +"));
+	}
+
+	@Test
+	public void testStructs () {
+		MockShaderParser parser = new MockShaderParser("#define numLights 2\n" //
+			+ "struct Light {\n" //
+			+ "	vec3 color;\n" //
+			+ "	vec3 direction, position;\n" //
+			+ "	float intensity[2];\n" //
+			+ "};\n" //
+			+ "uniform Light u_lights[numLights];\n" //
+			+ "uniform Light u_light;\n" //
+			+ "uniform vec4 u_after;\n", false);
+		assertVariables(parser.uniforms, //
+			"u_lights[0].color", GL_FLOAT_VEC3, 1, //
+			"u_lights[0].direction", GL_FLOAT_VEC3, 1, //
+			"u_lights[0].position", GL_FLOAT_VEC3, 1, //
+			"u_lights[0].intensity", GL_FLOAT, 2, //
+			"u_lights[1].color", GL_FLOAT_VEC3, 1, //
+			"u_lights[1].direction", GL_FLOAT_VEC3, 1, //
+			"u_lights[1].position", GL_FLOAT_VEC3, 1, //
+			"u_lights[1].intensity", GL_FLOAT, 2, //
+			"u_light.color", GL_FLOAT_VEC3, 1, //
+			"u_light.direction", GL_FLOAT_VEC3, 1, //
+			"u_light.position", GL_FLOAT_VEC3, 1, //
+			"u_light.intensity", GL_FLOAT, 2, //
+			"u_after", GL_FLOAT_VEC4, 1);
+	}
+
+	/** @param expected the name, type and size of each variable. */
+	static private void assertVariables (Array<Variable> variables, Object... expected) {
+		StringBuilder names = new StringBuilder();
+		for (Variable variable : variables)
+			names.append(variable.name).append(' ');
+		assertEquals(names.toString(), expected.length / 3, variables.size);
+		for (int i = 0; i < variables.size; i++) {
+			Variable variable = variables.get(i);
+			assertEquals(expected[i * 3], variable.name);
+			assertEquals(variable.name, expected[i * 3 + 1], variable.type);
+			assertEquals(variable.name, expected[i * 3 + 2], variable.size);
+		}
+	}
+}
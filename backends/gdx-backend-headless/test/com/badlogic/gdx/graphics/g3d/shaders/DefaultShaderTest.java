@@ -0,0 +1,82 @@
+
+package com.badlogic.gdx.graphics.g3d.shaders;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessFiles;
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGL20;
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGraphics;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.g3d.Environment;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.attributes.ClusteredLightsAttribute;
+import com.badlogic.gdx.graphics.g3d.environment.ClusteredLights;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+
+public class DefaultShaderTest {
+	Mesh mesh;
+
+	@Before
+	public void setUp () {
+		Gdx.app = (Application)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {Application.class},
+			new InvocationHandler() {
+				public Object invoke (Object proxy, Method method, Object[] args) {
+					// Only used as the key of the managed meshes and shaders.
+					if (method.getName().equals("equals")) return proxy == args[0];
+					if (method.getName().equals("hashCode")) return System.identityHashCode(proxy);
+					return null;
+				}
+			});
+		Gdx.files = new HeadlessFiles();
+		MockGraphics graphics = new MockGraphics();
+		graphics.setGL20(new MockGL20());
+		Gdx.graphics = graphics;
+		Gdx.gl30 = null;
+		mesh = new Mesh(true, 3, 0, VertexAttribute.Position(), VertexAttribute.Normal());
+	}
+
+	@After
+	public void tearDown () {
+		mesh.dispose();
+		ShaderProgram.clearAllShaderPrograms(Gdx.app);
+		Mesh.clearAllMeshes(Gdx.app);
+	}
+
+	@Test
+	public void testClusteredLights () {
+		Renderable renderable = renderable(new ClusteredLights(4, 4, 4, 64, 16));
+		DefaultShader shader = new DefaultShader(renderable);
+		assertTrue(shader.program.getLog(), shader.program.isCompiled());
+		try {
+			assertTrue(shader.canRender(renderable));
+			// The light loop length is compiled into the shader.
+			assertTrue(shader.canRender(renderable(new ClusteredLights(8, 8, 8, 32, 16))));
+			assertFalse(shader.canRender(renderable(new ClusteredLights(4, 4, 4, 64, 32))));
+			assertFalse(shader.canRender(renderable(null)));
+		} finally {
+			shader.dispose();
+		}
+	}
+
+	Renderable renderable (ClusteredLights lights) {
+		Renderable renderable = new Renderable();
+		renderable.meshPart.set("triangle", mesh, 0, 3, GL20.GL_TRIANGLES);
+		renderable.material = new Material();
+		renderable.environment = new Environment();
+		if (lights != null) renderable.environment.set(new ClusteredLightsAttribute(lights));
+		return renderable;
+	}
+}
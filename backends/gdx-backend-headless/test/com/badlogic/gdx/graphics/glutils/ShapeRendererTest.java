@@ -0,0 +1,213 @@
+
+package com.badlogic.gdx.graphics.glutils;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.FloatBuffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGL20;
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGraphics;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer.ShapeType;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+
+/** Renders through a {@link MockGL20} which records the vertices and matrix of each draw call. */
+public class ShapeRendererTest {
+	static final String VERTEX = "attribute vec4 a_position;\n" //
+		+ "attribute vec4 a_color;\n" //
+		+ "uniform mat4 u_projModelView;\n" //
+		+ "varying vec4 v_color;\n" //
+		+ "void main () {\n" //
+		+ "	v_color = a_color;\n" //
+		+ "	gl_Position = u_projModelView * a_position;\n" //
+		+ "}\n";
+	static final String FRAGMENT = "varying vec4 v_color;\n" //
+		+ "void main () {\n" //
+		+ "	gl_FragColor = v_color;\n" //
+		+ "}\n";
+
+	final Array<Draw> draws = new Array<Draw>();
+	final Matrix4 matrix = new Matrix4();
+	ShapeRenderer shapes;
+
+	@BeforeClass
+	public static void loadNatives () {
+		GdxNativesLoader.load();
+	}
+
+	@Before
+	public void setUp () {
+		Gdx.app = (Application)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {Application.class},
+			new InvocationHandler() {
+				public Object invoke (Object proxy, Method method, Object[] args) {
+					// Only used as the key of the managed meshes and shaders.
+					if (method.getName().equals("equals")) return proxy == args[0];
+					if (method.getName().equals("hashCode")) return System.identityHashCode(proxy);
+					return null;
+				}
+			});
+		MockGraphics graphics = new MockGraphics();
+		MockGL20 gl = new MockGL20() {
+			public void glDrawArrays (int mode, int first, int count) {
+				super.glDrawArrays(mode, first, count);
+				FloatBuffer data = getBufferData(arrayBuffer).asFloatBuffer();
+				float[] vertices = new float[count * 4];
+				data.position(first * 4);
+				data.get(vertices);
+				draws.add(new Draw(mode, vertices, matrix));
+			}
+		};
+		gl.setStrict(true);
+		graphics.setGL20(gl);
+		Gdx.graphics = graphics;
+		Gdx.gl30 = null;
+
+		ShaderProgram shader = new ShaderProgram(VERTEX, FRAGMENT) {
+			public void setUniformMatrix (String name, Matrix4 value) {
+				matrix.set(value);
+				super.setUniformMatrix(name, value);
+			}
+		};
+		assertTrue(shader.getLog(), shader.isCompiled());
+		shapes = new ShapeRenderer(100, shader);
+		shapes.setProjectionMatrix(new Matrix4());
+		shapes.setAutoShapeType(true);
+	}
+
+	@After
+	public void tearDown () {
+		shapes.dispose();
+		ShaderProgram.clearAllShaderPrograms(Gdx.app);
+		Mesh.clearAllMeshes(Gdx.app);
+	}
+
+	@Test
+	public void testTessellated () {
+		shapes.setTessellated(true);
+		shapes.setLineWidth(2);
+		shapes.setPointSize(4);
+		shapes.begin();
+		shapes.set(ShapeType.Point);
+		shapes.point(5, 5, 0);
+		shapes.line(0, 0, 10, 0);
+		shapes.set(ShapeType.Filled);
+		shapes.triangle(0, 0, 10, 0, 0, 10);
+		shapes.end();
+
+		// All types are rendered with a single draw call.
+		assertEquals(1, draws.size);
+		assertEquals(0, shapes.shapeTypeFlushes);
+		assertEquals(1, shapes.renderCalls);
+		Draw draw = draws.first();
+		assertEquals(GL20.GL_TRIANGLES, draw.mode);
+		assertEquals(15, draw.vertexCount());
+		// The point is a 4 wide square.
+		assertVertices(draw, 0, 3, 3, 7, 3, 7, 7, 7, 7, 3, 7, 3, 3);
+		// The line is a 2 wide rectangle, extended by half the line width at both ends.
+		assertVertices(draw, 6, -1, 1, -1, -1, 11, -1, 11, -1, 11, 1, -1, 1);
+		assertVertices(draw, 12, 0, 0, 10, 0, 0, 10);
+
+		// Without tessellation, each type is rendered separately.
+		draws.clear();
+		shapes.setTessellated(false);
+		shapes.begin();
+		shapes.set(ShapeType.Point);
+		shapes.point(5, 5, 0);
+		shapes.line(0, 0, 10, 0);
+		shapes.set(ShapeType.Filled);
+		shapes.triangle(0, 0, 10, 0, 0, 10);
+		shapes.end();
+		assertEquals(3, draws.size);
+		// begin() starts with lines.
+		assertEquals(3, shapes.shapeTypeFlushes);
+		assertEquals(GL20.GL_POINTS, draws.get(0).mode);
+		assertEquals(GL20.GL_LINES, draws.get(1).mode);
+		assertEquals(GL20.GL_TRIANGLES, draws.get(2).mode);
+		assertVertices(draws.get(1), 0, 0, 0, 10, 0);
+	}
+
+	@Test
+	public void testTessellatedFull () {
+		shapes.setTessellated(true);
+		shapes.begin(ShapeType.Line);
+		// 6 vertices per line, 16 lines fit in 100 vertices.
+		for (int i = 0; i < 20; i++)
+			shapes.line(0, i, 10, i);
+		shapes.end();
+		assertEquals(2, draws.size);
+		assertEquals(2, shapes.renderCalls);
+		assertEquals(16 * 6, draws.get(0).vertexCount());
+		assertEquals(4 * 6, draws.get(1).vertexCount());
+	}
+
+	@Test
+	public void testMatrixChange () {
+		for (boolean tessellated : new boolean[] {false, true}) {
+			draws.clear();
+			shapes.identity();
+			shapes.setTessellated(tessellated);
+			shapes.begin();
+			shapes.set(ShapeType.Point);
+			shapes.point(0, 0, 0);
+			// Changing the type automatically applies the new matrix.
+			shapes.translate(5, 0, 0);
+			shapes.line(0, 0, 10, 0);
+			// So does changing it explicitly.
+			shapes.translate(0, 5, 0);
+			shapes.set(ShapeType.Filled);
+			shapes.triangle(0, 0, 10, 0, 0, 10);
+			// And drawing the same type.
+			shapes.translate(0, 5, 0);
+			shapes.triangle(0, 0, 10, 0, 0, 10);
+			shapes.end();
+
+			String message = tessellated ? "tessellated" : "not tessellated";
+			assertEquals(message, 4, draws.size);
+			assertArrayEquals(message, new Matrix4().val, draws.get(0).matrix.val, 0);
+			assertArrayEquals(message, new Matrix4().translate(5, 0, 0).val, draws.get(1).matrix.val, 0);
+			assertArrayEquals(message, new Matrix4().translate(5, 5, 0).val, draws.get(2).matrix.val, 0);
+			assertArrayEquals(message, new Matrix4().translate(5, 10, 0).val, draws.get(3).matrix.val, 0);
+			assertEquals(message, tessellated ? 6 : 1, draws.get(0).vertexCount());
+			assertEquals(message, tessellated ? 6 : 2, draws.get(1).vertexCount());
+			assertEquals(message, 3, draws.get(2).vertexCount());
+		}
+	}
+
+	/** Asserts the x and y of the vertices of the draw, starting at the given vertex. */
+	static private void assertVertices (Draw draw, int vertex, float... xy) {
+		for (int i = 0; i < xy.length; i += 2, vertex++) {
+			assertEquals("x of vertex " + vertex, xy[i], draw.vertices[vertex * 4], 0.0001f);
+			assertEquals("y of vertex " + vertex, xy[i + 1], draw.vertices[vertex * 4 + 1], 0.0001f);
+		}
+	}
+
+	static class Draw {
+		final int mode;
+		/** x, y, z and packed color of each vertex. */
+		final float[] vertices;
+		final Matrix4 matrix;
+
+		Draw (int mode, float[] vertices, Matrix4 matrix) {
+			this.mode = mode;
+			this.vertices = vertices;
+			this.matrix = new Matrix4(matrix);
+		}
+
+		int vertexCount () {
+			return vertices.length / 4;
+		}
+	}
+}
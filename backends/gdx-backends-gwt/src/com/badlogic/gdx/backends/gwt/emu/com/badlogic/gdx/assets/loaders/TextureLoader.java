@@ -37,6 +37,10 @@ public class TextureLoader extends AsynchronousAssetLoader<Texture, TextureLoade
 		super(resolver);
 	}
 
+	/** Caching decoded pixels is not supported on GWT, does nothing. */
+	public void setCacheDirectory (FileHandle directory, boolean compress) {
+	}
+
 	@Override
 	public void loadAsync (AssetManager manager, String fileName, FileHandle fileHandle, TextureParameter parameter) {
 		if (parameter == null || (parameter != null && parameter.textureData == null)) {
@@ -24,4 +24,9 @@ package com.badlogic.gdx.utils.async;
 public class ThreadUtils {
 	public static void yield() {
 	}
+
+	/** Tasks run on the calling thread, so there is only one processor. */
+	public static int availableProcessors () {
+		return 1;
+	}
 }
\ No newline at end of file
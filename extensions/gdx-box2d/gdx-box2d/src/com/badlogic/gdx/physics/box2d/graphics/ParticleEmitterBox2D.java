@@ -27,6 +27,7 @@ import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Fixture;
 import com.badlogic.gdx.physics.box2d.RayCastCallback;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.DataInput;
 
 /** @author kalle_h
  * 
@@ -74,6 +75,17 @@ public class ParticleEmitterBox2D extends ParticleEmitter {
 		this.world = world;
 	}
 
+	/** Constructs ParticleEmitterBox2D from the binary format of {@link ParticleEmitter#save(com.badlogic.gdx.utils.DataOutput)}.
+	 * Box2d World is used for rayCasting. Assumes that particles use same unit system that box2d world does.
+	 * 
+	 * @param world
+	 * @param input
+	 * @throws IOException */
+	public ParticleEmitterBox2D (World world, DataInput input) throws IOException {
+		super(input);
+		this.world = world;
+	}
+
 	/** Constructs ParticleEmitterBox2D fully copying given emitter attributes. Box2d World is used for rayCasting. Assumes that
 	 * particles use same unit system that box2d world does.
 	 * 
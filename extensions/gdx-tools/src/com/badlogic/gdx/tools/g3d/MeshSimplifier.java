@@ -0,0 +1,454 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.tools.g3d;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.PriorityQueue;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/** Simplifies an indexed triangle mesh by collapsing edges in the order of their quadric error (Garland and Heckbert, "Surface
+ * Simplification Using Quadric Error Metrics"). Each collapse moves a vertex onto one of its neighbors, so the simplified mesh only
+ * uses a subset of the original vertices and can share the vertex buffer of the original, differing only in its indices.
+ * <p>
+ * Vertices on the border of the mesh and on non-manifold edges are never moved. Vertices duplicated with different attributes,
+ * such as at texture seams and hard edges, are only moved along the seam, so the mesh doesn't tear there. Collapses that would
+ * flip triangles or make the mesh non-manifold are skipped.
+ * <p>
+ * {@link #simplify(int)} can be called with decreasing triangle counts to create successive levels of detail. */
+public class MeshSimplifier {
+	/** Per position its x, y and z. */
+	private final float[] positions;
+	/** Per vertex its position. */
+	private final int[] positionOf;
+	/** Per vertex its wedge: the vertices at the same position with equal attributes share a wedge. */
+	private final int[] wedgeOf;
+	/** Per position whether it is never moved. */
+	private final boolean[] locked;
+	/** Per position whether it was moved onto another position. */
+	private final boolean[] collapsed;
+	/** Per position a counter increased when its quadric changes, to skip outdated collapses. */
+	private final int[] versions;
+	/** Per position the 10 coefficients of its symmetric quadric matrix. */
+	private final double[] quadrics;
+	/** Per position the triangles using it, which may include removed triangles. */
+	private final IntArray[] trianglesOf;
+	/** Per triangle its vertices. */
+	private final int[] corners;
+	private final boolean[] removed;
+	private int triangleCount;
+	private final PriorityQueue<Collapse> queue = new PriorityQueue<Collapse>(64, new Comparator<Collapse>() {
+		@Override
+		public int compare (Collapse o1, Collapse o2) {
+			return Double.compare(o1.cost, o2.cost);
+		}
+	});
+	private final IntArray tmpNeighbors = new IntArray(), tmpOtherNeighbors = new IntArray();
+	private final IntArray tmpFromWedges = new IntArray(), tmpToVertices = new IntArray();
+
+	/** Creates a simplifier treating vertices at the same position with any differing attribute as a seam.
+	 * @see #MeshSimplifier(float[], int, int, int[], int[]) */
+	public MeshSimplifier (float[] vertices, int vertexSize, int positionOffset, int[] indices) {
+		this(vertices, vertexSize, positionOffset, indices, null);
+	}
+
+	/** @param vertices the vertices, each with the x, y and z position at positionOffset.
+	 * @param vertexSize the number of floats per vertex.
+	 * @param positionOffset the offset of the position in each vertex, in floats.
+	 * @param indices the vertex indices of the triangles.
+	 * @param seamAttributes the offset and size in floats of each attribute which forms a seam where vertices at the same position
+	 *           have different values, e.g. normals and texture coordinates. Attributes derived from these, like tangents, can be
+	 *           left out so they don't lock vertices. May be null to use all attributes other than the position. */
+	public MeshSimplifier (float[] vertices, int vertexSize, int positionOffset, int[] indices, int[] seamAttributes) {
+		if (indices.length % 3 != 0) throw new IllegalArgumentException("The number of indices must be a multiple of 3.");
+		int vertexCount = vertices.length / vertexSize;
+
+		// Weld vertices with equal positions.
+		positionOf = new int[vertexCount];
+		Arrays.fill(positionOf, -1);
+		HashMap<Position, Integer> positionIds = new HashMap<Position, Integer>();
+		float[] positions = new float[vertexCount * 3];
+		for (int i = 0; i < indices.length; i++) {
+			int vertex = indices[i];
+			if (positionOf[vertex] != -1) continue;
+			int offset = vertex * vertexSize + positionOffset;
+			// Adding 0 turns -0 into 0, which has a different hash code.
+			Position key = new Position(vertices[offset] + 0f, vertices[offset + 1] + 0f, vertices[offset + 2] + 0f);
+			Integer id = positionIds.get(key);
+			if (id == null) {
+				id = positionIds.size();
+				positionIds.put(key, id);
+				positions[id * 3] = key.x;
+				positions[id * 3 + 1] = key.y;
+				positions[id * 3 + 2] = key.z;
+			}
+			positionOf[vertex] = id;
+		}
+		int positionCount = positionIds.size();
+
+		if (seamAttributes == null) {
+			seamAttributes = new int[] {0, positionOffset, positionOffset + 3, vertexSize - positionOffset - 3};
+		}
+		int seamSize = 0;
+		for (int i = 1; i < seamAttributes.length; i += 2)
+			seamSize += seamAttributes[i];
+		wedgeOf = new int[vertexCount];
+		HashMap<Wedge, Integer> wedgeIds = new HashMap<Wedge, Integer>();
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			if (positionOf[vertex] == -1) continue;
+			float[] values = new float[seamSize];
+			for (int i = 0, v = 0; i < seamAttributes.length; i += 2) {
+				for (int offset = vertex * vertexSize + seamAttributes[i], end = offset + seamAttributes[i + 1]; offset < end; offset++)
+					values[v++] = vertices[offset] + 0f;
+			}
+			Wedge key = new Wedge(positionOf[vertex], values);
+			Integer id = wedgeIds.get(key);
+			if (id == null) {
+				id = wedgeIds.size();
+				wedgeIds.put(key, id);
+			}
+			wedgeOf[vertex] = id;
+		}
+		this.positions = positions;
+		locked = new boolean[positionCount];
+		collapsed = new boolean[positionCount];
+		versions = new int[positionCount];
+		quadrics = new double[positionCount * 10];
+		trianglesOf = new IntArray[positionCount];
+		for (int i = 0; i < positionCount; i++)
+			trianglesOf[i] = new IntArray(8);
+
+		// Keep the triangles which are not degenerate.
+		int[] corners = new int[indices.length];
+		int count = 0;
+		for (int i = 0; i < indices.length; i += 3) {
+			int a = positionOf[indices[i]], b = positionOf[indices[i + 1]], c = positionOf[indices[i + 2]];
+			if (a == b || b == c || c == a) continue;
+			corners[count * 3] = indices[i];
+			corners[count * 3 + 1] = indices[i + 1];
+			corners[count * 3 + 2] = indices[i + 2];
+			trianglesOf[a].add(count);
+			trianglesOf[b].add(count);
+			trianglesOf[c].add(count);
+			addPlaneQuadric(a, b, c);
+			count++;
+		}
+		this.corners = corners;
+		removed = new boolean[count];
+		triangleCount = count;
+
+		// Lock the positions on edges which are not shared by exactly two triangles.
+		long[] edges = new long[count * 3];
+		for (int t = 0; t < count; t++) {
+			for (int i = 0; i < 3; i++)
+				edges[t * 3 + i] = edgeKey(positionOf[corners[t * 3 + i]], positionOf[corners[t * 3 + (i + 1) % 3]]);
+		}
+		Arrays.sort(edges);
+		for (int i = 0, n = edges.length; i < n;) {
+			int end = i + 1;
+			while (end < n && edges[end] == edges[i])
+				end++;
+			if (end - i != 2) {
+				locked[(int)(edges[i] >>> 32)] = true;
+				locked[(int)edges[i]] = true;
+			}
+			i = end;
+		}
+
+		for (int t = 0; t < count; t++) {
+			for (int i = 0; i < 3; i++) {
+				int a = positionOf[corners[t * 3 + i]], b = positionOf[corners[t * 3 + (i + 1) % 3]];
+				addCollapse(a, b);
+				addCollapse(b, a);
+			}
+		}
+	}
+
+	static private long edgeKey (int a, int b) {
+		return a < b ? (long)a << 32 | b : (long)b << 32 | a;
+	}
+
+	private void addPlaneQuadric (int a, int b, int c) {
+		float[] p = positions;
+		double ax = p[a * 3], ay = p[a * 3 + 1], az = p[a * 3 + 2];
+		double ux = p[b * 3] - ax, uy = p[b * 3 + 1] - ay, uz = p[b * 3 + 2] - az;
+		double vx = p[c * 3] - ax, vy = p[c * 3 + 1] - ay, vz = p[c * 3 + 2] - az;
+		double nx = uy * vz - uz * vy, ny = uz * vx - ux * vz, nz = ux * vy - uy * vx;
+		double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+		if (length == 0) return;
+		// Weighted by the area of the triangle, which is half the length of the cross product.
+		double weight = length * 0.5;
+		nx /= length;
+		ny /= length;
+		nz /= length;
+		double d = -(nx * ax + ny * ay + nz * az);
+		double[] q = quadrics;
+		for (int i = 0; i < 3; i++) {
+			int o = (i == 0 ? a : i == 1 ? b : c) * 10;
+			q[o] += weight * nx * nx;
+			q[o + 1] += weight * nx * ny;
+			q[o + 2] += weight * nx * nz;
+			q[o + 3] += weight * nx * d;
+			q[o + 4] += weight * ny * ny;
+			q[o + 5] += weight * ny * nz;
+			q[o + 6] += weight * ny * d;
+			q[o + 7] += weight * nz * nz;
+			q[o + 8] += weight * nz * d;
+			q[o + 9] += weight * d * d;
+		}
+	}
+
+	/** @return the error of moving position from onto position to. */
+	private double cost (int from, int to) {
+		double[] q = quadrics;
+		int a = from * 10, b = to * 10;
+		double x = positions[to * 3], y = positions[to * 3 + 1], z = positions[to * 3 + 2];
+		return (q[a] + q[b]) * x * x + 2 * (q[a + 1] + q[b + 1]) * x * y + 2 * (q[a + 2] + q[b + 2]) * x * z
+			+ 2 * (q[a + 3] + q[b + 3]) * x + (q[a + 4] + q[b + 4]) * y * y + 2 * (q[a + 5] + q[b + 5]) * y * z
+			+ 2 * (q[a + 6] + q[b + 6]) * y + (q[a + 7] + q[b + 7]) * z * z + 2 * (q[a + 8] + q[b + 8]) * z + q[a + 9] + q[b + 9];
+	}
+
+	private void addCollapse (int from, int to) {
+		if (locked[from]) return;
+		Collapse collapse = new Collapse();
+		collapse.from = from;
+		collapse.to = to;
+		collapse.fromVersion = versions[from];
+		collapse.toVersion = versions[to];
+		collapse.cost = cost(from, to);
+		queue.add(collapse);
+	}
+
+	/** Collapses edges until the mesh has at most the specified number of triangles or no more edges can be collapsed.
+	 * @return the number of triangles left. */
+	public int simplify (int targetTriangleCount) {
+		while (triangleCount > targetTriangleCount) {
+			Collapse collapse = queue.poll();
+			if (collapse == null) break;
+			int from = collapse.from, to = collapse.to;
+			if (collapsed[from] || collapsed[to] || versions[from] != collapse.fromVersion || versions[to] != collapse.toVersion)
+				continue;
+			if (!mapVertices(from, to) || !isManifold(from, to) || flips(from, to)) continue;
+			collapse(from, to);
+		}
+		return triangleCount;
+	}
+
+	/** Finds for each wedge at position from the vertex at position to its vertices are replaced with: the one used by a triangle
+	 * sharing the wedge. Vertices at seams, where attributes like texture coordinates differ on each side, are so only moved along
+	 * the seam, keeping it intact.
+	 * @return false if a wedge has no triangle on the edge between the positions, so moving it would tear a seam. */
+	private boolean mapVertices (int from, int to) {
+		IntArray fromWedges = tmpFromWedges, toVertices = tmpToVertices;
+		fromWedges.clear();
+		toVertices.clear();
+		IntArray triangles = trianglesOf[from];
+		for (int i = 0, n = triangles.size; i < n; i++) {
+			int t = triangles.get(i);
+			if (removed[t]) continue;
+			for (int c = t * 3, end = c + 3; c < end; c++) {
+				int vertex = corners[c];
+				if (positionOf[vertex] == from && !fromWedges.contains(wedgeOf[vertex])) {
+					fromWedges.add(wedgeOf[vertex]);
+					toVertices.add(-1);
+				}
+			}
+		}
+		for (int i = 0, n = triangles.size; i < n; i++) {
+			int t = triangles.get(i);
+			if (removed[t]) continue;
+			int fromWedge = -1, toVertex = -1;
+			for (int c = t * 3, end = c + 3; c < end; c++) {
+				int position = positionOf[corners[c]];
+				if (position == from)
+					fromWedge = wedgeOf[corners[c]];
+				else if (position == to) toVertex = corners[c];
+			}
+			if (toVertex != -1) toVertices.set(fromWedges.indexOf(fromWedge), toVertex);
+		}
+		return fromWedges.size > 0 && !toVertices.contains(-1);
+	}
+
+	/** @return true if the neighbors shared by both positions are only the opposite corners of the triangles on their edge, so
+	 *         the collapse doesn't create non-manifold edges. */
+	private boolean isManifold (int from, int to) {
+		IntArray neighbors = neighbors(from, tmpNeighbors), otherNeighbors = neighbors(to, tmpOtherNeighbors);
+		int shared = 0;
+		for (int i = 0, n = neighbors.size; i < n; i++)
+			if (otherNeighbors.contains(neighbors.get(i))) shared++;
+		int edgeTriangles = 0;
+		IntArray triangles = trianglesOf[from];
+		for (int i = 0, n = triangles.size; i < n; i++) {
+			int t = triangles.get(i);
+			if (!removed[t] && uses(t, to)) edgeTriangles++;
+		}
+		return shared == edgeTriangles;
+	}
+
+	private IntArray neighbors (int position, IntArray out) {
+		out.clear();
+		IntArray triangles = trianglesOf[position];
+		for (int i = 0, n = triangles.size; i < n; i++) {
+			int t = triangles.get(i);
+			if (removed[t]) continue;
+			for (int c = t * 3, end = c + 3; c < end; c++) {
+				int neighbor = positionOf[corners[c]];
+				if (neighbor != position && !out.contains(neighbor)) out.add(neighbor);
+			}
+		}
+		return out;
+	}
+
+	private boolean uses (int triangle, int position) {
+		int c = triangle * 3;
+		return positionOf[corners[c]] == position || positionOf[corners[c + 1]] == position
+			|| positionOf[corners[c + 2]] == position;
+	}
+
+	/** @return true if moving position from onto position to flips or degenerates a remaining triangle. */
+	private boolean flips (int from, int to) {
+		IntArray triangles = trianglesOf[from];
+		for (int i = 0, n = triangles.size; i < n; i++) {
+			int t = triangles.get(i);
+			if (removed[t] || uses(t, to)) continue;
+			int a = positionOf[corners[t * 3]], b = positionOf[corners[t * 3 + 1]], c = positionOf[corners[t * 3 + 2]];
+			double ox = 0, oy = 0, oz = 0;
+			for (int pass = 0; pass < 2; pass++) {
+				int pa = a, pb = b, pc = c;
+				if (pass == 1) {
+					if (pa == from) pa = to;
+					if (pb == from) pb = to;
+					if (pc == from) pc = to;
+				}
+				float[] p = positions;
+				double ux = p[pb * 3] - p[pa * 3], uy = p[pb * 3 + 1] - p[pa * 3 + 1], uz = p[pb * 3 + 2] - p[pa * 3 + 2];
+				double vx = p[pc * 3] - p[pa * 3], vy = p[pc * 3 + 1] - p[pa * 3 + 1], vz = p[pc * 3 + 2] - p[pa * 3 + 2];
+				double nx = uy * vz - uz * vy, ny = uz * vx - ux * vz, nz = ux * vy - uy * vx;
+				if (pass == 0) {
+					ox = nx;
+					oy = ny;
+					oz = nz;
+				} else {
+					double dot = ox * nx + oy * ny + oz * nz;
+					double lengths = Math.sqrt((ox * ox + oy * oy + oz * oz) * (nx * nx + ny * ny + nz * nz));
+					// Skip collapses turning a triangle by more than about 80 degrees.
+					if (lengths == 0 || dot <= lengths * 0.2) return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private void collapse (int from, int to) {
+		IntArray triangles = trianglesOf[from], toTriangles = trianglesOf[to];
+		for (int i = 0, n = triangles.size; i < n; i++) {
+			int t = triangles.get(i);
+			if (removed[t]) continue;
+			if (uses(t, to)) {
+				removed[t] = true;
+				triangleCount--;
+				continue;
+			}
+			for (int c = t * 3, end = c + 3; c < end; c++)
+				if (positionOf[corners[c]] == from) corners[c] = tmpToVertices.get(tmpFromWedges.indexOf(wedgeOf[corners[c]]));
+			toTriangles.add(t);
+		}
+		triangles.clear();
+		collapsed[from] = true;
+		versions[from]++;
+		versions[to]++;
+		double[] q = quadrics;
+		for (int i = 0, a = from * 10, b = to * 10; i < 10; i++)
+			q[b + i] += q[a + i];
+
+		// Only the costs of the edges around the moved position changed.
+		IntArray neighbors = neighbors(to, tmpNeighbors);
+		for (int i = 0, n = neighbors.size; i < n; i++) {
+			int neighbor = neighbors.get(i);
+			addCollapse(to, neighbor);
+			addCollapse(neighbor, to);
+		}
+	}
+
+	/** @return the number of triangles left. */
+	public int getTriangleCount () {
+		return triangleCount;
+	}
+
+	/** @return the vertex indices of the remaining triangles, in their original order. */
+	public int[] getIndices () {
+		int[] indices = new int[triangleCount * 3];
+		for (int t = 0, i = 0, n = removed.length; t < n; t++) {
+			if (removed[t]) continue;
+			indices[i++] = corners[t * 3];
+			indices[i++] = corners[t * 3 + 1];
+			indices[i++] = corners[t * 3 + 2];
+		}
+		return indices;
+	}
+
+	static private class Collapse {
+		int from, to, fromVersion, toVersion;
+		double cost;
+	}
+
+	static private class Position {
+		final float x, y, z;
+
+		Position (float x, float y, float z) {
+			this.x = x;
+			this.y = y;
+			this.z = z;
+		}
+
+		@Override
+		public int hashCode () {
+			return (Float.floatToIntBits(x) * 31 + Float.floatToIntBits(y)) * 31 + Float.floatToIntBits(z);
+		}
+
+		@Override
+		public boolean equals (Object obj) {
+			if (!(obj instanceof Position)) return false;
+			Position other = (Position)obj;
+			return x == other.x && y == other.y && z == other.z;
+		}
+	}
+
+	static private class Wedge {
+		final int position;
+		final float[] values;
+
+		Wedge (int position, float[] values) {
+			this.position = position;
+			this.values = values;
+		}
+
+		@Override
+		public int hashCode () {
+			return position * 31 + Arrays.hashCode(values);
+		}
+
+		@Override
+		public boolean equals (Object obj) {
+			if (!(obj instanceof Wedge)) return false;
+			Wedge other = (Wedge)obj;
+			return position == other.position && Arrays.equals(values, other.values);
+		}
+	}
+}
@@ -0,0 +1,290 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.tools.g3d;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.VertexAttributes.Usage;
+import com.badlogic.gdx.graphics.g3d.loader.G3dModelLoader;
+import com.badlogic.gdx.graphics.g3d.model.LodGroup;
+import com.badlogic.gdx.tools.FileProcessor;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonValue.ValueType;
+import com.badlogic.gdx.utils.JsonWriter.OutputType;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.utils.UBJsonReader;
+import com.badlogic.gdx.utils.UBJsonWriter;
+
+/** Adds levels of detail to ".g3dj" and ".g3db" models. Each triangle mesh part is simplified with a {@link MeshSimplifier} to
+ * the {@link #ratios} of its triangles, and the simplified parts are added to the same mesh, sharing its vertices. Node parts
+ * using a simplified mesh part list its levels in "lods", each with the "meshpartid" of the level and the "screensize" below
+ * which it is used, which {@link com.badlogic.gdx.graphics.g3d.Model} loads into a {@link LodGroup}:
+ *
+ * <pre>
+ * "parts": [{"meshpartid": "shape", "materialid": "stone", "lods": [{"meshpartid": "shape_lod1", "screensize": 0.5}, ...]}]
+ * </pre>
+ *
+ * Models which already have levels of detail are copied unchanged. */
+public class ModelLodGenerator {
+	/** Per level the fraction of the triangles of the original part to keep. */
+	public float[] ratios = {0.5f, 0.25f, 0.125f};
+	/** Per level the screen size below which it is used, see {@link LodGroup}. */
+	public float[] screenSizes = {0.5f, 0.25f, 0.125f};
+	/** The fraction of triangles a level must have less than the previous level to be added. Simplification stops earlier when
+	 * locked vertices, e.g. at the borders of a mesh, prevent further collapses. */
+	public float minReduction = 0.2f;
+
+	/** Adds the levels of detail to the JSON of a model.
+	 * @return the number of added mesh parts. */
+	public int generate (JsonValue model) {
+		JsonValue meshes = model.get("meshes"), nodes = model.get("nodes");
+		if (meshes == null || nodes == null || hasLods(nodes)) return 0;
+		AttributeParser attributeParser = new AttributeParser();
+		ObjectIntMap<String> levelsByPart = new ObjectIntMap<String>();
+		int added = 0;
+		for (JsonValue mesh = meshes.child; mesh != null; mesh = mesh.next) {
+			VertexAttributes attributes = new VertexAttributes(attributeParser.parse(mesh.require("attributes")));
+			int vertexSize = attributes.vertexSize / 4, positionOffset = attributes.getOffset(Usage.Position, -1);
+			if (positionOffset == -1) continue;
+			float[] vertices = mesh.require("vertices").asFloatArray();
+			int[] seamAttributes = seamAttributes(attributes);
+			JsonValue parts = mesh.require("parts");
+			Array<JsonValue> originalParts = new Array<JsonValue>();
+			for (JsonValue part = parts.child; part != null; part = part.next)
+				originalParts.add(part);
+			for (JsonValue part : originalParts) {
+				if (!"TRIANGLES".equals(part.getString("type", null))) continue;
+				String id = part.getString("id");
+				int[] indices = part.require("indices").asIntArray();
+				int triangles = indices.length / 3, previous = triangles;
+				MeshSimplifier simplifier = new MeshSimplifier(vertices, vertexSize, positionOffset, indices, seamAttributes);
+				int level = 0;
+				for (; level < ratios.length; level++) {
+					int count = simplifier.simplify((int)(triangles * ratios[level]));
+					if (count == 0 || count > previous * (1 - minReduction)) break;
+					previous = count;
+
+					JsonValue lodPart = new JsonValue(ValueType.object);
+					lodPart.addChild("id", new JsonValue(lodId(id, level)));
+					lodPart.addChild("type", new JsonValue("TRIANGLES"));
+					// Parsed from text, as adding many children to a JsonValue one by one is slow.
+					StringBuilder lodIndices = new StringBuilder("[");
+					for (int index : simplifier.getIndices())
+						lodIndices.append(index).append(',');
+					lodIndices.setCharAt(lodIndices.length() - 1, ']');
+					lodPart.addChild("indices", new JsonReader().parse(lodIndices.toString()));
+					parts.addChild(lodPart);
+					added++;
+				}
+				if (level > 0) levelsByPart.put(id, level);
+			}
+		}
+		addLods(nodes, levelsByPart);
+		return added;
+	}
+
+	/** @return the offset and size in floats of the attributes other than the position, tangent and binormal. Tangents often
+	 *         differ per triangle, which would otherwise prevent most collapses. */
+	static private int[] seamAttributes (VertexAttributes attributes) {
+		IntArray seamAttributes = new IntArray();
+		for (VertexAttribute attribute : attributes) {
+			int usage = attribute.usage;
+			if (usage == Usage.Position || usage == Usage.Tangent || usage == Usage.BiNormal) continue;
+			seamAttributes.add(attribute.offset / 4);
+			seamAttributes.add(attribute.getSizeInBytes() / 4);
+		}
+		return seamAttributes.toArray();
+	}
+
+	private boolean hasLods (JsonValue nodes) {
+		for (JsonValue node = nodes.child; node != null; node = node.next) {
+			JsonValue parts = node.get("parts");
+			if (parts != null) {
+				for (JsonValue part = parts.child; part != null; part = part.next)
+					if (part.has("lods")) return true;
+			}
+			JsonValue children = node.get("children");
+			if (children != null && hasLods(children)) return true;
+		}
+		return false;
+	}
+
+	static private String lodId (String partId, int level) {
+		return partId + "_lod" + (level + 1);
+	}
+
+	private void addLods (JsonValue nodes, ObjectIntMap<String> levelsByPart) {
+		for (JsonValue node = nodes.child; node != null; node = node.next) {
+			JsonValue parts = node.get("parts");
+			if (parts != null) {
+				for (JsonValue part = parts.child; part != null; part = part.next) {
+					String id = part.getString("meshpartid", "");
+					int levels = levelsByPart.get(id, 0);
+					if (levels == 0) continue;
+					JsonValue lods = new JsonValue(ValueType.array);
+					for (int level = 0; level < levels; level++) {
+						JsonValue lod = new JsonValue(ValueType.object);
+						lod.addChild("meshpartid", new JsonValue(lodId(id, level)));
+						lod.addChild("screensize", new JsonValue(screenSizes[level]));
+						lods.addChild(lod);
+					}
+					part.addChild("lods", lods);
+				}
+			}
+			JsonValue children = node.get("children");
+			if (children != null) addLods(children, levelsByPart);
+		}
+	}
+
+	/** Adds the levels of detail to a model file, keeping its format. */
+	public void process (FileHandle input, FileHandle output) throws IOException {
+		boolean binary = input.extension().equalsIgnoreCase("g3db");
+		JsonValue model = binary ? new UBJsonReader().parse(input) : new JsonReader().parse(input);
+		int added = generate(model);
+		System.out.println("Added " + added + " levels of detail to " + input);
+		if (binary) {
+			UBJsonWriter writer = new UBJsonWriter(output.write(false, 8192));
+			try {
+				writeBinary(writer, model);
+			} finally {
+				StreamUtils.closeQuietly(writer);
+			}
+		} else
+			output.writeString(model.toJson(OutputType.json), false, "UTF-8");
+	}
+
+	/** Writes numbers as 32 bit integers or floats when that keeps their value, as the indices and vertices of models are, and
+	 * arrays of such numbers as strongly typed arrays. */
+	static void writeBinary (UBJsonWriter writer, JsonValue value) throws IOException {
+		if (value.isArray() && writeNumbers(writer, value)) return;
+		if (value.isObject() || value.isArray()) {
+			if (value.isObject()) {
+				if (value.name != null)
+					writer.object(value.name);
+				else
+					writer.object();
+			} else {
+				if (value.name != null)
+					writer.array(value.name);
+				else
+					writer.array();
+			}
+			for (JsonValue child = value.child; child != null; child = child.next)
+				writeBinary(writer, child);
+			writer.pop();
+		} else if (value.isLong()) {
+			if (value.name != null) writer.name(value.name);
+			long number = value.asLong();
+			if (number == (int)number)
+				writer.value((int)number);
+			else
+				writer.value(number);
+		} else if (value.isDouble()) {
+			if (value.name != null) writer.name(value.name);
+			double number = value.asDouble();
+			if (number == (float)number)
+				writer.value((float)number);
+			else
+				writer.value(number);
+		} else
+			writer.value(value);
+	}
+
+	/** Writes an array of numbers as a strongly typed array of ints or floats, if all its values fit. Shorts are not used, as
+	 * {@link UBJsonReader#oldFormat} reads their type as ints.
+	 * @return false if nothing was written. */
+	static private boolean writeNumbers (UBJsonWriter writer, JsonValue array) throws IOException {
+		if (array.size == 0) return false;
+		boolean ints = true, floats = true;
+		for (JsonValue child = array.child; child != null; child = child.next) {
+			if (child.isLong()) {
+				long number = child.asLong();
+				ints &= number == (int)number;
+				floats &= number == (float)number;
+			} else if (child.isDouble()) {
+				double number = child.asDouble();
+				ints = false;
+				floats &= number == (float)number;
+			} else
+				return false;
+		}
+		if (!ints && !floats) return false;
+		if (array.name != null) writer.name(array.name);
+		if (ints)
+			writer.value(array.asIntArray());
+		else
+			writer.value(array.asFloatArray());
+		return true;
+	}
+
+	/** Adds levels of detail to the models in the input file or directory, writing them to the output directory. */
+	public void process (String input, String outputDirectory) throws Exception {
+		LodProcessor processor = new LodProcessor(this);
+		processor.setRecursive(true);
+		processor.process(new File(input), new File(outputDirectory));
+	}
+
+	static class LodProcessor extends FileProcessor {
+		final ModelLodGenerator generator;
+
+		LodProcessor (ModelLodGenerator generator) {
+			this.generator = generator;
+			addInputSuffix(".g3dj", ".g3db");
+		}
+
+		@Override
+		protected void processFile (Entry entry) throws Exception {
+			generator.process(new FileHandle(entry.inputFile), new FileHandle(entry.outputFile));
+		}
+
+		@Override
+		protected void processDir (Entry entryDir, ArrayList<Entry> files) throws Exception {
+			if (entryDir.outputDir != null && !entryDir.outputDir.exists()) {
+				if (!entryDir.outputDir.mkdirs())
+					throw new Exception("Couldn't create output directory '" + entryDir.outputDir + "'");
+			}
+		}
+	}
+
+	/** Gives access to the attribute names of the model format. */
+	static class AttributeParser extends G3dModelLoader {
+		AttributeParser () {
+			super(new JsonReader());
+		}
+
+		VertexAttribute[] parse (JsonValue attributes) {
+			return parseAttributes(attributes);
+		}
+	}
+
+	public static void main (String[] args) throws Exception {
+		if (args.length != 2) {
+			System.out.println("ModelLodGenerator <input-file-or-dir> <output-dir>");
+			System.exit(-1);
+		}
+		new ModelLodGenerator().process(args[0], args[1]);
+	}
+}
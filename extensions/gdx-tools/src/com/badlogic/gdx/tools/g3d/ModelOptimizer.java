@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.tools.g3d;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g3d.model.MeshPart;
+import com.badlogic.gdx.graphics.g3d.utils.MeshOptimizer;
+import com.badlogic.gdx.tools.FileProcessor;
+import com.badlogic.gdx.tools.g3d.ModelLodGenerator.AttributeParser;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonValue.ValueType;
+import com.badlogic.gdx.utils.JsonWriter.OutputType;
+import com.badlogic.gdx.utils.ShortArray;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.utils.UBJsonReader;
+import com.badlogic.gdx.utils.UBJsonWriter;
+
+/** Optimizes the meshes of ".g3dj" and ".g3db" models with a {@link MeshOptimizer}: welds the vertices, reorders the triangles of
+ * each part for the vertex cache and the vertices for fetch locality. The parts of a mesh share its vertices, so they are
+ * optimized together, including levels of detail added by {@link ModelLodGenerator}. The model format stores attributes as floats,
+ * so the {@link MeshOptimizer#quantizeNormals quantization} of the optimizer is not used. */
+public class ModelOptimizer {
+	public final MeshOptimizer optimizer = new MeshOptimizer();
+
+	/** Optimizes the meshes in the JSON of a model.
+	 * @return the number of optimized meshes. */
+	public int optimize (JsonValue model) {
+		JsonValue meshes = model.get("meshes");
+		if (meshes == null) return 0;
+		AttributeParser attributeParser = new AttributeParser();
+		int optimized = 0;
+		for (JsonValue mesh = meshes.child; mesh != null; mesh = mesh.next) {
+			VertexAttributes attributes = new VertexAttributes(attributeParser.parse(mesh.require("attributes")));
+			FloatArray vertices = new FloatArray(mesh.require("vertices").asFloatArray());
+			// Meshes are loaded with short indices.
+			if (vertices.size / (attributes.vertexSize / 4) > 1 << 16) continue;
+			ShortArray indices = new ShortArray();
+			Array<MeshPart> parts = new Array<MeshPart>();
+			for (JsonValue jsonPart = mesh.require("parts").child; jsonPart != null; jsonPart = jsonPart.next) {
+				MeshPart part = new MeshPart();
+				part.offset = indices.size;
+				// Only triangle lists are reordered, the other types are only remapped.
+				part.primitiveType = "TRIANGLES".equals(jsonPart.getString("type", null)) ? GL20.GL_TRIANGLES : GL20.GL_LINES;
+				indices.addAll(jsonPart.require("indices").asShortArray());
+				part.size = indices.size - part.offset;
+				parts.add(part);
+			}
+
+			optimizer.optimize(vertices, indices, attributes, parts);
+			System.out.println(String.format("Mesh %d: %d -> %d vertices, ACMR %.3f -> %.3f", optimized, optimizer.vertexCountBefore,
+				optimizer.vertexCountAfter, optimizer.acmrBefore, optimizer.acmrAfter));
+
+			mesh.remove("vertices");
+			mesh.addChild("vertices", floats(vertices));
+			int i = 0;
+			for (JsonValue jsonPart = mesh.require("parts").child; jsonPart != null; jsonPart = jsonPart.next) {
+				MeshPart part = parts.get(i++);
+				jsonPart.remove("indices");
+				jsonPart.addChild("indices", shorts(indices, part.offset, part.size));
+			}
+			optimized++;
+		}
+		return optimized;
+	}
+
+	/** @return a JSON array of the values, added at once as adding many children one by one is slow. */
+	static private JsonValue floats (FloatArray values) {
+		JsonValue array = new JsonValue(ValueType.array);
+		for (int i = values.size - 1; i >= 0; i--) {
+			float value = values.get(i);
+			// The text keeps the JSON short, the float value keeps it a float in UBJSON.
+			link(array, new JsonValue(value, Float.toString(value)));
+		}
+		return array;
+	}
+
+	static private JsonValue shorts (ShortArray values, int offset, int count) {
+		JsonValue array = new JsonValue(ValueType.array);
+		for (int i = offset + count - 1; i >= offset; i--)
+			link(array, new JsonValue(values.get(i) & 0xFFFF));
+		return array;
+	}
+
+	/** Adds the child as the first child of the array. */
+	static private void link (JsonValue array, JsonValue child) {
+		child.parent = array;
+		child.next = array.child;
+		if (array.child != null) array.child.prev = child;
+		array.child = child;
+		array.size++;
+	}
+
+	/** Optimizes the meshes of a model file, keeping its format. */
+	public void process (FileHandle input, FileHandle output) throws IOException {
+		boolean binary = input.extension().equalsIgnoreCase("g3db");
+		JsonValue model = binary ? new UBJsonReader().parse(input) : new JsonReader().parse(input);
+		System.out.println("Optimized " + optimize(model) + " meshes of " + input);
+		if (binary) {
+			UBJsonWriter writer = new UBJsonWriter(output.write(false, 8192));
+			try {
+				ModelLodGenerator.writeBinary(writer, model);
+			} finally {
+				StreamUtils.closeQuietly(writer);
+			}
+		} else
+			output.writeString(model.toJson(OutputType.json), false, "UTF-8");
+	}
+
+	/** Optimizes the models in the input file or directory, writing them to the output directory. */
+	public void process (String input, String outputDirectory) throws Exception {
+		OptimizeProcessor processor = new OptimizeProcessor(this);
+		processor.setRecursive(true);
+		processor.process(new File(input), new File(outputDirectory));
+	}
+
+	static class OptimizeProcessor extends FileProcessor {
+		final ModelOptimizer optimizer;
+
+		OptimizeProcessor (ModelOptimizer optimizer) {
+			this.optimizer = optimizer;
+			addInputSuffix(".g3dj", ".g3db");
+		}
+
+		@Override
+		protected void processFile (Entry entry) throws Exception {
+			optimizer.process(new FileHandle(entry.inputFile), new FileHandle(entry.outputFile));
+		}
+
+		@Override
+		protected void processDir (Entry entryDir, ArrayList<Entry> files) throws Exception {
+			if (entryDir.outputDir != null && !entryDir.outputDir.exists()) {
+				if (!entryDir.outputDir.mkdirs())
+					throw new Exception("Couldn't create output directory '" + entryDir.outputDir + "'");
+			}
+		}
+	}
+
+	public static void main (String[] args) throws Exception {
+		if (args.length != 2) {
+			System.out.println("ModelOptimizer <input-file-or-dir> <output-dir>");
+			System.exit(-1);
+		}
+		new ModelOptimizer().process(args[0], args[1]);
+	}
+}
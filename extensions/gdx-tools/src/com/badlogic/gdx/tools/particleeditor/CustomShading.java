@@ -18,9 +18,9 @@ package com.badlogic.gdx.tools.particleeditor;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.GLStateCache;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.utils.Array;
 
@@ -50,16 +50,14 @@ public class CustomShading {
 		for (int i = 0; i < extraTextures.size; i++) {
 			extraTextures.get(i).bind(i + 1);
 		}
-		Gdx.gl.glActiveTexture(GL20.GL_TEXTURE0);
+		GLStateCache.activeTexture(0);
 	}
 
 	public void end (SpriteBatch spriteBatch) {
 		spriteBatch.setShader(null);
-		for (int i = 0; i < extraTextures.size; i++) {
-			Gdx.gl.glActiveTexture(GL20.GL_TEXTURE1 + i);
-			Gdx.gl.glBindTexture(extraTextures.get(i).glTarget, 0);
-		}
-		Gdx.gl.glActiveTexture(GL20.GL_TEXTURE0);
+		for (int i = 0; i < extraTextures.size; i++)
+			GLStateCache.bindTexture(i + 1, extraTextures.get(i).glTarget, 0);
+		GLStateCache.activeTexture(0);
 	}
 
 	public void setVertexShaderFile (String absolutePath) {
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.tools.particleeditor;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.util.ArrayList;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g3d.particles.ParticleEffectLoader;
+import com.badlogic.gdx.tools.FileProcessor;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.StreamUtils;
+
+/** Converts particle effects to their binary formats, which load faster:
+ * <ul>
+ * <li>2D effects (".p") are saved with {@link ParticleEffect#saveBinary(OutputStream)}. The file name is kept, as
+ * {@link ParticleEffect#loadEmitters(FileHandle)} recognizes the binary format.</li>
+ * <li>3D effects (".pfx") are converted from JSON to UBJSON with {@link ParticleEffectLoader#writeBinary(JsonValue, FileHandle)}
+ * and saved as ".pfxb", which the
+ * {@link com.badlogic.gdx.assets.AssetManager} loads with a {@link com.badlogic.gdx.utils.UBJsonReader}. Effects referenced by a 3D
+ * effect keep their file names and are loaded as before.</li>
+ * </ul>
+ * Images are not copied to the output directory. */
+public class ParticleEffectConverter {
+	static class EffectProcessor extends FileProcessor {
+		EffectProcessor () {
+			addInputSuffix(".p");
+		}
+
+		@Override
+		protected void processFile (Entry entry) throws Exception {
+			System.out.println("Converting " + entry.inputFile);
+			ParticleEffect effect = new ParticleEffect();
+			effect.loadEmitters(new FileHandle(entry.inputFile));
+			OutputStream output = new FileHandle(entry.outputFile).write(false, 8192);
+			try {
+				effect.saveBinary(output);
+			} finally {
+				StreamUtils.closeQuietly(output);
+			}
+		}
+
+		@Override
+		protected void processDir (Entry entryDir, ArrayList<Entry> files) throws Exception {
+			createOutputDir(entryDir);
+		}
+	}
+
+	static class Effect3DProcessor extends FileProcessor {
+		Effect3DProcessor () {
+			addInputSuffix(".pfx");
+			setOutputSuffix(".pfxb");
+		}
+
+		@Override
+		protected void processFile (Entry entry) throws Exception {
+			System.out.println("Converting " + entry.inputFile);
+			JsonValue json = new JsonReader().parse(new FileHandle(entry.inputFile));
+			ParticleEffectLoader.writeBinary(json, new FileHandle(entry.outputFile));
+		}
+
+		@Override
+		protected void processDir (Entry entryDir, ArrayList<Entry> files) throws Exception {
+			createOutputDir(entryDir);
+		}
+	}
+
+	static void createOutputDir (FileProcessor.Entry entryDir) throws Exception {
+		if (entryDir.outputDir != null && !entryDir.outputDir.exists()) {
+			if (!entryDir.outputDir.mkdirs())
+				throw new Exception("Couldn't create output directory '" + entryDir.outputDir + "'");
+		}
+	}
+
+	/** Converts the 2D and 3D effects in the input file or directory. */
+	public static void process (String input, String outputDirectory, boolean recursive, boolean flatten) throws Exception {
+		FileProcessor[] processors = {new EffectProcessor(), new Effect3DProcessor()};
+		for (FileProcessor processor : processors) {
+			processor.setRecursive(recursive);
+			processor.setFlattenOutput(flatten);
+			processor.process(new File(input), new File(outputDirectory));
+		}
+	}
+
+	public static void main (String[] args) throws Exception {
+		if (args.length != 2) {
+			System.out.println("ParticleEffectConverter <input-file-or-dir> <output-dir>");
+			System.exit(-1);
+		}
+		ParticleEffectConverter.process(args[0], args[1], true, false);
+	}
+}
@@ -48,6 +48,10 @@ varying MED vec2 v_emissiveUV;
 uniform vec4 u_diffuseColor;
 #endif
 
+#ifdef instancedFlag
+varying vec4 v_instanceColor;
+#endif
+
 #ifdef diffuseTextureFlag
 uniform sampler2D u_diffuseTexture;
 #endif
@@ -109,6 +113,31 @@ float getShadow()
 varying vec3 v_ambientLight;
 #endif //separateAmbientFlag
 
+#if defined(clusteredLightsFlag) && defined(normalFlag)
+uniform HIGH sampler2D u_clusterTexture;
+uniform HIGH vec4 u_clusterTextureSize;
+uniform HIGH vec4 u_clusterGrid;
+uniform HIGH vec2 u_clusterDepth;
+varying HIGH vec3 v_pos;
+varying HIGH vec4 v_clusterPos;
+
+#ifdef specularFlag
+uniform HIGH vec4 u_cameraPosition;
+#ifdef shininessFlag
+uniform HIGH float u_shininess;
+#else
+const float u_shininess = 20.0;
+#endif // shininessFlag
+#endif // specularFlag
+
+HIGH vec4 clusterTexel(HIGH float index)
+{
+	HIGH float y = floor(index * u_clusterTextureSize.z);
+	HIGH float x = index - y * u_clusterTextureSize.x;
+	return texture2D(u_clusterTexture, (vec2(x, y) + 0.5) * u_clusterTextureSize.zw);
+}
+#endif // clusteredLightsFlag
+
 #endif //lightingFlag
 
 #ifdef fogFlag
@@ -139,6 +168,10 @@ void main() {
 		vec4 diffuse = vec4(1.0);
 	#endif
 
+	#ifdef instancedFlag
+		diffuse *= v_instanceColor;
+	#endif
+
 	#if defined(emissiveTextureFlag) && defined(emissiveColorFlag)
 		vec4 emissive = texture2D(u_emissiveTexture, v_emissiveUV) * u_emissiveColor;
 	#elif defined(emissiveTextureFlag)
@@ -149,46 +182,89 @@ void main() {
 		vec4 emissive = vec4(0.0);
 	#endif
 
+	#ifdef lightingFlag
+		vec3 lightDiffuse = v_lightDiffuse;
+		#ifdef specularFlag
+			vec3 lightSpecular = v_lightSpecular;
+		#endif // specularFlag
+	#endif // lightingFlag
+
+	#if defined(lightingFlag) && defined(clusteredLightsFlag) && defined(normalFlag)
+		HIGH vec3 clusterCoord = vec3((v_clusterPos.xy / v_clusterPos.z * 0.5 + 0.5) * u_clusterGrid.xy,
+			log(max(v_clusterPos.w, 0.0001)) * u_clusterDepth.x + u_clusterDepth.y);
+		clusterCoord = clamp(floor(clusterCoord), vec3(0.0), u_clusterGrid.xyz - 1.0);
+		HIGH vec4 cluster = clusterTexel(clusterCoord.x + (clusterCoord.y + clusterCoord.z * u_clusterGrid.y) * u_clusterGrid.x);
+		vec3 clusterNormal = normalize(normal);
+		#ifdef specularFlag
+			vec3 viewVec = normalize(u_cameraPosition.xyz - v_pos);
+		#endif // specularFlag
+		for (int i = 0; i < maxClusterLights; i++) {
+			if (float(i) >= cluster.y) break;
+			// Four light indices per texel.
+			HIGH float component = float(i) - 4.0 * floor(float(i) * 0.25);
+			HIGH vec4 indices = clusterTexel(cluster.x + floor(float(i) * 0.25));
+			HIGH float texel = u_clusterGrid.w + 3.0 * dot(indices, vec4(equal(vec4(component), vec4(0.0, 1.0, 2.0, 3.0))));
+			HIGH vec3 lightDir = clusterTexel(texel).xyz - v_pos;
+			vec4 color = clusterTexel(texel + 1.0);
+			vec4 spot = clusterTexel(texel + 2.0);
+			HIGH float dist2 = dot(lightDir, lightDir);
+			lightDir *= inversesqrt(dist2);
+			float attenuation = 1.0 / (1.0 + dist2);
+			// Point lights have a cutoff cosine below -1.
+			if (spot.w > -1.5) {
+				float cosAngle = dot(-lightDir, spot.xyz);
+				attenuation *= cosAngle < spot.w ? 0.0 : pow(max(cosAngle, 0.0001), color.w);
+			}
+			float NdotL = clamp(dot(clusterNormal, lightDir), 0.0, 1.0);
+			vec3 value = color.rgb * (NdotL * attenuation);
+			lightDiffuse += value;
+			#ifdef specularFlag
+				float halfDotView = max(0.0, dot(clusterNormal, normalize(lightDir + viewVec)));
+				lightSpecular += value * pow(halfDotView, u_shininess);
+			#endif // specularFlag
+		}
+	#endif // clusteredLightsFlag
+
 	#if (!defined(lightingFlag))
 		gl_FragColor.rgb = diffuse.rgb + emissive.rgb;
 	#elif (!defined(specularFlag))
 		#if defined(ambientFlag) && defined(separateAmbientFlag)
 			#ifdef shadowMapFlag
-				gl_FragColor.rgb = (diffuse.rgb * (v_ambientLight + getShadow() * v_lightDiffuse)) + emissive.rgb;
+				gl_FragColor.rgb = (diffuse.rgb * (v_ambientLight + getShadow() * lightDiffuse)) + emissive.rgb;
 				//gl_FragColor.rgb = texture2D(u_shadowTexture, v_shadowMapUv.xy);
 			#else
-				gl_FragColor.rgb = (diffuse.rgb * (v_ambientLight + v_lightDiffuse)) + emissive.rgb;
+				gl_FragColor.rgb = (diffuse.rgb * (v_ambientLight + lightDiffuse)) + emissive.rgb;
 			#endif //shadowMapFlag
 		#else
 			#ifdef shadowMapFlag
-				gl_FragColor.rgb = getShadow() * (diffuse.rgb * v_lightDiffuse) + emissive.rgb;
+				gl_FragColor.rgb = getShadow() * (diffuse.rgb * lightDiffuse) + emissive.rgb;
 			#else
-				gl_FragColor.rgb = (diffuse.rgb * v_lightDiffuse) + emissive.rgb;
+				gl_FragColor.rgb = (diffuse.rgb * lightDiffuse) + emissive.rgb;
 			#endif //shadowMapFlag
 		#endif
 	#else
 		#if defined(specularTextureFlag) && defined(specularColorFlag)
-			vec3 specular = texture2D(u_specularTexture, v_specularUV).rgb * u_specularColor.rgb * v_lightSpecular;
+			vec3 specular = texture2D(u_specularTexture, v_specularUV).rgb * u_specularColor.rgb * lightSpecular;
 		#elif defined(specularTextureFlag)
-			vec3 specular = texture2D(u_specularTexture, v_specularUV).rgb * v_lightSpecular;
+			vec3 specular = texture2D(u_specularTexture, v_specularUV).rgb * lightSpecular;
 		#elif defined(specularColorFlag)
-			vec3 specular = u_specularColor.rgb * v_lightSpecular;
+			vec3 specular = u_specularColor.rgb * lightSpecular;
 		#else
-			vec3 specular = v_lightSpecular;
+			vec3 specular = lightSpecular;
 		#endif
 
 		#if defined(ambientFlag) && defined(separateAmbientFlag)
 			#ifdef shadowMapFlag
-			gl_FragColor.rgb = (diffuse.rgb * (getShadow() * v_lightDiffuse + v_ambientLight)) + specular + emissive.rgb;
+			gl_FragColor.rgb = (diffuse.rgb * (getShadow() * lightDiffuse + v_ambientLight)) + specular + emissive.rgb;
 				//gl_FragColor.rgb = texture2D(u_shadowTexture, v_shadowMapUv.xy);
 			#else
-				gl_FragColor.rgb = (diffuse.rgb * (v_lightDiffuse + v_ambientLight)) + specular + emissive.rgb;
+				gl_FragColor.rgb = (diffuse.rgb * (lightDiffuse + v_ambientLight)) + specular + emissive.rgb;
 			#endif //shadowMapFlag
 		#else
 			#ifdef shadowMapFlag
-				gl_FragColor.rgb = getShadow() * ((diffuse.rgb * v_lightDiffuse) + specular) + emissive.rgb;
+				gl_FragColor.rgb = getShadow() * ((diffuse.rgb * lightDiffuse) + specular) + emissive.rgb;
 			#else
-				gl_FragColor.rgb = (diffuse.rgb * v_lightDiffuse) + specular + emissive.rgb;
+				gl_FragColor.rgb = (diffuse.rgb * lightDiffuse) + specular + emissive.rgb;
 			#endif //shadowMapFlag
 		#endif
 	#endif //lightingFlag
@@ -6,7 +6,7 @@
 #define specularFlag
 #endif
 
-#if defined(specularFlag) || defined(fogFlag)
+#if defined(specularFlag) || defined(fogFlag) || defined(clusteredLightsFlag)
 #define cameraPositionFlag
 #endif
 
@@ -103,7 +103,14 @@ attribute vec2 a_boneWeight7;
 #endif
 #endif
 
+#ifdef instancedFlag
+attribute mat4 i_worldTrans;
+attribute vec4 i_color;
+varying vec4 v_instanceColor;
+#define u_worldTrans i_worldTrans
+#else
 uniform mat4 u_worldTrans;
+#endif // instancedFlag
 
 #if defined(numBones)
 #if numBones > 0
@@ -154,6 +161,11 @@ uniform vec4 u_cameraPosition;
 varying float v_fog;
 #endif // fogFlag
 
+#ifdef clusteredLightsFlag
+uniform vec3 u_cameraDirection;
+varying vec3 v_pos;
+varying vec4 v_clusterPos;
+#endif // clusteredLightsFlag
 
 #if numDirectionalLights > 0
 struct DirectionalLight
@@ -205,6 +217,10 @@ void main() {
 	#if defined(colorFlag)
 		v_color = a_color;
 	#endif // colorFlag
+	
+	#ifdef instancedFlag
+		v_instanceColor = i_color;
+	#endif // instancedFlag
 		
 	#ifdef blendedFlag
 		v_opacity = u_opacity;
@@ -248,6 +264,12 @@ void main() {
 	#endif
 		
 	gl_Position = u_projViewTrans * pos;
+
+	#ifdef clusteredLightsFlag
+		v_pos = pos.xyz;
+		// The clip x, y and w to find the tile of a fragment, and the view depth to find its slice.
+		v_clusterPos = vec4(gl_Position.xyw, dot(pos.xyz - u_cameraPosition.xyz, u_cameraDirection));
+	#endif // clusteredLightsFlag
 		
 	#ifdef shadowMapFlag
 		vec4 spos = u_shadowMapProjViewTrans * pos;
@@ -258,6 +280,14 @@ void main() {
 	#if defined(normalFlag)
 		#if defined(skinningFlag)
 			vec3 normal = normalize((u_worldTrans * skinning * vec4(a_normal, 0.0)).xyz);
+		#elif defined(instancedFlag)
+			// The cofactor matrix of the instance's rotation and scale is its normal matrix times the determinant, so it is
+			// correct for non-uniform scale once normalized and flipped for mirroring transforms.
+			vec3 cofactor0 = cross(u_worldTrans[1].xyz, u_worldTrans[2].xyz);
+			vec3 cofactor1 = cross(u_worldTrans[2].xyz, u_worldTrans[0].xyz);
+			vec3 cofactor2 = cross(u_worldTrans[0].xyz, u_worldTrans[1].xyz);
+			float determinant = dot(u_worldTrans[0].xyz, cofactor0);
+			vec3 normal = normalize(mat3(cofactor0, cofactor1, cofactor2) * a_normal * sign(determinant));
 		#else
 			vec3 normal = normalize(u_normalMatrix * a_normal);
 		#endif
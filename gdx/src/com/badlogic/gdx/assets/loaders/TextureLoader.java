@@ -16,16 +16,22 @@
 
 package com.badlogic.gdx.assets.loaders;
 
+import com.badlogic.gdx.Files.FileType;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.assets.AssetDescriptor;
 import com.badlogic.gdx.assets.AssetLoaderParameters;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.PixmapIO;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.Texture.TextureFilter;
 import com.badlogic.gdx.graphics.Texture.TextureWrap;
 import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.glutils.FileTextureData;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 
 /** {@link AssetLoader} for {@link Texture} instances. The pixel data is loaded asynchronously. The texture is then created on the
  * rendering thread, synchronously. Passing a {@link TextureParameter} to
@@ -40,11 +46,26 @@ public class TextureLoader extends AsynchronousAssetLoader<Texture, TextureLoade
 	};
 
 	TextureLoaderInfo info = new TextureLoaderInfo();
+	FileHandle cacheDirectory;
+	boolean compressCache;
 
 	public TextureLoader (FileHandleResolver resolver) {
 		super(resolver);
 	}
 
+	/** Sets a directory to cache the decoded pixels of textures loaded from images, such as PNG or JPEG files, in the PXC format,
+	 * see {@link PixmapIO#writePXC(FileHandle, Pixmap, boolean, long, String)}. Subsequent loads read the cache file instead of
+	 * decoding the image, which is much faster. A cache file is named after a hash of the file type and path of its image, which
+	 * are stored in the file and compared when loading. It is rewritten when the length or last modified time of its image
+	 * changes. If those aren't available, eg for compressed Android assets, the cache directory should be cleared when the images
+	 * change. Caching is disabled by default.
+	 * @param directory the directory for the cache files, usually a {@link FileType#Local} directory, or null to disable caching
+	 * @param compress whether to compress the cache files with LZ4, which trades some loading speed for less disk space */
+	public void setCacheDirectory (FileHandle directory, boolean compress) {
+		this.cacheDirectory = directory;
+		this.compressCache = compress;
+	}
+
 	@Override
 	public void loadAsync (AssetManager manager, String fileName, FileHandle file, TextureParameter parameter) {
 		info.filename = fileName;
@@ -59,7 +80,10 @@ public class TextureLoader extends AsynchronousAssetLoader<Texture, TextureLoade
 				info.texture = parameter.texture;
 			}
 
-			info.data = TextureData.Factory.loadFromFile(file, format, genMipMaps);
+			if (cacheDirectory != null && isCacheable(file))
+				info.data = new FileTextureData(file, loadCached(file), format, genMipMaps);
+			else
+				info.data = TextureData.Factory.loadFromFile(file, format, genMipMaps);
 		} else {
 			info.data = parameter.textureData;
 			info.texture = parameter.texture;
@@ -83,6 +107,44 @@ public class TextureLoader extends AsynchronousAssetLoader<Texture, TextureLoade
 		return texture;
 	}
 
+	private boolean isCacheable (FileHandle file) {
+		String extension = file.extension().toLowerCase();
+		return !extension.equals("cim") && !extension.equals("pxc") && !extension.equals("etc1") && !extension.equals("ktx")
+			&& !extension.equals("zktx");
+	}
+
+	private Pixmap loadCached (FileHandle file) {
+		String source = file.type() + ":" + file.path();
+		FileHandle cacheFile = cacheDirectory.child(file.nameWithoutExtension() + "-" + hash(source) + ".pxc");
+		long stamp = file.length() * 31 + file.lastModified();
+		Long cachedStamp = PixmapIO.readPXCStamp(cacheFile, source);
+		if (cachedStamp != null && cachedStamp == stamp) {
+			try {
+				return PixmapIO.readPXC(cacheFile);
+			} catch (GdxRuntimeException ex) {
+				Gdx.app.error("TextureLoader", "Couldn't read cached pixels, reloading: " + file, ex);
+			}
+		}
+		Pixmap pixmap = new Pixmap(file);
+		try {
+			PixmapIO.writePXC(cacheFile, pixmap, compressCache, stamp, source);
+		} catch (GdxRuntimeException ex) {
+			cacheFile.delete();
+			Gdx.app.error("TextureLoader", "Couldn't cache pixels: " + file, ex);
+		}
+		return pixmap;
+	}
+
+	/** @return the 64 bit FNV-1a hash of the characters as hex string. */
+	static String hash (String value) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0, n = value.length(); i < n; i++) {
+			hash ^= value.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return Long.toHexString(hash);
+	}
+
 	@Override
 	public Array<AssetDescriptor> getDependencies (String fileName, FileHandle file, TextureParameter parameter) {
 		return null;
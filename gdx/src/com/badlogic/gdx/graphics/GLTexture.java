@@ -21,6 +21,7 @@ import com.badlogic.gdx.graphics.Pixmap.Blending;
 import com.badlogic.gdx.graphics.Texture.TextureFilter;
 import com.badlogic.gdx.graphics.Texture.TextureWrap;
 import com.badlogic.gdx.graphics.TextureData.TextureDataType;
+import com.badlogic.gdx.graphics.glutils.GLStateCache;
 import com.badlogic.gdx.graphics.glutils.MipMapGenerator;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.BufferUtils;
@@ -69,14 +70,13 @@ public abstract class GLTexture implements Disposable {
 	/** Binds this texture. The texture will be bound to the currently active texture unit specified via
 	 * {@link GL20#glActiveTexture(int)}. */
 	public void bind () {
-		Gdx.gl.glBindTexture(glTarget, glHandle);
+		GLStateCache.bindTexture(glTarget, glHandle);
 	}
 
 	/** Binds the texture to the given texture unit. Sets the currently active texture unit via {@link GL20#glActiveTexture(int)}.
 	 * @param unit the unit (0 to MAX_TEXTURE_UNITS). */
 	public void bind (int unit) {
-		Gdx.gl.glActiveTexture(GL20.GL_TEXTURE0 + unit);
-		Gdx.gl.glBindTexture(glTarget, glHandle);
+		GLStateCache.bindTexture(unit, glTarget, glHandle);
 	}
 
 	/** @return The {@link Texture.TextureFilter} used for minification. */
@@ -243,6 +243,7 @@ public abstract class GLTexture implements Disposable {
 	protected void delete () {
 		if (glHandle != 0) {
 			Gdx.gl.glDeleteTexture (glHandle);
+			GLStateCache.textureDeleted(glHandle);
 			glHandle = 0;
 		}
 	}
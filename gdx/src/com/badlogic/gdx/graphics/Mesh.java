@@ -509,7 +509,8 @@ public class Mesh implements Disposable {
 	 * @param locations array containing the attribute locations. */
 	public void bind (final ShaderProgram shader, final int[] locations) {
 		vertices.bind(shader, locations);
-		if (instances != null && instances.getNumInstances() > 0) instances.bind(shader, locations);
+		// The locations are those of the vertex attributes, the instance attributes are looked up by alias.
+		if (instances != null && instances.getNumInstances() > 0) instances.bind(shader);
 		if (indices.getNumIndices() > 0) indices.bind();
 	}
 
@@ -527,8 +528,9 @@ public class Mesh implements Disposable {
 	 * @param shader the shader (does not unbind the shader)
 	 * @param locations array containing the attribute locations. */
 	public void unbind (final ShaderProgram shader, final int[] locations) {
+		// Unbind the instances first, so their attributes are disabled in the vertex array object of the vertices, if any.
+		if (instances != null && instances.getNumInstances() > 0) instances.unbind(shader);
 		vertices.unbind(shader, locations);
-		if (instances != null && instances.getNumInstances() > 0) instances.unbind(shader, locations);
 		if (indices.getNumIndices() > 0) indices.unbind();
 	}
 
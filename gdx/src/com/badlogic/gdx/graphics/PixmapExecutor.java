@@ -0,0 +1,431 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.badlogic.gdx.graphics.Pixmap.Blending;
+import com.badlogic.gdx.graphics.Pixmap.Filter;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.g2d.Gdx2DPixmap;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.async.ParallelExecutor;
+import com.badlogic.gdx.utils.async.ThreadUtils;
+
+/** Performs {@link Pixmap} operations on multiple threads by splitting the affected rows of the destination into stripes. The
+ * calling thread processes the first stripe itself and waits for the remaining stripes to finish, so every method returns once
+ * the operation is complete. The results are identical to calling the respective method on the {@link Pixmap} directly.
+ * <p>
+ * Fills and unscaled blits run the native code on each stripe. Scaled blits can't be split that way, as the native code derives
+ * the sampling positions from the size of the whole region, so they use a Java port of the native nearest neighbour and bilinear
+ * filters operating on {@link Pixmap#getPixels()}.
+ * <p>
+ * Instances are not thread-safe, only a single operation can be in flight at a time. Pixmaps involved in an operation must not
+ * be modified by other threads while it is running. Operations on small regions, or where the source and destination are the
+ * same Pixmap, are performed on the calling thread. Must be disposed when no longer used. */
+public class PixmapExecutor implements Disposable {
+	private static final boolean nativeLittleEndian = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+	private static final int[] lu4 = new int[16], lu5 = new int[32], lu6 = new int[64];
+	private static volatile boolean lookupsGenerated;
+
+	static {
+		for (int i = 0; i < 16; i++)
+			lu4[i] = (int)(i / 15.0f * 255);
+		for (int i = 0; i < 32; i++)
+			lu5[i] = (int)(i / 31.0f * 255);
+		for (int i = 0; i < 64; i++)
+			lu6[i] = (int)(i / 63.0f * 255);
+	}
+
+	private final ParallelExecutor executor;
+
+	/** The minimum number of rows a stripe must contain. Operations on fewer rows than twice this value are not split. */
+	public int minRowsPerStripe = 16;
+
+	/** Creates an executor using one thread per available processor. */
+	public PixmapExecutor () {
+		this(ThreadUtils.availableProcessors());
+	}
+
+	/** @param threads the number of threads working on an operation, including the calling thread. */
+	public PixmapExecutor (int threads) {
+		executor = new ParallelExecutor("PixmapExecutor", threads);
+	}
+
+	/** @return the number of threads working on an operation, including the calling thread. */
+	public int getThreads () {
+		return executor.getThreads();
+	}
+
+	/** Fills the complete pixmap with its current color, see {@link Pixmap#fill()}. Like {@link Pixmap#fill()} this ignores the
+	 * blending of the pixmap. */
+	public void fill (final Pixmap pixmap) {
+		final Gdx2DPixmap gdx2dPixmap = pixmap.pixmap;
+		final int width = pixmap.getWidth(), color = pixmap.color;
+		gdx2dPixmap.setBlend(Gdx2DPixmap.GDX2D_BLEND_NONE);
+		try {
+			run(0, pixmap.getHeight(), new Stripe() {
+				public void rows (int start, int end) {
+					gdx2dPixmap.fillRect(0, start, width, end - start, color);
+				}
+			});
+		} finally {
+			gdx2dPixmap.setBlend(pixmap.getBlending() == Blending.None ? Gdx2DPixmap.GDX2D_BLEND_NONE
+				: Gdx2DPixmap.GDX2D_BLEND_SRC_OVER);
+		}
+	}
+
+	/** Fills a rectangle with the pixmap's current color, see {@link Pixmap#fillRectangle(int, int, int, int)}. */
+	public void fillRectangle (final Pixmap pixmap, final int x, int y, final int width, int height) {
+		if (width <= 0 || height <= 0) {
+			pixmap.fillRectangle(x, y, width, height);
+			return;
+		}
+		final Gdx2DPixmap gdx2dPixmap = pixmap.pixmap;
+		final int color = pixmap.color;
+		run(Math.max(y, 0), Math.min(y + height, pixmap.getHeight()), new Stripe() {
+			public void rows (int start, int end) {
+				gdx2dPixmap.fillRect(x, start, width, end - start, color);
+			}
+		});
+	}
+
+	/** Draws an area of the source pixmap to the destination, see {@link Pixmap#drawPixmap(Pixmap, int, int)}. */
+	public void drawPixmap (Pixmap dst, Pixmap src, int x, int y) {
+		drawPixmap(dst, src, x, y, 0, 0, src.getWidth(), src.getHeight());
+	}
+
+	/** Draws an area of the source pixmap to the destination, see {@link Pixmap#drawPixmap(Pixmap, int, int, int, int, int, int)}.
+	 * @param x the x-coordinate in the destination
+	 * @param y the y-coordinate in the destination
+	 * @param srcx the x-coordinate in the source
+	 * @param srcy the y-coordinate in the source
+	 * @param srcWidth the width of the area from the source
+	 * @param srcHeight the height of the area from the source */
+	public void drawPixmap (Pixmap dst, Pixmap src, final int x, final int y, final int srcx, final int srcy, final int srcWidth,
+		int srcHeight) {
+		if (src == dst || srcWidth <= 0 || srcHeight <= 0) {
+			dst.drawPixmap(src, x, y, srcx, srcy, srcWidth, srcHeight);
+			return;
+		}
+		final Gdx2DPixmap dstNative = dst.pixmap, srcNative = src.pixmap;
+		int firstRow = Math.max(0, Math.max(-srcy, -y));
+		int lastRow = Math.min(srcHeight, Math.min(src.getHeight() - srcy, dst.getHeight() - y));
+		run(firstRow, lastRow, new Stripe() {
+			public void rows (int start, int end) {
+				dstNative.drawPixmap(srcNative, srcx, srcy + start, x, y + start, srcWidth, end - start);
+			}
+		});
+	}
+
+	/** Draws an area of the source pixmap to the destination, stretched or shrunk as needed using the filter of the destination,
+	 * see {@link Pixmap#drawPixmap(Pixmap, int, int, int, int, int, int, int, int)}.
+	 * @param srcx the x-coordinate in the source
+	 * @param srcy the y-coordinate in the source
+	 * @param srcWidth the width of the area from the source
+	 * @param srcHeight the height of the area from the source
+	 * @param dstx the x-coordinate in the destination
+	 * @param dsty the y-coordinate in the destination
+	 * @param dstWidth the width of the area in the destination
+	 * @param dstHeight the height of the area in the destination */
+	public void drawPixmap (final Pixmap dst, final Pixmap src, final int srcx, final int srcy, final int srcWidth,
+		final int srcHeight, final int dstx, final int dsty, final int dstWidth, final int dstHeight) {
+		if (srcWidth == dstWidth && srcHeight == dstHeight) {
+			drawPixmap(dst, src, dstx, dsty, srcx, srcy, srcWidth, srcHeight);
+			return;
+		}
+		if (src == dst || srcWidth <= 0 || srcHeight <= 0 || dstWidth <= 0 || dstHeight <= 0) {
+			dst.drawPixmap(src, srcx, srcy, srcWidth, srcHeight, dstx, dsty, dstWidth, dstHeight);
+			return;
+		}
+		final boolean bilinear = dst.getFilter() == Filter.BiLinear;
+		final boolean blend = dst.getBlending() != Blending.None;
+		run(Math.max(0, -dsty), Math.min(dstHeight, dst.getHeight() - dsty), new Stripe() {
+			public void rows (int start, int end) {
+				if (bilinear)
+					blitBilinear(src, dst, blend, srcx, srcy, srcWidth, srcHeight, dstx, dsty, dstWidth, dstHeight, start, end);
+				else
+					blitNearest(src, dst, blend, srcx, srcy, srcWidth, srcHeight, dstx, dsty, dstWidth, dstHeight, start, end);
+			}
+		});
+	}
+
+	/** Creates a copy of the pixmap in the given format. The returned pixmap has the same filter as the source and must be
+	 * disposed. */
+	public Pixmap convert (Pixmap src, Format format) {
+		Pixmap dst = new Pixmap(src.getWidth(), src.getHeight(), format);
+		dst.setFilter(src.getFilter());
+		dst.setBlending(Blending.None);
+		drawPixmap(dst, src, 0, 0);
+		dst.setBlending(src.getBlending());
+		return dst;
+	}
+
+	/** Runs the stripe for the rows [start, end), splitting it across the threads if there are enough rows. */
+	private void run (final int start, int end, final Stripe stripe) {
+		final int rows = end - start;
+		if (rows <= 0) return;
+		final int count = Math.min(executor.getThreads(), rows / Math.max(1, minRowsPerStripe));
+		if (count <= 1) {
+			stripe.rows(start, end);
+			return;
+		}
+		if (!lookupsGenerated) {
+			// The native conversion lookup tables are created lazily and unsynchronized on first use.
+			Pixmap pixmap = new Pixmap(1, 1, Format.RGB565);
+			pixmap.getPixel(0, 0);
+			pixmap.dispose();
+			lookupsGenerated = true;
+		}
+		// Always waits for all stripes, the pixmaps must not be touched by the workers once this returns.
+		executor.run(count, new ParallelExecutor.Task() {
+			public void run (int index) {
+				stripe.rows(start + (int)((long)rows * index / count), start + (int)((long)rows * (index + 1) / count));
+			}
+		});
+	}
+
+	/** Waits for a running operation to finish, then destroys the worker threads. */
+	public void dispose () {
+		executor.dispose();
+	}
+
+	static private interface Stripe {
+		public void rows (int start, int end);
+	}
+
+	// Java port of blit_linear in gdx2d.c, restricted to the destination rows [start, end).
+	static void blitNearest (Pixmap src, Pixmap dst, boolean blend, int srcX, int srcY, int srcWidth, int srcHeight, int dstX,
+		int dstY, int dstWidth, int dstHeight, int start, int end) {
+		ByteBuffer srcPixels = src.getPixels(), dstPixels = dst.getPixels();
+		int srcFormat = src.pixmap.getFormat(), dstFormat = dst.pixmap.getFormat();
+		int sbpp = bytesPerPixel(srcFormat), dbpp = bytesPerPixel(dstFormat);
+		int srcPixmapWidth = src.getWidth(), srcPixmapHeight = src.getHeight();
+		int dstPixmapWidth = dst.getWidth(), dstPixmapHeight = dst.getHeight();
+
+		long xRatio = ((((long)srcWidth << 16) & 0xffffffffL) / dstWidth + 1) & 0xffffffffL;
+		long yRatio = ((((long)srcHeight << 16) & 0xffffffffL) / dstHeight + 1) & 0xffffffffL;
+
+		for (int i = start; i < end; i++) {
+			int sy = (int)(((i * yRatio) & 0xffffffffL) >>> 16) + srcY;
+			int dy = i + dstY;
+			if (sy < 0 || dy < 0) continue;
+			if (sy >= srcPixmapHeight || dy >= dstPixmapHeight) break;
+
+			for (int j = 0; j < dstWidth; j++) {
+				int sx = (int)(((j * xRatio) & 0xffffffffL) >>> 16) + srcX;
+				int dx = j + dstX;
+				if (sx < 0 || dx < 0) continue;
+				if (sx >= srcPixmapWidth || dx >= dstPixmapWidth) break;
+
+				int dstOffset = (dx + dy * dstPixmapWidth) * dbpp;
+				int color = toRGBA8888(srcFormat, getPixel(srcPixels, (sx + sy * srcPixmapWidth) * sbpp, srcFormat));
+				if (blend) color = blend(color, toRGBA8888(dstFormat, getPixel(dstPixels, dstOffset, dstFormat)));
+				setPixel(dstPixels, dstOffset, dstFormat, toFormat(dstFormat, color));
+			}
+		}
+	}
+
+	// Java port of blit_bilinear in gdx2d.c, restricted to the destination rows [start, end).
+	static void blitBilinear (Pixmap src, Pixmap dst, boolean blend, int srcX, int srcY, int srcWidth, int srcHeight, int dstX,
+		int dstY, int dstWidth, int dstHeight, int start, int end) {
+		ByteBuffer srcPixels = src.getPixels(), dstPixels = dst.getPixels();
+		int srcFormat = src.pixmap.getFormat(), dstFormat = dst.pixmap.getFormat();
+		int sbpp = bytesPerPixel(srcFormat), dbpp = bytesPerPixel(dstFormat);
+		int srcPixmapWidth = src.getWidth(), srcPixmapHeight = src.getHeight();
+		int dstPixmapWidth = dst.getWidth(), dstPixmapHeight = dst.getHeight();
+		int spitch = sbpp * srcPixmapWidth, srcLimit = srcPixels.limit();
+
+		float xRatio = ((float)srcWidth - 1) / dstWidth;
+		float yRatio = ((float)srcHeight - 1) / dstHeight;
+
+		for (int i = start; i < end; i++) {
+			int sy = (int)(i * yRatio) + srcY;
+			int dy = i + dstY;
+			float yDiff = (yRatio * i + srcY) - sy;
+			if (sy < 0 || dy < 0) continue;
+			if (sy >= srcPixmapHeight || dy >= dstPixmapHeight) break;
+
+			for (int j = 0; j < dstWidth; j++) {
+				int sx = (int)(j * xRatio) + srcX;
+				int dx = j + dstX;
+				float xDiff = (xRatio * j + srcX) - sx;
+				if (sx < 0 || dx < 0) continue;
+				if (sx >= srcPixmapWidth || dx >= dstPixmapWidth) break;
+
+				int srcOffset = sx * sbpp + sy * spitch;
+				int dstOffset = (dx + dy * dstPixmapWidth) * dbpp;
+				boolean right = sx + 1 < srcWidth && srcOffset + sbpp + sbpp <= srcLimit;
+				boolean down = sy + 1 < srcHeight && srcOffset + spitch + sbpp <= srcLimit;
+				boolean diagonal = sx + 1 < srcWidth && sy + 1 < srcHeight && srcOffset + spitch + sbpp + sbpp <= srcLimit;
+				int c1 = toRGBA8888(srcFormat, getPixel(srcPixels, srcOffset, srcFormat));
+				int c2 = right ? toRGBA8888(srcFormat, getPixel(srcPixels, srcOffset + sbpp, srcFormat)) : c1;
+				int c3 = down ? toRGBA8888(srcFormat, getPixel(srcPixels, srcOffset + spitch, srcFormat)) : c1;
+				int c4 = diagonal ? toRGBA8888(srcFormat, getPixel(srcPixels, srcOffset + spitch + sbpp, srcFormat)) : c1;
+
+				float ta = (1 - xDiff) * (1 - yDiff);
+				float tb = (xDiff) * (1 - yDiff);
+				float tc = (1 - xDiff) * (yDiff);
+				float td = (xDiff) * (yDiff);
+
+				int r = (int)((c1 >>> 24) * ta + (c2 >>> 24) * tb + (c3 >>> 24) * tc + (c4 >>> 24) * td) & 0xff;
+				int g = (int)(((c1 >>> 16) & 0xff) * ta + ((c2 >>> 16) & 0xff) * tb + ((c3 >>> 16) & 0xff) * tc
+					+ ((c4 >>> 16) & 0xff) * td) & 0xff;
+				int b = (int)(((c1 >>> 8) & 0xff) * ta + ((c2 >>> 8) & 0xff) * tb + ((c3 >>> 8) & 0xff) * tc
+					+ ((c4 >>> 8) & 0xff) * td) & 0xff;
+				int a = (int)((c1 & 0xff) * ta + (c2 & 0xff) * tb + (c3 & 0xff) * tc + (c4 & 0xff) * td) & 0xff;
+
+				int color = (r << 24) | (g << 16) | (b << 8) | a;
+				if (blend) color = blend(color, toRGBA8888(dstFormat, getPixel(dstPixels, dstOffset, dstFormat)));
+				setPixel(dstPixels, dstOffset, dstFormat, toFormat(dstFormat, color));
+			}
+		}
+	}
+
+	static int bytesPerPixel (int format) {
+		switch (format) {
+		case Gdx2DPixmap.GDX2D_FORMAT_ALPHA:
+			return 1;
+		case Gdx2DPixmap.GDX2D_FORMAT_LUMINANCE_ALPHA:
+		case Gdx2DPixmap.GDX2D_FORMAT_RGB565:
+		case Gdx2DPixmap.GDX2D_FORMAT_RGBA4444:
+			return 2;
+		case Gdx2DPixmap.GDX2D_FORMAT_RGB888:
+			return 3;
+		default:
+			return 4;
+		}
+	}
+
+	/** @return the raw pixel value at the byte offset, as read by the native code. */
+	static int getPixel (ByteBuffer pixels, int offset, int format) {
+		switch (format) {
+		case Gdx2DPixmap.GDX2D_FORMAT_ALPHA:
+			return pixels.get(offset) & 0xff;
+		case Gdx2DPixmap.GDX2D_FORMAT_LUMINANCE_ALPHA:
+			return ((pixels.get(offset) & 0xff) << 8) | (pixels.get(offset + 1) & 0xff);
+		case Gdx2DPixmap.GDX2D_FORMAT_RGB888:
+			return ((pixels.get(offset) & 0xff) << 16) | ((pixels.get(offset + 1) & 0xff) << 8) | (pixels.get(offset + 2) & 0xff);
+		case Gdx2DPixmap.GDX2D_FORMAT_RGBA8888:
+			return ((pixels.get(offset) & 0xff) << 24) | ((pixels.get(offset + 1) & 0xff) << 16)
+				| ((pixels.get(offset + 2) & 0xff) << 8) | (pixels.get(offset + 3) & 0xff);
+		case Gdx2DPixmap.GDX2D_FORMAT_RGB565:
+		case Gdx2DPixmap.GDX2D_FORMAT_RGBA4444:
+			return getShort(pixels, offset);
+		default:
+			return 0;
+		}
+	}
+
+	/** Writes the raw pixel value at the byte offset, as written by the native code. */
+	static void setPixel (ByteBuffer pixels, int offset, int format, int color) {
+		switch (format) {
+		case Gdx2DPixmap.GDX2D_FORMAT_ALPHA:
+			pixels.put(offset, (byte)color);
+			break;
+		case Gdx2DPixmap.GDX2D_FORMAT_LUMINANCE_ALPHA:
+		case Gdx2DPixmap.GDX2D_FORMAT_RGB565:
+		case Gdx2DPixmap.GDX2D_FORMAT_RGBA4444:
+			putShort(pixels, offset, color);
+			break;
+		case Gdx2DPixmap.GDX2D_FORMAT_RGB888:
+			pixels.put(offset, (byte)(color >>> 16));
+			pixels.put(offset + 1, (byte)(color >>> 8));
+			pixels.put(offset + 2, (byte)color);
+			break;
+		case Gdx2DPixmap.GDX2D_FORMAT_RGBA8888:
+			pixels.put(offset, (byte)(color >>> 24));
+			pixels.put(offset + 1, (byte)(color >>> 16));
+			pixels.put(offset + 2, (byte)(color >>> 8));
+			pixels.put(offset + 3, (byte)color);
+			break;
+		}
+	}
+
+	private static int getShort (ByteBuffer pixels, int offset) {
+		int b0 = pixels.get(offset) & 0xff, b1 = pixels.get(offset + 1) & 0xff;
+		return nativeLittleEndian ? (b1 << 8) | b0 : (b0 << 8) | b1;
+	}
+
+	private static void putShort (ByteBuffer pixels, int offset, int value) {
+		if (nativeLittleEndian) {
+			pixels.put(offset, (byte)value);
+			pixels.put(offset + 1, (byte)(value >>> 8));
+		} else {
+			pixels.put(offset, (byte)(value >>> 8));
+			pixels.put(offset + 1, (byte)value);
+		}
+	}
+
+	static int toRGBA8888 (int format, int color) {
+		switch (format) {
+		case Gdx2DPixmap.GDX2D_FORMAT_ALPHA:
+			return (color & 0xff) | 0xffffff00;
+		case Gdx2DPixmap.GDX2D_FORMAT_LUMINANCE_ALPHA:
+			return ((color & 0xff00) << 16) | ((color & 0xff00) << 8) | (color & 0xffff);
+		case Gdx2DPixmap.GDX2D_FORMAT_RGB888:
+			return (color << 8) | 0x000000ff;
+		case Gdx2DPixmap.GDX2D_FORMAT_RGBA8888:
+			return color;
+		case Gdx2DPixmap.GDX2D_FORMAT_RGB565:
+			return (lu5[(color & 0xf800) >>> 11] << 24) | (lu6[(color & 0x7e0) >>> 5] << 16) | (lu5[color & 0x1f] << 8) | 0xff;
+		case Gdx2DPixmap.GDX2D_FORMAT_RGBA4444:
+			return (lu4[(color & 0xf000) >>> 12] << 24) | (lu4[(color & 0xf00) >>> 8] << 16) | (lu4[(color & 0xf0) >>> 4] << 8)
+				| lu4[color & 0xf];
+		default:
+			return 0;
+		}
+	}
+
+	static int toFormat (int format, int color) {
+		switch (format) {
+		case Gdx2DPixmap.GDX2D_FORMAT_ALPHA:
+			return color & 0xff;
+		case Gdx2DPixmap.GDX2D_FORMAT_LUMINANCE_ALPHA: {
+			int r = color >>> 24, g = (color >>> 16) & 0xff, b = (color >>> 8) & 0xff;
+			int l = ((int)(0.2126f * r + 0.7152 * g + 0.0722 * b) & 0xff) << 8;
+			return (l & 0xffffff00) | (color & 0xff);
+		}
+		case Gdx2DPixmap.GDX2D_FORMAT_RGB888:
+			return color >>> 8;
+		case Gdx2DPixmap.GDX2D_FORMAT_RGBA8888:
+			return color;
+		case Gdx2DPixmap.GDX2D_FORMAT_RGB565:
+			return (((color >>> 27) << 11) & 0xf800) | ((((color & 0xff0000) >>> 18) << 5) & 0x7e0) | (((color & 0xff00) >>> 11) & 0x1f);
+		case Gdx2DPixmap.GDX2D_FORMAT_RGBA4444:
+			return (((color >>> 28) << 12) & 0xf000) | ((((color & 0xff0000) >>> 20) << 8) & 0xf00)
+				| ((((color & 0xff00) >>> 12) << 4) & 0xf0) | (((color & 0xff) >>> 4) & 0xf);
+		default:
+			return 0;
+		}
+	}
+
+	/** Source over blending of two RGBA8888 colors, as done by the native code. */
+	static int blend (int src, int dst) {
+		int srcA = src & 0xff;
+		if (srcA == 0) return dst;
+		int srcB = (src >>> 8) & 0xff, srcG = (src >>> 16) & 0xff, srcR = src >>> 24;
+		int dstA = dst & 0xff, dstB = (dst >>> 8) & 0xff, dstG = (dst >>> 16) & 0xff, dstR = dst >>> 24;
+		dstA -= (dstA * srcA) / 255;
+		int a = dstA + srcA;
+		dstR = (dstR * dstA + srcR * srcA) / a;
+		dstG = (dstG * dstA + srcG * srcA) / a;
+		dstB = (dstB * dstA + srcB * srcA) / a;
+		return (dstR << 24) | (dstG << 16) | (dstB << 8) | a;
+	}
+}
@@ -23,6 +23,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.zip.Adler32;
 import java.util.zip.CRC32;
 import java.util.zip.CheckedOutputStream;
 import java.util.zip.Deflater;
@@ -31,10 +32,15 @@ import java.util.zip.InflaterInputStream;
 
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.ByteArray;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+import com.badlogic.gdx.utils.async.ParallelExecutor;
+import com.badlogic.gdx.utils.compression.Lz4;
 
 /** Writes Pixmaps to various formats.
  * @author mzechner
@@ -55,12 +61,51 @@ public class PixmapIO {
 		return CIM.read(file);
 	}
 
+	/** Writes the {@link Pixmap} to the given file in a format designed for loading speed: a small header followed by the pixels in
+	 * the Pixmap's format, either raw or compressed with {@link Lz4}. Raw pixels are copied straight into the Pixmap when read,
+	 * compressed pixels take less space and still decompress much faster than PNGs decode. To be able to load the Pixmap to a
+	 * Texture, use ".pxc" as the file suffix. Throws a GdxRuntimeException in case the Pixmap couldn't be written to the file.
+	 * @param compress whether to compress the pixels with LZ4
+	 * @param stamp an arbitrary value stored in the header, eg to detect whether the file is outdated, see
+	 *           {@link #readPXCStamp(FileHandle)} */
+	static public void writePXC (FileHandle file, Pixmap pixmap, boolean compress, long stamp) {
+		PXC.write(file, pixmap, compress, stamp, "");
+	}
+
+	/** Writes the {@link Pixmap} like {@link #writePXC(FileHandle, Pixmap, boolean, long)}, also storing the source of the pixels
+	 * in the header.
+	 * @param source an arbitrary string, eg the path of the image the pixels were decoded from, see
+	 *           {@link #readPXCStamp(FileHandle, String)} */
+	static public void writePXC (FileHandle file, Pixmap pixmap, boolean compress, long stamp, String source) {
+		PXC.write(file, pixmap, compress, stamp, source);
+	}
+
+	/** Reads the {@link Pixmap} from the given file, assuming the Pixmap was written with the
+	 * {@link PixmapIO#writePXC(FileHandle, Pixmap, boolean, long)} method. Throws a GdxRuntimeException in case the file couldn't
+	 * be read.
+	 * @param file the file to read the Pixmap from */
+	static public Pixmap readPXC (FileHandle file) {
+		return PXC.read(file);
+	}
+
+	/** @return the stamp stored by {@link #writePXC(FileHandle, Pixmap, boolean, long)}, or null if the file doesn't exist or
+	 *         isn't a PXC file. Only the header is read. */
+	static public Long readPXCStamp (FileHandle file) {
+		return PXC.readStamp(file, null);
+	}
+
+	/** @return the stamp stored by {@link #writePXC(FileHandle, Pixmap, boolean, long, String)}, or null if the file doesn't
+	 *         exist, isn't a PXC file or was written for a different source. Only the header is read. */
+	static public Long readPXCStamp (FileHandle file, String source) {
+		return PXC.readStamp(file, source);
+	}
+
 	/** Writes the pixmap as a PNG. See {@link PNG} to write out multiple PNGs with minimal allocation.
 	 * @param compression sets the deflate compression level. Default is {@link Deflater#DEFAULT_COMPRESSION}
 	 * @param flipY flips the Pixmap vertically if true */
 	static public void writePNG (FileHandle file, Pixmap pixmap, int compression, boolean flipY) {
 		try {
-			PNG writer = new PNG((int)(pixmap.getWidth() * pixmap.getHeight() * 1.5f)); // Guess at deflated size.
+			PNG writer = new PNG();
 			try {
 				writer.setFlipY(flipY);
 				writer.setCompression(compression);
@@ -158,7 +203,108 @@ public class PixmapIO {
 		}
 	}
 
-	/** PNG encoder with compression. An instance can be reused to encode multiple PNGs with minimal allocation.
+	static private class PXC {
+		static private final int MAGIC = 0x50584332; // "PXC2"
+		static private final int FLAG_LZ4 = 1;
+		static private final int BUFFER_SIZE = 32 * 1024;
+
+		static public void write (FileHandle file, Pixmap pixmap, boolean compress, long stamp, String source) {
+			DataOutputStream out = null;
+			try {
+				ByteBuffer pixelBuf = pixmap.getPixels().duplicate();
+				pixelBuf.clear();
+				byte[] pixels = new byte[pixelBuf.capacity()];
+				pixelBuf.get(pixels);
+
+				byte[] data = pixels;
+				int dataLength = pixels.length;
+				if (compress) {
+					data = new byte[Lz4.maxCompressedLength(pixels.length)];
+					dataLength = Lz4.compress(pixels, 0, pixels.length, data, 0);
+				}
+
+				out = new DataOutputStream(file.write(false));
+				out.writeInt(MAGIC);
+				out.writeInt(pixmap.getWidth());
+				out.writeInt(pixmap.getHeight());
+				out.writeInt(Format.toGdx2DPixmapFormat(pixmap.getFormat()));
+				out.writeInt(compress ? FLAG_LZ4 : 0);
+				out.writeInt(dataLength);
+				out.writeLong(stamp);
+				out.writeUTF(source);
+				out.write(data, 0, dataLength);
+			} catch (Exception e) {
+				throw new GdxRuntimeException("Couldn't write Pixmap to file '" + file + "'", e);
+			} finally {
+				StreamUtils.closeQuietly(out);
+			}
+		}
+
+		static public Pixmap read (FileHandle file) {
+			Pixmap pixmap = null;
+			DataInputStream in = null;
+			try {
+				in = new DataInputStream(new BufferedInputStream(file.read(), BUFFER_SIZE));
+				if (in.readInt() != MAGIC) throw new GdxRuntimeException("Not a PXC file.");
+				int width = in.readInt();
+				int height = in.readInt();
+				Format format = Format.fromGdx2DPixmapFormat(in.readInt());
+				int flags = in.readInt();
+				int dataLength = in.readInt();
+				in.readLong(); // stamp
+				in.readUTF(); // source
+
+				pixmap = new Pixmap(width, height, format);
+				ByteBuffer pixelBuf = pixmap.getPixels();
+				pixelBuf.clear();
+				if ((flags & FLAG_LZ4) != 0) {
+					byte[] data = new byte[dataLength];
+					in.readFully(data);
+					byte[] pixels = new byte[pixelBuf.capacity()];
+					Lz4.decompress(data, 0, dataLength, pixels, 0, pixels.length);
+					pixelBuf.put(pixels);
+				} else {
+					if (dataLength != pixelBuf.capacity()) throw new GdxRuntimeException("PXC pixel data has the wrong size.");
+					byte[] buffer = new byte[Math.min(dataLength, BUFFER_SIZE)];
+					for (int remaining = dataLength; remaining > 0;) {
+						int count = Math.min(remaining, buffer.length);
+						in.readFully(buffer, 0, count);
+						pixelBuf.put(buffer, 0, count);
+						remaining -= count;
+					}
+				}
+				pixelBuf.clear();
+				return pixmap;
+			} catch (Exception e) {
+				if (pixmap != null) pixmap.dispose();
+				throw new GdxRuntimeException("Couldn't read Pixmap from file '" + file + "'", e);
+			} finally {
+				StreamUtils.closeQuietly(in);
+			}
+		}
+
+		/** @param source null to return the stamp regardless of the source. */
+		static public Long readStamp (FileHandle file, String source) {
+			if (!file.exists()) return null;
+			DataInputStream in = null;
+			try {
+				in = new DataInputStream(new BufferedInputStream(file.read(), 512));
+				if (in.readInt() != MAGIC) return null;
+				in.readFully(new byte[20]); // width, height, format, flags and data length
+				long stamp = in.readLong();
+				if (source != null && !source.equals(in.readUTF())) return null;
+				return stamp;
+			} catch (Exception e) {
+				return null;
+			} finally {
+				StreamUtils.closeQuietly(in);
+			}
+		}
+	}
+
+	/** PNG encoder with compression. An instance can be reused to encode multiple PNGs with minimal allocation. The compressed
+	 * image data is written in chunks as it is produced, see {@link #setMaxChunkSize(int)}, and can be compressed on multiple
+	 * threads, see {@link #setThreads(int)}.
 	 * 
 	 * <pre>
 	 * Copyright (c) 2007 Matthias Mann - www.matthiasmann.de
@@ -191,13 +337,24 @@ public class PixmapIO {
 		static private final byte COMPRESSION_DEFLATE = 0;
 		static private final byte FILTER_NONE = 0;
 		static private final byte INTERLACE_NONE = 0;
-		static private final byte PAETH = 4;
+		static private final int PARALLEL_BLOCK_SIZE = 128 * 1024, DICTIONARY_SIZE = 32 * 1024;
+
+		/** The filter applied to each row before compression. Better filters usually produce smaller files but take longer.
+		 * {@link #Adaptive} tries every filter for each row and picks the one most likely to compress best. */
+		static public enum RowFilter {
+			None, Sub, Up, Average, Paeth, Adaptive
+		}
 
 		private final ChunkBuffer buffer;
 		private final Deflater deflater;
 		private ByteArray lineOutBytes, curLineBytes, prevLineBytes;
 		private boolean flipY = true;
 		private int lastLineLen;
+		private int compression = Deflater.DEFAULT_COMPRESSION;
+		private RowFilter filter = RowFilter.Paeth;
+		private int maxChunkSize = 64 * 1024;
+		private final ParallelExecutor executor = new ParallelExecutor("PNG");
+		private final Array<Deflater> deflaters = new Array<Deflater>();
 
 		public PNG () {
 			this(128 * 128);
@@ -216,6 +373,31 @@ public class PixmapIO {
 		/** Sets the deflate compression level. Default is {@link Deflater#DEFAULT_COMPRESSION}. */
 		public void setCompression (int level) {
 			deflater.setLevel(level);
+			compression = level;
+			synchronized (deflaters) {
+				for (Deflater deflater : deflaters)
+					deflater.end();
+				deflaters.clear();
+			}
+		}
+
+		/** Sets the filter applied to each row. Default is {@link RowFilter#Paeth}. */
+		public void setFilter (RowFilter filter) {
+			if (filter == null) throw new IllegalArgumentException("filter cannot be null.");
+			this.filter = filter;
+		}
+
+		/** Sets the maximum size of the compressed image data that is buffered before it is written to the output as an IDAT chunk.
+		 * If 0, the whole compressed image is buffered and written as a single chunk. Default is 64KB. */
+		public void setMaxChunkSize (int maxChunkSize) {
+			this.maxChunkSize = maxChunkSize;
+		}
+
+		/** Sets the number of threads used to filter and compress the image, including the calling thread. If more than 1, groups
+		 * of rows are compressed independently and the compressed blocks are concatenated, which produces slightly larger files.
+		 * Default is 1. */
+		public void setThreads (int threads) {
+			executor.setThreads(threads);
 		}
 
 		public void write (FileHandle file, Pixmap pixmap) throws IOException {
@@ -229,7 +411,6 @@ public class PixmapIO {
 
 		/** Writes the pixmap to the stream without closing the stream. */
 		public void write (OutputStream output, Pixmap pixmap) throws IOException {
-			DeflaterOutputStream deflaterOutput = new DeflaterOutputStream(buffer, deflater);
 			DataOutputStream dataOutput = new DataOutputStream(output);
 			dataOutput.write(SIGNATURE);
 
@@ -244,16 +425,31 @@ public class PixmapIO {
 			buffer.endChunk(dataOutput);
 
 			buffer.writeInt(IDAT);
+			int lineLen = pixmap.getWidth() * 4;
+			if (executor.getThreads() > 1 && pixmap.getHeight() > rowsPerBlock(lineLen))
+				writeParallel(dataOutput, pixmap);
+			else
+				writeSequential(dataOutput, pixmap);
+			buffer.endChunk(dataOutput);
+
+			buffer.writeInt(IEND);
+			buffer.endChunk(dataOutput);
+
+			output.flush();
+		}
+
+		private void writeSequential (DataOutputStream dataOutput, Pixmap pixmap) throws IOException {
+			DeflaterOutputStream deflaterOutput = new DeflaterOutputStream(buffer, deflater);
 			deflater.reset();
 
 			int lineLen = pixmap.getWidth() * 4;
 			byte[] lineOut, curLine, prevLine;
 			if (lineOutBytes == null) {
-				lineOut = (lineOutBytes = new ByteArray(lineLen)).items;
+				lineOut = (lineOutBytes = new ByteArray(lineLen + 1)).items;
 				curLine = (curLineBytes = new ByteArray(lineLen)).items;
 				prevLine = (prevLineBytes = new ByteArray(lineLen)).items;
 			} else {
-				lineOut = lineOutBytes.ensureCapacity(lineLen);
+				lineOut = lineOutBytes.ensureCapacity(lineLen + 1);
 				curLine = curLineBytes.ensureCapacity(lineLen);
 				prevLine = prevLineBytes.ensureCapacity(lineLen);
 				for (int i = 0, n = lastLineLen; i < n; i++)
@@ -265,25 +461,218 @@ public class PixmapIO {
 			int oldPosition = pixels.position();
 			boolean rgba8888 = pixmap.getFormat() == Format.RGBA8888;
 			for (int y = 0, h = pixmap.getHeight(); y < h; y++) {
-				int py = flipY ? (h - y - 1) : y;
-				if (rgba8888) {
-					pixels.position(py * lineLen);
-					pixels.get(curLine, 0, lineLen);
-				} else {
-					for (int px = 0, x = 0; px < pixmap.getWidth(); px++) {
-						int pixel = pixmap.getPixel(px, py);
-						curLine[x++] = (byte)((pixel >> 24) & 0xff);
-						curLine[x++] = (byte)((pixel >> 16) & 0xff);
-						curLine[x++] = (byte)((pixel >> 8) & 0xff);
-						curLine[x++] = (byte)(pixel & 0xff);
+				readLine(pixmap, pixels, rgba8888, flipY ? (h - y - 1) : y, curLine, lineLen);
+				filterLine(filter, curLine, prevLine, lineLen, lineOut, 0);
+				deflaterOutput.write(lineOut, 0, lineLen + 1);
+
+				if (maxChunkSize > 0 && buffer.buffer.size() >= maxChunkSize) {
+					buffer.endChunk(dataOutput);
+					buffer.writeInt(IDAT);
+				}
+
+				byte[] temp = curLine;
+				curLine = prevLine;
+				prevLine = temp;
+			}
+			pixels.position(oldPosition);
+			deflaterOutput.finish();
+		}
+
+		/** Writes a zlib stream made of independently compressed blocks of rows. Each block is primed with the last 32KB of the
+		 * filtered rows before it, so the compression ratio stays close to compressing the image in one go. */
+		private void writeParallel (DataOutputStream dataOutput, final Pixmap pixmap) throws IOException {
+			final int width = pixmap.getWidth(), height = pixmap.getHeight(), lineLen = width * 4;
+			final int rowsPerBlock = rowsPerBlock(lineLen), dictionaryRows = (DICTIONARY_SIZE + lineLen) / (lineLen + 1);
+			final int blocks = (height + rowsPerBlock - 1) / rowsPerBlock, threads = executor.getThreads();
+			// The native conversion lookup tables are created lazily and unsynchronized on first use.
+			if (pixmap.getFormat() != Format.RGBA8888) pixmap.getPixel(0, 0);
+
+			int level = compression == Deflater.DEFAULT_COMPRESSION ? 6 : compression;
+			int flevel = level < 2 ? 0 : level < 6 ? 1 : level == 6 ? 2 : 3;
+			int header = (0x78 << 8) | (flevel << 6);
+			header += 31 - header % 31;
+			buffer.writeShort(header);
+
+			Array<AsyncResult<Block>> results = new Array<AsyncResult<Block>>(true, threads * 2);
+			long adler = 1;
+			int submitted = 0;
+			try {
+				for (int i = 0; i < blocks; i++) {
+					while (submitted < blocks && submitted < i + threads * 2) {
+						final int block = submitted++;
+						// Every threads-th block is compressed by the calling thread when it is next to be written.
+						results.add(block % threads == 0 ? null : executor.getExecutor().submit(new AsyncTask<Block>() {
+							public Block call () {
+								return compressBlock(pixmap, block, rowsPerBlock, dictionaryRows);
+							}
+						}));
+					}
+					AsyncResult<Block> result = results.removeIndex(0);
+					Block block = result != null ? result.get() : compressBlock(pixmap, i, rowsPerBlock, dictionaryRows);
+					buffer.write(block.data, 0, block.length);
+					adler = adler32Combine(adler, block.adler, block.rawLength);
+					if (maxChunkSize > 0 && buffer.buffer.size() >= maxChunkSize) {
+						buffer.endChunk(dataOutput);
+						buffer.writeInt(IDAT);
 					}
 				}
+			} finally {
+				// Workers may still be reading the pixmap if a block failed.
+				for (AsyncResult<Block> result : results) {
+					if (result == null) continue;
+					try {
+						result.get();
+					} catch (GdxRuntimeException ignored) {
+					}
+				}
+			}
+			buffer.writeInt((int)adler);
+		}
 
-				lineOut[0] = (byte)(curLine[0] - prevLine[0]);
-				lineOut[1] = (byte)(curLine[1] - prevLine[1]);
-				lineOut[2] = (byte)(curLine[2] - prevLine[2]);
-				lineOut[3] = (byte)(curLine[3] - prevLine[3]);
+		private int rowsPerBlock (int lineLen) {
+			return Math.max(1, PARALLEL_BLOCK_SIZE / (lineLen + 1));
+		}
+
+		Block compressBlock (Pixmap pixmap, int block, int rowsPerBlock, int dictionaryRows) {
+			int height = pixmap.getHeight(), startRow = block * rowsPerBlock, endRow = Math.min(startRow + rowsPerBlock, height);
+			return compressRows(pixmap, Math.max(0, startRow - dictionaryRows), startRow, endRow, endRow == height);
+		}
+
+		/** Filters the rows [dictionaryRow, endRow) and compresses [startRow, endRow) as raw deflate data, using the filtered rows
+		 * before startRow as preset dictionary. */
+		Block compressRows (Pixmap pixmap, int dictionaryRow, int startRow, int endRow, boolean last) {
+			int width = pixmap.getWidth(), height = pixmap.getHeight(), lineLen = width * 4;
+			ByteBuffer pixels = pixmap.getPixels().duplicate();
+			boolean rgba8888 = pixmap.getFormat() == Format.RGBA8888;
+			byte[] curLine = new byte[lineLen], prevLine = new byte[lineLen];
+			byte[] filtered = new byte[(endRow - dictionaryRow) * (lineLen + 1)];
+			if (dictionaryRow > 0) readLine(pixmap, pixels, rgba8888, flipY ? height - dictionaryRow : dictionaryRow - 1, prevLine,
+				lineLen);
+			for (int y = dictionaryRow, offset = 0; y < endRow; y++, offset += lineLen + 1) {
+				readLine(pixmap, pixels, rgba8888, flipY ? (height - y - 1) : y, curLine, lineLen);
+				filterLine(filter, curLine, prevLine, lineLen, filtered, offset);
+				byte[] temp = curLine;
+				curLine = prevLine;
+				prevLine = temp;
+			}
+
+			int dataOffset = (startRow - dictionaryRow) * (lineLen + 1), dataLength = filtered.length - dataOffset;
+			Adler32 adler = new Adler32();
+			adler.update(filtered, dataOffset, dataLength);
 
+			Deflater deflater = obtainDeflater();
+			try {
+				if (dataOffset > 0) {
+					int dictionaryLength = Math.min(dataOffset, DICTIONARY_SIZE);
+					deflater.setDictionary(filtered, dataOffset - dictionaryLength, dictionaryLength);
+				}
+				deflater.setInput(filtered, dataOffset, dataLength);
+				if (last) deflater.finish();
+				byte[] output = new byte[Math.max(64, dataLength / 2)];
+				int length = 0;
+				while (true) {
+					length += deflater.deflate(output, length, output.length - length, last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+					if (last ? deflater.finished() : length < output.length) break;
+					if (length == output.length) {
+						byte[] newOutput = new byte[output.length * 2];
+						System.arraycopy(output, 0, newOutput, 0, length);
+						output = newOutput;
+					}
+				}
+				return new Block(output, length, (int)adler.getValue(), dataLength);
+			} finally {
+				freeDeflater(deflater);
+			}
+		}
+
+		private Deflater obtainDeflater () {
+			synchronized (deflaters) {
+				if (deflaters.size > 0) return deflaters.pop();
+			}
+			return new Deflater(compression, true);
+		}
+
+		private void freeDeflater (Deflater deflater) {
+			deflater.reset();
+			synchronized (deflaters) {
+				deflaters.add(deflater);
+			}
+		}
+
+		static private void readLine (Pixmap pixmap, ByteBuffer pixels, boolean rgba8888, int py, byte[] line, int lineLen) {
+			if (rgba8888) {
+				pixels.position(py * lineLen);
+				pixels.get(line, 0, lineLen);
+			} else {
+				for (int px = 0, x = 0; px < pixmap.getWidth(); px++) {
+					int pixel = pixmap.getPixel(px, py);
+					line[x++] = (byte)((pixel >> 24) & 0xff);
+					line[x++] = (byte)((pixel >> 16) & 0xff);
+					line[x++] = (byte)((pixel >> 8) & 0xff);
+					line[x++] = (byte)(pixel & 0xff);
+				}
+			}
+		}
+
+		/** Writes the filter type followed by the filtered line to out at the offset. */
+		static void filterLine (RowFilter filter, byte[] curLine, byte[] prevLine, int lineLen, byte[] out, int offset) {
+			if (filter != RowFilter.Adaptive) {
+				filterLine(filter.ordinal(), curLine, prevLine, lineLen, out, offset);
+				return;
+			}
+			// Minimum sum of absolute differences heuristic, see the PNG specification.
+			int bestType = 0;
+			long bestSum = Long.MAX_VALUE;
+			for (int type = 0; type <= 4; type++) {
+				long sum = filterLine(type, curLine, prevLine, lineLen, out, offset);
+				if (sum < bestSum) {
+					bestSum = sum;
+					bestType = type;
+				}
+			}
+			if (bestType != 4) filterLine(bestType, curLine, prevLine, lineLen, out, offset);
+		}
+
+		/** @return the sum of the absolute values of the filtered bytes, interpreted as signed. */
+		static private long filterLine (int type, byte[] curLine, byte[] prevLine, int lineLen, byte[] out, int offset) {
+			out[offset++] = (byte)type;
+			long sum = 0;
+			switch (type) {
+			case 0: // None.
+				for (int x = 0; x < lineLen; x++) {
+					byte value = curLine[x];
+					out[offset + x] = value;
+					sum += Math.abs(value);
+				}
+				break;
+			case 1: // Sub.
+				for (int x = 0; x < lineLen; x++) {
+					byte value = (byte)(x < 4 ? curLine[x] : curLine[x] - curLine[x - 4]);
+					out[offset + x] = value;
+					sum += Math.abs(value);
+				}
+				break;
+			case 2: // Up.
+				for (int x = 0; x < lineLen; x++) {
+					byte value = (byte)(curLine[x] - prevLine[x]);
+					out[offset + x] = value;
+					sum += Math.abs(value);
+				}
+				break;
+			case 3: // Average.
+				for (int x = 0; x < lineLen; x++) {
+					int a = x < 4 ? 0 : curLine[x - 4] & 0xff;
+					byte value = (byte)(curLine[x] - ((a + (prevLine[x] & 0xff)) >>> 1));
+					out[offset + x] = value;
+					sum += Math.abs(value);
+				}
+				break;
+			default: // Paeth.
+				for (int x = 0; x < 4 && x < lineLen; x++) {
+					byte value = (byte)(curLine[x] - prevLine[x]);
+					out[offset + x] = value;
+					sum += Math.abs(value);
+				}
 				for (int x = 4; x < lineLen; x++) {
 					int a = curLine[x - 4] & 0xff;
 					int b = prevLine[x] & 0xff;
@@ -299,30 +688,52 @@ public class PixmapIO {
 						c = a;
 					else if (pb <= pc) //
 						c = b;
-					lineOut[x] = (byte)(curLine[x] - c);
+					byte value = (byte)(curLine[x] - c);
+					out[offset + x] = value;
+					sum += Math.abs(value);
 				}
-
-				deflaterOutput.write(PAETH);
-				deflaterOutput.write(lineOut, 0, lineLen);
-
-				byte[] temp = curLine;
-				curLine = prevLine;
-				prevLine = temp;
 			}
-			pixels.position(oldPosition);
-			deflaterOutput.finish();
-			buffer.endChunk(dataOutput);
+			return sum;
+		}
 
-			buffer.writeInt(IEND);
-			buffer.endChunk(dataOutput);
+		/** @return the Adler-32 checksum of the concatenation of two sequences, given the checksum of each and the length of the
+		 *         second, as done by zlib's adler32_combine. */
+		static long adler32Combine (long adler1, long adler2, long length2) {
+			final long base = 65521;
+			long rem = length2 % base;
+			long sum1 = adler1 & 0xffff;
+			long sum2 = (rem * sum1) % base;
+			sum1 += (adler2 & 0xffff) + base - 1;
+			sum2 += ((adler1 >> 16) & 0xffff) + ((adler2 >> 16) & 0xffff) + base - rem;
+			if (sum1 >= base) sum1 -= base;
+			if (sum1 >= base) sum1 -= base;
+			if (sum2 >= (base << 1)) sum2 -= (base << 1);
+			if (sum2 >= base) sum2 -= base;
+			return sum1 | (sum2 << 16);
+		}
 
-			output.flush();
+		static class Block {
+			final byte[] data;
+			final int length, adler, rawLength;
+
+			Block (byte[] data, int length, int adler, int rawLength) {
+				this.data = data;
+				this.length = length;
+				this.adler = adler;
+				this.rawLength = rawLength;
+			}
 		}
 
 		/** Disposal will happen automatically in {@link #finalize()} but can be done explicitly if desired. */
 		@SuppressWarnings("javadoc")
 		public void dispose () {
 			deflater.end();
+			executor.dispose();
+			synchronized (deflaters) {
+				for (Deflater deflater : deflaters)
+					deflater.end();
+				deflaters.clear();
+			}
 		}
 
 		static class ChunkBuffer extends DataOutputStream {
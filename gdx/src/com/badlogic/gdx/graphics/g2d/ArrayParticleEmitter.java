@@ -0,0 +1,504 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g2d;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.DataInput;
+import com.badlogic.gdx.utils.NumberUtils;
+
+/** A {@link ParticleEmitter} that stores its particles in one primitive array per attribute instead of one {@link Sprite} per
+ * particle. The active particles are packed at the start of the arrays, so updating touches only live data, and drawing computes
+ * the vertices of many particles into one array that is passed to the batch at once. It loads and saves the same effect files
+ * and behaves like a ParticleEmitter, except that a particle whose life ended is replaced by the last one, which changes the
+ * drawing order of the remaining particles.
+ * <p>
+ * Use an {@link ArrayParticleEffect} to load effects with this emitter. Copies of an effect, e.g. by a
+ * {@link ParticleEffectPool}, keep the emitter type. {@link #getParticles()} returns an empty array. */
+public class ArrayParticleEmitter extends ParticleEmitter {
+	static private final int SPRITE_SIZE = 20;
+	static private final int MAX_DRAW_SPRITES = 256;
+
+	// Not initialized in the declaration, they are allocated by setMaxParticleCount, which super constructors call.
+	private int[] life, currentLife, spriteIndex;
+	private float[] x, y, scaleX, scaleY, rotation, color;
+	private float[] xScale, xScaleDiff, yScale, yScaleDiff;
+	private float[] rotationStart, rotationDiff;
+	private float[] velocity, velocityDiff;
+	private float[] angle, angleDiff, angleCos, angleSin;
+	private float[] transparency, transparencyDiff;
+	private float[] wind, windDiff, gravity, gravityDiff;
+	private float[] tint;
+
+	private Particle spawnParticle;
+	private float[] vertices;
+	private boolean flipX, flipY;
+
+	private Array<Sprite> spriteDataSprites;
+	private int spriteDataCount;
+	private Texture[] spriteTextures;
+	private float[] spriteData;
+
+	public ArrayParticleEmitter () {
+	}
+
+	public ArrayParticleEmitter (BufferedReader reader) throws IOException {
+		super(reader);
+	}
+
+	public ArrayParticleEmitter (DataInput input) throws IOException {
+		super(input);
+	}
+
+	public ArrayParticleEmitter (ParticleEmitter emitter) {
+		super(emitter);
+	}
+
+	@Override
+	public void setMaxParticleCount (int maxParticleCount) {
+		super.setMaxParticleCount(0); // The particle objects of the super class are not used.
+		this.maxParticleCount = maxParticleCount;
+		life = new int[maxParticleCount];
+		currentLife = new int[maxParticleCount];
+		spriteIndex = new int[maxParticleCount];
+		x = new float[maxParticleCount];
+		y = new float[maxParticleCount];
+		scaleX = new float[maxParticleCount];
+		scaleY = new float[maxParticleCount];
+		rotation = new float[maxParticleCount];
+		color = new float[maxParticleCount];
+		xScale = new float[maxParticleCount];
+		xScaleDiff = new float[maxParticleCount];
+		yScale = new float[maxParticleCount];
+		yScaleDiff = new float[maxParticleCount];
+		rotationStart = new float[maxParticleCount];
+		rotationDiff = new float[maxParticleCount];
+		velocity = new float[maxParticleCount];
+		velocityDiff = new float[maxParticleCount];
+		angle = new float[maxParticleCount];
+		angleDiff = new float[maxParticleCount];
+		angleCos = new float[maxParticleCount];
+		angleSin = new float[maxParticleCount];
+		transparency = new float[maxParticleCount];
+		transparencyDiff = new float[maxParticleCount];
+		wind = new float[maxParticleCount];
+		windDiff = new float[maxParticleCount];
+		gravity = new float[maxParticleCount];
+		gravityDiff = new float[maxParticleCount];
+		tint = new float[maxParticleCount * 3];
+		vertices = new float[Math.max(1, Math.min(maxParticleCount, MAX_DRAW_SPRITES)) * SPRITE_SIZE];
+	}
+
+	@Override
+	public void addParticle () {
+		if (activeCount == maxParticleCount) return;
+		activateParticle(activeCount++);
+	}
+
+	@Override
+	public void addParticles (int count) {
+		count = Math.min(count, maxParticleCount - activeCount);
+		for (int i = 0; i < count; i++)
+			activateParticle(activeCount++);
+	}
+
+	/** Initializes a particle with the code of the super class on a reused {@link Particle}, then copies it into the arrays. */
+	private void activateParticle (int index) {
+		Array<Sprite> sprites = getSprites();
+		int spriteIndex = 0;
+		if (getSpriteMode() == SpriteMode.random) spriteIndex = MathUtils.random(sprites.size - 1);
+		Sprite sprite = sprites.get(spriteIndex);
+
+		Particle particle = spawnParticle;
+		if (particle == null)
+			spawnParticle = particle = newParticle(sprite);
+		else
+			particle.set(sprite);
+		particle.frame = 0;
+		initParticle(particle, sprite);
+
+		if ((updateFlags & UPDATE_SPRITE) != 0) spriteIndex = particle.frame;
+		this.spriteIndex[index] = spriteIndex;
+		life[index] = particle.life;
+		currentLife[index] = particle.currentLife;
+		x[index] = particle.getX();
+		y[index] = particle.getY();
+		scaleX[index] = particle.getScaleX();
+		scaleY[index] = particle.getScaleY();
+		rotation[index] = particle.getRotation();
+		color[index] = particle.getColor().toFloatBits();
+		xScale[index] = particle.xScale;
+		xScaleDiff[index] = particle.xScaleDiff;
+		yScale[index] = particle.yScale;
+		yScaleDiff[index] = particle.yScaleDiff;
+		rotationStart[index] = particle.rotation;
+		rotationDiff[index] = particle.rotationDiff;
+		velocity[index] = particle.velocity;
+		velocityDiff[index] = particle.velocityDiff;
+		angle[index] = particle.angle;
+		angleDiff[index] = particle.angleDiff;
+		angleCos[index] = particle.angleCos;
+		angleSin[index] = particle.angleSin;
+		transparency[index] = particle.transparency;
+		transparencyDiff[index] = particle.transparencyDiff;
+		wind[index] = particle.wind;
+		windDiff[index] = particle.windDiff;
+		gravity[index] = particle.gravity;
+		gravityDiff[index] = particle.gravityDiff;
+		float[] particleTint = particle.tint;
+		tint[index * 3] = particleTint[0];
+		tint[index * 3 + 1] = particleTint[1];
+		tint[index * 3 + 2] = particleTint[2];
+	}
+
+	/** Replaces the particle at the index with the last active particle. */
+	private void removeParticle (int index) {
+		int last = --activeCount;
+		if (index == last) return;
+		life[index] = life[last];
+		currentLife[index] = currentLife[last];
+		spriteIndex[index] = spriteIndex[last];
+		x[index] = x[last];
+		y[index] = y[last];
+		scaleX[index] = scaleX[last];
+		scaleY[index] = scaleY[last];
+		rotation[index] = rotation[last];
+		color[index] = color[last];
+		xScale[index] = xScale[last];
+		xScaleDiff[index] = xScaleDiff[last];
+		yScale[index] = yScale[last];
+		yScaleDiff[index] = yScaleDiff[last];
+		rotationStart[index] = rotationStart[last];
+		rotationDiff[index] = rotationDiff[last];
+		velocity[index] = velocity[last];
+		velocityDiff[index] = velocityDiff[last];
+		angle[index] = angle[last];
+		angleDiff[index] = angleDiff[last];
+		angleCos[index] = angleCos[last];
+		angleSin[index] = angleSin[last];
+		transparency[index] = transparency[last];
+		transparencyDiff[index] = transparencyDiff[last];
+		wind[index] = wind[last];
+		windDiff[index] = windDiff[last];
+		gravity[index] = gravity[last];
+		gravityDiff[index] = gravityDiff[last];
+		tint[index * 3] = tint[last * 3];
+		tint[index * 3 + 1] = tint[last * 3 + 1];
+		tint[index * 3 + 2] = tint[last * 3 + 2];
+	}
+
+	@Override
+	void updateParticles (float delta, int deltaMillis) {
+		for (int i = 0; i < activeCount; i++) {
+			if (!updateParticle(i, delta, deltaMillis)) {
+				removeParticle(i);
+				i--; // The last particle was moved here and still needs to be updated.
+			}
+		}
+	}
+
+	@Override
+	void drawParticles (Batch batch) {
+		updateSpriteData();
+		Texture texture = null;
+		int count = 0;
+		for (int i = 0, n = activeCount; i < n; i++) {
+			Texture particleTexture = spriteTextures[spriteIndex[i]];
+			if (particleTexture != texture || count == vertices.length) {
+				if (count > 0) batch.draw(texture, vertices, 0, count);
+				texture = particleTexture;
+				count = 0;
+			}
+			computeVertices(i, vertices, count);
+			count += SPRITE_SIZE;
+		}
+		if (count > 0) batch.draw(texture, vertices, 0, count);
+	}
+
+	@Override
+	void updateAndDrawParticles (Batch batch, float delta, int deltaMillis) {
+		updateSpriteData();
+		Texture texture = null;
+		int count = 0;
+		for (int i = 0; i < activeCount; i++) {
+			if (!updateParticle(i, delta, deltaMillis)) {
+				removeParticle(i);
+				i--;
+				continue;
+			}
+			Texture particleTexture = spriteTextures[spriteIndex[i]];
+			if (particleTexture != texture || count == vertices.length) {
+				if (count > 0) batch.draw(texture, vertices, 0, count);
+				texture = particleTexture;
+				count = 0;
+			}
+			computeVertices(i, vertices, count);
+			count += SPRITE_SIZE;
+		}
+		if (count > 0) batch.draw(texture, vertices, 0, count);
+	}
+
+	/** Same as the particle update of the super class, on the arrays. */
+	private boolean updateParticle (int i, float delta, int deltaMillis) {
+		int life = currentLife[i] - deltaMillis;
+		if (life <= 0) return false;
+		currentLife[i] = life;
+
+		float percent = 1 - life / (float)this.life[i];
+		int updateFlags = this.updateFlags;
+
+		if ((updateFlags & UPDATE_SCALE) != 0) {
+			float scale = xScale[i] + xScaleDiff[i] * getXScale().getScale(percent);
+			scaleX[i] = scale;
+			if (getYScale().active)
+				scaleY[i] = yScale[i] + yScaleDiff[i] * getYScale().getScale(percent);
+			else
+				scaleY[i] = scale;
+		}
+
+		if ((updateFlags & UPDATE_VELOCITY) != 0) {
+			float velocity = (this.velocity[i] + velocityDiff[i] * getVelocity().getScale(percent)) * delta;
+
+			float velocityX, velocityY;
+			if ((updateFlags & UPDATE_ANGLE) != 0) {
+				float angle = this.angle[i] + angleDiff[i] * getAngle().getScale(percent);
+				velocityX = velocity * MathUtils.cosDeg(angle);
+				velocityY = velocity * MathUtils.sinDeg(angle);
+				if ((updateFlags & UPDATE_ROTATION) != 0) {
+					float rotation = rotationStart[i] + rotationDiff[i] * getRotation().getScale(percent);
+					if (isAligned()) rotation += angle;
+					this.rotation[i] = rotation;
+				}
+			} else {
+				velocityX = velocity * angleCos[i];
+				velocityY = velocity * angleSin[i];
+				if (isAligned() || (updateFlags & UPDATE_ROTATION) != 0) {
+					float rotation = rotationStart[i] + rotationDiff[i] * getRotation().getScale(percent);
+					if (isAligned()) rotation += angle[i];
+					this.rotation[i] = rotation;
+				}
+			}
+
+			if ((updateFlags & UPDATE_WIND) != 0) velocityX += (wind[i] + windDiff[i] * getWind().getScale(percent)) * delta;
+
+			if ((updateFlags & UPDATE_GRAVITY) != 0)
+				velocityY += (gravity[i] + gravityDiff[i] * getGravity().getScale(percent)) * delta;
+
+			x[i] += velocityX;
+			y[i] += velocityY;
+		} else {
+			if ((updateFlags & UPDATE_ROTATION) != 0)
+				rotation[i] = rotationStart[i] + rotationDiff[i] * getRotation().getScale(percent);
+		}
+
+		float r, g, b;
+		if ((updateFlags & UPDATE_TINT) != 0) {
+			float[] color = getTint().getColor(percent);
+			r = color[0];
+			g = color[1];
+			b = color[2];
+		} else {
+			r = tint[i * 3];
+			g = tint[i * 3 + 1];
+			b = tint[i * 3 + 2];
+		}
+
+		float a = transparency[i] + transparencyDiff[i] * getTransparency().getScale(percent);
+		if (isPremultipliedAlpha())
+			color[i] = toFloatBits(r * a, g * a, b * a, isAdditive() ? 0 : a);
+		else
+			color[i] = toFloatBits(r, g, b, a);
+
+		if ((updateFlags & UPDATE_SPRITE) != 0) {
+			Array<Sprite> sprites = getSprites();
+			int frame = Math.min((int)(percent * sprites.size), sprites.size - 1);
+			int previous = spriteIndex[i];
+			if (previous != frame) {
+				Sprite previousSprite = sprites.get(previous), sprite = sprites.get(frame);
+				x[i] += (previousSprite.getWidth() - sprite.getWidth()) / 2;
+				y[i] += (previousSprite.getHeight() - sprite.getHeight()) / 2;
+				spriteIndex[i] = frame;
+			}
+		}
+
+		return true;
+	}
+
+	/** Packs the color like {@link Sprite#setColor(float, float, float, float)}, which clamps the components. */
+	static private float toFloatBits (float r, float g, float b, float a) {
+		int color = ((int)(255 * MathUtils.clamp(a, 0f, 1f)) << 24) | ((int)(255 * MathUtils.clamp(b, 0f, 1f)) << 16)
+			| ((int)(255 * MathUtils.clamp(g, 0f, 1f)) << 8) | ((int)(255 * MathUtils.clamp(r, 0f, 1f)));
+		return NumberUtils.intToFloatColor(color);
+	}
+
+	/** Writes the vertices of a particle like {@link Sprite#getVertices()}. */
+	private void computeVertices (int i, float[] vertices, int offset) {
+		float[] spriteData = this.spriteData;
+		int s = spriteIndex[i] * 8;
+		float originX = spriteData[s + 2], originY = spriteData[s + 3];
+		float localX = -originX;
+		float localY = -originY;
+		float localX2 = localX + spriteData[s];
+		float localY2 = localY + spriteData[s + 1];
+		float worldOriginX = x[i] + originX;
+		float worldOriginY = y[i] + originY;
+		float scaleX = this.scaleX[i], scaleY = this.scaleY[i];
+		if (scaleX != 1 || scaleY != 1) {
+			localX *= scaleX;
+			localY *= scaleY;
+			localX2 *= scaleX;
+			localY2 *= scaleY;
+		}
+		float x1, y1, x2, y2, x3, y3, x4, y4;
+		float rotation = this.rotation[i];
+		if (rotation != 0) {
+			float cos = MathUtils.cosDeg(rotation);
+			float sin = MathUtils.sinDeg(rotation);
+			float localXCos = localX * cos;
+			float localXSin = localX * sin;
+			float localYCos = localY * cos;
+			float localYSin = localY * sin;
+			float localX2Cos = localX2 * cos;
+			float localX2Sin = localX2 * sin;
+			float localY2Cos = localY2 * cos;
+			float localY2Sin = localY2 * sin;
+			x1 = localXCos - localYSin + worldOriginX;
+			y1 = localYCos + localXSin + worldOriginY;
+			x2 = localXCos - localY2Sin + worldOriginX;
+			y2 = localY2Cos + localXSin + worldOriginY;
+			x3 = localX2Cos - localY2Sin + worldOriginX;
+			y3 = localY2Cos + localX2Sin + worldOriginY;
+			x4 = x1 + (x3 - x2);
+			y4 = y3 - (y2 - y1);
+		} else {
+			x1 = x2 = localX + worldOriginX;
+			y1 = y4 = localY + worldOriginY;
+			x3 = x4 = localX2 + worldOriginX;
+			y2 = y3 = localY2 + worldOriginY;
+		}
+
+		float color = this.color[i];
+		float u = spriteData[s + 4], v = spriteData[s + 5], u2 = spriteData[s + 6], v2 = spriteData[s + 7];
+		vertices[offset] = x1;
+		vertices[offset + 1] = y1;
+		vertices[offset + 2] = color;
+		vertices[offset + 3] = u;
+		vertices[offset + 4] = v2;
+
+		vertices[offset + 5] = x2;
+		vertices[offset + 6] = y2;
+		vertices[offset + 7] = color;
+		vertices[offset + 8] = u;
+		vertices[offset + 9] = v;
+
+		vertices[offset + 10] = x3;
+		vertices[offset + 11] = y3;
+		vertices[offset + 12] = color;
+		vertices[offset + 13] = u2;
+		vertices[offset + 14] = v;
+
+		vertices[offset + 15] = x4;
+		vertices[offset + 16] = y4;
+		vertices[offset + 17] = color;
+		vertices[offset + 18] = u2;
+		vertices[offset + 19] = v2;
+	}
+
+	/** Copies the size, origin and flipped texture coordinates of the sprites when they changed. */
+	private void updateSpriteData () {
+		Array<Sprite> sprites = getSprites();
+		if (spriteDataSprites == sprites && spriteDataCount == sprites.size) return;
+		spriteDataSprites = sprites;
+		spriteDataCount = sprites.size;
+		spriteTextures = new Texture[sprites.size];
+		spriteData = new float[sprites.size * 8];
+		for (int i = 0, n = sprites.size; i < n; i++) {
+			Sprite sprite = sprites.get(i);
+			spriteTextures[i] = sprite.getTexture();
+			int s = i * 8;
+			spriteData[s] = sprite.getWidth();
+			spriteData[s + 1] = sprite.getHeight();
+			spriteData[s + 2] = sprite.getOriginX();
+			spriteData[s + 3] = sprite.getOriginY();
+			spriteData[s + 4] = flipX ? sprite.getU2() : sprite.getU();
+			spriteData[s + 5] = flipY ? sprite.getV2() : sprite.getV();
+			spriteData[s + 6] = flipX ? sprite.getU() : sprite.getU2();
+			spriteData[s + 7] = flipY ? sprite.getV() : sprite.getV2();
+		}
+	}
+
+	@Override
+	public void setPosition (float x, float y) {
+		if (isAttached()) {
+			float xAmount = x - getX();
+			float yAmount = y - getY();
+			float[] particleX = this.x, particleY = this.y;
+			for (int i = 0, n = activeCount; i < n; i++) {
+				particleX[i] += xAmount;
+				particleY[i] += yAmount;
+			}
+		}
+		super.setPosition(x, y);
+	}
+
+	@Override
+	public void setSprites (Array<Sprite> sprites) {
+		super.setSprites(sprites);
+		spriteDataSprites = null;
+		if (sprites.size == 0) return;
+		for (int i = 0, n = activeCount; i < n; i++) {
+			switch (getSpriteMode()) {
+			case single:
+				spriteIndex[i] = 0;
+				break;
+			case random:
+				spriteIndex[i] = MathUtils.random(sprites.size - 1);
+				break;
+			case animated:
+				float percent = 1 - currentLife[i] / (float)life[i];
+				spriteIndex[i] = Math.min((int)(percent * sprites.size), sprites.size - 1);
+				break;
+			}
+		}
+	}
+
+	@Override
+	public void setFlip (boolean flipX, boolean flipY) {
+		super.setFlip(flipX, flipY);
+		this.flipX = flipX;
+		this.flipY = flipY;
+		spriteDataSprites = null;
+	}
+
+	@Override
+	public BoundingBox getBoundingBox () {
+		BoundingBox bounds = super.getBoundingBox();
+		updateSpriteData();
+		float[] vertices = this.vertices;
+		for (int i = 0, n = activeCount; i < n; i++) {
+			computeVertices(i, vertices, 0);
+			for (int v = 0; v < SPRITE_SIZE; v += 5)
+				bounds.ext(vertices[v], vertices[v + 1], 0);
+		}
+		return bounds;
+	}
+}
@@ -24,6 +24,7 @@ import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.FloatArray;
 import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.Null;
 import com.badlogic.gdx.utils.NumberUtils;
 import com.badlogic.gdx.utils.Pools;
 
@@ -39,6 +40,7 @@ public class BitmapFontCache {
 	private boolean integer;
 	private final Array<GlyphLayout> layouts = new Array();
 	private final Array<GlyphLayout> pooledLayouts = new Array();
+	private @Null GlyphLayoutCache layoutCache;
 	private int glyphCount;
 	private float x, y;
 	private final Color color = new Color(1, 1, 1, 1);
@@ -499,9 +501,14 @@ public class BitmapFontCache {
 	 * @return The glyph layout for the cached string (the layout's height is the distance from y to the baseline). */
 	public GlyphLayout addText (CharSequence str, float x, float y, int start, int end, float targetWidth, int halign,
 		boolean wrap, String truncate) {
-		GlyphLayout layout = Pools.obtain(GlyphLayout.class);
-		pooledLayouts.add(layout);
-		layout.setText(font, str, start, end, color, targetWidth, halign, wrap, truncate);
+		GlyphLayout layout;
+		if (layoutCache != null)
+			layout = layoutCache.get(font, str, start, end, color, targetWidth, halign, wrap, truncate);
+		else {
+			layout = Pools.obtain(GlyphLayout.class);
+			pooledLayouts.add(layout);
+			layout.setText(font, str, start, end, color, targetWidth, halign, wrap, truncate);
+		}
 		addText(layout, x, y);
 		return layout;
 	}
@@ -525,6 +532,18 @@ public class BitmapFontCache {
 		return font;
 	}
 
+	/** Sets the cache used to look up the layouts for text added by
+	 * {@link #addText(CharSequence, float, float, int, int, float, int, boolean, String)} and the other text methods, instead of
+	 * computing them each time. The layouts returned by those methods are then shared and must not be modified.
+	 * @param layoutCache May be null to compute layouts each time. */
+	public void setLayoutCache (@Null GlyphLayoutCache layoutCache) {
+		this.layoutCache = layoutCache;
+	}
+
+	public @Null GlyphLayoutCache getLayoutCache () {
+		return layoutCache;
+	}
+
 	/** Specifies whether to use integer positions or not. Default is to use them so filtering doesn't kick in as badly.
 	 * @param use */
 	public void setUseIntegerPositions (boolean use) {
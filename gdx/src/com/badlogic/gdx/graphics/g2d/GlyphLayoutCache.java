@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g2d;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.BitmapFontData;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.Null;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/** A least recently used cache of {@link GlyphLayout GlyphLayouts}, avoiding the line breaking, wrapping, kerning and color
+ * markup parsing of {@link GlyphLayout#setText(BitmapFont, CharSequence, int, int, Color, float, int, boolean, String)} for text
+ * that is laid out repeatedly. Layouts are keyed by the font, the text, the color, the target width, the alignment, wrapping and
+ * truncation, as well as the font's scale and whether markup is enabled.
+ * <p>
+ * The returned layouts are shared and must not be modified. Layouts are not freed to a pool when evicted, so they stay valid
+ * for anyone still referencing them. If a font's glyphs are changed, eg by {@link BitmapFontData#setLineHeight(float)}, the
+ * cache should be {@link #clear() cleared}.
+ * <p>
+ * A cache can be used by {@link BitmapFontCache#setLayoutCache(GlyphLayoutCache)} and
+ * {@link com.badlogic.gdx.scenes.scene2d.ui.Label#setLayoutCache(GlyphLayoutCache)}. This class is not thread safe. */
+public class GlyphLayoutCache {
+	private final ObjectMap<Key, Key> entries;
+	private final Key lookup = new Key();
+	private @Null Key head, tail; // Most and least recently used.
+	private int maxSize;
+	private int hits, misses, evictions;
+
+	/** @param maxSize the maximum number of layouts to keep. */
+	public GlyphLayoutCache (int maxSize) {
+		if (maxSize < 1) throw new IllegalArgumentException("maxSize must be > 0: " + maxSize);
+		this.maxSize = maxSize;
+		entries = new ObjectMap(Math.min(maxSize, 1024));
+	}
+
+	/** @see #get(BitmapFont, CharSequence, int, int, Color, float, int, boolean, String) */
+	public GlyphLayout get (BitmapFont font, CharSequence str) {
+		return get(font, str, 0, str.length(), font.getColor(), 0, Align.left, false, null);
+	}
+
+	/** @see #get(BitmapFont, CharSequence, int, int, Color, float, int, boolean, String) */
+	public GlyphLayout get (BitmapFont font, CharSequence str, Color color, float targetWidth, int halign, boolean wrap) {
+		return get(font, str, 0, str.length(), color, targetWidth, halign, wrap, null);
+	}
+
+	/** Returns a layout as computed by {@link GlyphLayout#setText(BitmapFont, CharSequence, int, int, Color, float, int, boolean, String)}
+	 * for the specified parameters, computing and caching it if it isn't cached yet. The returned layout must not be modified. */
+	public GlyphLayout get (BitmapFont font, CharSequence str, int start, int end, Color color, float targetWidth, int halign,
+		boolean wrap, @Null String truncate) {
+		Key lookup = this.lookup, entry;
+		try {
+			lookup.set(font, str, start, end, color, targetWidth, halign, wrap, truncate);
+			entry = entries.get(lookup);
+		} finally {
+			// Don't keep the font and text of the last lookup reachable.
+			lookup.font = null;
+			lookup.text = null;
+			lookup.truncate = null;
+		}
+		if (entry != null) {
+			hits++;
+			if (entry != head) {
+				unlink(entry);
+				linkFirst(entry);
+			}
+			return entry.layout;
+		}
+		misses++;
+
+		entry = new Key();
+		entry.set(font, str.subSequence(start, end).toString(), 0, end - start, color, targetWidth, halign, wrap, truncate);
+		entry.layout = new GlyphLayout(font, str, start, end, color, targetWidth, halign, wrap, truncate);
+		entries.put(entry, entry);
+		linkFirst(entry);
+		while (entries.size > maxSize)
+			evict();
+		return entry.layout;
+	}
+
+	private void evict () {
+		Key entry = tail;
+		unlink(entry);
+		entries.remove(entry);
+		entry.layout = null;
+		evictions++;
+	}
+
+	private void linkFirst (Key entry) {
+		entry.previous = null;
+		entry.next = head;
+		if (head != null) head.previous = entry;
+		head = entry;
+		if (tail == null) tail = entry;
+	}
+
+	private void unlink (Key entry) {
+		if (entry.previous != null)
+			entry.previous.next = entry.next;
+		else
+			head = entry.next;
+		if (entry.next != null)
+			entry.next.previous = entry.previous;
+		else
+			tail = entry.previous;
+		entry.previous = null;
+		entry.next = null;
+	}
+
+	/** Removes all cached layouts. The hit and miss counters are not reset. */
+	public void clear () {
+		entries.clear();
+		head = null;
+		tail = null;
+	}
+
+	/** Removes all cached layouts for the specified font. */
+	public void clear (BitmapFont font) {
+		Key entry = head;
+		while (entry != null) {
+			Key next = entry.next;
+			if (entry.font == font) {
+				unlink(entry);
+				entries.remove(entry);
+			}
+			entry = next;
+		}
+	}
+
+	/** Sets the maximum number of layouts to keep, evicting the least recently used layouts if necessary. */
+	public void setMaxSize (int maxSize) {
+		if (maxSize < 1) throw new IllegalArgumentException("maxSize must be > 0: " + maxSize);
+		this.maxSize = maxSize;
+		while (entries.size > maxSize)
+			evict();
+	}
+
+	public int getMaxSize () {
+		return maxSize;
+	}
+
+	/** @return the number of cached layouts. */
+	public int size () {
+		return entries.size;
+	}
+
+	/** @return the number of times a requested layout was cached. */
+	public int getHits () {
+		return hits;
+	}
+
+	/** @return the number of times a requested layout had to be computed. */
+	public int getMisses () {
+		return misses;
+	}
+
+	/** @return the number of layouts removed to make room for new ones. */
+	public int getEvictions () {
+		return evictions;
+	}
+
+	/** @return the fraction of requests that were cached, between 0 and 1, or 0 if there were no requests. */
+	public float getHitRate () {
+		int total = hits + misses;
+		return total == 0 ? 0 : hits / (float)total;
+	}
+
+	/** Resets the hit, miss and eviction counters. */
+	public void resetCounters () {
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+	}
+
+	/** Also the LRU list entry, holding the layout. */
+	static private class Key {
+		BitmapFont font;
+		CharSequence text;
+		int start, end;
+		float r, g, b, a;
+		float targetWidth, scaleX, scaleY;
+		int halign;
+		boolean wrap, markupEnabled;
+		@Null String truncate;
+		int hash;
+
+		GlyphLayout layout;
+		@Null Key previous, next;
+
+		void set (BitmapFont font, CharSequence text, int start, int end, Color color, float targetWidth, int halign,
+			boolean wrap, @Null String truncate) {
+			this.font = font;
+			this.text = text;
+			this.start = start;
+			this.end = end;
+			r = color.r;
+			g = color.g;
+			b = color.b;
+			a = color.a;
+			this.targetWidth = targetWidth;
+			this.halign = halign;
+			this.wrap = wrap;
+			this.truncate = truncate;
+			BitmapFontData data = font.getData();
+			scaleX = data.scaleX;
+			scaleY = data.scaleY;
+			markupEnabled = data.markupEnabled;
+
+			int h = System.identityHashCode(font);
+			for (int i = start; i < end; i++)
+				h = 31 * h + text.charAt(i);
+			h = 31 * h + Float.floatToIntBits(targetWidth);
+			h = 31 * h + halign;
+			h = 31 * h + (wrap ? 1 : 0);
+			hash = h;
+		}
+
+		public int hashCode () {
+			return hash;
+		}
+
+		public boolean equals (Object object) {
+			if (!(object instanceof Key)) return false;
+			Key other = (Key)object;
+			if (hash != other.hash || font != other.font || halign != other.halign || wrap != other.wrap
+				|| markupEnabled != other.markupEnabled) return false;
+			if (targetWidth != other.targetWidth || scaleX != other.scaleX || scaleY != other.scaleY) return false;
+			if (r != other.r || g != other.g || b != other.b || a != other.a) return false;
+			if (truncate == null ? other.truncate != null : !truncate.equals(other.truncate)) return false;
+			int length = end - start;
+			if (length != other.end - other.start) return false;
+			CharSequence text = this.text, otherText = other.text;
+			for (int i = 0, offset = start, otherOffset = other.start; i < length; i++)
+				if (text.charAt(offset + i) != otherText.charAt(otherOffset + i)) return false;
+			return true;
+		}
+	}
+}
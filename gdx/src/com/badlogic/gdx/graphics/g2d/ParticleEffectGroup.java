@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g2d;
+
+import java.util.Comparator;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool.PooledEffect;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.async.ParallelExecutor;
+
+/** Updates and draws many {@link ParticleEffect ParticleEffects}, e.g. obtained from {@link ParticleEffectPool pools}.
+ * <p>
+ * The effects can be updated on multiple threads, see {@link #setThreads(int)}. Each thread then updates a range of the effects.
+ * Effects must not share mutable state to be updated on multiple threads, which is the case for effects loaded from files or
+ * copied by a pool, but not for a {@link ParticleEmitterBox2D} sharing a World. Note that values from
+ * {@link com.badlogic.gdx.math.MathUtils#random()} are then drawn in a different order each frame.
+ * <p>
+ * Drawing happens on the calling thread and by default groups the emitters of all effects by blend function and texture, so the
+ * batch is flushed as rarely as possible. This changes the order in which overlapping effects are drawn, see
+ * {@link #sortByTexture}.
+ * <p>
+ * After each {@link #update(float)}, the {@link #particleCount}, {@link #emitterCount} and {@link #updateNanos} statistics are
+ * available. */
+public class ParticleEffectGroup implements Disposable {
+	private final Array<ParticleEffect> effects = new Array<ParticleEffect>(true, 16, ParticleEffect.class);
+	private final Array<ParticleEmitter> drawEmitters = new Array<ParticleEmitter>(true, 16, ParticleEmitter.class);
+	private final ParallelExecutor executor = new ParallelExecutor("ParticleEffectGroup");
+	private int count;
+	private float delta;
+	private final ParallelExecutor.Task updateTask = new ParallelExecutor.Task() {
+		public void run (int index) {
+			ParticleEffect[] items = effects.items;
+			int size = effects.size;
+			for (int i = (int)((long)size * index / count), n = (int)((long)size * (index + 1) / count); i < n; i++)
+				items[i].update(delta);
+		}
+	};
+
+	/** The minimum number of effects updated by a thread. Fewer effects than twice this value are updated on the calling thread. */
+	public int minEffectsPerThread = 16;
+	/** Whether completed effects are removed after updating. A removed {@link PooledEffect} is also freed to its pool. Default is
+	 * true. */
+	public boolean removeCompleted = true;
+	/** Whether emitters are drawn grouped by blend function and texture instead of in the order of the effects. Default is true. */
+	public boolean sortByTexture = true;
+
+	/** The number of live particles and of emitters with live particles after the last update. */
+	public int particleCount, emitterCount;
+	/** The time the last update took, in nanoseconds. */
+	public long updateNanos;
+
+	private final Comparator<ParticleEmitter> emitterComparator = new Comparator<ParticleEmitter>() {
+		@Override
+		public int compare (ParticleEmitter o1, ParticleEmitter o2) {
+			int blend1 = blendMode(o1), blend2 = blendMode(o2);
+			if (blend1 != blend2) return blend1 - blend2;
+			int texture1 = textureHandle(o1), texture2 = textureHandle(o2);
+			return texture1 < texture2 ? -1 : texture1 > texture2 ? 1 : 0;
+		}
+	};
+
+	public void add (ParticleEffect effect) {
+		effects.add(effect);
+	}
+
+	/** Removes the effect without freeing it.
+	 * @return false if the effect was not in this group. */
+	public boolean remove (ParticleEffect effect) {
+		return effects.removeValue(effect, true);
+	}
+
+	/** Removes all effects, freeing the {@link PooledEffect PooledEffects}. */
+	public void clear () {
+		for (int i = 0, n = effects.size; i < n; i++) {
+			ParticleEffect effect = effects.get(i);
+			if (effect instanceof PooledEffect) ((PooledEffect)effect).free();
+		}
+		effects.clear();
+	}
+
+	/** @return the effects in this group, which must not be modified during {@link #update(float)}. */
+	public Array<ParticleEffect> getEffects () {
+		return effects;
+	}
+
+	/** Sets the number of threads updating the effects, including the calling thread. With more than one thread, worker threads
+	 * are created which must be released with {@link #dispose()}. Default is 1.
+	 * @see com.badlogic.gdx.utils.async.ThreadUtils#availableProcessors() */
+	public void setThreads (int threads) {
+		executor.setThreads(threads);
+	}
+
+	/** @return the number of threads updating the effects, including the calling thread. */
+	public int getThreads () {
+		return executor.getThreads();
+	}
+
+	/** Updates all effects, removes the completed ones if {@link #removeCompleted} is true and updates the statistics. */
+	public void update (float delta) {
+		long start = TimeUtils.nanoTime();
+		final ParticleEffect[] effects = this.effects.items;
+		final int size = this.effects.size;
+		count = Math.max(1, Math.min(executor.getThreads(), size / Math.max(1, minEffectsPerThread)));
+		this.delta = delta;
+		// Always waits for all tasks, the effects must not be touched by the workers once this returns.
+		executor.run(count, updateTask);
+
+		int particleCount = 0, emitterCount = 0, kept = 0;
+		for (int i = 0; i < size; i++) {
+			ParticleEffect effect = effects[i];
+			if (removeCompleted && effect.isComplete()) {
+				if (effect instanceof PooledEffect) ((PooledEffect)effect).free();
+				continue;
+			}
+			effects[kept++] = effect;
+			Array<ParticleEmitter> emitters = effect.getEmitters();
+			for (int ii = 0, nn = emitters.size; ii < nn; ii++) {
+				int activeCount = emitters.get(ii).getActiveCount();
+				if (activeCount == 0) continue;
+				particleCount += activeCount;
+				emitterCount++;
+			}
+		}
+		this.effects.truncate(kept);
+		this.particleCount = particleCount;
+		this.emitterCount = emitterCount;
+		updateNanos = TimeUtils.nanoTime() - start;
+	}
+
+	/** Draws all effects. The blend function of the batch is reset to GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA afterwards if an emitter
+	 * changed it and {@link ParticleEmitter#cleansUpBlendFunction() cleans up} its blend function. */
+	public void draw (Batch batch) {
+		if (!sortByTexture) {
+			for (int i = 0, n = effects.size; i < n; i++)
+				effects.get(i).draw(batch);
+			return;
+		}
+
+		final Array<ParticleEmitter> drawEmitters = this.drawEmitters;
+		for (int i = 0, n = effects.size; i < n; i++) {
+			Array<ParticleEmitter> emitters = effects.get(i).getEmitters();
+			for (int ii = 0, nn = emitters.size; ii < nn; ii++) {
+				ParticleEmitter emitter = emitters.get(ii);
+				if (emitter.getActiveCount() > 0 && emitter.getSprites().size > 0) drawEmitters.add(emitter);
+			}
+		}
+		drawEmitters.sort(emitterComparator);
+
+		// Emitters don't clean up their blend function in between, so it is only changed between the groups.
+		boolean cleanUp = false;
+		try {
+			for (int i = 0, n = drawEmitters.size; i < n; i++) {
+				ParticleEmitter emitter = drawEmitters.get(i);
+				boolean cleansUp = emitter.cleansUpBlendFunction;
+				cleanUp |= cleansUp && (emitter.isAdditive() || emitter.isPremultipliedAlpha());
+				emitter.cleansUpBlendFunction = false;
+				try {
+					emitter.draw(batch);
+				} finally {
+					emitter.cleansUpBlendFunction = cleansUp;
+				}
+			}
+		} finally {
+			drawEmitters.clear();
+			if (cleanUp) batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+		}
+	}
+
+	static int blendMode (ParticleEmitter emitter) {
+		if (emitter.isPremultipliedAlpha()) return 2;
+		return emitter.isAdditive() ? 1 : 0;
+	}
+
+	static int textureHandle (ParticleEmitter emitter) {
+		Texture texture = emitter.getSprites().first().getTexture();
+		return texture == null ? 0 : texture.getTextureObjectHandle();
+	}
+
+	/** Releases the worker threads, see {@link #setThreads(int)}. The effects are not freed. */
+	@Override
+	public void dispose () {
+		executor.dispose();
+	}
+}
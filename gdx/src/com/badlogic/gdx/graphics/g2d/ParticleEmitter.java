@@ -22,6 +22,8 @@ import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.collision.BoundingBox;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.DataInput;
+import com.badlogic.gdx.utils.DataOutput;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -29,14 +31,14 @@ import java.io.Writer;
 import java.util.Arrays;
 
 public class ParticleEmitter {
-	static private final int UPDATE_SCALE = 1 << 0;
-	static private final int UPDATE_ANGLE = 1 << 1;
-	static private final int UPDATE_ROTATION = 1 << 2;
-	static private final int UPDATE_VELOCITY = 1 << 3;
-	static private final int UPDATE_WIND = 1 << 4;
-	static private final int UPDATE_GRAVITY = 1 << 5;
-	static private final int UPDATE_TINT = 1 << 6;
-	static private final int UPDATE_SPRITE = 1 << 7;
+	static final int UPDATE_SCALE = 1 << 0;
+	static final int UPDATE_ANGLE = 1 << 1;
+	static final int UPDATE_ROTATION = 1 << 2;
+	static final int UPDATE_VELOCITY = 1 << 3;
+	static final int UPDATE_WIND = 1 << 4;
+	static final int UPDATE_GRAVITY = 1 << 5;
+	static final int UPDATE_TINT = 1 << 6;
+	static final int UPDATE_SPRITE = 1 << 7;
 
 	private RangedNumericValue delayValue = new RangedNumericValue();
 	private IndependentScaledNumericValue lifeOffsetValue = new IndependentScaledNumericValue();
@@ -66,15 +68,16 @@ public class ParticleEmitter {
 	private Array<Sprite> sprites;
 	private SpriteMode spriteMode = SpriteMode.single;
 	private Particle[] particles;
-	private int minParticleCount, maxParticleCount = 4;
+	private int minParticleCount;
+	int maxParticleCount = 4;
 	private float x, y;
 	private String name;
 	private Array<String> imagePaths;
-	private int activeCount;
+	int activeCount;
 	private boolean[] active;
 	private boolean firstUpdate;
 	private boolean flipX, flipY;
-	private int updateFlags;
+	int updateFlags;
 	private boolean allowCompletion;
 	private BoundingBox bounds;
 
@@ -103,6 +106,12 @@ public class ParticleEmitter {
 		load(reader);
 	}
 
+	/** Creates an emitter from settings written by {@link #save(DataOutput)}. */
+	public ParticleEmitter (DataInput input) throws IOException {
+		initialize();
+		load(input);
+	}
+
 	public ParticleEmitter (ParticleEmitter emitter) {
 		sprites = new Array<Sprite>(emitter.sprites);
 		name = emitter.name;
@@ -233,6 +242,11 @@ public class ParticleEmitter {
 			}
 		}
 
+		updateParticles(delta, deltaMillis);
+	}
+
+	/** Updates all active particles and deactivates the ones whose life ended. */
+	void updateParticles (float delta, int deltaMillis) {
 		boolean[] active = this.active;
 		int activeCount = this.activeCount;
 		Particle[] particles = this.particles;
@@ -253,16 +267,21 @@ public class ParticleEmitter {
 		} else {
 			batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
 		}
+		drawParticles(batch);
+
+		if (cleansUpBlendFunction && (additive || premultipliedAlpha))
+			batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+
+	}
+
+	/** Draws all active particles, the blend function has already been set. */
+	void drawParticles (Batch batch) {
 		Particle[] particles = this.particles;
 		boolean[] active = this.active;
 
 		for (int i = 0, n = active.length; i < n; i++) {
 			if (active[i]) particles[i].draw(batch);
 		}
-
-		if (cleansUpBlendFunction && (additive || premultipliedAlpha))
-			batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
-
 	}
 
 	/** Updates and draws the particles. This is slightly more efficient than calling {@link #update(float)} and
@@ -284,21 +303,8 @@ public class ParticleEmitter {
 			batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
 		}
 
-		Particle[] particles = this.particles;
-		boolean[] active = this.active;
+		updateAndDrawParticles(batch, delta, deltaMillis);
 		int activeCount = this.activeCount;
-		for (int i = 0, n = active.length; i < n; i++) {
-			if (active[i]) {
-				Particle particle = particles[i];
-				if (updateParticle(particle, delta, deltaMillis))
-					particle.draw(batch);
-				else {
-					active[i] = false;
-					activeCount--;
-				}
-			}
-		}
-		this.activeCount = activeCount;
 
 		if (cleansUpBlendFunction && (additive || premultipliedAlpha))
 			batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
@@ -335,6 +341,25 @@ public class ParticleEmitter {
 		if (activeCount < minParticleCount) addParticles(minParticleCount - activeCount);
 	}
 
+	/** Updates all active particles, draws the ones that are still alive and deactivates the others. */
+	void updateAndDrawParticles (Batch batch, float delta, int deltaMillis) {
+		Particle[] particles = this.particles;
+		boolean[] active = this.active;
+		int activeCount = this.activeCount;
+		for (int i = 0, n = active.length; i < n; i++) {
+			if (active[i]) {
+				Particle particle = particles[i];
+				if (updateParticle(particle, delta, deltaMillis))
+					particle.draw(batch);
+				else {
+					active[i] = false;
+					activeCount--;
+				}
+			}
+		}
+		this.activeCount = activeCount;
+	}
+
 	public void start () {
 		firstUpdate = true;
 		allowCompletion = false;
@@ -413,7 +438,11 @@ public class ParticleEmitter {
 		} else {
 			particle.set(sprite);
 		}
+		initParticle(particle, sprite);
+	}
 
+	/** Sets the life, motion, appearance and spawn position of a particle that was just activated with the given sprite. */
+	void initParticle (Particle particle, Sprite sprite) {
 		float percent = durationTimer / (float)duration;
 		int updateFlags = this.updateFlags;
 
@@ -1194,6 +1223,99 @@ public class ParticleEmitter {
 		}
 	}
 
+	/** Writes the settings in the binary format of {@link ParticleEffect#saveBinary(java.io.OutputStream)}, in the same order as
+	 * {@link #save(Writer)}. */
+	public void save (DataOutput output) throws IOException {
+		output.writeString(name);
+		delayValue.save(output);
+		durationValue.save(output);
+		output.writeInt(minParticleCount, true);
+		output.writeInt(maxParticleCount, true);
+		emissionValue.save(output);
+		lifeValue.save(output);
+		lifeOffsetValue.save(output);
+		xOffsetValue.save(output);
+		yOffsetValue.save(output);
+		spawnShapeValue.save(output);
+		spawnWidthValue.save(output);
+		spawnHeightValue.save(output);
+		xScaleValue.save(output);
+		yScaleValue.save(output);
+		velocityValue.save(output);
+		angleValue.save(output);
+		rotationValue.save(output);
+		windValue.save(output);
+		gravityValue.save(output);
+		tintValue.save(output);
+		transparencyValue.save(output);
+		output.writeBoolean(attached);
+		output.writeBoolean(continuous);
+		output.writeBoolean(aligned);
+		output.writeBoolean(additive);
+		output.writeBoolean(behind);
+		output.writeBoolean(premultipliedAlpha);
+		output.writeByte(spriteMode.ordinal());
+		output.writeInt(imagePaths.size, true);
+		for (String imagePath : imagePaths)
+			output.writeString(imagePath);
+	}
+
+	/** Reads the settings written by {@link #save(DataOutput)}. */
+	public void load (DataInput input) throws IOException {
+		try {
+			name = input.readString();
+			delayValue.load(input);
+			durationValue.load(input);
+			setMinParticleCount(input.readInt(true));
+			setMaxParticleCount(input.readInt(true));
+			emissionValue.load(input);
+			lifeValue.load(input);
+			lifeOffsetValue.load(input);
+			xOffsetValue.load(input);
+			yOffsetValue.load(input);
+			spawnShapeValue.load(input);
+			spawnWidthValue.load(input);
+			spawnHeightValue.load(input);
+			xScaleValue.load(input);
+			yScaleValue.load(input);
+			velocityValue.load(input);
+			angleValue.load(input);
+			rotationValue.load(input);
+			windValue.load(input);
+			gravityValue.load(input);
+			tintValue.load(input);
+			transparencyValue.load(input);
+			attached = input.readBoolean();
+			continuous = input.readBoolean();
+			aligned = input.readBoolean();
+			additive = input.readBoolean();
+			behind = input.readBoolean();
+			premultipliedAlpha = input.readBoolean();
+			spriteMode = SpriteMode.values()[input.readByte()];
+			int imagePathCount = input.readInt(true);
+			Array<String> imagePaths = new Array<String>(imagePathCount);
+			for (int i = 0; i < imagePathCount; i++)
+				imagePaths.add(input.readString());
+			setImagePaths(imagePaths);
+		} catch (RuntimeException ex) {
+			if (name == null) throw ex;
+			throw new RuntimeException("Error parsing emitter: " + name, ex);
+		}
+	}
+
+	static void writeFloats (DataOutput output, float[] values) throws IOException {
+		output.writeInt(values.length, true);
+		for (int i = 0; i < values.length; i++)
+			output.writeFloat(values[i]);
+	}
+
+	static float[] readFloats (DataInput input) throws IOException {
+		float[] values = new float[input.readInt(true)];
+		for (int i = 0; i < values.length; i++)
+			values[i] = input.readFloat();
+		return values;
+	}
+
 	static String readString (String line) throws IOException {
 		return line.substring(line.indexOf(":") + 1).trim();
 	}
@@ -1273,6 +1395,15 @@ public class ParticleEmitter {
 				active = true;
 		}
 
+		public void save (DataOutput output) throws IOException {
+			if (alwaysActive) active = true;
+			output.writeBoolean(active);
+		}
+
+		public void load (DataInput input) throws IOException {
+			active = input.readBoolean() || alwaysActive;
+		}
+
 		public void load (ParticleValue value) {
 			active = value.active;
 			alwaysActive = value.alwaysActive;
@@ -1302,6 +1433,18 @@ public class ParticleEmitter {
 			value = readFloat(reader, "value");
 		}
 
+		public void save (DataOutput output) throws IOException {
+			super.save(output);
+			if (!active) return;
+			output.writeFloat(value);
+		}
+
+		public void load (DataInput input) throws IOException {
+			super.load(input);
+			if (!active) return;
+			value = input.readFloat();
+		}
+
 		public void load (NumericValue value) {
 			super.load(value);
 			this.value = value.value;
@@ -1366,6 +1509,20 @@ public class ParticleEmitter {
 			lowMax = readFloat(reader, "lowMax");
 		}
 
+		public void save (DataOutput output) throws IOException {
+			super.save(output);
+			if (!active) return;
+			output.writeFloat(lowMin);
+			output.writeFloat(lowMax);
+		}
+
+		public void load (DataInput input) throws IOException {
+			super.load(input);
+			if (!active) return;
+			lowMin = input.readFloat();
+			lowMax = input.readFloat();
+		}
+
 		public void load (RangedNumericValue value) {
 			super.load(value);
 			lowMax = value.lowMax;
@@ -1508,6 +1665,26 @@ public class ParticleEmitter {
 				timeline[i] = readFloat(reader, "timeline" + i);
 		}
 
+		public void save (DataOutput output) throws IOException {
+			super.save(output);
+			if (!active) return;
+			output.writeFloat(highMin);
+			output.writeFloat(highMax);
+			output.writeBoolean(relative);
+			writeFloats(output, scaling);
+			writeFloats(output, timeline);
+		}
+
+		public void load (DataInput input) throws IOException {
+			super.load(input);
+			if (!active) return;
+			highMin = input.readFloat();
+			highMax = input.readFloat();
+			relative = input.readBoolean();
+			scaling = readFloats(input);
+			timeline = readFloats(input);
+		}
+
 		public void load (ScaledNumericValue value) {
 			super.load(value);
 			highMax = value.highMax;
@@ -1577,6 +1754,16 @@ public class ParticleEmitter {
 			}
 		}
 
+		public void save (DataOutput output) throws IOException {
+			super.save(output);
+			output.writeBoolean(independent);
+		}
+
+		public void load (DataInput input) throws IOException {
+			super.load(input);
+			independent = input.readBoolean();
+		}
+
 		public void load (IndependentScaledNumericValue value) {
 			super.load(value);
 			independent = value.independent;
@@ -1584,7 +1771,7 @@ public class ParticleEmitter {
 	}
 
 	static public class GradientColorValue extends ParticleValue {
-		static private float[] temp = new float[4];
+		private float[] temp = new float[4];
 
 		private float[] colors = {1, 1, 1};
 		float[] timeline = {0};
@@ -1664,6 +1851,20 @@ public class ParticleEmitter {
 				timeline[i] = readFloat(reader, "timeline" + i);
 		}
 
+		public void save (DataOutput output) throws IOException {
+			super.save(output);
+			if (!active) return;
+			writeFloats(output, colors);
+			writeFloats(output, timeline);
+		}
+
+		public void load (DataInput input) throws IOException {
+			super.load(input);
+			if (!active) return;
+			colors = readFloats(input);
+			timeline = readFloats(input);
+		}
+
 		public void load (GradientColorValue value) {
 			super.load(value);
 			colors = new float[value.colors.length];
@@ -1722,6 +1923,26 @@ public class ParticleEmitter {
 			}
 		}
 
+		public void save (DataOutput output) throws IOException {
+			super.save(output);
+			if (!active) return;
+			output.writeByte(shape.ordinal());
+			if (shape == SpawnShape.ellipse) {
+				output.writeBoolean(edges);
+				output.writeByte(side.ordinal());
+			}
+		}
+
+		public void load (DataInput input) throws IOException {
+			super.load(input);
+			if (!active) return;
+			shape = SpawnShape.values()[input.readByte()];
+			if (shape == SpawnShape.ellipse) {
+				edges = input.readBoolean();
+				side = SpawnEllipseSide.values()[input.readByte()];
+			}
+		}
+
 		public void load (SpawnShapeValue value) {
 			super.load(value);
 			shape = value.shape;
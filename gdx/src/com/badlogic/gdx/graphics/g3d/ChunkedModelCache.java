@@ -0,0 +1,505 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g3d;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g3d.model.MeshPart;
+import com.badlogic.gdx.graphics.g3d.utils.MeshBuilder;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.FlushablePool;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.ShortArray;
+import com.badlogic.gdx.utils.Sort;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+
+/** Combines render calls like a {@link ModelCache} does, but divides the added {@link RenderableProvider}s over a grid of cubic
+ * chunks which are merged independently. Adding, removing or {@link #invalidate(RenderableProvider) invalidating} a provider
+ * only causes its chunk to be merged again on the next call to {@link #update()}, instead of the whole cache. Optionally the
+ * merging is done on a worker thread, in which case a chunk keeps rendering its previous content until the new content is
+ * uploaded by a later call to {@link #update()}. When a camera is {@link #setCamera(Camera) set}, only the chunks that are
+ * (partially) inside its frustum are rendered.
+ * <p>
+ * A provider is placed in the chunk that contains the center of the bounds of its renderables at the time it is added or
+ * invalidated. The renderables are merged using the rules of {@link ModelCache}: renderables with {@link Renderable#bones} are
+ * added as-is and the {@link Renderable#environment} and {@link Renderable#shader} values are removed. The vertices and indices
+ * of the source meshes are copied once, on the calling thread, so the meshes should not change while the cache is used. */
+public class ChunkedModelCache implements RenderableProvider, Disposable {
+	/** The size of the chunks along each axis. */
+	public final float chunkSize;
+
+	private final LongMap<Chunk> chunks = new LongMap<Chunk>();
+	private final Array<Chunk> chunkList = new Array<Chunk>();
+	private final IdentityMap<RenderableProvider, Chunk> providers = new IdentityMap<RenderableProvider, Chunk>();
+	private final IdentityMap<Mesh, SourceMesh> sourceMeshes = new IdentityMap<Mesh, SourceMesh>();
+	private final Merger merger = new Merger();
+	private final Merger workerMerger;
+	private final AsyncExecutor executor;
+	private final Array<Renderable> tmp = new Array<Renderable>();
+	private final FlushablePool<Renderable> tmpPool = new RenderablePool();
+	private final BoundingBox tmpBounds = new BoundingBox();
+	private final BoundingBox tmpBounds2 = new BoundingBox();
+	private final Vector3 tmpV = new Vector3();
+	private Camera camera;
+	private int visibleChunks;
+
+	/** Creates a cache which merges the chunks on the thread calling {@link #update()}.
+	 * @param chunkSize the size of the chunks along each axis */
+	public ChunkedModelCache (float chunkSize) {
+		this(chunkSize, false);
+	}
+
+	/** @param chunkSize the size of the chunks along each axis
+	 * @param async whether to merge the chunks on a worker thread */
+	public ChunkedModelCache (float chunkSize, boolean async) {
+		if (chunkSize <= 0) throw new IllegalArgumentException("chunkSize must be > 0: " + chunkSize);
+		this.chunkSize = chunkSize;
+		if (async) {
+			workerMerger = new Merger();
+			executor = new AsyncExecutor(1, "ChunkedModelCache");
+		} else {
+			workerMerger = null;
+			executor = null;
+		}
+	}
+
+	/** Sets the camera used to cull the chunks in {@link #getRenderables(Array, Pool)}, or null to render all chunks. */
+	public void setCamera (Camera camera) {
+		this.camera = camera;
+	}
+
+	public Camera getCamera () {
+		return camera;
+	}
+
+	/** Adds the provider to the chunk containing the center of its bounds. The chunk is merged on the next call to
+	 * {@link #update()}. The provider should not change until it is removed or invalidated. */
+	public void add (RenderableProvider provider) {
+		if (providers.containsKey(provider)) throw new GdxRuntimeException("The provider is already added.");
+		Chunk chunk = obtainChunk(provider);
+		chunk.providers.add(provider);
+		chunk.dirty = true;
+		providers.put(provider, chunk);
+	}
+
+	/** Adds the providers, see {@link #add(RenderableProvider)}. */
+	public <T extends RenderableProvider> void add (Iterable<T> providers) {
+		for (RenderableProvider provider : providers)
+			add(provider);
+	}
+
+	/** Removes the provider, its chunk is merged on the next call to {@link #update()}.
+	 * @return false if the provider wasn't added. */
+	public boolean remove (RenderableProvider provider) {
+		Chunk chunk = providers.remove(provider);
+		if (chunk == null) return false;
+		chunk.providers.removeValue(provider, true);
+		chunk.dirty = true;
+		return true;
+	}
+
+	/** Call when the renderables of the provider have changed (e.g. it moved), the provider is placed in the chunk containing the
+	 * center of its new bounds. The chunks are merged on the next call to {@link #update()}. */
+	public void invalidate (RenderableProvider provider) {
+		if (!remove(provider)) throw new GdxRuntimeException("The provider is not added.");
+		add(provider);
+	}
+
+	/** Merges the chunks whose content changed and uploads the chunks that finished merging on the worker thread. Must be called
+	 * on the rendering thread. */
+	public void update () {
+		for (int i = chunkList.size - 1; i >= 0; i--) {
+			Chunk chunk = chunkList.get(i);
+			if (chunk.result != null) {
+				if (!chunk.result.isDone()) continue;
+				finish(chunk);
+			}
+			if (chunk.dirty) start(chunk);
+			if (chunk.result == null) removeIfEmpty(i);
+		}
+	}
+
+	/** Like {@link #update()}, but waits until all chunks are merged and uploaded. */
+	public void finishUpdate () {
+		for (int i = chunkList.size - 1; i >= 0; i--) {
+			Chunk chunk = chunkList.get(i);
+			if (chunk.result != null) finish(chunk);
+			if (chunk.dirty) {
+				start(chunk);
+				if (chunk.result != null) finish(chunk);
+			}
+			removeIfEmpty(i);
+		}
+	}
+
+	/** @return whether there are chunks waiting to be merged or uploaded. */
+	public boolean isUpdating () {
+		for (int i = 0, n = chunkList.size; i < n; i++) {
+			Chunk chunk = chunkList.get(i);
+			if (chunk.dirty || chunk.result != null) return true;
+		}
+		return false;
+	}
+
+	/** @return the number of chunks that contain providers or are still rendering previous content. */
+	public int getChunkCount () {
+		return chunkList.size;
+	}
+
+	/** @return the number of chunks that passed the frustum test during the last call to {@link #getRenderables(Array, Pool)}. */
+	public int getVisibleChunkCount () {
+		return visibleChunks;
+	}
+
+	@Override
+	public void getRenderables (Array<Renderable> renderables, Pool<Renderable> pool) {
+		visibleChunks = 0;
+		for (int i = 0, n = chunkList.size; i < n; i++) {
+			Build current = chunkList.get(i).current;
+			if (current.renderables.size == 0) continue;
+			if (camera != null && !camera.frustum.boundsInFrustum(current.bounds)) continue;
+			visibleChunks++;
+			for (int j = 0, m = current.renderables.size; j < m; j++) {
+				Renderable renderable = current.renderables.get(j);
+				renderable.shader = null;
+				renderable.environment = null;
+				renderables.add(renderable);
+			}
+		}
+	}
+
+	@Override
+	public void dispose () {
+		for (int i = 0, n = chunkList.size; i < n; i++) {
+			Chunk chunk = chunkList.get(i);
+			if (chunk.result != null) {
+				try {
+					chunk.result.get();
+				} catch (GdxRuntimeException ignored) {
+				}
+				chunk.result = null;
+			}
+			chunk.current.dispose();
+			chunk.pending.dispose();
+		}
+		chunkList.clear();
+		chunks.clear();
+		providers.clear();
+		sourceMeshes.clear();
+		if (executor != null) executor.dispose();
+	}
+
+	/** @return the chunk containing the center of the bounds of the provider's renderables, created if needed. */
+	private Chunk obtainChunk (RenderableProvider provider) {
+		provider.getRenderables(tmp, tmpPool);
+		BoundingBox bounds = tmpBounds.inf();
+		for (int i = 0, n = tmp.size; i < n; i++)
+			bounds.ext(getBounds(tmp.get(i), tmpBounds2, tmpV));
+		tmp.clear();
+		tmpPool.flush();
+		Vector3 center = bounds.isValid() ? bounds.getCenter(tmpV) : tmpV.setZero();
+
+		long key = key(coordinate(center.x), coordinate(center.y), coordinate(center.z));
+		Chunk chunk = chunks.get(key);
+		if (chunk == null) {
+			chunk = new Chunk(key);
+			chunks.put(key, chunk);
+			chunkList.add(chunk);
+		}
+		return chunk;
+	}
+
+	int coordinate (float value) {
+		return (int)Math.floor(value / chunkSize);
+	}
+
+	static long key (int x, int y, int z) {
+		return ((long)(x & 0x1FFFFF) << 42) | ((long)(y & 0x1FFFFF) << 21) | (z & 0x1FFFFF);
+	}
+
+	/** @return the world bounds of the renderable's mesh part. */
+	static BoundingBox getBounds (Renderable renderable, BoundingBox out, Vector3 tmp) {
+		MeshPart meshPart = renderable.meshPart;
+		out.min.set(meshPart.center).sub(meshPart.halfExtents);
+		out.max.set(meshPart.center).add(meshPart.halfExtents);
+		return out.set(out.min, out.max).mul(renderable.worldTransform);
+	}
+
+	private void removeIfEmpty (int index) {
+		Chunk chunk = chunkList.get(index);
+		if (chunk.providers.size > 0 || chunk.dirty || chunk.result != null) return;
+		chunk.current.dispose();
+		chunk.pending.dispose();
+		chunkList.removeIndex(index);
+		chunks.remove(chunk.key);
+	}
+
+	/** Collects the renderables of the chunk into its pending build and merges it, either directly or on the worker thread. */
+	private void start (Chunk chunk) {
+		chunk.dirty = false;
+		Build build = chunk.pending;
+		build.reset();
+		Array<RenderableProvider> providers = chunk.providers;
+		for (int i = 0, n = providers.size; i < n; i++)
+			providers.get(i).getRenderables(build.items, build.pool);
+
+		Array<Renderable> items = build.items;
+		for (int i = items.size - 1; i >= 0; i--) {
+			Renderable renderable = items.get(i);
+			renderable.shader = null;
+			renderable.environment = null;
+			if (renderable.bones != null) {
+				build.asIs.add(items.removeIndex(i));
+				continue;
+			}
+			// Sort the attributes now, comparing materials on the worker thread would sort them otherwise.
+			renderable.material.sort();
+			renderable.userData = getSourceMesh(renderable.meshPart.mesh);
+		}
+
+		if (executor == null) {
+			build.merge(merger);
+			upload(chunk);
+		} else {
+			build.merger = workerMerger;
+			chunk.result = executor.submit(build);
+		}
+	}
+
+	private void finish (Chunk chunk) {
+		AsyncResult<Void> result = chunk.result;
+		chunk.result = null;
+		result.get();
+		upload(chunk);
+	}
+
+	/** Uploads the merged vertices and indices of the pending build and makes it the current content of the chunk. */
+	private void upload (Chunk chunk) {
+		Build build = chunk.pending;
+		Array<Mesh> meshes = build.meshes;
+		for (int i = 0; i < build.mergedCount; i++) {
+			MergedMesh merged = build.merged.get(i);
+			int numVertices = merged.vertices.size / (merged.attributes.vertexSize / 4);
+			int numIndices = merged.indices.size;
+			Mesh mesh = i < meshes.size ? meshes.get(i) : null;
+			if (mesh == null || !mesh.getVertexAttributes().equals(merged.attributes) || mesh.getMaxVertices() < numVertices
+				|| mesh.getMaxIndices() < numIndices) {
+				if (mesh != null) mesh.dispose();
+				mesh = new Mesh(true, numVertices, numIndices, merged.attributes);
+				if (i < meshes.size)
+					meshes.set(i, mesh);
+				else
+					meshes.add(mesh);
+			}
+			mesh.setVertices(merged.vertices.items, 0, merged.vertices.size);
+			mesh.setIndices(merged.indices.items, 0, numIndices);
+			for (int j = merged.start; j < merged.end; j++)
+				build.renderables.get(j).meshPart.mesh = mesh;
+		}
+		while (meshes.size > build.mergedCount)
+			meshes.pop().dispose();
+
+		chunk.pending = chunk.current;
+		chunk.current = build;
+	}
+
+	private SourceMesh getSourceMesh (Mesh mesh) {
+		SourceMesh source = sourceMeshes.get(mesh);
+		if (source == null) {
+			source = new SourceMesh();
+			int numVertices = mesh.getNumVertices();
+			source.vertices = new float[numVertices * mesh.getVertexSize() / 4];
+			mesh.getVertices(source.vertices);
+			if (mesh.getNumIndices() > 0) {
+				source.indices = new short[mesh.getNumIndices()];
+				mesh.getIndices(source.indices);
+			} else {
+				source.indices = new short[numVertices];
+				for (int i = 0; i < numVertices; i++)
+					source.indices[i] = (short)i;
+			}
+			sourceMeshes.put(mesh, source);
+		}
+		return source;
+	}
+
+	static private class Chunk {
+		final long key;
+		final Array<RenderableProvider> providers = new Array<RenderableProvider>(false, 16);
+		/** The content being rendered and the content being merged, swapped after uploading. */
+		Build current = new Build(), pending = new Build();
+		AsyncResult<Void> result;
+		boolean dirty;
+
+		Chunk (long key) {
+			this.key = key;
+		}
+	}
+
+	/** Copy of the vertices and indices of a source mesh, which can be read on any thread. */
+	static private class SourceMesh {
+		float[] vertices;
+		short[] indices;
+	}
+
+	static private class MergedMesh {
+		VertexAttributes attributes;
+		final FloatArray vertices = new FloatArray();
+		final ShortArray indices = new ShortArray();
+		/** The range of the build's renderables using this mesh. */
+		int start, end;
+	}
+
+	/** The objects used for merging, one per thread. */
+	static private class Merger {
+		final MeshBuilder meshBuilder = new MeshBuilder();
+		final Sort sort = new Sort();
+		final ModelCache.Sorter sorter = new ModelCache.Sorter();
+		final BoundingBox bounds = new BoundingBox();
+		final Vector3 tmp = new Vector3();
+	}
+
+	static private class RenderablePool extends FlushablePool<Renderable> {
+		@Override
+		protected Renderable newObject () {
+			return new Renderable();
+		}
+	}
+
+	static private class Build implements AsyncTask<Void> {
+		final FlushablePool<Renderable> pool = new RenderablePool();
+		/** The renderables to merge, their user data is the {@link SourceMesh}. */
+		final Array<Renderable> items = new Array<Renderable>();
+		/** The renderables that are added as-is. */
+		final Array<Renderable> asIs = new Array<Renderable>();
+		/** The merged renderables, followed by the renderables that are added as-is. */
+		final Array<Renderable> renderables = new Array<Renderable>();
+		final Array<MergedMesh> merged = new Array<MergedMesh>();
+		final Array<Mesh> meshes = new Array<Mesh>();
+		final BoundingBox bounds = new BoundingBox();
+		int mergedCount;
+		Merger merger;
+
+		void reset () {
+			pool.flush();
+			items.clear();
+			asIs.clear();
+			renderables.clear();
+			mergedCount = 0;
+		}
+
+		@Override
+		public Void call () throws Exception {
+			merge(merger);
+			return null;
+		}
+
+		void merge (Merger merger) {
+			final MeshBuilder meshBuilder = merger.meshBuilder;
+			renderables.clear();
+			mergedCount = 0;
+			if (items.size > 0) {
+				merger.sort.sort(items, merger.sorter);
+
+				final Renderable first = items.get(0);
+				VertexAttributes vertexAttributes = first.meshPart.mesh.getVertexAttributes();
+				Material material = first.material;
+				int primitiveType = first.meshPart.primitiveType;
+				int start = 0;
+
+				meshBuilder.begin(vertexAttributes);
+				meshBuilder.part("", primitiveType, obtain(material).meshPart);
+				for (int i = 0, n = items.size; i < n; ++i) {
+					final Renderable renderable = items.get(i);
+					final SourceMesh source = (SourceMesh)renderable.userData;
+					final VertexAttributes va = renderable.meshPart.mesh.getVertexAttributes();
+					final Material mat = renderable.material;
+					final int pt = renderable.meshPart.primitiveType;
+
+					final int numVertices = source.vertices.length / (va.vertexSize / 4);
+					final int verticesToAdd = Math.min(numVertices, renderable.meshPart.size);
+					final boolean sameMesh = va.equals(vertexAttributes)
+						&& meshBuilder.getNumVertices() + verticesToAdd <= MeshBuilder.MAX_VERTICES;
+					final boolean samePart = sameMesh && pt == primitiveType && mat.same(material, true);
+
+					if (!samePart) {
+						if (!sameMesh) {
+							end(meshBuilder, vertexAttributes, start);
+							meshBuilder.begin(vertexAttributes = va);
+							start = renderables.size;
+						}
+						meshBuilder.part("", primitiveType = pt, obtain(material = mat).meshPart);
+					}
+
+					meshBuilder.setVertexTransform(renderable.worldTransform);
+					meshBuilder.addMesh(source.vertices, source.indices, renderable.meshPart.offset, renderable.meshPart.size);
+				}
+				end(meshBuilder, vertexAttributes, start);
+			}
+
+			bounds.inf();
+			for (int i = 0, n = renderables.size; i < n; i++) {
+				MeshPart meshPart = renderables.get(i).meshPart;
+				bounds.ext(merger.tmp.set(meshPart.center).sub(meshPart.halfExtents));
+				bounds.ext(merger.tmp.set(meshPart.center).add(meshPart.halfExtents));
+			}
+			for (int i = 0, n = asIs.size; i < n; i++)
+				bounds.ext(getBounds(asIs.get(i), merger.bounds, merger.tmp));
+			renderables.addAll(asIs);
+		}
+
+		private Renderable obtain (Material material) {
+			Renderable renderable = pool.obtain();
+			renderable.bones = null;
+			renderable.boneValues = null;
+			renderable.environment = null;
+			renderable.material = material;
+			renderable.meshPart.mesh = null;
+			renderable.shader = null;
+			renderable.userData = null;
+			renderable.worldTransform.idt();
+			renderables.add(renderable);
+			return renderable;
+		}
+
+		private void end (MeshBuilder meshBuilder, VertexAttributes attributes, int start) {
+			if (mergedCount == merged.size) merged.add(new MergedMesh());
+			MergedMesh mergedMesh = merged.get(mergedCount++);
+			mergedMesh.attributes = attributes;
+			mergedMesh.start = start;
+			mergedMesh.end = renderables.size;
+			meshBuilder.end(mergedMesh.vertices, mergedMesh.indices);
+		}
+
+		void dispose () {
+			for (int i = 0, n = meshes.size; i < n; i++)
+				meshes.get(i).dispose();
+			meshes.clear();
+			reset();
+		}
+	}
+}
@@ -26,6 +26,7 @@ import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
 import com.badlogic.gdx.graphics.g3d.attributes.FloatAttribute;
 import com.badlogic.gdx.graphics.g3d.attributes.TextureAttribute;
 import com.badlogic.gdx.graphics.g3d.model.Animation;
+import com.badlogic.gdx.graphics.g3d.model.LodGroup;
 import com.badlogic.gdx.graphics.g3d.model.MeshPart;
 import com.badlogic.gdx.graphics.g3d.model.Node;
 import com.badlogic.gdx.graphics.g3d.model.NodeAnimation;
@@ -210,6 +211,20 @@ public class Model implements Disposable {
 				NodePart nodePart = new NodePart();
 				nodePart.meshPart = meshPart;
 				nodePart.material = meshMaterial;
+				if (modelNodePart.lodMeshPartIds != null) {
+					nodePart.lod = new LodGroup(meshPart);
+					for (int i = 0; i < modelNodePart.lodMeshPartIds.length; i++) {
+						MeshPart lodPart = null;
+						for (MeshPart part : meshParts) {
+							if (modelNodePart.lodMeshPartIds[i].equals(part.id)) {
+								lodPart = part;
+								break;
+							}
+						}
+						if (lodPart == null) throw new GdxRuntimeException("Invalid node: " + node.id);
+						nodePart.lod.add(lodPart, modelNodePart.lodScreenSizes[i]);
+					}
+				}
 				node.parts.add(nodePart);
 				if (modelNodePart.bones != null) nodePartBones.put(nodePart, modelNodePart.bones);
 			}
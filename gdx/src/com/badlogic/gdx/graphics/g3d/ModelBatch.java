@@ -19,6 +19,13 @@ package com.badlogic.gdx.graphics.g3d;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes.Usage;
+import com.badlogic.gdx.graphics.g3d.attributes.BlendingAttribute;
+import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
+import com.badlogic.gdx.graphics.g3d.model.MeshPart;
 import com.badlogic.gdx.graphics.g3d.shaders.DefaultShader;
 import com.badlogic.gdx.graphics.g3d.utils.DefaultRenderableSorter;
 import com.badlogic.gdx.graphics.g3d.utils.DefaultShaderProvider;
@@ -28,9 +35,13 @@ import com.badlogic.gdx.graphics.g3d.utils.RenderableSorter;
 import com.badlogic.gdx.graphics.g3d.utils.ShaderProvider;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.FloatArray;
 import com.badlogic.gdx.utils.FlushablePool;
 import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
 import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.Pool.Poolable;
 
 /** Batches {@link Renderable} instances, fetches {@link Shader}s for them, sorts them and then renders them. Fetching the shaders
  * is done using a {@link ShaderProvider}, which defaults to {@link DefaultShaderProvider}. Sorting the renderables is done using
@@ -40,6 +51,9 @@ import com.badlogic.gdx.utils.Pool;
  * 
  * To provide multiple {@link Renderable}s at once a {@link RenderableProvider} can be used, e.g. a {@link ModelInstance}.
  * 
+ * When {@link #setInstancing(boolean) instancing} is enabled, renderables which only differ in their world transform and diffuse
+ * color are rendered with a single instanced draw call.
+ * 
  * @author xoppa, badlogic */
 public class ModelBatch implements Disposable {
 	protected static class RenderablePool extends FlushablePool<Renderable> {
@@ -56,6 +70,7 @@ public class ModelBatch implements Disposable {
 			renderable.meshPart.set("", null, 0, 0, 0);
 			renderable.shader = null;
 			renderable.userData = null;
+			renderable.boneValues = null;
 			return renderable;
 		}
 	}
@@ -71,6 +86,29 @@ public class ModelBatch implements Disposable {
 	protected final ShaderProvider shaderProvider;
 	/** the {@link RenderableSorter} **/
 	protected final RenderableSorter sorter;
+	/** Number of instanced draw calls since the last {@link #begin(Camera)}. **/
+	public int instancedDrawCalls;
+	/** Number of draw calls saved by instancing since the last {@link #begin(Camera)}, that is the number of renderables rendered
+	 * using instancing minus {@link #instancedDrawCalls}. **/
+	public int drawCallsSaved;
+
+	/** the {@link ShaderProvider} for instanced renderables, null if instancing is disabled **/
+	private ShaderProvider instancedShaderProvider;
+	private int minInstances = 4;
+	private final ObjectMap<InstanceGroup, InstanceGroup> instanceGroups = new ObjectMap<InstanceGroup, InstanceGroup>();
+	private final InstanceGroup instanceLookup = new InstanceGroup();
+	private final Array<InstanceGroup> renderableGroups = new Array<InstanceGroup>();
+	private final Pool<InstanceGroup> instanceGroupPool = new Pool<InstanceGroup>() {
+		@Override
+		protected InstanceGroup newObject () {
+			return new InstanceGroup();
+		}
+	};
+	/** The meshes instanced rendering was enabled on by this batch and their maximum number of instances. **/
+	private final ObjectIntMap<Mesh> instanceCapacities = new ObjectIntMap<Mesh>();
+	/** The meshes with instance data set for the current shader. **/
+	private final Array<Mesh> instancedMeshes = new Array<Mesh>();
+	private final static float[] noInstances = new float[0];
 
 	/** Construct a ModelBatch, using this constructor makes you responsible for calling context.begin() and context.end() yourself.
 	 * @param context The {@link RenderContext} to use.
@@ -150,6 +188,8 @@ public class ModelBatch implements Disposable {
 	public void begin (final Camera cam) {
 		if (camera != null) throw new GdxRuntimeException("Call end() first.");
 		camera = cam;
+		instancedDrawCalls = 0;
+		drawCallsSaved = 0;
 		if (ownContext) context.begin();
 	}
 
@@ -192,25 +232,160 @@ public class ModelBatch implements Disposable {
 		return sorter;
 	}
 
+	/** Enables or disables hardware instancing, using a {@link DefaultShaderProvider} with {@link DefaultShader.Config#instanced}
+	 * set. Instancing is only used when OpenGL ES 3.0 is available. See {@link #setInstancing(ShaderProvider)}. */
+	public void setInstancing (boolean enabled) {
+		if (enabled == (instancedShaderProvider != null)) return;
+		DefaultShader.Config config = null;
+		if (enabled) {
+			config = new DefaultShader.Config();
+			config.instanced = true;
+		}
+		setInstancing(enabled ? new DefaultShaderProvider(config) : null);
+	}
+
+	/** Sets the {@link ShaderProvider} used for instanced renderables, or null to disable instancing. The provider will be disposed
+	 * when instancing is disabled or this ModelBatch is disposed.
+	 * <p>
+	 * When enabled, {@link #flush()} groups opaque renderables that are rendered by a {@link DefaultShader} (not a subclass) and
+	 * share the same shader, mesh part, environment and material, ignoring the {@link ColorAttribute#Diffuse diffuse color}.
+	 * Renderables with bones or user data are not grouped. For groups of at least {@link #setMinInstances(int) minInstances}
+	 * renderables a single renderable is rendered instead, using a shader from the provider. Its mesh has its world transforms and diffuse colors set as
+	 * the "i_worldTrans" (mat4) and "i_color" (vec4) instance attributes, see {@link DefaultShader.Config#instanced}.
+	 * <p>
+	 * Instanced rendering is enabled on the grouped meshes, which keep their instance buffer until they are disposed. Meshes which
+	 * already had instanced rendering enabled otherwise are not grouped. */
+	public void setInstancing (ShaderProvider instancedShaderProvider) {
+		if (this.instancedShaderProvider != null && this.instancedShaderProvider != instancedShaderProvider)
+			this.instancedShaderProvider.dispose();
+		this.instancedShaderProvider = instancedShaderProvider;
+	}
+
+	/** @return whether instancing is enabled. */
+	public boolean isInstancing () {
+		return instancedShaderProvider != null;
+	}
+
+	/** @param minInstances the minimum number of renderables a group must have to be rendered using instancing, default 4. */
+	public void setMinInstances (int minInstances) {
+		if (minInstances < 2) throw new IllegalArgumentException("minInstances must be >= 2: " + minInstances);
+		this.minInstances = minInstances;
+	}
+
+	public int getMinInstances () {
+		return minInstances;
+	}
+
 	/** Flushes the batch, causing all {@link Renderable}s in the batch to be rendered. Can only be called after the call to
 	 * {@link #begin(Camera)} and before the call to {@link #end()}. */
 	public void flush () {
+		if (instancedShaderProvider != null && Gdx.gl30 != null) groupInstances();
 		sorter.sort(camera, renderables);
 		Shader currentShader = null;
 		for (int i = 0; i < renderables.size; i++) {
 			final Renderable renderable = renderables.get(i);
 			if (currentShader != renderable.shader) {
-				if (currentShader != null) currentShader.end();
+				if (currentShader != null) {
+					currentShader.end();
+					clearInstanceData();
+				}
 				currentShader = renderable.shader;
 				currentShader.begin(camera, context);
 			}
+			if (renderable.userData instanceof InstanceGroup) setInstanceData((InstanceGroup)renderable.userData);
 			currentShader.render(renderable);
 		}
 		if (currentShader != null) currentShader.end();
+		clearInstanceData();
+		if (instanceGroups.size > 0) {
+			for (InstanceGroup group : instanceGroups.values())
+				instanceGroupPool.free(group);
+			instanceGroups.clear();
+		}
 		renderablesPool.flush();
 		renderables.clear();
 	}
 
+	/** Replaces each group of renderables which can be rendered using instancing by a single renderable, with the group as user
+	 * data. */
+	private void groupInstances () {
+		final Array<Renderable> renderables = this.renderables;
+		final Array<InstanceGroup> renderableGroups = this.renderableGroups;
+		renderableGroups.clear();
+		for (int i = 0; i < renderables.size; i++) {
+			final Renderable renderable = renderables.get(i);
+			InstanceGroup group = null;
+			if (isInstanceable(renderable)) {
+				instanceLookup.set(renderable);
+				group = instanceGroups.get(instanceLookup);
+				if (group == null) {
+					group = instanceGroupPool.obtain();
+					group.set(renderable);
+					instanceGroups.put(group, group);
+				}
+				group.add(renderable);
+			}
+			renderableGroups.add(group);
+		}
+		instanceLookup.reset();
+		if (instanceGroups.size == 0) return;
+
+		int size = 0;
+		for (int i = 0, n = renderables.size; i < n; i++) {
+			final InstanceGroup group = renderableGroups.get(i);
+			if (group == null || group.count < minInstances) renderables.set(size++, renderables.get(i));
+		}
+		renderables.truncate(size);
+		renderableGroups.clear();
+
+		for (InstanceGroup group : instanceGroups.values()) {
+			if (group.count < minInstances) continue;
+			ensureInstanceCapacity(group.mesh, group.count);
+			final Renderable renderable = renderablesPool.obtain();
+			renderable.set(group.first);
+			renderable.userData = group;
+			renderable.shader = null;
+			renderable.shader = instancedShaderProvider.getShader(renderable);
+			renderables.add(renderable);
+		}
+	}
+
+	/** @return whether the renderable can be rendered as part of an instanced draw call. */
+	protected boolean isInstanceable (final Renderable renderable) {
+		final Mesh mesh = renderable.meshPart.mesh;
+		if (renderable.bones != null || renderable.userData != null || renderable.shader == null
+			|| renderable.shader.getClass() != DefaultShader.class) return false;
+		if (mesh == null || (mesh.isInstanced() && !instanceCapacities.containsKey(mesh))) return false;
+		if (renderable.material != null && renderable.material.has(BlendingAttribute.Type)
+			&& ((BlendingAttribute)renderable.material.get(BlendingAttribute.Type)).blended) return false;
+		return renderable.worldTransform.det3x3() != 0;
+	}
+
+	private void ensureInstanceCapacity (final Mesh mesh, final int count) {
+		final int capacity = instanceCapacities.get(mesh, -1);
+		if (capacity >= count) return;
+		if (capacity != -1) mesh.disableInstancedRendering();
+		final int newCapacity = Math.max(count, (int)(capacity * 1.75f));
+		mesh.enableInstancedRendering(false, newCapacity, new VertexAttribute(Usage.Generic, 4, "i_worldTrans", 0),
+			new VertexAttribute(Usage.Generic, 4, "i_worldTrans", 1), new VertexAttribute(Usage.Generic, 4, "i_worldTrans", 2),
+			new VertexAttribute(Usage.Generic, 4, "i_worldTrans", 3), new VertexAttribute(Usage.ColorUnpacked, 4, "i_color"));
+		instanceCapacities.put(mesh, newCapacity);
+	}
+
+	private void setInstanceData (final InstanceGroup group) {
+		group.mesh.setInstanceData(group.data.items, 0, group.data.size);
+		if (!instancedMeshes.contains(group.mesh, true)) instancedMeshes.add(group.mesh);
+		instancedDrawCalls++;
+		drawCallsSaved += group.count - 1;
+	}
+
+	/** Removes the instance data from the meshes rendered by the previous shader, so they are rendered normally again. */
+	private void clearInstanceData () {
+		for (int i = 0; i < instancedMeshes.size; i++)
+			instancedMeshes.get(i).setInstanceData(noInstances, 0, 0);
+		instancedMeshes.clear();
+	}
+
 	/** End rendering one or more {@link Renderable}s. Must be called after a call to {@link #begin(Camera)}. This will flush the
 	 * batch, causing any renderables provided using one of the render() methods to be rendered. After a call to this method the
 	 * OpenGL context can be altered again. */
@@ -332,5 +507,78 @@ public class ModelBatch implements Disposable {
 	@Override
 	public void dispose () {
 		shaderProvider.dispose();
+		if (instancedShaderProvider != null) instancedShaderProvider.dispose();
+		instanceCapacities.clear();
+	}
+
+	/** Renderables that can be rendered with a single instanced draw call, also used as the key to find the group of a
+	 * renderable. */
+	static private class InstanceGroup implements Poolable {
+		Renderable first;
+		Mesh mesh;
+		int count;
+		final FloatArray data = new FloatArray(20 * 16);
+		int hash;
+
+		void set (final Renderable renderable) {
+			first = renderable;
+			final MeshPart part = renderable.meshPart;
+			mesh = part.mesh;
+			int h = System.identityHashCode(mesh);
+			h = 31 * h + part.offset;
+			h = 31 * h + part.size;
+			h = 31 * h + part.primitiveType;
+			h = 31 * h + System.identityHashCode(renderable.shader);
+			h = 31 * h + System.identityHashCode(renderable.environment);
+			if (renderable.material != null) {
+				for (Attribute attribute : renderable.material)
+					if (attribute.type != ColorAttribute.Diffuse) h = 31 * h + attribute.hashCode();
+			}
+			hash = h;
+		}
+
+		void add (final Renderable renderable) {
+			count++;
+			data.addAll(renderable.worldTransform.val);
+			final ColorAttribute diffuse = renderable.material == null ? null
+				: (ColorAttribute)renderable.material.get(ColorAttribute.Diffuse);
+			if (diffuse == null)
+				data.add(1, 1, 1, 1);
+			else {
+				final Color color = diffuse.color;
+				data.add(color.r, color.g, color.b, color.a);
+			}
+		}
+
+		@Override
+		public void reset () {
+			first = null;
+			mesh = null;
+			count = 0;
+			data.clear();
+		}
+
+		@Override
+		public int hashCode () {
+			return hash;
+		}
+
+		@Override
+		public boolean equals (Object object) {
+			if (!(object instanceof InstanceGroup)) return false;
+			final Renderable a = first, b = ((InstanceGroup)object).first;
+			if (hash != ((InstanceGroup)object).hash || a.shader != b.shader || a.environment != b.environment
+				|| !a.meshPart.equals(b.meshPart)) return false;
+			return sameIgnoringDiffuse(a.material, b.material);
+		}
+
+		static private boolean sameIgnoringDiffuse (final Material a, final Material b) {
+			if (a == b) return true;
+			if (a == null || b == null || (a.getMask() | ColorAttribute.Diffuse) != (b.getMask() | ColorAttribute.Diffuse))
+				return false;
+			for (Attribute attribute : a)
+				if (attribute.type != ColorAttribute.Diffuse && !attribute.equals(b.get(attribute.type))) return false;
+			return true;
+		}
 	}
 }
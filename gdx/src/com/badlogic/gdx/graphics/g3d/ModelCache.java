@@ -229,6 +229,7 @@ public class ModelCache implements Disposable, RenderableProvider {
 	private Renderable obtainRenderable (Material material, int primitiveType) {
 		Renderable result = renderablesPool.obtain();
 		result.bones = null;
+		result.boneValues = null;
 		result.environment = null;
 		result.material = material;
 		result.meshPart.mesh = null;
@@ -16,7 +16,10 @@
 
 package com.badlogic.gdx.graphics.g3d;
 
+import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.g3d.model.Animation;
+import com.badlogic.gdx.graphics.g3d.model.LodGroup;
+import com.badlogic.gdx.graphics.g3d.model.MeshPart;
 import com.badlogic.gdx.graphics.g3d.model.Node;
 import com.badlogic.gdx.graphics.g3d.model.NodeAnimation;
 import com.badlogic.gdx.graphics.g3d.model.NodeKeyframe;
@@ -391,6 +394,56 @@ public class ModelInstance implements RenderableProvider {
 		}
 	}
 
+	/** Sets the {@link NodePart#meshPart} of each part with {@link NodePart#lod levels of detail} to the level matching the size
+	 * of the part on screen, see {@link LodGroup}. Call after changing the {@link #transform} or the camera and before getting the
+	 * renderables.
+	 * @return the number of parts that changed their level. */
+	public int selectLod (Camera camera) {
+		int changed = 0;
+		for (int i = 0, n = nodes.size; i < n; i++)
+			changed += selectLod(nodes.get(i), camera);
+		return changed;
+	}
+
+	private final static Matrix4 tmpLodTransform = new Matrix4();
+	private final static Vector3 tmpLodCenter = new Vector3();
+
+	protected int selectLod (Node node, Camera camera) {
+		int changed = 0;
+		for (int i = 0, n = node.parts.size; i < n; i++) {
+			NodePart nodePart = node.parts.get(i);
+			LodGroup lod = nodePart.lod;
+			if (lod == null || lod.size() == 0) continue;
+			Matrix4 world;
+			if (nodePart.bones == null && transform != null)
+				world = tmpLodTransform.set(transform).mul(node.globalTransform);
+			else if (transform != null)
+				world = transform;
+			else
+				world = node.globalTransform;
+			MeshPart detailed = lod.meshParts.first();
+			Vector3 center = tmpLodCenter.set(detailed.center).mul(world);
+			// The w of the center in clip space is its distance along the view direction, or 1 for orthographic projections.
+			float[] m = camera.combined.val;
+			float w = m[Matrix4.M30] * center.x + m[Matrix4.M31] * center.y + m[Matrix4.M32] * center.z + m[Matrix4.M33];
+			float screenSize = Float.POSITIVE_INFINITY;
+			if (w > 0) {
+				float scale = (float)Math.sqrt(
+					Math.max(world.getScaleXSquared(), Math.max(world.getScaleYSquared(), world.getScaleZSquared())));
+				screenSize = detailed.radius * scale * Math.abs(camera.projection.val[Matrix4.M11]) / w;
+			}
+			int level = lod.getLevel(screenSize, nodePart.lodLevel);
+			if (level != nodePart.lodLevel) {
+				nodePart.meshPart.set(lod.meshParts.get(level));
+				nodePart.lodLevel = level;
+				changed++;
+			}
+		}
+		for (Node child : node.getChildren())
+			changed += selectLod(child, camera);
+		return changed;
+	}
+
 	/** Calculates the local and world transform of all {@link Node} instances in this model, recursively. First each
 	 * {@link Node#localTransform} transform is calculated based on the translation, rotation and scale of each Node. Then each
 	 * {@link Node#calculateWorldTransform()} is calculated, based on the parent's world transform and the local transform of each
@@ -81,6 +81,9 @@ public class Renderable {
 	 * combine multiple bones into a single transformation matrix, which is used to transform the vertex to model space. In other
 	 * words: the bone transformation is applied prior to the {@link #worldTransform}. */
 	public Matrix4 bones[];
+	/** The bone transformations as consecutive column major matrices, or null. When not null, shaders can use these values
+	 * instead of copying each matrix of {@link #bones}, which must still be set. */
+	public float[] boneValues;
 	/** The {@link Shader} to be used to render this Renderable using a {@link ModelBatch}, may be null. It is not guaranteed that
 	 * the shader will be used, the used {@link ShaderProvider} is responsible for actually choosing the correct shader to use. **/
 	public Shader shader;
@@ -92,6 +95,7 @@ public class Renderable {
 		material = renderable.material;
 		meshPart.set(renderable.meshPart);
 		bones = renderable.bones;
+		boneValues = renderable.boneValues;
 		environment = renderable.environment;
 		shader = renderable.shader;
 		userData = renderable.userData;
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g3d.attributes;
+
+import com.badlogic.gdx.graphics.g3d.Attribute;
+import com.badlogic.gdx.graphics.g3d.environment.ClusteredLights;
+
+/** An {@link Attribute} which makes the {@link com.badlogic.gdx.graphics.g3d.shaders.DefaultShader} light the point and spot
+ * lights of the environment per fragment with the lights of {@link ClusteredLights}, instead of uploading them for each
+ * renderable. The clustered lights are stored by reference, the {@link #copy()} method will not create new clustered lights. */
+public class ClusteredLightsAttribute extends Attribute {
+	public final static String Alias = "clusteredLights";
+	public final static long Type = register(Alias);
+
+	public final static boolean is (final long mask) {
+		return (mask & Type) == mask;
+	}
+
+	public final ClusteredLights clusteredLights;
+
+	public ClusteredLightsAttribute (final ClusteredLights clusteredLights) {
+		super(Type);
+		this.clusteredLights = clusteredLights;
+	}
+
+	public ClusteredLightsAttribute (final ClusteredLightsAttribute copyFrom) {
+		this(copyFrom.clusteredLights);
+	}
+
+	@Override
+	public ClusteredLightsAttribute copy () {
+		return new ClusteredLightsAttribute(this);
+	}
+
+	@Override
+	public int hashCode () {
+		int result = super.hashCode();
+		result = 1229 * result + clusteredLights.hashCode();
+		return result;
+	}
+
+	@Override
+	public int compareTo (Attribute o) {
+		if (type != o.type) return type < o.type ? -1 : 1;
+		final ClusteredLights other = ((ClusteredLightsAttribute)o).clusteredLights;
+		return clusteredLights == other ? 0 : (clusteredLights.hashCode() < other.hashCode() ? -1 : 1);
+	}
+}
@@ -130,7 +130,7 @@ public class CameraGroupStrategy implements GroupStrategy, Disposable {
 	public void beforeGroup (int group, Array<Decal> contents) {
 		if (group == GROUP_BLEND) {
 			Gdx.gl.glEnable(GL20.GL_BLEND);
-			contents.sort(cameraSorter);
+			sortBlended(contents);
 		} else {
 			for (int i = 0, n = contents.size; i < n; i++) {
 				Decal decal = contents.get(i);
@@ -155,6 +155,12 @@ public class CameraGroupStrategy implements GroupStrategy, Disposable {
 		}
 	}
 
+	/** Sorts the blended decals back to front, by default with the comparator given to the constructor.
+	 * @see RadixCameraGroupStrategy */
+	protected void sortBlended (Array<Decal> contents) {
+		contents.sort(cameraSorter);
+	}
+
 	@Override
 	public void afterGroup (int group) {
 		if (group == GROUP_BLEND) {
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g3d.decals;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.g3d.utils.DepthSorter;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+
+/** A {@link CameraGroupStrategy} that sorts the blended decals back to front with a {@link DepthSorter} instead of a comparator.
+ * The sort takes linear time, which is faster for many thousands of transparent decals. Decals whose distances to the camera are
+ * closer than the precision of the sorter keep the order they were added in. */
+public class RadixCameraGroupStrategy extends CameraGroupStrategy {
+	/** The sorter, which can be configured to use more key bits or frame to frame coherence. */
+	public final DepthSorter sorter = new DepthSorter();
+	private float[] depths = new float[0];
+	private Decal[] sorted = new Decal[0];
+
+	public RadixCameraGroupStrategy (Camera camera) {
+		super(camera);
+	}
+
+	@Override
+	protected void sortBlended (Array<Decal> contents) {
+		final int n = contents.size;
+		if (depths.length < n) {
+			depths = new float[n];
+			sorted = new Decal[n];
+		}
+		// The backing array is not necessarily a Decal[], so the decals are accessed through get and set.
+		final Vector3 position = camera.position;
+		for (int i = 0; i < n; i++)
+			depths[i] = -position.dst(contents.get(i).position); // Farthest first.
+
+		final int[] order = sorter.sort(depths, n);
+		for (int i = 0; i < n; i++)
+			sorted[i] = contents.get(order[i]);
+		for (int i = 0; i < n; i++)
+			contents.set(i, sorted[i]);
+		for (int i = 0; i < n; i++)
+			sorted[i] = null;
+	}
+}
@@ -0,0 +1,428 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g3d.environment;
+
+import java.nio.FloatBuffer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.GL30;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.graphics.Texture.TextureWrap;
+import com.badlogic.gdx.graphics.g3d.Environment;
+import com.badlogic.gdx.graphics.g3d.attributes.ClusteredLightsAttribute;
+import com.badlogic.gdx.graphics.g3d.attributes.PointLightsAttribute;
+import com.badlogic.gdx.graphics.g3d.attributes.SpotLightsAttribute;
+import com.badlogic.gdx.graphics.glutils.FloatTextureData;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.async.ParallelExecutor;
+
+/** Assigns point and spot lights to clusters, a grid of tiles on the screen times slices of the view depth, so a shader only
+ * has to light each fragment with the lights of its cluster. To use it with the
+ * {@link com.badlogic.gdx.graphics.g3d.shaders.DefaultShader}, add a {@link ClusteredLightsAttribute} to the environment and
+ * update the clusters each frame before rendering:
+ *
+ * <pre>
+ * environment.set(new ClusteredLightsAttribute(clusteredLights));
+ * ...
+ * clusteredLights.update(camera, environment);
+ * modelBatch.begin(camera);
+ * modelBatch.render(instances, environment);
+ * modelBatch.end();
+ * </pre>
+ *
+ * The point and spot lights of the environment are then lit per fragment and no longer set as uniforms for each renderable, so
+ * their number is only limited by {@link #maxLights} and {@link #maxLightsPerCluster}. The lights and the light list of each
+ * cluster are stored in a float texture, which requires OpenGL ES 3.0 or the OES_texture_float extension, and high precision
+ * in fragment shaders.
+ * <p>
+ * The slices are spaced exponentially between the near and far plane of the camera. A light is assigned to the clusters which
+ * overlap the bounds of the sphere outside of which its attenuated intensity is below {@link #threshold}, spot lights use the
+ * same sphere. The lights are assigned on multiple threads when set with {@link #setThreads(int)}, each thread then assigns
+ * all lights to a range of slices. The other methods must be called on a single thread. */
+public class ClusteredLights implements Disposable {
+	/** The width of the texture. A power of two, so the shader can compute the texel of an index exactly. */
+	static public final int TEXTURE_WIDTH = 1024;
+	/** The number of texels per light: the position and range, the color and spot exponent, the spot direction and cosine of the
+	 * cutoff angle. */
+	static public final int LIGHT_TEXELS = 3;
+
+	public final int tilesX, tilesY, slices;
+	/** The maximum number of lights, further lights are dropped. */
+	public final int maxLights;
+	/** The maximum number of lights of a cluster, further lights are dropped. */
+	public final int maxLightsPerCluster;
+	/** The intensity below which a light is too far away to affect a cluster. Default is 1/256, one step of an 8 bit color. */
+	public float threshold = 1 / 256f;
+	/** The minimum number of slices assigned by a thread. */
+	public int minSlicesPerThread = 2;
+
+	/** The number of lights in view after the last update, at most {@link #maxLights}. */
+	public int lightCount;
+	/** The number of lights in view which were dropped by the last update, because there were more than {@link #maxLights}. */
+	public int droppedLights;
+	/** The number of lights assigned to clusters by the last update, summed over all clusters. */
+	public int assignmentCount;
+	/** The number of lights not assigned to clusters by the last update, because the clusters already had
+	 * {@link #maxLightsPerCluster} lights. */
+	public int overflowCount;
+	/** The time the last assignment took, in nanoseconds. */
+	public long assignNanos;
+
+	private final int clusterCount;
+	/** Per cluster the number of lights and {@link #maxLightsPerCluster} light indices. */
+	private final int[] counts, clusterLights;
+	/** Per light in view the x, y, depth and range in view space and the first and last slice. */
+	private float[] viewLights = new float[4 * 64];
+	private int[] lightSlices = new int[2 * 64];
+	private final float[] sliceDepths;
+	/** The texels of the texture: the header of each cluster, the lights and the light indices of the clusters. */
+	private final float[] data;
+	private final int textureHeight;
+	private int dataSize;
+	private Texture texture;
+	private boolean dirty;
+	private float depthScale, depthBias;
+	private final Matrix4 projection = new Matrix4();
+	private final Vector3 tmp = new Vector3();
+	private final ParallelExecutor executor = new ParallelExecutor("ClusteredLights");
+	private AssignTask[] tasks = {new AssignTask()};
+	private int taskCount;
+	private final ParallelExecutor.Task assignTask = new ParallelExecutor.Task() {
+		public void run (int index) {
+			assignSlices(slices * index / taskCount, slices * (index + 1) / taskCount, tasks[index]);
+		}
+	};
+
+	/** Creates 16x9 tiles with 24 slices for up to 1024 lights, 32 per cluster. */
+	public ClusteredLights () {
+		this(16, 9, 24, 1024, 32);
+	}
+
+	/** @param tilesX the number of tiles along the width of the screen.
+	 * @param tilesY the number of tiles along the height of the screen.
+	 * @param slices the number of slices between the near and far plane.
+	 * @param maxLights the maximum number of lights.
+	 * @param maxLightsPerCluster the maximum number of lights of a cluster, which is also the length of the light loop in the
+	 *           shader. */
+	public ClusteredLights (int tilesX, int tilesY, int slices, int maxLights, int maxLightsPerCluster) {
+		if (tilesX < 1 || tilesY < 1 || slices < 1)
+			throw new IllegalArgumentException("tilesX, tilesY and slices must be >= 1: " + tilesX + ", " + tilesY + ", " + slices);
+		if (maxLights < 1 || maxLightsPerCluster < 1)
+			throw new IllegalArgumentException("maxLights and maxLightsPerCluster must be >= 1: " + maxLights + ", "
+				+ maxLightsPerCluster);
+		this.tilesX = tilesX;
+		this.tilesY = tilesY;
+		this.slices = slices;
+		this.maxLights = maxLights;
+		this.maxLightsPerCluster = maxLightsPerCluster;
+		clusterCount = tilesX * tilesY * slices;
+		counts = new int[clusterCount];
+		clusterLights = new int[clusterCount * maxLightsPerCluster];
+		sliceDepths = new float[slices + 1];
+		int texels = clusterCount + maxLights * LIGHT_TEXELS + clusterCount * ((maxLightsPerCluster + 3) / 4);
+		textureHeight = (texels + TEXTURE_WIDTH - 1) / TEXTURE_WIDTH;
+		data = new float[TEXTURE_WIDTH * textureHeight * 4];
+	}
+
+	/** Sets the number of threads assigning the lights, including the calling thread. With more than one thread, worker threads
+	 * are created which must be released with {@link #dispose()}. Default is 1.
+	 * @see com.badlogic.gdx.utils.async.ThreadUtils#availableProcessors() */
+	public void setThreads (int threads) {
+		executor.setThreads(threads);
+		if (tasks.length < threads) {
+			tasks = new AssignTask[threads];
+			for (int i = 0; i < threads; i++)
+				tasks[i] = new AssignTask();
+		}
+	}
+
+	/** @return the number of threads assigning the lights, including the calling thread. */
+	public int getThreads () {
+		return executor.getThreads();
+	}
+
+	/** Assigns the point and spot lights of the environment to the clusters of the camera and uploads them to the texture. Must
+	 * be called before {@link com.badlogic.gdx.graphics.g3d.ModelBatch#begin(Camera)}, as it binds the texture. */
+	public void update (Camera camera, Environment environment) {
+		final PointLightsAttribute pla = environment.get(PointLightsAttribute.class, PointLightsAttribute.Type);
+		final SpotLightsAttribute sla = environment.get(SpotLightsAttribute.class, SpotLightsAttribute.Type);
+		assign(camera, pla == null ? null : pla.lights, sla == null ? null : sla.lights);
+		upload();
+	}
+
+	/** Assigns the lights to the clusters of the camera, without uploading them. Can be called without an OpenGL context.
+	 * @param pointLights may be null.
+	 * @param spotLights may be null. */
+	public void assign (Camera camera, Array<PointLight> pointLights, Array<SpotLight> spotLights) {
+		long start = TimeUtils.nanoTime();
+		final float near = camera.near, far = camera.far;
+		depthScale = slices / (float)Math.log(far / near);
+		depthBias = -(float)Math.log(near) * depthScale;
+		for (int i = 0; i <= slices; i++)
+			sliceDepths[i] = near * (float)Math.pow(far / near, i / (float)slices);
+		projection.set(camera.projection);
+
+		lightCount = 0;
+		droppedLights = 0;
+		if (pointLights != null) {
+			for (int i = 0, n = pointLights.size; i < n; i++) {
+				final PointLight light = pointLights.get(i);
+				addLight(camera, light.position, light.color, light.intensity, null, 0, 0);
+			}
+		}
+		if (spotLights != null) {
+			for (int i = 0, n = spotLights.size; i < n; i++) {
+				final SpotLight light = spotLights.get(i);
+				addLight(camera, light.position, light.color, light.intensity, light.direction,
+					MathUtils.cosDeg(light.cutoffAngle), light.exponent);
+			}
+		}
+
+		taskCount = Math.max(1, Math.min(executor.getThreads(), slices / Math.max(1, minSlicesPerThread)));
+		// Always waits for all tasks, the clusters must not be written by the workers once this returns.
+		executor.run(taskCount, assignTask);
+		assignmentCount = 0;
+		overflowCount = 0;
+		for (int i = 0; i < taskCount; i++) {
+			assignmentCount += tasks[i].assignments;
+			overflowCount += tasks[i].overflows;
+		}
+		pack();
+		assignNanos = TimeUtils.nanoTime() - start;
+	}
+
+	/** Adds a light in view, writing its texels and its bounds in view space.
+	 * @param direction the spot direction, null for a point light. */
+	private void addLight (Camera camera, Vector3 position, Color color, float intensity, Vector3 direction, float cutoff,
+		float exponent) {
+		final float brightest = Math.max(color.r, Math.max(color.g, color.b)) * intensity;
+		// The shader attenuates the intensity by 1 / (1 + distance^2).
+		if (brightest <= threshold) return;
+		final float range = (float)Math.sqrt(brightest / threshold - 1);
+		final Vector3 view = tmp.set(position).mul(camera.view);
+		final float depth = -view.z;
+		if (depth + range < camera.near || depth - range > camera.far) return;
+		if (lightCount == maxLights) {
+			droppedLights++;
+			return;
+		}
+
+		final int index = lightCount++;
+		if (viewLights.length < lightCount * 4) {
+			float[] newViewLights = new float[Math.max(lightCount * 4, viewLights.length * 2)];
+			System.arraycopy(viewLights, 0, newViewLights, 0, viewLights.length);
+			viewLights = newViewLights;
+			int[] newLightSlices = new int[newViewLights.length / 2];
+			System.arraycopy(lightSlices, 0, newLightSlices, 0, lightSlices.length);
+			lightSlices = newLightSlices;
+		}
+		viewLights[index * 4] = view.x;
+		viewLights[index * 4 + 1] = view.y;
+		viewLights[index * 4 + 2] = depth;
+		viewLights[index * 4 + 3] = range;
+		lightSlices[index * 2] = slice(depth - range);
+		lightSlices[index * 2 + 1] = slice(depth + range);
+
+		final float[] data = this.data;
+		int i = (clusterCount + index * LIGHT_TEXELS) * 4;
+		data[i++] = position.x;
+		data[i++] = position.y;
+		data[i++] = position.z;
+		data[i++] = range;
+		data[i++] = color.r * intensity;
+		data[i++] = color.g * intensity;
+		data[i++] = color.b * intensity;
+		data[i++] = direction == null ? 0 : exponent;
+		data[i++] = direction == null ? 0 : direction.x;
+		data[i++] = direction == null ? 0 : direction.y;
+		data[i++] = direction == null ? 0 : direction.z;
+		// A cosine below -1 marks a point light.
+		data[i] = direction == null ? -2 : cutoff;
+	}
+
+	/** @return the slice of the view depth, clamped to the slices. */
+	private int slice (float depth) {
+		if (depth <= sliceDepths[0]) return 0;
+		return Math.min(slices - 1, (int)((float)Math.log(depth) * depthScale + depthBias));
+	}
+
+	/** Assigns the lights to the clusters of the slices from start (inclusive) to end (exclusive). */
+	void assignSlices (int start, int end, AssignTask task) {
+		final int tilesX = this.tilesX, tilesY = this.tilesY, maxLightsPerCluster = this.maxLightsPerCluster;
+		final int[] counts = this.counts, clusterLights = this.clusterLights, lightSlices = this.lightSlices;
+		final float[] viewLights = this.viewLights, m = projection.val;
+		int assignments = 0, overflows = 0;
+		for (int slice = start; slice < end; slice++) {
+			final int sliceStart = slice * tilesX * tilesY;
+			for (int i = sliceStart, n = sliceStart + tilesX * tilesY; i < n; i++)
+				counts[i] = 0;
+			final float sliceNear = sliceDepths[slice], sliceFar = sliceDepths[slice + 1];
+			for (int light = 0, lightCount = this.lightCount; light < lightCount; light++) {
+				if (slice < lightSlices[light * 2] || slice > lightSlices[light * 2 + 1]) continue;
+				final float x = viewLights[light * 4], y = viewLights[light * 4 + 1];
+				final float depth = viewLights[light * 4 + 2], range = viewLights[light * 4 + 3];
+				final float near = Math.max(depth - range, sliceNear), far = Math.min(depth + range, sliceFar);
+				if (near > far) continue;
+				// The radius of the largest cross section of the sphere within the slice.
+				final float distance = depth < near ? near - depth : (depth > far ? depth - far : 0);
+				final float radius = (float)Math.sqrt(Math.max(0, range * range - distance * distance));
+
+				// The bounds on screen of the box around the cross sections, from its corners.
+				float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+				float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+				for (int corner = 0; corner < 8; corner++) {
+					final float cx = (corner & 1) == 0 ? x - radius : x + radius;
+					final float cy = (corner & 2) == 0 ? y - radius : y + radius;
+					final float cz = (corner & 4) == 0 ? -near : -far;
+					final float w = m[Matrix4.M30] * cx + m[Matrix4.M31] * cy + m[Matrix4.M32] * cz + m[Matrix4.M33];
+					if (w <= 0) {
+						minX = minY = -1;
+						maxX = maxY = 1;
+						break;
+					}
+					final float px = (m[Matrix4.M00] * cx + m[Matrix4.M01] * cy + m[Matrix4.M02] * cz + m[Matrix4.M03]) / w;
+					final float py = (m[Matrix4.M10] * cx + m[Matrix4.M11] * cy + m[Matrix4.M12] * cz + m[Matrix4.M13]) / w;
+					minX = Math.min(minX, px);
+					minY = Math.min(minY, py);
+					maxX = Math.max(maxX, px);
+					maxY = Math.max(maxY, py);
+				}
+				if (maxX < -1 || minX > 1 || maxY < -1 || minY > 1) continue;
+				final int x0 = Math.max(0, (int)Math.floor((minX * 0.5f + 0.5f) * tilesX));
+				final int x1 = Math.min(tilesX - 1, (int)Math.floor((maxX * 0.5f + 0.5f) * tilesX));
+				final int y0 = Math.max(0, (int)Math.floor((minY * 0.5f + 0.5f) * tilesY));
+				final int y1 = Math.min(tilesY - 1, (int)Math.floor((maxY * 0.5f + 0.5f) * tilesY));
+				for (int ty = y0; ty <= y1; ty++) {
+					for (int tx = x0; tx <= x1; tx++) {
+						final int cluster = sliceStart + ty * tilesX + tx;
+						final int clusterCount = counts[cluster];
+						if (clusterCount == maxLightsPerCluster) {
+							overflows++;
+							continue;
+						}
+						clusterLights[cluster * maxLightsPerCluster + clusterCount] = light;
+						counts[cluster] = clusterCount + 1;
+						assignments++;
+					}
+				}
+			}
+		}
+		task.assignments = assignments;
+		task.overflows = overflows;
+	}
+
+	/** Writes the header of each cluster and packs the light indices of the clusters, four per texel. */
+	private void pack () {
+		final float[] data = this.data;
+		final int[] counts = this.counts, clusterLights = this.clusterLights;
+		int texel = clusterCount + maxLights * LIGHT_TEXELS;
+		for (int cluster = 0; cluster < clusterCount; cluster++) {
+			final int count = counts[cluster];
+			data[cluster * 4] = texel;
+			data[cluster * 4 + 1] = count;
+			for (int i = 0, d = texel * 4, l = cluster * maxLightsPerCluster; i < count; i++)
+				data[d + i] = clusterLights[l + i];
+			texel += (count + 3) / 4;
+		}
+		dataSize = texel * 4;
+		dirty = true;
+	}
+
+	/** Uploads the clusters to the texture, creating it if needed. */
+	public void upload () {
+		if (texture == null) {
+			texture = new Texture(new FloatTextureData(TEXTURE_WIDTH, textureHeight, GL30.GL_RGBA32F, GL20.GL_RGBA, GL20.GL_FLOAT,
+				false));
+			texture.setFilter(TextureFilter.Nearest, TextureFilter.Nearest);
+			texture.setWrap(TextureWrap.ClampToEdge, TextureWrap.ClampToEdge);
+		}
+		if (!dirty) return;
+		dirty = false;
+		final int rows = (dataSize / 4 + TEXTURE_WIDTH - 1) / TEXTURE_WIDTH;
+		if (rows == 0) return;
+		// The buffer of the texture data is kept, so a lost context restores the last clusters.
+		final FloatBuffer buffer = ((FloatTextureData)texture.getTextureData()).getBuffer();
+		buffer.clear();
+		buffer.put(data, 0, rows * TEXTURE_WIDTH * 4);
+		buffer.flip();
+		texture.bind();
+		Gdx.gl.glTexSubImage2D(GL20.GL_TEXTURE_2D, 0, 0, 0, TEXTURE_WIDTH, rows, GL20.GL_RGBA, GL20.GL_FLOAT, buffer);
+	}
+
+	/** @return the texture with the clusters, see {@link #upload()}. */
+	public Texture getTexture () {
+		return texture;
+	}
+
+	/** @return the height of the texture in texels, its width is {@link #TEXTURE_WIDTH}. */
+	public int getTextureHeight () {
+		return textureHeight;
+	}
+
+	/** @return the index of the first texel of the lights, which follows the texel of each cluster. */
+	public int getLightStart () {
+		return clusterCount;
+	}
+
+	/** @return the factor of the logarithm of the view depth for the slice, see {@link #getDepthBias()}. */
+	public float getDepthScale () {
+		return depthScale;
+	}
+
+	/** @return the slice of a view depth is log(depth) * {@link #getDepthScale()} + depthBias. */
+	public float getDepthBias () {
+		return depthBias;
+	}
+
+	/** @return the index of the cluster of a tile and slice. */
+	public int getCluster (int tileX, int tileY, int slice) {
+		return (slice * tilesY + tileY) * tilesX + tileX;
+	}
+
+	/** @return the number of lights of the cluster after the last update. */
+	public int getLightCount (int cluster) {
+		return counts[cluster];
+	}
+
+	/** @return the index of a light of the cluster after the last update, the point lights are followed by the spot lights but
+	 *         lights outside of the view are skipped. */
+	public int getLight (int cluster, int index) {
+		return clusterLights[cluster * maxLightsPerCluster + index];
+	}
+
+	/** Releases the texture and the worker threads, see {@link #setThreads(int)}. */
+	@Override
+	public void dispose () {
+		if (texture != null) texture.dispose();
+		texture = null;
+		executor.dispose();
+	}
+
+	/** The statistics of the slices assigned by one thread. */
+	static private class AssignTask {
+		int assignments, overflows;
+	}
+}
@@ -20,7 +20,9 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector3;
 
-/** Note that the default shader doesn't support spot lights, you'll have to supply your own shader to use this class.
+/** Note that the default shader only supports spot lights with {@link ClusteredLights}, which use the cutoff angle in degrees
+ * from the direction and the exponent of the cosine of the angle. Otherwise you'll have to supply your own shader to use this
+ * class.
  * @author realitix */
 public class SpotLight extends BaseLight<SpotLight> {
 	public final Vector3 position = new Vector3();
@@ -41,6 +41,7 @@ import com.badlogic.gdx.utils.ArrayMap;
 import com.badlogic.gdx.utils.BaseJsonReader;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.UBJsonReader;
 
 public class G3dModelLoader extends ModelLoader<ModelLoader.ModelParameters> {
 	public static final short VERSION_HI = 0;
@@ -62,7 +63,14 @@ public class G3dModelLoader extends ModelLoader<ModelLoader.ModelParameters> {
 	}
 
 	public ModelData parseModel (FileHandle handle) {
-		JsonValue json = reader.parse(handle);
+		JsonValue json;
+		if (reader.getClass() == UBJsonReader.class) {
+			// Reads the vertices and indices into arrays instead of creating a JsonValue for each number.
+			G3dbReader binaryReader = new G3dbReader();
+			binaryReader.oldFormat = ((UBJsonReader)reader).oldFormat;
+			json = binaryReader.parse(handle);
+		} else
+			json = reader.parse(handle);
 		ModelData model = new ModelData();
 		JsonValue version = json.require("version");
 		model.version[0] = version.getShort(0);
@@ -350,6 +358,18 @@ public class G3dModelLoader extends ModelLoader<ModelLoader.ModelParameters> {
 					}
 				}
 
+				JsonValue lods = material.get("lods");
+				if (lods != null) {
+					nodePart.lodMeshPartIds = new String[lods.size];
+					nodePart.lodScreenSizes = new float[lods.size];
+					int j = 0;
+					for (JsonValue lod = lods.child; lod != null; lod = lod.next, j++) {
+						nodePart.lodMeshPartIds[j] = lod.getString("meshpartid", null);
+						if (nodePart.lodMeshPartIds[j] == null) throw new GdxRuntimeException("Node " + id + " LOD is missing meshPartId");
+						nodePart.lodScreenSizes[j] = lod.getFloat("screensize");
+					}
+				}
+
 				jsonNode.parts[i] = nodePart;
 			}
 		}
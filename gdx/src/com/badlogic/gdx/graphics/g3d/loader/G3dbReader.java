@@ -0,0 +1,419 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g3d.loader;
+
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.badlogic.gdx.Files.FileType;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.BaseJsonReader;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.SerializationException;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.utils.UBJsonReader;
+
+/** Reads .g3db files, producing the same {@link JsonValue} tree as {@link UBJsonReader}, except that the {@code vertices} and
+ * {@code indices} arrays of the meshes are read straight from the file into a float or short array instead of creating a
+ * JsonValue for each number. Those arrays make up most of a model, so this is much faster and needs a fraction of the memory.
+ * The arrays are returned by {@link JsonValue#asFloatArray()} and {@link JsonValue#asShortArray()} without copying, their
+ * children are not available.
+ * <p>
+ * Files that can be memory mapped are read from the mapped buffer, others are read into a byte array first.
+ * {@link G3dModelLoader} uses this reader when it is created with a {@link UBJsonReader}. */
+public class G3dbReader implements BaseJsonReader {
+	/** See {@link UBJsonReader#oldFormat}. */
+	public boolean oldFormat = true;
+
+	@Override
+	public JsonValue parse (InputStream input) {
+		try {
+			return parse(ByteBuffer.wrap(StreamUtils.copyStreamToByteArray(input)));
+		} catch (Exception ex) {
+			throw new SerializationException(ex);
+		} finally {
+			StreamUtils.closeQuietly(input);
+		}
+	}
+
+	@Override
+	public JsonValue parse (FileHandle file) {
+		try {
+			ByteBuffer buffer = null;
+			if (file.type() != FileType.Classpath) {
+				try {
+					buffer = file.map();
+				} catch (GdxRuntimeException ignored) {
+					// Compressed or not a real file, read it instead.
+				}
+			}
+			if (buffer == null) buffer = ByteBuffer.wrap(file.readBytes());
+			return parse(buffer);
+		} catch (Exception ex) {
+			throw new SerializationException("Error parsing file: " + file, ex);
+		}
+	}
+
+	/** Parses the UBJSON from the remaining bytes of the buffer. The position, limit and byte order of the buffer are not
+	 * changed. */
+	public JsonValue parse (ByteBuffer buffer) {
+		ByteBuffer in = buffer.slice();
+		in.order(ByteOrder.BIG_ENDIAN);
+		try {
+			return parse(in, in.get());
+		} catch (UnsupportedEncodingException ex) {
+			throw new SerializationException(ex);
+		}
+	}
+
+	protected JsonValue parse (ByteBuffer in, byte type) throws UnsupportedEncodingException {
+		if (type == '[')
+			return parseArray(in);
+		else if (type == '{')
+			return parseObject(in);
+		else if (type == 'Z')
+			return new JsonValue(JsonValue.ValueType.nullValue);
+		else if (type == 'T')
+			return new JsonValue(true);
+		else if (type == 'F')
+			return new JsonValue(false);
+		else if (type == 'B' || type == 'U')
+			return new JsonValue((long)(in.get() & 0xFF));
+		else if (type == 'i')
+			return new JsonValue(oldFormat ? (long)in.getShort() : (long)in.get());
+		else if (type == 'I')
+			return new JsonValue(oldFormat ? (long)in.getInt() : (long)in.getShort());
+		else if (type == 'l')
+			return new JsonValue((long)in.getInt());
+		else if (type == 'L')
+			return new JsonValue(in.getLong());
+		else if (type == 'd')
+			return new JsonValue(in.getFloat());
+		else if (type == 'D')
+			return new JsonValue(in.getDouble());
+		else if (type == 's' || type == 'S')
+			return new JsonValue(parseString(in, false, type));
+		else if (type == 'a' || type == 'A')
+			return parseData(in, type);
+		else if (type == 'C')
+			return new JsonValue(in.getChar());
+		else
+			throw new GdxRuntimeException("Unrecognized data type");
+	}
+
+	protected JsonValue parseArray (ByteBuffer in) throws UnsupportedEncodingException {
+		JsonValue result = new JsonValue(JsonValue.ValueType.array);
+		byte type = in.get();
+		byte valueType = 0;
+		if (type == '$') {
+			valueType = in.get();
+			type = in.get();
+		}
+		long size = -1;
+		if (type == '#') {
+			size = parseSize(in, false, -1);
+			if (size < 0) throw new GdxRuntimeException("Unrecognized data type");
+			if (size == 0) return result;
+			type = valueType == 0 ? in.get() : valueType;
+		}
+		JsonValue prev = null;
+		long c = 0;
+		while (in.hasRemaining() && type != ']') {
+			final JsonValue val = parse(in, type);
+			val.parent = result;
+			if (prev != null) {
+				val.prev = prev;
+				prev.next = val;
+				result.size++;
+			} else {
+				result.child = val;
+				result.size = 1;
+			}
+			prev = val;
+			if (size > 0 && ++c >= size) break;
+			type = valueType == 0 ? in.get() : valueType;
+		}
+		return result;
+	}
+
+	protected JsonValue parseObject (ByteBuffer in) throws UnsupportedEncodingException {
+		JsonValue result = new JsonValue(JsonValue.ValueType.object);
+		byte type = in.get();
+		byte valueType = 0;
+		if (type == '$') {
+			valueType = in.get();
+			type = in.get();
+		}
+		long size = -1;
+		if (type == '#') {
+			size = parseSize(in, false, -1);
+			if (size < 0) throw new GdxRuntimeException("Unrecognized data type");
+			if (size == 0) return result;
+			type = in.get();
+		}
+		JsonValue prev = null;
+		long c = 0;
+		while (in.hasRemaining() && type != '}') {
+			final String key = parseString(in, true, type);
+			final byte childType = valueType == 0 ? in.get() : valueType;
+			JsonValue child = null;
+			if (childType == '[') {
+				if (key.equals("vertices"))
+					child = parseNumbers(in, false);
+				else if (key.equals("indices")) child = parseNumbers(in, true);
+			}
+			if (child == null) child = parse(in, childType);
+			child.setName(key);
+			child.parent = result;
+			if (prev != null) {
+				child.prev = prev;
+				prev.next = child;
+				result.size++;
+			} else {
+				result.child = child;
+				result.size = 1;
+			}
+			prev = child;
+			if (size > 0 && ++c >= size) break;
+			type = in.get();
+		}
+		return result;
+	}
+
+	protected JsonValue parseData (ByteBuffer in, byte blockType) throws UnsupportedEncodingException {
+		final byte dataType = in.get();
+		final long size = blockType == 'A' ? in.getInt() & 0xFFFFFFFFL : (long)(in.get() & 0xFF);
+		final JsonValue result = new JsonValue(JsonValue.ValueType.array);
+		JsonValue prev = null;
+		for (long i = 0; i < size; i++) {
+			final JsonValue val = parse(in, dataType);
+			val.parent = result;
+			if (prev != null) {
+				prev.next = val;
+				result.size++;
+			} else {
+				result.child = val;
+				result.size = 1;
+			}
+			prev = val;
+		}
+		return result;
+	}
+
+	/** Reads an array of numbers, starting after the array marker, into a float or short array.
+	 * @return the array value, or null if the array does not only contain numbers. The position is not changed then. */
+	protected JsonValue parseNumbers (ByteBuffer in, boolean shorts) {
+		final int start = in.position();
+		byte type = in.get();
+		byte valueType = 0;
+		if (type == '$') {
+			valueType = in.get();
+			type = in.get();
+		}
+		long size = -1;
+		if (type == '#') {
+			size = parseSize(in, false, -1);
+			if (size < 0) {
+				in.position(start);
+				return null;
+			}
+		} else
+			in.position(in.position() - 1);
+
+		final int count;
+		boolean closed = false;
+		if (valueType != 0) {
+			// Typed arrays have no marker per number, but are only readable with a size.
+			int valueSize = numberSize(valueType);
+			if (size < 0 || valueSize < 0 || size * valueSize > in.remaining()) {
+				in.position(start);
+				return null;
+			}
+			count = (int)size;
+		} else {
+			// Count the numbers first, so the array is allocated once with the right size.
+			int position = in.position(), limit = in.limit(), n = 0;
+			while (position < limit && (size < 0 || n < size)) {
+				byte marker = in.get(position);
+				if (size < 0 && marker == ']') {
+					closed = true;
+					break;
+				}
+				int valueSize = numberSize(marker);
+				if (valueSize < 0 || position + 1 + valueSize > limit) {
+					in.position(start);
+					return null;
+				}
+				position += 1 + valueSize;
+				n++;
+			}
+			count = n;
+		}
+
+		NumberArrayValue result;
+		// Bulk reads through a view of the buffer don't move its position.
+		boolean bulk = false;
+		if (shorts) {
+			short[] values = new short[count];
+			if (valueType == 'I' && !oldFormat) {
+				in.asShortBuffer().get(values);
+				bulk = true;
+			} else {
+				for (int i = 0; i < count; i++)
+					values[i] = (short)readLong(in, valueType == 0 ? in.get() : valueType);
+			}
+			result = new NumberArrayValue(values);
+		} else {
+			float[] values = new float[count];
+			if (valueType == 'd') {
+				in.asFloatBuffer().get(values);
+				bulk = true;
+			} else {
+				for (int i = 0; i < count; i++)
+					values[i] = readFloat(in, valueType == 0 ? in.get() : valueType);
+			}
+			result = new NumberArrayValue(values);
+		}
+		if (bulk) in.position(in.position() + count * numberSize(valueType));
+		if (closed) in.get();
+		return result;
+	}
+
+	/** @return the number of bytes of a number of the type, or -1 if the type is not a number. */
+	private int numberSize (byte type) {
+		switch (type) {
+		case 'B':
+		case 'U':
+			return 1;
+		case 'i':
+			return oldFormat ? 2 : 1;
+		case 'I':
+			return oldFormat ? 4 : 2;
+		case 'l':
+		case 'd':
+			return 4;
+		case 'L':
+		case 'D':
+			return 8;
+		default:
+			return -1;
+		}
+	}
+
+	private float readFloat (ByteBuffer in, byte type) {
+		if (type == 'd') return in.getFloat();
+		if (type == 'D') return (float)in.getDouble();
+		return (float)readLong(in, type);
+	}
+
+	/** Floating point numbers are cast like {@link JsonValue#asShortArray()} does. */
+	private long readLong (ByteBuffer in, byte type) {
+		switch (type) {
+		case 'B':
+		case 'U':
+			return in.get() & 0xFF;
+		case 'i':
+			return oldFormat ? in.getShort() : in.get();
+		case 'I':
+			return oldFormat ? in.getInt() : in.getShort();
+		case 'l':
+			return in.getInt();
+		case 'L':
+			return in.getLong();
+		case 'd':
+			return (short)in.getFloat();
+		case 'D':
+			return (short)in.getDouble();
+		default:
+			throw new GdxRuntimeException("Unrecognized data type");
+		}
+	}
+
+	protected String parseString (ByteBuffer in, boolean sOptional, byte type) throws UnsupportedEncodingException {
+		long size = -1;
+		if (type == 'S')
+			size = parseSize(in, true, -1);
+		else if (type == 's')
+			size = (long)(in.get() & 0xFF);
+		else if (sOptional) size = parseSize(in, type, false, -1);
+		if (size < 0) throw new GdxRuntimeException("Unrecognized data type, string expected");
+		if (size == 0) return "";
+		byte[] data = new byte[(int)size];
+		in.get(data);
+		return new String(data, "UTF-8");
+	}
+
+	protected long parseSize (ByteBuffer in, boolean useIntOnError, long defaultValue) {
+		return parseSize(in, in.get(), useIntOnError, defaultValue);
+	}
+
+	protected long parseSize (ByteBuffer in, byte type, boolean useIntOnError, long defaultValue) {
+		if (type == 'i') return (long)(in.get() & 0xFF);
+		if (type == 'I') return (long)(in.getShort() & 0xFFFF);
+		if (type == 'l') return in.getInt() & 0xFFFFFFFFL;
+		if (type == 'L') return in.getLong();
+		if (useIntOnError) {
+			long result = (long)(type & 0xFF) << 24;
+			result |= (long)(in.get() & 0xFF) << 16;
+			result |= (long)(in.get() & 0xFF) << 8;
+			result |= (long)(in.get() & 0xFF);
+			return result;
+		}
+		return defaultValue;
+	}
+
+	/** An array whose numbers are stored in a float or short array instead of child values. */
+	static private class NumberArrayValue extends JsonValue {
+		private final float[] floats;
+		private final short[] shorts;
+
+		NumberArrayValue (float[] values) {
+			super(ValueType.array);
+			floats = values;
+			shorts = null;
+			size = values.length;
+		}
+
+		NumberArrayValue (short[] values) {
+			super(ValueType.array);
+			floats = null;
+			shorts = values;
+			size = values.length;
+		}
+
+		@Override
+		public float[] asFloatArray () {
+			if (floats != null) return floats;
+			float[] array = new float[shorts.length];
+			for (int i = 0; i < array.length; i++)
+				array[i] = shorts[i];
+			return array;
+		}
+
+		@Override
+		public short[] asShortArray () {
+			if (shorts != null) return shorts;
+			short[] array = new short[floats.length];
+			for (int i = 0; i < array.length; i++)
+				array[i] = (short)floats[i];
+			return array;
+		}
+	}
+}
@@ -19,6 +19,7 @@ package com.badlogic.gdx.graphics.g3d.loader;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.assets.AssetManager;
@@ -44,6 +45,10 @@ import com.badlogic.gdx.math.Quaternion;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.async.ParallelExecutor;
+import com.badlogic.gdx.utils.async.ThreadUtils;
 
 /** {@link ModelLoader} to load Wavefront OBJ files. Only intended for testing basic models/meshes and educational usage. The
  * Wavefront specification is NOT fully implemented, only a subset of the specification is supported. Especially the
@@ -60,6 +65,9 @@ import com.badlogic.gdx.utils.FloatArray;
  * materials. In that case the MTL filename (might be case-sensitive) is expected to be located relative to the OBJ file. The MTL
  * file might reference one or more texture files, in which case those filename(s) are expected to be located relative to the MTL
  * file.</p>
+ * 
+ * Files larger than twice {@link #minBytesPerThread} are parsed on multiple threads. Corners of faces with the same position,
+ * normal and texture coordinates share a vertex, unless a group needs more vertices than can be indexed with shorts.</p>
  * @author mzechner, espitz, xoppa */
 public class ObjLoader extends ModelLoader<ObjLoader.ObjLoaderParameters> {
 	/** Set to false to prevent a warning from being logged when this class is used. Do not change this value, unless you are
@@ -77,17 +85,25 @@ public class ObjLoader extends ModelLoader<ObjLoader.ObjLoaderParameters> {
 		}
 	}
 
-	final FloatArray verts = new FloatArray(300);
-	final FloatArray norms = new FloatArray(300);
-	final FloatArray uvs = new FloatArray(200);
-	final Array<Group> groups = new Array<Group>(10);
+	private final int threads;
+
+	/** The minimum number of bytes of the file parsed by a thread. Files smaller than twice this value are parsed on the calling
+	 * thread. */
+	public int minBytesPerThread = 1024 * 1024;
 
 	public ObjLoader () {
 		this(null);
 	}
 
 	public ObjLoader (FileHandleResolver resolver) {
+		this(resolver, ThreadUtils.availableProcessors());
+	}
+
+	/** @param threads the maximum number of threads parsing a file, including the calling thread. */
+	public ObjLoader (FileHandleResolver resolver, int threads) {
 		super(resolver);
+		if (threads < 1) throw new IllegalArgumentException("threads must be >= 1: " + threads);
+		this.threads = threads;
 	}
 
 	/** Directly load the model on the calling thread. The model with not be managed by an {@link AssetManager}. */
@@ -103,86 +119,45 @@ public class ObjLoader extends ModelLoader<ObjLoader.ObjLoaderParameters> {
 	protected ModelData loadModelData (FileHandle file, boolean flipV) {
 		if (logWarning)
 			Gdx.app.error("ObjLoader", "Wavefront (OBJ) is not fully supported, consult the documentation for more information");
-		String line;
-		String[] tokens;
-		char firstChar;
-		MtlLoader mtl = new MtlLoader();
+
+		Chunk[] chunks = parse(file.readBytes(), flipV);
+
+		// Concatenate the vertex data of the chunks and resolve the indices relative to the data of each chunk.
+		int numVerts = 0, numNorms = 0, numUVs = 0;
+		for (Chunk chunk : chunks) {
+			chunk.resolve(numVerts, numNorms, numUVs);
+			numVerts += chunk.verts.size;
+			numNorms += chunk.norms.size;
+			numUVs += chunk.uvs.size;
+		}
+		final float[] verts = new float[numVerts], norms = new float[numNorms], uvs = new float[numUVs];
+		numVerts = numNorms = numUVs = 0;
+		for (Chunk chunk : chunks) {
+			System.arraycopy(chunk.verts.items, 0, verts, numVerts, chunk.verts.size);
+			System.arraycopy(chunk.norms.items, 0, norms, numNorms, chunk.norms.size);
+			System.arraycopy(chunk.uvs.items, 0, uvs, numUVs, chunk.uvs.size);
+			numVerts += chunk.verts.size;
+			numNorms += chunk.norms.size;
+			numUVs += chunk.uvs.size;
+		}
 
 		// Create a "default" Group and set it as the active group, in case
 		// there are no groups or objects defined in the OBJ file.
+		final Array<Group> groups = new Array<Group>(10);
 		Group activeGroup = new Group("default");
 		groups.add(activeGroup);
-
-		BufferedReader reader = new BufferedReader(new InputStreamReader(file.read()), 4096);
-		int id = 0;
-		try {
-			while ((line = reader.readLine()) != null) {
-
-				tokens = line.split("\\s+");
-				if (tokens.length < 1) break;
-
-				if (tokens[0].length() == 0) {
-					continue;
-				} else if ((firstChar = tokens[0].toLowerCase().charAt(0)) == '#') {
-					continue;
-				} else if (firstChar == 'v') {
-					if (tokens[0].length() == 1) {
-						verts.add(Float.parseFloat(tokens[1]));
-						verts.add(Float.parseFloat(tokens[2]));
-						verts.add(Float.parseFloat(tokens[3]));
-					} else if (tokens[0].charAt(1) == 'n') {
-						norms.add(Float.parseFloat(tokens[1]));
-						norms.add(Float.parseFloat(tokens[2]));
-						norms.add(Float.parseFloat(tokens[3]));
-					} else if (tokens[0].charAt(1) == 't') {
-						uvs.add(Float.parseFloat(tokens[1]));
-						uvs.add((flipV ? 1 - Float.parseFloat(tokens[2]) : Float.parseFloat(tokens[2])));
-					}
-				} else if (firstChar == 'f') {
-					String[] parts;
-					Array<Integer> faces = activeGroup.faces;
-					for (int i = 1; i < tokens.length - 2; i--) {
-						parts = tokens[1].split("/");
-						faces.add(getIndex(parts[0], verts.size));
-						if (parts.length > 2) {
-							if (i == 1) activeGroup.hasNorms = true;
-							faces.add(getIndex(parts[2], norms.size));
-						}
-						if (parts.length > 1 && parts[1].length() > 0) {
-							if (i == 1) activeGroup.hasUVs = true;
-							faces.add(getIndex(parts[1], uvs.size));
-						}
-						parts = tokens[++i].split("/");
-						faces.add(getIndex(parts[0], verts.size));
-						if (parts.length > 2) faces.add(getIndex(parts[2], norms.size));
-						if (parts.length > 1 && parts[1].length() > 0) faces.add(getIndex(parts[1], uvs.size));
-						parts = tokens[++i].split("/");
-						faces.add(getIndex(parts[0], verts.size));
-						if (parts.length > 2) faces.add(getIndex(parts[2], norms.size));
-						if (parts.length > 1 && parts[1].length() > 0) faces.add(getIndex(parts[1], uvs.size));
-						activeGroup.numFaces++;
-					}
-				} else if (firstChar == 'o' || firstChar == 'g') {
-					// This implementation only supports single object or group
-					// definitions. i.e. "o group_a group_b" will set group_a
-					// as the active group, while group_b will simply be
-					// ignored.
-					if (tokens.length > 1)
-						activeGroup = setActiveGroup(tokens[1]);
-					else
-						activeGroup = setActiveGroup("default");
-				} else if (tokens[0].equals("mtllib")) {
-					mtl.load(file.parent().child(tokens[1]));
-				} else if (tokens[0].equals("usemtl")) {
-					if (tokens.length == 1)
-						activeGroup.materialName = "default";
-					else
-						activeGroup.materialName = tokens[1].replace('.', '_');
-				}
+		MtlLoader mtl = new MtlLoader();
+		for (Chunk chunk : chunks) {
+			for (String mtllib : chunk.mtllibs)
+				mtl.load(file.parent().child(mtllib));
+			for (Segment segment : chunk.segments) {
+				if (segment.group != null) activeGroup = setActiveGroup(groups, segment.group);
+				if (segment.materialName != null) activeGroup.materialName = segment.materialName;
+				activeGroup.faces.addAll(segment.faces);
+				activeGroup.numFaces += segment.numFaces;
+				activeGroup.hasNorms |= segment.hasNorms;
+				activeGroup.hasUVs |= segment.hasUVs;
 			}
-			reader.close();
-		} catch (IOException e) {
-			return null;
 		}
 
 		// If the "default" group or any others were not used, get rid of them
@@ -200,41 +175,47 @@ public class ObjLoader extends ModelLoader<ObjLoader.ObjLoaderParameters> {
 		final int numGroups = groups.size;
 
 		final ModelData data = new ModelData();
+		int id = 0;
 
 		for (int g = 0; g < numGroups; g++) {
 			Group group = groups.get(g);
-			Array<Integer> faces = group.faces;
-			final int numElements = faces.size;
-			final int numFaces = group.numFaces;
+			final int[] faces = group.faces.items;
 			final boolean hasNorms = group.hasNorms;
 			final boolean hasUVs = group.hasUVs;
+			final int stride = 1 + (hasNorms ? 1 : 0) + (hasUVs ? 1 : 0);
+			final int vertexSize = 3 + (hasNorms ? 3 : 0) + (hasUVs ? 2 : 0);
+			final int numCorners = group.faces.size / stride;
+
+			// Corners using the same position, normal and texture coordinates share a vertex, if the indices fit in a short.
+			final int[] cornerIndices = new int[numCorners], firstCorners = new int[Math.min(numCorners, Short.MAX_VALUE)];
+			int numVertices = weld(faces, stride, numCorners, cornerIndices, firstCorners);
+			final short[] finalIndices;
+			if (numVertices == -1) {
+				numVertices = numCorners;
+				finalIndices = new short[0];
+			} else {
+				finalIndices = new short[numCorners];
+				for (int i = 0; i < numCorners; i++)
+					finalIndices[i] = (short)cornerIndices[i];
+			}
 
-			final float[] finalVerts = new float[(numFaces * 3) * (3 + (hasNorms ? 3 : 0) + (hasUVs ? 2 : 0))];
-
-			for (int i = 0, vi = 0; i < numElements;) {
-				int vertIndex = faces.get(i++) * 3;
-				finalVerts[vi++] = verts.get(vertIndex++);
-				finalVerts[vi++] = verts.get(vertIndex++);
-				finalVerts[vi++] = verts.get(vertIndex);
+			final float[] finalVerts = new float[numVertices * vertexSize];
+			for (int v = 0, vi = 0; v < numVertices; v++) {
+				int i = (finalIndices.length == 0 ? v : firstCorners[v]) * stride;
+				int vertIndex = faces[i++] * 3;
+				finalVerts[vi++] = verts[vertIndex++];
+				finalVerts[vi++] = verts[vertIndex++];
+				finalVerts[vi++] = verts[vertIndex];
 				if (hasNorms) {
-					int normIndex = faces.get(i++) * 3;
-					finalVerts[vi++] = norms.get(normIndex++);
-					finalVerts[vi++] = norms.get(normIndex++);
-					finalVerts[vi++] = norms.get(normIndex);
+					int normIndex = faces[i++] * 3;
+					finalVerts[vi++] = norms[normIndex++];
+					finalVerts[vi++] = norms[normIndex++];
+					finalVerts[vi++] = norms[normIndex];
 				}
 				if (hasUVs) {
-					int uvIndex = faces.get(i++) * 2;
-					finalVerts[vi++] = uvs.get(uvIndex++);
-					finalVerts[vi++] = uvs.get(uvIndex);
-				}
-			}
-
-			final int numIndices = numFaces * 3 >= Short.MAX_VALUE ? 0 : numFaces * 3;
-			final short[] finalIndices = new short[numIndices];
-			// if there are too many vertices in a mesh, we can't use indices
-			if (numIndices > 0) {
-				for (int i = 0; i < numIndices; i++) {
-					finalIndices[i] = (short)i;
+					int uvIndex = faces[i] * 2;
+					finalVerts[vi++] = uvs[uvIndex++];
+					finalVerts[vi++] = uvs[uvIndex];
 				}
 			}
 
@@ -272,22 +253,86 @@ public class ObjLoader extends ModelLoader<ObjLoader.ObjLoaderParameters> {
 			data.materials.add(mm);
 		}
 
-		// for (ModelMaterial m : mtl.materials)
-		// data.materials.add(m);
+		return data;
+	}
 
-		// An instance of ObjLoader can be used to load more than one OBJ.
-		// Clearing the Array cache instead of instantiating new
-		// Arrays should result in slightly faster load times for
-		// subsequent calls to loadObj
-		if (verts.size > 0) verts.clear();
-		if (norms.size > 0) norms.clear();
-		if (uvs.size > 0) uvs.clear();
-		if (groups.size > 0) groups.clear();
+	/** Splits the file into chunks of whole lines and parses them, on multiple threads if the file is large enough. */
+	private Chunk[] parse (byte[] bytes, boolean flipV) {
+		final int count = Math.max(1, Math.min(threads, bytes.length / Math.max(1, minBytesPerThread)));
+		final Chunk[] chunks = new Chunk[count];
+		for (int i = 0, start = 0; i < count; i++) {
+			int end = bytes.length;
+			if (i < count - 1) {
+				end = Math.max(start, (int)((long)bytes.length * (i + 1) / count));
+				while (end < bytes.length && bytes[end - 1] != '\n' && bytes[end - 1] != '\r')
+					end++;
+			}
+			chunks[i] = new Chunk(bytes, start, end, flipV);
+			start = end;
+		}
+		if (count == 1) {
+			chunks[0].parse();
+			return chunks;
+		}
 
-		return data;
+		// The threads only live for a single file, so a loader can be used by multiple threads at once.
+		ParallelExecutor executor = new ParallelExecutor("ObjLoader", count);
+		try {
+			executor.run(count, new ParallelExecutor.Task() {
+				public void run (int index) {
+					chunks[index].parse();
+				}
+			});
+		} finally {
+			executor.dispose();
+		}
+		return chunks;
 	}
 
-	private Group setActiveGroup (String name) {
+	/** Finds the distinct corners of the faces, those with the same position, normal and texture coordinate indices, with an open
+	 * addressing hash table storing the index of the first corner of each distinct combination.
+	 * @param cornerIndices receives the index of the distinct corner for each corner.
+	 * @param firstCorners receives the first corner of each distinct corner, must have room for
+	 *           {@code min(numCorners, Short.MAX_VALUE)} corners.
+	 * @return the number of distinct corners, or -1 if there are more than {@link Short#MAX_VALUE}. */
+	static int weld (int[] faces, int stride, int numCorners, int[] cornerIndices, int[] firstCorners) {
+		if (numCorners == 0) return 0;
+		int capacity = 1;
+		while (capacity < Math.min(numCorners, Short.MAX_VALUE) * 2)
+			capacity <<= 1;
+		final int mask = capacity - 1;
+		final int[] table = new int[capacity];
+		int count = 0;
+		for (int c = 0; c < numCorners; c++) {
+			int i = c * stride;
+			int hash = faces[i] * 0x9E3779B1;
+			for (int j = 1; j < stride; j++)
+				hash = (hash ^ faces[i + j]) * 0x85EBCA6B;
+			hash ^= hash >>> 15;
+			int slot = hash & mask;
+			while (true) {
+				int entry = table[slot];
+				if (entry == 0) {
+					if (count == Short.MAX_VALUE) return -1;
+					firstCorners[count] = c;
+					table[slot] = ++count;
+					cornerIndices[c] = count - 1;
+					break;
+				}
+				int other = firstCorners[entry - 1] * stride, j = 0;
+				while (j < stride && faces[other + j] == faces[i + j])
+					j++;
+				if (j == stride) {
+					cornerIndices[c] = entry - 1;
+					break;
+				}
+				slot = (slot + 1) & mask;
+			}
+		}
+		return count;
+	}
+
+	private Group setActiveGroup (Array<Group> groups, String name) {
 		// TODO: Check if a HashMap.get calls are faster than iterating
 		// through an Array
 		for (Group group : groups) {
@@ -298,19 +343,10 @@ public class ObjLoader extends ModelLoader<ObjLoader.ObjLoaderParameters> {
 		return group;
 	}
 
-	private int getIndex (String index, int size) {
-		if (index == null || index.length() == 0) return 0;
-		final int idx = Integer.parseInt(index);
-		if (idx < 0)
-			return size + idx;
-		else
-			return idx - 1;
-	}
-
 	private class Group {
 		final String name;
 		String materialName;
-		Array<Integer> faces;
+		IntArray faces;
 		int numFaces;
 		boolean hasNorms;
 		boolean hasUVs;
@@ -318,12 +354,313 @@ public class ObjLoader extends ModelLoader<ObjLoader.ObjLoaderParameters> {
 
 		Group (String name) {
 			this.name = name;
-			this.faces = new Array<Integer>(200);
+			this.faces = new IntArray(200);
 			this.numFaces = 0;
 			this.mat = new Material("");
 			this.materialName = "default";
 		}
 	}
+
+	/** The faces of a group in a chunk, up to the next group or object. */
+	static private class Segment {
+		/** The group the faces belong to, null for the group active at the end of the previous chunk. */
+		final String group;
+		/** The last material used in this segment, or null. */
+		String materialName;
+		final IntArray faces = new IntArray();
+		int numFaces;
+		boolean hasNorms;
+		boolean hasUVs;
+
+		Segment (String group) {
+			this.group = group;
+		}
+	}
+
+	/** Parses whole lines of the file directly from the bytes, without creating a String for each line or number. */
+	static private class Chunk {
+		static private final float[] POWERS_OF_TEN = {1, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+
+		final byte[] bytes;
+		final int start, end;
+		final boolean flipV;
+		final FloatArray verts = new FloatArray(300);
+		final FloatArray norms = new FloatArray(300);
+		final FloatArray uvs = new FloatArray(200);
+		final Array<Segment> segments = new Array<Segment>();
+		final Array<String> mtllibs = new Array<String>();
+		/** The positions in the faces of a segment of indices that are relative to the data of this chunk, packed as
+		 * {@code position * 3 + kind} with kind 0 for positions, 1 for normals and 2 for texture coordinates. */
+		final Array<IntArray> relativeIndices = new Array<IntArray>();
+		/** The corners of the current face, 5 ints each: position, normal and texture coordinate index, number of parts and flags,
+		 * see {@link #parseCorner()}. */
+		final IntArray corners = new IntArray(20);
+		Segment segment;
+		int tokenStart, tokenEnd;
+		boolean relative;
+
+		Chunk (byte[] bytes, int start, int end, boolean flipV) {
+			this.bytes = bytes;
+			this.start = start;
+			this.end = end;
+			this.flipV = flipV;
+		}
+
+		void parse () {
+			for (int lineStart = start; lineStart < end;) {
+				int lineEnd = lineStart;
+				while (lineEnd < end && bytes[lineEnd] != '\n' && bytes[lineEnd] != '\r')
+					lineEnd++;
+				parseLine(lineStart, lineEnd);
+				lineStart = lineEnd + 1;
+			}
+		}
+
+		private void parseLine (int lineStart, int lineEnd) {
+			tokenEnd = lineStart;
+			// Lines starting with whitespace are skipped.
+			if (!nextToken(lineEnd) || tokenStart != lineStart) return;
+
+			final byte[] bytes = this.bytes;
+			final char firstChar = Character.toLowerCase((char)bytes[tokenStart]);
+			final int length = tokenEnd - tokenStart;
+			if (firstChar == '#') {
+				return;
+			} else if (firstChar == 'v') {
+				if (length == 1) {
+					verts.add(nextFloat(lineEnd));
+					verts.add(nextFloat(lineEnd));
+					verts.add(nextFloat(lineEnd));
+				} else if (bytes[tokenStart + 1] == 'n') {
+					norms.add(nextFloat(lineEnd));
+					norms.add(nextFloat(lineEnd));
+					norms.add(nextFloat(lineEnd));
+				} else if (bytes[tokenStart + 1] == 't') {
+					uvs.add(nextFloat(lineEnd));
+					uvs.add(flipV ? 1 - nextFloat(lineEnd) : nextFloat(lineEnd));
+				}
+			} else if (firstChar == 'f') {
+				parseFace(lineEnd);
+			} else if (firstChar == 'o' || firstChar == 'g') {
+				// This implementation only supports single object or group
+				// definitions. i.e. "o group_a group_b" will set group_a
+				// as the active group, while group_b will simply be
+				// ignored.
+				String group = nextToken(lineEnd) ? tokenString() : "default";
+				segment = new Segment(group);
+				segments.add(segment);
+				relativeIndices.add(null);
+			} else if (tokenEquals("mtllib")) {
+				if (!nextToken(lineEnd)) throw new GdxRuntimeException("Missing file name: " + string(lineStart, lineEnd));
+				mtllibs.add(tokenString());
+			} else if (tokenEquals("usemtl")) {
+				segment().materialName = nextToken(lineEnd) ? tokenString().replace('.', '_') : "default";
+			}
+		}
+
+		private void parseFace (int lineEnd) {
+			final IntArray corners = this.corners;
+			corners.clear();
+			while (nextToken(lineEnd))
+				parseCorner();
+			// Triangulate as a fan around the first corner.
+			final int numCorners = corners.size / 5;
+			if (numCorners < 3) return;
+			final Segment segment = segment();
+			final int[] items = corners.items;
+			if (items[3] > 2) segment.hasNorms = true;
+			if ((items[4] & 1) != 0) segment.hasUVs = true;
+			for (int i = 1; i < numCorners - 1; i++) {
+				addCorner(segment, items, 0);
+				addCorner(segment, items, i * 5);
+				addCorner(segment, items, (i + 1) * 5);
+				segment.numFaces++;
+			}
+		}
+
+		/** Adds the indices of a corner like {@code v/vt/vn}, where like {@code String.split("/")} trailing empty parts are
+		 * ignored and other empty parts are index 0. The flags have bit 0 set if the texture coordinate is given and bits 1 to 3
+		 * set if the position, normal or texture coordinate index is relative to this chunk. */
+		private void parseCorner () {
+			final byte[] bytes = this.bytes;
+			final IntArray corners = this.corners;
+			int vert = 0, norm = 0, uv = 0, parts = 0, flags = 0;
+			for (int part = 0, partStart = tokenStart; partStart <= tokenEnd; part++) {
+				int partEnd = partStart;
+				while (partEnd < tokenEnd && bytes[partEnd] != '/')
+					partEnd++;
+				if (partEnd > partStart) {
+					parts = part + 1;
+					if (part == 0) {
+						vert = parseIndex(partStart, partEnd, verts.size / 3);
+						if (relative) flags |= 2;
+					} else if (part == 1) {
+						uv = parseIndex(partStart, partEnd, uvs.size / 2);
+						flags |= relative ? 9 : 1;
+					} else if (part == 2) {
+						norm = parseIndex(partStart, partEnd, norms.size / 3);
+						if (relative) flags |= 4;
+					}
+				}
+				partStart = partEnd + 1;
+			}
+			corners.add(vert);
+			corners.add(norm);
+			corners.add(uv);
+			corners.add(Math.max(parts, 1));
+			corners.add(flags);
+		}
+
+		private void addCorner (Segment segment, int[] corner, int i) {
+			final IntArray faces = segment.faces;
+			final int flags = corner[i + 4];
+			addIndex(faces, corner[i], 0, (flags & 2) != 0);
+			if (corner[i + 3] > 2) addIndex(faces, corner[i + 1], 1, (flags & 4) != 0);
+			if ((flags & 1) != 0) addIndex(faces, corner[i + 2], 2, (flags & 8) != 0);
+		}
+
+		private void addIndex (IntArray faces, int index, int kind, boolean relative) {
+			if (relative) {
+				IntArray relativeIndices = this.relativeIndices.peek();
+				if (relativeIndices == null) this.relativeIndices.set(this.relativeIndices.size - 1, relativeIndices = new IntArray());
+				relativeIndices.add(faces.size * 3 + kind);
+			}
+			faces.add(index);
+		}
+
+		/** Parses a one based or negative index, returning the zero based index. Negative indices count back from the data parsed so
+		 * far, so they are returned relative to the start of this chunk, setting {@link #relative}, until
+		 * {@link #resolve(int, int, int)}.
+		 * @param size the number of positions, normals or texture coordinates parsed by this chunk. */
+		private int parseIndex (int start, int end, int size) {
+			final int index = parseInt(start, end);
+			relative = index < 0;
+			return relative ? size + index : index - 1;
+		}
+
+		/** Replaces the relative indices by absolute indices, given the number of floats of each kind in the previous chunks. */
+		void resolve (int numVerts, int numNorms, int numUVs) {
+			for (int s = 0; s < segments.size; s++) {
+				IntArray relative = relativeIndices.get(s);
+				if (relative == null) continue;
+				int[] faces = segments.get(s).faces.items;
+				for (int i = 0; i < relative.size; i++) {
+					int value = relative.get(i), position = value / 3, kind = value % 3;
+					int base = kind == 0 ? numVerts / 3 : kind == 1 ? numNorms / 3 : numUVs / 2;
+					faces[position] += base;
+				}
+			}
+		}
+
+		/** Returns the current segment, creating one for the group active at the end of the previous chunk if needed. */
+		private Segment segment () {
+			if (segment == null) {
+				segment = new Segment(null);
+				segments.add(segment);
+				relativeIndices.add(null);
+			}
+			return segment;
+		}
+
+		/** Finds the next token on the line, separated by whitespace.
+		 * @return false if there are no more tokens. */
+		private boolean nextToken (int lineEnd) {
+			final byte[] bytes = this.bytes;
+			int i = tokenEnd;
+			while (i < lineEnd && isWhitespace(bytes[i]))
+				i++;
+			if (i == lineEnd) return false;
+			tokenStart = i;
+			while (i < lineEnd && !isWhitespace(bytes[i]))
+				i++;
+			tokenEnd = i;
+			return true;
+		}
+
+		private float nextFloat (int lineEnd) {
+			if (!nextToken(lineEnd)) throw new GdxRuntimeException("Missing number: " + string(tokenEnd, lineEnd));
+			return parseFloat(tokenStart, tokenEnd);
+		}
+
+		/** Parses decimal numbers with a mantissa and power of ten that are exact floats with a single rounding, giving the same
+		 * result as {@link Float#parseFloat(String)}, which is used for all other numbers. */
+		private float parseFloat (int start, int end) {
+			final byte[] bytes = this.bytes;
+			int i = start;
+			boolean negative = false;
+			if (i < end && (bytes[i] == '-' || bytes[i] == '+')) negative = bytes[i++] == '-';
+			long mantissa = 0;
+			int exponent = 0, digits = 0;
+			for (; i < end && bytes[i] >= '0' && bytes[i] <= '9'; i++, digits++)
+				if (mantissa < 100000000000000L) mantissa = mantissa * 10 + bytes[i] - '0';
+				else exponent++;
+			if (i < end && bytes[i] == '.') {
+				for (i++; i < end && bytes[i] >= '0' && bytes[i] <= '9'; i++, digits++) {
+					if (mantissa < 100000000000000L) {
+						mantissa = mantissa * 10 + bytes[i] - '0';
+						exponent--;
+					}
+				}
+			}
+			if (digits > 0 && i < end && (bytes[i] == 'e' || bytes[i] == 'E')) {
+				int j = i + 1;
+				boolean negativeExponent = false;
+				if (j < end && (bytes[j] == '-' || bytes[j] == '+')) negativeExponent = bytes[j++] == '-';
+				int value = 0;
+				if (j < end) {
+					for (; j < end && bytes[j] >= '0' && bytes[j] <= '9' && value < 1000; j++)
+						value = value * 10 + bytes[j] - '0';
+					if (j == end) {
+						exponent += negativeExponent ? -value : value;
+						i = end;
+					}
+				}
+			}
+			if (i == end && digits > 0 && mantissa < 1 << 24 && exponent >= -10 && exponent <= 10) {
+				float value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+				return negative ? -value : value;
+			}
+			return Float.parseFloat(string(start, end));
+		}
+
+		private int parseInt (int start, int end) {
+			final byte[] bytes = this.bytes;
+			int i = start;
+			boolean negative = false;
+			if (i < end && (bytes[i] == '-' || bytes[i] == '+')) negative = bytes[i++] == '-';
+			int value = 0;
+			if (i < end && end - i < 10) {
+				for (; i < end && bytes[i] >= '0' && bytes[i] <= '9'; i++)
+					value = value * 10 + bytes[i] - '0';
+				if (i == end) return negative ? -value : value;
+			}
+			return Integer.parseInt(string(start, end));
+		}
+
+		private boolean tokenEquals (String value) {
+			if (tokenEnd - tokenStart != value.length()) return false;
+			for (int i = 0, n = value.length(); i < n; i++)
+				if (bytes[tokenStart + i] != value.charAt(i)) return false;
+			return true;
+		}
+
+		private String tokenString () {
+			return string(tokenStart, tokenEnd);
+		}
+
+		private String string (int start, int end) {
+			try {
+				return new String(bytes, start, end - start, "UTF-8");
+			} catch (UnsupportedEncodingException ex) {
+				throw new GdxRuntimeException(ex);
+			}
+		}
+
+		/** The characters matched by {@code \s} in a regular expression, except line breaks. */
+		static private boolean isWhitespace (byte b) {
+			return b == ' ' || b == '\t' || b == 0x0B || b == '\f';
+		}
+	}
 }
 
 class MtlLoader {
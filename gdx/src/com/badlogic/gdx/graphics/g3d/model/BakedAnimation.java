@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g3d.model;
+
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.utils.BaseAnimationController;
+import com.badlogic.gdx.math.Quaternion;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/** An {@link Animation} resampled at a fixed rate into a single float array, so the transform of a node at any time is found by
+ * indexing instead of searching keyframes. Nodes are referenced by id, so one BakedAnimation can be shared by all
+ * {@link ModelInstance ModelInstances} of a model, see {@link BaseAnimationController#addBakedAnimation(BakedAnimation)}.
+ * <p>
+ * Between samples, translation and scale are interpolated linearly and rotation with a normalized linear interpolation, which is
+ * close to the spherical interpolation of the keyframes at a sufficient sample rate. */
+public class BakedAnimation {
+	/** The number of floats per node per sample: translation x, y, z, rotation x, y, z, w and scale x, y, z. */
+	static public final int NODE_STRIDE = 10;
+
+	/** The id of the baked animation. */
+	public final String id;
+	/** The duration in seconds. */
+	public final float duration;
+	/** The number of samples per second. */
+	public final float sampleRate;
+	/** The number of samples, the first at time zero and the last at {@link #duration}. */
+	public final int sampleCount;
+	/** The ids of the animated nodes. */
+	public final String[] nodeIds;
+	/** For each sample, {@link #NODE_STRIDE} floats for each node. */
+	public final float[] values;
+
+	/** Samples the animation at the specified rate. Nodes without keyframes for translation, rotation or scale use the values of
+	 * the {@link Node} for those.
+	 * @param sampleRate the number of samples per second, for example 30. */
+	public BakedAnimation (Animation animation, float sampleRate) {
+		if (sampleRate <= 0) throw new GdxRuntimeException("sampleRate must be > 0: " + sampleRate);
+		this.id = animation.id;
+		this.duration = Math.max(0, animation.duration);
+		this.sampleRate = sampleRate;
+		sampleCount = (int)Math.ceil(duration * sampleRate) + 1;
+
+		Array<NodeAnimation> nodeAnimations = animation.nodeAnimations;
+		int nodeCount = nodeAnimations.size;
+		nodeIds = new String[nodeCount];
+		values = new float[sampleCount * nodeCount * NODE_STRIDE];
+		Vector3 translation = new Vector3(), scale = new Vector3();
+		Quaternion rotation = new Quaternion();
+		for (int n = 0; n < nodeCount; n++) {
+			NodeAnimation nodeAnimation = nodeAnimations.get(n);
+			Node node = nodeAnimation.node;
+			nodeIds[n] = node.id;
+			int translationIndex = 0, rotationIndex = 0, scalingIndex = 0;
+			float qx = 0, qy = 0, qz = 0, qw = 1;
+			for (int s = 0; s < sampleCount; s++) {
+				float time = sampleTime(s);
+				translationIndex = getVector3AtTime(nodeAnimation.translation, translationIndex, time, node.translation, translation);
+				rotationIndex = getRotationAtTime(nodeAnimation.rotation, rotationIndex, time, node.rotation, rotation);
+				scalingIndex = getVector3AtTime(nodeAnimation.scaling, scalingIndex, time, node.scale, scale);
+				rotation.nor();
+				// Keep consecutive samples in the same hemisphere, so they can be interpolated without checking.
+				if (s > 0 && rotation.x * qx + rotation.y * qy + rotation.z * qz + rotation.w * qw < 0)
+					rotation.set(-rotation.x, -rotation.y, -rotation.z, -rotation.w);
+				qx = rotation.x;
+				qy = rotation.y;
+				qz = rotation.z;
+				qw = rotation.w;
+
+				int i = (s * nodeCount + n) * NODE_STRIDE;
+				float[] values = this.values;
+				values[i] = translation.x;
+				values[i + 1] = translation.y;
+				values[i + 2] = translation.z;
+				values[i + 3] = qx;
+				values[i + 4] = qy;
+				values[i + 5] = qz;
+				values[i + 6] = qw;
+				values[i + 7] = scale.x;
+				values[i + 8] = scale.y;
+				values[i + 9] = scale.z;
+			}
+		}
+	}
+
+	/** @return the number of animated nodes. */
+	public int getNodeCount () {
+		return nodeIds.length;
+	}
+
+	/** Writes the {@link #NODE_STRIDE} values of a node at the specified time to the output array.
+	 * @param node the index of the node in {@link #nodeIds}.
+	 * @param time the time in seconds, clamped to the duration of the animation. */
+	public void sample (int node, float time, float[] out, int offset) {
+		int stride = nodeIds.length * NODE_STRIDE;
+		int sample;
+		float alpha;
+		if (time <= 0 || sampleCount == 1) {
+			sample = 0;
+			alpha = 0;
+		} else if (time >= duration) {
+			sample = sampleCount - 2;
+			alpha = 1;
+		} else {
+			sample = Math.min((int)(time * sampleRate), sampleCount - 2);
+			float startTime = sampleTime(sample), endTime = sampleTime(sample + 1);
+			alpha = endTime > startTime ? Math.min((time - startTime) / (endTime - startTime), 1) : 0;
+		}
+
+		float[] values = this.values;
+		int a = sample * stride + node * NODE_STRIDE;
+		if (alpha == 0) {
+			System.arraycopy(values, a, out, offset, NODE_STRIDE);
+			return;
+		}
+		int b = a + stride;
+		float invAlpha = 1 - alpha;
+		for (int i = 0; i < NODE_STRIDE; i++)
+			out[offset + i] = values[a + i] * invAlpha + values[b + i] * alpha;
+		float x = out[offset + 3], y = out[offset + 4], z = out[offset + 5], w = out[offset + 6];
+		float length = (float)Math.sqrt(x * x + y * y + z * z + w * w);
+		if (length != 0) {
+			length = 1 / length;
+			out[offset + 3] = x * length;
+			out[offset + 4] = y * length;
+			out[offset + 5] = z * length;
+			out[offset + 6] = w * length;
+		}
+	}
+
+	private float sampleTime (int sample) {
+		return Math.min(sample / sampleRate, duration);
+	}
+
+	/** The times are increasing, so the keyframe index only moves forward. Outside of the keyframes the first or last value is
+	 * used. */
+	static private int getVector3AtTime (Array<NodeKeyframe<Vector3>> keyframes, int index, float time, Vector3 rest,
+		Vector3 out) {
+		if (keyframes == null || keyframes.size == 0) {
+			out.set(rest);
+			return 0;
+		}
+		int last = keyframes.size - 1;
+		while (index < last && time > keyframes.get(index + 1).keytime)
+			index++;
+		NodeKeyframe<Vector3> first = keyframes.get(index);
+		out.set(first.value);
+		if (index < last && time > first.keytime) {
+			NodeKeyframe<Vector3> second = keyframes.get(index + 1);
+			out.lerp(second.value, (time - first.keytime) / (second.keytime - first.keytime));
+		}
+		return index;
+	}
+
+	static private int getRotationAtTime (Array<NodeKeyframe<Quaternion>> keyframes, int index, float time, Quaternion rest,
+		Quaternion out) {
+		if (keyframes == null || keyframes.size == 0) {
+			out.set(rest);
+			return 0;
+		}
+		int last = keyframes.size - 1;
+		while (index < last && time > keyframes.get(index + 1).keytime)
+			index++;
+		NodeKeyframe<Quaternion> first = keyframes.get(index);
+		out.set(first.value);
+		if (index < last && time > first.keytime) {
+			NodeKeyframe<Quaternion> second = keyframes.get(index + 1);
+			out.slerp(second.value, (time - first.keytime) / (second.keytime - first.keytime));
+		}
+		return index;
+	}
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g3d.model;
+
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+
+/** The levels of detail of a {@link NodePart}: the {@link MeshPart MeshParts} it can render, from the most to the least
+ * detailed, and the screen size below which each level is used. {@link ModelInstance#selectLod(com.badlogic.gdx.graphics.Camera)}
+ * sets the {@link NodePart#meshPart} of each part to the level matching its size on screen.
+ * <p>
+ * The screen size of a part is the diameter of the bounding sphere of the first level, relative to the height of the viewport.
+ * The levels usually share the vertices of the mesh and only differ in their indices, see
+ * {@link com.badlogic.gdx.graphics.g3d.Model#Model(com.badlogic.gdx.graphics.g3d.model.data.ModelData)} which loads levels
+ * stored in the "lods" of a node part.
+ * <p>
+ * A group is shared by the parts of all instances of a model and must not be modified while used. */
+public class LodGroup {
+	/** The mesh parts per level, from the most to the least detailed. */
+	public final Array<MeshPart> meshParts = new Array<MeshPart>();
+	/** Per level the screen size below which the level is used. The first value is infinite. */
+	public final FloatArray screenSizes = new FloatArray();
+	/** The fraction the screen size must drop below the size of a level before switching to it, so parts close to a threshold
+	 * don't switch back and forth. Default is 0.1. */
+	public float hysteresis = 0.1f;
+
+	public LodGroup () {
+	}
+
+	/** Creates a group with the specified mesh part as the most detailed level. */
+	public LodGroup (MeshPart meshPart) {
+		add(meshPart, Float.POSITIVE_INFINITY);
+	}
+
+	/** Adds a level, less detailed than the previous levels.
+	 * @param screenSize the screen size below which the level is used, smaller than that of the previous level.
+	 * @return this group for chaining. */
+	public LodGroup add (MeshPart meshPart, float screenSize) {
+		if (screenSizes.size > 0 && screenSize >= screenSizes.peek())
+			throw new IllegalArgumentException("screenSize must be less than that of the previous level: " + screenSize);
+		meshParts.add(meshPart);
+		screenSizes.add(screenSize);
+		return this;
+	}
+
+	/** @return the number of levels. */
+	public int size () {
+		return meshParts.size;
+	}
+
+	/** @param screenSize the diameter of the part relative to the height of the viewport.
+	 * @param currentLevel the level currently used, to apply the {@link #hysteresis}.
+	 * @return the level to use. */
+	public int getLevel (float screenSize, int currentLevel) {
+		final float[] screenSizes = this.screenSizes.items;
+		int level = 0;
+		for (int n = this.screenSizes.size - 1; level < n; level++) {
+			float threshold = screenSizes[level + 1];
+			if (level + 1 > currentLevel) threshold *= 1 - hysteresis;
+			if (screenSize >= threshold) break;
+		}
+		return level;
+	}
+}
@@ -92,6 +92,10 @@ public class Node {
 			final int n = part.invBoneBindTransforms.size;
 			for (int i = 0; i < n; i++)
 				part.bones[i].set(part.invBoneBindTransforms.keys[i].globalTransform).mul(part.invBoneBindTransforms.values[i]);
+			if (part.boneValues != null && part.boneValues.length == n * 16) {
+				for (int i = 0; i < n; i++)
+					System.arraycopy(part.bones[i].val, 0, part.boneValues, i * 16, 16);
+			}
 		}
 		if (recursive) {
 			for (Node child : children) {
@@ -20,6 +20,7 @@ import com.badlogic.gdx.graphics.g3d.Material;
 import com.badlogic.gdx.graphics.g3d.Model;
 import com.badlogic.gdx.graphics.g3d.ModelInstance;
 import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.utils.ModelInstanceUpdater;
 import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.utils.ArrayMap;
 
@@ -37,8 +38,17 @@ public class NodePart {
 	/** The current transformation (relative to the bind pose) of each bone, may be null. When the part is skinned, this will be
 	 * updated by a call to {@link ModelInstance#calculateTransforms()}. Do not set or change this value manually. */
 	public Matrix4[] bones;
+	/** The values of the {@link #bones} as consecutive column major matrices, or null. Created by
+	 * {@link ModelInstanceUpdater}, which only updates these values, and kept up to date by
+	 * {@link ModelInstance#calculateTransforms()} once created. Do not set or change this value manually. */
+	public float[] boneValues;
 	/** true by default. If set to false, this part will not participate in rendering and bounding box calculation. */
 	public boolean enabled = true;
+	/** The levels of detail the {@link #meshPart} is selected from by
+	 * {@link ModelInstance#selectLod(com.badlogic.gdx.graphics.Camera)}, or null. Shared by the copies of this part. */
+	public LodGroup lod;
+	/** The level of the {@link #lod} the {@link #meshPart} is currently set to. */
+	public int lodLevel;
 
 	/** Construct a new NodePart with null values. At least the {@link #meshPart} and {@link #material} member must be set before
 	 * the newly created part can be used. */
@@ -64,6 +74,7 @@ public class NodePart {
 		out.material = material;
 		out.meshPart.set(meshPart);
 		out.bones = bones;
+		out.boneValues = boneValues;
 		return out;
 	}
 
@@ -75,9 +86,12 @@ public class NodePart {
 		meshPart = new MeshPart(other.meshPart);
 		material = other.material;
 		enabled = other.enabled;
+		lod = other.lod;
+		lodLevel = other.lodLevel;
 		if (other.invBoneBindTransforms == null) {
 			invBoneBindTransforms = null;
 			bones = null;
+			boneValues = null;
 		} else {
 			if (invBoneBindTransforms == null)
 				invBoneBindTransforms = new ArrayMap<Node, Matrix4>(true, other.invBoneBindTransforms.size, Node.class, Matrix4.class);
@@ -92,6 +106,7 @@ public class NodePart {
 				if (bones[i] == null)
 					bones[i] = new Matrix4();
 			}
+			boneValues = null;
 		}
 		return this;
 	}
@@ -26,4 +26,9 @@ public class ModelNodePart {
 	public String meshPartId;
 	public ArrayMap<String, Matrix4> bones;
 	public int uvMapping[][];
+	/** The ids of the less detailed mesh parts of the part, from the most to the least detailed, or null. */
+	public String[] lodMeshPartIds;
+	/** Per level of {@link #lodMeshPartIds} the screen size below which it is used, see
+	 * {@link com.badlogic.gdx.graphics.g3d.model.LodGroup}. */
+	public float[] lodScreenSizes;
 }
@@ -29,6 +29,8 @@ import com.badlogic.gdx.utils.JsonValue;
  * during the simulation. (i.e it can handle the particles emission or modify particle properties, etc.).
  * @author inferno */
 public abstract class ParticleControllerComponent implements Disposable, Json.Serializable, ResourceData.Configurable {
+	/** Shared by all components, so they must not be used by code running in {@link ParticleController#update(float)}, which
+	 * {@link ParticleSystem} can call on multiple threads. */
 	protected static final Vector3 TMP_V1 = new Vector3(), TMP_V2 = new Vector3(), TMP_V3 = new Vector3(), TMP_V4 = new Vector3(),
 		TMP_V5 = new Vector3(), TMP_V6 = new Vector3();
 	protected static final Quaternion TMP_Q = new Quaternion(), TMP_Q2 = new Quaternion();
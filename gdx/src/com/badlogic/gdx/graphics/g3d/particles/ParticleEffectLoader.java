@@ -32,8 +32,14 @@ import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.g3d.particles.ResourceData.AssetData;
 import com.badlogic.gdx.graphics.g3d.particles.batches.ParticleBatch;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BaseJsonReader;
 import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.utils.UBJsonReader;
+import com.badlogic.gdx.utils.UBJsonWriter;
 import com.badlogic.gdx.utils.reflect.ClassReflection;
 
 /** This class can save and load a {@link ParticleEffect}. It should be added as {@link AsynchronousAssetLoader} to the
@@ -42,13 +48,24 @@ import com.badlogic.gdx.utils.reflect.ClassReflection;
  * present the batches settings will be loaded automatically. When the load and save parameters are absent, once the effect will
  * be created, one will have to set the required batches manually otherwise the {@link ParticleController} instances contained
  * inside the effect will not be able to render themselves.
+ * <p>
+ * Effects are saved as JSON by default. Effects saved in binary, see {@link ParticleEffectSaveParameter#binary}, are loaded with a
+ * {@link UBJsonReader}, which the {@link AssetManager} uses for files ending with ".pfxb".
  * @author inferno */
 public class ParticleEffectLoader extends
 	AsynchronousAssetLoader<ParticleEffect, ParticleEffectLoader.ParticleEffectLoadParameter> {
 	protected Array<ObjectMap.Entry<String, ResourceData<ParticleEffect>>> items = new Array<ObjectMap.Entry<String, ResourceData<ParticleEffect>>>();
 
+	protected final BaseJsonReader reader;
+
 	public ParticleEffectLoader (FileHandleResolver resolver) {
+		this(resolver, new JsonReader());
+	}
+
+	/** @param reader parses the effect files, a {@link UBJsonReader} for binary effects. */
+	public ParticleEffectLoader (FileHandleResolver resolver, BaseJsonReader reader) {
 		super(resolver);
+		this.reader = reader;
 	}
 
 	@Override
@@ -58,7 +75,7 @@ public class ParticleEffectLoader extends
 	@Override
 	public Array<AssetDescriptor> getDependencies (String fileName, FileHandle file, ParticleEffectLoadParameter parameter) {
 		Json json = new Json();
-		ResourceData<ParticleEffect> data = json.fromJson(ResourceData.class, file);
+		ResourceData<ParticleEffect> data = json.readValue(ResourceData.class, reader.parse(file));
 		Array<AssetData> assets = null;
 		synchronized (items) {
 			ObjectMap.Entry<String, ResourceData<ParticleEffect>> entry = new ObjectMap.Entry<String, ResourceData<ParticleEffect>>();
@@ -110,7 +127,55 @@ public class ParticleEffectLoader extends
 
 		// save
 		Json json = new Json();
-		json.toJson(data, parameter.file);
+		if (parameter.binary)
+			writeBinary(new JsonReader().parse(json.toJson(data)), parameter.file);
+		else
+			json.toJson(data, parameter.file);
+	}
+
+	/** Writes the JSON of an effect as UBJSON, to be loaded with a {@link UBJsonReader}. Numbers are stored as 32 bit integers or
+	 * floats when that keeps their value, so the file is smaller than the JSON. */
+	static public void writeBinary (JsonValue json, FileHandle file) throws IOException {
+		UBJsonWriter writer = new UBJsonWriter(file.write(false, 8192));
+		try {
+			writeBinary(writer, json);
+		} finally {
+			StreamUtils.closeQuietly(writer);
+		}
+	}
+
+	static private void writeBinary (UBJsonWriter writer, JsonValue value) throws IOException {
+		if (value.isObject() || value.isArray()) {
+			if (value.isObject()) {
+				if (value.name != null)
+					writer.object(value.name);
+				else
+					writer.object();
+			} else {
+				if (value.name != null)
+					writer.array(value.name);
+				else
+					writer.array();
+			}
+			for (JsonValue child = value.child; child != null; child = child.next)
+				writeBinary(writer, child);
+			writer.pop();
+		} else if (value.isLong()) {
+			if (value.name != null) writer.name(value.name);
+			long number = value.asLong();
+			if (number == (int)number)
+				writer.value((int)number);
+			else
+				writer.value(number);
+		} else if (value.isDouble()) {
+			if (value.name != null) writer.name(value.name);
+			double number = value.asDouble();
+			if (number == (float)number)
+				writer.value((float)number);
+			else
+				writer.value(number);
+		} else
+			writer.value(value);
 	}
 
 	@Override
@@ -162,11 +227,21 @@ public class ParticleEffectLoader extends
 		FileHandle file;
 		AssetManager manager;
 
+		/** Whether the effect is saved as UBJSON instead of JSON, which is smaller and parses faster. Binary effects must be loaded
+		 * with a {@link UBJsonReader}. */
+		public boolean binary;
+
 		public ParticleEffectSaveParameter (FileHandle file, AssetManager manager, Array<ParticleBatch<?>> batches) {
 			this.batches = batches;
 			this.file = file;
 			this.manager = manager;
 		}
+
+		public ParticleEffectSaveParameter (FileHandle file, AssetManager manager, Array<ParticleBatch<?>> batches,
+			boolean binary) {
+			this(file, manager, batches);
+			this.binary = binary;
+		}
 	}
 
 }
@@ -18,6 +18,7 @@ package com.badlogic.gdx.graphics.g3d.particles;
 
 import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.g3d.particles.renderers.ParticleControllerRenderData;
+import com.badlogic.gdx.graphics.g3d.utils.DepthSorter;
 import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
@@ -144,6 +145,47 @@ public abstract class ParticleSorter {
 		}
 	}
 
+	/** Sorts the particles by the distance from the camera like {@link Distance}, but with a {@link DepthSorter}, which takes
+	 * linear time and is faster for large amounts of particles. Particles whose distances are closer than the precision of the
+	 * sorter keep their order. */
+	public static class RadixDistance extends ParticleSorter {
+		/** The sorter, which can be configured to use more key bits or frame to frame coherence. */
+		public final DepthSorter sorter = new DepthSorter();
+		private float[] distances;
+		private int[] particleOffsets;
+		private int currentSize = 0;
+
+		@Override
+		public void ensureCapacity (int capacity) {
+			if (currentSize < capacity) {
+				distances = new float[capacity];
+				particleOffsets = new int[capacity];
+				currentSize = capacity;
+			}
+		}
+
+		@Override
+		public <T extends ParticleControllerRenderData> int[] sort (Array<T> renderData) {
+			float[] val = camera.view.val;
+			float cx = val[Matrix4.M20], cy = val[Matrix4.M21], cz = val[Matrix4.M22];
+			final float[] distances = this.distances;
+			int i = 0;
+			for (ParticleControllerRenderData data : renderData) {
+				final float[] positions = data.positionChannel.data;
+				final int stride = data.positionChannel.strideSize;
+				for (int k = 0, c = i + data.controller.particles.size; i < c; ++i, k += stride) {
+					distances[i] = cx * positions[k + ParticleChannels.XOffset] + cy * positions[k + ParticleChannels.YOffset] + cz
+						* positions[k + ParticleChannels.ZOffset];
+				}
+			}
+
+			final int[] order = sorter.sort(distances, i);
+			for (int j = 0; j < i; ++j)
+				particleOffsets[order[j]] = j;
+			return particleOffsets;
+		}
+	}
+
 	protected Camera camera;
 
 	/** @return an array of offsets where each particle should be put in the resulting mesh (also if more than one mesh will be
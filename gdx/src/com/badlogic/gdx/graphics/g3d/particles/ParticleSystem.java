@@ -16,16 +16,29 @@
 
 package com.badlogic.gdx.graphics.g3d.particles;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.g3d.Renderable;
 import com.badlogic.gdx.graphics.g3d.RenderableProvider;
 import com.badlogic.gdx.graphics.g3d.particles.batches.ParticleBatch;
+import com.badlogic.gdx.graphics.g3d.particles.emitters.Emitter;
+import com.badlogic.gdx.graphics.g3d.particles.influencers.Influencer;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.async.ParallelExecutor;
 
 /** Singleton class which manages the particle effects. It's a utility class to ease particle batches management and particle
  * effects update.
+ * <p>
+ * The simulation can be updated on multiple threads, see {@link #setThreads(int)}. The {@link ParticleController controllers} of
+ * all effects are then divided over the threads, each thread updating the {@link Emitter} and {@link Influencer influencers} of
+ * its controllers. Drawing always happens on the calling thread in the order the effects were added, so the batches are filled
+ * the same way as with a single thread. Custom components must not share mutable state between controllers to be updated on
+ * multiple threads, like the static temporaries of {@link ParticleControllerComponent} or of
+ * {@link com.badlogic.gdx.math.Quaternion#transform(com.badlogic.gdx.math.Vector3)}; note that values from
+ * {@link com.badlogic.gdx.math.MathUtils#random()} are then drawn in a different order each frame.
  * @author inferno */
-public final class ParticleSystem implements RenderableProvider {
+public final class ParticleSystem implements RenderableProvider, Disposable {
 	private static ParticleSystem instance;
 
 	/** @deprecated Please directly use the constructor */
@@ -37,6 +50,22 @@ public final class ParticleSystem implements RenderableProvider {
 
 	private Array<ParticleBatch<?>> batches;
 	private Array<ParticleEffect> effects;
+	private final Array<ParticleController> controllers = new Array<ParticleController>(false, 16, ParticleController.class);
+	private final ParallelExecutor executor = new ParallelExecutor("ParticleSystem");
+	private int count;
+	private float deltaTime;
+	private final ParallelExecutor.Task updateTask = new ParallelExecutor.Task() {
+		public void run (int index) {
+			ParticleController[] items = controllers.items;
+			int size = controllers.size;
+			for (int i = (int)((long)size * index / count), n = (int)((long)size * (index + 1) / count); i < n; i++)
+				items[i].update(deltaTime);
+		}
+	};
+
+	/** The minimum number of controllers updated by a thread. Fewer controllers than twice this value are updated on the calling
+	 * thread. */
+	public int minControllersPerThread = 32;
 
 	public ParticleSystem () {
 		batches = new Array<ParticleBatch<?>>();
@@ -60,29 +89,75 @@ public final class ParticleSystem implements RenderableProvider {
 		effects.clear();
 	}
 
+	/** Sets the number of threads updating the simulation, including the calling thread. With more than one thread, worker
+	 * threads are created which must be released with {@link #dispose()}. Default is 1.
+	 * @see com.badlogic.gdx.utils.async.ThreadUtils#availableProcessors() */
+	public void setThreads (int threads) {
+		executor.setThreads(threads);
+	}
+
+	/** @return the number of threads updating the simulation, including the calling thread. */
+	public int getThreads () {
+		return executor.getThreads();
+	}
+
 	/** Updates the simulation of all effects */
 	public void update () {
-		for (ParticleEffect effect : effects) {
-			effect.update();
+		if (executor.getThreads() > 1)
+			update(Gdx.graphics.getDeltaTime());
+		else {
+			for (ParticleEffect effect : effects) {
+				effect.update();
+			}
 		}
 	}
 
 	public void updateAndDraw () {
-		for (ParticleEffect effect : effects) {
-			effect.update();
-			effect.draw();
-		}		
+		if (executor.getThreads() > 1) {
+			update(Gdx.graphics.getDeltaTime());
+			draw();
+		} else {
+			for (ParticleEffect effect : effects) {
+				effect.update();
+				effect.draw();
+			}
+		}
 	}
 
 	public void update (float deltaTime) {
-		for (ParticleEffect effect : effects) {
-			effect.update(deltaTime);
+		if (executor.getThreads() > 1)
+			updateControllers(deltaTime);
+		else {
+			for (ParticleEffect effect : effects) {
+				effect.update(deltaTime);
+			}
 		}
 	}
-	public void updateAndDraw(float deltaTime) {
-		for (ParticleEffect effect : effects) {
-			effect.update(deltaTime);
-			effect.draw();
+
+	public void updateAndDraw (float deltaTime) {
+		if (executor.getThreads() > 1) {
+			updateControllers(deltaTime);
+			draw();
+		} else {
+			for (ParticleEffect effect : effects) {
+				effect.update(deltaTime);
+				effect.draw();
+			}
+		}
+	}
+
+	private void updateControllers (float deltaTime) {
+		final Array<ParticleController> controllers = this.controllers;
+		for (int i = 0, n = effects.size; i < n; i++)
+			controllers.addAll(effects.get(i).getControllers());
+
+		count = Math.max(1, Math.min(executor.getThreads(), controllers.size / Math.max(1, minControllersPerThread)));
+		this.deltaTime = deltaTime;
+		try {
+			// Always waits for all tasks, the controllers must not be touched by the workers once this returns.
+			executor.run(count, updateTask);
+		} finally {
+			controllers.clear();
 		}
 	}
 
@@ -114,4 +189,10 @@ public final class ParticleSystem implements RenderableProvider {
 	public Array<ParticleBatch<?>> getBatches () {
 		return batches;
 	}
+
+	/** Releases the worker threads, see {@link #setThreads(int)}. The effects and batches are not disposed. */
+	@Override
+	public void dispose () {
+		executor.dispose();
+	}
 }
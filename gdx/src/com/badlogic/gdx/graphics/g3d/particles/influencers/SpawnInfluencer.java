@@ -22,6 +22,8 @@ import com.badlogic.gdx.graphics.g3d.particles.ParticleChannels;
 import com.badlogic.gdx.graphics.g3d.particles.ResourceData;
 import com.badlogic.gdx.graphics.g3d.particles.values.PointSpawnShapeValue;
 import com.badlogic.gdx.graphics.g3d.particles.values.SpawnShapeValue;
+import com.badlogic.gdx.math.Quaternion;
+import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
 
@@ -32,6 +34,8 @@ public class SpawnInfluencer extends Influencer {
 	public SpawnShapeValue spawnShapeValue;
 	FloatChannel positionChannel;
 	FloatChannel rotationChannel;
+	private final Vector3 position = new Vector3();
+	private final Quaternion rotation = new Quaternion();
 
 	public SpawnInfluencer () {
 		spawnShapeValue = new PointSpawnShapeValue();
@@ -64,18 +68,18 @@ public class SpawnInfluencer extends Influencer {
 	@Override
 	public void activateParticles (int startIndex, int count) {
 		for (int i = startIndex * positionChannel.strideSize, c = i + count * positionChannel.strideSize; i < c; i += positionChannel.strideSize) {
-			spawnShapeValue.spawn(TMP_V1, controller.emitter.percent);
-			TMP_V1.mul(controller.transform);
-			positionChannel.data[i + ParticleChannels.XOffset] = TMP_V1.x;
-			positionChannel.data[i + ParticleChannels.YOffset] = TMP_V1.y;
-			positionChannel.data[i + ParticleChannels.ZOffset] = TMP_V1.z;
+			spawnShapeValue.spawn(position, controller.emitter.percent);
+			position.mul(controller.transform);
+			positionChannel.data[i + ParticleChannels.XOffset] = position.x;
+			positionChannel.data[i + ParticleChannels.YOffset] = position.y;
+			positionChannel.data[i + ParticleChannels.ZOffset] = position.z;
 		}
 		for (int i = startIndex * rotationChannel.strideSize, c = i + count * rotationChannel.strideSize; i < c; i += rotationChannel.strideSize) {
-			controller.transform.getRotation(TMP_Q, true);
-			rotationChannel.data[i + ParticleChannels.XOffset] = TMP_Q.x;
-			rotationChannel.data[i + ParticleChannels.YOffset] = TMP_Q.y;
-			rotationChannel.data[i + ParticleChannels.ZOffset] = TMP_Q.z;
-			rotationChannel.data[i + ParticleChannels.WOffset] = TMP_Q.w;
+			controller.transform.getRotation(rotation, true);
+			rotationChannel.data[i + ParticleChannels.XOffset] = rotation.x;
+			rotationChannel.data[i + ParticleChannels.YOffset] = rotation.y;
+			rotationChannel.data[i + ParticleChannels.ZOffset] = rotation.z;
+			rotationChannel.data[i + ParticleChannels.WOffset] = rotation.w;
 		}
 	}
 
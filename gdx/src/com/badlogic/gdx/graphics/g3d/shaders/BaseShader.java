@@ -38,7 +38,9 @@ import com.badlogic.gdx.utils.IntArray;
 import com.badlogic.gdx.utils.IntIntMap;
 
 /** @author Xoppa A BaseShader is a wrapper around a ShaderProgram that keeps track of the uniform and attribute locations. It does
- *         not manage the ShaderPogram, you are still responsible for disposing the ShaderProgram. */
+ *         not manage the ShaderPogram, you are still responsible for disposing the ShaderProgram. The ShaderProgram remembers the
+ *         values set per uniform location when {@link ShaderProgram#cacheUniforms} is enabled, so a {@link Setter} setting a value
+ *         which did not change does not call GL. */
 public abstract class BaseShader implements Shader {
 	public interface Validator {
 		/** @return True if the input is valid for the renderable, false otherwise. */
@@ -27,6 +27,7 @@ import com.badlogic.gdx.graphics.g3d.Environment;
 import com.badlogic.gdx.graphics.g3d.Renderable;
 import com.badlogic.gdx.graphics.g3d.Shader;
 import com.badlogic.gdx.graphics.g3d.attributes.BlendingAttribute;
+import com.badlogic.gdx.graphics.g3d.attributes.ClusteredLightsAttribute;
 import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
 import com.badlogic.gdx.graphics.g3d.attributes.CubemapAttribute;
 import com.badlogic.gdx.graphics.g3d.attributes.DepthTestAttribute;
@@ -37,6 +38,7 @@ import com.badlogic.gdx.graphics.g3d.attributes.PointLightsAttribute;
 import com.badlogic.gdx.graphics.g3d.attributes.SpotLightsAttribute;
 import com.badlogic.gdx.graphics.g3d.attributes.TextureAttribute;
 import com.badlogic.gdx.graphics.g3d.environment.AmbientCubemap;
+import com.badlogic.gdx.graphics.g3d.environment.ClusteredLights;
 import com.badlogic.gdx.graphics.g3d.environment.DirectionalLight;
 import com.badlogic.gdx.graphics.g3d.environment.PointLight;
 import com.badlogic.gdx.graphics.g3d.environment.SpotLight;
@@ -68,6 +70,10 @@ public class DefaultShader extends BaseShader {
 		public int defaultCullFace = -1;
 		/** Set to 0 to disable depth test, -1 to inherit from {@link DefaultShader#defaultDepthFunc} */
 		public int defaultDepthFunc = -1;
+		/** Whether to take the world transform and diffuse color from the per instance "i_worldTrans" and "i_color" attributes
+		 * instead of from the renderable, see {@link com.badlogic.gdx.graphics.g3d.ModelBatch#setInstancing(boolean)}. Requires
+		 * OpenGL ES 3.0. */
+		public boolean instanced = false;
 
 		public Config () {
 		}
@@ -205,12 +211,23 @@ public class DefaultShader extends BaseShader {
 
 			@Override
 			public void set (BaseShader shader, int inputID, Renderable renderable, Attributes combinedAttributes) {
-				for (int i = 0; i < bones.length; i += 16) {
-					final int idx = i / 16;
-					if (renderable.bones == null || idx >= renderable.bones.length || renderable.bones[idx] == null)
+				final float[] values = renderable.boneValues;
+				if (values != null) {
+					if (values.length >= bones.length) {
+						shader.program.setUniformMatrix4fv(shader.loc(inputID), values, 0, bones.length);
+						return;
+					}
+					System.arraycopy(values, 0, bones, 0, values.length);
+					for (int i = values.length; i < bones.length; i += 16)
 						System.arraycopy(idtMatrix.val, 0, bones, i, 16);
-					else
-						System.arraycopy(renderable.bones[idx].val, 0, bones, i, 16);
+				} else {
+					for (int i = 0; i < bones.length; i += 16) {
+						final int idx = i / 16;
+						if (renderable.bones == null || idx >= renderable.bones.length || renderable.bones[idx] == null)
+							System.arraycopy(idtMatrix.val, 0, bones, i, 16);
+						else
+							System.arraycopy(renderable.bones[idx].val, 0, bones, i, 16);
+					}
 				}
 				shader.program.setUniformMatrix4fv(shader.loc(inputID), bones, 0, bones.length);
 			}
@@ -468,6 +485,10 @@ public class DefaultShader extends BaseShader {
 	protected final int u_shadowMapProjViewTrans = register(new Uniform("u_shadowMapProjViewTrans"));
 	protected final int u_shadowTexture = register(new Uniform("u_shadowTexture"));
 	protected final int u_shadowPCFOffset = register(new Uniform("u_shadowPCFOffset"));
+	protected final int u_clusterTexture = register(new Uniform("u_clusterTexture"));
+	protected final int u_clusterTextureSize = register(new Uniform("u_clusterTextureSize"));
+	protected final int u_clusterGrid = register(new Uniform("u_clusterGrid"));
+	protected final int u_clusterDepth = register(new Uniform("u_clusterDepth"));
 	// FIXME Cache vertex attribute locations...
 
 	protected int dirLightsLoc;
@@ -491,6 +512,10 @@ public class DefaultShader extends BaseShader {
 	protected final boolean lighting;
 	protected final boolean environmentCubemap;
 	protected final boolean shadowMap;
+	/** Whether the point and spot lights are taken from the {@link ClusteredLightsAttribute} of the environment. */
+	protected final boolean clusteredLights;
+	/** The {@link ClusteredLights#maxLightsPerCluster} compiled into the shader, 0 without {@link #clusteredLights}. */
+	protected final int maxClusterLights;
 	protected final AmbientCubemap ambientCubemap = new AmbientCubemap();
 	protected final DirectionalLight directionalLights[];
 	protected final PointLight pointLights[];
@@ -531,6 +556,8 @@ public class DefaultShader extends BaseShader {
 		this.environmentCubemap = attributes.has(CubemapAttribute.EnvironmentMap)
 			|| (lighting && attributes.has(CubemapAttribute.EnvironmentMap));
 		this.shadowMap = lighting && renderable.environment.shadowMap != null;
+		this.clusteredLights = lighting && attributes.has(ClusteredLightsAttribute.Type);
+		this.maxClusterLights = clusteredLights ? getMaxClusterLights(renderable) : 0;
 		this.renderable = renderable;
 		attributesMask = attributes.getMask() | optionalAttributes;
 		vertexMask = renderable.meshPart.mesh.getVertexAttributes().getMaskWithSizePacked();
@@ -538,10 +565,10 @@ public class DefaultShader extends BaseShader {
 		this.directionalLights = new DirectionalLight[lighting && config.numDirectionalLights > 0 ? config.numDirectionalLights : 0];
 		for (int i = 0; i < directionalLights.length; i++)
 			directionalLights[i] = new DirectionalLight();
-		this.pointLights = new PointLight[lighting && config.numPointLights > 0 ? config.numPointLights : 0];
+		this.pointLights = new PointLight[lighting && !clusteredLights && config.numPointLights > 0 ? config.numPointLights : 0];
 		for (int i = 0; i < pointLights.length; i++)
 			pointLights[i] = new PointLight();
-		this.spotLights = new SpotLight[lighting && config.numSpotLights > 0 ? config.numSpotLights : 0];
+		this.spotLights = new SpotLight[lighting && !clusteredLights && config.numSpotLights > 0 ? config.numSpotLights : 0];
 		for (int i = 0; i < spotLights.length; i++)
 			spotLights[i] = new SpotLight();
 
@@ -585,8 +612,9 @@ public class DefaultShader extends BaseShader {
 		u_ambientUVTransform = register(Inputs.ambientUVTransform, Setters.ambientUVTransform);
 		u_alphaTest = register(Inputs.alphaTest);
 
+		// Clustered point lights are all lit per fragment, none is added to the ambient cubemap.
 		u_ambientCubemap = lighting ? register(Inputs.ambientCube, new Setters.ACubemap(config.numDirectionalLights,
-			config.numPointLights)) : -1;
+			clusteredLights ? Integer.MAX_VALUE : config.numPointLights)) : -1;
 		u_environmentCubemap = environmentCubemap ? register(Inputs.environmentCubemap, Setters.environmentCubemap) : -1;
 	}
 
@@ -661,8 +689,17 @@ public class DefaultShader extends BaseShader {
 				prefix += "#define lightingFlag\n";
 				prefix += "#define ambientCubemapFlag\n";
 				prefix += "#define numDirectionalLights " + config.numDirectionalLights + "\n";
-				prefix += "#define numPointLights " + config.numPointLights + "\n";
-				prefix += "#define numSpotLights " + config.numSpotLights + "\n";
+				if (attributes.has(ClusteredLightsAttribute.Type)) {
+					final ClusteredLights clusteredLights = ((ClusteredLightsAttribute)attributes
+						.get(ClusteredLightsAttribute.Type)).clusteredLights;
+					prefix += "#define clusteredLightsFlag\n";
+					prefix += "#define maxClusterLights " + clusteredLights.maxLightsPerCluster + "\n";
+					prefix += "#define numPointLights 0\n";
+					prefix += "#define numSpotLights 0\n";
+				} else {
+					prefix += "#define numPointLights " + config.numPointLights + "\n";
+					prefix += "#define numSpotLights " + config.numSpotLights + "\n";
+				}
 				if (attributes.has(ColorAttribute.Fog)) {
 					prefix += "#define fogFlag\n";
 				}
@@ -703,7 +740,9 @@ public class DefaultShader extends BaseShader {
 			prefix += "#define " + TextureAttribute.AmbientAlias + "Flag\n";
 			prefix += "#define " + TextureAttribute.AmbientAlias + "Coord texCoord0\n"; // FIXME implement UV mapping
 		}
-		if ((attributesMask & ColorAttribute.Diffuse) == ColorAttribute.Diffuse)
+		if (config.instanced)
+			prefix += "#define instancedFlag\n";
+		else if ((attributesMask & ColorAttribute.Diffuse) == ColorAttribute.Diffuse)
 			prefix += "#define " + ColorAttribute.DiffuseAlias + "Flag\n";
 		if ((attributesMask & ColorAttribute.Specular) == ColorAttribute.Specular)
 			prefix += "#define " + ColorAttribute.SpecularAlias + "Flag\n";
@@ -723,7 +762,19 @@ public class DefaultShader extends BaseShader {
 	public boolean canRender (final Renderable renderable) {
 		final long renderableMask = combineAttributeMasks(renderable);
 		return (attributesMask == (renderableMask | optionalAttributes))
-			&& (vertexMask == renderable.meshPart.mesh.getVertexAttributes().getMaskWithSizePacked()) && (renderable.environment != null) == lighting;
+			&& (vertexMask == renderable.meshPart.mesh.getVertexAttributes().getMaskWithSizePacked()) && (renderable.environment != null) == lighting
+			&& (!clusteredLights || getMaxClusterLights(renderable) == maxClusterLights);
+	}
+
+	/** @return the {@link ClusteredLights#maxLightsPerCluster} of the renderable's {@link ClusteredLightsAttribute}, 0 if it has
+	 *         none. */
+	private static int getMaxClusterLights (final Renderable renderable) {
+		ClusteredLightsAttribute attribute = null;
+		if (renderable.material != null)
+			attribute = renderable.material.get(ClusteredLightsAttribute.class, ClusteredLightsAttribute.Type);
+		if (attribute == null && renderable.environment != null)
+			attribute = renderable.environment.get(ClusteredLightsAttribute.class, ClusteredLightsAttribute.Type);
+		return attribute != null ? attribute.clusteredLights.maxLightsPerCluster : 0;
 	}
 
 	@Override
@@ -745,6 +796,7 @@ public class DefaultShader extends BaseShader {
 	private final Matrix3 normalMatrix = new Matrix3();
 	private float time;
 	private boolean lightsSet;
+	private ClusteredLights boundClusteredLights;
 
 	@Override
 	public void begin (final Camera camera, final RenderContext context) {
@@ -757,6 +809,7 @@ public class DefaultShader extends BaseShader {
 		for (final SpotLight spotLight : spotLights)
 			spotLight.set(0, 0, 0, 0, 0, 0, 0, -1, 0, 0, 1, 0);
 		lightsSet = false;
+		boundClusteredLights = null;
 
 		if (has(u_time)) set(u_time, time += Gdx.graphics.getDeltaTime());
 	}
@@ -879,6 +932,22 @@ public class DefaultShader extends BaseShader {
 			}
 		}
 
+		if (clusteredLights) {
+			final ClusteredLights clusters = attributes.get(ClusteredLightsAttribute.class,
+				ClusteredLightsAttribute.Type).clusteredLights;
+			if (clusters.getTexture() == null)
+				throw new GdxRuntimeException("ClusteredLights#update must be called before rendering.");
+			// The clusters are the same for all renderables of the environment, only the texture unit might change.
+			if (clusters != boundClusteredLights) {
+				boundClusteredLights = clusters;
+				final int height = clusters.getTextureHeight();
+				set(u_clusterTextureSize, ClusteredLights.TEXTURE_WIDTH, height, 1f / ClusteredLights.TEXTURE_WIDTH, 1f / height);
+				set(u_clusterGrid, clusters.tilesX, clusters.tilesY, clusters.slices, clusters.getLightStart());
+				set(u_clusterDepth, clusters.getDepthScale(), clusters.getDepthBias());
+			}
+			set(u_clusterTexture, clusters.getTexture());
+		}
+
 		if (attributes.has(ColorAttribute.Fog)) {
 			set(u_fogColor, ((ColorAttribute)attributes.get(ColorAttribute.Fog)).color);
 		}
@@ -18,6 +18,7 @@ package com.badlogic.gdx.graphics.g3d.utils;
 
 import com.badlogic.gdx.graphics.g3d.ModelInstance;
 import com.badlogic.gdx.graphics.g3d.model.Animation;
+import com.badlogic.gdx.graphics.g3d.model.BakedAnimation;
 import com.badlogic.gdx.graphics.g3d.model.Node;
 import com.badlogic.gdx.graphics.g3d.model.NodeAnimation;
 import com.badlogic.gdx.graphics.g3d.model.NodeKeyframe;
@@ -26,14 +27,21 @@ import com.badlogic.gdx.math.Quaternion;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ObjectIntMap;
 import com.badlogic.gdx.utils.ObjectMap;
-import com.badlogic.gdx.utils.ObjectMap.Entry;
 import com.badlogic.gdx.utils.Pool;
 import com.badlogic.gdx.utils.Pool.Poolable;
 
 /** Base class for applying one or more {@link Animation}s to a {@link ModelInstance}. This class only applies the actual
  * {@link Node} transformations, it does not manage animations or keep track of animation states. See {@link AnimationController}
  * for an implementation of this class which does manage animations.
+ * <p>
+ * The controller remembers the keyframes found for each animation, so advancing the time in small steps doesn't search the
+ * keyframes again. Blending writes to arrays that are kept by the controller. For many instances of the same model, the
+ * animations can be sampled once into {@link BakedAnimation BakedAnimations} and shared by the controllers, see
+ * {@link #addBakedAnimation(BakedAnimation)}.
  * 
  * @author Xoppa */
 public class BaseAnimationController {
@@ -89,16 +97,30 @@ public class BaseAnimationController {
 		}
 	}
 
-	private final Pool<Transform> transformPool = new Pool<Transform>() {
-		@Override
-		protected Transform newObject () {
-			return new Transform();
-		}
-	};
-	private final static ObjectMap<Node, Transform> transforms = new ObjectMap<Node, Transform>();
+	/** The number of keyframes checked after the previously found keyframe before falling back to a binary search. */
+	private final static int KEYFRAME_STEPS = 4;
+	private final static int STRIDE = BakedAnimation.NODE_STRIDE;
+
 	private boolean applying = false;
 	/** The {@link ModelInstance} on which the animations are being performed. */
 	public final ModelInstance target;
+	/** Whether to call {@link ModelInstance#calculateTransforms()} after applying animations, true by default. Can be set to false
+	 * when the transforms of many instances are calculated at once, for example with a {@link ModelInstanceUpdater}. */
+	public boolean calculateTransforms = true;
+
+	private final IdentityMap<Animation, AnimationState> states = new IdentityMap<Animation, AnimationState>();
+	private final ObjectMap<String, BakedAnimation> bakedAnimations = new ObjectMap<String, BakedAnimation>();
+	/** Each animated node gets a slot in the blend arrays, {@link #STRIDE} floats in {@link #blendValues}. */
+	private final ObjectIntMap<Node> nodeSlots = new ObjectIntMap<Node>();
+	private final Array<Node> slotNodes = new Array<Node>();
+	private float[] blendValues = new float[0];
+	/** The blend and apply ids that last wrote to each slot, so the arrays don't have to be cleared. */
+	private int[] slotBlendIds = new int[0], slotApplyIds = new int[0];
+	private final IntArray blendSlots = new IntArray();
+	private int blendId, applyId;
+	private final float[] sample = new float[STRIDE];
+	private final Vector3 tmpV = new Vector3();
+	private final Quaternion tmpQ1 = new Quaternion(), tmpQ2 = new Quaternion();
 
 	/** Construct a new BaseAnimationController.
 	 * @param target The {@link ModelInstance} on which the animations are being performed. */
@@ -111,32 +133,72 @@ public class BaseAnimationController {
 	protected void begin () {
 		if (applying) throw new GdxRuntimeException("You must call end() after each call to being()");
 		applying = true;
+		blendId++;
 	}
 
 	/** Apply an animation, must be called between {{@link #begin()} and {{@link #end()}.
 	 * @param weight The blend weight of this animation relative to the previous applied animations. */
 	protected void apply (final Animation animation, final float time, final float weight) {
 		if (!applying) throw new GdxRuntimeException("You must call begin() before adding an animation");
-		applyAnimation(transforms, transformPool, weight, animation, time);
+		final AnimationState state = getState(animation);
+		final int applyId = ++this.applyId;
+		final float[] values = blendValues, sample = this.sample;
+		for (int i = 0, n = state.nodes.length; i < n; i++) {
+			final Node node = state.nodes[i];
+			if (node == null) continue;
+			node.isAnimated = true;
+			sample(state, i, time, sample);
+			final int slot = state.slots[i], offset = slot * STRIDE;
+			if (slotBlendIds[slot] != blendId) {
+				slotBlendIds[slot] = blendId;
+				blendSlots.add(slot);
+				if (weight > 0.999999f)
+					System.arraycopy(sample, 0, values, offset, STRIDE);
+				else {
+					getRestValues(node, values, offset);
+					lerp(values, offset, sample, weight);
+				}
+			} else if (weight > 0.999999f)
+				System.arraycopy(sample, 0, values, offset, STRIDE);
+			else
+				lerp(values, offset, sample, weight);
+			slotApplyIds[slot] = applyId;
+		}
+		// Nodes blended by previous animations but not by this one are blended towards their rest pose.
+		for (int i = 0, n = blendSlots.size; i < n; i++) {
+			final int slot = blendSlots.get(i);
+			if (slotApplyIds[slot] == applyId) continue;
+			final Node node = slotNodes.get(slot);
+			node.isAnimated = true;
+			getRestValues(node, sample, 0);
+			lerp(values, slot * STRIDE, sample, weight);
+		}
 	}
 
 	/** End applying multiple animations to the instance and update it to reflect the changes. */
 	protected void end () {
 		if (!applying) throw new GdxRuntimeException("You must call begin() first");
-		for (Entry<Node, Transform> entry : transforms.entries()) {
-			entry.value.toMatrix4(entry.key.localTransform);
-			transformPool.free(entry.value);
+		for (int i = 0, n = blendSlots.size; i < n; i++) {
+			final int slot = blendSlots.get(i);
+			setLocalTransform(slotNodes.get(slot), blendValues, slot * STRIDE);
 		}
-		transforms.clear();
-		target.calculateTransforms();
+		blendSlots.clear();
+		if (calculateTransforms) target.calculateTransforms();
 		applying = false;
 	}
 
 	/** Apply a single animation to the {@link ModelInstance} and update the it to reflect the changes. */
 	protected void applyAnimation (final Animation animation, final float time) {
 		if (applying) throw new GdxRuntimeException("Call end() first");
-		applyAnimation(null, null, 1.f, animation, time);
-		target.calculateTransforms();
+		final AnimationState state = getState(animation);
+		for (int i = 0, n = state.nodes.length; i < n; i++) {
+			final Node node = state.nodes[i];
+			if (node == null) continue;
+			node.isAnimated = true;
+			sample(state, i, time, sample);
+			setLocalTransform(node, sample, 0);
+		}
+		if (calculateTransforms) target.calculateTransforms();
 	}
 
 	/** Apply two animations, blending the second onto to first using weight. */
@@ -156,6 +218,177 @@ public class BaseAnimationController {
 		}
 	}
 
+	/** Uses the {@link BakedAnimation} instead of the keyframes whenever an animation with the same id is applied. The baked
+	 * animation can be shared by the controllers of all instances of the model it was created from. */
+	public void addBakedAnimation (final BakedAnimation animation) {
+		bakedAnimations.put(animation.id, animation);
+		states.clear();
+	}
+
+	/** Stops using the {@link BakedAnimation} with the specified id.
+	 * @return the baked animation, or null if there was none. */
+	public BakedAnimation removeBakedAnimation (final String id) {
+		BakedAnimation removed = bakedAnimations.remove(id);
+		if (removed != null) states.clear();
+		return removed;
+	}
+
+	public BakedAnimation getBakedAnimation (final String id) {
+		return bakedAnimations.get(id);
+	}
+
+	private AnimationState getState (final Animation animation) {
+		AnimationState state = states.get(animation);
+		if (state != null && state.isValid()) return state;
+		if (state == null) {
+			state = new AnimationState();
+			states.put(animation, state);
+		}
+		state.animation = animation;
+		final BakedAnimation baked = bakedAnimations.get(animation.id);
+		state.baked = baked;
+		final int nodeCount = baked != null ? baked.getNodeCount() : animation.nodeAnimations.size;
+		state.nodeCount = animation.nodeAnimations.size;
+		state.nodes = new Node[nodeCount];
+		state.slots = new int[nodeCount];
+		state.keyframes = baked != null ? null : new int[nodeCount * 3];
+		for (int i = 0; i < nodeCount; i++) {
+			final Node node = baked != null ? target.getNode(baked.nodeIds[i]) : animation.nodeAnimations.get(i).node;
+			state.nodes[i] = node;
+			if (node != null) state.slots[i] = getSlot(node);
+		}
+		return state;
+	}
+
+	private int getSlot (final Node node) {
+		int slot = nodeSlots.get(node, -1);
+		if (slot != -1) return slot;
+		slot = slotNodes.size;
+		nodeSlots.put(node, slot);
+		slotNodes.add(node);
+		if (slotBlendIds.length <= slot) {
+			final int capacity = Math.max(8, slot * 2);
+			final float[] newValues = new float[capacity * STRIDE];
+			System.arraycopy(blendValues, 0, newValues, 0, blendValues.length);
+			blendValues = newValues;
+			final int[] newBlendIds = new int[capacity], newApplyIds = new int[capacity];
+			System.arraycopy(slotBlendIds, 0, newBlendIds, 0, slotBlendIds.length);
+			System.arraycopy(slotApplyIds, 0, newApplyIds, 0, slotApplyIds.length);
+			slotBlendIds = newBlendIds;
+			slotApplyIds = newApplyIds;
+		}
+		slotBlendIds[slot] = blendId - 1;
+		slotApplyIds[slot] = applyId - 1;
+		return slot;
+	}
+
+	/** Writes the translation, rotation and scale of a node of the animation at the specified time. */
+	private void sample (final AnimationState state, final int index, final float time, final float[] out) {
+		if (state.baked != null) {
+			state.baked.sample(index, time, out, 0);
+			return;
+		}
+		final NodeAnimation nodeAnim = state.animation.nodeAnimations.get(index);
+		final int[] keyframes = state.keyframes;
+		final int k = index * 3;
+		final Vector3 v = tmpV;
+		keyframes[k] = getVector3AtTime(nodeAnim.translation, nodeAnim.node.translation, time, keyframes[k], v);
+		out[0] = v.x;
+		out[1] = v.y;
+		out[2] = v.z;
+		final Quaternion q = tmpQ1;
+		final Array<NodeKeyframe<Quaternion>> rotation = nodeAnim.rotation;
+		if (rotation == null)
+			q.set(nodeAnim.node.rotation);
+		else if (rotation.size == 1)
+			q.set(rotation.get(0).value);
+		else {
+			final int i = keyframes[k + 1] = getFirstKeyframeIndexAtTime(rotation, time, keyframes[k + 1]);
+			final NodeKeyframe<Quaternion> first = rotation.get(i);
+			q.set(first.value);
+			if (i + 1 < rotation.size) {
+				final NodeKeyframe<Quaternion> second = rotation.get(i + 1);
+				q.slerp(second.value, (time - first.keytime) / (second.keytime - first.keytime));
+			}
+		}
+		out[3] = q.x;
+		out[4] = q.y;
+		out[5] = q.z;
+		out[6] = q.w;
+		keyframes[k + 2] = getVector3AtTime(nodeAnim.scaling, nodeAnim.node.scale, time, keyframes[k + 2], v);
+		out[7] = v.x;
+		out[8] = v.y;
+		out[9] = v.z;
+	}
+
+	/** @return the index of the keyframe, to be passed as hint on the next call. */
+	private final static int getVector3AtTime (final Array<NodeKeyframe<Vector3>> keyframes, final Vector3 rest,
+		final float time, final int hint, final Vector3 out) {
+		if (keyframes == null) {
+			out.set(rest);
+			return 0;
+		}
+		if (keyframes.size == 1) {
+			out.set(keyframes.get(0).value);
+			return 0;
+		}
+		final int index = getFirstKeyframeIndexAtTime(keyframes, time, hint);
+		final NodeKeyframe<Vector3> first = keyframes.get(index);
+		out.set(first.value);
+		if (index + 1 < keyframes.size) {
+			final NodeKeyframe<Vector3> second = keyframes.get(index + 1);
+			out.lerp(second.value, (time - first.keytime) / (second.keytime - first.keytime));
+		}
+		return index;
+	}
+
+	private final static void getRestValues (final Node node, final float[] out, final int offset) {
+		out[offset] = node.translation.x;
+		out[offset + 1] = node.translation.y;
+		out[offset + 2] = node.translation.z;
+		out[offset + 3] = node.rotation.x;
+		out[offset + 4] = node.rotation.y;
+		out[offset + 5] = node.rotation.z;
+		out[offset + 6] = node.rotation.w;
+		out[offset + 7] = node.scale.x;
+		out[offset + 8] = node.scale.y;
+		out[offset + 9] = node.scale.z;
+	}
+
+	/** Interpolates the values at the offset towards the target values, like {@link Transform#lerp(Transform, float)}. */
+	private void lerp (final float[] values, final int offset, final float[] target, final float alpha) {
+		for (int i = 0; i < 3; i++)
+			values[offset + i] += (target[i] - values[offset + i]) * alpha;
+		for (int i = 7; i < 10; i++)
+			values[offset + i] += (target[i] - values[offset + i]) * alpha;
+		final Quaternion q = tmpQ1.set(values[offset + 3], values[offset + 4], values[offset + 5], values[offset + 6]);
+		q.slerp(tmpQ2.set(target[3], target[4], target[5], target[6]), alpha);
+		values[offset + 3] = q.x;
+		values[offset + 4] = q.y;
+		values[offset + 5] = q.z;
+		values[offset + 6] = q.w;
+	}
+
+	private final static void setLocalTransform (final Node node, final float[] values, final int offset) {
+		node.localTransform.set(values[offset], values[offset + 1], values[offset + 2], values[offset + 3], values[offset + 4],
+			values[offset + 5], values[offset + 6], values[offset + 7], values[offset + 8], values[offset + 9]);
+	}
+
+	/** The nodes, blend slots and last found keyframes of an animation applied by this controller. */
+	private final static class AnimationState {
+		Animation animation;
+		BakedAnimation baked;
+		int nodeCount;
+		Node[] nodes;
+		int[] slots;
+		/** For each node animation, the index of the translation, rotation and scaling keyframe found last. */
+		int[] keyframes;
+
+		boolean isValid () {
+			return nodeCount == animation.nodeAnimations.size;
+		}
+	}
+
 	private final static Transform tmpT = new Transform();
 
 	/** Find first key frame index just before a given time
@@ -187,6 +420,18 @@ public class BaseAnimationController {
 		return minIndex;
 	}
 
+	/** Like {@link #getFirstKeyframeIndexAtTime(Array, float)}, but first checks the keyframes following the hint, so that when
+	 * the time advances in small steps the index is found without searching.
+	 * @param hint the index returned by the previous call. */
+	final static <T> int getFirstKeyframeIndexAtTime (final Array<NodeKeyframe<T>> arr, final float time, final int hint) {
+		final int lastIndex = arr.size - 1;
+		if (hint >= 0 && hint < lastIndex && time >= arr.get(hint).keytime) {
+			for (int i = hint, n = Math.min(hint + KEYFRAME_STEPS, lastIndex); i < n; i++)
+				if (time <= arr.get(i + 1).keytime) return i;
+		}
+		return getFirstKeyframeIndexAtTime(arr, time);
+	}
+
 	private final static Vector3 getTranslationAtTime (final NodeAnimation nodeAnim, final float time, final Vector3 out) {
 		if (nodeAnim.translation == null) return out.set(nodeAnim.node.translation);
 		if (nodeAnim.translation.size == 1) return out.set(nodeAnim.translation.get(0).value);
@@ -21,6 +21,7 @@ import java.nio.IntBuffer;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.GLTexture;
+import com.badlogic.gdx.graphics.glutils.GLStateCache;
 import com.badlogic.gdx.utils.BufferUtils;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 
@@ -91,7 +92,7 @@ public final class DefaultTextureBinder implements TextureBinder {
 		 * Gdx.gl.glActiveTexture(GL20.GL_TEXTURE0 + offset + i); Gdx.gl.glBindTexture(GL20.GL_TEXTURE_2D, 0); textures[i] = null; }
 		 * }
 		 */
-		Gdx.gl.glActiveTexture(GL20.GL_TEXTURE0);
+		GLStateCache.activeTexture(0);
 	}
 
 	@Override
@@ -128,7 +129,7 @@ public final class DefaultTextureBinder implements TextureBinder {
 			if (rebind)
 				texture.bind(result);
 			else
-				Gdx.gl.glActiveTexture(GL20.GL_TEXTURE0 + result);
+				GLStateCache.activeTexture(result);
 		} else
 			bindCount++;
 		texture.unsafeSetWrap(textureDesc.uWrap, textureDesc.vWrap);
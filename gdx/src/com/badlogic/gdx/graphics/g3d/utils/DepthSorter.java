@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g3d.utils;
+
+import com.badlogic.gdx.graphics.g3d.decals.RadixCameraGroupStrategy;
+import com.badlogic.gdx.graphics.g3d.particles.ParticleSorter;
+
+/** Sorts elements by a float depth, such as the distance to the camera, in linear time. The depths are quantized to
+ * {@link #keyBits} bit keys spread evenly between the smallest and the largest depth, which are sorted with a stable radix sort of
+ * 8 bits per pass. Depths closer together than the quantization step keep their original order. The buffers are reused, so
+ * sorting doesn't allocate once they are large enough.
+ * <p>
+ * When {@link #coherent} is true and the number of elements didn't change, the order of the previous call is tried first and
+ * repaired with an insertion sort, which is faster when the elements moved little since the last sort (e.g. from frame to frame).
+ * When the order is too far off, the radix sort is used instead.
+ * <p>
+ * Used by {@link ParticleSorter.RadixDistance} and {@link RadixCameraGroupStrategy}. */
+public class DepthSorter {
+	/** The number of bits of the quantized keys, between 1 and 32. More bits tell closer depths apart, every 8 bits need another
+	 * pass over the elements. Default is 16. */
+	public int keyBits = 16;
+	/** Whether to try repairing the order of the previous call first, false by default. */
+	public boolean coherent;
+	/** The number of calls that repaired the previous order and that used the radix sort, for statistics. */
+	public int coherentSorts, radixSorts;
+
+	private int[] keys = new int[0], tempKeys = new int[0];
+	private int[] order = new int[0], tempOrder = new int[0];
+	private final int[] counts = new int[256];
+	private int lastCount = -1;
+
+	/** Sorts the depths in ascending order, negate the depths to sort in descending order.
+	 * @param depths the depths of the elements, not modified
+	 * @param count the number of elements
+	 * @return the indices of the elements in sorted order, only valid until the next call. */
+	public int[] sort (float[] depths, int count) {
+		if (keyBits < 1 || keyBits > 32) throw new IllegalArgumentException("keyBits must be between 1 and 32: " + keyBits);
+		ensureCapacity(count);
+
+		float min = Float.POSITIVE_INFINITY, max = Float.NEGATIVE_INFINITY;
+		for (int i = 0; i < count; i++) {
+			float depth = depths[i];
+			if (depth < min) min = depth;
+			if (depth > max) max = depth;
+		}
+		final int[] keys = this.keys;
+		final long maxKey = (1L << keyBits) - 1;
+		final double scale = max > min ? maxKey / ((double)max - min) : 0;
+		for (int i = 0; i < count; i++) {
+			long key = (long)((depths[i] - (double)min) * scale);
+			// Clamps rounding errors and NaN, which converts to 0.
+			keys[i] = (int)(key > maxKey ? maxKey : key < 0 ? 0 : key);
+		}
+
+		if (coherent && count == lastCount && insertionSort(count)) {
+			coherentSorts++;
+			return order;
+		}
+		radixSort(count);
+		radixSorts++;
+		lastCount = count;
+		return order;
+	}
+
+	/** Repairs the order of the previous call with an insertion sort.
+	 * @return false if too many elements had to be moved, the order is then invalid. */
+	private boolean insertionSort (int count) {
+		final int[] order = this.order, keys = this.keys, sorted = tempKeys;
+		for (int i = 0; i < count; i++)
+			sorted[i] = keys[order[i]];
+		// Moving each element once on average is still cheaper than the radix passes.
+		int budget = count;
+		for (int i = 1; i < count; i++) {
+			final int key = sorted[i];
+			if (unsignedLess(key, sorted[i - 1])) {
+				final int index = order[i];
+				int j = i;
+				do {
+					sorted[j] = sorted[j - 1];
+					order[j] = order[j - 1];
+					j--;
+				} while (j > 0 && unsignedLess(key, sorted[j - 1]));
+				sorted[j] = key;
+				order[j] = index;
+				budget -= i - j;
+				if (budget < 0) return false;
+			}
+		}
+		return true;
+	}
+
+	static private boolean unsignedLess (int a, int b) {
+		return (a ^ Integer.MIN_VALUE) < (b ^ Integer.MIN_VALUE);
+	}
+
+	/** Stable LSD radix sort of the keys, 8 bits at a time, skipping digits that are the same for all keys. */
+	private void radixSort (int count) {
+		int[] keys = this.keys, tempKeys = this.tempKeys;
+		int[] order = this.order, tempOrder = this.tempOrder;
+		final int[] counts = this.counts;
+		for (int i = 0; i < count; i++)
+			order[i] = i;
+		for (int shift = 0; shift < keyBits && count > 1; shift += 8) {
+			for (int i = 0; i < 256; i++)
+				counts[i] = 0;
+			for (int i = 0; i < count; i++)
+				counts[(keys[i] >>> shift) & 0xff]++;
+			if (counts[(keys[0] >>> shift) & 0xff] == count) continue; // All keys have the same digit.
+			for (int i = 0, offset = 0; i < 256; i++) {
+				int digitCount = counts[i];
+				counts[i] = offset;
+				offset += digitCount;
+			}
+			for (int i = 0; i < count; i++) {
+				final int key = keys[i];
+				final int index = counts[(key >>> shift) & 0xff]++;
+				tempKeys[index] = key;
+				tempOrder[index] = order[i];
+			}
+			int[] swap = keys;
+			keys = tempKeys;
+			tempKeys = swap;
+			swap = order;
+			order = tempOrder;
+			tempOrder = swap;
+		}
+		this.keys = keys;
+		this.tempKeys = tempKeys;
+		this.order = order;
+		this.tempOrder = tempOrder;
+	}
+
+	private void ensureCapacity (int count) {
+		if (keys.length >= count) return;
+		int capacity = Math.max(count, (int)(keys.length * 1.75f));
+		keys = new int[capacity];
+		tempKeys = new int[capacity];
+		int[] newOrder = new int[capacity];
+		System.arraycopy(order, 0, newOrder, 0, order.length);
+		order = newOrder;
+		tempOrder = new int[capacity];
+	}
+}
@@ -58,8 +58,8 @@ public class MeshBuilder implements MeshPartBuilder {
 	/** highest index mesh builder can get (64k - 1) */
 	public static final int MAX_INDEX = MAX_VERTICES - 1;
 
-	private final static ShortArray tmpIndices = new ShortArray();
-	private final static FloatArray tmpVertices = new FloatArray();
+	private final ShortArray tmpIndices = new ShortArray();
+	private final FloatArray tmpVertices = new FloatArray();
 
 	private final VertexInfo vertTmp1 = new VertexInfo();
 	private final VertexInfo vertTmp2 = new VertexInfo();
@@ -116,6 +116,7 @@ public class MeshBuilder implements MeshPartBuilder {
 	private final Matrix4 positionTransform = new Matrix4();
 	private final Matrix3 normalTransform = new Matrix3();
 	private final BoundingBox bounds = new BoundingBox();
+	private MeshOptimizer optimizer;
 
 	/** @param usage bitwise mask of the {@link com.badlogic.gdx.graphics.VertexAttributes.Usage}, only Position, Color, Normal and
 	 *           TextureCoordinates is supported. */
@@ -241,9 +242,14 @@ public class MeshBuilder implements MeshPartBuilder {
 		endpart();
 
 		if (attributes == null) throw new GdxRuntimeException("Call begin() first");
-		if (!attributes.equals(mesh.getVertexAttributes())) throw new GdxRuntimeException("Mesh attributes don't match");
-		if ((mesh.getMaxVertices() * stride) < vertices.size)
-			throw new GdxRuntimeException("Mesh can't hold enough vertices: " + mesh.getMaxVertices() + " * " + stride + " < "
+		return end(mesh, optimize());
+	}
+
+	private Mesh end (Mesh mesh, VertexAttributes meshAttributes) {
+		if (!meshAttributes.equals(mesh.getVertexAttributes())) throw new GdxRuntimeException("Mesh attributes don't match");
+		int meshStride = meshAttributes.vertexSize / 4;
+		if ((mesh.getMaxVertices() * meshStride) < vertices.size)
+			throw new GdxRuntimeException("Mesh can't hold enough vertices: " + mesh.getMaxVertices() + " * " + meshStride + " < "
 				+ vertices.size);
 		if (mesh.getMaxIndices() < indices.size)
 			throw new GdxRuntimeException("Mesh can't hold enough indices: " + mesh.getMaxIndices() + " < " + indices.size);
@@ -264,7 +270,54 @@ public class MeshBuilder implements MeshPartBuilder {
 
 	/** End building the mesh and returns the mesh */
 	public Mesh end () {
-		return end(new Mesh(true, vertices.size / stride, indices.size, attributes));
+		endpart();
+
+		if (attributes == null) throw new GdxRuntimeException("Call begin() first");
+		VertexAttributes meshAttributes = optimize();
+		return end(new Mesh(true, vertices.size / (meshAttributes.vertexSize / 4), indices.size, meshAttributes), meshAttributes);
+	}
+
+	/** End building the mesh without creating a {@link Mesh}, which doesn't require a GL context and can therefore be done on
+	 * another thread. The {@link MeshPart#mesh} member of the built parts is not set, set it after creating a mesh for the
+	 * vertices and indices.
+	 * @param vertices The array to receive the built vertices, any existing values will be removed.
+	 * @param indices The array to receive the built indices, any existing values will be removed.
+	 * @return The attributes of the built vertices, which differ from the attributes passed to begin if the
+	 *         {@link #setOptimizer(MeshOptimizer) optimizer} quantizes them. */
+	public VertexAttributes end (FloatArray vertices, ShortArray indices) {
+		endpart();
+
+		if (attributes == null) throw new GdxRuntimeException("Call begin() first");
+		VertexAttributes meshAttributes = optimize();
+
+		vertices.clear();
+		vertices.addAll(this.vertices);
+		indices.clear();
+		indices.addAll(this.indices);
+		parts.clear();
+
+		attributes = null;
+		this.vertices.clear();
+		this.indices.clear();
+		return meshAttributes;
+	}
+
+	/** Optimizes the built vertices and indices with the {@link #setOptimizer(MeshOptimizer) optimizer}, if any.
+	 * @return The attributes of the optimized vertices. */
+	private VertexAttributes optimize () {
+		return optimizer == null ? attributes : optimizer.optimize(vertices, indices, attributes, parts);
+	}
+
+	/** Sets the optimizer applied to the vertices and indices when the mesh is ended, or null to not optimize them. The optimizer
+	 * may change the attributes of the mesh, see {@link MeshOptimizer#quantizeNormals}. Note that reordering the triangles of a
+	 * part changes the order in which they are drawn. */
+	public void setOptimizer (MeshOptimizer optimizer) {
+		this.optimizer = optimizer;
+	}
+
+	/** @return The optimizer applied when the mesh is ended, or null. */
+	public MeshOptimizer getOptimizer () {
+		return optimizer;
 	}
 
 	/** Clears the data being built up until now, including the vertices, indices and all parts. Must be called in between the call
@@ -477,9 +530,9 @@ public class MeshBuilder implements MeshPartBuilder {
 		return (short)lastIndex;
 	}
 
-	private final static Vector3 vTmp = new Vector3();
+	private final Vector3 vTmp = new Vector3();
 
-	private final static void transformPosition (final float[] values, final int offset, final int size, Matrix4 transform) {
+	private final void transformPosition (final float[] values, final int offset, final int size, Matrix4 transform) {
 		if (size > 2) {
 			vTmp.set(values[offset], values[offset + 1], values[offset + 2]).mul(transform);
 			values[offset] = vTmp.x;
@@ -493,7 +546,7 @@ public class MeshBuilder implements MeshPartBuilder {
 			values[offset] = vTmp.set(values[offset], 0, 0).mul(transform).x;
 	}
 
-	private final static void transformNormal (final float[] values, final int offset, final int size, Matrix3 transform) {
+	private final void transformNormal (final float[] values, final int offset, final int size, Matrix3 transform) {
 		if (size > 2) {
 			vTmp.set(values[offset], values[offset + 1], values[offset + 2]).mul(transform).nor();
 			values[offset] = vTmp.x;
@@ -764,7 +817,7 @@ public class MeshBuilder implements MeshPartBuilder {
 		addMesh(tmpVertices.items, tmpIndices.items, 0, numIndices);
 	}
 
-	private static IntIntMap indicesMap = null;
+	private IntIntMap indicesMap = null;
 
 	@Override
 	public void addMesh (float[] vertices, short[] indices, int indexOffset, int numIndices) {
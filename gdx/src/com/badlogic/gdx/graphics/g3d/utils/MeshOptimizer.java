@@ -0,0 +1,383 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g3d.utils;
+
+import java.util.Arrays;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.VertexAttributes.Usage;
+import com.badlogic.gdx.graphics.g3d.model.MeshPart;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.NumberUtils;
+import com.badlogic.gdx.utils.ShortArray;
+
+/** Optimizes the vertices and indices of a mesh for rendering, before they are copied into a {@link com.badlogic.gdx.graphics.Mesh}:
+ * <ul>
+ * <li>{@link #weldVertices} merges vertices with equal attributes.</li>
+ * <li>{@link #reorderTriangles} reorders the triangles of each part, so the GPU can reuse more of the recently transformed
+ * vertices (Sander, Nehab and Barczak, "Fast Triangle Reordering for Vertex Locality and Reduced Overdraw").</li>
+ * <li>{@link #reorderVertices} reorders the vertices in the order the triangles use them, so they are fetched from memory
+ * sequentially. Vertices not used by any index are removed.</li>
+ * <li>{@link #quantizeNormals} and {@link #quantizeTextureCoordinates} store normals and texture coordinates as normalized
+ * shorts instead of floats.</li>
+ * </ul>
+ * Set an optimizer with {@link MeshBuilder#setOptimizer(MeshOptimizer)} or {@link ModelBuilder#setOptimizer(MeshOptimizer)} to
+ * optimize the meshes they build. The average cache miss ratio (ACMR) before and after the last call to
+ * {@link #optimize(FloatArray, ShortArray, VertexAttributes, Array)} is available to measure the effect. */
+public class MeshOptimizer {
+	/** Whether to {@link #weld(float[], int, int, short[], int) weld} the vertices. Default is true. */
+	public boolean weldVertices = true;
+	/** Whether to {@link #optimizeVertexCache(short[], int, int, int) reorder the triangles} of each part. Default is true. */
+	public boolean reorderTriangles = true;
+	/** Whether to {@link #optimizeVertexFetch(float[], int, int, short[], int) reorder the vertices}. Default is true. */
+	public boolean reorderVertices = true;
+	/** Whether to store normals, tangents and binormals as four normalized shorts instead of three floats. Default is false. */
+	public boolean quantizeNormals;
+	/** Whether to store texture coordinates as two normalized shorts instead of two floats. Only texture coordinates between 0 and 1,
+	 * or between -1 and 1, whose second component doesn't quantize to a NaN bit pattern (e.g. 1) can be stored so, others are left
+	 * unchanged. Default is false. */
+	public boolean quantizeTextureCoordinates;
+	/** The number of vertices in the simulated vertex cache. Default is 16, a conservative value for most GPUs. */
+	public int cacheSize = 16;
+
+	/** The average number of vertices transformed per triangle before and after the last optimization, see
+	 * {@link #calculateAcmr(short[], int, int, int)}. */
+	public float acmrBefore, acmrAfter;
+	/** The number of vertices before and after the last optimization. */
+	public int vertexCountBefore, vertexCountAfter;
+	/** The size of a vertex in bytes before and after the last optimization. */
+	public int vertexSizeBefore, vertexSizeAfter;
+
+	private int[] live = new int[0], cacheTimes = new int[0], adjacencyStart = new int[0], adjacency = new int[0];
+	private boolean[] emitted = new boolean[0];
+	private short[] output = new short[0];
+	private final IntArray deadEnds = new IntArray(), candidates = new IntArray();
+
+	/** Optimizes the vertices and indices in place. The offset and size of the parts don't change, only the order of the triangles
+	 * within each part.
+	 * @param vertices the vertices, replaced by the optimized vertices.
+	 * @param indices the indices, replaced by the optimized indices.
+	 * @param attributes the attributes of the vertices.
+	 * @param parts the parts of the mesh, only parts with {@link GL20#GL_TRIANGLES} are reordered. May be null if all indices form a
+	 *           single triangle list.
+	 * @return the attributes of the optimized vertices, which differ from the specified attributes if they were quantized. */
+	public VertexAttributes optimize (FloatArray vertices, ShortArray indices, VertexAttributes attributes, Array<MeshPart> parts) {
+		int vertexSize = attributes.vertexSize / 4;
+		int vertexCount = vertices.size / vertexSize;
+		vertexCountBefore = vertexCount;
+		vertexSizeBefore = attributes.vertexSize;
+		acmrBefore = calculateAcmr(indices, parts);
+
+		if (weldVertices) vertexCount = weld(vertices.items, vertexCount, vertexSize, indices.items, indices.size);
+		if (reorderTriangles) {
+			if (parts == null)
+				optimizeVertexCache(indices.items, 0, indices.size - indices.size % 3, vertexCount);
+			else {
+				for (int i = 0; i < parts.size; i++) {
+					MeshPart part = parts.get(i);
+					if (part.primitiveType == GL20.GL_TRIANGLES)
+						optimizeVertexCache(indices.items, part.offset, part.size - part.size % 3, vertexCount);
+				}
+			}
+		}
+		if (reorderVertices)
+			vertexCount = optimizeVertexFetch(vertices.items, vertexCount, vertexSize, indices.items, indices.size);
+		vertices.size = vertexCount * vertexSize;
+
+		if (quantizeNormals || quantizeTextureCoordinates) attributes = quantize(vertices, attributes);
+		vertexCountAfter = vertexCount;
+		vertexSizeAfter = attributes.vertexSize;
+		acmrAfter = calculateAcmr(indices, parts);
+		return attributes;
+	}
+
+	private float calculateAcmr (ShortArray indices, Array<MeshPart> parts) {
+		if (parts == null) return calculateAcmr(indices.items, 0, indices.size - indices.size % 3, cacheSize);
+		float misses = 0;
+		int triangles = 0;
+		for (int i = 0; i < parts.size; i++) {
+			MeshPart part = parts.get(i);
+			if (part.primitiveType != GL20.GL_TRIANGLES) continue;
+			int count = part.size - part.size % 3;
+			misses += calculateAcmr(indices.items, part.offset, count, cacheSize) * count / 3;
+			triangles += count / 3;
+		}
+		return triangles == 0 ? 0 : misses / triangles;
+	}
+
+	/** Merges vertices with equal attributes, moving the remaining vertices to the front in their original order.
+	 * @return the number of remaining vertices. */
+	public int weld (float[] vertices, int vertexCount, int vertexSize, short[] indices, int indexCount) {
+		int tableSize = Integer.highestOneBit(Math.max(vertexCount, 1)) << 2, mask = tableSize - 1;
+		int[] table = new int[tableSize];
+		Arrays.fill(table, -1);
+		int[] remap = ensure(live, vertexCount);
+		live = remap;
+		int count = 0;
+		for (int v = 0; v < vertexCount; v++) {
+			int offset = v * vertexSize, hash = 0;
+			for (int i = 0; i < vertexSize; i++)
+				hash = hash * 31 + NumberUtils.floatToIntBits(vertices[offset + i]);
+			hash ^= hash >>> 16;
+			int slot = hash & mask;
+			while (true) {
+				int other = table[slot];
+				if (other == -1) {
+					// A new vertex, moved to the end of the remaining vertices.
+					table[slot] = count;
+					if (count != v) System.arraycopy(vertices, offset, vertices, count * vertexSize, vertexSize);
+					remap[v] = count++;
+					break;
+				}
+				if (equals(vertices, offset, other * vertexSize, vertexSize)) {
+					remap[v] = other;
+					break;
+				}
+				slot = (slot + 1) & mask;
+			}
+		}
+		for (int i = 0; i < indexCount; i++)
+			indices[i] = (short)remap[indices[i] & 0xFFFF];
+		return count;
+	}
+
+	static private boolean equals (float[] vertices, int offset, int otherOffset, int vertexSize) {
+		for (int i = 0; i < vertexSize; i++)
+			if (NumberUtils.floatToIntBits(vertices[offset + i]) != NumberUtils.floatToIntBits(vertices[otherOffset + i])) return false;
+		return true;
+	}
+
+	/** Reorders a triangle list to reduce the vertex cache misses, keeping the winding of each triangle.
+	 * @param offset the offset of the first index of the triangles.
+	 * @param count the number of indices, a multiple of 3.
+	 * @param vertexCount the number of vertices, larger than the largest index. */
+	public void optimizeVertexCache (short[] indices, int offset, int count, int vertexCount) {
+		int triangleCount = count / 3;
+		if (triangleCount < 2) return;
+		int[] live = this.live = ensure(this.live, vertexCount);
+		int[] cacheTimes = this.cacheTimes = ensure(this.cacheTimes, vertexCount);
+		int[] adjacencyStart = this.adjacencyStart = ensure(this.adjacencyStart, vertexCount + 1);
+		int[] adjacency = this.adjacency = ensure(this.adjacency, count);
+		if (emitted.length < triangleCount) emitted = new boolean[triangleCount];
+		if (output.length < count) output = new short[count];
+		boolean[] emitted = this.emitted;
+		short[] output = this.output;
+		Arrays.fill(live, 0, vertexCount, 0);
+		Arrays.fill(cacheTimes, 0, vertexCount, 0);
+		Arrays.fill(emitted, 0, triangleCount, false);
+
+		// The triangles using each vertex.
+		for (int i = offset, n = offset + count; i < n; i++)
+			live[indices[i] & 0xFFFF]++;
+		for (int v = 0, sum = 0; v < vertexCount; v++) {
+			adjacencyStart[v] = sum;
+			sum += live[v];
+		}
+		adjacencyStart[vertexCount] = count;
+		for (int i = 0; i < count; i++) {
+			int v = indices[offset + i] & 0xFFFF;
+			adjacency[adjacencyStart[v]++] = i / 3;
+		}
+		for (int v = vertexCount; v > 0; v--)
+			adjacencyStart[v] = adjacencyStart[v - 1];
+		adjacencyStart[0] = 0;
+
+		IntArray deadEnds = this.deadEnds, candidates = this.candidates;
+		deadEnds.clear();
+		int cacheSize = this.cacheSize, time = cacheSize + 1, cursor = 0, emittedIndices = 0;
+		int fanning = indices[offset] & 0xFFFF;
+		while (fanning != -1) {
+			// Emit the remaining triangles around the fanning vertex.
+			candidates.clear();
+			for (int a = adjacencyStart[fanning], end = adjacencyStart[fanning + 1]; a < end; a++) {
+				int t = adjacency[a];
+				if (emitted[t]) continue;
+				emitted[t] = true;
+				for (int c = offset + t * 3, cend = c + 3; c < cend; c++) {
+					int v = indices[c] & 0xFFFF;
+					output[emittedIndices++] = (short)v;
+					deadEnds.add(v);
+					candidates.add(v);
+					live[v]--;
+					if (time - cacheTimes[v] > cacheSize) cacheTimes[v] = time++;
+				}
+			}
+
+			// Continue with the candidate which is in the cache and stays there while its triangles are emitted, preferring older
+			// ones, else with the candidate used by the most triangles.
+			fanning = -1;
+			int bestPriority = -1;
+			for (int i = 0; i < candidates.size; i++) {
+				int v = candidates.get(i);
+				if (live[v] == 0) continue;
+				int priority = 0;
+				if (time - cacheTimes[v] + 2 * live[v] <= cacheSize) priority = time - cacheTimes[v];
+				if (priority > bestPriority) {
+					bestPriority = priority;
+					fanning = v;
+				}
+			}
+			if (fanning == -1) {
+				// A dead end, continue with the most recently used vertex that has triangles left, else with the next one in the input.
+				while (deadEnds.size > 0) {
+					int v = deadEnds.pop();
+					if (live[v] > 0) {
+						fanning = v;
+						break;
+					}
+				}
+				while (fanning == -1 && cursor < count) {
+					int v = indices[offset + cursor++] & 0xFFFF;
+					if (live[v] > 0) fanning = v;
+				}
+			}
+		}
+		System.arraycopy(output, 0, indices, offset, count);
+	}
+
+	/** Reorders the vertices in the order they are first used by the indices and removes the unused vertices.
+	 * @return the number of remaining vertices. */
+	public int optimizeVertexFetch (float[] vertices, int vertexCount, int vertexSize, short[] indices, int indexCount) {
+		int[] remap = live = ensure(live, vertexCount);
+		Arrays.fill(remap, 0, vertexCount, -1);
+		int count = 0;
+		for (int i = 0; i < indexCount; i++) {
+			int v = indices[i] & 0xFFFF;
+			if (remap[v] == -1) remap[v] = count++;
+			indices[i] = (short)remap[v];
+		}
+		float[] copy = new float[count * vertexSize];
+		for (int v = 0; v < vertexCount; v++)
+			if (remap[v] != -1) System.arraycopy(vertices, v * vertexSize, copy, remap[v] * vertexSize, vertexSize);
+		System.arraycopy(copy, 0, vertices, 0, copy.length);
+		return count;
+	}
+
+	/** Stores the normals and texture coordinates of the vertices as normalized shorts, according to {@link #quantizeNormals} and
+	 * {@link #quantizeTextureCoordinates}. Two shorts are packed in each float of the vertices. To keep the floats from being NaN,
+	 * which platforms may not preserve, the y component of normals is moved by up to 128 steps where needed, like the alpha of
+	 * {@link NumberUtils#intToFloatColor(int)}. Texture coordinates are only quantized if none needs to be moved.
+	 * @return the attributes of the quantized vertices. */
+	public VertexAttributes quantize (FloatArray vertices, VertexAttributes attributes) {
+		int vertexSize = attributes.vertexSize / 4, vertexCount = vertices.size / vertexSize;
+		float[] items = vertices.items;
+		VertexAttribute[] quantized = new VertexAttribute[attributes.size()];
+		boolean changed = false;
+		for (int i = 0; i < quantized.length; i++) {
+			VertexAttribute attribute = attributes.get(i);
+			int usage = attribute.usage, offset = attribute.offset / 4;
+			quantized[i] = attribute.copy();
+			if (attribute.type != GL20.GL_FLOAT) continue;
+			if (quantizeNormals && attribute.numComponents == 3
+				&& (usage == Usage.Normal || usage == Usage.Tangent || usage == Usage.BiNormal)) {
+				quantized[i] = new VertexAttribute(usage, 4, GL20.GL_SHORT, true, attribute.alias, attribute.unit);
+				changed = true;
+			} else if (quantizeTextureCoordinates && attribute.numComponents == 2 && usage == Usage.TextureCoordinates) {
+				float min = 0, max = 0;
+				for (int v = 0, n = vertexCount * vertexSize; v < n; v += vertexSize) {
+					min = Math.min(min, Math.min(items[v + offset], items[v + offset + 1]));
+					max = Math.max(max, Math.max(items[v + offset], items[v + offset + 1]));
+				}
+				if (min < -1 || max > 1) continue;
+				boolean signed = min < 0, exact = true;
+				for (int v = offset + 1, n = vertexCount * vertexSize; v < n && exact; v += vertexSize)
+					exact = !isNaNPattern(signed ? toShort(items[v]) : toUnsignedShort(items[v]));
+				if (!exact) continue;
+				quantized[i] = new VertexAttribute(usage, 2, signed ? GL20.GL_SHORT : GL20.GL_UNSIGNED_SHORT, true, attribute.alias,
+					attribute.unit);
+				changed = true;
+			}
+		}
+		if (!changed) return attributes;
+
+		VertexAttributes result = new VertexAttributes(quantized);
+		int resultSize = result.vertexSize / 4;
+		float[] resultItems = new float[vertexCount * resultSize];
+		for (int i = 0; i < quantized.length; i++) {
+			VertexAttribute from = attributes.get(i), to = result.get(i);
+			int fromOffset = from.offset / 4, toOffset = to.offset / 4;
+			for (int v = 0; v < vertexCount; v++) {
+				int f = v * vertexSize + fromOffset, t = v * resultSize + toOffset;
+				if (to.type == from.type && to.numComponents == from.numComponents)
+					System.arraycopy(items, f, resultItems, t, to.getSizeInBytes() / 4);
+				else if (to.type == GL20.GL_SHORT && to.numComponents == 4) {
+					resultItems[t] = pack(toShort(items[f]), toShort(items[f + 1]), true);
+					resultItems[t + 1] = pack(toShort(items[f + 2]), 0, true);
+				} else if (to.type == GL20.GL_SHORT)
+					resultItems[t] = pack(toShort(items[f]), toShort(items[f + 1]), true);
+				else
+					resultItems[t] = pack(toUnsignedShort(items[f]), toUnsignedShort(items[f + 1]), false);
+			}
+		}
+		vertices.clear();
+		vertices.addAll(resultItems, 0, resultItems.length);
+		return result;
+	}
+
+	static private int toShort (float value) {
+		return Math.round(Math.max(-1, Math.min(1, value)) * 32767);
+	}
+
+	static private int toUnsignedShort (float value) {
+		return Math.round(Math.max(0, Math.min(1, value)) * 65535);
+	}
+
+	/** @return whether a value in the high 16 bits of a float sets all bits of its exponent, making it infinite or NaN. */
+	static private boolean isNaNPattern (int high) {
+		return (high & 0x7f80) == 0x7f80;
+	}
+
+	/** Packs the values in the low and the high 16 bits of a float, the first value in the lower address of a little endian
+	 * buffer. */
+	static private float pack (int low, int high, boolean signed) {
+		if (isNaNPattern(high)) {
+			int below = (high & ~0x7f) - 1, above = (high & ~0x7f) + 0x80;
+			boolean aboveValid = above <= (signed ? Short.MAX_VALUE : 0xffff);
+			high = aboveValid && above - high <= high - below ? above : below;
+		}
+		return NumberUtils.intBitsToFloat((low & 0xffff) | (high & 0xffff) << 16);
+	}
+
+	/** Calculates the average cache miss ratio of a triangle list: the average number of vertices transformed per triangle with a
+	 * first in, first out vertex cache of the specified size. It is 3 without any reuse and approaches 0.5 for large regular
+	 * grids.
+	 * @param offset the offset of the first index of the triangles.
+	 * @param count the number of indices, a multiple of 3. */
+	public static float calculateAcmr (short[] indices, int offset, int count, int cacheSize) {
+		if (count < 3) return 0;
+		int maxIndex = 0;
+		for (int i = offset, n = offset + count; i < n; i++)
+			maxIndex = Math.max(maxIndex, indices[i] & 0xFFFF);
+		// Per vertex the miss count when it was added to the cache, so it is in the cache while less than cacheSize misses follow.
+		int[] addedAt = new int[maxIndex + 1];
+		Arrays.fill(addedAt, Integer.MIN_VALUE / 2);
+		int misses = 0;
+		for (int i = offset, n = offset + count; i < n; i++) {
+			int v = indices[i] & 0xFFFF;
+			if (misses - addedAt[v] >= cacheSize) addedAt[v] = misses++;
+		}
+		return misses / (float)(count / 3);
+	}
+
+	static private int[] ensure (int[] array, int size) {
+		return array.length >= size ? array : new int[Math.max(size, array.length * 7 / 4)];
+	}
+}
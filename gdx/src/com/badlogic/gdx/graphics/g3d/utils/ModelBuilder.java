@@ -47,16 +47,30 @@ public class ModelBuilder {
 	private Array<MeshBuilder> builders = new Array<MeshBuilder>();
 
 	private Matrix4 tmpTransform = new Matrix4();
+	/** The optimizer of the mesh builders */
+	private MeshOptimizer optimizer;
 
 	private MeshBuilder getBuilder (final VertexAttributes attributes) {
 		for (final MeshBuilder mb : builders)
 			if (mb.getAttributes().equals(attributes) && mb.lastIndex() < Short.MAX_VALUE / 2) return mb;
 		final MeshBuilder result = new MeshBuilder();
+		result.setOptimizer(optimizer);
 		result.begin(attributes);
 		builders.add(result);
 		return result;
 	}
 
+	/** Sets the optimizer applied to the meshes of the models built after this call, or null to not optimize them.
+	 * @see MeshBuilder#setOptimizer(MeshOptimizer) */
+	public void setOptimizer (MeshOptimizer optimizer) {
+		this.optimizer = optimizer;
+	}
+
+	/** @return The optimizer applied to the built meshes, or null. */
+	public MeshOptimizer getOptimizer () {
+		return optimizer;
+	}
+
 	/** Begin building a new model */
 	public void begin () {
 		if (model != null) throw new GdxRuntimeException("Call end() first");
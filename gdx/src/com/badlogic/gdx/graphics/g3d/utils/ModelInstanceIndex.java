@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g3d.utils;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.g3d.ModelBatch;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.RenderableProvider;
+import com.badlogic.gdx.math.Frustum;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.Pool;
+
+/** Keeps {@link ModelInstance ModelInstances} in a {@link SpatialIndex}, so only the instances visible to a camera are passed to
+ * a {@link ModelBatch}:
+ *
+ * <pre>
+ * index.cull(camera.frustum);
+ * modelBatch.begin(camera);
+ * modelBatch.render(index, environment);
+ * modelBatch.end();
+ * </pre>
+ *
+ * The bounds of each instance are calculated once, in model space, when it is added. When an instance is moved,
+ * {@link #update(ModelInstance)} must be called to transform the cached bounds by the new {@link ModelInstance#transform}. For
+ * animated instances, whose bounds change, it is best to {@link #add(ModelInstance, BoundingBox) add} them with bounds that
+ * enclose all poses. */
+public class ModelInstanceIndex implements RenderableProvider {
+	public final SpatialIndex<ModelInstance> index;
+	private final ObjectMap<ModelInstance, Entry> entries = new ObjectMap<ModelInstance, Entry>();
+	private final Array<ModelInstance> visible = new Array<ModelInstance>();
+	private final BoundingBox tmpBounds = new BoundingBox();
+
+	public ModelInstanceIndex () {
+		this(new SpatialIndex<ModelInstance>());
+	}
+
+	public ModelInstanceIndex (SpatialIndex<ModelInstance> index) {
+		this.index = index;
+	}
+
+	/** Adds the instance, calculating its bounds with {@link ModelInstance#calculateBoundingBox(BoundingBox)}. */
+	public void add (ModelInstance instance) {
+		add(instance, instance.calculateBoundingBox(new BoundingBox()));
+	}
+
+	/** Adds the instance with the specified bounds.
+	 * @param localBounds the bounds of the instance in model space, that is without {@link ModelInstance#transform} applied. The
+	 *           bounding box is kept by this index and must not be modified. */
+	public void add (ModelInstance instance, BoundingBox localBounds) {
+		if (entries.containsKey(instance)) throw new GdxRuntimeException("Instance already added.");
+		Entry entry = new Entry();
+		entry.localBounds = localBounds;
+		entry.id = index.add(instance, tmpBounds.set(localBounds).mul(instance.transform));
+		entries.put(instance, entry);
+	}
+
+	/** Updates the bounds of the instance after its {@link ModelInstance#transform} has changed.
+	 * @return true if the tree of the index had to be changed. */
+	public boolean update (ModelInstance instance) {
+		Entry entry = entries.get(instance);
+		if (entry == null) throw new GdxRuntimeException("Instance not added.");
+		return index.update(entry.id, tmpBounds.set(entry.localBounds).mul(instance.transform));
+	}
+
+	/** @return true if the instance was removed, false if it wasn't added. */
+	public boolean remove (ModelInstance instance) {
+		Entry entry = entries.remove(instance);
+		if (entry == null) return false;
+		index.remove(entry.id);
+		visible.removeValue(instance, true);
+		return true;
+	}
+
+	public boolean contains (ModelInstance instance) {
+		return entries.containsKey(instance);
+	}
+
+	public int size () {
+		return entries.size;
+	}
+
+	public void clear () {
+		index.clear();
+		entries.clear();
+		visible.clear();
+	}
+
+	/** Finds the instances that are at least partially inside the frustum, see {@link #getVisible()}.
+	 * @return the number of visible instances. */
+	public int cull (Frustum frustum) {
+		visible.clear();
+		index.query(frustum, visible);
+		return visible.size;
+	}
+
+	/** Convenience method for {@link #cull(Frustum)} with the frustum of the camera. */
+	public int cull (Camera camera) {
+		return cull(camera.frustum);
+	}
+
+	/** Removes the instances hidden behind the occluders from the instances found by the last call to {@link #cull(Frustum)}.
+	 * @param culler a culler after {@link OcclusionCuller#end()}, for the same camera.
+	 * @return the number of visible instances. */
+	public int cull (OcclusionCuller culler) {
+		ModelInstance[] items = visible.items;
+		int kept = 0;
+		for (int i = 0, n = visible.size; i < n; i++) {
+			ModelInstance instance = items[i];
+			if (culler.isVisible(entries.get(instance).localBounds, instance.transform)) items[kept++] = instance;
+		}
+		visible.truncate(kept);
+		return kept;
+	}
+
+	/** Calls {@link ModelInstance#selectLod(Camera)} for the instances found by the last call to {@link #cull(Frustum)}, so only
+	 * the visible instances select their levels of detail.
+	 * @return the number of parts that changed their level. */
+	public int selectLod (Camera camera) {
+		int changed = 0;
+		for (int i = 0, n = visible.size; i < n; i++)
+			changed += visible.get(i).selectLod(camera);
+		return changed;
+	}
+
+	/** @return the instances found by the last call to {@link #cull(Frustum)}. Must not be modified. */
+	public Array<ModelInstance> getVisible () {
+		return visible;
+	}
+
+	/** Adds the renderables of the instances found by the last call to {@link #cull(Frustum)}. */
+	@Override
+	public void getRenderables (Array<Renderable> renderables, Pool<Renderable> pool) {
+		for (int i = 0, n = visible.size; i < n; i++)
+			visible.get(i).getRenderables(renderables, pool);
+	}
+
+	static private class Entry {
+		int id;
+		BoundingBox localBounds;
+	}
+}
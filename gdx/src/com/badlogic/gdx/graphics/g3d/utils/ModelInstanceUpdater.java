@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g3d.utils;
+
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.model.NodePart;
+import com.badlogic.gdx.graphics.g3d.shaders.DefaultShader;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.async.ParallelExecutor;
+import com.badlogic.gdx.utils.async.ThreadUtils;
+
+/** Calculates the node and bone transforms of many {@link ModelInstance ModelInstances} on multiple threads, with the same result
+ * as calling {@link ModelInstance#calculateTransforms()} on each of them. The calling thread updates the first share of the
+ * instances itself and waits for the others to finish, so {@link #update(Array)} returns once all instances are updated.
+ * <p>
+ * The node hierarchy of each instance is flattened into arrays on its first update, so the transforms are calculated in a single
+ * loop instead of recursively. When nodes are added to or removed from an instance afterwards, {@link #invalidate(ModelInstance)}
+ * must be called.
+ * <p>
+ * The bone transforms of skinned parts are written to {@link NodePart#boneValues}, which {@link DefaultShader} uploads without
+ * copying each matrix, see {@link Renderable#boneValues}. The {@link NodePart#bones} matrices are only updated when
+ * {@link #updateBoneMatrices} is true, which is needed when other code reads them.
+ * <p>
+ * Instances are not thread-safe, only a single update can be in flight at a time. The instances must not be modified by other
+ * threads while they are updated. Must be disposed when no longer used. */
+public class ModelInstanceUpdater implements Disposable {
+	private final ParallelExecutor executor;
+	private final IdentityMap<ModelInstance, Layout> layouts = new IdentityMap<ModelInstance, Layout>();
+	private final Array<Layout> updates = new Array<Layout>(false, 16, Layout.class);
+	private final Task[] tasks;
+	private int count;
+	private final ParallelExecutor.Task task = new ParallelExecutor.Task() {
+		public void run (int index) {
+			int size = updates.size;
+			tasks[index].update(updates.items, (int)((long)size * index / count), (int)((long)size * (index + 1) / count),
+				updateBoneMatrices);
+		}
+	};
+
+	/** The minimum number of instances updated by a thread. Fewer instances than twice this value are updated on the calling
+	 * thread. */
+	public int minInstancesPerThread = 16;
+	/** Whether to also update the {@link NodePart#bones} matrices, false by default. */
+	public boolean updateBoneMatrices;
+
+	/** Creates an updater using one thread per available processor. */
+	public ModelInstanceUpdater () {
+		this(ThreadUtils.availableProcessors());
+	}
+
+	/** @param threads the number of threads updating the instances, including the calling thread. */
+	public ModelInstanceUpdater (int threads) {
+		executor = new ParallelExecutor("ModelInstanceUpdater", threads);
+		tasks = new Task[threads];
+		for (int i = 0; i < threads; i++)
+			tasks[i] = new Task();
+	}
+
+	/** @return the number of threads updating the instances, including the calling thread. */
+	public int getThreads () {
+		return executor.getThreads();
+	}
+
+	/** Calculates the local and world transforms of all nodes and the bone transforms of all skinned parts of the instances. */
+	public void update (Array<ModelInstance> instances) {
+		final Array<Layout> updates = this.updates;
+		updates.clear();
+		for (int i = 0, n = instances.size; i < n; i++) {
+			final ModelInstance instance = instances.get(i);
+			Layout layout = layouts.get(instance);
+			if (layout == null) {
+				layout = new Layout(instance);
+				layouts.put(instance, layout);
+			}
+			updates.add(layout);
+		}
+
+		count = Math.max(1, Math.min(tasks.length, updates.size / Math.max(1, minInstancesPerThread)));
+		try {
+			// Always waits for all tasks, the instances must not be touched by the workers once this returns.
+			executor.run(count, task);
+		} finally {
+			updates.clear();
+		}
+	}
+
+	/** Discards the flattened node hierarchy of the instance. Must be called when nodes or skinned parts are added to or removed
+	 * from an instance that was updated before. */
+	public void invalidate (ModelInstance instance) {
+		layouts.remove(instance);
+	}
+
+	/** Discards the flattened node hierarchies of all instances. */
+	public void clear () {
+		layouts.clear();
+	}
+
+	@Override
+	public void dispose () {
+		executor.dispose();
+		layouts.clear();
+	}
+
+	/** The nodes of an instance in depth first order, so each parent comes before its children, and its skinned parts. */
+	static private class Layout {
+		final Node[] nodes;
+		/** The index of each node's parent, -1 for root nodes and nodes not inheriting the transform of their parent. */
+		final int[] parents;
+		final NodePart[] skinnedParts;
+
+		Layout (ModelInstance instance) {
+			Array<Node> nodes = new Array<Node>(Node.class);
+			for (int i = 0, n = instance.nodes.size; i < n; i++)
+				addNode(instance.nodes.get(i), nodes);
+			this.nodes = nodes.toArray();
+			IdentityMap<Node, Integer> indices = new IdentityMap<Node, Integer>(nodes.size);
+			for (int i = 0; i < nodes.size; i++)
+				indices.put(nodes.get(i), i);
+			parents = new int[nodes.size];
+			Array<NodePart> skinnedParts = new Array<NodePart>(NodePart.class);
+			for (int i = 0; i < nodes.size; i++) {
+				Node node = nodes.get(i);
+				Integer parent = node.hasParent() && node.inheritTransform ? indices.get(node.getParent()) : null;
+				parents[i] = parent == null ? -1 : parent;
+				for (int j = 0, n = node.parts.size; j < n; j++) {
+					NodePart part = node.parts.get(j);
+					if (part.invBoneBindTransforms == null || part.bones == null || part.invBoneBindTransforms.size != part.bones.length)
+						continue;
+					if (part.boneValues == null || part.boneValues.length != part.bones.length * 16)
+						part.boneValues = new float[part.bones.length * 16];
+					skinnedParts.add(part);
+				}
+			}
+			this.skinnedParts = skinnedParts.toArray();
+		}
+
+		static private void addNode (Node node, Array<Node> nodes) {
+			nodes.add(node);
+			for (Node child : node.getChildren())
+				addNode(child, nodes);
+		}
+	}
+
+	static private class Task {
+		final float[] tmp = new float[16];
+
+		void update (Object[] layouts, int start, int end, boolean updateBoneMatrices) {
+			for (int i = start; i < end; i++)
+				update((Layout)layouts[i], updateBoneMatrices);
+		}
+
+		private void update (Layout layout, boolean updateBoneMatrices) {
+			final Node[] nodes = layout.nodes;
+			final int[] parents = layout.parents;
+			for (int i = 0, n = nodes.length; i < n; i++) {
+				final Node node = nodes[i];
+				node.calculateLocalTransform();
+				final float[] world = node.globalTransform.val;
+				final int parent = parents[i];
+				if (parent == -1)
+					System.arraycopy(node.localTransform.val, 0, world, 0, 16);
+				else {
+					System.arraycopy(nodes[parent].globalTransform.val, 0, world, 0, 16);
+					Matrix4.mul(world, node.localTransform.val);
+				}
+			}
+
+			final float[] tmp = this.tmp;
+			final NodePart[] parts = layout.skinnedParts;
+			for (int i = 0, n = parts.length; i < n; i++) {
+				final NodePart part = parts[i];
+				final Object[] boneNodes = part.invBoneBindTransforms.keys;
+				final Object[] invBindTransforms = part.invBoneBindTransforms.values;
+				final float[] out = part.boneValues;
+				for (int b = 0, bones = part.bones.length; b < bones; b++) {
+					System.arraycopy(((Node)boneNodes[b]).globalTransform.val, 0, tmp, 0, 16);
+					Matrix4.mul(tmp, ((Matrix4)invBindTransforms[b]).val);
+					System.arraycopy(tmp, 0, out, b * 16, 16);
+					if (updateBoneMatrices) part.bones[b].set(tmp);
+				}
+			}
+		}
+	}
+}
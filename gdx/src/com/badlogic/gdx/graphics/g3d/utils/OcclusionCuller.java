@@ -0,0 +1,477 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g3d.utils;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.g3d.ModelBatch;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.RenderableProvider;
+import com.badlogic.gdx.graphics.g3d.model.MeshPart;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.async.ParallelExecutor;
+
+/** Culls objects hidden behind occluders on the CPU, before they are passed to a {@link ModelBatch}. Each frame the occluders,
+ * typically simplified meshes or boxes inside large objects such as buildings, are rasterized into a low resolution depth buffer
+ * from which a hierarchical depth buffer is built. The bounds of other objects are then tested against it:
+ *
+ * <pre>
+ * index.cull(camera);
+ * culler.begin(camera);
+ * for (Building building : buildings)
+ * 	culler.addOccluder(building.occluderBounds, building.instance.transform);
+ * culler.end();
+ * index.cull(culler);
+ * modelBatch.begin(camera);
+ * modelBatch.render(index, environment);
+ * modelBatch.end();
+ * </pre>
+ *
+ * For other {@link RenderableProvider RenderableProviders}, {@link Filter} removes the occluded renderables.
+ * <p>
+ * Occluders must be inside the objects they stand for, as anything behind them is culled. The test is conservative otherwise:
+ * bounds crossing the near plane are always visible, and bounds are tested against the farthest depth of the pixels their
+ * projection covers.
+ * <p>
+ * The occluders can be rasterized on multiple threads, see {@link #setThreads(int)}. Each thread then rasterizes all occluder
+ * triangles into a range of rows of the depth buffer. The other methods must be called on a single thread. */
+public class OcclusionCuller implements Disposable {
+	/** The triangles of a box, counter clockwise seen from outside, corner i has max x if bit 0 is set, max y for bit 1 and max z for bit 2. */
+	static private final short[] BOX_INDICES = {0, 2, 3, 0, 3, 1, // -z
+		4, 5, 7, 4, 7, 6, // +z
+		0, 4, 6, 0, 6, 2, // -x
+		1, 3, 7, 1, 7, 5, // +x
+		0, 1, 5, 0, 5, 4, // -y
+		2, 6, 7, 2, 7, 3}; // +y
+
+	private final int width, height;
+	/** The depth buffer (level 0) and per level the farthest depth of 2x2 pixels of the previous level. */
+	private final float[][] levels;
+	private final int[] levelWidths, levelHeights;
+	/** Per occluder triangle the screen x, y and depth of its vertices, in counter clockwise order. */
+	private final FloatArray triangles = new FloatArray(false, 9 * 256);
+	private float[] clip = new float[4 * 64];
+	private final float[] boxVertices = new float[8 * 3];
+	private final Matrix4 combined = new Matrix4(), tmpMatrix = new Matrix4();
+	private final ParallelExecutor executor = new ParallelExecutor("OcclusionCuller");
+	private int count;
+	private final ParallelExecutor.Task rasterizeTask = new ParallelExecutor.Task() {
+		public void run (int index) {
+			rasterize(triangles.items, triangles.size, levels[0], width, height * index / count, height * (index + 1) / count);
+		}
+	};
+	private boolean adding;
+
+	/** The minimum number of rows of the depth buffer rasterized by a thread. */
+	public int minRowsPerThread = 16;
+	/** Whether occluder triangles facing away from the camera are skipped, halving the work for closed meshes. Occluders which
+	 * are not closed, such as single walls, must then face the camera. Default is true. */
+	public boolean cullBackFaces = true;
+
+	/** The number of occluder triangles rasterized by the last {@link #end()}. */
+	public int triangleCount;
+	/** The time the last {@link #end()} took, in nanoseconds. */
+	public long rasterizeNanos;
+
+	/** Creates a culler with a depth buffer of 256x128 pixels. */
+	public OcclusionCuller () {
+		this(256, 128);
+	}
+
+	/** @param width the width of the depth buffer in pixels, its aspect ratio should be close to that of the camera.
+	 * @param height the height of the depth buffer in pixels. */
+	public OcclusionCuller (int width, int height) {
+		if (width < 1 || height < 1) throw new IllegalArgumentException("width and height must be >= 1: " + width + ", " + height);
+		this.width = width;
+		this.height = height;
+		int count = 1;
+		for (int w = width, h = height; w > 1 || h > 1; w = (w + 1) / 2, h = (h + 1) / 2)
+			count++;
+		levels = new float[count][];
+		levelWidths = new int[count];
+		levelHeights = new int[count];
+		for (int i = 0, w = width, h = height; i < count; i++, w = (w + 1) / 2, h = (h + 1) / 2) {
+			levels[i] = new float[w * h];
+			levelWidths[i] = w;
+			levelHeights[i] = h;
+		}
+		clear();
+	}
+
+	/** Sets the number of threads rasterizing the occluders, including the calling thread. With more than one thread, worker
+	 * threads are created which must be released with {@link #dispose()}. Default is 1.
+	 * @see com.badlogic.gdx.utils.async.ThreadUtils#availableProcessors() */
+	public void setThreads (int threads) {
+		executor.setThreads(threads);
+	}
+
+	/** @return the number of threads rasterizing the occluders, including the calling thread. */
+	public int getThreads () {
+		return executor.getThreads();
+	}
+
+	/** Starts adding occluders as seen by the camera, the previous occluders are discarded. */
+	public void begin (Camera camera) {
+		begin(camera.combined);
+	}
+
+	/** Starts adding occluders, the previous occluders are discarded.
+	 * @param combined the combined projection and view matrix. */
+	public void begin (Matrix4 combined) {
+		if (adding) throw new IllegalStateException("end must be called before begin.");
+		this.combined.set(combined);
+		triangles.clear();
+		adding = true;
+	}
+
+	/** Adds a box as occluder, e.g. one inside a building.
+	 * @param bounds the box in model space.
+	 * @param transform the model to world transform, may be null. */
+	public void addOccluder (BoundingBox bounds, Matrix4 transform) {
+		Vector3 min = bounds.min, max = bounds.max;
+		float[] vertices = boxVertices;
+		for (int i = 0; i < 8; i++) {
+			vertices[i * 3] = (i & 1) == 0 ? min.x : max.x;
+			vertices[i * 3 + 1] = (i & 2) == 0 ? min.y : max.y;
+			vertices[i * 3 + 2] = (i & 4) == 0 ? min.z : max.z;
+		}
+		addOccluder(vertices, 3, BOX_INDICES, 0, BOX_INDICES.length, transform);
+	}
+
+	/** Adds an indexed triangle mesh as occluder. The vertices can be obtained once from a {@link com.badlogic.gdx.graphics.Mesh}
+	 * with {@link com.badlogic.gdx.graphics.Mesh#getVertices(float[])}, but simplified meshes with fewer triangles are faster.
+	 * @param vertices the vertices in model space, each starting with the x, y and z position.
+	 * @param vertexSize the number of floats per vertex.
+	 * @param indices the indices of the triangles, counter clockwise for front faces.
+	 * @param offset the first index to use.
+	 * @param count the number of indices to use, a multiple of 3.
+	 * @param transform the model to world transform, may be null. */
+	public void addOccluder (float[] vertices, int vertexSize, short[] indices, int offset, int count, Matrix4 transform) {
+		if (!adding) throw new IllegalStateException("begin must be called before adding occluders.");
+		float[] m = transform == null ? combined.val : tmpMatrix.set(combined).mul(transform).val;
+
+		// Transform the used vertices to clip space.
+		int maxIndex = 0;
+		for (int i = offset, n = offset + count; i < n; i++)
+			maxIndex = Math.max(maxIndex, indices[i] & 0xffff);
+		int clipSize = (maxIndex + 1) * 4;
+		if (clip.length < clipSize) clip = new float[Math.max(clipSize, clip.length * 2)];
+		float[] clip = this.clip;
+		for (int i = 0, v = 0; i < clipSize; i += 4, v += vertexSize) {
+			float x = vertices[v], y = vertices[v + 1], z = vertices[v + 2];
+			clip[i] = m[Matrix4.M00] * x + m[Matrix4.M01] * y + m[Matrix4.M02] * z + m[Matrix4.M03];
+			clip[i + 1] = m[Matrix4.M10] * x + m[Matrix4.M11] * y + m[Matrix4.M12] * z + m[Matrix4.M13];
+			clip[i + 2] = m[Matrix4.M20] * x + m[Matrix4.M21] * y + m[Matrix4.M22] * z + m[Matrix4.M23];
+			clip[i + 3] = m[Matrix4.M30] * x + m[Matrix4.M31] * y + m[Matrix4.M32] * z + m[Matrix4.M33];
+		}
+
+		for (int i = offset, n = offset + count - 2; i < n; i += 3) {
+			int a = (indices[i] & 0xffff) * 4, b = (indices[i + 1] & 0xffff) * 4, c = (indices[i + 2] & 0xffff) * 4;
+			float ax = clip[a], ay = clip[a + 1], az = clip[a + 2], aw = clip[a + 3];
+			float bx = clip[b], by = clip[b + 1], bz = clip[b + 2], bw = clip[b + 3];
+			float cx = clip[c], cy = clip[c + 1], cz = clip[c + 2], cw = clip[c + 3];
+			// Trivially reject triangles outside of a frustum plane.
+			if ((ax > aw && bx > bw && cx > cw) || (ax < -aw && bx < -bw && cx < -cw)) continue;
+			if ((ay > aw && by > bw && cy > cw) || (ay < -aw && by < -bw && cy < -cw)) continue;
+			if (az > aw && bz > bw && cz > cw) continue;
+			float da = az + aw, db = bz + bw, dc = cz + cw; // Distances to the near plane.
+			if (da < 0 && db < 0 && dc < 0) continue;
+			if (da >= 0 && db >= 0 && dc >= 0) {
+				addTriangle(ax, ay, az, aw, bx, by, bz, bw, cx, cy, cz, cw);
+				continue;
+			}
+			// Clip against the near plane, rotating so that a is the single vertex on its side.
+			if ((db < 0) == (dc < 0)) {
+				// a is alone.
+			} else if ((da < 0) == (dc < 0)) { // b is alone.
+				float t;
+				t = ax; ax = bx; bx = cx; cx = t;
+				t = ay; ay = by; by = cy; cy = t;
+				t = az; az = bz; bz = cz; cz = t;
+				t = aw; aw = bw; bw = cw; cw = t;
+				t = da; da = db; db = dc; dc = t;
+			} else { // c is alone.
+				float t;
+				t = cx; cx = bx; bx = ax; ax = t;
+				t = cy; cy = by; by = ay; ay = t;
+				t = cz; cz = bz; bz = az; az = t;
+				t = cw; cw = bw; bw = aw; aw = t;
+				t = dc; dc = db; db = da; da = t;
+			}
+			float tb = da / (da - db), tc = da / (da - dc);
+			float abx = ax + (bx - ax) * tb, aby = ay + (by - ay) * tb, abz = az + (bz - az) * tb, abw = aw + (bw - aw) * tb;
+			float acx = ax + (cx - ax) * tc, acy = ay + (cy - ay) * tc, acz = az + (cz - az) * tc, acw = aw + (cw - aw) * tc;
+			if (da >= 0) // Only a is in front.
+				addTriangle(ax, ay, az, aw, abx, aby, abz, abw, acx, acy, acz, acw);
+			else { // b and c are in front.
+				addTriangle(abx, aby, abz, abw, bx, by, bz, bw, cx, cy, cz, cw);
+				addTriangle(abx, aby, abz, abw, cx, cy, cz, cw, acx, acy, acz, acw);
+			}
+		}
+	}
+
+	private void addTriangle (float ax, float ay, float az, float aw, float bx, float by, float bz, float bw, float cx, float cy,
+		float cz, float cw) {
+		float halfWidth = width * 0.5f, halfHeight = height * 0.5f;
+		float x0 = (ax / aw + 1) * halfWidth, y0 = (ay / aw + 1) * halfHeight, z0 = (az / aw + 1) * 0.5f;
+		float x1 = (bx / bw + 1) * halfWidth, y1 = (by / bw + 1) * halfHeight, z1 = (bz / bw + 1) * 0.5f;
+		float x2 = (cx / cw + 1) * halfWidth, y2 = (cy / cw + 1) * halfHeight, z2 = (cz / cw + 1) * 0.5f;
+		float area = (x1 - x0) * (y2 - y0) - (x2 - x0) * (y1 - y0);
+		if (area == 0 || area != area) return;
+		float[] items = triangles.ensureCapacity(9);
+		int i = triangles.size;
+		items[i] = x0;
+		items[i + 1] = y0;
+		items[i + 2] = z0;
+		if (area > 0) {
+			items[i + 3] = x1;
+			items[i + 4] = y1;
+			items[i + 5] = z1;
+			items[i + 6] = x2;
+			items[i + 7] = y2;
+			items[i + 8] = z2;
+		} else {
+			if (cullBackFaces) return;
+			items[i + 3] = x2;
+			items[i + 4] = y2;
+			items[i + 5] = z2;
+			items[i + 6] = x1;
+			items[i + 7] = y1;
+			items[i + 8] = z1;
+		}
+		triangles.size += 9;
+	}
+
+	/** Rasterizes the occluders and builds the hierarchical depth buffer, after which bounds can be tested. */
+	public void end () {
+		if (!adding) throw new IllegalStateException("begin must be called before end.");
+		adding = false;
+		long start = TimeUtils.nanoTime();
+		clear();
+		count = Math.max(1, Math.min(executor.getThreads(), height / Math.max(1, minRowsPerThread)));
+		// Always waits for all tasks, the depth buffer must not be written by the workers once this returns.
+		executor.run(count, rasterizeTask);
+		buildLevels();
+		triangleCount = triangles.size / 9;
+		rasterizeNanos = TimeUtils.nanoTime() - start;
+	}
+
+	/** Discards the occluders, after which all bounds are visible. */
+	public void clear () {
+		float[] depth = levels[0];
+		for (int i = 0, n = depth.length; i < n; i++)
+			depth[i] = 1;
+		buildLevels();
+	}
+
+	/** Rasterizes the triangles into the rows from start (inclusive) to end (exclusive), keeping the nearest depth per pixel. A
+	 * pixel is covered if its center is inside the triangle. */
+	static void rasterize (float[] triangles, int size, float[] depth, int width, int start, int end) {
+		for (int i = 0; i < size; i += 9) {
+			float x0 = triangles[i], y0 = triangles[i + 1], z0 = triangles[i + 2];
+			float x1 = triangles[i + 3], y1 = triangles[i + 4], z1 = triangles[i + 5];
+			float x2 = triangles[i + 6], y2 = triangles[i + 7], z2 = triangles[i + 8];
+			int minY = Math.max(start, (int)Math.ceil(Math.min(y0, Math.min(y1, y2)) - 0.5f));
+			int maxY = Math.min(end - 1, (int)Math.floor(Math.max(y0, Math.max(y1, y2)) - 0.5f));
+			if (minY > maxY) continue;
+			int minX = Math.max(0, (int)Math.ceil(Math.min(x0, Math.min(x1, x2)) - 0.5f));
+			int maxX = Math.min(width - 1, (int)Math.floor(Math.max(x0, Math.max(x1, x2)) - 0.5f));
+			if (minX > maxX) continue;
+
+			float invArea = 1 / ((x1 - x0) * (y2 - y0) - (x2 - x0) * (y1 - y0));
+			float dzdx = ((z1 - z0) * (y2 - y0) - (z2 - z0) * (y1 - y0)) * invArea;
+			float dzdy = ((z2 - z0) * (x1 - x0) - (z1 - z0) * (x2 - x0)) * invArea;
+			// Edge functions, positive inside the counter clockwise triangle.
+			float px = minX + 0.5f;
+			for (int y = minY; y <= maxY; y++) {
+				float py = y + 0.5f;
+				float e0 = (x2 - x1) * (py - y1) - (y2 - y1) * (px - x1);
+				float e1 = (x0 - x2) * (py - y2) - (y0 - y2) * (px - x2);
+				float e2 = (x1 - x0) * (py - y0) - (y1 - y0) * (px - x0);
+				float z = z0 + dzdx * (px - x0) + dzdy * (py - y0);
+				for (int index = y * width + minX, n = y * width + maxX; index <= n; index++) {
+					if (e0 >= 0 && e1 >= 0 && e2 >= 0 && z < depth[index]) depth[index] = z;
+					e0 -= y2 - y1;
+					e1 -= y0 - y2;
+					e2 -= y1 - y0;
+					z += dzdx;
+				}
+			}
+		}
+	}
+
+	private void buildLevels () {
+		for (int level = 1, n = levels.length; level < n; level++) {
+			float[] source = levels[level - 1], target = levels[level];
+			int sourceWidth = levelWidths[level - 1], sourceHeight = levelHeights[level - 1];
+			int targetWidth = levelWidths[level], targetHeight = levelHeights[level];
+			for (int y = 0; y < targetHeight; y++) {
+				int row0 = y * 2 * sourceWidth, row1 = Math.min(y * 2 + 1, sourceHeight - 1) * sourceWidth;
+				for (int x = 0; x < targetWidth; x++) {
+					int x0 = x * 2, x1 = Math.min(x0 + 1, sourceWidth - 1);
+					target[y * targetWidth + x] = Math.max(Math.max(source[row0 + x0], source[row0 + x1]),
+						Math.max(source[row1 + x0], source[row1 + x1]));
+				}
+			}
+		}
+	}
+
+	/** @param bounds the bounds in world space.
+	 * @return false if the bounds are hidden behind the occluders or outside of the view. */
+	public boolean isVisible (BoundingBox bounds) {
+		return isVisible(bounds, null);
+	}
+
+	/** @param bounds the bounds in model space.
+	 * @param transform the model to world transform, may be null.
+	 * @return false if the transformed bounds are hidden behind the occluders or outside of the view. */
+	public boolean isVisible (BoundingBox bounds, Matrix4 transform) {
+		Vector3 min = bounds.min, max = bounds.max;
+		return isVisible(min.x, min.y, min.z, max.x, max.y, max.z, transform);
+	}
+
+	/** @param center the center of the bounds in model space, e.g. {@link MeshPart#center}.
+	 * @param halfExtents the half extents of the bounds, e.g. {@link MeshPart#halfExtents}.
+	 * @param transform the model to world transform, may be null.
+	 * @return false if the transformed bounds are hidden behind the occluders or outside of the view. */
+	public boolean isVisible (Vector3 center, Vector3 halfExtents, Matrix4 transform) {
+		return isVisible(center.x - halfExtents.x, center.y - halfExtents.y, center.z - halfExtents.z, center.x + halfExtents.x,
+			center.y + halfExtents.y, center.z + halfExtents.z, transform);
+	}
+
+	private boolean isVisible (float minX, float minY, float minZ, float maxX, float maxY, float maxZ, Matrix4 transform) {
+		if (adding) throw new IllegalStateException("end must be called before testing bounds.");
+		float[] m = transform == null ? combined.val : tmpMatrix.set(combined).mul(transform).val;
+		float screenMinX = Float.POSITIVE_INFINITY, screenMinY = Float.POSITIVE_INFINITY, nearest = Float.POSITIVE_INFINITY;
+		float screenMaxX = Float.NEGATIVE_INFINITY, screenMaxY = Float.NEGATIVE_INFINITY;
+		int behind = 0;
+		for (int i = 0; i < 8; i++) {
+			float x = (i & 1) == 0 ? minX : maxX, y = (i & 2) == 0 ? minY : maxY, z = (i & 4) == 0 ? minZ : maxZ;
+			float cw = m[Matrix4.M30] * x + m[Matrix4.M31] * y + m[Matrix4.M32] * z + m[Matrix4.M33];
+			float cz = m[Matrix4.M20] * x + m[Matrix4.M21] * y + m[Matrix4.M22] * z + m[Matrix4.M23];
+			if (cz < -cw || cw <= 0) {
+				behind++;
+				continue;
+			}
+			float invW = 1 / cw;
+			float sx = (m[Matrix4.M00] * x + m[Matrix4.M01] * y + m[Matrix4.M02] * z + m[Matrix4.M03]) * invW;
+			float sy = (m[Matrix4.M10] * x + m[Matrix4.M11] * y + m[Matrix4.M12] * z + m[Matrix4.M13]) * invW;
+			screenMinX = Math.min(screenMinX, sx);
+			screenMaxX = Math.max(screenMaxX, sx);
+			screenMinY = Math.min(screenMinY, sy);
+			screenMaxY = Math.max(screenMaxY, sy);
+			nearest = Math.min(nearest, cz * invW);
+		}
+		if (behind > 0) return behind < 8; // Crosses the near plane or is behind it.
+		if (nearest > 1) return false; // Beyond the far plane.
+		nearest = (nearest + 1) * 0.5f;
+
+		float halfWidth = width * 0.5f, halfHeight = height * 0.5f;
+		int x0 = Math.max(0, (int)Math.floor((screenMinX + 1) * halfWidth));
+		int x1 = Math.min(width - 1, (int)Math.floor((screenMaxX + 1) * halfWidth));
+		int y0 = Math.max(0, (int)Math.floor((screenMinY + 1) * halfHeight));
+		int y1 = Math.min(height - 1, (int)Math.floor((screenMaxY + 1) * halfHeight));
+		if (x0 > x1 || y0 > y1) return false; // Outside of the view.
+
+		// Use the level where the bounds cover at most 4x4 pixels.
+		int level = 0;
+		for (int last = levels.length - 1; level < last; level++) {
+			if ((x1 >> level) - (x0 >> level) < 4 && (y1 >> level) - (y0 >> level) < 4) break;
+		}
+		float[] depth = levels[level];
+		int levelWidth = levelWidths[level];
+		x0 >>= level;
+		x1 >>= level;
+		y1 >>= level;
+		for (int y = y0 >> level; y <= y1; y++) {
+			for (int index = y * levelWidth + x0, n = y * levelWidth + x1; index <= n; index++)
+				if (nearest <= depth[index]) return true;
+		}
+		return false;
+	}
+
+	/** Removes the occluded renderables, testing the bounds of their {@link MeshPart} transformed by their world transform.
+	 * Renderables with bones or without bounds (see {@link MeshPart#update()}) are kept.
+	 * @param start the index of the first renderable to test.
+	 * @param pool the pool the removed renderables are freed to, may be null.
+	 * @return the number of removed renderables. */
+	public int cull (Array<Renderable> renderables, int start, Pool<Renderable> pool) {
+		Renderable[] items = renderables.items;
+		int kept = start;
+		for (int i = start, n = renderables.size; i < n; i++) {
+			Renderable renderable = items[i];
+			MeshPart meshPart = renderable.meshPart;
+			if (renderable.bones != null || meshPart.radius < 0
+				|| isVisible(meshPart.center, meshPart.halfExtents, renderable.worldTransform))
+				items[kept++] = renderable;
+			else if (pool != null) pool.free(renderable);
+		}
+		int removed = renderables.size - kept;
+		renderables.truncate(kept);
+		return removed;
+	}
+
+	/** @return the width of the depth buffer in pixels. */
+	public int getWidth () {
+		return width;
+	}
+
+	/** @return the height of the depth buffer in pixels. */
+	public int getHeight () {
+		return height;
+	}
+
+	/** @return the depth buffer, row by row from the bottom, with depth from 0 at the near plane to 1 at the far plane. Must not
+	 *         be modified. */
+	public float[] getDepth () {
+		return levels[0];
+	}
+
+	/** Releases the worker threads, see {@link #setThreads(int)}. */
+	@Override
+	public void dispose () {
+		executor.dispose();
+	}
+
+	/** Passes on the renderables of a provider which are not occluded, see {@link OcclusionCuller#cull(Array, int, Pool)}:
+	 *
+	 * <pre>
+	 * modelBatch.render(filter, environment);
+	 * </pre> */
+	static public class Filter implements RenderableProvider {
+		public OcclusionCuller culler;
+		public RenderableProvider provider;
+
+		public Filter (OcclusionCuller culler, RenderableProvider provider) {
+			this.culler = culler;
+			this.provider = provider;
+		}
+
+		@Override
+		public void getRenderables (Array<Renderable> renderables, Pool<Renderable> pool) {
+			int start = renderables.size;
+			provider.getRenderables(renderables, pool);
+			culler.cull(renderables, start, pool);
+		}
+	}
+}
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g3d.utils;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.attributes.BlendingAttribute;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+
+/** A {@link RenderableSorter} that computes a 64 bit key for each renderable once and sorts the keys with a stable radix sort,
+ * instead of comparing renderables pairwise like {@link DefaultRenderableSorter}.
+ * <p>
+ * Opaque renderables come first, grouped by shader, then material, then mesh, and within a group sorted front to back. This
+ * minimizes state changes while still benefiting from early depth rejection. Blended renderables follow, sorted back to front as
+ * required for correct blending, with ties grouped by shader and material.
+ * <p>
+ * Shaders, materials and meshes are identified by reference and assigned small ids as they are first encountered during each
+ * sort, so the sorter doesn't hold on to them afterwards. When a sort encounters more than 4095 shaders, 65535 materials or 32767
+ * meshes, the remaining ones share the last id and are only ordered by depth. */
+public class RadixRenderableSorter implements RenderableSorter {
+	static private final int SHADER_BITS = 12, MATERIAL_BITS = 16, MESH_BITS = 15, DEPTH_BITS = 20;
+	static private final long BLENDED = 1L << 63;
+
+	private final IdentityMap<Object, Integer> shaderIds = new IdentityMap<Object, Integer>();
+	private final IdentityMap<Object, Integer> materialIds = new IdentityMap<Object, Integer>();
+	private final IdentityMap<Object, Integer> meshIds = new IdentityMap<Object, Integer>();
+	private long[] keys = new long[0], tempKeys = new long[0];
+	private int[] indices = new int[0], tempIndices = new int[0];
+	private Object[] tempItems = new Object[0];
+	private final int[] counts = new int[8 * 256];
+	private final Vector3 tmpV = new Vector3();
+
+	@Override
+	public void sort (Camera camera, Array<Renderable> renderables) {
+		int size = renderables.size;
+		if (size < 2) return;
+		ensureCapacity(size);
+		long[] keys = this.keys;
+		int[] indices = this.indices;
+		Object[] items = renderables.items;
+		Vector3 position = camera.position;
+		clearIds();
+		for (int i = 0; i < size; i++) {
+			Renderable renderable = (Renderable)items[i];
+			keys[i] = computeKey(renderable, getTranslation(renderable.worldTransform, renderable.meshPart.center, tmpV).dst2(position));
+			indices[i] = i;
+		}
+		clearIds();
+
+		radixSort(size);
+
+		indices = this.indices;
+		Object[] tempItems = this.tempItems;
+		System.arraycopy(items, 0, tempItems, 0, size);
+		for (int i = 0; i < size; i++)
+			items[i] = tempItems[indices[i]];
+		for (int i = 0; i < size; i++)
+			tempItems[i] = null;
+	}
+
+	/** @param distance2 the squared distance of the renderable to the camera. */
+	protected long computeKey (Renderable renderable, float distance2) {
+		boolean blended = renderable.material != null && renderable.material.has(BlendingAttribute.Type)
+			&& ((BlendingAttribute)renderable.material.get(BlendingAttribute.Type)).blended;
+		// The bits of a non-negative float increase with its value, the top bits are a logarithmic quantization.
+		int depth = Float.floatToIntBits(Math.max(0, distance2));
+		long shader = id(shaderIds, renderable.shader, SHADER_BITS);
+		long material = id(materialIds, renderable.material, MATERIAL_BITS);
+		if (blended) {
+			long backToFront = ~depth & 0x7fffffffL;
+			return BLENDED | (backToFront << 32) | (shader << 20) | (material & 0xfffff);
+		}
+		long mesh = id(meshIds, renderable.meshPart.mesh, MESH_BITS);
+		return (shader << (MATERIAL_BITS + MESH_BITS + DEPTH_BITS)) | (material << (MESH_BITS + DEPTH_BITS))
+			| (mesh << DEPTH_BITS) | (depth >>> (31 - DEPTH_BITS));
+	}
+
+	private int id (IdentityMap<Object, Integer> ids, Object object, int bits) {
+		if (object == null) return 0;
+		Integer id = ids.get(object);
+		if (id == null) {
+			int max = (1 << bits) - 1;
+			if (ids.size + 1 >= max) return max; // Out of ids, the remaining objects share the last one.
+			id = ids.size + 1;
+			ids.put(object, id);
+		}
+		return id;
+	}
+
+	/** Stable LSD radix sort of the keys and their indices, 8 bits at a time, skipping digits that are the same for all keys. */
+	private void radixSort (int size) {
+		int[] counts = this.counts;
+		for (int i = 0, n = counts.length; i < n; i++)
+			counts[i] = 0;
+		long[] keys = this.keys;
+		for (int i = 0; i < size; i++) {
+			long key = keys[i];
+			for (int digit = 0; digit < 8; digit++)
+				counts[(digit << 8) + (int)((key >>> (digit << 3)) & 0xff)]++;
+		}
+
+		int[] indices = this.indices;
+		long[] tempKeys = this.tempKeys;
+		int[] tempIndices = this.tempIndices;
+		for (int digit = 0; digit < 8; digit++) {
+			int base = digit << 8, shift = digit << 3;
+			if (counts[base + (int)((keys[0] >>> shift) & 0xff)] == size) continue; // All keys have the same digit.
+			for (int i = 0, offset = 0; i < 256; i++) {
+				int count = counts[base + i];
+				counts[base + i] = offset;
+				offset += count;
+			}
+			for (int i = 0; i < size; i++) {
+				long key = keys[i];
+				int index = counts[base + (int)((key >>> shift) & 0xff)]++;
+				tempKeys[index] = key;
+				tempIndices[index] = indices[i];
+			}
+			long[] swapKeys = keys;
+			keys = tempKeys;
+			tempKeys = swapKeys;
+			int[] swapIndices = indices;
+			indices = tempIndices;
+			tempIndices = swapIndices;
+		}
+		this.keys = keys;
+		this.tempKeys = tempKeys;
+		this.indices = indices;
+		this.tempIndices = tempIndices;
+	}
+
+	private void ensureCapacity (int size) {
+		if (keys.length >= size) return;
+		int capacity = Math.max(size, (int)(keys.length * 1.75f));
+		keys = new long[capacity];
+		tempKeys = new long[capacity];
+		indices = new int[capacity];
+		tempIndices = new int[capacity];
+		tempItems = new Object[capacity];
+	}
+
+	private Vector3 getTranslation (Matrix4 worldTransform, Vector3 center, Vector3 output) {
+		if (center.isZero())
+			worldTransform.getTranslation(output);
+		else if (!worldTransform.hasRotationOrScaling())
+			worldTransform.getTranslation(output).add(center);
+		else
+			output.set(center).mul(worldTransform);
+		return output;
+	}
+
+	private void clearIds () {
+		shaderIds.clear();
+		materialIds.clear();
+		meshIds.clear();
+	}
+}
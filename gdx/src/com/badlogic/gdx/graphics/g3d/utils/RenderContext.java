@@ -18,10 +18,12 @@ package com.badlogic.gdx.graphics.g3d.utils;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.glutils.GLStateCache;
 
 /** Manages OpenGL state and tries to reduce state changes. Uses a {@link TextureBinder} to reduce texture binds as well. Call
  * {@link #begin()} to setup the context, call {@link #end()} to undo all state changes. Use the setters to change state, use
- * {@link #textureBinder} to bind textures.
+ * {@link #textureBinder} to bind textures. Shader programs and textures are bound through the {@link GLStateCache}, which is
+ * shared with other render contexts and batches.
  * @author badlogic, Xoppa */
 public class RenderContext {
 	/** used to bind textures **/
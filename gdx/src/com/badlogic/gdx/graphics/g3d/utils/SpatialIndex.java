@@ -0,0 +1,517 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.g3d.utils;
+
+import com.badlogic.gdx.math.Frustum;
+import com.badlogic.gdx.math.Plane;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.math.collision.Ray;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+
+/** A bounding volume hierarchy of axis aligned bounding boxes, used to quickly find the objects that are visible to a camera or
+ * that intersect a box, sphere or ray. The objects can be anything with world space bounds, eg ModelInstances (see
+ * {@link ModelInstanceIndex}), {@link com.badlogic.gdx.graphics.g3d.decals.Decal Decals} or particle effects.
+ * <p>
+ * The tree is a dynamic AABB tree: objects can be added, moved and removed at any time and the tree is kept balanced using tree
+ * rotations. Each object is stored in a leaf with its bounds enlarged by a margin, so an object that moves a little doesn't
+ * require the tree to be changed. Queries test the enlarged bounds of the nodes but the exact bounds of the objects.
+ * <p>
+ * Objects are identified by the id returned by {@link #add(Object, BoundingBox)}. Ids are reused after an object is removed.
+ * This class is not thread safe. */
+public class SpatialIndex<T> {
+	static private final int NULL = -1;
+
+	private final float margin;
+	/** Per node the min x, y, z and max x, y, z of the enlarged bounds. */
+	private float[] bounds;
+	/** Per leaf the min x, y, z and max x, y, z of the object's bounds. */
+	private float[] objectBounds;
+	/** For free nodes the next free node. */
+	private int[] parents;
+	private int[] children1, children2;
+	/** 0 for leaves, -1 for free nodes. */
+	private int[] heights;
+	private Object[] objects;
+	private int root = NULL, freeList = NULL, capacity, size;
+	private final IntArray stack = new IntArray();
+
+	/** Creates an index with a margin of 0.1. */
+	public SpatialIndex () {
+		this(0.1f, 16);
+	}
+
+	/** @param margin the distance the bounds of objects are enlarged by, so that objects can move this far before the tree needs to
+	 *           be changed.
+	 * @param initialCapacity the number of objects to allocate space for. */
+	public SpatialIndex (float margin, int initialCapacity) {
+		if (margin < 0) throw new IllegalArgumentException("margin must be >= 0: " + margin);
+		this.margin = margin;
+		resize(Math.max(2, initialCapacity * 2));
+	}
+
+	/** Adds an object with the specified world space bounds.
+	 * @return the id of the object, used to {@link #update(int, BoundingBox) update} or {@link #remove(int) remove} it. */
+	public int add (T object, BoundingBox bounds) {
+		final int id = allocateNode();
+		objects[id] = object;
+		heights[id] = 0;
+		setBounds(id, bounds);
+		insertLeaf(id);
+		size++;
+		return id;
+	}
+
+	/** Removes the object with the specified id.
+	 * @return the removed object. */
+	public T remove (int id) {
+		checkLeaf(id);
+		final T object = (T)objects[id];
+		removeLeaf(id);
+		freeNode(id);
+		size--;
+		return object;
+	}
+
+	/** Sets the world space bounds of the object with the specified id, eg after it moved. This is cheap if the object stays
+	 * within the margin of its previous bounds.
+	 * @return true if the tree had to be changed. */
+	public boolean update (int id, BoundingBox bounds) {
+		checkLeaf(id);
+		final float[] objectBounds = this.objectBounds;
+		final int i = id * 6;
+		objectBounds[i] = bounds.min.x;
+		objectBounds[i + 1] = bounds.min.y;
+		objectBounds[i + 2] = bounds.min.z;
+		objectBounds[i + 3] = bounds.max.x;
+		objectBounds[i + 4] = bounds.max.y;
+		objectBounds[i + 5] = bounds.max.z;
+		final float[] nodeBounds = this.bounds;
+		if (nodeBounds[i] <= bounds.min.x && nodeBounds[i + 1] <= bounds.min.y && nodeBounds[i + 2] <= bounds.min.z
+			&& nodeBounds[i + 3] >= bounds.max.x && nodeBounds[i + 4] >= bounds.max.y && nodeBounds[i + 5] >= bounds.max.z)
+			return false;
+		removeLeaf(id);
+		setBounds(id, bounds);
+		insertLeaf(id);
+		return true;
+	}
+
+	/** @return the object with the specified id. */
+	public T get (int id) {
+		checkLeaf(id);
+		return (T)objects[id];
+	}
+
+	/** @return the world space bounds of the object with the specified id, as last set. */
+	public BoundingBox getBounds (int id, BoundingBox out) {
+		checkLeaf(id);
+		final float[] b = objectBounds;
+		final int i = id * 6;
+		return out.set(out.min.set(b[i], b[i + 1], b[i + 2]), out.max.set(b[i + 3], b[i + 4], b[i + 5]));
+	}
+
+	/** @return the number of objects. */
+	public int size () {
+		return size;
+	}
+
+	/** @return the height of the tree, 0 if empty. Useful to check the balance. */
+	public int getHeight () {
+		return root == NULL ? 0 : heights[root] + 1;
+	}
+
+	/** Removes all objects. */
+	public void clear () {
+		root = NULL;
+		size = 0;
+		freeList = NULL;
+		for (int i = capacity - 1; i >= 0; i--)
+			freeNode(i);
+	}
+
+	/** Adds the objects whose bounds intersect the specified box to the output array.
+	 * @return the output array. */
+	public Array<T> query (BoundingBox box, Array<T> out) {
+		if (root == NULL) return out;
+		final float minX = box.min.x, minY = box.min.y, minZ = box.min.z, maxX = box.max.x, maxY = box.max.y, maxZ = box.max.z;
+		final IntArray stack = this.stack;
+		stack.add(root);
+		while (stack.size > 0) {
+			final int node = stack.pop();
+			final boolean leaf = heights[node] == 0;
+			final float[] b = leaf ? objectBounds : bounds;
+			final int i = node * 6;
+			if (b[i] > maxX || b[i + 1] > maxY || b[i + 2] > maxZ || b[i + 3] < minX || b[i + 4] < minY || b[i + 5] < minZ)
+				continue;
+			if (leaf)
+				out.add((T)objects[node]);
+			else {
+				stack.add(children1[node]);
+				stack.add(children2[node]);
+			}
+		}
+		return out;
+	}
+
+	/** Adds the objects whose bounds intersect the sphere to the output array.
+	 * @return the output array. */
+	public Array<T> query (Vector3 center, float radius, Array<T> out) {
+		if (root == NULL) return out;
+		final float x = center.x, y = center.y, z = center.z, radius2 = radius * radius;
+		final IntArray stack = this.stack;
+		stack.add(root);
+		while (stack.size > 0) {
+			final int node = stack.pop();
+			final boolean leaf = heights[node] == 0;
+			final float[] b = leaf ? objectBounds : bounds;
+			final int i = node * 6;
+			// Squared distance from the center to the closest point in the box.
+			float d, dst2 = 0;
+			if ((d = b[i] - x) > 0 || (d = x - b[i + 3]) > 0) dst2 += d * d;
+			if ((d = b[i + 1] - y) > 0 || (d = y - b[i + 4]) > 0) dst2 += d * d;
+			if ((d = b[i + 2] - z) > 0 || (d = z - b[i + 5]) > 0) dst2 += d * d;
+			if (dst2 > radius2) continue;
+			if (leaf)
+				out.add((T)objects[node]);
+			else {
+				stack.add(children1[node]);
+				stack.add(children2[node]);
+			}
+		}
+		return out;
+	}
+
+	/** Adds the objects whose bounds are hit by the ray within the specified distance from its origin to the output array. The
+	 * objects are not sorted by distance.
+	 * @param maxDistance the maximum distance in units of the ray's direction, {@link Float#POSITIVE_INFINITY} for no limit.
+	 * @return the output array. */
+	public Array<T> query (Ray ray, float maxDistance, Array<T> out) {
+		if (root == NULL) return out;
+		final float ox = ray.origin.x, oy = ray.origin.y, oz = ray.origin.z;
+		final float ix = 1 / ray.direction.x, iy = 1 / ray.direction.y, iz = 1 / ray.direction.z;
+		final IntArray stack = this.stack;
+		stack.add(root);
+		while (stack.size > 0) {
+			final int node = stack.pop();
+			final boolean leaf = heights[node] == 0;
+			final float[] b = leaf ? objectBounds : bounds;
+			final int i = node * 6;
+			// Slab test. NaN from 0 * infinity makes the comparisons below false, so the box is conservatively accepted.
+			float t1 = (b[i] - ox) * ix, t2 = (b[i + 3] - ox) * ix;
+			float tMin = Math.min(t1, t2), tMax = Math.max(t1, t2);
+			t1 = (b[i + 1] - oy) * iy;
+			t2 = (b[i + 4] - oy) * iy;
+			tMin = Math.max(tMin, Math.min(t1, t2));
+			tMax = Math.min(tMax, Math.max(t1, t2));
+			t1 = (b[i + 2] - oz) * iz;
+			t2 = (b[i + 5] - oz) * iz;
+			tMin = Math.max(tMin, Math.min(t1, t2));
+			tMax = Math.min(tMax, Math.max(t1, t2));
+			if (tMax < 0 || tMin > tMax || tMin > maxDistance) continue;
+			if (leaf)
+				out.add((T)objects[node]);
+			else {
+				stack.add(children1[node]);
+				stack.add(children2[node]);
+			}
+		}
+		return out;
+	}
+
+	/** Adds the objects whose bounds are at least partially inside the frustum to the output array. Subtrees that are completely
+	 * inside the frustum are added without further tests.
+	 * @return the output array. */
+	public Array<T> query (Frustum frustum, Array<T> out) {
+		if (root == NULL) return out;
+		final Plane[] planes = frustum.planes;
+		final IntArray stack = this.stack;
+		stack.add(root);
+		outer:
+		while (stack.size > 0) {
+			final int node = stack.pop();
+			final boolean leaf = heights[node] == 0;
+			final float[] b = leaf ? objectBounds : bounds;
+			final int i = node * 6;
+			boolean inside = true;
+			for (int p = 0; p < 6; p++) {
+				final Plane plane = planes[p];
+				final float nx = plane.normal.x, ny = plane.normal.y, nz = plane.normal.z;
+				// The corner furthest along the normal and the one opposite to it.
+				final float far = nx * (nx > 0 ? b[i + 3] : b[i]) + ny * (ny > 0 ? b[i + 4] : b[i + 1])
+					+ nz * (nz > 0 ? b[i + 5] : b[i + 2]) + plane.d;
+				if (far < 0) continue outer;
+				if (inside) {
+					final float near = nx * (nx > 0 ? b[i] : b[i + 3]) + ny * (ny > 0 ? b[i + 1] : b[i + 4])
+						+ nz * (nz > 0 ? b[i + 2] : b[i + 5]) + plane.d;
+					if (near < 0) inside = false;
+				}
+			}
+			if (leaf)
+				out.add((T)objects[node]);
+			else if (inside)
+				addAll(node, out);
+			else {
+				stack.add(children1[node]);
+				stack.add(children2[node]);
+			}
+		}
+		return out;
+	}
+
+	/** Adds the objects of all leaves below the node, using the end of the stack. */
+	private void addAll (int node, Array<T> out) {
+		final IntArray stack = this.stack;
+		final int base = stack.size;
+		stack.add(node);
+		while (stack.size > base) {
+			node = stack.pop();
+			if (heights[node] == 0)
+				out.add((T)objects[node]);
+			else {
+				stack.add(children1[node]);
+				stack.add(children2[node]);
+			}
+		}
+	}
+
+	private void checkLeaf (int id) {
+		if (id < 0 || id >= capacity || heights[id] != 0) throw new GdxRuntimeException("Invalid id: " + id);
+	}
+
+	private void setBounds (int id, BoundingBox box) {
+		final int i = id * 6;
+		final float[] objectBounds = this.objectBounds, bounds = this.bounds;
+		objectBounds[i] = box.min.x;
+		objectBounds[i + 1] = box.min.y;
+		objectBounds[i + 2] = box.min.z;
+		objectBounds[i + 3] = box.max.x;
+		objectBounds[i + 4] = box.max.y;
+		objectBounds[i + 5] = box.max.z;
+		final float margin = this.margin;
+		bounds[i] = box.min.x - margin;
+		bounds[i + 1] = box.min.y - margin;
+		bounds[i + 2] = box.min.z - margin;
+		bounds[i + 3] = box.max.x + margin;
+		bounds[i + 4] = box.max.y + margin;
+		bounds[i + 5] = box.max.z + margin;
+	}
+
+	private int allocateNode () {
+		if (freeList == NULL) resize(capacity * 2);
+		final int node = freeList;
+		freeList = parents[node];
+		parents[node] = NULL;
+		children1[node] = NULL;
+		children2[node] = NULL;
+		heights[node] = 0;
+		return node;
+	}
+
+	private void freeNode (int node) {
+		parents[node] = freeList;
+		heights[node] = -1;
+		objects[node] = null;
+		freeList = node;
+	}
+
+	private void resize (int newCapacity) {
+		final int oldCapacity = capacity;
+		float[] newBounds = new float[newCapacity * 6], newObjectBounds = new float[newCapacity * 6];
+		int[] newParents = new int[newCapacity], newChildren1 = new int[newCapacity], newChildren2 = new int[newCapacity];
+		int[] newHeights = new int[newCapacity];
+		Object[] newObjects = new Object[newCapacity];
+		if (oldCapacity > 0) {
+			System.arraycopy(bounds, 0, newBounds, 0, oldCapacity * 6);
+			System.arraycopy(objectBounds, 0, newObjectBounds, 0, oldCapacity * 6);
+			System.arraycopy(parents, 0, newParents, 0, oldCapacity);
+			System.arraycopy(children1, 0, newChildren1, 0, oldCapacity);
+			System.arraycopy(children2, 0, newChildren2, 0, oldCapacity);
+			System.arraycopy(heights, 0, newHeights, 0, oldCapacity);
+			System.arraycopy(objects, 0, newObjects, 0, oldCapacity);
+		}
+		bounds = newBounds;
+		objectBounds = newObjectBounds;
+		parents = newParents;
+		children1 = newChildren1;
+		children2 = newChildren2;
+		heights = newHeights;
+		objects = newObjects;
+		capacity = newCapacity;
+		for (int i = newCapacity - 1; i >= oldCapacity; i--)
+			freeNode(i);
+	}
+
+	/** @return half the surface area of the union of the bounds of nodes a and b. */
+	private float area (int a, int b) {
+		final float[] bounds = this.bounds;
+		final int i = a * 6, j = b * 6;
+		final float width = Math.max(bounds[i + 3], bounds[j + 3]) - Math.min(bounds[i], bounds[j]);
+		final float height = Math.max(bounds[i + 4], bounds[j + 4]) - Math.min(bounds[i + 1], bounds[j + 1]);
+		final float depth = Math.max(bounds[i + 5], bounds[j + 5]) - Math.min(bounds[i + 2], bounds[j + 2]);
+		return width * height + height * depth + depth * width;
+	}
+
+	/** Sets the bounds and height of a node from its children. */
+	private void fit (int node) {
+		final int child1 = children1[node], child2 = children2[node];
+		final float[] bounds = this.bounds;
+		final int i = node * 6, a = child1 * 6, b = child2 * 6;
+		bounds[i] = Math.min(bounds[a], bounds[b]);
+		bounds[i + 1] = Math.min(bounds[a + 1], bounds[b + 1]);
+		bounds[i + 2] = Math.min(bounds[a + 2], bounds[b + 2]);
+		bounds[i + 3] = Math.max(bounds[a + 3], bounds[b + 3]);
+		bounds[i + 4] = Math.max(bounds[a + 4], bounds[b + 4]);
+		bounds[i + 5] = Math.max(bounds[a + 5], bounds[b + 5]);
+		heights[node] = 1 + Math.max(heights[child1], heights[child2]);
+	}
+
+	private void insertLeaf (int leaf) {
+		if (root == NULL) {
+			root = leaf;
+			parents[leaf] = NULL;
+			return;
+		}
+
+		// Find the best sibling using the surface area heuristic.
+		int index = root;
+		while (heights[index] != 0) {
+			final int child1 = children1[index], child2 = children2[index];
+			final float area = area(index, index), combinedArea = area(index, leaf);
+			// Cost of creating a new parent for this node and the new leaf.
+			final float cost = 2 * combinedArea;
+			// Minimum cost of pushing the leaf further down the tree.
+			final float inheritanceCost = 2 * (combinedArea - area);
+			float cost1 = area(child1, leaf) + inheritanceCost;
+			if (heights[child1] != 0) cost1 -= area(child1, child1);
+			float cost2 = area(child2, leaf) + inheritanceCost;
+			if (heights[child2] != 0) cost2 -= area(child2, child2);
+			if (cost < cost1 && cost < cost2) break;
+			index = cost1 < cost2 ? child1 : child2;
+		}
+		final int sibling = index;
+
+		final int oldParent = parents[sibling];
+		final int newParent = allocateNode();
+		parents[newParent] = oldParent;
+		children1[newParent] = sibling;
+		children2[newParent] = leaf;
+		parents[sibling] = newParent;
+		parents[leaf] = newParent;
+		if (oldParent != NULL) {
+			if (children1[oldParent] == sibling)
+				children1[oldParent] = newParent;
+			else
+				children2[oldParent] = newParent;
+		} else
+			root = newParent;
+
+		refit(newParent);
+	}
+
+	private void removeLeaf (int leaf) {
+		if (leaf == root) {
+			root = NULL;
+			return;
+		}
+		final int parent = parents[leaf];
+		final int grandParent = parents[parent];
+		final int sibling = children1[parent] == leaf ? children2[parent] : children1[parent];
+		if (grandParent != NULL) {
+			if (children1[grandParent] == parent)
+				children1[grandParent] = sibling;
+			else
+				children2[grandParent] = sibling;
+			parents[sibling] = grandParent;
+			freeNode(parent);
+			refit(grandParent);
+		} else {
+			root = sibling;
+			parents[sibling] = NULL;
+			freeNode(parent);
+		}
+	}
+
+	/** Balances and fits the node and its ancestors. */
+	private void refit (int index) {
+		while (index != NULL) {
+			index = balance(index);
+			fit(index);
+			index = parents[index];
+		}
+	}
+
+	/** Performs a left or right rotation if the node is imbalanced.
+	 * @return the new root of the subtree. */
+	private int balance (int a) {
+		final int[] heights = this.heights, parents = this.parents, children1 = this.children1, children2 = this.children2;
+		if (heights[a] < 2) return a;
+		final int b = children1[a], c = children2[a];
+		final int balance = heights[c] - heights[b];
+		if (balance > 1) {
+			// Rotate c up.
+			final int f = children1[c], g = children2[c];
+			children1[c] = a;
+			parents[c] = parents[a];
+			parents[a] = c;
+			replaceChild(parents[c], a, c);
+			if (heights[f] > heights[g]) {
+				children2[c] = f;
+				children2[a] = g;
+				parents[g] = a;
+			} else {
+				children2[c] = g;
+				children2[a] = f;
+				parents[f] = a;
+			}
+			fit(a);
+			fit(c);
+			return c;
+		}
+		if (balance < -1) {
+			// Rotate b up.
+			final int d = children1[b], e = children2[b];
+			children1[b] = a;
+			parents[b] = parents[a];
+			parents[a] = b;
+			replaceChild(parents[b], a, b);
+			if (heights[d] > heights[e]) {
+				children2[b] = d;
+				children1[a] = e;
+				parents[e] = a;
+			} else {
+				children2[b] = e;
+				children1[a] = d;
+				parents[d] = a;
+			}
+			fit(a);
+			fit(b);
+			return b;
+		}
+		return a;
+	}
+
+	private void replaceChild (int parent, int oldChild, int newChild) {
+		if (parent == NULL)
+			root = newChild;
+		else if (children1[parent] == oldChild)
+			children1[parent] = newChild;
+		else
+			children2[parent] = newChild;
+	}
+}
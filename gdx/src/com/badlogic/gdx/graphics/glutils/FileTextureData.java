@@ -58,6 +58,8 @@ public class FileTextureData implements TextureData {
 		if (pixmap == null) {
 			if (file.extension().equals("cim"))
 				pixmap = PixmapIO.readCIM(file);
+			else if (file.extension().equals("pxc"))
+				pixmap = PixmapIO.readPXC(file);
 			else
 				pixmap = new Pixmap(file);
 			width = pixmap.getWidth();
@@ -172,7 +172,7 @@ public abstract class GLFrameBuffer<T extends GLTexture> implements Disposable {
 		} else {
 			T texture = createTexture(bufferBuilder.textureAttachmentSpecs.first());
 			textureAttachments.add(texture);
-			gl.glBindTexture(texture.glTarget, texture.getTextureObjectHandle());
+			GLStateCache.bindTexture(texture.glTarget, texture.getTextureObjectHandle());
 		}
 
 		if (isMRT) {
@@ -201,7 +201,7 @@ public abstract class GLFrameBuffer<T extends GLTexture> implements Disposable {
 
 		gl.glBindRenderbuffer(GL20.GL_RENDERBUFFER, 0);
 		for (T texture : textureAttachments) {
-			gl.glBindTexture(texture.glTarget, 0);
+			GLStateCache.bindTexture(texture.glTarget, 0);
 		}
 
 		int result = gl.glCheckFramebufferStatus(GL20.GL_FRAMEBUFFER);
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.graphics.glutils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.GLTexture;
+
+/** Tracks the bound shader program, the active texture unit and the texture bound to each of the first {@link #MAX_UNITS}
+ * texture units. {@link ShaderProgram#bind()} and {@link GLTexture#bind(int)} bind through this class, so the state is shared
+ * by all batches, e.g. a texture still bound by a SpriteBatch is not bound again by a ModelBatch.
+ * <p>
+ * When {@link #setEnabled(boolean) enabled}, binds which would not change the state are skipped. This is disabled by default,
+ * because the state is only known as long as programs and textures are bound through this class: call {@link #invalidate()}
+ * after binding them, or after changing the active texture unit, directly through GL. The state is that of the GL context of
+ * the rendering thread, on context loss it is invalidated by {@link ShaderProgram#invalidateAllShaderPrograms}. */
+public final class GLStateCache {
+	/** The number of texture units of which the bound texture is tracked. Binds to other units are never skipped. */
+	public static final int MAX_UNITS = 32;
+
+	private static boolean enabled;
+	private static int program, activeUnit;
+	private static final int[] targets = new int[MAX_UNITS], textures = new int[MAX_UNITS];
+
+	static {
+		invalidate();
+	}
+
+	private GLStateCache () {
+	}
+
+	/** @param enabled whether binds which would not change the state are skipped. Invalidates the state. */
+	public static void setEnabled (boolean enabled) {
+		invalidate();
+		GLStateCache.enabled = enabled;
+	}
+
+	public static boolean isEnabled () {
+		return enabled;
+	}
+
+	/** Forgets the state, so the next binds are not skipped. */
+	public static void invalidate () {
+		program = -1;
+		activeUnit = -1;
+		for (int i = 0; i < MAX_UNITS; i++)
+			textures[i] = -1;
+	}
+
+	/** Calls {@link GL20#glUseProgram(int)}, unless the program is already in use. */
+	public static void useProgram (int program) {
+		if (enabled && GLStateCache.program == program) return;
+		GLStateCache.program = program;
+		Gdx.gl.glUseProgram(program);
+	}
+
+	/** @return the handle of the program last used through {@link #useProgram(int)}, or -1 if unknown. */
+	public static int getProgram () {
+		return program;
+	}
+
+	/** Calls {@link GL20#glActiveTexture(int)}, unless the unit is already active.
+	 * @param unit the texture unit, starting at 0 for {@link GL20#GL_TEXTURE0} */
+	public static void activeTexture (int unit) {
+		if (enabled && activeUnit == unit) return;
+		activeUnit = unit;
+		Gdx.gl.glActiveTexture(GL20.GL_TEXTURE0 + unit);
+	}
+
+	/** Calls {@link GL20#glBindTexture(int, int)} for the active texture unit, unless the texture is already bound to it. */
+	public static void bindTexture (int target, int texture) {
+		final int unit = activeUnit;
+		if (unit >= 0 && unit < MAX_UNITS) {
+			if (enabled && textures[unit] == texture && targets[unit] == target) return;
+			textures[unit] = texture;
+			targets[unit] = target;
+		} else if (unit < 0) {
+			// Any tracked unit might be the active one.
+			for (int i = 0; i < MAX_UNITS; i++)
+				textures[i] = -1;
+		}
+		Gdx.gl.glBindTexture(target, texture);
+	}
+
+	/** Calls {@link #activeTexture(int)} and {@link #bindTexture(int, int)}. */
+	public static void bindTexture (int unit, int target, int texture) {
+		activeTexture(unit);
+		bindTexture(target, texture);
+	}
+
+	/** Must be called when a texture is deleted, as GL may reuse its handle for a new texture. */
+	public static void textureDeleted (int texture) {
+		for (int i = 0; i < MAX_UNITS; i++)
+			if (textures[i] == texture) textures[i] = -1;
+	}
+}
@@ -109,6 +109,7 @@ public class InstanceBufferObject implements InstanceData {
 
 	private void bufferChanged () {
 		if (isBound) {
+			Gdx.gl20.glBindBuffer(GL20.GL_ARRAY_BUFFER, bufferHandle);
 			Gdx.gl20.glBufferData(GL20.GL_ARRAY_BUFFER, byteBuffer.limit(), null, usage);
 			Gdx.gl20.glBufferData(GL20.GL_ARRAY_BUFFER, byteBuffer.limit(), byteBuffer, usage);
 			isDirty = false;
@@ -247,6 +248,7 @@ public class InstanceBufferObject implements InstanceData {
 					continue;
 				int unitOffset = +attribute.unit;
 				shader.disableVertexAttribute(location + unitOffset);
+				Gdx.gl30.glVertexAttribDivisor(location + unitOffset, 0);
 			}
 		} else {
 			for (int i = 0; i < numAttributes; i++) {
@@ -256,6 +258,7 @@ public class InstanceBufferObject implements InstanceData {
 					continue;
 				int unitOffset = +attribute.unit;
 				shader.disableVertexAttribute(location + unitOffset);
+				Gdx.gl30.glVertexAttribDivisor(location + unitOffset, 0);
 			}
 		}
 		gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, 0);
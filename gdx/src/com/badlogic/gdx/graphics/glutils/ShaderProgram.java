@@ -35,6 +35,7 @@ import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.BufferUtils;
 import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntMap;
 import com.badlogic.gdx.utils.ObjectIntMap;
 import com.badlogic.gdx.utils.ObjectMap;
 
@@ -81,6 +82,11 @@ public class ShaderProgram implements Disposable {
 	/** flag indicating whether attributes & uniforms must be present at all times **/
 	public static boolean pedantic = true;
 
+	/** flag indicating whether the values last set per uniform location are remembered, so setting a uniform of the bound
+	 * program to the value it already has does not call GL. Call {@link #invalidateUniforms()} after setting uniforms directly
+	 * through GL. Disabled by default, like {@link GLStateCache#setEnabled(boolean)}. **/
+	public static boolean cacheUniforms = false;
+
 	/** code that is always added to the vertex shader code, typically used to inject a #version line. Note that this is added
 	 * as-is, you should include a newline (`\n`) if needed. */
 	public static String prependVertexCode = "";
@@ -146,6 +152,13 @@ public class ShaderProgram implements Disposable {
 	/** reference count **/
 	private int refCount = 0;
 
+	/** uniform values last set per location, see {@link #cacheUniforms} **/
+	private final IntMap<float[]> uniformFloats = new IntMap<float[]>();
+	private final IntMap<int[]> uniformInts = new IntMap<int[]>();
+	private boolean uniformsCached;
+	private final float[] tmpFloats = new float[4];
+	private final int[] tmpInts = new int[4];
+
 	/** Constructs a new ShaderProgram and immediately compiles it.
 	 * 
 	 * @param vertexShader the vertex shader
@@ -314,16 +327,16 @@ public class ShaderProgram implements Disposable {
 	 * @param name the name of the uniform
 	 * @param value the value */
 	public void setUniformi (String name, int value) {
-		GL20 gl = Gdx.gl20;
 		checkManaged();
-		int location = fetchUniformLocation(name);
-		gl.glUniform1i(location, value);
+		setUniformi(fetchUniformLocation(name), value);
 	}
 
 	public void setUniformi (int location, int value) {
 		GL20 gl = Gdx.gl20;
 		checkManaged();
-		gl.glUniform1i(location, value);
+		final int[] values = tmpInts;
+		values[0] = value;
+		if (uniformChanged(location, values, 0, 1)) gl.glUniform1i(location, value);
 	}
 
 	/** Sets the uniform with the given name. The {@link ShaderProgram} must be bound for this to work.
@@ -332,16 +345,17 @@ public class ShaderProgram implements Disposable {
 	 * @param value1 the first value
 	 * @param value2 the second value */
 	public void setUniformi (String name, int value1, int value2) {
-		GL20 gl = Gdx.gl20;
 		checkManaged();
-		int location = fetchUniformLocation(name);
-		gl.glUniform2i(location, value1, value2);
+		setUniformi(fetchUniformLocation(name), value1, value2);
 	}
 
 	public void setUniformi (int location, int value1, int value2) {
 		GL20 gl = Gdx.gl20;
 		checkManaged();
-		gl.glUniform2i(location, value1, value2);
+		final int[] values = tmpInts;
+		values[0] = value1;
+		values[1] = value2;
+		if (uniformChanged(location, values, 0, 2)) gl.glUniform2i(location, value1, value2);
 	}
 
 	/** Sets the uniform with the given name. The {@link ShaderProgram} must be bound for this to work.
@@ -351,16 +365,18 @@ public class ShaderProgram implements Disposable {
 	 * @param value2 the second value
 	 * @param value3 the third value */
 	public void setUniformi (String name, int value1, int value2, int value3) {
-		GL20 gl = Gdx.gl20;
 		checkManaged();
-		int location = fetchUniformLocation(name);
-		gl.glUniform3i(location, value1, value2, value3);
+		setUniformi(fetchUniformLocation(name), value1, value2, value3);
 	}
 
 	public void setUniformi (int location, int value1, int value2, int value3) {
 		GL20 gl = Gdx.gl20;
 		checkManaged();
-		gl.glUniform3i(location, value1, value2, value3);
+		final int[] values = tmpInts;
+		values[0] = value1;
+		values[1] = value2;
+		values[2] = value3;
+		if (uniformChanged(location, values, 0, 3)) gl.glUniform3i(location, value1, value2, value3);
 	}
 
 	/** Sets the uniform with the given name. The {@link ShaderProgram} must be bound for this to work.
@@ -371,16 +387,19 @@ public class ShaderProgram implements Disposable {
 	 * @param value3 the third value
 	 * @param value4 the fourth value */
 	public void setUniformi (String name, int value1, int value2, int value3, int value4) {
-		GL20 gl = Gdx.gl20;
 		checkManaged();
-		int location = fetchUniformLocation(name);
-		gl.glUniform4i(location, value1, value2, value3, value4);
+		setUniformi(fetchUniformLocation(name), value1, value2, value3, value4);
 	}
 
 	public void setUniformi (int location, int value1, int value2, int value3, int value4) {
 		GL20 gl = Gdx.gl20;
 		checkManaged();
-		gl.glUniform4i(location, value1, value2, value3, value4);
+		final int[] values = tmpInts;
+		values[0] = value1;
+		values[1] = value2;
+		values[2] = value3;
+		values[3] = value4;
+		if (uniformChanged(location, values, 0, 4)) gl.glUniform4i(location, value1, value2, value3, value4);
 	}
 
 	/** Sets the uniform with the given name. The {@link ShaderProgram} must be bound for this to work.
@@ -388,16 +407,16 @@ public class ShaderProgram implements Disposable {
 	 * @param name the name of the uniform
 	 * @param value the value */
 	public void setUniformf (String name, float value) {
-		GL20 gl = Gdx.gl20;
 		checkManaged();
-		int location = fetchUniformLocation(name);
-		gl.glUniform1f(location, value);
+		setUniformf(fetchUniformLocation(name), value);
 	}
 
 	public void setUniformf (int location, float value) {
 		GL20 gl = Gdx.gl20;
 		checkManaged();
-		gl.glUniform1f(location, value);
+		final float[] values = tmpFloats;
+		values[0] = value;
+		if (uniformChanged(location, values, 0, 1)) gl.glUniform1f(location, value);
 	}
 
 	/** Sets the uniform with the given name. The {@link ShaderProgram} must be bound for this to work.
@@ -406,16 +425,17 @@ public class ShaderProgram implements Disposable {
 	 * @param value1 the first value
 	 * @param value2 the second value */
 	public void setUniformf (String name, float value1, float value2) {
-		GL20 gl = Gdx.gl20;
 		checkManaged();
-		int location = fetchUniformLocation(name);
-		gl.glUniform2f(location, value1, value2);
+		setUniformf(fetchUniformLocation(name), value1, value2);
 	}
 
 	public void setUniformf (int location, float value1, float value2) {
 		GL20 gl = Gdx.gl20;
 		checkManaged();
-		gl.glUniform2f(location, value1, value2);
+		final float[] values = tmpFloats;
+		values[0] = value1;
+		values[1] = value2;
+		if (uniformChanged(location, values, 0, 2)) gl.glUniform2f(location, value1, value2);
 	}
 
 	/** Sets the uniform with the given name. The {@link ShaderProgram} must be bound for this to work.
@@ -425,16 +445,18 @@ public class ShaderProgram implements Disposable {
 	 * @param value2 the second value
 	 * @param value3 the third value */
 	public void setUniformf (String name, float value1, float value2, float value3) {
-		GL20 gl = Gdx.gl20;
 		checkManaged();
-		int location = fetchUniformLocation(name);
-		gl.glUniform3f(location, value1, value2, value3);
+		setUniformf(fetchUniformLocation(name), value1, value2, value3);
 	}
 
 	public void setUniformf (int location, float value1, float value2, float value3) {
 		GL20 gl = Gdx.gl20;
 		checkManaged();
-		gl.glUniform3f(location, value1, value2, value3);
+		final float[] values = tmpFloats;
+		values[0] = value1;
+		values[1] = value2;
+		values[2] = value3;
+		if (uniformChanged(location, values, 0, 3)) gl.glUniform3f(location, value1, value2, value3);
 	}
 
 	/** Sets the uniform with the given name. The {@link ShaderProgram} must be bound for this to work.
@@ -445,68 +467,63 @@ public class ShaderProgram implements Disposable {
 	 * @param value3 the third value
 	 * @param value4 the fourth value */
 	public void setUniformf (String name, float value1, float value2, float value3, float value4) {
-		GL20 gl = Gdx.gl20;
 		checkManaged();
-		int location = fetchUniformLocation(name);
-		gl.glUniform4f(location, value1, value2, value3, value4);
+		setUniformf(fetchUniformLocation(name), value1, value2, value3, value4);
 	}
 
 	public void setUniformf (int location, float value1, float value2, float value3, float value4) {
 		GL20 gl = Gdx.gl20;
 		checkManaged();
-		gl.glUniform4f(location, value1, value2, value3, value4);
+		final float[] values = tmpFloats;
+		values[0] = value1;
+		values[1] = value2;
+		values[2] = value3;
+		values[3] = value4;
+		if (uniformChanged(location, values, 0, 4)) gl.glUniform4f(location, value1, value2, value3, value4);
 	}
 
 	public void setUniform1fv (String name, float[] values, int offset, int length) {
-		GL20 gl = Gdx.gl20;
 		checkManaged();
-		int location = fetchUniformLocation(name);
-		gl.glUniform1fv(location, length, values, offset);
+		setUniform1fv(fetchUniformLocation(name), values, offset, length);
 	}
 
 	public void setUniform1fv (int location, float[] values, int offset, int length) {
 		GL20 gl = Gdx.gl20;
 		checkManaged();
-		gl.glUniform1fv(location, length, values, offset);
+		if (uniformChanged(location, values, offset, length)) gl.glUniform1fv(location, length, values, offset);
 	}
 
 	public void setUniform2fv (String name, float[] values, int offset, int length) {
-		GL20 gl = Gdx.gl20;
 		checkManaged();
-		int location = fetchUniformLocation(name);
-		gl.glUniform2fv(location, length / 2, values, offset);
+		setUniform2fv(fetchUniformLocation(name), values, offset, length);
 	}
 
 	public void setUniform2fv (int location, float[] values, int offset, int length) {
 		GL20 gl = Gdx.gl20;
 		checkManaged();
-		gl.glUniform2fv(location, length / 2, values, offset);
+		if (uniformChanged(location, values, offset, length)) gl.glUniform2fv(location, length / 2, values, offset);
 	}
 
 	public void setUniform3fv (String name, float[] values, int offset, int length) {
-		GL20 gl = Gdx.gl20;
 		checkManaged();
-		int location = fetchUniformLocation(name);
-		gl.glUniform3fv(location, length / 3, values, offset);
+		setUniform3fv(fetchUniformLocation(name), values, offset, length);
 	}
 
 	public void setUniform3fv (int location, float[] values, int offset, int length) {
 		GL20 gl = Gdx.gl20;
 		checkManaged();
-		gl.glUniform3fv(location, length / 3, values, offset);
+		if (uniformChanged(location, values, offset, length)) gl.glUniform3fv(location, length / 3, values, offset);
 	}
 
 	public void setUniform4fv (String name, float[] values, int offset, int length) {
-		GL20 gl = Gdx.gl20;
 		checkManaged();
-		int location = fetchUniformLocation(name);
-		gl.glUniform4fv(location, length / 4, values, offset);
+		setUniform4fv(fetchUniformLocation(name), values, offset, length);
 	}
 
 	public void setUniform4fv (int location, float[] values, int offset, int length) {
 		GL20 gl = Gdx.gl20;
 		checkManaged();
-		gl.glUniform4fv(location, length / 4, values, offset);
+		if (uniformChanged(location, values, offset, length)) gl.glUniform4fv(location, length / 4, values, offset);
 	}
 
 	/** Sets the uniform matrix with the given name. The {@link ShaderProgram} must be bound for this to work.
@@ -533,6 +550,9 @@ public class ShaderProgram implements Disposable {
 	public void setUniformMatrix (int location, Matrix4 matrix, boolean transpose) {
 		GL20 gl = Gdx.gl20;
 		checkManaged();
+		if (transpose)
+			forgetUniform(location);
+		else if (!uniformChanged(location, matrix.val, 0, matrix.val.length)) return;
 		gl.glUniformMatrix4fv(location, 1, transpose, matrix.val, 0);
 	}
 
@@ -560,6 +580,9 @@ public class ShaderProgram implements Disposable {
 	public void setUniformMatrix (int location, Matrix3 matrix, boolean transpose) {
 		GL20 gl = Gdx.gl20;
 		checkManaged();
+		if (transpose)
+			forgetUniform(location);
+		else if (!uniformChanged(location, matrix.val, 0, matrix.val.length)) return;
 		gl.glUniformMatrix3fv(location, 1, transpose, matrix.val, 0);
 	}
 
@@ -573,6 +596,7 @@ public class ShaderProgram implements Disposable {
 		checkManaged();
 		buffer.position(0);
 		int location = fetchUniformLocation(name);
+		forgetUniform(location);
 		gl.glUniformMatrix3fv(location, count, transpose, buffer);
 	}
 
@@ -586,13 +610,14 @@ public class ShaderProgram implements Disposable {
 		checkManaged();
 		buffer.position(0);
 		int location = fetchUniformLocation(name);
+		forgetUniform(location);
 		gl.glUniformMatrix4fv(location, count, transpose, buffer);
 	}
 
 	public void setUniformMatrix4fv (int location, float[] values, int offset, int length) {
 		GL20 gl = Gdx.gl20;
 		checkManaged();
-		gl.glUniformMatrix4fv(location, length / 16, false, values, offset);
+		if (uniformChanged(location, values, offset, length)) gl.glUniformMatrix4fv(location, length / 16, false, values, offset);
 	}
 
 	public void setUniformMatrix4fv (String name, float[] values, int offset, int length) {
@@ -687,10 +712,9 @@ public class ShaderProgram implements Disposable {
 		bind();
 	}
 
-	public void bind(){
-		GL20 gl = Gdx.gl20;
+	public void bind () {
 		checkManaged();
-		gl.glUseProgram(program);
+		GLStateCache.useProgram(program);
 	}
 
 	/** @deprecated no longer necessary, this method will be remove in future version */
@@ -701,10 +725,11 @@ public class ShaderProgram implements Disposable {
 	/** Disposes all resources associated with this shader. Must be called when the shader is no longer used. */
 	public void dispose () {
 		GL20 gl = Gdx.gl20;
-		gl.glUseProgram(0);
+		GLStateCache.useProgram(0);
 		gl.glDeleteShader(vertexShaderHandle);
 		gl.glDeleteShader(fragmentShaderHandle);
 		gl.glDeleteProgram(program);
+		invalidateUniforms();
 		if (shaders.get(Gdx.app) != null) shaders.get(Gdx.app).removeValue(this, true);
 	}
 
@@ -745,10 +770,75 @@ public class ShaderProgram implements Disposable {
 	private void checkManaged () {
 		if (invalidated) {
 			compileShaders(vertexShaderSource, fragmentShaderSource);
+			invalidateUniforms();
 			invalidated = false;
 		}
 	}
 
+	/** @return whether values set at the uniform location are compared with the values last set there. */
+	private boolean cachesUniform (int location) {
+		if (cacheUniforms) return location >= 0;
+		// Values set while caching is disabled are not remembered, so the others are stale once it is enabled again.
+		if (uniformsCached) invalidateUniforms();
+		return false;
+	}
+
+	/** @return whether the values differ from the values last set at the uniform location, in which case they are remembered. */
+	private boolean uniformChanged (int location, float[] values, int offset, int length) {
+		if (!cachesUniform(location)) return true;
+		if (GLStateCache.getProgram() != program) {
+			// Not known to be bound, the values may be set on another program.
+			forgetUniform(location);
+			return true;
+		}
+		float[] cached = uniformFloats.get(location);
+		if (cached == null || cached.length != length)
+			uniformFloats.put(location, cached = new float[length]);
+		else {
+			int i = 0;
+			while (i < length && cached[i] == values[offset + i])
+				i++;
+			if (i == length) return false;
+		}
+		System.arraycopy(values, offset, cached, 0, length);
+		uniformsCached = true;
+		return true;
+	}
+
+	/** @return whether the values differ from the values last set at the uniform location, in which case they are remembered. */
+	private boolean uniformChanged (int location, int[] values, int offset, int length) {
+		if (!cachesUniform(location)) return true;
+		if (GLStateCache.getProgram() != program) {
+			forgetUniform(location);
+			return true;
+		}
+		int[] cached = uniformInts.get(location);
+		if (cached == null || cached.length != length)
+			uniformInts.put(location, cached = new int[length]);
+		else {
+			int i = 0;
+			while (i < length && cached[i] == values[offset + i])
+				i++;
+			if (i == length) return false;
+		}
+		System.arraycopy(values, offset, cached, 0, length);
+		uniformsCached = true;
+		return true;
+	}
+
+	private void forgetUniform (int location) {
+		uniformFloats.remove(location);
+		uniformInts.remove(location);
+	}
+
+	/** Forgets the values last set for the uniforms of this program, so they are all sent to GL the next time they are set. See
+	 * {@link #cacheUniforms}. */
+	public void invalidateUniforms () {
+		uniformFloats.clear();
+		uniformInts.clear();
+		uniformsCached = false;
+	}
+
 	private void addManagedShader (Application app, ShaderProgram shaderProgram) {
 		Array<ShaderProgram> managedResources = shaders.get(app);
 		if (managedResources == null) managedResources = new Array<ShaderProgram>();
@@ -759,6 +849,7 @@ public class ShaderProgram implements Disposable {
 	/** Invalidates all shaders so the next time they are used new handles are generated
 	 * @param app */
 	public static void invalidateAllShaderPrograms (Application app) {
+		GLStateCache.invalidate();
 		if (Gdx.gl20 == null) return;
 
 		Array<ShaderProgram> shaderArray = shaders.get(app);
@@ -771,6 +862,7 @@ public class ShaderProgram implements Disposable {
 	}
 
 	public static void clearAllShaderPrograms (Application app) {
+		GLStateCache.invalidate();
 		shaders.remove(app);
 	}
 
@@ -72,6 +72,11 @@ import com.badlogic.gdx.utils.Disposable;
  * <p>
  * The projection and transformation matrices are a state of the ShapeRenderer, just like the color, and will be applied to all
  * shapes until they are changed.
+ * <p>
+ * Each change of the shape type renders the shapes drawn so far. When {@link #setTessellated(boolean) tessellated}, lines and
+ * points are drawn as triangles instead, so shapes of all types are rendered together and the shape type can be changed with
+ * {@link #set(ShapeType)} or {@link #setAutoShapeType(boolean) automatically} without rendering, unless the matrices were
+ * changed. The {@link #renderCalls} and {@link #shapeTypeFlushes} counters show how often shapes are rendered.
  * @author mzechner
  * @author stbachmann
  * @author Nathan Sweet */
@@ -92,7 +97,9 @@ public class ShapeRenderer implements Disposable {
 		}
 	}
 
-	private final ImmediateModeRenderer renderer;
+	private final ImmediateModeRenderer immediateRenderer;
+	private final TriangleRenderer triangleRenderer = new TriangleRenderer();
+	private ImmediateModeRenderer renderer;
 	private boolean matrixDirty = false;
 	private final Matrix4 projectionMatrix = new Matrix4();
 	private final Matrix4 transformMatrix = new Matrix4();
@@ -102,6 +109,13 @@ public class ShapeRenderer implements Disposable {
 	private ShapeType shapeType;
 	private boolean autoShapeType;
 	private float defaultRectLineWidth = 0.75f;
+	private float lineWidth = 1, pointSize = 1;
+
+	/** The number of times shapes were rendered, since this was last set to 0. */
+	public int renderCalls;
+	/** The number of times shapes were rendered because the shape type changed, since this was last set to 0. Always 0 when
+	 * {@link #setTessellated(boolean) tessellated}. */
+	public int shapeTypeFlushes;
 
 	public ShapeRenderer () {
 		this(5000);
@@ -113,10 +127,11 @@ public class ShapeRenderer implements Disposable {
 
 	public ShapeRenderer (int maxVertices, ShaderProgram defaultShader) {
 		if (defaultShader == null) {
-			renderer = new ImmediateModeRenderer20(maxVertices, false, true, 0);
+			immediateRenderer = new ImmediateModeRenderer20(maxVertices, false, true, 0);
 		} else {
-			renderer = new ImmediateModeRenderer20(maxVertices, false, true, 0, defaultShader);
+			immediateRenderer = new ImmediateModeRenderer20(maxVertices, false, true, 0, defaultShader);
 		}
+		renderer = immediateRenderer;
 		projectionMatrix.setToOrtho2D(0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
 		matrixDirty = true;
 	}
@@ -192,6 +207,40 @@ public class ShapeRenderer implements Disposable {
 		this.autoShapeType = autoShapeType;
 	}
 
+	/** If true, lines and points are drawn as triangles, so shapes of all types are rendered together and changing the shape type
+	 * doesn't render the shapes drawn so far. Lines are drawn as rectangles {@link #setLineWidth(float) lineWidth} wide in the xy
+	 * plane of the shapes, with square ends, so lines along the z axis are not visible. Points are drawn as squares
+	 * {@link #setPointSize(float) pointSize} wide. This is most useful for 2D shapes of mixed types, e.g. debug drawing. Default is
+	 * false.
+	 * @throws IllegalStateException if called between begin and end. */
+	public void setTessellated (boolean tessellated) {
+		if (shapeType != null) throw new IllegalStateException("Call end() before changing tessellation.");
+		renderer = tessellated ? triangleRenderer : immediateRenderer;
+	}
+
+	public boolean isTessellated () {
+		return renderer == triangleRenderer;
+	}
+
+	/** Sets the width of lines drawn when {@link #setTessellated(boolean) tessellated}, in the units of the shapes. Default is 1,
+	 * which is one pixel with the default projection matrix. */
+	public void setLineWidth (float lineWidth) {
+		this.lineWidth = lineWidth;
+	}
+
+	public float getLineWidth () {
+		return lineWidth;
+	}
+
+	/** Sets the size of points drawn when {@link #setTessellated(boolean) tessellated}, in the units of the shapes. Default is 1. */
+	public void setPointSize (float pointSize) {
+		this.pointSize = pointSize;
+	}
+
+	public float getPointSize () {
+		return pointSize;
+	}
+
 	/** Begins a new batch without specifying a shape type.
 	 * @throws IllegalStateException if {@link #autoShapeType} is false. */
 	public void begin () {
@@ -217,6 +266,17 @@ public class ShapeRenderer implements Disposable {
 		if (shapeType == type) return;
 		if (shapeType == null) throw new IllegalStateException("begin must be called first.");
 		if (!autoShapeType) throw new IllegalStateException("autoShapeType must be enabled.");
+		changeType(type);
+	}
+
+	private void changeType (ShapeType type) {
+		if (renderer == triangleRenderer && !matrixDirty) {
+			// All shape types are drawn as triangles, so the shapes drawn so far only need to be rendered if the matrix changed.
+			shapeType = type;
+			triangleRenderer.setPrimitiveType(type.getGlType());
+			return;
+		}
+		if (renderer != triangleRenderer) shapeTypeFlushes++;
 		end();
 		begin(type);
 	}
@@ -1177,8 +1237,7 @@ public class ShapeRenderer implements Disposable {
 				else
 					throw new IllegalStateException("Must call begin(ShapeType." + preferred + ") or begin(ShapeType." + other + ").");
 			}
-			end();
-			begin(preferred);
+			changeType(preferred);
 		} else if (matrixDirty) {
 			// Matrix has been changed.
 			ShapeType type = shapeType;
@@ -1194,6 +1253,7 @@ public class ShapeRenderer implements Disposable {
 
 	/** Finishes the batch of shapes and ensures they get rendered. */
 	public void end () {
+		if (renderer.getNumVertices() > 0) renderCalls++;
 		renderer.end();
 		shapeType = null;
 	}
@@ -1210,8 +1270,9 @@ public class ShapeRenderer implements Disposable {
 		return shapeType;
 	}
 
+	/** Returns the renderer the shapes are rendered with, also when {@link #setTessellated(boolean) tessellated}. */
 	public ImmediateModeRenderer getRenderer () {
-		return renderer;
+		return immediateRenderer;
 	}
 
 	/** @return true if currently between begin and end. */
@@ -1220,6 +1281,129 @@ public class ShapeRenderer implements Disposable {
 	}
 
 	public void dispose () {
-		renderer.dispose();
+		immediateRenderer.dispose();
+	}
+
+	/** Passes triangles to the {@link #immediateRenderer} and converts lines and points to triangles, rendering only when it is
+	 * full. */
+	private class TriangleRenderer implements ImmediateModeRenderer {
+		private int primitiveType;
+		private float colorBits = Color.WHITE_FLOAT_BITS;
+		private boolean lineStarted;
+		private float lineX, lineY, lineZ, lineColor;
+		private int triangleVertices;
+
+		public void begin (Matrix4 projModelView, int primitiveType) {
+			immediateRenderer.begin(projModelView, GL20.GL_TRIANGLES);
+			setPrimitiveType(primitiveType);
+		}
+
+		void setPrimitiveType (int primitiveType) {
+			this.primitiveType = primitiveType;
+			lineStarted = false;
+			triangleVertices = 0;
+		}
+
+		public void flush () {
+			if (immediateRenderer.getNumVertices() > 0) renderCalls++;
+			immediateRenderer.flush();
+		}
+
+		public void color (Color color) {
+			colorBits = color.toFloatBits();
+		}
+
+		public void color (float r, float g, float b, float a) {
+			colorBits = Color.toFloatBits(r, g, b, a);
+		}
+
+		public void color (float colorBits) {
+			this.colorBits = colorBits;
+		}
+
+		public void texCoord (float u, float v) {
+			immediateRenderer.texCoord(u, v);
+		}
+
+		public void normal (float x, float y, float z) {
+			immediateRenderer.normal(x, y, z);
+		}
+
+		public void vertex (float x, float y, float z) {
+			switch (primitiveType) {
+			case GL20.GL_LINES:
+				if (!lineStarted) {
+					lineX = x;
+					lineY = y;
+					lineZ = z;
+					lineColor = colorBits;
+					lineStarted = true;
+					return;
+				}
+				lineStarted = false;
+				line(lineX, lineY, lineZ, lineColor, x, y, z, colorBits);
+				break;
+			case GL20.GL_POINTS:
+				float half = pointSize * 0.5f, c = colorBits;
+				quad(x - half, y - half, z, c, x + half, y - half, z, c, x + half, y + half, z, c, x - half, y + half, z, c);
+				break;
+			default:
+				if (triangleVertices == 0) ensureSpace(3);
+				immediateRenderer.color(colorBits);
+				immediateRenderer.vertex(x, y, z);
+				triangleVertices = (triangleVertices + 1) % 3;
+			}
+		}
+
+		private void line (float x1, float y1, float z1, float c1, float x2, float y2, float z2, float c2) {
+			float dx = x2 - x1, dy = y2 - y1;
+			float length = (float)Math.sqrt(dx * dx + dy * dy);
+			if (length == 0) return;
+			// Half the line width along the line, to extend the ends, and across it.
+			float scale = lineWidth * 0.5f / length;
+			float ax = dx * scale, ay = dy * scale;
+			x1 -= ax;
+			y1 -= ay;
+			x2 += ax;
+			y2 += ay;
+			quad(x1 - ay, y1 + ax, z1, c1, x1 + ay, y1 - ax, z1, c1, x2 + ay, y2 - ax, z2, c2, x2 - ay, y2 + ax, z2, c2);
+		}
+
+		private void quad (float x1, float y1, float z1, float c1, float x2, float y2, float z2, float c2, float x3, float y3,
+			float z3, float c3, float x4, float y4, float z4, float c4) {
+			ensureSpace(6);
+			final ImmediateModeRenderer renderer = immediateRenderer;
+			renderer.color(c1);
+			renderer.vertex(x1, y1, z1);
+			renderer.color(c2);
+			renderer.vertex(x2, y2, z2);
+			renderer.color(c3);
+			renderer.vertex(x3, y3, z3);
+			renderer.color(c3);
+			renderer.vertex(x3, y3, z3);
+			renderer.color(c4);
+			renderer.vertex(x4, y4, z4);
+			renderer.color(c1);
+			renderer.vertex(x1, y1, z1);
+		}
+
+		private void ensureSpace (int vertices) {
+			if (immediateRenderer.getMaxVertices() - immediateRenderer.getNumVertices() < vertices) flush();
+		}
+
+		public void end () {
+			immediateRenderer.end();
+		}
+
+		public int getNumVertices () {
+			return immediateRenderer.getNumVertices();
+		}
+
+		public int getMaxVertices () {
+			return immediateRenderer.getMaxVertices();
+		}
+
+		public void dispose () {
+		}
 	}
 }
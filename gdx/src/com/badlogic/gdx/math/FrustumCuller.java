@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.math;
+
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.Bits;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+
+/** Tests many axis aligned boxes or spheres against a {@link Frustum} at once. The volumes are stored as a structure of arrays,
+ * one float array per component, for example the x coordinates of all box centers in one array. The volumes are processed in
+ * blocks, testing each plane against the whole block in a simple loop without branches, which the JIT compiler can turn into
+ * SIMD instructions. This is several times faster than calling {@link Frustum#boundsInFrustum(BoundingBox)} per object.
+ * <p>
+ * A volume is visible if it is at least partially inside the frustum, with the same result as
+ * {@link Frustum#boundsInFrustum(float, float, float, float, float, float)} and
+ * {@link Frustum#sphereInFrustum(float, float, float, float)}. Volumes with NaN coordinates are considered visible.
+ * <p>
+ * Instances keep scratch arrays as large as the largest {@code offset + count} used and must not be shared between threads. */
+public class FrustumCuller {
+	/** The number of volumes tested against all planes before moving on, small enough to keep the arrays in the cache. */
+	static private final int BLOCK_SIZE = 1024;
+
+	private final float[] planes = new float[6 * 4];
+	/** Indexed like the volumes, loops that mix indices are not vectorized. */
+	private float[] distances = new float[0], centerDistances = new float[0];
+
+	/** Tests boxes given by their centers and half sizes against the frustum. The visibility of box {@code i} is written to bit
+	 * {@code i} of {@code visible}, other bits are not changed.
+	 * @return the number of visible boxes. */
+	public int cullBoxes (Frustum frustum, float[] centerX, float[] centerY, float[] centerZ, float[] halfWidth,
+		float[] halfHeight, float[] halfDepth, int offset, int count, Bits visible) {
+		prepare(offset, count, centerX, centerY, centerZ, halfWidth, halfHeight, halfDepth);
+		setPlanes(frustum);
+		int visibleCount = 0;
+		for (int start = offset, end = offset + count; start < end; start += BLOCK_SIZE) {
+			int blockEnd = Math.min(start + BLOCK_SIZE, end);
+			boxDistances(centerX, centerY, centerZ, halfWidth, halfHeight, halfDepth, start, blockEnd);
+			visibleCount += setVisible(distances, start, blockEnd, visible);
+		}
+		return visibleCount;
+	}
+
+	/** Tests boxes given by their centers and half sizes against the frustum. The indices of the visible boxes are added to
+	 * {@code visible} in ascending order.
+	 * @return the number of visible boxes. */
+	public int cullBoxes (Frustum frustum, float[] centerX, float[] centerY, float[] centerZ, float[] halfWidth,
+		float[] halfHeight, float[] halfDepth, int offset, int count, IntArray visible) {
+		prepare(offset, count, centerX, centerY, centerZ, halfWidth, halfHeight, halfDepth);
+		setPlanes(frustum);
+		int oldSize = visible.size;
+		for (int start = offset, end = offset + count; start < end; start += BLOCK_SIZE) {
+			int blockEnd = Math.min(start + BLOCK_SIZE, end);
+			boxDistances(centerX, centerY, centerZ, halfWidth, halfHeight, halfDepth, start, blockEnd);
+			addVisible(distances, start, blockEnd, visible);
+		}
+		return visible.size - oldSize;
+	}
+
+	/** Tests spheres against the frustum. The visibility of sphere {@code i} is written to bit {@code i} of {@code visible},
+	 * other bits are not changed.
+	 * @return the number of visible spheres. */
+	public int cullSpheres (Frustum frustum, float[] centerX, float[] centerY, float[] centerZ, float[] radius, int offset,
+		int count, Bits visible) {
+		prepare(offset, count, centerX, centerY, centerZ, radius, radius, radius);
+		setPlanes(frustum);
+		int visibleCount = 0;
+		for (int start = offset, end = offset + count; start < end; start += BLOCK_SIZE) {
+			int blockEnd = Math.min(start + BLOCK_SIZE, end);
+			sphereDistances(centerX, centerY, centerZ, radius, start, blockEnd);
+			visibleCount += setVisible(distances, start, blockEnd, visible);
+		}
+		return visibleCount;
+	}
+
+	/** Tests spheres against the frustum. The indices of the visible spheres are added to {@code visible} in ascending order.
+	 * @return the number of visible spheres. */
+	public int cullSpheres (Frustum frustum, float[] centerX, float[] centerY, float[] centerZ, float[] radius, int offset,
+		int count, IntArray visible) {
+		prepare(offset, count, centerX, centerY, centerZ, radius, radius, radius);
+		setPlanes(frustum);
+		int oldSize = visible.size;
+		for (int start = offset, end = offset + count; start < end; start += BLOCK_SIZE) {
+			int blockEnd = Math.min(start + BLOCK_SIZE, end);
+			sphereDistances(centerX, centerY, centerZ, radius, start, blockEnd);
+			addVisible(distances, start, blockEnd, visible);
+		}
+		return visible.size - oldSize;
+	}
+
+	/** Stores the smallest signed distance of each box's nearest corner to a plane, negative if the box is behind any plane.
+	 * Instead of finding the corner nearest to each plane, the extents are projected onto the plane normal, which gives the same
+	 * result without branches. The center and the extents are done in separate loops, a single loop reading from all arrays is
+	 * not vectorized. */
+	private void boxDistances (float[] x, float[] y, float[] z, float[] hw, float[] hh, float[] hd, int start, int end) {
+		float[] planes = this.planes, distances = this.distances, centerDistances = this.centerDistances;
+		for (int i = start; i < end; i++)
+			distances[i] = Float.POSITIVE_INFINITY;
+		for (int p = 0; p < 24; p += 4) {
+			float nx = planes[p], ny = planes[p + 1], nz = planes[p + 2], d = planes[p + 3];
+			float ax = Math.abs(nx), ay = Math.abs(ny), az = Math.abs(nz);
+			for (int i = start; i < end; i++)
+				centerDistances[i] = nx * x[i] + ny * y[i] + nz * z[i] + d;
+			for (int i = start; i < end; i++)
+				distances[i] = Math.min(distances[i], centerDistances[i] + ax * hw[i] + ay * hh[i] + az * hd[i]);
+		}
+	}
+
+	/** Stores the smallest signed distance of each sphere's surface to a plane, negative if the sphere is behind any plane. */
+	private void sphereDistances (float[] x, float[] y, float[] z, float[] radius, int start, int end) {
+		float[] planes = this.planes, distances = this.distances;
+		for (int i = start; i < end; i++)
+			distances[i] = Float.POSITIVE_INFINITY;
+		for (int p = 0; p < 24; p += 4) {
+			float nx = planes[p], ny = planes[p + 1], nz = planes[p + 2], d = planes[p + 3];
+			for (int i = start; i < end; i++)
+				distances[i] = Math.min(distances[i], nx * x[i] + ny * y[i] + nz * z[i] + d + radius[i]);
+		}
+	}
+
+	static private int setVisible (float[] distances, int start, int end, Bits visible) {
+		int visibleCount = 0;
+		for (int i = start; i < end; i++) {
+			if (distances[i] < 0)
+				visible.clear(i);
+			else {
+				visible.set(i);
+				visibleCount++;
+			}
+		}
+		return visibleCount;
+	}
+
+	static private void addVisible (float[] distances, int start, int end, IntArray visible) {
+		int[] items = visible.ensureCapacity(end - start);
+		int size = visible.size;
+		for (int i = start; i < end; i++) {
+			items[size] = i;
+			// Always store, only advance for visible volumes.
+			if (!(distances[i] < 0)) size++;
+		}
+		visible.size = size;
+	}
+
+	private void setPlanes (Frustum frustum) {
+		float[] planes = this.planes;
+		for (int i = 0, p = 0; i < 6; i++, p += 4) {
+			Plane plane = frustum.planes[i];
+			planes[p] = plane.normal.x;
+			planes[p + 1] = plane.normal.y;
+			planes[p + 2] = plane.normal.z;
+			planes[p + 3] = plane.d;
+		}
+	}
+
+	/** Validates the arguments and grows the scratch arrays. */
+	private void prepare (int offset, int count, float[] a, float[] b, float[] c, float[] d, float[] e, float[] f) {
+		if (offset < 0) throw new GdxRuntimeException("offset must be >= 0: " + offset);
+		if (count < 0) throw new GdxRuntimeException("count must be >= 0: " + count);
+		int end = offset + count;
+		if (a.length < end || b.length < end || c.length < end || d.length < end || e.length < end || f.length < end)
+			throw new GdxRuntimeException("offset + count exceeds the array length: " + end);
+		if (distances.length < end) {
+			int capacity = Math.max(end, (int)(distances.length * 1.75f));
+			distances = new float[capacity];
+			centerDistances = new float[capacity];
+		}
+	}
+}
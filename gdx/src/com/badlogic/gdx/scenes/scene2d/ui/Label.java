@@ -21,6 +21,7 @@ import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.GlyphLayoutCache;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
 import com.badlogic.gdx.utils.Align;
@@ -37,6 +38,8 @@ public class Label extends Widget {
 
 	private LabelStyle style;
 	private final GlyphLayout layout = new GlyphLayout();
+	private GlyphLayout currentLayout = layout;
+	private @Null GlyphLayoutCache layoutCache;
 	private final Vector2 prefSize = new Vector2();
 	private final StringBuilder text = new StringBuilder();
 	private int intValue = Integer.MIN_VALUE;
@@ -159,8 +162,13 @@ public class Label extends Widget {
 				width = Math.max(width, style.background.getMinWidth()) - style.background.getLeftWidth()
 					- style.background.getRightWidth();
 			}
-			prefSizeLayout.setText(cache.getFont(), text, Color.WHITE, width, Align.left, true);
-		} else
+			if (layoutCache != null)
+				prefSizeLayout = layoutCache.get(cache.getFont(), text, Color.WHITE, width, Align.left, true);
+			else
+				prefSizeLayout.setText(cache.getFont(), text, Color.WHITE, width, Align.left, true);
+		} else if (layoutCache != null)
+			prefSizeLayout = layoutCache.get(cache.getFont(), text);
+		else
 			prefSizeLayout.setText(cache.getFont(), text);
 		prefSize.set(prefSizeLayout.width, prefSizeLayout.height);
 	}
@@ -194,7 +202,7 @@ public class Label extends Widget {
 		float textWidth, textHeight;
 		if (wrap || text.indexOf("\n") != -1) {
 			// If the text can span multiple lines, determine the text's actual size so it can be aligned within the label.
-			layout.setText(font, text, 0, text.length, Color.WHITE, width, lineAlign, wrap, ellipsis);
+			layout = layoutText(font, width, wrap);
 			textWidth = layout.width;
 			textHeight = layout.height;
 
@@ -220,12 +228,19 @@ public class Label extends Widget {
 		}
 		if (!cache.getFont().isFlipped()) y += textHeight;
 
-		layout.setText(font, text, 0, text.length, Color.WHITE, textWidth, lineAlign, wrap, ellipsis);
+		layout = layoutText(font, textWidth, wrap);
+		currentLayout = layout;
 		cache.setText(layout, x, y);
 
 		if (fontScaleChanged) font.getData().setScale(oldScaleX, oldScaleY);
 	}
 
+	private GlyphLayout layoutText (BitmapFont font, float width, boolean wrap) {
+		if (layoutCache != null) return layoutCache.get(font, text, 0, text.length, Color.WHITE, width, lineAlign, wrap, ellipsis);
+		layout.setText(font, text, 0, text.length, Color.WHITE, width, lineAlign, wrap, ellipsis);
+		return layout;
+	}
+
 	public void draw (Batch batch, float parentAlpha) {
 		validate();
 		Color color = tempColor.set(getColor());
@@ -261,8 +276,24 @@ public class Label extends Widget {
 		return height;
 	}
 
+	/** Returns the layout of the text. If a {@link #setLayoutCache(GlyphLayoutCache) layout cache} is set, the layout is shared and
+	 * must not be modified. */
 	public GlyphLayout getGlyphLayout () {
-		return layout;
+		return currentLayout;
+	}
+
+	/** Sets a cache to look up the layouts of the text, instead of computing them each time the label is laid out. This is useful
+	 * when many labels show the same text, or a label's text changes back and forth between a few values. A cache can be shared
+	 * by any number of labels.
+	 * @param layoutCache May be null to compute layouts each time. */
+	public void setLayoutCache (@Null GlyphLayoutCache layoutCache) {
+		this.layoutCache = layoutCache;
+		currentLayout = layout;
+		invalidateHierarchy();
+	}
+
+	public @Null GlyphLayoutCache getLayoutCache () {
+		return layoutCache;
 	}
 
 	/** If false, the text will only wrap where it contains newlines (\n). The preferred size of the label will be the text bounds.
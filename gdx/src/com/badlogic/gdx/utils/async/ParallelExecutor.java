@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.utils.async;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+
+/** Runs a number of tasks on the calling thread plus the threads of an {@link AsyncExecutor} and waits for all of them to
+ * finish. The first task runs on the calling thread, so a single thread performs the work without any worker threads.
+ * <p>
+ * Instances are not thread-safe, only a single {@link #run(int, Task)} can be in flight at a time. Must be disposed when no
+ * longer used. */
+public class ParallelExecutor implements Disposable {
+	private final String name;
+	private AsyncExecutor executor;
+	private int threads = 1;
+	private final Array<IndexedTask> tasks = new Array<IndexedTask>();
+	private final Array<AsyncResult<Void>> results = new Array<AsyncResult<Void>>();
+
+	/** Creates an executor which runs all tasks on the calling thread until {@link #setThreads(int)} is called.
+	 * @param name The name of the worker threads. */
+	public ParallelExecutor (String name) {
+		this.name = name;
+	}
+
+	/** @param name The name of the worker threads.
+	 * @param threads the number of threads running tasks, including the calling thread. */
+	public ParallelExecutor (String name, int threads) {
+		this.name = name;
+		setThreads(threads);
+	}
+
+	/** Sets the number of threads running tasks, including the calling thread. Must not be called while tasks are running.
+	 * @param threads 1 to run all tasks on the calling thread. */
+	public void setThreads (int threads) {
+		if (threads < 1) throw new IllegalArgumentException("threads must be >= 1: " + threads);
+		if (threads == this.threads) return;
+		if (executor != null) executor.dispose();
+		executor = threads > 1 ? new AsyncExecutor(threads - 1, name) : null;
+		this.threads = threads;
+	}
+
+	/** @return the number of threads running tasks, including the calling thread. */
+	public int getThreads () {
+		return threads;
+	}
+
+	/** @return the executor of the worker threads, or null if all tasks run on the calling thread. */
+	public AsyncExecutor getExecutor () {
+		return executor;
+	}
+
+	/** Runs the task for the indices [0, count). Index 0 runs on the calling thread, the other indices run on the worker threads
+	 * or, if there are none, on the calling thread. Returns once all indices have finished, even if one of them failed. An
+	 * exception thrown on the calling thread takes precedence, otherwise the first exception thrown by a worker is rethrown. */
+	public void run (int count, Task task) {
+		if (count <= 0) return;
+		AsyncExecutor executor = this.executor;
+		if (executor == null || count == 1) {
+			for (int i = 0; i < count; i++)
+				task.run(i);
+			return;
+		}
+		Array<IndexedTask> tasks = this.tasks;
+		Array<AsyncResult<Void>> results = this.results;
+		boolean completed = false;
+		try {
+			for (int i = 1; i < count; i++) {
+				if (tasks.size < i) tasks.add(new IndexedTask());
+				IndexedTask indexed = tasks.get(i - 1);
+				indexed.task = task;
+				indexed.index = i;
+				results.add(executor.submit(indexed));
+			}
+			task.run(0);
+			completed = true;
+		} finally {
+			RuntimeException exception = null;
+			for (int i = 0, n = results.size; i < n; i++) {
+				try {
+					results.get(i).get();
+				} catch (RuntimeException ex) {
+					if (exception == null) exception = ex;
+				}
+			}
+			results.clear();
+			for (int i = 0, n = tasks.size; i < n; i++)
+				tasks.get(i).task = null;
+			if (exception != null && completed) throw exception;
+		}
+	}
+
+	/** Waits for running tasks to finish, then destroys the worker threads. The executor runs all tasks on the calling thread
+	 * afterwards. */
+	public void dispose () {
+		if (executor != null) executor.dispose();
+		executor = null;
+		threads = 1;
+	}
+
+	/** A task which is run for a range of indices by {@link ParallelExecutor#run(int, Task)}. */
+	static public interface Task {
+		/** Called once for each index, possibly concurrently from different threads. */
+		public void run (int index);
+	}
+
+	static private class IndexedTask implements AsyncTask<Void> {
+		Task task;
+		int index;
+
+		public Void call () {
+			task.run(index);
+			return null;
+		}
+	}
+}
@@ -22,4 +22,9 @@ public class ThreadUtils {
 	public static void yield () {
 		Thread.yield();
 	}
+
+	/** @return the number of processors available to the JVM, at least 1. */
+	public static int availableProcessors () {
+		return Math.max(1, Runtime.getRuntime().availableProcessors());
+	}
 }
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.utils.compression;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/** Compressor and decompressor for the LZ4 block format. Compression uses a greedy single hash table match finder, trading ratio
+ * for speed. Decompression is very fast, making this suited for data that is compressed once and read often, such as caches.
+ * <p>
+ * The data written is a raw LZ4 block without any framing, the caller must store the uncompressed length. */
+public class Lz4 {
+	static private final int MIN_MATCH = 4;
+	static private final int HASH_LOG = 14;
+	static private final int ML_BITS = 4, ML_MASK = (1 << ML_BITS) - 1, RUN_MASK = (1 << (8 - ML_BITS)) - 1;
+	static private final int LAST_LITERALS = 5, MF_LIMIT = 12, MAX_DISTANCE = 65535;
+
+	/** @return the maximum number of bytes {@link #compress(byte[], int, int, byte[], int)} writes for the given input length. */
+	static public int maxCompressedLength (int length) {
+		return length + length / 255 + 16;
+	}
+
+	/** Compresses the input and writes it to the output, which must have at least {@link #maxCompressedLength(int)} bytes
+	 * remaining.
+	 * @return the number of bytes written to the output. */
+	static public int compress (byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset) {
+		int srcEnd = srcOffset + srcLength;
+		int anchor = srcOffset, d = dstOffset;
+		if (srcLength > MF_LIMIT) {
+			// Positions are stored relative to srcOffset + 1, so 0 means empty.
+			int[] table = new int[1 << HASH_LOG];
+			int mfLimit = srcEnd - MF_LIMIT, matchLimit = srcEnd - LAST_LITERALS;
+			int s = srcOffset;
+			while (s < mfLimit) {
+				int sequence = readInt(src, s);
+				int hash = (sequence * -1640531535) >>> (32 - HASH_LOG);
+				int ref = table[hash] - 1 + srcOffset;
+				table[hash] = s - srcOffset + 1;
+				if (ref < srcOffset || s - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+					// Skip ahead faster the longer no match was found, to quickly get through incompressible data.
+					s += 1 + ((s - anchor) >>> 6);
+					continue;
+				}
+				while (s > anchor && ref > srcOffset && src[s - 1] == src[ref - 1]) {
+					s--;
+					ref--;
+				}
+				int matchLength = MIN_MATCH;
+				while (s + matchLength < matchLimit && src[s + matchLength] == src[ref + matchLength])
+					matchLength++;
+
+				int tokenIndex = d++;
+				int literals = s - anchor;
+				int token;
+				if (literals >= RUN_MASK) {
+					token = RUN_MASK << ML_BITS;
+					d = writeLength(literals - RUN_MASK, dst, d);
+				} else
+					token = literals << ML_BITS;
+				System.arraycopy(src, anchor, dst, d, literals);
+				d += literals;
+				int offset = s - ref;
+				dst[d++] = (byte)offset;
+				dst[d++] = (byte)(offset >>> 8);
+				int length = matchLength - MIN_MATCH;
+				if (length >= ML_MASK) {
+					token |= ML_MASK;
+					d = writeLength(length - ML_MASK, dst, d);
+				} else
+					token |= length;
+				dst[tokenIndex] = (byte)token;
+
+				s += matchLength;
+				anchor = s;
+			}
+		}
+
+		int literals = srcEnd - anchor;
+		if (literals >= RUN_MASK) {
+			dst[d++] = (byte)(RUN_MASK << ML_BITS);
+			d = writeLength(literals - RUN_MASK, dst, d);
+		} else
+			dst[d++] = (byte)(literals << ML_BITS);
+		System.arraycopy(src, anchor, dst, d, literals);
+		d += literals;
+		return d - dstOffset;
+	}
+
+	/** Decompresses a block written by {@link #compress(byte[], int, int, byte[], int)}.
+	 * @param srcLength the length of the compressed block.
+	 * @param dstLength the uncompressed length, the output must have at least this many bytes remaining.
+	 * @throws GdxRuntimeException if the data is malformed or does not decompress to exactly dstLength bytes. */
+	static public void decompress (byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset, int dstLength) {
+		int s = srcOffset, srcEnd = srcOffset + srcLength;
+		int d = dstOffset, dstEnd = dstOffset + dstLength;
+		try {
+			while (true) {
+				int token = src[s++] & 0xff;
+				int literals = token >>> ML_BITS;
+				if (literals == RUN_MASK) {
+					int b;
+					do {
+						b = src[s++] & 0xff;
+						literals += b;
+					} while (b == 255);
+				}
+				if (literals > dstEnd - d || literals > srcEnd - s) throw new GdxRuntimeException("Malformed LZ4 data.");
+				System.arraycopy(src, s, dst, d, literals);
+				s += literals;
+				d += literals;
+				if (s == srcEnd) break;
+
+				int offset = (src[s++] & 0xff) | ((src[s++] & 0xff) << 8);
+				int length = token & ML_MASK;
+				if (length == ML_MASK) {
+					int b;
+					do {
+						b = src[s++] & 0xff;
+						length += b;
+					} while (b == 255);
+				}
+				length += MIN_MATCH;
+				int ref = d - offset;
+				if (offset == 0 || ref < dstOffset || length > dstEnd - d) throw new GdxRuntimeException("Malformed LZ4 data.");
+				if (offset >= length)
+					System.arraycopy(dst, ref, dst, d, length);
+				else {
+					for (int i = 0; i < length; i++)
+						dst[d + i] = dst[ref + i];
+				}
+				d += length;
+			}
+		} catch (ArrayIndexOutOfBoundsException ex) {
+			throw new GdxRuntimeException("Malformed LZ4 data.", ex);
+		}
+		if (d != dstEnd) throw new GdxRuntimeException("LZ4 data decompressed to " + (d - dstOffset) + " bytes, expected: " + dstLength);
+	}
+
+	static private int writeLength (int length, byte[] dst, int d) {
+		while (length >= 255) {
+			dst[d++] = (byte)255;
+			length -= 255;
+		}
+		dst[d++] = (byte)length;
+		return d;
+	}
+
+	static private int readInt (byte[] bytes, int offset) {
+		return (bytes[offset] & 0xff) | ((bytes[offset + 1] & 0xff) << 8) | ((bytes[offset + 2] & 0xff) << 16)
+			| ((bytes[offset + 3] & 0xff) << 24);
+	}
+}
@@ -0,0 +1,172 @@
+
+package com.badlogic.gdx.graphics;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.PixmapIO.PNG;
+import com.badlogic.gdx.graphics.PixmapIO.PNG.RowFilter;
+import com.badlogic.gdx.graphics.g2d.Gdx2DPixmap;
+
+public class PixmapIOTest {
+	static private final int IDAT = 0x49444154;
+
+	@Test
+	public void testPNGThreads () throws Exception {
+		// 1200 bytes per row, so the image is compressed in blocks of 109 rows when using multiple threads.
+		Pixmap pixmap = pixmap(300, 500);
+		PNG png = new PNG();
+		for (RowFilter filter : RowFilter.values()) {
+			png.setFilter(filter);
+			for (int threads = 1; threads <= 4; threads++) {
+				png.setThreads(threads);
+				for (int maxChunkSize : new int[] {0, 1000, 64 * 1024}) {
+					png.setMaxChunkSize(maxChunkSize);
+					String message = filter + ", " + threads + " threads, " + maxChunkSize + " max chunk size";
+					int chunks = assertDecodes(message, png, pixmap, true);
+					if (maxChunkSize == 0) assertEquals(message, 1, chunks);
+					if (maxChunkSize == 1000) assertTrue(message, chunks > 1);
+				}
+			}
+		}
+		png.dispose();
+	}
+
+	@Test
+	public void testPNGSmall () throws Exception {
+		PNG png = new PNG();
+		png.setThreads(3);
+		for (int height = 1; height <= 3; height++)
+			assertDecodes("height " + height, png, pixmap(7, height), true);
+		png.setFlipY(false);
+		assertDecodes("not flipped", png, pixmap(5, 300), false);
+		png.dispose();
+	}
+
+	@Test
+	public void testAdler32Combine () {
+		byte[] bytes = new byte[10000];
+		new Random(1).nextBytes(bytes);
+		Adler32 all = new Adler32(), first = new Adler32(), second = new Adler32();
+		all.update(bytes);
+		for (int split : new int[] {0, 1, 5552, 9999, 10000}) {
+			first.reset();
+			second.reset();
+			first.update(bytes, 0, split);
+			second.update(bytes, split, bytes.length - split);
+			assertEquals(all.getValue(), PNG.adler32Combine(first.getValue(), second.getValue(), bytes.length - split));
+		}
+	}
+
+	/** @return an RGBA8888 pixmap backed by a Java buffer, with gradients that compress well and some noise. */
+	static Pixmap pixmap (int width, int height) {
+		ByteBuffer pixels = ByteBuffer.allocateDirect(width * height * 4);
+		Random random = new Random(width * 31 + height);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				pixels.put((byte)x);
+				pixels.put((byte)y);
+				pixels.put((byte)(random.nextInt(8) + x + y));
+				pixels.put((byte)(x % 17 == 0 ? random.nextInt() : 255));
+			}
+		}
+		pixels.clear();
+		return new Pixmap(new Gdx2DPixmap(pixels, new long[] {0, width, height, Gdx2DPixmap.GDX2D_FORMAT_RGBA8888}));
+	}
+
+	/** Decodes the PNG written by the encoder, asserting that it has the pixels of the pixmap and a valid checksum.
+	 * @param flipY whether the encoder flips the image vertically.
+	 * @return the number of IDAT chunks. */
+	static private int assertDecodes (String message, PNG png, Pixmap pixmap, boolean flipY)
+		throws IOException, DataFormatException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		png.write(output, pixmap);
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(output.toByteArray()));
+		input.skipBytes(8); // Signature.
+
+		ByteArrayOutputStream zlib = new ByteArrayOutputStream();
+		int chunks = 0;
+		while (input.available() > 0) {
+			int length = input.readInt();
+			byte[] chunk = new byte[length + 4];
+			input.readFully(chunk);
+			CRC32 crc = new CRC32();
+			crc.update(chunk);
+			assertEquals(message, (int)crc.getValue(), input.readInt());
+			int type = ((chunk[0] & 0xff) << 24) | ((chunk[1] & 0xff) << 16) | ((chunk[2] & 0xff) << 8) | (chunk[3] & 0xff);
+			if (type == IDAT) {
+				zlib.write(chunk, 4, length);
+				chunks++;
+			}
+		}
+
+		int width = pixmap.getWidth(), height = pixmap.getHeight(), lineLen = width * 4;
+		byte[] compressed = zlib.toByteArray();
+		byte[] data = new byte[height * (lineLen + 1)];
+		Inflater inflater = new Inflater();
+		inflater.setInput(compressed);
+		assertEquals(message, data.length, inflater.inflate(data));
+		assertTrue(message, inflater.finished());
+		assertEquals(message, 0, inflater.getRemaining());
+		inflater.end();
+		Adler32 adler = new Adler32();
+		adler.update(data);
+		int trailer = ((compressed[compressed.length - 4] & 0xff) << 24) | ((compressed[compressed.length - 3] & 0xff) << 16)
+			| ((compressed[compressed.length - 2] & 0xff) << 8) | (compressed[compressed.length - 1] & 0xff);
+		assertEquals(message, (int)adler.getValue(), trailer);
+
+		ByteBuffer pixels = pixmap.getPixels();
+		byte[] prevLine = new byte[lineLen], curLine = new byte[lineLen];
+		for (int y = 0; y < height; y++) {
+			unfilter(data, y * (lineLen + 1), curLine, prevLine);
+			int row = flipY ? height - y - 1 : y;
+			for (int i = 0; i < lineLen; i++)
+				if (curLine[i] != pixels.get(row * lineLen + i)) fail(message + ": pixel " + i / 4 + ", " + row + " differs");
+			byte[] temp = curLine;
+			curLine = prevLine;
+			prevLine = temp;
+		}
+		return chunks;
+	}
+
+	static private void unfilter (byte[] data, int offset, byte[] line, byte[] prevLine) {
+		int type = data[offset++];
+		for (int i = 0, n = line.length; i < n; i++) {
+			int a = i >= 4 ? line[i - 4] & 0xff : 0, b = prevLine[i] & 0xff, c = i >= 4 ? prevLine[i - 4] & 0xff : 0;
+			int predictor;
+			switch (type) {
+			case 0:
+				predictor = 0;
+				break;
+			case 1:
+				predictor = a;
+				break;
+			case 2:
+				predictor = b;
+				break;
+			case 3:
+				predictor = (a + b) >>> 1;
+				break;
+			case 4:
+				int p = a + b - c, pa = Math.abs(p - a), pb = Math.abs(p - b), pc = Math.abs(p - c);
+				predictor = pa <= pb && pa <= pc ? a : pb <= pc ? b : c;
+				break;
+			default:
+				throw new IllegalStateException("Invalid filter type: " + type);
+			}
+			line[i] = (byte)(data[offset + i] + predictor);
+		}
+	}
+}
@@ -0,0 +1,117 @@
+
+package com.badlogic.gdx.graphics.g2d;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool.PooledEffect;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+
+public class ArrayParticleEmitterTest {
+	@Test
+	public void testSameParticles () {
+		ParticleEmitter emitter = createEmitter(new ParticleEmitter());
+		ParticleEmitter arrayEmitter = createEmitter(new ArrayParticleEmitter());
+		MathUtils.random.setSeed(1);
+		emitter.start();
+		MathUtils.random.setSeed(1);
+		arrayEmitter.start();
+
+		for (int i = 0; i < 200; i++) {
+			if (i == 50) {
+				emitter.setPosition(20, 10);
+				arrayEmitter.setPosition(20, 10);
+			}
+			MathUtils.random.setSeed(i);
+			ArrayList<String> expected = draw(emitter, i % 2 == 0);
+			MathUtils.random.setSeed(i);
+			ArrayList<String> actual = draw(arrayEmitter, i % 2 == 0);
+			assertEquals(emitter.getActiveCount(), arrayEmitter.getActiveCount());
+			// Removing particles changes the drawing order, so only the set of drawn particles is compared.
+			assertEquals(expected, actual);
+		}
+		assertTrue(arrayEmitter.getActiveCount() > 0);
+	}
+
+	@Test
+	public void testPool () {
+		ParticleEffect effect = new ArrayParticleEffect();
+		effect.getEmitters().add(createEmitter(new ArrayParticleEmitter()));
+		ParticleEffectPool pool = new ParticleEffectPool(effect, 1, 2);
+		PooledEffect pooled = pool.obtain();
+		assertTrue(pooled.getEmitters().first() instanceof ArrayParticleEmitter);
+		pooled.update(0.1f);
+		assertTrue(pooled.getEmitters().first().getActiveCount() > 0);
+		pooled.free();
+		assertEquals(0, pool.obtain().getEmitters().first().getActiveCount());
+	}
+
+	private static ParticleEmitter createEmitter (ParticleEmitter emitter) {
+		emitter.setMaxParticleCount(100);
+		emitter.setContinuous(true);
+		emitter.setAttached(true);
+		emitter.getDuration().setLow(1000);
+		emitter.getEmission().setHigh(150);
+		emitter.getLife().setHigh(400, 800);
+		emitter.getXScale().setHigh(4, 12);
+		emitter.getXScale().setTimeline(new float[] {0, 1});
+		emitter.getXScale().setScaling(new float[] {1, 0.5f});
+		emitter.getVelocity().setActive(true);
+		emitter.getVelocity().setHigh(50, 100);
+		emitter.getAngle().setActive(true);
+		emitter.getAngle().setHigh(0, 360);
+		emitter.getRotation().setActive(true);
+		emitter.getRotation().setHigh(0, 180);
+		emitter.getRotation().setTimeline(new float[] {0, 1});
+		emitter.getRotation().setScaling(new float[] {0, 1});
+		emitter.getGravity().setActive(true);
+		emitter.getGravity().setHigh(-20);
+		emitter.getTransparency().setHigh(1);
+		emitter.getTransparency().setTimeline(new float[] {0, 1});
+		emitter.getTransparency().setScaling(new float[] {1, 0});
+		emitter.getSpawnShape().setShape(ParticleEmitter.SpawnShape.ellipse);
+		emitter.getSpawnWidth().setHigh(10);
+		emitter.getSpawnHeight().setHigh(10);
+		Sprite sprite = new Sprite();
+		sprite.setSize(8, 8);
+		sprite.setOrigin(4, 4);
+		emitter.setSprites(Array.with(sprite));
+		return emitter;
+	}
+
+	/** Updates and draws the emitter and returns the vertices of the drawn sprites, sorted. */
+	private static ArrayList<String> draw (ParticleEmitter emitter, boolean combined) {
+		final ArrayList<String> sprites = new ArrayList<String>();
+		Batch batch = (Batch)Proxy.newProxyInstance(Batch.class.getClassLoader(), new Class[] {Batch.class},
+			new InvocationHandler() {
+				@Override
+				public Object invoke (Object proxy, Method method, Object[] args) {
+					if (method.getName().equals("draw") && args.length == 4 && args[1] instanceof float[]) {
+						float[] vertices = (float[])args[1];
+						int offset = (Integer)args[2], count = (Integer)args[3];
+						for (int i = offset; i < offset + count; i += 20)
+							sprites.add(Arrays.toString(Arrays.copyOfRange(vertices, i, i + 20)));
+					}
+					return null;
+				}
+			});
+		if (combined)
+			emitter.draw(batch, 0.016f);
+		else {
+			emitter.update(0.016f);
+			emitter.draw(batch);
+		}
+		Collections.sort(sprites);
+		return sprites;
+	}
+}
@@ -0,0 +1,131 @@
+
+package com.badlogic.gdx.graphics.g2d;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.BitmapFontData;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.Glyph;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.Array;
+
+public class GlyphLayoutCacheTest {
+	@Test
+	public void testHitsAndMisses () {
+		BitmapFont font = font();
+		GlyphLayoutCache cache = new GlyphLayoutCache(10);
+		GlyphLayout layout = cache.get(font, "abc");
+		assertEquals(30, layout.width, 0);
+		assertSame(layout, cache.get(font, "abc"));
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+
+		// The text is compared by its characters, so mutable text can be passed and changed afterwards.
+		StringBuilder builder = new StringBuilder("xabcx");
+		assertSame(layout, cache.get(font, builder, 1, 4, font.getColor(), 0, Align.left, false, null));
+		builder.setLength(0);
+		builder.append("ab");
+		GlyphLayout ab = cache.get(font, builder);
+		assertEquals(20, ab.width, 0);
+		builder.append('c');
+		assertSame(layout, cache.get(font, builder));
+		assertSame(ab, cache.get(font, "ab"));
+
+		// Every other parameter is part of the key.
+		assertNotSame(layout, cache.get(font, "abc", Color.RED, 0, Align.left, false));
+		assertNotSame(layout, cache.get(font, "abc", font.getColor(), 100, Align.left, false));
+		assertNotSame(layout, cache.get(font, "abc", font.getColor(), 0, Align.right, false));
+		assertNotSame(layout, cache.get(font, "abc", font.getColor(), 0, Align.left, true));
+		assertNotSame(layout, cache.get(font, "abc", 0, 3, font.getColor(), 15, Align.left, false, "."));
+		assertNotSame(layout, cache.get(font(), "abc"));
+		assertEquals(8, cache.getMisses());
+		assertEquals(4, cache.getHits());
+		assertEquals(1 / 3f, cache.getHitRate(), 0);
+		assertEquals(8, cache.size());
+
+		cache.resetCounters();
+		assertEquals(0, cache.getHits());
+		assertEquals(0, cache.getMisses());
+		assertEquals(0, cache.getHitRate(), 0);
+	}
+
+	@Test
+	public void testEviction () {
+		BitmapFont font = font();
+		GlyphLayoutCache cache = new GlyphLayoutCache(2);
+		GlyphLayout a = cache.get(font, "a"), b = cache.get(font, "b");
+		assertSame(a, cache.get(font, "a")); // Now the most recently used.
+		GlyphLayout c = cache.get(font, "c");
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictions());
+		assertSame(a, cache.get(font, "a"));
+		assertSame(c, cache.get(font, "c"));
+		GlyphLayout b2 = cache.get(font, "b");
+		assertNotSame(b, b2);
+		// The evicted layout stays valid for anyone still referencing it.
+		assertEquals(10, b.width, 0);
+		assertEquals(2, cache.getEvictions());
+
+		cache.setMaxSize(1);
+		assertEquals(1, cache.size());
+		assertEquals(3, cache.getEvictions());
+		assertSame(b2, cache.get(font, "b"));
+		assertEquals(4, cache.getMisses());
+	}
+
+	@Test
+	public void testFontChanges () {
+		BitmapFont font = font(), other = font();
+		GlyphLayoutCache cache = new GlyphLayoutCache(10);
+		GlyphLayout layout = cache.get(font, "ab");
+
+		font.getData().setScale(2);
+		GlyphLayout scaled = cache.get(font, "ab");
+		assertNotSame(layout, scaled);
+		assertEquals(40, scaled.width, 0);
+		font.getData().setScale(1);
+		assertSame(layout, cache.get(font, "ab"));
+
+		font.getData().markupEnabled = true;
+		assertNotSame(layout, cache.get(font, "ab"));
+		font.getData().markupEnabled = false;
+		assertSame(layout, cache.get(font, "ab"));
+
+		GlyphLayout otherLayout = cache.get(other, "ab");
+		cache.clear(font);
+		assertEquals(1, cache.size());
+		assertSame(otherLayout, cache.get(other, "ab"));
+		assertNotSame(layout, cache.get(font, "ab"));
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertNotSame(otherLayout, cache.get(other, "ab"));
+	}
+
+	/** @return a font with glyphs for a to z, each 10 pixels wide. The glyphs have no texture region. */
+	static BitmapFont font () {
+		BitmapFontData data = new BitmapFontData();
+		for (char ch = 'a'; ch <= 'z'; ch++) {
+			Glyph glyph = new Glyph();
+			glyph.id = ch;
+			glyph.width = 10;
+			glyph.height = 10;
+			glyph.xadvance = 10;
+			data.setGlyph(ch, glyph);
+		}
+		Glyph period = new Glyph();
+		period.id = '.';
+		period.width = 5;
+		period.xadvance = 5;
+		data.setGlyph('.', period);
+		data.lineHeight = 12;
+		data.spaceXadvance = 5;
+		return new BitmapFont(data, new Array<TextureRegion>(new TextureRegion[] {new TextureRegion()}), false) {
+			@Override
+			protected void load (BitmapFontData data) {
+			}
+		};
+	}
+}
@@ -0,0 +1,122 @@
+
+package com.badlogic.gdx.graphics.g2d;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.ParticleEmitter.SpawnEllipseSide;
+import com.badlogic.gdx.graphics.g2d.ParticleEmitter.SpawnShape;
+import com.badlogic.gdx.graphics.g2d.ParticleEmitter.SpriteMode;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.StreamUtils;
+
+public class ParticleEffectBinaryTest {
+	@Test
+	public void testRoundTrip () throws IOException {
+		ParticleEffect effect = new ParticleEffect();
+		effect.getEmitters().add(createEmitter("fire", SpawnShape.ellipse));
+		effect.getEmitters().add(createEmitter("smoke", SpawnShape.square));
+		String text = toText(effect);
+
+		FileHandle textFile = tempFile();
+		FileHandle binaryFile = tempFile();
+		try {
+			textFile.writeString(text, false);
+			OutputStream output = binaryFile.write(false);
+			try {
+				effect.saveBinary(output);
+			} finally {
+				StreamUtils.closeQuietly(output);
+			}
+			assertTrue(binaryFile.length() < textFile.length() / 3);
+
+			// Both formats are recognized by loadEmitters.
+			ParticleEffect fromText = new ParticleEffect();
+			fromText.loadEmitters(textFile);
+			assertEquals(text, toText(fromText));
+			ParticleEffect fromBinary = new ParticleEffect();
+			fromBinary.loadEmitters(binaryFile);
+			assertEquals(text, toText(fromBinary));
+
+			// Each file is opened only once.
+			for (FileHandle file : new FileHandle[] {textFile, binaryFile}) {
+				CountingFileHandle counting = new CountingFileHandle(file.file());
+				new ParticleEffect().loadEmitters(counting);
+				assertEquals(1, counting.reads);
+			}
+
+			ParticleEffect arrayEffect = new ArrayParticleEffect();
+			arrayEffect.loadEmitters(binaryFile);
+			assertTrue(arrayEffect.getEmitters().first() instanceof ArrayParticleEmitter);
+			assertEquals(text, toText(arrayEffect));
+		} finally {
+			textFile.delete();
+			binaryFile.delete();
+		}
+	}
+
+	private static ParticleEmitter createEmitter (String name, SpawnShape shape) {
+		ParticleEmitter emitter = new ParticleEmitter();
+		emitter.setName(name);
+		emitter.setMinParticleCount(3);
+		emitter.setMaxParticleCount(120);
+		emitter.setContinuous(true);
+		emitter.setAdditive(true);
+		emitter.setSpriteMode(SpriteMode.random);
+		emitter.getDelay().setActive(true);
+		emitter.getDelay().setLow(0.1f, 250.5f);
+		emitter.getDuration().setLow(1000);
+		emitter.getEmission().setHigh(150, 175.25f);
+		emitter.getEmission().setTimeline(new float[] {0, 0.3f, 1});
+		emitter.getEmission().setScaling(new float[] {1, 0.75f, 0.1f});
+		emitter.getLife().setHigh(400, 800);
+		((ParticleEmitter.IndependentScaledNumericValue)emitter.getLife()).setIndependent(true);
+		emitter.getSpawnShape().setShape(shape);
+		emitter.getSpawnShape().setEdges(true);
+		emitter.getSpawnShape().setSide(SpawnEllipseSide.top);
+		emitter.getSpawnWidth().setHigh(32);
+		emitter.getVelocity().setActive(true);
+		emitter.getVelocity().setHigh(50, 100);
+		emitter.getVelocity().setRelative(true);
+		emitter.getTint().setColors(new float[] {1, 0.5f, 0.25f, 0, 0.125f, 1});
+		emitter.getTint().setTimeline(new float[] {0, 1});
+		emitter.getTransparency().setHigh(1);
+		Array<String> imagePaths = new Array<String>();
+		imagePaths.add("particle.png");
+		imagePaths.add("images/spark.png");
+		emitter.setImagePaths(imagePaths);
+		return emitter;
+	}
+
+	private static String toText (ParticleEffect effect) throws IOException {
+		StringWriter writer = new StringWriter();
+		effect.save(writer);
+		return writer.toString();
+	}
+
+	private static FileHandle tempFile () throws IOException {
+		return new FileHandle(File.createTempFile("effect", ".p"));
+	}
+
+	static class CountingFileHandle extends FileHandle {
+		int reads;
+
+		CountingFileHandle (File file) {
+			super(file);
+		}
+
+		public InputStream read () {
+			reads++;
+			return super.read();
+		}
+	}
+}
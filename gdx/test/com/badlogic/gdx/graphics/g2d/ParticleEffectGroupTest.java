@@ -0,0 +1,91 @@
+
+package com.badlogic.gdx.graphics.g2d;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool.PooledEffect;
+import com.badlogic.gdx.utils.Array;
+
+public class ParticleEffectGroupTest {
+	@Test
+	public void testUpdate () {
+		ParticleEffectPool pool = new ParticleEffectPool(createEffect(false), 0, 100);
+		ParticleEffectGroup group = new ParticleEffectGroup();
+		group.setThreads(3);
+		group.minEffectsPerThread = 1;
+		try {
+			for (int i = 0; i < 20; i++)
+				group.add(pool.obtain());
+			group.update(0.1f);
+			assertEquals(20, group.getEffects().size);
+			assertEquals(20, group.emitterCount);
+			assertTrue(group.particleCount > 0);
+
+			// The effects last 500 ms and their particles at most 300 ms.
+			for (int i = 0; i < 10; i++)
+				group.update(0.1f);
+			assertEquals(0, group.getEffects().size);
+			assertEquals(20, pool.getFree());
+			assertEquals(0, group.particleCount);
+		} finally {
+			group.dispose();
+		}
+	}
+
+	@Test
+	public void testDrawSorted () {
+		ParticleEffectGroup group = new ParticleEffectGroup();
+		for (int i = 0; i < 4; i++) {
+			ParticleEffect effect = createEffect(i % 2 == 0);
+			effect.start();
+			group.add(effect);
+		}
+		group.update(0.1f);
+
+		final ArrayList<Integer> blendFunctions = new ArrayList<Integer>();
+		Batch batch = (Batch)Proxy.newProxyInstance(Batch.class.getClassLoader(), new Class[] {Batch.class},
+			new InvocationHandler() {
+				@Override
+				public Object invoke (Object proxy, Method method, Object[] args) {
+					if (method.getName().equals("setBlendFunction")) {
+						int dst = (Integer)args[1];
+						if (blendFunctions.isEmpty() || blendFunctions.get(blendFunctions.size() - 1) != dst) blendFunctions.add(dst);
+					}
+					return null;
+				}
+			});
+		group.draw(batch);
+		// The normal emitters are drawn first, then the additive ones, then the blend function is cleaned up.
+		assertEquals(3, blendFunctions.size());
+		assertEquals(GL20.GL_ONE_MINUS_SRC_ALPHA, (int)blendFunctions.get(0));
+		assertEquals(GL20.GL_ONE, (int)blendFunctions.get(1));
+		assertEquals(GL20.GL_ONE_MINUS_SRC_ALPHA, (int)blendFunctions.get(2));
+		assertTrue(group.getEffects().first().getEmitters().first().cleansUpBlendFunction());
+	}
+
+	private static ParticleEffect createEffect (boolean additive) {
+		ParticleEmitter emitter = new ParticleEmitter();
+		emitter.setMaxParticleCount(50);
+		emitter.setAdditive(additive);
+		emitter.getDuration().setLow(500);
+		emitter.getEmission().setHigh(100);
+		emitter.getLife().setHigh(300);
+		emitter.getXScale().setHigh(4);
+		emitter.getTransparency().setHigh(1);
+		Sprite sprite = new Sprite();
+		sprite.setSize(8, 8);
+		emitter.setSprites(Array.with(sprite));
+		ParticleEffect effect = new ParticleEffect();
+		effect.getEmitters().add(emitter);
+		return effect;
+	}
+}
@@ -0,0 +1,77 @@
+
+package com.badlogic.gdx.graphics.g3d;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+
+public class ChunkedModelCacheTest {
+	@Test
+	public void testChunks () {
+		for (int i = 0; i < 2; i++) {
+			boolean async = i == 1;
+			ChunkedModelCache cache = new ChunkedModelCache(10, async);
+			Provider a = new Provider(5, 5, 5), b = new Provider(7, 1, 9), c = new Provider(-3, 0, 0);
+			cache.add(a);
+			cache.add(b);
+			cache.add(c);
+			assertEquals(2, cache.getChunkCount());
+			assertTrue(cache.isUpdating());
+			cache.finishUpdate();
+			assertFalse(cache.isUpdating());
+
+			Array<Renderable> renderables = new Array<Renderable>();
+			cache.getRenderables(renderables, null);
+			assertEquals(3, renderables.size);
+			assertEquals(2, cache.getVisibleChunkCount());
+
+			// Moving a provider to another chunk leaves an empty chunk, which is removed after updating.
+			c.position.set(15, 0, 0);
+			cache.invalidate(c);
+			assertEquals(3, cache.getChunkCount());
+			cache.finishUpdate();
+			assertEquals(2, cache.getChunkCount());
+
+			assertTrue(cache.remove(a));
+			assertFalse(cache.remove(a));
+			cache.finishUpdate();
+			renderables.clear();
+			cache.getRenderables(renderables, null);
+			assertEquals(2, renderables.size);
+			assertEquals(2, cache.getChunkCount());
+			cache.dispose();
+		}
+	}
+
+	@Test
+	public void testKey () {
+		assertTrue(ChunkedModelCache.key(0, 0, 0) != ChunkedModelCache.key(-1, 0, 0));
+		assertTrue(ChunkedModelCache.key(1, 2, 3) != ChunkedModelCache.key(3, 2, 1));
+		assertTrue(ChunkedModelCache.key(0, -1, 0) != ChunkedModelCache.key(0, 0, -1));
+		assertEquals(-1, new ChunkedModelCache(10).coordinate(-0.5f));
+	}
+
+	/** Provides a single skinned renderable, which the cache adds as-is and therefore doesn't need a mesh. */
+	static class Provider implements RenderableProvider {
+		final Vector3 position = new Vector3();
+
+		Provider (float x, float y, float z) {
+			position.set(x, y, z);
+		}
+
+		@Override
+		public void getRenderables (Array<Renderable> renderables, Pool<Renderable> pool) {
+			Renderable renderable = pool.obtain();
+			renderable.bones = new Matrix4[0];
+			renderable.worldTransform.setToTranslation(position);
+			renderables.add(renderable);
+		}
+	}
+}
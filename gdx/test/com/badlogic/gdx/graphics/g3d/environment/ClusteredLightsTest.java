@@ -0,0 +1,123 @@
+
+package com.badlogic.gdx.graphics.g3d.environment;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+
+public class ClusteredLightsTest {
+	@Test
+	public void testAssign () {
+		PerspectiveCamera camera = camera();
+		ClusteredLights clusters = new ClusteredLights(16, 9, 24, 16, 8);
+		clusters.threshold = 0.25f;
+		Array<PointLight> points = new Array<PointLight>();
+		points.add(new PointLight().set(Color.WHITE, 0, 0, -12, 1));
+		// Behind the camera.
+		points.add(new PointLight().set(Color.WHITE, 0, 0, 12, 1));
+		// Too dark to light anything.
+		points.add(new PointLight().set(Color.WHITE, 0, 0, -12, 0.2f));
+		Array<SpotLight> spots = new Array<SpotLight>();
+		spots.add(new SpotLight().set(Color.WHITE, new Vector3(0, 0, -12), new Vector3(0, 0, -1), 1, 30, 1));
+		clusters.assign(camera, points, spots);
+
+		assertEquals(2, clusters.lightCount);
+		assertEquals(0, clusters.droppedLights);
+		assertEquals(0, clusters.overflowCount);
+		// The lights are centered on screen at a depth of 12, in slice log(12) / log(100) * 24.
+		int cluster = clusters.getCluster(8, 4, 12);
+		assertEquals(2, clusters.getLightCount(cluster));
+		assertEquals(0, clusters.getLight(cluster, 0));
+		assertEquals(1, clusters.getLight(cluster, 1));
+		assertEquals(0, clusters.getLightCount(clusters.getCluster(0, 0, 12)));
+		assertEquals(0, clusters.getLightCount(clusters.getCluster(8, 4, 0)));
+		assertEquals(0, clusters.getLightCount(clusters.getCluster(8, 4, 23)));
+		int assignments = 0;
+		for (int i = 0; i < 16 * 9 * 24; i++)
+			assignments += clusters.getLightCount(i);
+		assertEquals(assignments, clusters.assignmentCount);
+	}
+
+	@Test
+	public void testLimits () {
+		PerspectiveCamera camera = camera();
+		ClusteredLights clusters = new ClusteredLights(16, 9, 24, 3, 2);
+		Array<PointLight> points = new Array<PointLight>();
+		for (int i = 0; i < 4; i++)
+			points.add(new PointLight().set(Color.WHITE, i * 0.1f, 0, -12, 1));
+		clusters.assign(camera, points, null);
+		assertEquals(3, clusters.lightCount);
+		assertEquals(1, clusters.droppedLights);
+		assertTrue(clusters.overflowCount > 0);
+		assertEquals(2, clusters.getLightCount(clusters.getCluster(8, 4, 12)));
+	}
+
+	@Test
+	public void testLitPoints () {
+		PerspectiveCamera camera = camera();
+		ClusteredLights clusters = new ClusteredLights(16, 9, 24, 256, 256);
+		clusters.threshold = 0.05f;
+		Array<PointLight> points = new Array<PointLight>();
+		MathUtils.random.setSeed(0);
+		for (int i = 0; i < 200; i++)
+			points.add(new PointLight().set(Color.WHITE, MathUtils.random(-40f, 40f), MathUtils.random(-20f, 20f),
+				MathUtils.random(-90f, 5f), MathUtils.random(0.1f, 2f)));
+		clusters.assign(camera, points, null);
+		assertEquals(0, clusters.overflowCount);
+		assertTrue(clusters.assignmentCount > 0);
+		int[] counts = new int[16 * 9 * 24];
+		for (int i = 0; i < counts.length; i++)
+			counts[i] = clusters.getLightCount(i);
+
+		// Each point in view within the range of a light is in a cluster of the light, found as the shader does.
+		Vector3 point = new Vector3(), ndc = new Vector3();
+		for (int i = 0; i < 20000; i++) {
+			point.set(MathUtils.random(-1f, 1f), MathUtils.random(-1f, 1f), MathUtils.random(-1f, 1f));
+			float depth = camera.near * (float)Math.pow(camera.far / camera.near, MathUtils.random());
+			point.set(point.x * depth, point.y * depth * 0.5f, -depth);
+			ndc.set(point).prj(camera.projection);
+			if (Math.abs(ndc.x) >= 1 || Math.abs(ndc.y) >= 1) continue;
+			int tileX = (int)((ndc.x * 0.5f + 0.5f) * 16), tileY = (int)((ndc.y * 0.5f + 0.5f) * 9);
+			int slice = Math.min(23, (int)(Math.log(depth) * clusters.getDepthScale() + clusters.getDepthBias()));
+			int cluster = clusters.getCluster(tileX, tileY, slice);
+			for (int l = 0, index = 0; l < points.size; l++) {
+				PointLight light = points.get(l);
+				float range2 = light.intensity / clusters.threshold - 1;
+				if (range2 <= 0 || light.position.z - Math.sqrt(range2) > -camera.near) continue;
+				if (point.dst2(light.position) < range2) assertTrue(contains(clusters, cluster, index));
+				index++;
+			}
+		}
+
+		// The same clusters on multiple threads.
+		clusters.setThreads(4);
+		clusters.minSlicesPerThread = 1;
+		clusters.assign(camera, points, null);
+		for (int i = 0; i < counts.length; i++)
+			assertEquals(counts[i], clusters.getLightCount(i));
+		clusters.dispose();
+	}
+
+	private static boolean contains (ClusteredLights clusters, int cluster, int light) {
+		for (int i = 0, n = clusters.getLightCount(cluster); i < n; i++)
+			if (clusters.getLight(cluster, i) == light) return true;
+		return false;
+	}
+
+	/** @return a camera at the origin looking along -z, with a 16:9 aspect ratio. */
+	private static PerspectiveCamera camera () {
+		PerspectiveCamera camera = new PerspectiveCamera();
+		camera.fieldOfView = 67;
+		camera.near = 1;
+		camera.far = 100;
+		camera.projection.setToProjection(camera.near, camera.far, camera.fieldOfView, 16 / 9f);
+		camera.view.setToLookAt(camera.direction, camera.up);
+		return camera;
+	}
+}
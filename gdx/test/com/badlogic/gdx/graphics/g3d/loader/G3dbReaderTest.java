@@ -0,0 +1,130 @@
+
+package com.badlogic.gdx.graphics.g3d.loader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter.OutputType;
+import com.badlogic.gdx.utils.UBJsonReader;
+
+public class G3dbReaderTest {
+	@Test
+	public void testNumberArrays () throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte('{');
+		string(out, "vertices");
+		out.writeByte('[');
+		for (int i = 0; i < 10; i++) {
+			out.writeByte('d');
+			out.writeFloat(i * 0.5f);
+		}
+		out.writeByte('i');
+		out.writeShort(-3);
+		out.writeByte('D');
+		out.writeDouble(2.25);
+		out.writeByte(']');
+		string(out, "indices");
+		out.writeByte('[');
+		out.writeByte('#');
+		out.writeByte('i');
+		out.writeByte(3);
+		out.writeByte('i');
+		out.writeShort(1);
+		out.writeByte('U');
+		out.writeByte(200);
+		out.writeByte('I');
+		out.writeInt(40000);
+		string(out, "typed");
+		out.writeByte('{');
+		string(out, "vertices");
+		out.writeByte('[');
+		out.writeByte('$');
+		out.writeByte('d');
+		out.writeByte('#');
+		out.writeByte('i');
+		out.writeByte(3);
+		out.writeFloat(1);
+		out.writeFloat(-2);
+		out.writeFloat(3.5f);
+		string(out, "indices");
+		out.writeByte('[');
+		out.writeByte('$');
+		out.writeByte('l');
+		out.writeByte('#');
+		out.writeByte('i');
+		out.writeByte(2);
+		out.writeInt(5);
+		out.writeInt(60000);
+		string(out, "id");
+		string(out, "mesh");
+		out.writeByte('}');
+		out.writeByte('}');
+		byte[] data = bytes.toByteArray();
+
+		JsonValue expected = new UBJsonReader().parse(new ByteArrayInputStream(data));
+		JsonValue actual = new G3dbReader().parse(new ByteArrayInputStream(data));
+		assertArrayEquals(expected.get("vertices").asFloatArray(), actual.get("vertices").asFloatArray(), 0);
+		assertEquals(12, actual.get("vertices").size);
+		assertTrue(Arrays.equals(expected.get("indices").asShortArray(), actual.get("indices").asShortArray()));
+		assertArrayEquals(expected.get("typed").get("vertices").asFloatArray(), actual.get("typed").get("vertices").asFloatArray(),
+			0);
+		assertTrue(Arrays.equals(expected.get("typed").get("indices").asShortArray(),
+			actual.get("typed").get("indices").asShortArray()));
+		assertEquals("mesh", actual.get("typed").getString("id"));
+
+		// The position of the buffer is not changed.
+		ByteBuffer buffer = ByteBuffer.allocate(data.length + 2);
+		buffer.put((byte)0).put(data).position(1);
+		actual = new G3dbReader().parse(buffer);
+		assertEquals(1, buffer.position());
+		assertTrue(Arrays.equals(expected.get("indices").asShortArray(), actual.get("indices").asShortArray()));
+	}
+
+	@Test
+	public void testOtherArrays () throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte('{');
+		string(out, "vertices");
+		out.writeByte('[');
+		out.writeByte('d');
+		out.writeFloat(1);
+		string(out, "text");
+		out.writeByte(']');
+		string(out, "nodes");
+		out.writeByte('[');
+		out.writeByte('{');
+		string(out, "indices");
+		out.writeByte('[');
+		out.writeByte('[');
+		out.writeByte(']');
+		out.writeByte(']');
+		out.writeByte('}');
+		out.writeByte(']');
+		out.writeByte('}');
+		byte[] data = bytes.toByteArray();
+
+		// Arrays that do not only contain numbers are read like UBJsonReader does.
+		JsonValue expected = new UBJsonReader().parse(new ByteArrayInputStream(data));
+		JsonValue actual = new G3dbReader().parse(new ByteArrayInputStream(data));
+		assertEquals(expected.toJson(OutputType.json), actual.toJson(OutputType.json));
+	}
+
+	static void string (DataOutputStream out, String value) throws IOException {
+		out.writeByte('s');
+		out.writeByte(value.length());
+		out.writeBytes(value);
+	}
+}
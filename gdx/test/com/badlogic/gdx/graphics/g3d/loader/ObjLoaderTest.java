@@ -0,0 +1,88 @@
+
+package com.badlogic.gdx.graphics.g3d.loader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g3d.model.data.ModelData;
+import com.badlogic.gdx.graphics.g3d.model.data.ModelMesh;
+
+public class ObjLoaderTest {
+	static final String OBJ = "# quad split over two groups\n" //
+		+ "v 0 0 0\n" //
+		+ "v 1.5 0 0\r\n" //
+		+ "v 1 1 -2.25e-1\n" //
+		+ "v 0 1 0.1234567\n" //
+		+ "  v 9 9 9\n" //
+		+ "vt 0 0.25\n" //
+		+ "vt 1 0\n" //
+		+ "vt 1 1\n" //
+		+ "g first\n" //
+		+ "usemtl mat.a\n" //
+		+ "f 1/1 2/2 3/3 4/1\n" //
+		+ "g second\n" //
+		+ "f -4 -3 -2\n" //
+		+ "g first\n" //
+		+ "f 3/3 4/1 1/1\n";
+
+	@Test
+	public void testLoad () throws IOException {
+		FileHandle file = write(OBJ);
+		for (int threads = 1; threads <= 4; threads++) {
+			ObjLoader loader = new ObjLoader(null, threads);
+			loader.minBytesPerThread = 16;
+			ModelData data = loader.loadModelData(file, new ObjLoader.ObjLoaderParameters(true));
+			assertEquals(2, data.meshes.size);
+			assertEquals("first", data.nodes.get(0).id);
+			assertEquals("mat_a", data.nodes.get(0).parts[0].materialId);
+			assertEquals("default", data.nodes.get(1).parts[0].materialId);
+
+			// Corners with the same position and texture coordinates share a vertex.
+			ModelMesh first = data.meshes.get(0);
+			assertEquals(4 * 5, first.vertices.length);
+			assertArrayEquals(new short[] {0, 1, 2, 0, 2, 3, 2, 3, 0}, first.parts[0].indices);
+			assertArrayEquals(new float[] {0, 0, 0, 0, 0.75f}, copy(first.vertices, 0, 5), 0);
+			assertArrayEquals(new float[] {0, 1, 0.1234567f, 0, 0.75f}, copy(first.vertices, 15, 5), 0);
+
+			// Negative indices are relative to the vertices defined so far, the indented vertex is ignored.
+			ModelMesh second = data.meshes.get(1);
+			assertArrayEquals(new float[] {0, 0, 0, 1.5f, 0, 0, 1, 1, -2.25e-1f}, second.vertices, 0);
+			assertArrayEquals(new short[] {0, 1, 2}, second.parts[0].indices);
+		}
+		file.delete();
+	}
+
+	@Test
+	public void testWeld () {
+		int[] faces = {1, 0, 2, 0, 1, 0, 1, 1, 2, 0};
+		int[] cornerIndices = new int[5], firstCorners = new int[5];
+		assertEquals(3, ObjLoader.weld(faces, 2, 5, cornerIndices, firstCorners));
+		assertArrayEquals(new int[] {0, 1, 0, 2, 1}, cornerIndices);
+		assertArrayEquals(new int[] {0, 1, 3}, copy(firstCorners, 3));
+	}
+
+	static FileHandle write (String text) throws IOException {
+		File file = File.createTempFile("ObjLoaderTest", ".obj");
+		FileHandle handle = new FileHandle(file);
+		handle.writeString(text, false, "UTF-8");
+		return handle;
+	}
+
+	static float[] copy (float[] values, int offset, int count) {
+		float[] result = new float[count];
+		System.arraycopy(values, offset, result, 0, count);
+		return result;
+	}
+
+	static int[] copy (int[] values, int count) {
+		int[] result = new int[count];
+		System.arraycopy(values, 0, result, 0, count);
+		return result;
+	}
+}
@@ -0,0 +1,97 @@
+
+package com.badlogic.gdx.graphics.g3d.model;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.math.Vector3;
+
+public class LodGroupTest {
+	@Test
+	public void testGetLevel () {
+		LodGroup lod = new LodGroup(part(0, 300)).add(part(0, 100), 0.5f).add(part(0, 30), 0.1f);
+		lod.hysteresis = 0;
+		assertEquals(3, lod.size());
+		assertEquals(0, lod.getLevel(Float.POSITIVE_INFINITY, 0));
+		assertEquals(0, lod.getLevel(0.6f, 0));
+		assertEquals(1, lod.getLevel(0.4f, 0));
+		assertEquals(2, lod.getLevel(0.05f, 0));
+		assertEquals(2, lod.getLevel(0, 1));
+	}
+
+	@Test
+	public void testHysteresis () {
+		LodGroup lod = new LodGroup(part(0, 300)).add(part(0, 100), 0.5f);
+		lod.hysteresis = 0.2f;
+		// Switching to the less detailed level waits until the size drops below 0.4.
+		assertEquals(0, lod.getLevel(0.45f, 0));
+		assertEquals(1, lod.getLevel(0.35f, 0));
+		// Switching back happens as soon as the size is above 0.5.
+		assertEquals(1, lod.getLevel(0.45f, 1));
+		assertEquals(0, lod.getLevel(0.55f, 1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIncreasingScreenSize () {
+		new LodGroup(part(0, 300)).add(part(0, 100), 0.5f).add(part(0, 30), 0.6f);
+	}
+
+	@Test
+	public void testSelectLod () {
+		Model model = new Model();
+		Node node = new Node();
+		MeshPart detailed = part(0, 300);
+		NodePart nodePart = new NodePart(detailed, new Material());
+		nodePart.lod = new LodGroup(detailed).add(part(300, 100), 0.5f).add(part(400, 30), 0.1f);
+		nodePart.lod.hysteresis = 0;
+		node.parts.add(nodePart);
+		model.nodes.add(node);
+		ModelInstance instance = new ModelInstance(model);
+
+		// A camera at the origin looking along -z with a vertical field of view of 90 degrees, so a sphere with radius 1 at
+		// distance d has a screen size of 1 / d.
+		PerspectiveCamera camera = new PerspectiveCamera();
+		camera.projection.setToProjection(0.5f, 1000, 90, 1);
+		camera.view.setToLookAt(new Vector3(0, 0, -1), new Vector3(0, 1, 0));
+		camera.combined.set(camera.projection).mul(camera.view);
+
+		NodePart instancePart = instance.nodes.first().parts.first();
+		instance.transform.setToTranslation(0, 0, -1);
+		assertEquals(0, instance.selectLod(camera));
+		assertEquals(0, instancePart.meshPart.offset);
+		instance.transform.setToTranslation(0, 0, -4);
+		assertEquals(1, instance.selectLod(camera));
+		assertEquals(1, instancePart.lodLevel);
+		assertEquals(300, instancePart.meshPart.offset);
+		assertEquals(100, instancePart.meshPart.size);
+		instance.transform.setToTranslation(0, 0, -20);
+		instance.selectLod(camera);
+		assertEquals(400, instancePart.meshPart.offset);
+		// Scaling the instance makes it larger on screen.
+		instance.transform.scale(5, 5, 5);
+		instance.selectLod(camera);
+		assertEquals(1, instancePart.lodLevel);
+		// Behind the camera the most detailed level is kept.
+		instance.transform.setToTranslation(0, 0, 20);
+		instance.selectLod(camera);
+		assertEquals(0, instancePart.lodLevel);
+		// The model itself is not changed.
+		assertEquals(0, detailed.offset);
+		assertEquals(300, detailed.size);
+	}
+
+	private static MeshPart part (int offset, int size) {
+		MeshPart part = new MeshPart();
+		part.offset = offset;
+		part.size = size;
+		part.primitiveType = GL20.GL_TRIANGLES;
+		part.radius = 1;
+		return part;
+	}
+}
@@ -0,0 +1,87 @@
+
+package com.badlogic.gdx.graphics.g3d.particles;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.g3d.particles.ParallelArray.ChannelDescriptor;
+import com.badlogic.gdx.graphics.g3d.particles.ParallelArray.FloatChannel;
+import com.badlogic.gdx.graphics.g3d.particles.emitters.RegularEmitter;
+import com.badlogic.gdx.graphics.g3d.particles.influencers.DynamicsInfluencer;
+import com.badlogic.gdx.graphics.g3d.particles.influencers.DynamicsModifier;
+import com.badlogic.gdx.graphics.g3d.particles.influencers.DynamicsModifier.Angular;
+import com.badlogic.gdx.graphics.g3d.particles.influencers.SpawnInfluencer;
+import com.badlogic.gdx.graphics.g3d.particles.renderers.PointSpriteRenderer;
+import com.badlogic.gdx.graphics.g3d.particles.values.PointSpawnShapeValue;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+
+public class ParticleSystemTest {
+	@Test
+	public void testThreads () {
+		ParticleSystem single = new ParticleSystem();
+		ParticleSystem threaded = new ParticleSystem();
+		threaded.setThreads(3);
+		threaded.minControllersPerThread = 2;
+		Array<ParticleEffect> singleEffects = new Array<ParticleEffect>(), threadedEffects = new Array<ParticleEffect>();
+		try {
+			for (ParticleSystem system : new ParticleSystem[] {single, threaded}) {
+				for (int i = 0; i < 10; i++) {
+					ParticleEffect effect = new ParticleEffect(controller(i), controller(i + 0.5f));
+					effect.init();
+					effect.start();
+					effect.translate(new Vector3(i, 0, -i));
+					system.add(effect);
+					(system == single ? singleEffects : threadedEffects).add(effect);
+				}
+				for (int frame = 0; frame < 30; frame++)
+					system.update(1 / 60f);
+			}
+
+			// Without shared state, each controller is updated the same on any thread.
+			for (int e = 0; e < 10; e++) {
+				for (int c = 0; c < 2; c++) {
+					ParticleController expected = singleEffects.get(e).getControllers().get(c);
+					ParticleController actual = threadedEffects.get(e).getControllers().get(c);
+					assertTrue(expected.particles.size > 0);
+					assertEquals(expected.particles.size, actual.particles.size);
+					for (ChannelDescriptor descriptor : new ChannelDescriptor[] {ParticleChannels.Position, ParticleChannels.Rotation3D,
+						ParticleChannels.Acceleration}) {
+						FloatChannel expectedChannel = expected.particles.getChannel(descriptor);
+						FloatChannel actualChannel = actual.particles.getChannel(descriptor);
+						assertArrayEquals(expectedChannel.data, actualChannel.data, 0);
+					}
+				}
+			}
+		} finally {
+			threaded.dispose();
+		}
+	}
+
+	static private ParticleController controller (float offset) {
+		RegularEmitter emitter = new RegularEmitter();
+		emitter.getDuration().setLow(3000);
+		emitter.getEmission().setHigh(60000);
+		emitter.getLife().setHigh(1000);
+		emitter.setMaxParticleCount(1000);
+
+		PointSpawnShapeValue spawnShape = new PointSpawnShapeValue();
+		spawnShape.xOffsetValue.setLow(offset);
+		spawnShape.xOffsetValue.setActive(true);
+
+		DynamicsModifier.PolarAcceleration polar = angular(new DynamicsModifier.PolarAcceleration(), offset * 10);
+		DynamicsModifier.TangentialAcceleration tangential = angular(new DynamicsModifier.TangentialAcceleration(), 45);
+		DynamicsModifier.Rotational3D rotational = angular(new DynamicsModifier.Rotational3D(), 30);
+		DynamicsInfluencer dynamics = new DynamicsInfluencer(polar, tangential, rotational, new DynamicsModifier.FaceDirection());
+		return new ParticleController("controller", emitter, new PointSpriteRenderer(), new SpawnInfluencer(spawnShape), dynamics);
+	}
+
+	static private <T extends Angular> T angular (T modifier, float angle) {
+		modifier.strengthValue.setHigh(5);
+		modifier.strengthValue.setLow(5);
+		modifier.thetaValue.setHigh(angle);
+		modifier.phiValue.setHigh(angle + 30);
+		return modifier;
+	}
+}
@@ -1,5 +1,7 @@
 package com.badlogic.gdx.graphics.g3d.utils;
 
+import java.util.Random;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -7,9 +9,18 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.g3d.Model;
 import com.badlogic.gdx.graphics.g3d.ModelInstance;
 import com.badlogic.gdx.graphics.g3d.model.Animation;
+import com.badlogic.gdx.graphics.g3d.model.BakedAnimation;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.model.NodeAnimation;
 import com.badlogic.gdx.graphics.g3d.model.NodeKeyframe;
 import com.badlogic.gdx.graphics.g3d.utils.AnimationController.AnimationDesc;
+import com.badlogic.gdx.graphics.g3d.utils.BaseAnimationController.Transform;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Quaternion;
+import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.Pool;
 
 public class AnimationControllerTest {
 
@@ -90,4 +101,129 @@ public class AnimationControllerTest {
 		animationController.update(0.2f);
 		assertSameAnimation(loop, animationController.current);
 	}
+
+	@Test
+	public void testGetFirstKeyframeIndexAtTimeWithHint () {
+		Array<NodeKeyframe<String>> keyFrames = new Array<NodeKeyframe<String>>();
+		for (int i = 0; i < 20; i++)
+			keyFrames.add(new NodeKeyframe<String>(i * 0.5f, "" + i));
+		for (int hint = -1; hint <= keyFrames.size; hint++) {
+			for (float time = -1; time < 11; time += 0.1f) {
+				int expected = BaseAnimationController.getFirstKeyframeIndexAtTime(keyFrames, time);
+				int actual = BaseAnimationController.getFirstKeyframeIndexAtTime(keyFrames, time, hint);
+				NodeKeyframe<String> key = keyFrames.get(actual);
+				if (expected != actual) {
+					// At a keytime either of the two adjacent keyframes is correct.
+					Assert.assertTrue(time >= key.keytime && time <= keyFrames.get(actual + 1).keytime);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testApplyAnimationMatchesStatic () {
+		Model model = createModel(new Random(5));
+		ModelInstance expected = new ModelInstance(model), actual = new ModelInstance(model);
+		BaseAnimationController controller = new BaseAnimationController(actual);
+		float[] times = {0, 0.01f, 0.02f, 0.5f, 0.51f, 1.9f, 2f, 0.05f, 1.2f, 0.3f, -1f, 3f, 0.7f};
+		for (float time : times) {
+			BaseAnimationController.applyAnimation(null, null, 1, expected.animations.get(0), time);
+			controller.applyAnimation(actual.animations.get(0), time);
+			assertSameLocalTransforms(expected, actual, 0.0001f);
+		}
+	}
+
+	@Test
+	public void testBlendMatchesStatic () {
+		Model model = createModel(new Random(9));
+		ModelInstance expected = new ModelInstance(model), actual = new ModelInstance(model);
+		BaseAnimationController controller = new BaseAnimationController(actual);
+		ObjectMap<Node, Transform> transforms = new ObjectMap<Node, Transform>();
+		Pool<Transform> pool = new Pool<Transform>() {
+			@Override
+			protected Transform newObject () {
+				return new Transform();
+			}
+		};
+		for (float time = 0; time < 2; time += 0.13f) {
+			float weight = time / 2;
+			BaseAnimationController.applyAnimation(transforms, pool, 1, expected.animations.get(0), time);
+			BaseAnimationController.applyAnimation(transforms, pool, weight, expected.animations.get(1), 2 - time);
+			for (ObjectMap.Entry<Node, Transform> entry : transforms.entries())
+				entry.value.toMatrix4(entry.key.localTransform);
+			transforms.clear();
+
+			controller.begin();
+			controller.apply(actual.animations.get(0), time, 1);
+			controller.apply(actual.animations.get(1), 2 - time, weight);
+			controller.end();
+			assertSameLocalTransforms(expected, actual, 0.0001f);
+		}
+	}
+
+	@Test
+	public void testBakedAnimation () {
+		Model model = createModel(new Random(13));
+		ModelInstance expected = new ModelInstance(model), actual = new ModelInstance(model);
+		BaseAnimationController controller = new BaseAnimationController(actual);
+		BakedAnimation baked = new BakedAnimation(model.animations.get(0), 480);
+		Assert.assertEquals((int)Math.ceil(model.animations.get(0).duration * 480) + 1, baked.sampleCount);
+		controller.addBakedAnimation(baked);
+		for (float time = 0; time <= 2; time += 0.037f) {
+			BaseAnimationController.applyAnimation(null, null, 1, expected.animations.get(0), time);
+			controller.applyAnimation(actual.animations.get(0), time);
+			assertSameLocalTransforms(expected, actual, 0.01f);
+		}
+		Assert.assertSame(baked, controller.removeBakedAnimation(baked.id));
+	}
+
+	/** Creates a model with a chain of nodes and two animations with random keyframes from time zero to the duration. */
+	private static Model createModel (Random random) {
+		Model model = new Model();
+		Node parent = null;
+		for (int i = 0; i < 5; i++) {
+			Node node = new Node();
+			node.id = "node" + i;
+			node.translation.set(i, 0, 0);
+			if (parent == null)
+				model.nodes.add(node);
+			else
+				parent.addChild(node);
+			parent = node;
+		}
+		for (int a = 0; a < 2; a++) {
+			Animation animation = new Animation();
+			animation.id = "animation" + a;
+			animation.duration = 2;
+			for (int i = a; i < 5; i++) {
+				NodeAnimation nodeAnimation = new NodeAnimation();
+				nodeAnimation.node = model.getNode("node" + i);
+				nodeAnimation.translation = new Array<NodeKeyframe<Vector3>>();
+				nodeAnimation.rotation = new Array<NodeKeyframe<Quaternion>>();
+				if (i % 2 == 0) nodeAnimation.scaling = new Array<NodeKeyframe<Vector3>>();
+				// Keyframe rotations are far enough apart that Quaternion#slerp doesn't fall back to a linear interpolation.
+				Vector3 axis = new Vector3(random.nextFloat(), random.nextFloat(), 1).nor();
+				float angle = 0;
+				for (float time = 0; time <= 2; time = time < 2 ? Math.min(time + 0.1f + random.nextFloat() * 0.2f, 2) : 3) {
+					angle += 60 + random.nextFloat() * 20;
+					nodeAnimation.translation.add(new NodeKeyframe<Vector3>(time,
+						new Vector3(random.nextFloat(), random.nextFloat(), random.nextFloat())));
+					nodeAnimation.rotation.add(new NodeKeyframe<Quaternion>(time, new Quaternion(axis, angle)));
+					if (nodeAnimation.scaling != null) nodeAnimation.scaling.add(new NodeKeyframe<Vector3>(time,
+						new Vector3(1 + random.nextFloat(), 1 + random.nextFloat(), 1 + random.nextFloat())));
+				}
+				animation.nodeAnimations.add(nodeAnimation);
+			}
+			model.animations.add(animation);
+		}
+		return model;
+	}
+
+	private static void assertSameLocalTransforms (ModelInstance expected, ModelInstance actual, float epsilon) {
+		for (int i = 0; i < 5; i++) {
+			Matrix4 e = expected.getNode("node" + i).localTransform, a = actual.getNode("node" + i).localTransform;
+			for (int j = 0; j < 16; j++)
+				Assert.assertEquals("node" + i + " [" + j + "]", e.val[j], a.val[j], epsilon);
+		}
+	}
 }
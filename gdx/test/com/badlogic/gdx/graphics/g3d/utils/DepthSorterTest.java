@@ -0,0 +1,68 @@
+
+package com.badlogic.gdx.graphics.g3d.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class DepthSorterTest {
+	@Test
+	public void testSort () {
+		Random random = new Random(42);
+		float[] depths = new float[10000];
+		for (int i = 0; i < depths.length; i++)
+			depths[i] = random.nextFloat() * 2000 - 1000;
+		DepthSorter sorter = new DepthSorter();
+		sorter.keyBits = 24;
+		int[] order = sorter.sort(depths, depths.length);
+		assertSorted(depths, order, depths.length);
+
+		// Equal depths keep their order.
+		float[] equal = {3, 1, 3, 1, 3};
+		order = sorter.sort(equal, equal.length);
+		int[] expected = {1, 3, 0, 2, 4};
+		for (int i = 0; i < expected.length; i++)
+			assertEquals(expected[i], order[i]);
+
+		order = sorter.sort(new float[] {5, 5, 5}, 3);
+		for (int i = 0; i < 3; i++)
+			assertEquals(i, order[i]);
+	}
+
+	@Test
+	public void testCoherent () {
+		Random random = new Random(7);
+		float[] depths = new float[1000];
+		for (int i = 0; i < depths.length; i++)
+			depths[i] = random.nextFloat() * 100;
+		DepthSorter sorter = new DepthSorter();
+		sorter.coherent = true;
+		sorter.keyBits = 32;
+		sorter.sort(depths, depths.length);
+		assertEquals(1, sorter.radixSorts);
+
+		// Small movements are repaired from the previous order.
+		for (int i = 0; i < depths.length; i++)
+			depths[i] += random.nextFloat() * 0.1f;
+		assertSorted(depths, sorter.sort(depths, depths.length), depths.length);
+		assertEquals(1, sorter.coherentSorts);
+
+		// A reversed order exceeds the budget and falls back to the radix sort.
+		for (int i = 0; i < depths.length; i++)
+			depths[i] = -depths[i];
+		assertSorted(depths, sorter.sort(depths, depths.length), depths.length);
+		assertEquals(2, sorter.radixSorts);
+	}
+
+	private static void assertSorted (float[] depths, int[] order, int count) {
+		boolean[] seen = new boolean[count];
+		for (int i = 0; i < count; i++) {
+			assertTrue(!seen[order[i]]);
+			seen[order[i]] = true;
+			if (i > 0) assertTrue(depths[order[i - 1]] <= depths[order[i]]);
+		}
+	}
+}
@@ -0,0 +1,188 @@
+
+package com.badlogic.gdx.graphics.g3d.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.VertexAttributes.Usage;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.NumberUtils;
+import com.badlogic.gdx.utils.ShortArray;
+
+public class MeshOptimizerTest {
+	static final int GRID = 30;
+
+	@Test
+	public void testOptimize () {
+		VertexAttributes attributes = new VertexAttributes(VertexAttribute.Position(), VertexAttribute.Normal());
+		FloatArray vertices = new FloatArray();
+		ShortArray indices = new ShortArray();
+		// A grid of quads, each with its own vertices, in random order.
+		for (int x = 0; x < GRID; x++) {
+			for (int y = 0; y < GRID; y++) {
+				int first = vertices.size / 6;
+				vertices.addAll(x, y, 0, 0, 0, 1, x + 1, y, 0, 0, 0, 1, x + 1, y + 1, 0, 0, 0, 1, x, y + 1, 0, 0, 0, 1);
+				indices.addAll((short)first, (short)(first + 1), (short)(first + 2), (short)(first + 2), (short)(first + 3),
+					(short)first);
+			}
+		}
+		MathUtils.random.setSeed(0);
+		for (int t = indices.size / 3 - 1; t > 0; t--) {
+			int other = MathUtils.random(t);
+			for (int i = 0; i < 3; i++)
+				indices.swap(t * 3 + i, other * 3 + i);
+		}
+		String[] triangles = triangles(vertices, 6, indices);
+
+		MeshOptimizer optimizer = new MeshOptimizer();
+		assertSame(attributes, optimizer.optimize(vertices, indices, attributes, null));
+		assertEquals(GRID * GRID * 4, optimizer.vertexCountBefore);
+		assertEquals((GRID + 1) * (GRID + 1), optimizer.vertexCountAfter);
+		assertEquals(vertices.size, optimizer.vertexCountAfter * 6);
+		assertTrue(optimizer.acmrBefore > 1.9f);
+		assertTrue(optimizer.acmrAfter < 0.9f);
+		assertEquals(optimizer.acmrAfter, MeshOptimizer.calculateAcmr(indices.items, 0, indices.size, 16), 0);
+		// The same triangles with the same winding.
+		assertArrayEquals(triangles, triangles(vertices, 6, indices));
+		// The vertices are in the order of their first use.
+		for (int i = 0, next = 0; i < indices.size; i++) {
+			assertTrue(indices.get(i) <= next);
+			if (indices.get(i) == next) next++;
+		}
+	}
+
+	@Test
+	public void testQuantize () {
+		VertexAttributes attributes = new VertexAttributes(VertexAttribute.Position(), VertexAttribute.Normal(),
+			VertexAttribute.TexCoords(0));
+		FloatArray vertices = new FloatArray();
+		ShortArray indices = new ShortArray();
+		float[] values = {-1, -0.999f, -0.5f, -0.001f, 0, 0.001f, 0.25f, 0.4999f, 0.5f, 0.999f, 1};
+		for (int i = 0; i < values.length; i++) {
+			float value = values[i], other = values[values.length - 1 - i];
+			vertices.addAll(i, 0, 0, value, other, value, Math.abs(value), Math.abs(other));
+			indices.add(i);
+		}
+		MeshOptimizer optimizer = new MeshOptimizer();
+		optimizer.weldVertices = optimizer.reorderTriangles = optimizer.reorderVertices = false;
+		optimizer.quantizeNormals = optimizer.quantizeTextureCoordinates = true;
+		VertexAttributes quantized = optimizer.optimize(vertices, indices, attributes, null);
+		// The texture coordinates are left unchanged, a second component of 1 can't be stored exactly.
+		assertEquals(12 + 8 + 8, quantized.vertexSize);
+		VertexAttribute normal = quantized.findByUsage(Usage.Normal), uv = quantized.findByUsage(Usage.TextureCoordinates);
+		assertEquals(GL20.GL_SHORT, normal.type);
+		assertEquals(4, normal.numComponents);
+		assertTrue(normal.normalized);
+		assertEquals(GL20.GL_FLOAT, uv.type);
+
+		int size = quantized.vertexSize / 4;
+		for (int i = 0; i < values.length; i++) {
+			float value = values[i], other = values[values.length - 1 - i];
+			int offset = i * size;
+			assertEquals(i, vertices.get(offset), 0);
+			for (int j = 0; j < 3; j++)
+				assertFalse(Float.isNaN(vertices.get(offset + 3 + j)));
+			int bits = NumberUtils.floatToRawIntBits(vertices.get(offset + 3));
+			assertEquals(value, (short)bits / 32767f, 0.0001f);
+			assertEquals(other, (short)(bits >> 16) / 32767f, 0.004f);
+			bits = NumberUtils.floatToRawIntBits(vertices.get(offset + 4));
+			assertEquals(value, (short)bits / 32767f, 0.0001f);
+			assertEquals(0, bits >> 16);
+			assertEquals(Math.abs(value), vertices.get(offset + 5), 0);
+			assertEquals(Math.abs(other), vertices.get(offset + 6), 0);
+		}
+	}
+
+	@Test
+	public void testQuantizeTextureCoordinates () {
+		VertexAttributes attributes = new VertexAttributes(VertexAttribute.Position(), VertexAttribute.TexCoords(0));
+		float[] u = {0, 0.25f, 0.4999f, 0.5f, 0.999f, 1}, v = {0, 0.5f, 1, 0.25f, 0.5f, 0};
+		for (boolean signed : new boolean[] {false, true}) {
+			FloatArray vertices = new FloatArray();
+			ShortArray indices = new ShortArray();
+			for (int i = 0; i < u.length; i++) {
+				vertices.addAll(i, 0, 0, u[i], v[i]);
+				indices.add(i);
+			}
+			MeshOptimizer optimizer = new MeshOptimizer();
+			optimizer.weldVertices = optimizer.reorderTriangles = optimizer.reorderVertices = false;
+			optimizer.quantizeTextureCoordinates = true;
+			FloatArray copy = new FloatArray(vertices);
+			// A second component of 1 can't be stored exactly, so the texture coordinates are left unchanged.
+			assertEquals(5, optimizer.optimize(copy, new ShortArray(indices), attributes, null).vertexSize / 4);
+			assertArrayEquals(vertices.toArray(), copy.toArray(), 0);
+
+			vertices.set(2 * 5 + 4, signed ? -0.5f : 0.75f);
+			VertexAttributes quantized = optimizer.optimize(vertices, indices, attributes, null);
+			assertEquals(12 + 4, quantized.vertexSize);
+			VertexAttribute uv = quantized.findByUsage(Usage.TextureCoordinates);
+			assertEquals(signed ? GL20.GL_SHORT : GL20.GL_UNSIGNED_SHORT, uv.type);
+			assertTrue(uv.normalized);
+			for (int i = 0; i < u.length; i++) {
+				int bits = NumberUtils.floatToRawIntBits(vertices.get(i * 4 + 3));
+				float expectedV = i == 2 ? (signed ? -0.5f : 0.75f) : v[i];
+				if (signed) {
+					assertEquals(Math.round(u[i] * 32767), (short)bits);
+					assertEquals(Math.round(expectedV * 32767), (short)(bits >> 16));
+				} else {
+					assertEquals(Math.round(u[i] * 65535), bits & 0xffff);
+					assertEquals(Math.round(expectedV * 65535), bits >>> 16);
+				}
+			}
+			// 0 and 1 are stored exactly, 0.5 as the nearest step.
+			int bits = NumberUtils.floatToRawIntBits(vertices.get(3));
+			float max = signed ? 32767 : 65535;
+			assertEquals(0, (signed ? (short)bits : bits & 0xffff) / max, 0);
+			assertEquals(0, (signed ? (short)(bits >> 16) : bits >>> 16) / max, 0);
+			bits = NumberUtils.floatToRawIntBits(vertices.get(5 * 4 + 3));
+			assertEquals(1, (signed ? (short)bits : bits & 0xffff) / max, 0);
+			bits = NumberUtils.floatToRawIntBits(vertices.get(1 * 4 + 3));
+			assertEquals(0.5f, (signed ? (short)(bits >> 16) : bits >>> 16) / max, 0.5f / max);
+		}
+	}
+
+	@Test
+	public void testMeshBuilder () {
+		MeshOptimizer optimizer = new MeshOptimizer();
+		optimizer.quantizeNormals = true;
+		MeshBuilder builder = new MeshBuilder();
+		builder.setOptimizer(optimizer);
+		builder.begin(Usage.Position | Usage.Normal, GL20.GL_TRIANGLES);
+		builder.part("sphere", GL20.GL_TRIANGLES);
+		builder.sphere(1, 1, 1, 32, 32);
+		builder.part("box", GL20.GL_TRIANGLES);
+		builder.box(1, 1, 1);
+		int indexCount = builder.getNumIndices();
+		FloatArray vertices = new FloatArray();
+		ShortArray indices = new ShortArray();
+		VertexAttributes attributes = builder.end(vertices, indices);
+		assertEquals(5, attributes.vertexSize / 4);
+		assertEquals(indexCount, indices.size);
+		assertEquals(optimizer.vertexCountAfter * 5, vertices.size);
+		assertTrue(optimizer.acmrAfter < optimizer.acmrBefore);
+	}
+
+	/** @return each triangle as the positions of its corners, starting with the smallest corner to keep the winding. */
+	private static String[] triangles (FloatArray vertices, int vertexSize, ShortArray indices) {
+		String[] triangles = new String[indices.size / 3];
+		String[] corners = new String[3];
+		for (int t = 0; t < triangles.length; t++) {
+			int smallest = 0;
+			for (int i = 0; i < 3; i++) {
+				int offset = indices.get(t * 3 + i) * vertexSize;
+				corners[i] = vertices.get(offset) + "," + vertices.get(offset + 1);
+				if (corners[i].compareTo(corners[smallest]) < 0) smallest = i;
+			}
+			triangles[t] = corners[smallest] + " " + corners[(smallest + 1) % 3] + " " + corners[(smallest + 2) % 3];
+		}
+		Arrays.sort(triangles);
+		return triangles;
+	}
+}
@@ -0,0 +1,136 @@
+
+package com.badlogic.gdx.graphics.g3d.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.model.MeshPart;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.model.NodePart;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Quaternion;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ArrayMap;
+
+public class ModelInstanceUpdaterTest {
+	static final float EPSILON = 0.00001f;
+
+	@Test
+	public void testMatchesCalculateTransforms () {
+		Random random = new Random(3);
+		Model model = createModel();
+		Array<ModelInstance> expected = new Array<ModelInstance>(), actual = new Array<ModelInstance>();
+		for (int i = 0; i < 50; i++) {
+			expected.add(new ModelInstance(model));
+			actual.add(new ModelInstance(model));
+		}
+
+		ModelInstanceUpdater updater = new ModelInstanceUpdater(3);
+		updater.minInstancesPerThread = 4;
+		for (int frame = 0; frame < 3; frame++) {
+			for (int i = 0; i < expected.size; i++)
+				randomizeNodes(random, expected.get(i), actual.get(i));
+			for (ModelInstance instance : expected)
+				instance.calculateTransforms();
+			updater.update(actual);
+			for (int i = 0; i < expected.size; i++)
+				assertSameTransforms(expected.get(i), actual.get(i), false);
+		}
+
+		updater.updateBoneMatrices = true;
+		updater.update(actual);
+		for (int i = 0; i < expected.size; i++)
+			assertSameTransforms(expected.get(i), actual.get(i), true);
+		updater.dispose();
+	}
+
+	@Test
+	public void testCalculateTransformsUpdatesBoneValues () {
+		Random random = new Random(7);
+		Model model = createModel();
+		ModelInstance expected = new ModelInstance(model), actual = new ModelInstance(model);
+		Array<ModelInstance> instances = new Array<ModelInstance>();
+		instances.add(actual);
+		ModelInstanceUpdater updater = new ModelInstanceUpdater(1);
+		updater.update(instances);
+		updater.dispose();
+
+		// Once created, the bone values are kept up to date by the regular calculation.
+		randomizeNodes(random, expected, actual);
+		expected.calculateTransforms();
+		actual.calculateTransforms();
+		assertSameTransforms(expected, actual, true);
+	}
+
+	/** A chain of nodes, one not inheriting the transform of its parent, with a part skinned to all of them. */
+	static Model createModel () {
+		Model model = new Model();
+		Node parent = null;
+		Node[] nodes = new Node[6];
+		for (int i = 0; i < nodes.length; i++) {
+			Node node = nodes[i] = new Node();
+			node.id = "node" + i;
+			node.inheritTransform = i != 3;
+			if (parent == null)
+				model.nodes.add(node);
+			else
+				parent.addChild(node);
+			parent = node;
+		}
+		Node skin = new Node();
+		skin.id = "skin";
+		NodePart part = new NodePart(new MeshPart(), new Material());
+		part.invBoneBindTransforms = new ArrayMap<Node, Matrix4>(true, nodes.length, Node.class, Matrix4.class);
+		part.bones = new Matrix4[nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			part.invBoneBindTransforms.put(nodes[i], new Matrix4().setToTranslation(0, -i, 0));
+			part.bones[i] = new Matrix4();
+		}
+		skin.parts.add(part);
+		model.nodes.add(skin);
+		return model;
+	}
+
+	static void randomizeNodes (Random random, ModelInstance a, ModelInstance b) {
+		for (int i = 0; i < 6; i++) {
+			Vector3 translation = new Vector3(random.nextFloat(), random.nextFloat(), random.nextFloat());
+			Quaternion rotation = new Quaternion(Vector3.Y, random.nextFloat() * 360);
+			Node nodeA = a.getNode("node" + i), nodeB = b.getNode("node" + i);
+			nodeA.translation.set(translation);
+			nodeB.translation.set(translation);
+			nodeA.rotation.set(rotation);
+			nodeB.rotation.set(rotation);
+			// Animated nodes keep their local transform.
+			nodeA.isAnimated = nodeB.isAnimated = i == 2;
+			if (i == 2) {
+				nodeA.localTransform.setToScaling(2, 2, 2);
+				nodeB.localTransform.setToScaling(2, 2, 2);
+			}
+		}
+	}
+
+	static void assertSameTransforms (ModelInstance expected, ModelInstance actual, boolean boneMatrices) {
+		for (int i = 0; i < 6; i++) {
+			assertArrayEquals(expected.getNode("node" + i).localTransform.val, actual.getNode("node" + i).localTransform.val, EPSILON);
+			assertArrayEquals(expected.getNode("node" + i).globalTransform.val, actual.getNode("node" + i).globalTransform.val,
+				EPSILON);
+		}
+		NodePart expectedPart = expected.getNode("skin").parts.get(0), actualPart = actual.getNode("skin").parts.get(0);
+		assertNotNull(actualPart.boneValues);
+		assertEquals(expectedPart.bones.length * 16, actualPart.boneValues.length);
+		for (int i = 0; i < expectedPart.bones.length; i++) {
+			for (int j = 0; j < 16; j++)
+				assertEquals(expectedPart.bones[i].val[j], actualPart.boneValues[i * 16 + j], EPSILON);
+			if (boneMatrices) assertArrayEquals(expectedPart.bones[i].val, actualPart.bones[i].val, EPSILON);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+
+package com.badlogic.gdx.graphics.g3d.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+
+public class OcclusionCullerTest {
+	@Test
+	public void testBoxOccluder () {
+		Matrix4 camera = camera(new Vector3(0, 0, -1));
+		OcclusionCuller culler = new OcclusionCuller(128, 128);
+		culler.begin(camera);
+		culler.addOccluder(box(-5, -5, -11, 5, 5, -10), null);
+		culler.end();
+		assertEquals(2, culler.triangleCount); // Only the front face.
+		check(culler);
+
+		// The same occluder moved into place by a transform.
+		culler.begin(camera);
+		culler.addOccluder(box(-5, -5, -0.5f, 5, 5, 0.5f), new Matrix4().setToTranslation(0, 0, -10.5f));
+		culler.end();
+		check(culler);
+	}
+
+	@Test
+	public void testMeshOccluder () {
+		Matrix4 camera = camera(new Vector3(0, 0, -1));
+		float[] vertices = {-5, -5, -10, 0, 5, -5, -10, 0, 5, 5, -10, 0, -5, 5, -10, 0};
+		short[] indices = {0, 1, 2, 0, 2, 3};
+		OcclusionCuller culler = new OcclusionCuller(128, 128);
+		culler.begin(camera);
+		culler.addOccluder(vertices, 4, indices, 0, indices.length, null);
+		culler.end();
+		check(culler);
+
+		// Seen from behind, the wall is culled as back face.
+		short[] reversed = {0, 2, 1, 0, 3, 2};
+		culler.begin(camera);
+		culler.addOccluder(vertices, 4, reversed, 0, reversed.length, null);
+		culler.end();
+		assertEquals(0, culler.triangleCount);
+		assertTrue(culler.isVisible(box(-1, -1, -21, 1, 1, -19)));
+		culler.cullBackFaces = false;
+		culler.begin(camera);
+		culler.addOccluder(vertices, 4, reversed, 0, reversed.length, null);
+		culler.end();
+		check(culler);
+	}
+
+	@Test
+	public void testNearPlaneClipping () {
+		// A floor below the camera, extending behind it.
+		Matrix4 camera = camera(new Vector3(0, -0.3f, -1));
+		OcclusionCuller culler = new OcclusionCuller(128, 128);
+		culler.begin(camera);
+		culler.addOccluder(box(-50, -2, -50, 50, -1, 50), null);
+		culler.end();
+		assertFalse(culler.isVisible(box(-1, -4, -11, 1, -3, -9)));
+		assertTrue(culler.isVisible(box(-1, -1.5f, -11, 1, 0, -9)));
+	}
+
+	@Test
+	public void testThreads () {
+		Matrix4 camera = camera(new Vector3(0, 0, -1));
+		OcclusionCuller single = new OcclusionCuller(200, 100);
+		OcclusionCuller threaded = new OcclusionCuller(200, 100);
+		threaded.setThreads(3);
+		threaded.minRowsPerThread = 8;
+		try {
+			for (OcclusionCuller culler : new OcclusionCuller[] {single, threaded}) {
+				culler.begin(camera);
+				for (int i = 0; i < 20; i++) {
+					float x = i * 3 - 30, z = -10 - i * 2;
+					culler.addOccluder(box(x, -2 - i % 3, z, x + 2, i % 4, z + 1), null);
+				}
+				culler.end();
+			}
+			assertArrayEquals(single.getDepth(), threaded.getDepth(), 0);
+		} finally {
+			threaded.dispose();
+		}
+	}
+
+	private void check (OcclusionCuller culler) {
+		assertFalse(culler.isVisible(box(-1, -1, -21, 1, 1, -19))); // Behind.
+		assertTrue(culler.isVisible(box(-1, -1, -6, 1, 1, -5))); // In front.
+		assertTrue(culler.isVisible(box(-1, -1, -9, 1, 1, -8))); // In front, overlapping.
+		assertTrue(culler.isVisible(box(8, -1, -21, 14, 1, -19))); // Partially behind.
+		assertTrue(culler.isVisible(box(-1, -1, -1, 1, 1, 1))); // Around the camera.
+		assertFalse(culler.isVisible(box(-1, -1, 19, 1, 1, 21))); // Behind the camera.
+		assertFalse(culler.isVisible(box(-1, -1, -21, 1, 1, -19), new Matrix4().setToTranslation(2, 2, -20)));
+		assertTrue(culler.isVisible(box(-1, -1, -1, 1, 1, 1), new Matrix4().setToTranslation(12, 0, -20)));
+	}
+
+	/** @return the combined matrix of a camera at the origin, like a {@link com.badlogic.gdx.graphics.PerspectiveCamera}. */
+	private static Matrix4 camera (Vector3 direction) {
+		Matrix4 view = new Matrix4().setToLookAt(direction.nor(), new Vector3(0, 1, 0));
+		return new Matrix4().setToProjection(0.5f, 100, 67, 1).mul(view);
+	}
+
+	private static BoundingBox box (float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+		return new BoundingBox(new Vector3(minX, minY, minZ), new Vector3(maxX, maxY, maxZ));
+	}
+}
@@ -0,0 +1,130 @@
+
+package com.badlogic.gdx.graphics.g3d.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.Shader;
+import com.badlogic.gdx.graphics.g3d.attributes.BlendingAttribute;
+import com.badlogic.gdx.utils.Array;
+
+public class RadixRenderableSorterTest {
+	@Test
+	public void testSort () {
+		Random random = new Random(42);
+		Shader[] shaders = {new TestShader(), new TestShader(), new TestShader()};
+		Material[] materials = {new Material(), new Material(), new Material(new BlendingAttribute(0.5f)),
+			new Material(new BlendingAttribute(0.5f))};
+		Array<Renderable> renderables = new Array<Renderable>();
+		for (int i = 0; i < 1000; i++)
+			renderables.add(renderable(shaders[random.nextInt(shaders.length)], materials[random.nextInt(materials.length)],
+				random.nextFloat() * 200 - 100));
+		Camera camera = new PerspectiveCamera();
+		camera.position.set(0, 0, 10);
+
+		RadixRenderableSorter sorter = new RadixRenderableSorter();
+		for (int pass = 0; pass < 2; pass++) {
+			sorter.sort(camera, renderables);
+			assertEquals(1000, renderables.size);
+			int opaque = 0;
+			while (opaque < renderables.size && !isBlended(renderables.get(opaque)))
+				opaque++;
+			for (int i = opaque; i < renderables.size; i++)
+				assertTrue(isBlended(renderables.get(i)));
+
+			// Opaque renderables are grouped by shader, then material, and sorted front to back within a group. The depth is
+			// quantized to 12 bits of mantissa.
+			Array<Object> groups = new Array<Object>();
+			for (int i = 0; i < opaque; i++) {
+				Renderable renderable = renderables.get(i);
+				if (i > 0 && renderable.shader == renderables.get(i - 1).shader) {
+					Renderable previous = renderables.get(i - 1);
+					if (renderable.material == previous.material)
+						assertTrue(distance2(previous, camera) <= distance2(renderable, camera) * (1 + 1 / 2048f));
+					else
+						assertFalse(groups.contains(renderable.material, true));
+					groups.add(renderable.material);
+					continue;
+				}
+				assertFalse(groups.contains(renderable.shader, true));
+				groups.clear();
+				groups.add(renderable.shader);
+				groups.add(renderable.material);
+			}
+
+			// Blended renderables are sorted back to front.
+			for (int i = opaque + 1; i < renderables.size; i++)
+				assertTrue(distance2(renderables.get(i - 1), camera) >= distance2(renderables.get(i), camera));
+			renderables.shuffle();
+		}
+	}
+
+	@Test
+	public void testManyShaders () {
+		// More shaders than ids, the ids must not be reassigned during a sort.
+		Random random = new Random(7);
+		Material material = new Material();
+		Array<Renderable> renderables = new Array<Renderable>();
+		for (int i = 0; i < 5000; i++) {
+			Shader shader = new TestShader();
+			renderables.add(renderable(shader, material, random.nextFloat() * 100));
+			renderables.add(renderable(shader, material, random.nextFloat() * 100));
+		}
+		renderables.shuffle();
+		new RadixRenderableSorter().sort(new PerspectiveCamera(), renderables);
+		int grouped = 0;
+		for (int i = 1; i < renderables.size; i++)
+			if (renderables.get(i).shader == renderables.get(i - 1).shader) grouped++;
+		// The shaders which got an id of their own are adjacent.
+		assertTrue(grouped >= 4094);
+	}
+
+	static private Renderable renderable (Shader shader, Material material, float z) {
+		Renderable renderable = new Renderable();
+		renderable.shader = shader;
+		renderable.material = material;
+		renderable.worldTransform.setToTranslation(0, 0, z);
+		return renderable;
+	}
+
+	static private boolean isBlended (Renderable renderable) {
+		return renderable.material.has(BlendingAttribute.Type);
+	}
+
+	static private float distance2 (Renderable renderable, Camera camera) {
+		float distance = renderable.worldTransform.val[14] - camera.position.z;
+		return distance * distance;
+	}
+
+	static class TestShader implements Shader {
+		public void init () {
+		}
+
+		public int compareTo (Shader other) {
+			return 0;
+		}
+
+		public boolean canRender (Renderable instance) {
+			return true;
+		}
+
+		public void begin (Camera camera, RenderContext context) {
+		}
+
+		public void render (Renderable renderable) {
+		}
+
+		public void end () {
+		}
+
+		public void dispose () {
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package com.badlogic.gdx.graphics.g3d.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.math.Frustum;
+import com.badlogic.gdx.math.Intersector;
+import com.badlogic.gdx.math.Plane;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.math.collision.Ray;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+public class SpatialIndexTest {
+	private final Random random = new Random(42);
+	private final SpatialIndex<Integer> index = new SpatialIndex<Integer>(0.5f, 4);
+	private final Array<BoundingBox> boxes = new Array<BoundingBox>();
+	private final IntArray ids = new IntArray();
+
+	@Test
+	public void testQueriesMatchBruteForce () {
+		for (int i = 0; i < 1000; i++)
+			add(i);
+		check();
+
+		// Move, remove and add objects.
+		for (int round = 0; round < 5; round++) {
+			for (int i = 0; i < boxes.size; i++) {
+				if (boxes.get(i) == null) continue;
+				if (random.nextInt(10) == 0) {
+					assertEquals(Integer.valueOf(i), index.remove(ids.get(i)));
+					boxes.set(i, null);
+				} else if (random.nextInt(3) == 0) {
+					BoundingBox box = boxes.get(i);
+					float dx = random.nextFloat() * 4 - 2, dy = random.nextFloat() * 4 - 2, dz = random.nextFloat() * 4 - 2;
+					box.set(box.min.add(dx, dy, dz), box.max.add(dx, dy, dz));
+					index.update(ids.get(i), box);
+				}
+			}
+			for (int i = 0; i < 100; i++)
+				add(boxes.size);
+			check();
+		}
+
+		int count = 0;
+		for (BoundingBox box : boxes)
+			if (box != null) count++;
+		assertEquals(count, index.size());
+		assertTrue("Tree not balanced, height " + index.getHeight(), index.getHeight() < 30);
+	}
+
+	@Test
+	public void testClear () {
+		for (int i = 0; i < 100; i++)
+			add(i);
+		index.clear();
+		assertEquals(0, index.size());
+		assertEquals(0, index.query(new BoundingBox(new Vector3(-1000, -1000, -1000), new Vector3(1000, 1000, 1000)),
+			new Array<Integer>()).size);
+		boxes.clear();
+		ids.clear();
+		for (int i = 0; i < 100; i++)
+			add(i);
+		check();
+	}
+
+	private void add (int i) {
+		Vector3 min = new Vector3(random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100);
+		Vector3 max = new Vector3(min).add(random.nextFloat() * 5, random.nextFloat() * 5, random.nextFloat() * 5);
+		BoundingBox box = new BoundingBox(min, max);
+		boxes.add(box);
+		ids.add(index.add(i, box));
+	}
+
+	private void check () {
+		for (int q = 0; q < 20; q++) {
+			Vector3 center = new Vector3(random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100, random.nextFloat() * 200 - 100);
+			float size = random.nextFloat() * 40;
+
+			BoundingBox query = new BoundingBox(new Vector3(center).sub(size), new Vector3(center).add(size));
+			IntArray expected = new IntArray();
+			for (int i = 0; i < boxes.size; i++) {
+				BoundingBox box = boxes.get(i);
+				if (box != null && box.intersects(query)) expected.add(i);
+			}
+			assertSame(expected, index.query(query, new Array<Integer>()));
+
+			expected.clear();
+			for (int i = 0; i < boxes.size; i++) {
+				BoundingBox box = boxes.get(i);
+				if (box == null) continue;
+				float dx = Math.max(0, Math.max(box.min.x - center.x, center.x - box.max.x));
+				float dy = Math.max(0, Math.max(box.min.y - center.y, center.y - box.max.y));
+				float dz = Math.max(0, Math.max(box.min.z - center.z, center.z - box.max.z));
+				if (dx * dx + dy * dy + dz * dz <= size * size) expected.add(i);
+			}
+			assertSame(expected, index.query(center, size, new Array<Integer>()));
+
+			Ray ray = new Ray(center, new Vector3(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f, random.nextFloat() - 0.5f).nor());
+			Vector3 intersection = new Vector3();
+			expected.clear();
+			for (int i = 0; i < boxes.size; i++) {
+				BoundingBox box = boxes.get(i);
+				if (box != null && Intersector.intersectRayBounds(ray, box, intersection)
+					&& intersection.dst(center) <= 50) expected.add(i);
+			}
+			assertSame(expected, index.query(ray, 50, new Array<Integer>()));
+
+			// Random planes around the center, Frustum#update requires the natives.
+			Frustum frustum = new Frustum();
+			for (Plane plane : frustum.planes) {
+				Vector3 normal = new Vector3(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f, random.nextFloat() - 0.5f).nor();
+				plane.normal.set(normal);
+				plane.d = -normal.dot(center) + size;
+			}
+			expected.clear();
+			for (int i = 0; i < boxes.size; i++) {
+				BoundingBox box = boxes.get(i);
+				if (box != null && frustum.boundsInFrustum(box)) expected.add(i);
+			}
+			assertSame(expected, index.query(frustum, new Array<Integer>()));
+		}
+	}
+
+	private void assertSame (IntArray expected, Array<Integer> actual) {
+		IntArray sorted = new IntArray();
+		for (Integer i : actual)
+			sorted.add(i);
+		sorted.sort();
+		assertEquals(expected, sorted);
+	}
+}
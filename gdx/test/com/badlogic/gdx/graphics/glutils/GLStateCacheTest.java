@@ -0,0 +1,212 @@
+
+package com.badlogic.gdx.graphics.glutils;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.GLTexture;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import com.badlogic.gdx.math.Matrix4;
+
+/** Counts the GL calls through the interceptor of a {@link GLProfiler}, on top of a GL which compiles any shader. */
+public class GLStateCacheTest {
+	static int handles;
+	GLProfiler profiler;
+
+	@Before
+	public void setUp () {
+		Graphics graphics = proxy(Graphics.class);
+		Gdx.app = proxy(Application.class);
+		Gdx.graphics = graphics;
+		Gdx.gl = Gdx.gl20 = proxy(GL20.class);
+		profiler = new GLProfiler(graphics);
+		profiler.enable();
+		GLStateCache.setEnabled(false);
+		ShaderProgram.cacheUniforms = false;
+	}
+
+	@After
+	public void tearDown () {
+		profiler.disable();
+		GLStateCache.setEnabled(false);
+		ShaderProgram.cacheUniforms = false;
+		ShaderProgram.clearAllShaderPrograms(Gdx.app);
+	}
+
+	@Test
+	public void testUniformCache () {
+		ShaderProgram program = new ShaderProgram("vertex", "fragment");
+		ShaderProgram other = new ShaderProgram("vertex", "fragment");
+		Matrix4 matrix = new Matrix4();
+		program.bind();
+		profiler.reset();
+
+		// Not skipped by default.
+		program.setUniformf(1, 0.5f, 1f);
+		program.setUniformf(1, 0.5f, 1f);
+		assertEquals(2, profiler.getCalls());
+
+		ShaderProgram.cacheUniforms = true;
+		profiler.reset();
+		program.setUniformf(1, 0.5f, 1f);
+		program.setUniformf(1, 0.5f, 1f);
+		program.setUniformMatrix(2, matrix);
+		program.setUniformMatrix(2, matrix);
+		program.setUniformi(3, 1);
+		program.setUniformi(3, 1);
+		assertEquals(3, profiler.getCalls());
+		program.setUniformf(1, 0.5f, 2f);
+		matrix.translate(1, 0, 0);
+		program.setUniformMatrix(2, matrix);
+		program.setUniformi(3, 2);
+		assertEquals(6, profiler.getCalls());
+		// Transposed matrices are always sent.
+		program.setUniformMatrix(2, matrix, true);
+		program.setUniformMatrix(2, matrix, true);
+		assertEquals(8, profiler.getCalls());
+		program.setUniformMatrix(2, matrix);
+		assertEquals(9, profiler.getCalls());
+
+		// Values set while another program is bound are not remembered.
+		other.bind();
+		profiler.reset();
+		program.setUniformf(1, 0.5f, 3f);
+		program.bind();
+		program.setUniformf(1, 0.5f, 3f);
+		program.setUniformf(1, 0.5f, 3f);
+		assertEquals(3, profiler.getCalls());
+
+		profiler.reset();
+		program.invalidateUniforms();
+		program.setUniformf(1, 0.5f, 3f);
+		ShaderProgram.cacheUniforms = false;
+		program.setUniformi(3, 2);
+		assertEquals(2, profiler.getCalls());
+
+		// Values remembered before caching was disabled are not trusted once it is enabled again.
+		program.setUniformf(1, 0.5f, 4f);
+		ShaderProgram.cacheUniforms = true;
+		profiler.reset();
+		program.setUniformf(1, 0.5f, 3f);
+		program.setUniformi(3, 2);
+		assertEquals(2, profiler.getCalls());
+		program.dispose();
+		other.dispose();
+	}
+
+	@Test
+	public void testBinds () {
+		ShaderProgram program = new ShaderProgram("vertex", "fragment");
+		ShaderProgram other = new ShaderProgram("vertex", "fragment");
+		GLTexture texture = texture(5), texture2 = texture(6);
+
+		// Not skipped by default.
+		profiler.reset();
+		program.bind();
+		program.bind();
+		texture.bind(0);
+		texture.bind(0);
+		assertEquals(2, profiler.getShaderSwitches());
+		assertEquals(2, profiler.getTextureBindings());
+
+		GLStateCache.setEnabled(true);
+		profiler.reset();
+		program.bind();
+		program.bind();
+		other.bind();
+		program.bind();
+		assertEquals(3, profiler.getShaderSwitches());
+		texture.bind(0);
+		texture.bind(0);
+		texture2.bind(1);
+		texture.bind(0);
+		texture.bind();
+		texture2.bind(1);
+		assertEquals(2, profiler.getTextureBindings());
+		// And 4 changes of the active texture unit.
+		assertEquals(9, profiler.getCalls());
+
+		// The handle of a deleted texture may be reused.
+		texture.dispose();
+		profiler.reset();
+		texture = texture(5);
+		texture.bind(0);
+		assertEquals(1, profiler.getTextureBindings());
+
+		GLStateCache.invalidate();
+		profiler.reset();
+		program.bind();
+		texture.bind(0);
+		texture2.bind(1);
+		assertEquals(1, profiler.getShaderSwitches());
+		assertEquals(2, profiler.getTextureBindings());
+		program.dispose();
+		other.dispose();
+	}
+
+	private static GLTexture texture (int handle) {
+		return new GLTexture(GL20.GL_TEXTURE_2D, handle) {
+			@Override
+			public int getWidth () {
+				return 1;
+			}
+
+			@Override
+			public int getHeight () {
+				return 1;
+			}
+
+			@Override
+			public int getDepth () {
+				return 0;
+			}
+
+			@Override
+			public boolean isManaged () {
+				return false;
+			}
+
+			@Override
+			protected void reload () {
+			}
+		};
+	}
+
+	/** @return an implementation which returns new handles, no GL error, 1, an empty string or null, sets int buffers to 1 and
+	 *         returns {@link Gdx#gl20} as GL. */
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy (Class<T> type) {
+		return (T)Proxy.newProxyInstance(type.getClassLoader(), new Class[] {type}, new InvocationHandler() {
+			public Object invoke (Object proxy, Method method, Object[] args) {
+				String name = method.getName();
+				if (name.equals("equals")) return proxy == args[0];
+				if (name.equals("hashCode")) return System.identityHashCode(proxy);
+				if (name.equals("getGL20")) return Gdx.gl20;
+				if (name.equals("setGL20")) Gdx.gl = Gdx.gl20 = (GL20)args[0];
+				if (name.equals("glGetError")) return GL20.GL_NO_ERROR;
+				if (name.startsWith("glCreate")) return ++handles;
+				if (args != null) for (Object arg : args)
+					if (arg instanceof IntBuffer) ((IntBuffer)arg).put(0, 1);
+				Class<?> result = method.getReturnType();
+				if (result == int.class) return 1;
+				if (result == boolean.class) return false;
+				if (result == float.class) return 0f;
+				if (result == long.class) return 0L;
+				if (result == String.class) return "";
+				return null;
+			}
+		});
+	}
+}
@@ -0,0 +1,115 @@
+
+package com.badlogic.gdx.math;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.utils.Bits;
+import com.badlogic.gdx.utils.IntArray;
+
+public class FrustumCullerTest {
+	static final int COUNT = 3000;
+	static final float EPSILON = 0.001f;
+
+	@Test
+	public void testBoxes () {
+		Random random = new Random(7);
+		Frustum frustum = createFrustum(random);
+		float[] x = new float[COUNT], y = new float[COUNT], z = new float[COUNT];
+		float[] hw = new float[COUNT], hh = new float[COUNT], hd = new float[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			x[i] = random.nextFloat() * 40 - 20;
+			y[i] = random.nextFloat() * 40 - 20;
+			z[i] = random.nextFloat() * 40 - 20;
+			hw[i] = random.nextFloat() * 3;
+			hh[i] = random.nextFloat() * 3;
+			hd[i] = random.nextFloat() * 3;
+		}
+
+		FrustumCuller culler = new FrustumCuller();
+		Bits bits = new Bits();
+		bits.set(COUNT + 5);
+		IntArray indices = new IntArray();
+		int offset = 17, count = COUNT - 40;
+		int visibleBits = culler.cullBoxes(frustum, x, y, z, hw, hh, hd, offset, count, bits);
+		int visibleIndices = culler.cullBoxes(frustum, x, y, z, hw, hh, hd, offset, count, indices);
+		assertEquals(visibleBits, visibleIndices);
+		assertEquals(visibleIndices, indices.size);
+		assertTrue(visibleBits > 0 && visibleBits < count);
+
+		int next = 0;
+		for (int i = 0; i < COUNT; i++) {
+			if (i < offset || i >= offset + count) {
+				assertFalse(bits.get(i));
+				continue;
+			}
+			boolean expected = frustum.boundsInFrustum(x[i], y[i], z[i], hw[i], hh[i], hd[i]);
+			if (bits.get(i) != expected) assertTrue(nearPlane(frustum, x[i], y[i], z[i], hw[i], hh[i], hd[i]));
+			if (bits.get(i)) assertEquals(i, indices.get(next++));
+		}
+		assertTrue(bits.get(COUNT + 5));
+	}
+
+	@Test
+	public void testSpheres () {
+		Random random = new Random(11);
+		Frustum frustum = createFrustum(random);
+		float[] x = new float[COUNT], y = new float[COUNT], z = new float[COUNT], radius = new float[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			x[i] = random.nextFloat() * 40 - 20;
+			y[i] = random.nextFloat() * 40 - 20;
+			z[i] = random.nextFloat() * 40 - 20;
+			radius[i] = random.nextFloat() * 3;
+		}
+
+		FrustumCuller culler = new FrustumCuller();
+		Bits bits = new Bits();
+		IntArray indices = new IntArray();
+		indices.add(-1);
+		int visibleBits = culler.cullSpheres(frustum, x, y, z, radius, 0, COUNT, bits);
+		int visibleIndices = culler.cullSpheres(frustum, x, y, z, radius, 0, COUNT, indices);
+		assertEquals(visibleBits, visibleIndices);
+		assertEquals(visibleIndices + 1, indices.size);
+		assertTrue(visibleBits > 0 && visibleBits < COUNT);
+
+		int next = 1;
+		for (int i = 0; i < COUNT; i++) {
+			boolean expected = frustum.sphereInFrustum(x[i], y[i], z[i], radius[i]);
+			if (bits.get(i) != expected) assertTrue(nearPlane(frustum, x[i], y[i], z[i], radius[i], radius[i], radius[i]));
+			if (bits.get(i)) assertEquals(i, indices.get(next++));
+		}
+	}
+
+	@Test
+	public void testNaNIsVisible () {
+		Frustum frustum = createFrustum(new Random(3));
+		float[] values = {Float.NaN};
+		Bits bits = new Bits();
+		assertEquals(1, new FrustumCuller().cullSpheres(frustum, values, values, values, values, 0, 1, bits));
+		assertTrue(bits.get(0));
+	}
+
+	/** The planes are set directly, {@link Frustum#update(Matrix4)} needs the natives. */
+	static Frustum createFrustum (Random random) {
+		Frustum frustum = new Frustum();
+		for (Plane plane : frustum.planes) {
+			plane.normal.set(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f, random.nextFloat() - 0.5f).nor();
+			plane.d = 5 + random.nextFloat() * 10;
+		}
+		return frustum;
+	}
+
+	static boolean nearPlane (Frustum frustum, float x, float y, float z, float hw, float hh, float hd) {
+		for (Plane plane : frustum.planes) {
+			float distance = plane.normal.x * x + plane.normal.y * y + plane.normal.z * z + plane.d + Math.abs(plane.normal.x) * hw
+				+ Math.abs(plane.normal.y) * hh + Math.abs(plane.normal.z) * hd;
+			if (Math.abs(distance) < EPSILON) return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,79 @@
+
+package com.badlogic.gdx.utils.async;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Test;
+
+public class ParallelExecutorTest {
+	@Test
+	public void testRunsAllIndices () {
+		ParallelExecutor executor = new ParallelExecutor("test");
+		for (int threads = 1; threads <= 4; threads++) {
+			executor.setThreads(threads);
+			assertEquals(threads, executor.getThreads());
+			assertEquals(threads > 1, executor.getExecutor() != null);
+			for (int count = 0; count <= 9; count++) {
+				final Thread caller = Thread.currentThread();
+				final AtomicIntegerArray runs = new AtomicIntegerArray(10);
+				executor.run(count, new ParallelExecutor.Task() {
+					public void run (int index) {
+						if (index == 0) assertSame(caller, Thread.currentThread());
+						runs.incrementAndGet(index);
+					}
+				});
+				for (int i = 0; i < 10; i++)
+					assertEquals(i < count ? 1 : 0, runs.get(i));
+			}
+		}
+		executor.dispose();
+		assertEquals(1, executor.getThreads());
+		assertNull(executor.getExecutor());
+	}
+
+	@Test
+	public void testExceptions () {
+		ParallelExecutor executor = new ParallelExecutor("test", 3);
+		final AtomicIntegerArray runs = new AtomicIntegerArray(3);
+		try {
+			executor.run(3, new ParallelExecutor.Task() {
+				public void run (int index) {
+					runs.incrementAndGet(index);
+					if (index == 2) throw new IllegalStateException();
+				}
+			});
+			fail();
+		} catch (RuntimeException ex) {
+			// Exceptions of workers are wrapped by the AsyncResult.
+		}
+		for (int i = 0; i < 3; i++)
+			assertEquals(1, runs.get(i));
+
+		// The exception of the calling thread takes precedence, and all workers have finished once it is thrown.
+		try {
+			executor.run(3, new ParallelExecutor.Task() {
+				public void run (int index) {
+					if (index == 0) throw new IllegalArgumentException();
+					try {
+						Thread.sleep(10);
+					} catch (InterruptedException ignored) {
+					}
+					runs.incrementAndGet(index);
+					throw new IllegalStateException();
+				}
+			});
+			fail();
+		} catch (IllegalArgumentException ex) {
+		}
+		assertEquals(2, runs.get(1));
+		assertEquals(2, runs.get(2));
+		executor.dispose();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidThreads () {
+		new ParallelExecutor("test", 0);
+	}
+}
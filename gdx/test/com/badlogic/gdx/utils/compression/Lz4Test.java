@@ -0,0 +1,72 @@
+package com.badlogic.gdx.utils.compression;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+public class Lz4Test {
+
+	@Test
+	public void testRoundTrip () {
+		Random random = new Random(1234);
+		byte[] noise = new byte[100000];
+		random.nextBytes(noise);
+		byte[] runs = new byte[100000];
+		for (int i = 0; i < runs.length; i++)
+			runs[i] = (byte)(i / 1000);
+		byte[] pattern = new byte[70000];
+		for (int i = 0; i < pattern.length; i++)
+			pattern[i] = (byte)(i % 7 == 0 ? random.nextInt() : i % 13);
+
+		for (byte[] data : new byte[][] {new byte[0], {1}, new byte[12], new byte[13], noise, runs, pattern})
+			assertRoundTrip(data);
+		assertTrue(compressedLength(runs) < runs.length / 50);
+	}
+
+	@Test
+	public void testOffsets () {
+		byte[] data = new byte[1000];
+		for (int i = 0; i < data.length; i++)
+			data[i] = (byte)(i % 10);
+		byte[] compressed = new byte[Lz4.maxCompressedLength(900) + 7];
+		int length = Lz4.compress(data, 50, 900, compressed, 7);
+		byte[] decompressed = new byte[905];
+		Lz4.decompress(compressed, 7, length, decompressed, 5, 900);
+		for (int i = 0; i < 900; i++)
+			assertEquals(data[50 + i], decompressed[5 + i]);
+	}
+
+	@Test(expected = GdxRuntimeException.class)
+	public void testWrongLength () {
+		byte[] data = new byte[500];
+		byte[] compressed = new byte[Lz4.maxCompressedLength(data.length)];
+		int length = Lz4.compress(data, 0, data.length, compressed, 0);
+		Lz4.decompress(compressed, 0, length, new byte[600], 0, 600);
+	}
+
+	@Test(expected = GdxRuntimeException.class)
+	public void testTruncated () {
+		byte[] data = new byte[5000];
+		for (int i = 0; i < data.length; i++)
+			data[i] = (byte)(i * 31 / 7);
+		byte[] compressed = new byte[Lz4.maxCompressedLength(data.length)];
+		int length = Lz4.compress(data, 0, data.length, compressed, 0);
+		Lz4.decompress(compressed, 0, length / 2, new byte[data.length], 0, data.length);
+	}
+
+	private void assertRoundTrip (byte[] data) {
+		byte[] compressed = new byte[Lz4.maxCompressedLength(data.length)];
+		int length = Lz4.compress(data, 0, data.length, compressed, 0);
+		byte[] decompressed = new byte[data.length];
+		Lz4.decompress(compressed, 0, length, decompressed, 0, data.length);
+		assertArrayEquals(data, decompressed);
+	}
+
+	private int compressedLength (byte[] data) {
+		return Lz4.compress(data, 0, data.length, new byte[Lz4.maxCompressedLength(data.length)], 0);
+	}
+}
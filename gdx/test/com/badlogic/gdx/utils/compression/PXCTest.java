@@ -0,0 +1,146 @@
+
+package com.badlogic.gdx.utils.compression;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/** Round trips of {@link PixmapIO#writePXC(FileHandle, Pixmap, boolean, long, String)}, which stores the pixels with {@link Lz4}
+ * when compressed. */
+public class PXCTest {
+	FileHandle file;
+
+	@BeforeClass
+	public static void loadNatives () {
+		GdxNativesLoader.load();
+	}
+
+	@Before
+	public void setUp () throws IOException {
+		file = new FileHandle(File.createTempFile("PXCTest", ".pxc"));
+	}
+
+	@After
+	public void tearDown () {
+		file.delete();
+	}
+
+	@Test
+	public void testRoundTrip () {
+		for (Format format : new Format[] {Format.RGBA8888, Format.RGB888, Format.RGB565, Format.Alpha}) {
+			Pixmap pixmap = pixmap(37, 19, format);
+			for (boolean compress : new boolean[] {false, true}) {
+				PixmapIO.writePXC(file, pixmap, compress, 1234L, "images/test.png");
+				Pixmap read = PixmapIO.readPXC(file);
+				assertEquals(37, read.getWidth());
+				assertEquals(19, read.getHeight());
+				assertEquals(format, read.getFormat());
+				assertPixelsEqual(pixmap, read);
+				read.dispose();
+				assertEquals(Long.valueOf(1234L), PixmapIO.readPXCStamp(file));
+				assertEquals(Long.valueOf(1234L), PixmapIO.readPXCStamp(file, "images/test.png"));
+			}
+			pixmap.dispose();
+		}
+	}
+
+	@Test
+	public void testCompressed () {
+		Pixmap pixmap = new Pixmap(256, 256, Format.RGBA8888);
+		ByteBuffer pixels = pixmap.getPixels();
+		for (int i = 0, n = pixels.capacity(); i < n; i++)
+			pixels.put(i, (byte)(i / 4096));
+		PixmapIO.writePXC(file, pixmap, false, 0);
+		long rawLength = file.length();
+		PixmapIO.writePXC(file, pixmap, true, 0);
+		assertTrue(file.length() < rawLength / 50);
+		Pixmap read = PixmapIO.readPXC(file);
+		assertPixelsEqual(pixmap, read);
+		read.dispose();
+		pixmap.dispose();
+	}
+
+	@Test
+	public void testStaleStamp () {
+		Pixmap pixmap = pixmap(8, 8, Format.RGBA8888), changed = pixmap(8, 9, Format.RGBA8888);
+		PixmapIO.writePXC(file, pixmap, true, 1, "a.png");
+		// A different stamp or source means the file is stale, as if the image was modified or the name of the file collides.
+		assertEquals(Long.valueOf(1L), PixmapIO.readPXCStamp(file, "a.png"));
+		assertNull(PixmapIO.readPXCStamp(file, "b.png"));
+		assertNull(PixmapIO.readPXCStamp(file, ""));
+
+		PixmapIO.writePXC(file, changed, false, 2, "a.png");
+		assertEquals(Long.valueOf(2L), PixmapIO.readPXCStamp(file, "a.png"));
+		Pixmap read = PixmapIO.readPXC(file);
+		assertPixelsEqual(changed, read);
+		read.dispose();
+
+		// Written without a source.
+		PixmapIO.writePXC(file, pixmap, false, 3);
+		assertEquals(Long.valueOf(3L), PixmapIO.readPXCStamp(file));
+		assertEquals(Long.valueOf(3L), PixmapIO.readPXCStamp(file, ""));
+		assertNull(PixmapIO.readPXCStamp(file, "a.png"));
+		pixmap.dispose();
+		changed.dispose();
+	}
+
+	@Test
+	public void testInvalidFiles () {
+		file.writeBytes(new byte[] {1, 2, 3}, false);
+		assertNull(PixmapIO.readPXCStamp(file));
+		file.writeString("Not a PXC file, but longer than the header of one.", false);
+		assertNull(PixmapIO.readPXCStamp(file));
+		try {
+			PixmapIO.readPXC(file);
+			fail();
+		} catch (GdxRuntimeException expected) {
+		}
+
+		Pixmap pixmap = pixmap(16, 16, Format.RGBA8888);
+		for (boolean compress : new boolean[] {false, true}) {
+			PixmapIO.writePXC(file, pixmap, compress, 0);
+			byte[] bytes = file.readBytes();
+			byte[] truncated = new byte[bytes.length - 10];
+			System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+			file.writeBytes(truncated, false);
+			try {
+				PixmapIO.readPXC(file).dispose();
+				fail();
+			} catch (GdxRuntimeException expected) {
+			}
+		}
+		pixmap.dispose();
+
+		file.delete();
+		assertNull(PixmapIO.readPXCStamp(file));
+	}
+
+	private Pixmap pixmap (int width, int height, Format format) {
+		Pixmap pixmap = new Pixmap(width, height, format);
+		ByteBuffer pixels = pixmap.getPixels();
+		for (int i = 0, n = pixels.capacity(); i < n; i++)
+			pixels.put(i, (byte)(i * 7 + i / 31));
+		return pixmap;
+	}
+
+	private void assertPixelsEqual (Pixmap expected, Pixmap actual) {
+		ByteBuffer expectedPixels = expected.getPixels(), actualPixels = actual.getPixels();
+		assertEquals(expectedPixels.capacity(), actualPixels.capacity());
+		for (int i = 0, n = expectedPixels.capacity(); i < n; i++)
+			assertEquals(expectedPixels.get(i), actualPixels.get(i));
+	}
+}
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.tests;
+
+import java.nio.ByteBuffer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Pixmap.Blending;
+import com.badlogic.gdx.graphics.Pixmap.Filter;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.PixmapExecutor;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.tests.utils.GdxTest;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.PerformanceCounter;
+
+/** Benchmarks the {@link PixmapExecutor} against the single threaded native {@link Pixmap} operations and verifies that both
+ * produce the same pixels. */
+public class PixmapExecutorTest extends GdxTest {
+	static final int SIZE = 2048;
+	static final int RUNS = 20;
+
+	PixmapExecutor executor;
+	Pixmap source, expected, actual;
+	PerformanceCounter nativePerf = new PerformanceCounter("native");
+	PerformanceCounter parallelPerf = new PerformanceCounter("parallel");
+	SpriteBatch batch;
+	Texture texture;
+
+	@Override
+	public void create () {
+		executor = new PixmapExecutor();
+		source = new Pixmap(SIZE, SIZE, Format.RGBA8888);
+		for (int i = 0; i < 500; i++) {
+			source.setColor(MathUtils.random(), MathUtils.random(), MathUtils.random(), MathUtils.random());
+			source.fillRectangle(MathUtils.random(SIZE), MathUtils.random(SIZE), MathUtils.random(SIZE / 4),
+				MathUtils.random(SIZE / 4));
+		}
+		expected = new Pixmap(SIZE, SIZE, Format.RGBA8888);
+		actual = new Pixmap(SIZE, SIZE, Format.RGBA8888);
+		Gdx.app.log("PixmapExecutorTest", "Threads: " + executor.getThreads());
+
+		for (final Format format : new Format[] {Format.RGBA8888, Format.RGB565}) {
+			benchmark("fill " + format, format, new Operation() {
+				public void run (Pixmap dst, boolean parallel) {
+					dst.setColor(0.2f, 0.4f, 0.6f, 0.8f);
+					if (parallel)
+						executor.fill(dst);
+					else
+						dst.fill();
+				}
+			});
+			benchmark("fillRectangle blended " + format, format, new Operation() {
+				public void run (Pixmap dst, boolean parallel) {
+					dst.setColor(0.8f, 0.4f, 0.2f, 0.5f);
+					if (parallel)
+						executor.fillRectangle(dst, -10, 10, SIZE - 20, SIZE);
+					else
+						dst.fillRectangle(-10, 10, SIZE - 20, SIZE);
+				}
+			});
+			benchmark("drawPixmap blended " + format, format, new Operation() {
+				public void run (Pixmap dst, boolean parallel) {
+					if (parallel)
+						executor.drawPixmap(dst, source, 13, -7);
+					else
+						dst.drawPixmap(source, 13, -7);
+				}
+			});
+			for (final Filter filter : Filter.values()) {
+				benchmark("drawPixmap scaled " + filter + " " + format, format, new Operation() {
+					public void run (Pixmap dst, boolean parallel) {
+						dst.setFilter(filter);
+						if (parallel)
+							executor.drawPixmap(dst, source, 5, 5, SIZE / 3, SIZE / 3 + 1, -3, 2, SIZE + 7, SIZE - 5);
+						else
+							dst.drawPixmap(source, 5, 5, SIZE / 3, SIZE / 3 + 1, -3, 2, SIZE + 7, SIZE - 5);
+					}
+				});
+			}
+		}
+
+		benchmark("convert RGBA8888 to RGB565", Format.RGB565, new Operation() {
+			public void run (Pixmap dst, boolean parallel) {
+				Pixmap converted;
+				if (parallel) {
+					converted = executor.convert(source, Format.RGB565);
+				} else {
+					converted = new Pixmap(SIZE, SIZE, Format.RGB565);
+					converted.setBlending(Blending.None);
+					converted.drawPixmap(source, 0, 0);
+				}
+				dst.setBlending(Blending.None);
+				dst.drawPixmap(converted, 0, 0);
+				converted.dispose();
+			}
+		});
+
+		batch = new SpriteBatch();
+		texture = new Texture(actual);
+	}
+
+	private void benchmark (String name, Format format, Operation operation) {
+		if (expected.getFormat() != format) {
+			expected.dispose();
+			actual.dispose();
+			expected = new Pixmap(SIZE, SIZE, format);
+			actual = new Pixmap(SIZE, SIZE, format);
+		}
+		nativePerf.reset();
+		parallelPerf.reset();
+		for (int i = 0; i < RUNS; i++) {
+			reset(expected);
+			nativePerf.start();
+			operation.run(expected, false);
+			nativePerf.stop();
+			nativePerf.tick();
+
+			reset(actual);
+			parallelPerf.start();
+			operation.run(actual, true);
+			parallelPerf.stop();
+			parallelPerf.tick();
+		}
+		verify(name);
+		Gdx.app.log("PixmapExecutorTest", String.format("%s: native avg %.3f ms, parallel avg %.3f ms (%.2fx)", name,
+			nativePerf.time.average * 1000, parallelPerf.time.average * 1000, nativePerf.time.average / parallelPerf.time.average));
+	}
+
+	private void reset (Pixmap pixmap) {
+		pixmap.setBlending(Blending.None);
+		pixmap.setColor(0.5f, 0.5f, 0.5f, 0.5f);
+		pixmap.fill();
+		pixmap.setBlending(Blending.SourceOver);
+		pixmap.setFilter(Filter.BiLinear);
+	}
+
+	private void verify (String name) {
+		ByteBuffer expectedPixels = expected.getPixels(), actualPixels = actual.getPixels();
+		for (int i = 0, n = expectedPixels.limit(); i < n; i++)
+			if (expectedPixels.get(i) != actualPixels.get(i))
+				throw new GdxRuntimeException(name + ": pixels differ at byte " + i + ", expected " + expectedPixels.get(i) + " but got "
+					+ actualPixels.get(i));
+	}
+
+	@Override
+	public void render () {
+		Gdx.gl.glClearColor(0, 0, 0, 1);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+		batch.begin();
+		batch.draw(texture, 0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+		batch.end();
+	}
+
+	@Override
+	public void dispose () {
+		executor.dispose();
+		source.dispose();
+		expected.dispose();
+		actual.dispose();
+		batch.dispose();
+		texture.dispose();
+	}
+
+	interface Operation {
+		void run (Pixmap dst, boolean parallel);
+	}
+}
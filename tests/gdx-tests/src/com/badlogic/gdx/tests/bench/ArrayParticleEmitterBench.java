@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.tests.bench;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.ArrayParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ArrayParticleEmitter;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool.PooledEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEmitter;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.tests.utils.GdxTest;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.PerformanceCounter;
+
+/** Draws many pooled copies of the same effect and compares the {@link ParticleEmitter} with the {@link ArrayParticleEmitter},
+ * which keeps its particles in primitive arrays. Touch to switch. */
+public class ArrayParticleEmitterBench extends GdxTest {
+	static final int COUNT = 100;
+
+	SpriteBatch batch;
+	BitmapFont font;
+	ParticleEffect effect, arrayEffect;
+	ParticleEffectPool pool, arrayPool;
+	Array<PooledEffect> effects = new Array<PooledEffect>();
+	boolean useArrays = true;
+	PerformanceCounter spritePerf = new PerformanceCounter("sprites");
+	PerformanceCounter arrayPerf = new PerformanceCounter("arrays");
+
+	@Override
+	public void create () {
+		batch = new SpriteBatch();
+		font = new BitmapFont();
+
+		effect = new ParticleEffect();
+		effect.load(Gdx.files.internal("data/test.p"), Gdx.files.internal("data"));
+		arrayEffect = new ArrayParticleEffect();
+		arrayEffect.load(Gdx.files.internal("data/test.p"), Gdx.files.internal("data"));
+		pool = new ParticleEffectPool(effect, COUNT, COUNT);
+		arrayPool = new ParticleEffectPool(arrayEffect, COUNT, COUNT);
+		spawn();
+	}
+
+	void spawn () {
+		for (PooledEffect effect : effects)
+			effect.free();
+		effects.clear();
+		ParticleEffectPool pool = useArrays ? arrayPool : this.pool;
+		for (int i = 0; i < COUNT; i++) {
+			PooledEffect effect = pool.obtain();
+			effect.setPosition(MathUtils.random(Gdx.graphics.getWidth()), MathUtils.random(Gdx.graphics.getHeight()));
+			effect.start();
+			effects.add(effect);
+		}
+	}
+
+	@Override
+	public void render () {
+		float delta = Gdx.graphics.getDeltaTime();
+		if (Gdx.input.justTouched()) {
+			useArrays = !useArrays;
+			spawn();
+		}
+
+		Gdx.gl.glClearColor(0, 0, 0, 1);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+		PerformanceCounter perf = useArrays ? arrayPerf : spritePerf;
+		int particles = 0;
+		batch.begin();
+		perf.start();
+		for (int i = 0; i < effects.size; i++)
+			effects.get(i).draw(batch, delta);
+		perf.stop();
+		perf.tick(delta);
+		for (int i = 0; i < effects.size; i++)
+			for (ParticleEmitter emitter : effects.get(i).getEmitters())
+				particles += emitter.getActiveCount();
+		font.draw(batch, "FPS: " + Gdx.graphics.getFramesPerSecond() + ", " + particles + " particles, "
+			+ (useArrays ? "ArrayParticleEmitter" : "ParticleEmitter") + " (touch to switch)", 10, Gdx.graphics.getHeight() - 10);
+		font.draw(batch, String.format("Update and draw: ParticleEmitter %.3f ms, ArrayParticleEmitter %.3f ms",
+			spritePerf.time.average * 1000, arrayPerf.time.average * 1000), 10, Gdx.graphics.getHeight() - 30);
+		batch.end();
+	}
+
+	@Override
+	public void dispose () {
+		batch.dispose();
+		font.dispose();
+		effect.dispose();
+		arrayEffect.dispose();
+	}
+}
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.tests.bench;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.InputMultiplexer;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.VertexAttributes.Usage;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g3d.ChunkedModelCache;
+import com.badlogic.gdx.graphics.g3d.Environment;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.ModelBatch;
+import com.badlogic.gdx.graphics.g3d.ModelCache;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
+import com.badlogic.gdx.graphics.g3d.environment.DirectionalLight;
+import com.badlogic.gdx.graphics.g3d.utils.CameraInputController;
+import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
+import com.badlogic.gdx.input.GestureDetector;
+import com.badlogic.gdx.input.GestureDetector.GestureAdapter;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.tests.utils.GdxTest;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.PerformanceCounter;
+
+/** Moves a few boxes of a large static scene every frame and compares rebuilding a {@link ModelCache} with updating the chunks
+ * of a {@link ChunkedModelCache} that merges on a worker thread. Double tap to switch. */
+public class ChunkedModelCacheBench extends GdxTest {
+	static final int COUNT = 20000;
+	static final float SIZE = 400;
+
+	PerspectiveCamera camera;
+	CameraInputController cameraController;
+	Environment environment;
+	ModelBatch modelBatch;
+	Model model;
+	Array<ModelInstance> instances = new Array<ModelInstance>();
+	ModelCache modelCache;
+	ChunkedModelCache chunkedCache;
+	boolean useChunks = true;
+	PerformanceCounter modelCachePerf = new PerformanceCounter("model cache");
+	PerformanceCounter chunkedPerf = new PerformanceCounter("chunked");
+	SpriteBatch batch;
+	BitmapFont font;
+
+	@Override
+	public void create () {
+		camera = new PerspectiveCamera(67, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+		camera.position.set(0, 60, SIZE / 2);
+		camera.lookAt(0, 0, 0);
+		camera.far = SIZE * 2;
+		camera.update();
+
+		environment = new Environment();
+		environment.set(new ColorAttribute(ColorAttribute.AmbientLight, 0.4f, 0.4f, 0.4f, 1f));
+		environment.add(new DirectionalLight().set(0.8f, 0.8f, 0.8f, -1f, -0.8f, -0.2f));
+
+		model = new ModelBuilder().createBox(1f, 1f, 1f, new Material(ColorAttribute.createDiffuse(Color.GREEN)),
+			Usage.Position | Usage.Normal);
+		for (int i = 0; i < COUNT; i++) {
+			ModelInstance instance = new ModelInstance(model);
+			move(instance);
+			instances.add(instance);
+		}
+
+		modelCache = new ModelCache();
+		modelCache.begin();
+		modelCache.add(instances);
+		modelCache.end();
+		chunkedCache = new ChunkedModelCache(SIZE / 8, true);
+		chunkedCache.setCamera(camera);
+		chunkedCache.add(instances);
+		chunkedCache.finishUpdate();
+
+		modelBatch = new ModelBatch();
+		batch = new SpriteBatch();
+		font = new BitmapFont();
+
+		cameraController = new CameraInputController(camera);
+		GestureDetector toggle = new GestureDetector(new GestureAdapter() {
+			@Override
+			public boolean tap (float x, float y, int count, int button) {
+				if (count == 2) {
+					useChunks = !useChunks;
+					// The chunked cache wasn't told about the boxes moved in the meantime.
+					if (useChunks) {
+						for (ModelInstance instance : instances)
+							chunkedCache.invalidate(instance);
+					}
+				}
+				return false;
+			}
+		});
+		Gdx.input.setInputProcessor(new InputMultiplexer(toggle, cameraController));
+	}
+
+	void move (ModelInstance instance) {
+		instance.transform.setToTranslation(MathUtils.random(-SIZE, SIZE) / 2, MathUtils.random(10f),
+			MathUtils.random(-SIZE, SIZE) / 2);
+	}
+
+	@Override
+	public void render () {
+		float delta = Gdx.graphics.getDeltaTime();
+		cameraController.update();
+
+		PerformanceCounter perf = useChunks ? chunkedPerf : modelCachePerf;
+		perf.start();
+		for (int i = 0; i < 4; i++) {
+			ModelInstance instance = instances.random();
+			move(instance);
+			if (useChunks) chunkedCache.invalidate(instance);
+		}
+		if (useChunks)
+			chunkedCache.update();
+		else {
+			modelCache.begin();
+			modelCache.add(instances);
+			modelCache.end();
+		}
+		perf.stop();
+		perf.tick(delta);
+
+		Gdx.gl.glViewport(0, 0, Gdx.graphics.getBackBufferWidth(), Gdx.graphics.getBackBufferHeight());
+		Gdx.gl.glClearColor(0.2f, 0.2f, 0.2f, 1);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
+		modelBatch.begin(camera);
+		if (useChunks)
+			modelBatch.render(chunkedCache, environment);
+		else
+			modelBatch.render(modelCache, environment);
+		modelBatch.end();
+
+		batch.begin();
+		font.draw(batch, "FPS: " + Gdx.graphics.getFramesPerSecond() + ", " + instances.size + " boxes, "
+			+ (useChunks ? "chunked cache, " + chunkedCache.getVisibleChunkCount() + "/" + chunkedCache.getChunkCount()
+				+ " chunks visible" : "model cache") + " (double tap to switch)", 10, Gdx.graphics.getHeight() - 10);
+		font.draw(batch, String.format("Cache update: model cache %.3f ms, chunked %.3f ms", modelCachePerf.time.average * 1000,
+			chunkedPerf.time.average * 1000), 10, Gdx.graphics.getHeight() - 30);
+		batch.end();
+	}
+
+	@Override
+	public void resize (int width, int height) {
+		camera.viewportWidth = width;
+		camera.viewportHeight = height;
+		camera.update();
+		batch.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+	}
+
+	@Override
+	public void dispose () {
+		chunkedCache.dispose();
+		modelCache.dispose();
+		modelBatch.dispose();
+		model.dispose();
+		batch.dispose();
+		font.dispose();
+	}
+}
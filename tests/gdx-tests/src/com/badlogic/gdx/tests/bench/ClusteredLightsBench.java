@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.tests.bench;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.VertexAttributes.Usage;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g3d.Environment;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.ModelBatch;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.attributes.ClusteredLightsAttribute;
+import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
+import com.badlogic.gdx.graphics.g3d.environment.ClusteredLights;
+import com.badlogic.gdx.graphics.g3d.environment.PointLight;
+import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.tests.utils.GdxTest;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.PerformanceCounter;
+import com.badlogic.gdx.utils.async.ThreadUtils;
+
+/** Lights a field of boxes with hundreds of moving point lights. With {@link ClusteredLights} each fragment is lit by the lights
+ * of its cluster, otherwise the default shader lights each vertex with five lights and adds the others to the ambient light of
+ * each renderable. Touch to switch between them. */
+public class ClusteredLightsBench extends GdxTest {
+	static final int SIZE = 30, LIGHTS = 512;
+
+	PerspectiveCamera camera;
+	ModelBatch modelBatch;
+	Environment environment, clusteredEnvironment;
+	ClusteredLights clusteredLights;
+	Model floorModel, boxModel;
+	Array<ModelInstance> instances = new Array<ModelInstance>();
+	Array<PointLight> lights = new Array<PointLight>();
+	float[] lightSpeeds = new float[LIGHTS];
+	boolean clustered = true;
+	PerformanceCounter assignPerf = new PerformanceCounter("assign");
+	PerformanceCounter renderPerf = new PerformanceCounter("render");
+	SpriteBatch batch;
+	BitmapFont font;
+	float time;
+
+	@Override
+	public void create () {
+		camera = new PerspectiveCamera(67, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+		camera.near = 0.5f;
+		camera.far = 200;
+		modelBatch = new ModelBatch();
+
+		clusteredLights = new ClusteredLights(16, 9, 24, LIGHTS, 64);
+		clusteredLights.setThreads(ThreadUtils.availableProcessors());
+		environment = new Environment();
+		environment.set(new ColorAttribute(ColorAttribute.AmbientLight, 0.1f, 0.1f, 0.1f, 1f));
+		clusteredEnvironment = new Environment();
+		clusteredEnvironment.set(new ColorAttribute(ColorAttribute.AmbientLight, 0.1f, 0.1f, 0.1f, 1f));
+		clusteredEnvironment.set(new ClusteredLightsAttribute(clusteredLights));
+		for (int i = 0; i < LIGHTS; i++) {
+			PointLight light = new PointLight().set(MathUtils.random(0.3f, 1f), MathUtils.random(0.3f, 1f),
+				MathUtils.random(0.3f, 1f), MathUtils.random(-SIZE, SIZE), 1, MathUtils.random(-SIZE, SIZE), 8);
+			lights.add(light);
+			lightSpeeds[i] = MathUtils.random(-2f, 2f);
+			environment.add(light);
+			clusteredEnvironment.add(light);
+		}
+
+		ModelBuilder builder = new ModelBuilder();
+		builder.begin();
+		builder.part("floor", GL20.GL_TRIANGLES, Usage.Position | Usage.Normal,
+			new Material(ColorAttribute.createDiffuse(Color.WHITE))).rect(-SIZE, 0, SIZE, SIZE, 0, SIZE, SIZE, 0, -SIZE, -SIZE, 0,
+				-SIZE, 0, 1, 0);
+		floorModel = builder.end();
+		instances.add(new ModelInstance(floorModel));
+		boxModel = builder.createBox(1, 2, 1, new Material(ColorAttribute.createDiffuse(Color.LIGHT_GRAY)),
+			Usage.Position | Usage.Normal);
+		for (int x = -SIZE; x < SIZE; x += 3)
+			for (int z = -SIZE; z < SIZE; z += 3)
+				instances.add(new ModelInstance(boxModel, x, 1, z));
+
+		batch = new SpriteBatch();
+		font = new BitmapFont();
+	}
+
+	@Override
+	public void render () {
+		float delta = Gdx.graphics.getDeltaTime();
+		time += delta;
+		if (Gdx.input.justTouched()) clustered = !clustered;
+
+		for (int i = 0; i < LIGHTS; i++)
+			lights.get(i).position.rotate(Vector3.Y, lightSpeeds[i] * delta * 10);
+		camera.position.set(MathUtils.sin(time * 0.1f) * SIZE * 1.2f, 12, MathUtils.cos(time * 0.1f) * SIZE * 1.2f);
+		camera.lookAt(0, 0, 0);
+		camera.up.set(0, 1, 0);
+		camera.update();
+
+		assignPerf.start();
+		if (clustered) clusteredLights.update(camera, clusteredEnvironment);
+		assignPerf.stop();
+		assignPerf.tick(delta);
+
+		Gdx.gl.glViewport(0, 0, Gdx.graphics.getBackBufferWidth(), Gdx.graphics.getBackBufferHeight());
+		Gdx.gl.glClearColor(0, 0, 0, 1);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
+		renderPerf.start();
+		modelBatch.begin(camera);
+		modelBatch.render(instances, clustered ? clusteredEnvironment : environment);
+		modelBatch.end();
+		// Wait for the GPU, so the time includes the lighting.
+		Gdx.gl.glFinish();
+		renderPerf.stop();
+		renderPerf.tick(delta);
+
+		batch.begin();
+		font.draw(batch, "FPS: " + Gdx.graphics.getFramesPerSecond() + ", " + LIGHTS + " lights, "
+			+ (clustered ? "clustered" : "per vertex") + " (touch to toggle)", 10, Gdx.graphics.getHeight() - 10);
+		font.draw(batch,
+			String.format("%d lights in view, %d assignments, %d overflows, assign %.3f ms, render %.3f ms",
+				clusteredLights.lightCount, clusteredLights.assignmentCount, clusteredLights.overflowCount,
+				assignPerf.time.average * 1000, renderPerf.time.average * 1000),
+			10, Gdx.graphics.getHeight() - 30);
+		batch.end();
+	}
+
+	@Override
+	public void resize (int width, int height) {
+		camera.viewportWidth = width;
+		camera.viewportHeight = height;
+		batch.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+	}
+
+	@Override
+	public void dispose () {
+		modelBatch.dispose();
+		floorModel.dispose();
+		boxModel.dispose();
+		clusteredLights.dispose();
+		batch.dispose();
+		font.dispose();
+	}
+}
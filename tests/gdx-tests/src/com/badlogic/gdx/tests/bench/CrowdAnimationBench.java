@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.tests.bench;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.InputMultiplexer;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g3d.Environment;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.ModelBatch;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
+import com.badlogic.gdx.graphics.g3d.environment.DirectionalLight;
+import com.badlogic.gdx.graphics.g3d.loader.G3dModelLoader;
+import com.badlogic.gdx.graphics.g3d.utils.AnimationController;
+import com.badlogic.gdx.graphics.g3d.utils.CameraInputController;
+import com.badlogic.gdx.graphics.g3d.utils.ModelInstanceUpdater;
+import com.badlogic.gdx.input.GestureDetector;
+import com.badlogic.gdx.input.GestureDetector.GestureAdapter;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.tests.utils.GdxTest;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.PerformanceCounter;
+import com.badlogic.gdx.utils.UBJsonReader;
+
+/** Animates a crowd of skinned knights and compares calculating the transforms per instance, as the animation controllers do by
+ * default, with calculating them for all instances at once with a {@link ModelInstanceUpdater}. Double tap to switch. */
+public class CrowdAnimationBench extends GdxTest {
+	static final int SIZE = 24;
+
+	PerspectiveCamera camera;
+	CameraInputController cameraController;
+	Environment environment;
+	ModelBatch modelBatch;
+	Model model;
+	Array<ModelInstance> instances = new Array<ModelInstance>();
+	Array<AnimationController> controllers = new Array<AnimationController>();
+	ModelInstanceUpdater updater;
+	boolean useUpdater = true;
+	PerformanceCounter perInstancePerf = new PerformanceCounter("per instance");
+	PerformanceCounter updaterPerf = new PerformanceCounter("updater");
+	SpriteBatch batch;
+	BitmapFont font;
+
+	@Override
+	public void create () {
+		camera = new PerspectiveCamera(67, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+		camera.position.set(0, SIZE * 30, SIZE * 40);
+		camera.lookAt(0, 0, 0);
+		camera.far = SIZE * 200;
+		camera.update();
+
+		environment = new Environment();
+		environment.set(new ColorAttribute(ColorAttribute.AmbientLight, 0.4f, 0.4f, 0.4f, 1f));
+		environment.add(new DirectionalLight().set(0.8f, 0.8f, 0.8f, -1f, -0.8f, -0.2f));
+
+		model = new G3dModelLoader(new UBJsonReader()).loadModel(Gdx.files.internal("data/g3d/knight.g3db"));
+		for (int x = 0; x < SIZE; x++) {
+			for (int z = 0; z < SIZE; z++) {
+				ModelInstance instance = new ModelInstance(model);
+				instance.transform.setToTranslation((x - SIZE / 2) * 40, 0, (z - SIZE / 2) * 40);
+				instances.add(instance);
+				AnimationController controller = new AnimationController(instance);
+				controller.setAnimation(instance.animations.random().id, -1);
+				controller.update(MathUtils.random(2f));
+				controllers.add(controller);
+			}
+		}
+		setUseUpdater(true);
+
+		updater = new ModelInstanceUpdater();
+		modelBatch = new ModelBatch();
+		batch = new SpriteBatch();
+		font = new BitmapFont();
+
+		cameraController = new CameraInputController(camera);
+		GestureDetector toggle = new GestureDetector(new GestureAdapter() {
+			@Override
+			public boolean tap (float x, float y, int count, int button) {
+				if (count == 2) setUseUpdater(!useUpdater);
+				return false;
+			}
+		});
+		Gdx.input.setInputProcessor(new InputMultiplexer(toggle, cameraController));
+	}
+
+	void setUseUpdater (boolean useUpdater) {
+		this.useUpdater = useUpdater;
+		for (AnimationController controller : controllers)
+			controller.calculateTransforms = !useUpdater;
+	}
+
+	@Override
+	public void render () {
+		float delta = Gdx.graphics.getDeltaTime();
+		cameraController.update();
+
+		PerformanceCounter perf = useUpdater ? updaterPerf : perInstancePerf;
+		perf.start();
+		for (AnimationController controller : controllers)
+			controller.update(delta);
+		if (useUpdater) updater.update(instances);
+		perf.stop();
+		perf.tick(delta);
+
+		Gdx.gl.glViewport(0, 0, Gdx.graphics.getBackBufferWidth(), Gdx.graphics.getBackBufferHeight());
+		Gdx.gl.glClearColor(0.2f, 0.2f, 0.2f, 1);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
+		modelBatch.begin(camera);
+		modelBatch.render(instances, environment);
+		modelBatch.end();
+
+		batch.begin();
+		font.draw(batch, "FPS: " + Gdx.graphics.getFramesPerSecond() + ", " + instances.size + " instances, "
+			+ (useUpdater ? "updater with " + updater.getThreads() + " threads" : "per instance") + " (double tap to switch)", 10,
+			Gdx.graphics.getHeight() - 10);
+		font.draw(batch, String.format("Animation and transforms: per instance %.3f ms, updater %.3f ms",
+			perInstancePerf.time.average * 1000, updaterPerf.time.average * 1000), 10, Gdx.graphics.getHeight() - 30);
+		batch.end();
+	}
+
+	@Override
+	public void resize (int width, int height) {
+		camera.viewportWidth = width;
+		camera.viewportHeight = height;
+		camera.update();
+		batch.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+	}
+
+	@Override
+	public void dispose () {
+		updater.dispose();
+		modelBatch.dispose();
+		model.dispose();
+		batch.dispose();
+		font.dispose();
+	}
+}
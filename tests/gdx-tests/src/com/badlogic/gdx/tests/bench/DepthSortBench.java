@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.tests.bench;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.InputMultiplexer;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g3d.decals.CameraGroupStrategy;
+import com.badlogic.gdx.graphics.g3d.decals.Decal;
+import com.badlogic.gdx.graphics.g3d.decals.DecalBatch;
+import com.badlogic.gdx.graphics.g3d.decals.RadixCameraGroupStrategy;
+import com.badlogic.gdx.graphics.g3d.particles.ParallelArray;
+import com.badlogic.gdx.graphics.g3d.particles.ParallelArray.FloatChannel;
+import com.badlogic.gdx.graphics.g3d.particles.ParticleChannels;
+import com.badlogic.gdx.graphics.g3d.particles.ParticleController;
+import com.badlogic.gdx.graphics.g3d.particles.ParticleSorter;
+import com.badlogic.gdx.graphics.g3d.particles.renderers.BillboardControllerRenderData;
+import com.badlogic.gdx.graphics.g3d.utils.CameraInputController;
+import com.badlogic.gdx.input.GestureDetector;
+import com.badlogic.gdx.input.GestureDetector.GestureAdapter;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.tests.utils.GdxTest;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.PerformanceCounter;
+
+/** Sorts 100k blended decals and 100k particle positions back to front every frame and compares the comparator and quick sorts
+ * with the radix sort of {@link RadixCameraGroupStrategy} and {@link ParticleSorter.RadixDistance}. Double tap to switch. */
+public class DepthSortBench extends GdxTest {
+	static final int COUNT = 100000;
+	static final float SIZE = 200;
+
+	PerspectiveCamera camera;
+	CameraInputController cameraController;
+	Texture texture;
+	Array<Decal> decals = new Array<Decal>();
+	CameraGroupStrategy comparatorStrategy, radixStrategy;
+	DecalBatch comparatorBatch, radixBatch;
+	Array<BillboardControllerRenderData> renderData = new Array<BillboardControllerRenderData>();
+	ParticleSorter distanceSorter, radixSorter;
+	boolean useRadix = true;
+	PerformanceCounter comparatorPerf = new PerformanceCounter("comparator");
+	PerformanceCounter radixPerf = new PerformanceCounter("radix");
+	PerformanceCounter distancePerf = new PerformanceCounter("distance");
+	PerformanceCounter radixDistancePerf = new PerformanceCounter("radix distance");
+	SpriteBatch batch;
+	BitmapFont font;
+
+	@Override
+	public void create () {
+		camera = new PerspectiveCamera(67, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+		camera.position.set(0, 0, SIZE);
+		camera.lookAt(0, 0, 0);
+		camera.far = SIZE * 4;
+		camera.update();
+
+		texture = new Texture(Gdx.files.internal("data/pre_particle.png"));
+		TextureRegion region = new TextureRegion(texture);
+		for (int i = 0; i < COUNT; i++) {
+			Decal decal = Decal.newDecal(1, 1, region, true);
+			decal.setPosition(MathUtils.random(-SIZE, SIZE) / 2, MathUtils.random(-SIZE, SIZE) / 2, MathUtils.random(-SIZE, SIZE) / 2);
+			decals.add(decal);
+		}
+		comparatorStrategy = new CameraGroupStrategy(camera);
+		radixStrategy = new RadixCameraGroupStrategy(camera);
+		comparatorBatch = new DecalBatch(COUNT, comparatorStrategy);
+		radixBatch = new DecalBatch(COUNT, radixStrategy);
+
+		// The particle sorters only need the positions, so the controller isn't simulated.
+		ParticleController controller = new ParticleController();
+		controller.particles = new ParallelArray(COUNT);
+		FloatChannel positions = controller.particles.addChannel(ParticleChannels.Position);
+		for (int i = 0; i < COUNT * positions.strideSize; i++)
+			positions.data[i] = MathUtils.random(-SIZE, SIZE) / 2;
+		controller.particles.size = COUNT;
+		BillboardControllerRenderData data = new BillboardControllerRenderData();
+		data.controller = controller;
+		data.positionChannel = positions;
+		renderData.add(data);
+		distanceSorter = new ParticleSorter.Distance();
+		radixSorter = new ParticleSorter.RadixDistance();
+		distanceSorter.ensureCapacity(COUNT);
+		radixSorter.ensureCapacity(COUNT);
+
+		batch = new SpriteBatch();
+		font = new BitmapFont();
+
+		cameraController = new CameraInputController(camera);
+		GestureDetector toggle = new GestureDetector(new GestureAdapter() {
+			@Override
+			public boolean tap (float x, float y, int count, int button) {
+				if (count == 2) useRadix = !useRadix;
+				return false;
+			}
+		});
+		Gdx.input.setInputProcessor(new InputMultiplexer(toggle, cameraController));
+	}
+
+	@Override
+	public void render () {
+		float delta = Gdx.graphics.getDeltaTime();
+		cameraController.update();
+
+		ParticleSorter sorter = useRadix ? radixSorter : distanceSorter;
+		PerformanceCounter perf = useRadix ? radixDistancePerf : distancePerf;
+		sorter.setCamera(camera);
+		perf.start();
+		sorter.sort(renderData);
+		perf.stop();
+		perf.tick(delta);
+
+		Gdx.gl.glViewport(0, 0, Gdx.graphics.getBackBufferWidth(), Gdx.graphics.getBackBufferHeight());
+		Gdx.gl.glClearColor(0.1f, 0.1f, 0.1f, 1);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
+		DecalBatch decalBatch = useRadix ? radixBatch : comparatorBatch;
+		perf = useRadix ? radixPerf : comparatorPerf;
+		perf.start();
+		for (int i = 0; i < COUNT; i++)
+			decalBatch.add(decals.get(i));
+		decalBatch.flush();
+		perf.stop();
+		perf.tick(delta);
+
+		batch.begin();
+		font.draw(batch, "FPS: " + Gdx.graphics.getFramesPerSecond() + ", " + COUNT + " decals and particles, "
+			+ (useRadix ? "radix sort" : "comparator sort") + " (double tap to switch)", 10, Gdx.graphics.getHeight() - 10);
+		font.draw(batch, String.format("Decal batch: comparator %.3f ms, radix %.3f ms", comparatorPerf.time.average * 1000,
+			radixPerf.time.average * 1000), 10, Gdx.graphics.getHeight() - 30);
+		font.draw(batch, String.format("Particle sort: distance %.3f ms, radix distance %.3f ms", distancePerf.time.average * 1000,
+			radixDistancePerf.time.average * 1000), 10, Gdx.graphics.getHeight() - 50);
+		batch.end();
+	}
+
+	@Override
+	public void resize (int width, int height) {
+		camera.viewportWidth = width;
+		camera.viewportHeight = height;
+		camera.update();
+		batch.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+	}
+
+	@Override
+	public void dispose () {
+		comparatorBatch.dispose();
+		radixBatch.dispose();
+		comparatorStrategy.dispose();
+		radixStrategy.dispose();
+		texture.dispose();
+		batch.dispose();
+		font.dispose();
+	}
+}
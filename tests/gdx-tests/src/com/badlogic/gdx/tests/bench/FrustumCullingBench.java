@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.tests.bench;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Frustum;
+import com.badlogic.gdx.math.FrustumCuller;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.tests.utils.GdxTest;
+import com.badlogic.gdx.utils.Bits;
+import com.badlogic.gdx.utils.PerformanceCounter;
+
+/** Compares culling 100k boxes with {@link FrustumCuller} against calling {@link Frustum#boundsInFrustum(BoundingBox)} for each
+ * box, from a rotating camera. */
+public class FrustumCullingBench extends GdxTest {
+	static final int COUNT = 100000;
+
+	PerspectiveCamera camera;
+	BoundingBox[] boxes = new BoundingBox[COUNT];
+	float[] x = new float[COUNT], y = new float[COUNT], z = new float[COUNT];
+	float[] halfWidth = new float[COUNT], halfHeight = new float[COUNT], halfDepth = new float[COUNT];
+	FrustumCuller culler = new FrustumCuller();
+	Bits visible = new Bits(COUNT);
+	PerformanceCounter perObjectPerf = new PerformanceCounter("per object");
+	PerformanceCounter bulkPerf = new PerformanceCounter("bulk");
+	int perObjectVisible, bulkVisible;
+	SpriteBatch batch;
+	BitmapFont font;
+	float time, logTime;
+
+	@Override
+	public void create () {
+		camera = new PerspectiveCamera(67, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+		camera.far = 500;
+		for (int i = 0; i < COUNT; i++) {
+			x[i] = MathUtils.random(-500f, 500f);
+			y[i] = MathUtils.random(-50f, 50f);
+			z[i] = MathUtils.random(-500f, 500f);
+			halfWidth[i] = MathUtils.random(0.5f, 5f);
+			halfHeight[i] = MathUtils.random(0.5f, 5f);
+			halfDepth[i] = MathUtils.random(0.5f, 5f);
+			boxes[i] = new BoundingBox(new Vector3(x[i] - halfWidth[i], y[i] - halfHeight[i], z[i] - halfDepth[i]),
+				new Vector3(x[i] + halfWidth[i], y[i] + halfHeight[i], z[i] + halfDepth[i]));
+		}
+		batch = new SpriteBatch();
+		font = new BitmapFont();
+	}
+
+	@Override
+	public void render () {
+		float delta = Gdx.graphics.getDeltaTime();
+		time += delta;
+		camera.position.set(0, 20, 0);
+		camera.direction.set(MathUtils.cos(time * 0.5f), -0.1f, MathUtils.sin(time * 0.5f)).nor();
+		camera.update();
+		Frustum frustum = camera.frustum;
+
+		perObjectPerf.start();
+		int count = 0;
+		for (int i = 0; i < COUNT; i++)
+			if (frustum.boundsInFrustum(boxes[i])) count++;
+		perObjectPerf.stop();
+		perObjectPerf.tick(delta);
+		perObjectVisible = count;
+
+		bulkPerf.start();
+		bulkVisible = culler.cullBoxes(frustum, x, y, z, halfWidth, halfHeight, halfDepth, 0, COUNT, visible);
+		bulkPerf.stop();
+		bulkPerf.tick(delta);
+
+		logTime += delta;
+		if (logTime > 2) {
+			logTime = 0;
+			Gdx.app.log("FrustumCullingBench", status());
+		}
+
+		Gdx.gl.glClearColor(0, 0, 0, 1);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+		batch.begin();
+		font.draw(batch, status(), 10, Gdx.graphics.getHeight() - 10);
+		font.draw(batch, "visible: per object " + perObjectVisible + ", bulk " + bulkVisible, 10, Gdx.graphics.getHeight() - 30);
+		batch.end();
+	}
+
+	private String status () {
+		return String.format("%d boxes: per object %.3f ms, bulk %.3f ms (%.2fx)", COUNT, perObjectPerf.time.average * 1000,
+			bulkPerf.time.average * 1000, perObjectPerf.time.average / bulkPerf.time.average);
+	}
+
+	@Override
+	public void resize (int width, int height) {
+		camera.viewportWidth = width;
+		camera.viewportHeight = height;
+		batch.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+	}
+
+	@Override
+	public void dispose () {
+		batch.dispose();
+		font.dispose();
+	}
+}
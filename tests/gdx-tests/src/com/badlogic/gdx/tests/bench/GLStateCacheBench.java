@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.tests.bench;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.VertexAttributes.Usage;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g3d.Environment;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.ModelBatch;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
+import com.badlogic.gdx.graphics.g3d.attributes.TextureAttribute;
+import com.badlogic.gdx.graphics.g3d.environment.DirectionalLight;
+import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
+import com.badlogic.gdx.graphics.glutils.GLStateCache;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.tests.utils.GdxTest;
+import com.badlogic.gdx.utils.Array;
+
+/** Interleaves ModelBatch and SpriteBatch passes and counts the GL calls of a frame with a {@link GLProfiler}, with and without
+ * the {@link GLStateCache} and the uniform cache of {@link ShaderProgram}. Touch to switch between them. */
+public class GLStateCacheBench extends GdxTest {
+	static final int SIZE = 10, PASSES = 4, SPRITES = 200;
+
+	PerspectiveCamera camera;
+	ModelBatch modelBatch;
+	Environment environment;
+	Model model, model2;
+	Texture texture, texture2;
+	Array<ModelInstance> instances = new Array<ModelInstance>();
+	SpriteBatch batch;
+	BitmapFont font;
+	GLProfiler profiler;
+	boolean cached = true;
+	int calls, textureBindings, shaderSwitches;
+	float time;
+
+	@Override
+	public void create () {
+		camera = new PerspectiveCamera(67, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+		camera.near = 0.5f;
+		camera.far = 100;
+		modelBatch = new ModelBatch();
+		environment = new Environment();
+		environment.set(new ColorAttribute(ColorAttribute.AmbientLight, 0.4f, 0.4f, 0.4f, 1f));
+		environment.add(new DirectionalLight().set(0.8f, 0.8f, 0.8f, -1f, -0.8f, -0.2f));
+
+		texture = new Texture(Gdx.files.internal("data/badlogic.jpg"));
+		texture2 = new Texture(Gdx.files.internal("data/egg.png"));
+		ModelBuilder builder = new ModelBuilder();
+		long attributes = Usage.Position | Usage.Normal | Usage.TextureCoordinates;
+		model = builder.createBox(1, 1, 1, new Material(TextureAttribute.createDiffuse(texture)), attributes);
+		model2 = builder.createBox(1, 1, 1, new Material(TextureAttribute.createDiffuse(texture2)), attributes);
+		for (int x = 0; x < SIZE; x++)
+			for (int z = 0; z < SIZE; z++)
+				instances.add(new ModelInstance((x + z) % 2 == 0 ? model : model2, (x - SIZE / 2) * 2, 0, (z - SIZE / 2) * 2));
+
+		batch = new SpriteBatch();
+		font = new BitmapFont();
+		profiler = new GLProfiler(Gdx.graphics);
+		profiler.enable();
+		setCached(cached);
+	}
+
+	void setCached (boolean cached) {
+		this.cached = cached;
+		GLStateCache.setEnabled(cached);
+		ShaderProgram.cacheUniforms = cached;
+	}
+
+	@Override
+	public void render () {
+		time += Gdx.graphics.getDeltaTime();
+		if (Gdx.input.justTouched()) setCached(!cached);
+
+		camera.position.set(MathUtils.sin(time * 0.2f) * SIZE * 1.5f, SIZE, MathUtils.cos(time * 0.2f) * SIZE * 1.5f);
+		camera.lookAt(0, 0, 0);
+		camera.up.set(0, 1, 0);
+		camera.update();
+
+		profiler.reset();
+		Gdx.gl.glViewport(0, 0, Gdx.graphics.getBackBufferWidth(), Gdx.graphics.getBackBufferHeight());
+		Gdx.gl.glClearColor(0.5f, 0.7f, 0.9f, 1);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
+		for (int pass = 0; pass < PASSES; pass++) {
+			modelBatch.begin(camera);
+			modelBatch.render(instances, environment);
+			modelBatch.end();
+
+			batch.begin();
+			for (int i = 0; i < SPRITES; i++)
+				batch.draw(texture, (i * 37 + pass * 100) % Gdx.graphics.getWidth(), (i * 53) % Gdx.graphics.getHeight(), 32, 32);
+			batch.end();
+		}
+		calls = profiler.getCalls();
+		textureBindings = profiler.getTextureBindings();
+		shaderSwitches = profiler.getShaderSwitches();
+
+		batch.begin();
+		font.draw(batch, "FPS: " + Gdx.graphics.getFramesPerSecond() + ", " + (cached ? "cached" : "not cached")
+			+ " (touch to toggle)", 10, Gdx.graphics.getHeight() - 10);
+		font.draw(batch, calls + " GL calls, " + textureBindings + " texture bindings, " + shaderSwitches + " shader switches", 10,
+			Gdx.graphics.getHeight() - 30);
+		batch.end();
+	}
+
+	@Override
+	public void resize (int width, int height) {
+		camera.viewportWidth = width;
+		camera.viewportHeight = height;
+		batch.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+	}
+
+	@Override
+	public void dispose () {
+		profiler.disable();
+		setCached(false);
+		modelBatch.dispose();
+		model.dispose();
+		model2.dispose();
+		texture.dispose();
+		texture2.dispose();
+		batch.dispose();
+		font.dispose();
+	}
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.tests.bench;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.VertexAttributes.Usage;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g3d.Environment;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.ModelBatch;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
+import com.badlogic.gdx.graphics.g3d.environment.DirectionalLight;
+import com.badlogic.gdx.graphics.g3d.model.LodGroup;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.model.NodePart;
+import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
+import com.badlogic.gdx.graphics.g3d.utils.ModelInstanceIndex;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.tests.utils.GdxTest;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.PerformanceCounter;
+
+/** Flies a camera over a field of spheres, each with four levels of detail selected by their size on screen. The levels are
+ * colored from white (most detailed) to red, touch to toggle the levels of detail. */
+public class LodBench extends GdxTest {
+	static final int SIZE = 60;
+	static final float SPACING = 4;
+	static final int[] DIVISIONS = {48, 24, 12, 6};
+	static final float[] SCREEN_SIZES = {Float.POSITIVE_INFINITY, 0.15f, 0.06f, 0.02f};
+	static final Color[] COLORS = {Color.WHITE, Color.YELLOW, Color.ORANGE, Color.RED};
+
+	PerspectiveCamera camera;
+	ModelBatch modelBatch;
+	Environment environment;
+	Model model;
+	Material[] materials = new Material[DIVISIONS.length];
+	ModelInstanceIndex index = new ModelInstanceIndex();
+	boolean lod = true;
+	PerformanceCounter lodPerf = new PerformanceCounter("lod");
+	PerformanceCounter renderPerf = new PerformanceCounter("render");
+	SpriteBatch batch;
+	BitmapFont font;
+	float time;
+
+	@Override
+	public void create () {
+		camera = new PerspectiveCamera(67, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+		camera.near = 0.5f;
+		camera.far = 1000;
+		modelBatch = new ModelBatch();
+		environment = new Environment();
+		environment.set(new ColorAttribute(ColorAttribute.AmbientLight, 0.4f, 0.4f, 0.4f, 1f));
+		environment.add(new DirectionalLight().set(0.8f, 0.8f, 0.8f, -1f, -0.8f, -0.2f));
+
+		// One part per level, which are then moved into the level of detail group of the first part.
+		ModelBuilder builder = new ModelBuilder();
+		builder.begin();
+		builder.node().id = "sphere";
+		for (int level = 0; level < DIVISIONS.length; level++) {
+			builder.part("level" + level, GL20.GL_TRIANGLES, Usage.Position | Usage.Normal,
+				new Material(ColorAttribute.createDiffuse(COLORS[level]))).sphere(2, 2, 2, DIVISIONS[level], DIVISIONS[level]);
+		}
+		model = builder.end();
+		Node node = model.nodes.first();
+		NodePart part = node.parts.first();
+		part.lod = new LodGroup(part.meshPart);
+		for (int level = 1; level < DIVISIONS.length; level++)
+			part.lod.add(node.parts.get(level).meshPart, SCREEN_SIZES[level]);
+		// The levels have different colors to show which is used.
+		for (int level = 0; level < DIVISIONS.length; level++)
+			materials[level] = node.parts.get(level).material;
+		node.parts.truncate(1);
+
+		for (int x = 0; x < SIZE; x++) {
+			for (int z = 0; z < SIZE; z++) {
+				ModelInstance instance = new ModelInstance(model);
+				instance.transform.setToTranslation((x - SIZE / 2) * SPACING, 0, (z - SIZE / 2) * SPACING);
+				index.add(instance);
+			}
+		}
+		batch = new SpriteBatch();
+		font = new BitmapFont();
+	}
+
+	@Override
+	public void render () {
+		float delta = Gdx.graphics.getDeltaTime();
+		time += delta;
+		if (Gdx.input.justTouched()) lod = !lod;
+
+		camera.position.set(MathUtils.sin(time * 0.2f) * SIZE * SPACING * 0.4f, 6 + MathUtils.sin(time * 0.5f) * 4,
+			SIZE * SPACING * 0.5f);
+		camera.direction.set(0, -0.2f, -1).nor();
+		camera.up.set(0, 1, 0);
+		camera.update();
+
+		index.cull(camera);
+		Array<ModelInstance> visible = index.getVisible();
+		lodPerf.start();
+		if (lod)
+			index.selectLod(camera);
+		else {
+			for (int i = 0; i < visible.size; i++) {
+				NodePart part = visible.get(i).nodes.first().parts.first();
+				part.meshPart.set(part.lod.meshParts.first());
+				part.lodLevel = 0;
+			}
+		}
+		lodPerf.stop();
+		lodPerf.tick(delta);
+		int triangles = 0;
+		for (int i = 0; i < visible.size; i++) {
+			NodePart part = visible.get(i).nodes.first().parts.first();
+			part.material = materials[part.lodLevel];
+			triangles += part.meshPart.size / 3;
+		}
+
+		Gdx.gl.glViewport(0, 0, Gdx.graphics.getBackBufferWidth(), Gdx.graphics.getBackBufferHeight());
+		Gdx.gl.glClearColor(0.5f, 0.7f, 0.9f, 1);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
+		renderPerf.start();
+		modelBatch.begin(camera);
+		modelBatch.render(index, environment);
+		modelBatch.end();
+		renderPerf.stop();
+		renderPerf.tick(delta);
+
+		batch.begin();
+		font.draw(batch, "FPS: " + Gdx.graphics.getFramesPerSecond() + ", levels of detail " + (lod ? "on" : "off")
+			+ " (touch to toggle)", 10, Gdx.graphics.getHeight() - 10);
+		font.draw(batch, String.format("%d spheres, %d triangles, select %.3f ms, render %.3f ms", visible.size, triangles,
+			lodPerf.time.average * 1000, renderPerf.time.average * 1000), 10, Gdx.graphics.getHeight() - 30);
+		batch.end();
+	}
+
+	@Override
+	public void resize (int width, int height) {
+		camera.viewportWidth = width;
+		camera.viewportHeight = height;
+		batch.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+	}
+
+	@Override
+	public void dispose () {
+		modelBatch.dispose();
+		model.dispose();
+		batch.dispose();
+		font.dispose();
+	}
+}
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.tests.bench;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.VertexAttributes.Usage;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g3d.Environment;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.ModelBatch;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
+import com.badlogic.gdx.graphics.g3d.environment.DirectionalLight;
+import com.badlogic.gdx.graphics.g3d.utils.MeshOptimizer;
+import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.tests.utils.GdxTest;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.PerformanceCounter;
+
+/** Renders many dense spheres, built once as is and once with a {@link MeshOptimizer} which reorders the triangles for the vertex
+ * cache and quantizes the normals. Touch to switch between them. */
+public class MeshOptimizerBench extends GdxTest {
+	static final int SIZE = 20, DIVISIONS = 120;
+
+	PerspectiveCamera camera;
+	ModelBatch modelBatch;
+	Environment environment;
+	Model model, optimizedModel;
+	Array<ModelInstance> instances = new Array<ModelInstance>(), optimizedInstances = new Array<ModelInstance>();
+	MeshOptimizer optimizer = new MeshOptimizer();
+	boolean optimized = true;
+	PerformanceCounter renderPerf = new PerformanceCounter("render");
+	SpriteBatch batch;
+	BitmapFont font;
+	float time;
+
+	@Override
+	public void create () {
+		camera = new PerspectiveCamera(67, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+		camera.near = 0.5f;
+		camera.far = 1000;
+		modelBatch = new ModelBatch();
+		environment = new Environment();
+		environment.set(new ColorAttribute(ColorAttribute.AmbientLight, 0.4f, 0.4f, 0.4f, 1f));
+		environment.add(new DirectionalLight().set(0.8f, 0.8f, 0.8f, -1f, -0.8f, -0.2f));
+
+		ModelBuilder builder = new ModelBuilder();
+		Material material = new Material(ColorAttribute.createDiffuse(Color.ORANGE));
+		long attributes = Usage.Position | Usage.Normal;
+		model = builder.createSphere(1.5f, 1.5f, 1.5f, DIVISIONS, DIVISIONS, material, attributes);
+		optimizer.quantizeNormals = true;
+		builder.setOptimizer(optimizer);
+		optimizedModel = builder.createSphere(1.5f, 1.5f, 1.5f, DIVISIONS, DIVISIONS, material, attributes);
+
+		for (int x = 0; x < SIZE; x++) {
+			for (int z = 0; z < SIZE; z++) {
+				ModelInstance instance = new ModelInstance(model);
+				instance.transform.setToTranslation((x - SIZE / 2) * 2, 0, (z - SIZE / 2) * 2);
+				instances.add(instance);
+				instance = new ModelInstance(optimizedModel);
+				instance.transform.setToTranslation((x - SIZE / 2) * 2, 0, (z - SIZE / 2) * 2);
+				optimizedInstances.add(instance);
+			}
+		}
+		batch = new SpriteBatch();
+		font = new BitmapFont();
+	}
+
+	@Override
+	public void render () {
+		float delta = Gdx.graphics.getDeltaTime();
+		time += delta;
+		if (Gdx.input.justTouched()) optimized = !optimized;
+
+		camera.position.set(MathUtils.sin(time * 0.2f) * SIZE, SIZE * 0.6f, MathUtils.cos(time * 0.2f) * SIZE);
+		camera.lookAt(0, 0, 0);
+		camera.up.set(0, 1, 0);
+		camera.update();
+
+		Gdx.gl.glViewport(0, 0, Gdx.graphics.getBackBufferWidth(), Gdx.graphics.getBackBufferHeight());
+		Gdx.gl.glClearColor(0.5f, 0.7f, 0.9f, 1);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
+		renderPerf.start();
+		modelBatch.begin(camera);
+		modelBatch.render(optimized ? optimizedInstances : instances, environment);
+		modelBatch.end();
+		// Wait for the GPU, so the time includes the vertex processing.
+		Gdx.gl.glFinish();
+		renderPerf.stop();
+		renderPerf.tick(delta);
+
+		batch.begin();
+		font.draw(batch, "FPS: " + Gdx.graphics.getFramesPerSecond() + ", " + (optimized ? "optimized" : "not optimized")
+			+ " (touch to toggle), render " + String.format("%.3f ms", renderPerf.time.average * 1000), 10,
+			Gdx.graphics.getHeight() - 10);
+		font.draw(batch,
+			String.format("ACMR %.3f -> %.3f, %d -> %d vertices of %d -> %d bytes", optimizer.acmrBefore, optimizer.acmrAfter,
+				optimizer.vertexCountBefore, optimizer.vertexCountAfter, optimizer.vertexSizeBefore, optimizer.vertexSizeAfter),
+			10, Gdx.graphics.getHeight() - 30);
+		batch.end();
+	}
+
+	@Override
+	public void resize (int width, int height) {
+		camera.viewportWidth = width;
+		camera.viewportHeight = height;
+		batch.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+	}
+
+	@Override
+	public void dispose () {
+		modelBatch.dispose();
+		model.dispose();
+		optimizedModel.dispose();
+		batch.dispose();
+		font.dispose();
+	}
+}
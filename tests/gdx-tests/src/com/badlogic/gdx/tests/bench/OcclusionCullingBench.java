@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.tests.bench;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.VertexAttributes.Usage;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g3d.Environment;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.ModelBatch;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
+import com.badlogic.gdx.graphics.g3d.environment.DirectionalLight;
+import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
+import com.badlogic.gdx.graphics.g3d.utils.ModelInstanceIndex;
+import com.badlogic.gdx.graphics.g3d.utils.OcclusionCuller;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.tests.utils.GdxTest;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.PerformanceCounter;
+import com.badlogic.gdx.utils.async.ThreadUtils;
+
+/** Walks a camera through a dense city, where most of the props are hidden behind buildings. The buildings are occluders for an
+ * {@link OcclusionCuller}, which culls the props left after frustum culling by a {@link ModelInstanceIndex}. Touch to toggle
+ * occlusion culling. */
+public class OcclusionCullingBench extends GdxTest {
+	static final int BLOCKS = 24, PROPS = 8000;
+	static final float BLOCK_SIZE = 30, STREET_WIDTH = 10;
+
+	PerspectiveCamera camera;
+	ModelBatch modelBatch;
+	Environment environment;
+	Model buildingModel, propModel;
+	ModelInstanceIndex buildingIndex = new ModelInstanceIndex(), propIndex = new ModelInstanceIndex();
+	BoundingBox occluderBounds = new BoundingBox();
+	OcclusionCuller culler = new OcclusionCuller();
+	boolean occlusion = true;
+	PerformanceCounter cullPerf = new PerformanceCounter("cull");
+	PerformanceCounter renderPerf = new PerformanceCounter("render");
+	SpriteBatch batch;
+	BitmapFont font;
+	float time;
+
+	@Override
+	public void create () {
+		camera = new PerspectiveCamera(67, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+		camera.near = 0.5f;
+		camera.far = 1000;
+		modelBatch = new ModelBatch();
+		environment = new Environment();
+		environment.set(new ColorAttribute(ColorAttribute.AmbientLight, 0.4f, 0.4f, 0.4f, 1f));
+		environment.add(new DirectionalLight().set(0.8f, 0.8f, 0.8f, -1f, -0.8f, -0.2f));
+
+		ModelBuilder builder = new ModelBuilder();
+		long attributes = Usage.Position | Usage.Normal;
+		buildingModel = builder.createBox(1, 1, 1, new Material(ColorAttribute.createDiffuse(Color.LIGHT_GRAY)), attributes);
+		propModel = builder.createBox(1, 1, 1, new Material(ColorAttribute.createDiffuse(Color.ORANGE)), attributes);
+		// The unit box slightly shrunk, so the occluder stays inside the building.
+		occluderBounds.set(occluderBounds.min.set(-0.49f, -0.49f, -0.49f), occluderBounds.max.set(0.49f, 0.49f, 0.49f));
+
+		float extent = BLOCKS * BLOCK_SIZE * 0.5f, size = BLOCK_SIZE - STREET_WIDTH;
+		for (int x = 0; x < BLOCKS; x++) {
+			for (int z = 0; z < BLOCKS; z++) {
+				float height = MathUtils.random(15f, 80f);
+				ModelInstance building = new ModelInstance(buildingModel);
+				building.transform.setToTranslationAndScaling(x * BLOCK_SIZE - extent, height * 0.5f, z * BLOCK_SIZE - extent, size,
+					height, size);
+				buildingIndex.add(building);
+			}
+		}
+		for (int i = 0; i < PROPS; i++) {
+			// Along the streets.
+			float along = MathUtils.random(-extent, extent);
+			float across = MathUtils.floor(MathUtils.random(BLOCKS)) * BLOCK_SIZE - extent + BLOCK_SIZE * 0.5f
+				+ MathUtils.random(-2f, 2f);
+			ModelInstance prop = new ModelInstance(propModel);
+			if (MathUtils.randomBoolean())
+				prop.transform.setToTranslation(along, 0.5f, across);
+			else
+				prop.transform.setToTranslation(across, 0.5f, along);
+			propIndex.add(prop);
+		}
+
+		culler.setThreads(Math.min(4, ThreadUtils.availableProcessors()));
+		batch = new SpriteBatch();
+		font = new BitmapFont();
+	}
+
+	@Override
+	public void render () {
+		float delta = Gdx.graphics.getDeltaTime();
+		time += delta;
+		if (Gdx.input.justTouched()) occlusion = !occlusion;
+
+		float street = BLOCK_SIZE * 0.5f - BLOCKS * BLOCK_SIZE * 0.5f + BLOCK_SIZE * 3;
+		camera.position.set(street, 2, MathUtils.sin(time * 0.1f) * BLOCKS * BLOCK_SIZE * 0.4f);
+		camera.direction.set(MathUtils.cos(time * 0.3f), -0.05f, MathUtils.sin(time * 0.3f)).nor();
+		camera.up.set(0, 1, 0);
+		camera.update();
+
+		cullPerf.start();
+		buildingIndex.cull(camera);
+		propIndex.cull(camera);
+		int frustumVisible = propIndex.getVisible().size;
+		if (occlusion) {
+			culler.begin(camera);
+			Array<ModelInstance> visibleBuildings = buildingIndex.getVisible();
+			for (int i = 0; i < visibleBuildings.size; i++)
+				culler.addOccluder(occluderBounds, visibleBuildings.get(i).transform);
+			culler.end();
+			buildingIndex.cull(culler);
+			propIndex.cull(culler);
+		}
+		cullPerf.stop();
+		cullPerf.tick(delta);
+
+		Gdx.gl.glViewport(0, 0, Gdx.graphics.getBackBufferWidth(), Gdx.graphics.getBackBufferHeight());
+		Gdx.gl.glClearColor(0.5f, 0.7f, 0.9f, 1);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
+		renderPerf.start();
+		modelBatch.begin(camera);
+		modelBatch.render(buildingIndex, environment);
+		modelBatch.render(propIndex, environment);
+		modelBatch.end();
+		renderPerf.stop();
+		renderPerf.tick(delta);
+
+		batch.begin();
+		font.draw(batch, "FPS: " + Gdx.graphics.getFramesPerSecond() + ", occlusion culling " + (occlusion ? "on" : "off")
+			+ " (touch to toggle), " + culler.getThreads() + " threads", 10, Gdx.graphics.getHeight() - 10);
+		font.draw(batch, String.format("props: %d after frustum culling, %d rendered; buildings rendered: %d", frustumVisible,
+			propIndex.getVisible().size, buildingIndex.getVisible().size), 10, Gdx.graphics.getHeight() - 30);
+		font.draw(batch, String.format("cull %.3f ms (occluders %d triangles, %.3f ms), render %.3f ms", cullPerf.time.average * 1000,
+			culler.triangleCount, culler.rasterizeNanos / 1000000f, renderPerf.time.average * 1000), 10,
+			Gdx.graphics.getHeight() - 50);
+		batch.end();
+	}
+
+	@Override
+	public void resize (int width, int height) {
+		camera.viewportWidth = width;
+		camera.viewportHeight = height;
+		batch.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+	}
+
+	@Override
+	public void dispose () {
+		culler.dispose();
+		modelBatch.dispose();
+		buildingModel.dispose();
+		propModel.dispose();
+		batch.dispose();
+		font.dispose();
+	}
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.tests.bench;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectGroup;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool.PooledEffect;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.tests.utils.GdxTest;
+import com.badlogic.gdx.utils.PerformanceCounter;
+import com.badlogic.gdx.utils.async.ThreadUtils;
+
+/** Keeps hundreds of pooled effects alive in a {@link ParticleEffectGroup} and compares updating them on one thread with
+ * updating them on all available processors. Touch to switch. */
+public class ParticleEffectGroupBench extends GdxTest {
+	static final int COUNT = 300;
+
+	SpriteBatch batch;
+	BitmapFont font;
+	ParticleEffect effect;
+	ParticleEffectPool pool;
+	ParticleEffectGroup group;
+	PerformanceCounter singlePerf = new PerformanceCounter("single thread");
+	PerformanceCounter parallelPerf = new PerformanceCounter("parallel");
+
+	@Override
+	public void create () {
+		batch = new SpriteBatch();
+		font = new BitmapFont();
+
+		effect = new ParticleEffect();
+		effect.load(Gdx.files.internal("data/test.p"), Gdx.files.internal("data"));
+		effect.setDuration(2000);
+		pool = new ParticleEffectPool(effect, COUNT, COUNT);
+		group = new ParticleEffectGroup();
+		group.setThreads(ThreadUtils.availableProcessors());
+	}
+
+	@Override
+	public void render () {
+		float delta = Gdx.graphics.getDeltaTime();
+		if (Gdx.input.justTouched()) group.setThreads(group.getThreads() > 1 ? 1 : ThreadUtils.availableProcessors());
+
+		// Completed effects were freed by the group, replace them.
+		for (int i = group.getEffects().size; i < COUNT; i++) {
+			PooledEffect effect = pool.obtain();
+			effect.setPosition(MathUtils.random(Gdx.graphics.getWidth()), MathUtils.random(Gdx.graphics.getHeight()));
+			effect.start();
+			group.add(effect);
+		}
+
+		PerformanceCounter perf = group.getThreads() > 1 ? parallelPerf : singlePerf;
+		perf.start();
+		group.update(delta);
+		perf.stop();
+		perf.tick(delta);
+
+		Gdx.gl.glClearColor(0, 0, 0, 1);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+		batch.begin();
+		group.draw(batch);
+		font.draw(batch, "FPS: " + Gdx.graphics.getFramesPerSecond() + ", " + group.getEffects().size + " effects, "
+			+ group.emitterCount + " emitters, " + group.particleCount + " particles, " + group.getThreads()
+			+ " threads (touch to switch)", 10, Gdx.graphics.getHeight() - 10);
+		font.draw(batch, String.format("Update: single thread %.3f ms, parallel %.3f ms, render calls %d",
+			singlePerf.time.average * 1000, parallelPerf.time.average * 1000, batch.renderCalls), 10,
+			Gdx.graphics.getHeight() - 30);
+		batch.end();
+	}
+
+	@Override
+	public void dispose () {
+		group.clear();
+		group.dispose();
+		batch.dispose();
+		font.dispose();
+		effect.dispose();
+	}
+}
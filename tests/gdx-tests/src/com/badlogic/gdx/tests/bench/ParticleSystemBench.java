@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.tests.bench;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.InputMultiplexer;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g3d.ModelBatch;
+import com.badlogic.gdx.graphics.g3d.particles.ParticleController;
+import com.badlogic.gdx.graphics.g3d.particles.ParticleEffect;
+import com.badlogic.gdx.graphics.g3d.particles.ParticleSystem;
+import com.badlogic.gdx.graphics.g3d.particles.batches.BillboardParticleBatch;
+import com.badlogic.gdx.graphics.g3d.particles.emitters.RegularEmitter;
+import com.badlogic.gdx.graphics.g3d.particles.influencers.ColorInfluencer;
+import com.badlogic.gdx.graphics.g3d.particles.influencers.DynamicsInfluencer;
+import com.badlogic.gdx.graphics.g3d.particles.influencers.DynamicsModifier.BrownianAcceleration;
+import com.badlogic.gdx.graphics.g3d.particles.influencers.RegionInfluencer;
+import com.badlogic.gdx.graphics.g3d.particles.influencers.ScaleInfluencer;
+import com.badlogic.gdx.graphics.g3d.particles.influencers.SpawnInfluencer;
+import com.badlogic.gdx.graphics.g3d.particles.renderers.BillboardRenderer;
+import com.badlogic.gdx.graphics.g3d.particles.values.PointSpawnShapeValue;
+import com.badlogic.gdx.graphics.g3d.utils.CameraInputController;
+import com.badlogic.gdx.input.GestureDetector;
+import com.badlogic.gdx.input.GestureDetector.GestureAdapter;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.tests.utils.GdxTest;
+import com.badlogic.gdx.utils.PerformanceCounter;
+import com.badlogic.gdx.utils.async.ThreadUtils;
+
+/** Simulates 10k small billboard effects and compares updating the {@link ParticleSystem} on one thread with updating it on all
+ * available processors. Double tap to switch. */
+public class ParticleSystemBench extends GdxTest {
+	static final int COUNT = 10000;
+
+	PerspectiveCamera camera;
+	CameraInputController cameraController;
+	ModelBatch modelBatch;
+	Texture texture;
+	BillboardParticleBatch particleBatch;
+	ParticleSystem particleSystem;
+	PerformanceCounter singlePerf = new PerformanceCounter("single thread");
+	PerformanceCounter parallelPerf = new PerformanceCounter("parallel");
+	SpriteBatch batch;
+	BitmapFont font;
+
+	@Override
+	public void create () {
+		camera = new PerspectiveCamera(67, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+		camera.position.set(0, 80, 150);
+		camera.lookAt(0, 0, 0);
+		camera.far = 1000;
+		camera.update();
+
+		texture = new Texture(Gdx.files.internal("data/pre_particle.png"));
+		particleBatch = new BillboardParticleBatch();
+		particleBatch.setCamera(camera);
+		particleBatch.setTexture(texture);
+		particleSystem = new ParticleSystem();
+		particleSystem.add(particleBatch);
+		particleSystem.setThreads(ThreadUtils.availableProcessors());
+		for (int i = 0; i < COUNT; i++) {
+			ParticleEffect effect = new ParticleEffect(createController());
+			effect.init();
+			effect.start();
+			effect.translate(new Vector3(MathUtils.random(-100f, 100f), MathUtils.random(0f, 20f), MathUtils.random(-100f, 100f)));
+			particleSystem.add(effect);
+		}
+
+		modelBatch = new ModelBatch();
+		batch = new SpriteBatch();
+		font = new BitmapFont();
+
+		cameraController = new CameraInputController(camera);
+		GestureDetector toggle = new GestureDetector(new GestureAdapter() {
+			@Override
+			public boolean tap (float x, float y, int count, int button) {
+				if (count == 2) particleSystem.setThreads(particleSystem.getThreads() > 1 ? 1 : ThreadUtils.availableProcessors());
+				return false;
+			}
+		});
+		Gdx.input.setInputProcessor(new InputMultiplexer(toggle, cameraController));
+	}
+
+	ParticleController createController () {
+		RegularEmitter emitter = new RegularEmitter();
+		emitter.getDuration().setLow(3000);
+		emitter.getEmission().setHigh(20);
+		emitter.getLife().setHigh(1500);
+		emitter.setMaxParticleCount(40);
+
+		PointSpawnShapeValue spawnShape = new PointSpawnShapeValue();
+		spawnShape.xOffsetValue.setLow(0, 1f);
+		spawnShape.xOffsetValue.setActive(true);
+		spawnShape.zOffsetValue.setLow(0, 1f);
+		spawnShape.zOffsetValue.setActive(true);
+
+		ScaleInfluencer scaleInfluencer = new ScaleInfluencer();
+		scaleInfluencer.value.setTimeline(new float[] {0, 1});
+		scaleInfluencer.value.setScaling(new float[] {1, 0});
+		scaleInfluencer.value.setHigh(1);
+
+		ColorInfluencer.Single colorInfluencer = new ColorInfluencer.Single();
+		colorInfluencer.colorValue.setColors(new float[] {1, 0.5f, 0.1f, 0.2f, 0.1f, 0});
+		colorInfluencer.colorValue.setTimeline(new float[] {0, 1});
+		colorInfluencer.alphaValue.setHigh(1);
+
+		DynamicsInfluencer dynamicsInfluencer = new DynamicsInfluencer();
+		BrownianAcceleration modifier = new BrownianAcceleration();
+		modifier.strengthValue.setHigh(20);
+		dynamicsInfluencer.velocities.add(modifier);
+
+		return new ParticleController("bench", emitter, new BillboardRenderer(particleBatch), new RegionInfluencer.Single(texture),
+			new SpawnInfluencer(spawnShape), scaleInfluencer, colorInfluencer, dynamicsInfluencer);
+	}
+
+	@Override
+	public void render () {
+		float delta = Gdx.graphics.getDeltaTime();
+		cameraController.update();
+
+		PerformanceCounter perf = particleSystem.getThreads() > 1 ? parallelPerf : singlePerf;
+		perf.start();
+		particleSystem.update(delta);
+		perf.stop();
+		perf.tick(delta);
+
+		Gdx.gl.glViewport(0, 0, Gdx.graphics.getBackBufferWidth(), Gdx.graphics.getBackBufferHeight());
+		Gdx.gl.glClearColor(0.1f, 0.1f, 0.1f, 1);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
+		particleSystem.begin();
+		particleSystem.draw();
+		particleSystem.end();
+		modelBatch.begin(camera);
+		modelBatch.render(particleSystem);
+		modelBatch.end();
+
+		batch.begin();
+		font.draw(batch, "FPS: " + Gdx.graphics.getFramesPerSecond() + ", " + COUNT + " effects, " + particleSystem.getThreads()
+			+ " threads (double tap to switch)", 10, Gdx.graphics.getHeight() - 10);
+		font.draw(batch, String.format("Simulation update: single thread %.3f ms, parallel %.3f ms", singlePerf.time.average * 1000,
+			parallelPerf.time.average * 1000), 10, Gdx.graphics.getHeight() - 30);
+		batch.end();
+	}
+
+	@Override
+	public void resize (int width, int height) {
+		camera.viewportWidth = width;
+		camera.viewportHeight = height;
+		camera.update();
+		batch.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+	}
+
+	@Override
+	public void dispose () {
+		particleSystem.dispose();
+		modelBatch.dispose();
+		texture.dispose();
+		batch.dispose();
+		font.dispose();
+	}
+}
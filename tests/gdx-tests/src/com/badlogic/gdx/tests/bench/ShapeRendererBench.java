@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.tests.bench;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer.ShapeType;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.tests.utils.GdxTest;
+import com.badlogic.gdx.utils.PerformanceCounter;
+
+/** Draws thousands of outlines, filled circles and points alternating the shape type, like debug drawing does, and compares the
+ * default {@link ShapeRenderer} with a {@link ShapeRenderer#setTessellated(boolean) tessellated} one. Touch to switch. */
+public class ShapeRendererBench extends GdxTest {
+	static final int COUNT = 2000;
+
+	ShapeRenderer shapes;
+	SpriteBatch batch;
+	BitmapFont font;
+	float[] positions = new float[COUNT * 2];
+	PerformanceCounter defaultPerf = new PerformanceCounter("default");
+	PerformanceCounter tessellatedPerf = new PerformanceCounter("tessellated");
+	int renderCalls, shapeTypeFlushes;
+
+	@Override
+	public void create () {
+		shapes = new ShapeRenderer();
+		shapes.setAutoShapeType(true);
+		batch = new SpriteBatch();
+		font = new BitmapFont();
+		for (int i = 0; i < positions.length; i += 2) {
+			positions[i] = MathUtils.random(Gdx.graphics.getWidth());
+			positions[i + 1] = MathUtils.random(Gdx.graphics.getHeight());
+		}
+	}
+
+	@Override
+	public void render () {
+		float delta = Gdx.graphics.getDeltaTime();
+		if (Gdx.input.justTouched()) shapes.setTessellated(!shapes.isTessellated());
+
+		Gdx.gl.glClearColor(0, 0, 0, 1);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+		PerformanceCounter perf = shapes.isTessellated() ? tessellatedPerf : defaultPerf;
+		perf.start();
+		shapes.renderCalls = 0;
+		shapes.shapeTypeFlushes = 0;
+		shapes.begin();
+		for (int i = 0; i < positions.length; i += 2) {
+			float x = positions[i], y = positions[i + 1];
+			shapes.set(ShapeType.Line);
+			shapes.setColor(0, 1, 0, 1);
+			shapes.rect(x - 8, y - 8, 16, 16);
+			shapes.set(ShapeType.Filled);
+			shapes.setColor(1, 0, 0, 1);
+			shapes.circle(x, y, 4, 8);
+			shapes.set(ShapeType.Point);
+			shapes.setColor(1, 1, 1, 1);
+			shapes.point(x, y + 10, 0);
+		}
+		shapes.end();
+		perf.stop();
+		perf.tick(delta);
+		renderCalls = shapes.renderCalls;
+		shapeTypeFlushes = shapes.shapeTypeFlushes;
+
+		batch.begin();
+		font.draw(batch, "FPS: " + Gdx.graphics.getFramesPerSecond() + ", " + COUNT * 3 + " shapes, "
+			+ (shapes.isTessellated() ? "tessellated" : "default") + " (touch to switch)", 10, Gdx.graphics.getHeight() - 10);
+		font.draw(batch, String.format("Drawing: default %.3f ms, tessellated %.3f ms, render calls %d, shape type flushes %d",
+			defaultPerf.time.average * 1000, tessellatedPerf.time.average * 1000, renderCalls, shapeTypeFlushes), 10,
+			Gdx.graphics.getHeight() - 30);
+		batch.end();
+	}
+
+	@Override
+	public void resize (int width, int height) {
+		shapes.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+		shapes.updateMatrices();
+		batch.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+	}
+
+	@Override
+	public void dispose () {
+		shapes.dispose();
+		batch.dispose();
+		font.dispose();
+	}
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.tests.g3d;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.InputMultiplexer;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.VertexAttributes.Usage;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g3d.Environment;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.ModelBatch;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
+import com.badlogic.gdx.graphics.g3d.environment.DirectionalLight;
+import com.badlogic.gdx.graphics.g3d.utils.CameraInputController;
+import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import com.badlogic.gdx.input.GestureDetector;
+import com.badlogic.gdx.input.GestureDetector.GestureAdapter;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.tests.utils.GdxTest;
+import com.badlogic.gdx.utils.Array;
+
+/** Renders thousands of differently colored boxes with {@link ModelBatch#setInstancing(boolean) instancing} enabled, double tap
+ * to toggle it. Requires OpenGL ES 3.0 for instancing. */
+public class ModelInstancingTest extends GdxTest {
+	static final int COUNT = 20;
+
+	PerspectiveCamera camera;
+	CameraInputController cameraController;
+	ModelBatch modelBatch;
+	Model model;
+	Array<ModelInstance> instances = new Array<ModelInstance>();
+	Environment environment;
+	GLProfiler profiler;
+	SpriteBatch batch;
+	BitmapFont font;
+
+	@Override
+	public void create () {
+		camera = new PerspectiveCamera(67, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+		camera.position.set(COUNT * 2, COUNT * 2, COUNT * 2);
+		camera.lookAt(0, 0, 0);
+		camera.far = COUNT * 10;
+		camera.update();
+
+		environment = new Environment();
+		environment.set(new ColorAttribute(ColorAttribute.AmbientLight, 0.4f, 0.4f, 0.4f, 1f));
+		environment.add(new DirectionalLight().set(0.8f, 0.8f, 0.8f, -1f, -0.8f, -0.2f));
+
+		model = new ModelBuilder().createBox(1f, 1f, 1f, new Material(ColorAttribute.createDiffuse(Color.WHITE)),
+			Usage.Position | Usage.Normal);
+		for (int x = 0; x < COUNT; x++) {
+			for (int y = 0; y < COUNT; y++) {
+				for (int z = 0; z < COUNT; z++) {
+					ModelInstance instance = new ModelInstance(model);
+					instance.transform.setToTranslation((x - COUNT / 2) * 2, (y - COUNT / 2) * 2, (z - COUNT / 2) * 2);
+					instance.transform.rotate(MathUtils.random(), MathUtils.random(), MathUtils.random(), MathUtils.random(360f));
+					instance.materials.get(0).set(ColorAttribute.createDiffuse(x / (float)COUNT, y / (float)COUNT, z / (float)COUNT, 1));
+					instances.add(instance);
+				}
+			}
+		}
+
+		modelBatch = new ModelBatch();
+		modelBatch.setInstancing(true);
+
+		profiler = new GLProfiler(Gdx.graphics);
+		profiler.enable();
+		batch = new SpriteBatch();
+		font = new BitmapFont();
+
+		cameraController = new CameraInputController(camera);
+		GestureDetector toggle = new GestureDetector(new GestureAdapter() {
+			@Override
+			public boolean tap (float x, float y, int count, int button) {
+				if (count == 2) modelBatch.setInstancing(!modelBatch.isInstancing());
+				return false;
+			}
+		});
+		Gdx.input.setInputProcessor(new InputMultiplexer(toggle, cameraController));
+	}
+
+	@Override
+	public void render () {
+		cameraController.update();
+		profiler.reset();
+
+		Gdx.gl.glViewport(0, 0, Gdx.graphics.getBackBufferWidth(), Gdx.graphics.getBackBufferHeight());
+		Gdx.gl.glClearColor(0.2f, 0.2f, 0.2f, 1);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
+		modelBatch.begin(camera);
+		modelBatch.render(instances, environment);
+		modelBatch.end();
+		int drawCalls = profiler.getDrawCalls();
+
+		batch.begin();
+		font.draw(batch, "FPS: " + Gdx.graphics.getFramesPerSecond() + ", instancing: " + modelBatch.isInstancing()
+			+ " (double tap to toggle)", 10, Gdx.graphics.getHeight() - 10);
+		font.draw(batch, "Draw calls: " + drawCalls + ", instanced: " + modelBatch.instancedDrawCalls + ", saved: "
+			+ modelBatch.drawCallsSaved, 10, Gdx.graphics.getHeight() - 30);
+		batch.end();
+	}
+
+	@Override
+	public void resize (int width, int height) {
+		camera.viewportWidth = width;
+		camera.viewportHeight = height;
+		camera.update();
+		batch.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+	}
+
+	@Override
+	public void dispose () {
+		profiler.disable();
+		modelBatch.dispose();
+		model.dispose();
+		batch.dispose();
+		font.dispose();
+	}
+}
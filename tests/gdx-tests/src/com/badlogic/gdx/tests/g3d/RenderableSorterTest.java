@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright 2011 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.tests.g3d;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.Shader;
+import com.badlogic.gdx.graphics.g3d.attributes.BlendingAttribute;
+import com.badlogic.gdx.graphics.g3d.utils.DefaultRenderableSorter;
+import com.badlogic.gdx.graphics.g3d.utils.RadixRenderableSorter;
+import com.badlogic.gdx.graphics.g3d.utils.RenderContext;
+import com.badlogic.gdx.graphics.g3d.utils.RenderableSorter;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.tests.utils.GdxTest;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.PerformanceCounter;
+
+/** Benchmarks {@link RadixRenderableSorter} against {@link DefaultRenderableSorter} by sorting a shuffled scene of 20k
+ * renderables every frame from a moving camera. */
+public class RenderableSorterTest extends GdxTest {
+	static final int RENDERABLES = 20000, SHADERS = 8, MATERIALS = 64, MESHES = 32;
+
+	PerspectiveCamera camera;
+	Array<Renderable> renderables = new Array<Renderable>();
+	Array<Mesh> meshes = new Array<Mesh>();
+	RenderableSorter defaultSorter = new DefaultRenderableSorter();
+	RenderableSorter radixSorter = new RadixRenderableSorter();
+	PerformanceCounter defaultPerf = new PerformanceCounter("default");
+	PerformanceCounter radixPerf = new PerformanceCounter("radix");
+	SpriteBatch batch;
+	BitmapFont font;
+	float time, logTime;
+	final Vector3 tmpV = new Vector3();
+
+	@Override
+	public void create () {
+		camera = new PerspectiveCamera(67, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+		camera.far = 1000;
+
+		Shader[] shaders = new Shader[SHADERS];
+		for (int i = 0; i < SHADERS; i++)
+			shaders[i] = new NoopShader();
+		Material[] materials = new Material[MATERIALS];
+		for (int i = 0; i < MATERIALS; i++)
+			materials[i] = i % 4 == 0 ? new Material(new BlendingAttribute(0.5f)) : new Material();
+		for (int i = 0; i < MESHES; i++)
+			meshes.add(new Mesh(true, 3, 0, VertexAttribute.Position()));
+
+		for (int i = 0; i < RENDERABLES; i++) {
+			Renderable renderable = new Renderable();
+			renderable.shader = shaders[MathUtils.random(SHADERS - 1)];
+			renderable.material = materials[MathUtils.random(MATERIALS - 1)];
+			renderable.meshPart.set("part", meshes.get(MathUtils.random(MESHES - 1)), 0, 3, GL20.GL_TRIANGLES);
+			renderable.worldTransform.setToTranslation(MathUtils.random(-500f, 500f), MathUtils.random(-50f, 50f),
+				MathUtils.random(-500f, 500f));
+			renderables.add(renderable);
+		}
+
+		batch = new SpriteBatch();
+		font = new BitmapFont();
+	}
+
+	@Override
+	public void render () {
+		float delta = Gdx.graphics.getDeltaTime();
+		time += delta;
+		camera.position.set(MathUtils.cos(time * 0.3f) * 300, 20, MathUtils.sin(time * 0.3f) * 300);
+		camera.lookAt(0, 0, 0);
+		camera.update();
+
+		renderables.shuffle();
+		defaultPerf.start();
+		defaultSorter.sort(camera, renderables);
+		defaultPerf.stop();
+		defaultPerf.tick(delta);
+
+		renderables.shuffle();
+		radixPerf.start();
+		radixSorter.sort(camera, renderables);
+		radixPerf.stop();
+		radixPerf.tick(delta);
+		verify(camera, renderables);
+
+		logTime += delta;
+		if (logTime > 2) {
+			logTime = 0;
+			Gdx.app.log("RenderableSorterTest", status());
+		}
+
+		Gdx.gl.glClearColor(0, 0, 0, 1);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+		batch.begin();
+		font.draw(batch, status(), 10, Gdx.graphics.getHeight() - 10);
+		batch.end();
+	}
+
+	private String status () {
+		return String.format("%d renderables: default %.3f ms, radix %.3f ms (%.2fx)", RENDERABLES,
+			defaultPerf.time.average * 1000, radixPerf.time.average * 1000, defaultPerf.time.average / radixPerf.time.average);
+	}
+
+	/** Checks that all opaque renderables come before the blended ones and that the blended ones are sorted back to front. */
+	private void verify (Camera camera, Array<Renderable> renderables) {
+		boolean blended = false;
+		float lastDistance = Float.MAX_VALUE;
+		for (Renderable renderable : renderables) {
+			boolean isBlended = renderable.material.has(BlendingAttribute.Type);
+			if (blended && !isBlended) throw new IllegalStateException("Opaque renderable sorted after a blended one.");
+			blended = isBlended;
+			if (!isBlended) continue;
+			float distance = renderable.worldTransform.getTranslation(tmpV).dst2(camera.position);
+			if (distance > lastDistance) throw new IllegalStateException("Blended renderables not sorted back to front.");
+			lastDistance = distance;
+		}
+	}
+
+	@Override
+	public void dispose () {
+		for (Mesh mesh : meshes)
+			mesh.dispose();
+		batch.dispose();
+		font.dispose();
+	}
+
+	static class NoopShader implements Shader {
+		public void init () {
+		}
+
+		public int compareTo (Shader other) {
+			return 0;
+		}
+
+		public boolean canRender (Renderable instance) {
+			return true;
+		}
+
+		public void begin (Camera camera, RenderContext context) {
+		}
+
+		public void render (Renderable renderable) {
+		}
+
+		public void end () {
+		}
+
+		public void dispose () {
+		}
+	}
+}
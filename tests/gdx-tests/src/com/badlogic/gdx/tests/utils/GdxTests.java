@@ -37,6 +37,19 @@ import java.util.Collections;
 import java.util.List;
 
 import com.badlogic.gdx.tests.*;
+import com.badlogic.gdx.tests.bench.ArrayParticleEmitterBench;
+import com.badlogic.gdx.tests.bench.ChunkedModelCacheBench;
+import com.badlogic.gdx.tests.bench.ClusteredLightsBench;
+import com.badlogic.gdx.tests.bench.CrowdAnimationBench;
+import com.badlogic.gdx.tests.bench.DepthSortBench;
+import com.badlogic.gdx.tests.bench.FrustumCullingBench;
+import com.badlogic.gdx.tests.bench.GLStateCacheBench;
+import com.badlogic.gdx.tests.bench.LodBench;
+import com.badlogic.gdx.tests.bench.MeshOptimizerBench;
+import com.badlogic.gdx.tests.bench.OcclusionCullingBench;
+import com.badlogic.gdx.tests.bench.ParticleEffectGroupBench;
+import com.badlogic.gdx.tests.bench.ParticleSystemBench;
+import com.badlogic.gdx.tests.bench.ShapeRendererBench;
 import com.badlogic.gdx.tests.bench.TiledMapBench;
 import com.badlogic.gdx.tests.conformance.DisplayModeTest;
 import com.badlogic.gdx.tests.examples.MoveSpriteExample;
@@ -62,11 +75,13 @@ import com.badlogic.gdx.tests.g3d.MaterialTest;
 import com.badlogic.gdx.tests.g3d.MaterialEmissiveTest;
 import com.badlogic.gdx.tests.g3d.MeshBuilderTest;
 import com.badlogic.gdx.tests.g3d.ModelCacheTest;
+import com.badlogic.gdx.tests.g3d.ModelInstancingTest;
 import com.badlogic.gdx.tests.g3d.ModelTest;
 import com.badlogic.gdx.tests.g3d.MultipleRenderTargetTest;
 import com.badlogic.gdx.tests.g3d.ParticleControllerInfluencerSingleTest;
 import com.badlogic.gdx.tests.g3d.ParticleControllerTest;
 import com.badlogic.gdx.tests.g3d.PolarAccelerationTest;
+import com.badlogic.gdx.tests.g3d.RenderableSorterTest;
 import com.badlogic.gdx.tests.g3d.ShaderCollectionTest;
 import com.badlogic.gdx.tests.g3d.ShaderTest;
 import com.badlogic.gdx.tests.g3d.ShadowMappingTest;
@@ -99,6 +114,7 @@ public class GdxTests {
 		AnimationTest.class,
 		AnisotropyTest.class,
 		AnnotationTest.class,
+		ArrayParticleEmitterBench.class,
 		AssetManagerTest.class,
 		AtlasIssueTest.class,
 		AudioDeviceTest.class,
@@ -119,15 +135,19 @@ public class GdxTests {
 		Bresenham2Test.class,
 		BufferUtilsTest.class,
 		BulletTestCollection.class,
+		ChunkedModelCacheBench.class,
 		ClipboardTest.class,
+		ClusteredLightsBench.class,
 		CollectionsTest.class,
 		ColorTest.class,
 		ContainerTest.class,
 		CoordinatesTest.class,
 		CpuSpriteBatchTest.class,
+		CrowdAnimationBench.class,
 		CullTest.class,
 		CursorTest.class,
 		DecalTest.class,
+		DepthSortBench.class,
 		DefaultTextureBinderTest.class,
 		DelaunayTriangulatorTest.class,
 		DeltaTimeTest.class,
@@ -147,12 +167,14 @@ public class GdxTests {
 		FrameBufferCubemapTest.class,
 		FrameBufferTest.class,
 		FramebufferToTextureTest.class,
+		FrustumCullingBench.class,
 		FullscreenTest.class,
 		ControllersTest.class,
 		Gdx2DTest.class,
 		GestureDetectorTest.class,
 		GLES30Test.class,
 		GLProfilerErrorTest.class,
+		GLStateCacheBench.class,
 		GroupCullingTest.class,
 		GroupFadeTest.class,
 		GroupTest.class,
@@ -178,14 +200,17 @@ public class GdxTests {
 		LabelTest.class,
 		LifeCycleTest.class,
 		LightsTest.class,
+		LodBench.class,
 		MaterialTest.class,
 		MaterialEmissiveTest.class,
 		MatrixJNITest.class,
 		MeshBuilderTest.class,
+		MeshOptimizerBench.class,
 		MeshShaderTest.class,
 		MipMapTest.class,
 		ModelTest.class,
 		ModelCacheTest.class,
+		ModelInstancingTest.class,
 		MoveSpriteExample.class,
 		MultipleRenderTargetTest.class,
 		MultitouchTest.class,
@@ -193,16 +218,20 @@ public class GdxTests {
 		NetAPITest.class,
 		NinePatchTest.class,
 		NoncontinuousRenderingTest.class,
+		OcclusionCullingBench.class,
 		OnscreenKeyboardTest.class,
 		PathTest.class,
 		ParallaxTest.class,
 		ParticleControllerInfluencerSingleTest.class,
 		ParticleControllerTest.class,
+		ParticleEffectGroupBench.class,
 		ParticleEmitterTest.class,
 		ParticleEmittersTest.class,
 		ParticleEmitterChangeSpriteTest.class,
+		ParticleSystemBench.class,
 		PixelsPerInchTest.class,
 		PixmapBlendingTest.class,
+		PixmapExecutorTest.class,
 		PixmapPackerTest.class,
 		PixmapPackerIOTest.class,
 		PixmapTest.class,
@@ -214,6 +243,7 @@ public class GdxTests {
 		ProjectiveTextureTest.class,
 		ReflectionTest.class,
 		ReflectionCorrectnessTest.class,
+		RenderableSorterTest.class,
 		RotationTest.class,
 		RunnablePostTest.class,
 		Scene2dTest.class,
@@ -228,6 +258,7 @@ public class GdxTests {
 		ShaderMultitextureTest.class,
 		ShaderTest.class,
 		ShadowMappingTest.class,
+		ShapeRendererBench.class,
 		ShapeRendererTest.class,
 		ShapeRendererAlphaTest.class,
 		SimpleAnimationTest.class,